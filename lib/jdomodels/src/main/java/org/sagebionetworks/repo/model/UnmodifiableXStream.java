@@ -6,6 +6,8 @@ import java.io.Reader;
 import java.io.Writer;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.binary.BinaryStreamReader;
+import com.thoughtworks.xstream.io.binary.BinaryStreamWriter;
 
 /**
  * Facade over an XStream object that makes it unmodifiable/unconfigurable.
@@ -48,6 +50,29 @@ public class UnmodifiableXStream {
 		return xStream.fromXML(input, root);
 	}
 
+	/**
+	 * Write the given object using XStream's compact binary token format. The
+	 * same aliases used for XML apply to the binary format.
+	 * 
+	 * @param obj
+	 * @param out
+	 */
+	public void toBinary(Object obj, OutputStream out){
+		BinaryStreamWriter writer = new BinaryStreamWriter(out);
+		xStream.marshal(obj, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Read an object that was written with {@link #toBinary(Object, OutputStream)}.
+	 * 
+	 * @param input
+	 * @return
+	 */
+	public Object fromBinary(InputStream input){
+		return xStream.unmarshal(new BinaryStreamReader(input));
+	}
+
 	///////////
 	// Builder
 	///////////
@@ -38,4 +38,16 @@ public interface AccessRestrictionStatusDao {
 	 * where the type is not an 'ENTITY'
 	 */
 	public List<UsersRestrictionStatus> getNonEntityStatus(List<Long> subjectIds, RestrictableObjectType subjectType, Long userId);
+
+	/**
+	 * Consistency check of the node ancestors used to find the access
+	 * restrictions of entities. For each of the given entities, the restrictions
+	 * found through the ancestors are compared to the restrictions found by
+	 * walking the entity's hierarchy.
+	 * 
+	 * @param entityIds The ids of the entities to check.
+	 * @return The ids of the entities whose restrictions do not match. Empty if
+	 *         all of the entities are consistent.
+	 */
+	public List<Long> getEntitiesWithInconsistentRestrictions(List<Long> entityIds);
 }
@@ -11,6 +11,8 @@ import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.NodeConstants;
 import org.sagebionetworks.repo.model.RestrictableObjectType;
 import org.sagebionetworks.repo.model.dbo.DDLUtilsImpl;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -22,8 +24,12 @@ public class AccessRestrictionStatusDaoImpl implements AccessRestrictionStatusDa
 	
 	public static final String GET_ENTITY_ACCESS_RESTRICTIONS_SQL = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/GetEntityAccessRestrictions.sql");
+	public static final String GET_ENTITY_ACCESS_RESTRICTIONS_BY_ANCESTOR_SQL = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetEntityAccessRestrictionsByAncestor.sql");
 	public static final String GET_NON_ENTITY_ACCESS_RESTRICTIONS_SQL = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/GetNonEntityAccessRestrictions.sql");
+	public static final String GET_ENTITIES_WITH_INCONSISTENT_ACCESS_RESTRICTIONS_SQL = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetEntitiesWithInconsistentAccessRestrictions.sql");
 
 	private static final String CREATED_BY = "CREATED_BY";
 	private static final String NODE_TYPE = "NODE_TYPE";
@@ -34,6 +40,8 @@ public class AccessRestrictionStatusDaoImpl implements AccessRestrictionStatusDa
 	private static final String SUBJECT_ID = "SUBJECT_ID";
 	@Autowired
 	private NamedParameterJdbcTemplate namedJdbcTemplate;
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
 
 	@Override
 	public List<UsersRestrictionStatus> getSubjectStatus(List<Long> subjectIds, RestrictableObjectType subjectType,
@@ -64,7 +72,10 @@ public class AccessRestrictionStatusDaoImpl implements AccessRestrictionStatusDa
 		params.addValue("entityIds", entityIds);
 		params.addValue("userId", userId);
 		params.addValue("depth", NodeConstants.MAX_PATH_DEPTH_PLUS_ONE);
-		namedJdbcTemplate.query(GET_ENTITY_ACCESS_RESTRICTIONS_SQL, params, (ResultSet rs) -> {
+		// The hierarchy is walked with PARENT_ID until every node has its ancestors.
+		String sql = backfillStatusDao.isComplete(BackfillType.NODE_ANCESTOR) ? GET_ENTITY_ACCESS_RESTRICTIONS_BY_ANCESTOR_SQL
+				: GET_ENTITY_ACCESS_RESTRICTIONS_SQL;
+		namedJdbcTemplate.query(sql, params, (ResultSet rs) -> {
 			Long entityId = rs.getLong(ENTITY_ID);
 			EntityType entityType = EntityType.valueOf(rs.getString(NODE_TYPE));
 			Long createdBy = rs.getLong(CREATED_BY);
@@ -151,4 +162,16 @@ public class AccessRestrictionStatusDaoImpl implements AccessRestrictionStatusDa
 		return new ArrayList<UsersRestrictionStatus>(statusMap.values());
 	}
 
+	@Override
+	public List<Long> getEntitiesWithInconsistentRestrictions(List<Long> entityIds) {
+		ValidateArgument.required(entityIds, "entityIds");
+		if (entityIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("entityIds", entityIds);
+		params.addValue("depth", NodeConstants.MAX_PATH_DEPTH_PLUS_ONE);
+		return namedJdbcTemplate.queryForList(GET_ENTITIES_WITH_INCONSISTENT_ACCESS_RESTRICTIONS_SQL, params, Long.class);
+	}
+
 }
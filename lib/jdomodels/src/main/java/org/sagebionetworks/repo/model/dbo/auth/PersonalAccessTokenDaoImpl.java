@@ -57,6 +57,11 @@ public class PersonalAccessTokenDaoImpl implements PersonalAccessTokenDao {
 			COL_PERSONAL_ACCESS_TOKEN_LAST_USED+" = :" + PARAM_LAST_USED +
 			" WHERE "+ COL_PERSONAL_ACCESS_TOKEN_ID+" = :" + PARAM_TOKEN_ID;
 
+	private static final String UPDATE_LAST_USED_IF_LATER = "UPDATE " + TABLE_PERSONAL_ACCESS_TOKEN+
+			" SET "+
+			COL_PERSONAL_ACCESS_TOKEN_LAST_USED+" = GREATEST(" + COL_PERSONAL_ACCESS_TOKEN_LAST_USED + ", :" + PARAM_LAST_USED + ")" +
+			" WHERE "+ COL_PERSONAL_ACCESS_TOKEN_ID+" = :" + PARAM_TOKEN_ID;
+
 
 	/*
 	 * We use a JOIN because
@@ -187,6 +192,21 @@ public class PersonalAccessTokenDaoImpl implements PersonalAccessTokenDao {
 		namedParameterJdbcTemplate.update(UPDATE_LAST_USED, params);
 	}
 
+	@WriteTransaction
+	@Override
+	public void updateLastUsed(Map<String, Date> lastUsedByTokenId) {
+		ValidateArgument.required(lastUsedByTokenId, "lastUsedByTokenId");
+		if (lastUsedByTokenId.isEmpty()) {
+			return;
+		}
+		MapSqlParameterSource[] batch = lastUsedByTokenId.entrySet().stream()
+				.map(entry -> new MapSqlParameterSource()
+						.addValue(PARAM_TOKEN_ID, entry.getKey())
+						.addValue(PARAM_LAST_USED, entry.getValue()))
+				.toArray(MapSqlParameterSource[]::new);
+		namedParameterJdbcTemplate.batchUpdate(UPDATE_LAST_USED_IF_LATER, batch);
+	}
+
 	@WriteTransaction
 	@Override
 	public void deleteToken(String tokenId) {
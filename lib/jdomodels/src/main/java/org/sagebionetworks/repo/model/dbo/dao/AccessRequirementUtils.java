@@ -107,6 +107,19 @@ public class AccessRequirementUtils {
 		}
 	}
 
+	/**
+	 * Rewrite serialized access requirement bytes with the current blob encoding.
+	 * @param serializedField
+	 * @return
+	 */
+	public static byte[] reencodeSerializedField(byte[] serializedField) {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(X_STREAM, serializedField);
+		} catch (IOException e) {
+			throw new DatastoreException(e);
+		}
+	}
+
 	public static void copyToSerializedField(AccessRequirement dto, DBOAccessRequirementRevision dbo) {
 		dbo.setSerializedEntity(writeSerializedField(dto));
 	}
@@ -48,6 +48,19 @@ public class ActivityUtils {
 		}
 	}
 	
+	/**
+	 * Rewrite serialized activity bytes with the current blob encoding.
+	 * @param bytes
+	 * @return
+	 */
+	public static byte[] reencode(byte[] bytes) {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(X_STREAM, bytes);
+		} catch (IOException e) {
+			throw new DatastoreException(e);
+		}
+	}
+	
 	private static Activity copyFromSerializedField(DBOActivity dbo) throws DatastoreException {
 		try {
 			return (Activity)JDOSecondaryPropertyUtils.decompressObject(X_STREAM, dbo.getSerializedObject());
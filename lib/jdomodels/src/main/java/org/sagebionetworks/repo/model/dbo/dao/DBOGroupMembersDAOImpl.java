@@ -286,6 +286,12 @@ public class DBOGroupMembersDAOImpl implements GroupMembersDAO {
 	public Set<Long> getMemberIds(Long teamId) {
 		return getMemberIds(teamId, false);
 	}
+
+	@Override
+	public Set<Long> getMemberIds(Long teamId, long limit) {
+		ValidateArgument.required(teamId, "teamId");
+		return new HashSet<Long>(jdbcTemplate.queryForList(SELECT_MEMBER_IDS + " LIMIT ?", Long.class, teamId, limit));
+	}
 	
 	private Set<Long> getMemberIds(Long teamId, boolean forUpdate) {
 		ValidateArgument.required(teamId, "teamId");
@@ -11,6 +11,13 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_JONS_SCH
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_JSON_SCHEMA_BINDING_BIND_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_JSON_SCHEMA_BINDING_OBJECT_TYPE;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ALIAS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_ANCESTOR_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DISTANCE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_NODE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_CHILD_COUNT;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_NODE_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_PARENT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_SUM_FILE_SIZES;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CREATED_BY;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CREATED_ON;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CURRENT_REV;
@@ -49,6 +56,8 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.OFFSET_PARAM
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_FILES;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_JSON_SCHEMA_OBJECT_BINDING;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_CHILD_STATS;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_PROJECT_STAT;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_REVISION;
 
@@ -65,9 +74,11 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.NotImplementedException;
@@ -100,10 +111,13 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2Utils;
 import org.sagebionetworks.repo.model.dao.FileHandleMetadataType;
 import org.sagebionetworks.repo.model.dbo.DBOBasicDao;
 import org.sagebionetworks.repo.model.dbo.DDLUtilsImpl;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
 import org.sagebionetworks.repo.model.dbo.persistence.DBORevision;
 import org.sagebionetworks.repo.model.dbo.persistence.NodeMapper;
 import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
 import org.sagebionetworks.repo.model.entity.IdAndVersionBuilder;
 import org.sagebionetworks.repo.model.entity.NameIdType;
@@ -174,6 +188,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	public static final String SQL_GET_ALL_CONTAINER_IDS = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/GetAllContainerIds.sql");
 	
+	public static final String SQL_GET_ALL_CONTAINER_IDS_BY_ANCESTOR = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetAllContainerIdsByAncestor.sql");
+	
 	private static final String SQL_CREATE_SNAPSHOT_VERSION = "UPDATE " + TABLE_REVISION + " SET "
 			+ COL_REVISION_COMMENT + " = ?, " + COL_REVISION_LABEL + " = ?, " + COL_REVISION_ACTIVITY_ID + " = ?, "
 			+ COL_REVISION_MODIFIED_BY + " = ?, " + COL_REVISION_MODIFIED_ON + " = ? WHERE " + COL_REVISION_OWNER_NODE
@@ -188,6 +205,112 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	private static final String UPDATE_NODE = "UPDATE " + TABLE_NODE + " SET " + COL_NODE_NAME + " = ?, "
 			+ COL_NODE_PARENT_ID + " = ?, " + COL_NODE_ALIAS + " = ? WHERE " + COL_NODE_ID + " = ?";
 	
+	private static final String SQL_SELECT_PARENT_ID_AND_FILE_HANDLE_ID = "SELECT N." + COL_NODE_PARENT_ID + ", R."
+			+ COL_REVISION_FILE_HANDLE_ID + " FROM " + TABLE_NODE + " N JOIN " + TABLE_REVISION + " R ON (N."
+			+ COL_NODE_ID + " = R." + COL_REVISION_OWNER_NODE + " AND N." + COL_NODE_CURRENT_REV + " = R."
+			+ COL_REVISION_NUMBER + ") WHERE N." + COL_NODE_ID + " = ?";
+	
+	/**
+	 * Adds a row for the node itself and a row for each ancestor of its parent
+	 * (?,?,?,?) -> (nodeId, nodeId, nodeId, parentId).
+	 */
+	private static final String SQL_INSERT_NODE_ANCESTORS = "INSERT INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_NODE_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") SELECT ?, ?, 0 UNION ALL SELECT ?, " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", "
+			+ COL_NODE_ANCESTOR_DISTANCE + " + 1 FROM " + TABLE_NODE_ANCESTOR + " WHERE " + COL_NODE_ANCESTOR_NODE_ID
+			+ " = ?";
+	
+	/**
+	 * Removes the ancestors above the given node (?) from every node in its sub-tree.
+	 */
+	private static final String SQL_DELETE_SUB_TREE_ANCESTORS = "DELETE A FROM " + TABLE_NODE_ANCESTOR + " A JOIN "
+			+ TABLE_NODE_ANCESTOR + " S ON (A." + COL_NODE_ANCESTOR_NODE_ID + " = S." + COL_NODE_ANCESTOR_NODE_ID
+			+ ") WHERE S." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = ? AND A." + COL_NODE_ANCESTOR_DISTANCE + " > S."
+			+ COL_NODE_ANCESTOR_DISTANCE;
+	
+	/**
+	 * Adds the ancestors of the new parent (?) to every node in the sub-tree of the given node (?).
+	 */
+	private static final String SQL_INSERT_SUB_TREE_ANCESTORS = "INSERT INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_NODE_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") SELECT S." + COL_NODE_ANCESTOR_NODE_ID + ", P." + COL_NODE_ANCESTOR_ANCESTOR_ID + ", S."
+			+ COL_NODE_ANCESTOR_DISTANCE + " + P." + COL_NODE_ANCESTOR_DISTANCE + " + 1 FROM " + TABLE_NODE_ANCESTOR
+			+ " S JOIN " + TABLE_NODE_ANCESTOR + " P WHERE S." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = ? AND P."
+			+ COL_NODE_ANCESTOR_NODE_ID + " = ?";
+	
+	private static final String SQL_IS_ANCESTOR = "SELECT COUNT(*) FROM " + TABLE_NODE_ANCESTOR + " WHERE "
+			+ COL_NODE_ANCESTOR_NODE_ID + " = ? AND " + COL_NODE_ANCESTOR_ANCESTOR_ID + " = ?";
+	
+	private static final String SQL_INSERT_IGNORE_NODE_SELF = "INSERT IGNORE INTO " + TABLE_NODE_ANCESTOR + " ("
+			+ COL_NODE_ANCESTOR_NODE_ID + ", " + COL_NODE_ANCESTOR_ANCESTOR_ID + ", " + COL_NODE_ANCESTOR_DISTANCE
+			+ ") VALUES (?, ?, 0)";
+	
+	/**
+	 * Nodes without their own row whose parent (if any) already has its own row,
+	 * and nodes with their own row whose parent link at distance one does not
+	 * match their PARENT_ID. The latter are left behind when nodes are moved by a
+	 * restore, which does not maintain the ancestors.
+	 */
+	private static final String SQL_SELECT_NODES_MISSING_ANCESTORS = "SELECT N." + COL_NODE_ID + ", N."
+			+ COL_NODE_PARENT_ID + " FROM " + TABLE_NODE + " N LEFT JOIN " + TABLE_NODE_ANCESTOR + " S ON (S."
+			+ COL_NODE_ANCESTOR_NODE_ID + " = N." + COL_NODE_ID + " AND S." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = N."
+			+ COL_NODE_ID + ") LEFT JOIN " + TABLE_NODE_ANCESTOR + " P ON (P." + COL_NODE_ANCESTOR_NODE_ID + " = N."
+			+ COL_NODE_PARENT_ID + " AND P." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = N." + COL_NODE_PARENT_ID + ")"
+			+ " LEFT JOIN " + TABLE_NODE_ANCESTOR + " A ON (A." + COL_NODE_ANCESTOR_NODE_ID + " = N." + COL_NODE_ID
+			+ " AND A." + COL_NODE_ANCESTOR_DISTANCE + " = 1) WHERE (S." + COL_NODE_ANCESTOR_NODE_ID + " IS NULL AND (N."
+			+ COL_NODE_PARENT_ID + " IS NULL OR P." + COL_NODE_ANCESTOR_NODE_ID + " IS NOT NULL)) OR (S."
+			+ COL_NODE_ANCESTOR_NODE_ID + " IS NOT NULL AND N." + COL_NODE_PARENT_ID + " IS NULL AND A."
+			+ COL_NODE_ANCESTOR_NODE_ID + " IS NOT NULL) OR (S." + COL_NODE_ANCESTOR_NODE_ID + " IS NOT NULL AND P."
+			+ COL_NODE_ANCESTOR_NODE_ID + " IS NOT NULL AND (A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " IS NULL OR A."
+			+ COL_NODE_ANCESTOR_ANCESTOR_ID + " <> N." + COL_NODE_PARENT_ID + ")) LIMIT ?";
+	
+	/**
+	 * Rows of nodes that no longer exist. The foreign key cascades do not fire
+	 * when nodes are deleted by a restore.
+	 */
+	private static final String SQL_DELETE_ORPHANED_ANCESTORS = "DELETE FROM " + TABLE_NODE_ANCESTOR
+			+ " WHERE NOT EXISTS (SELECT 1 FROM " + TABLE_NODE + " N WHERE N." + COL_NODE_ID + " = " + TABLE_NODE_ANCESTOR
+			+ "." + COL_NODE_ANCESTOR_NODE_ID + ") OR NOT EXISTS (SELECT 1 FROM " + TABLE_NODE + " N WHERE N."
+			+ COL_NODE_ID + " = " + TABLE_NODE_ANCESTOR + "." + COL_NODE_ANCESTOR_ANCESTOR_ID + ") LIMIT ?";
+	
+	private static final String SQL_DELETE_NODE_ANCESTORS = "DELETE FROM " + TABLE_NODE_ANCESTOR + " WHERE "
+			+ COL_NODE_ANCESTOR_NODE_ID + " IN (:nodeIds)";
+	
+	private static final String SQL_SELECT_MAX_NODE_ID = "SELECT MAX(" + COL_NODE_ID + ") FROM " + TABLE_NODE;
+	
+	private static final String SQL_SELECT_NODE_IDS_FROM = "SELECT " + COL_NODE_ID + " FROM " + TABLE_NODE + " WHERE "
+			+ COL_NODE_ID + " >= ? ORDER BY " + COL_NODE_ID + " LIMIT ?";
+	
+	/**
+	 * The path of a given entity id (?) from the root to the entity itself, to be
+	 * used as a string template to set which columns of the node should be
+	 * selected.
+	 */
+	private static final String SQL_SELECT_PATH_TEMPLATE = "SELECT %1s FROM " + TABLE_NODE_ANCESTOR + " A JOIN "
+			+ TABLE_NODE + " N ON (A." + COL_NODE_ANCESTOR_ANCESTOR_ID + " = N." + COL_NODE_ID + ") WHERE A."
+			+ COL_NODE_ANCESTOR_NODE_ID + " = ? ORDER BY A." + COL_NODE_ANCESTOR_DISTANCE + " DESC";
+	
+	private static final String SQL_SELECT_PATH_IDS = "SELECT " + COL_NODE_ANCESTOR_ANCESTOR_ID + " FROM "
+			+ TABLE_NODE_ANCESTOR + " WHERE " + COL_NODE_ANCESTOR_NODE_ID + " = ? ORDER BY "
+			+ COL_NODE_ANCESTOR_DISTANCE + " DESC";
+	
+	/**
+	 * A recursive sql call to get the full path of a given entity id (?). The limit
+	 * on the distance prevents an infinite loop for a circular path. To be used a
+	 * string template to set which columns should be selected. The ORDER BY clause
+	 * ensures the order is from root to leaf. Note: The results will include the
+	 * requested node as the last element. Used until the node ancestors are
+	 * complete.
+	 * 
+	 */
+	public static final String PATH_QUERY_TEMPLATE = "WITH RECURSIVE PATH (" + COL_NODE_ID + ", " + COL_NODE_NAME + ", "
+			+ COL_NODE_TYPE + ", " + COL_NODE_PARENT_ID + ", DISTANCE) AS " + "(SELECT " + COL_NODE_ID + ", "
+			+ COL_NODE_NAME + ", " + COL_NODE_TYPE + ", " + COL_NODE_PARENT_ID + ", 1 FROM " + TABLE_NODE
+			+ " AS N WHERE " + COL_NODE_ID + " = ?" + " UNION ALL" + " SELECT N." + COL_NODE_ID + ", N."
+			+ COL_NODE_NAME + ", N." + COL_NODE_TYPE + ", N." + COL_NODE_PARENT_ID + ", PATH.DISTANCE+ 1 FROM "
+			+ TABLE_NODE + " AS N JOIN PATH ON (N." + COL_NODE_ID + " = PATH." + COL_NODE_PARENT_ID + ")" + " WHERE N."
+			+ COL_NODE_ID + " IS NOT NULL AND DISTANCE < "+NodeConstants.MAX_PATH_DEPTH_PLUS_ONE+" )" + " SELECT %1s FROM PATH ORDER BY DISTANCE DESC";
+	
 	private static final String SQL_UPDATE_ANNOTATIONS_FORMAT = "UPDATE " + TABLE_REVISION + " SET %s"
 			+ " = ? WHERE " + COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?";
 
@@ -207,6 +330,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	private static final String BIND_NODE_TYPES = "bNodeTypes";
 	private static final String BIND_LIMIT = "bLimit";
 	private static final String BIND_OFFSET = "bOffset";
+	private static final String BIND_LAST_ID = "bLastId";
+	private static final String BIND_LAST_VALUE = "bLastValue";
+	private static final String BIND_SIGN = "bSign";
 	
 
 	private static final String SQL_SELECT_CHILD = "SELECT "+COL_NODE_ID
@@ -292,26 +418,98 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			" JOIN "+TABLE_REVISION+" R"+
 			" ON (N."+COL_NODE_ID+" = R."+COL_REVISION_OWNER_NODE+" AND N."+COL_NODE_CURRENT_REV+" = R."+COL_REVISION_NUMBER+")";
 	
+	/**
+	 * The ID breaks ties between children with the same sort value, so a page can
+	 * start right after the last child of the previous page (%4$s).
+	 */
 	private static final String SQL_SELECT_CHIDREN_TEMPLATE =
 			ENTITY_HEADER_SELECT+
 				" FROM "+JOIN_NODE_REVISION+
 				" WHERE N."+COL_NODE_PARENT_ID+" = :"+BIND_PARENT_ID+
 						" %1$s"+
 						" AND N."+COL_NODE_TYPE+" IN (:"+BIND_NODE_TYPES+")"+
-						" ORDER BY %2$s %3$s"+
+						"%4$s"+
+						" ORDER BY %2$s %3$s, N."+COL_NODE_ID+" %3$s"+
 						" LIMIT :"+BIND_LIMIT+" OFFSET :"+BIND_OFFSET;
 	
+	/**
+	 * Children that sort after the last child of the previous page, to be used as a
+	 * string template with the sort column and the comparison operator.
+	 */
+	private static final String SQL_AFTER_LAST_CHILD_TEMPLATE =
+			" AND (%1$s %2$s :"+BIND_LAST_VALUE+" OR (%1$s = :"+BIND_LAST_VALUE+" AND N."+COL_NODE_ID+" %2$s :"+BIND_LAST_ID+"))";
+	
+	private static final String JOIN_NODE_REVISION_FILES = JOIN_NODE_REVISION+
+			" LEFT JOIN "+TABLE_FILES+" F"+
+				" ON (R."+COL_REVISION_FILE_HANDLE_ID+" = F."+COL_FILES_ID+")";
+	
+	/**
+	 * Aggregates the statistics over all children, to be used as a string template
+	 * with the fragment that excludes children.
+	 */
 	private static final String SQL_SELECT_CHIDREN_STATS =
 			"SELECT COUNT(*), SUM(F."+COL_FILES_CONTENT_SIZE+")"+
-				" FROM "+TABLE_NODE+" N"+
-				" JOIN "+TABLE_REVISION+" R"+
-					" ON (N."+COL_NODE_ID+" = R."+COL_REVISION_OWNER_NODE+" AND N."+COL_NODE_CURRENT_REV+" = R."+COL_REVISION_NUMBER+")"+
-				" LEFT JOIN "+TABLE_FILES+" F"+
-					" ON (R."+COL_REVISION_FILE_HANDLE_ID+" = F."+COL_FILES_ID+")"+
+				" FROM "+JOIN_NODE_REVISION_FILES+
 				" WHERE N."+COL_NODE_PARENT_ID+" = :"+BIND_PARENT_ID+
 						" %1$s"+
 						" AND N."+COL_NODE_TYPE+" IN (:"+BIND_NODE_TYPES+")";
 	
+	private static final String SQL_SELECT_CHILD_STATS =
+			"SELECT COALESCE(SUM("+COL_NODE_CHILD_STATS_CHILD_COUNT+"), 0), COALESCE(SUM("+COL_NODE_CHILD_STATS_SUM_FILE_SIZES+"), 0)"+
+				" FROM "+TABLE_NODE_CHILD_STATS+
+				" WHERE "+COL_NODE_CHILD_STATS_PARENT_ID+" = :"+BIND_PARENT_ID+
+						" AND "+COL_NODE_CHILD_STATS_NODE_TYPE+" IN (:"+BIND_NODE_TYPES+")";
+	
+	/**
+	 * The statistics of the children to exclude, which are looked up by ID rather
+	 * than aggregated over all children.
+	 */
+	private static final String SQL_SELECT_EXCLUDED_CHIDREN_STATS =
+			"SELECT COUNT(*), COALESCE(SUM(F."+COL_FILES_CONTENT_SIZE+"), 0)"+
+				" FROM "+JOIN_NODE_REVISION_FILES+
+				" WHERE N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+")"+
+						" AND N."+COL_NODE_PARENT_ID+" = :"+BIND_PARENT_ID+
+						" AND N."+COL_NODE_TYPE+" IN (:"+BIND_NODE_TYPES+")";
+	
+	/**
+	 * Adds the given nodes (:bNodeIds) to the statistics of their parents, or
+	 * removes them when the sign (:bSign) is -1.
+	 */
+	private static final String SQL_ADD_CHILD_STATS =
+			"INSERT INTO "+TABLE_NODE_CHILD_STATS+" ("+COL_NODE_CHILD_STATS_PARENT_ID+", "+COL_NODE_CHILD_STATS_NODE_TYPE+
+					", "+COL_NODE_CHILD_STATS_CHILD_COUNT+", "+COL_NODE_CHILD_STATS_SUM_FILE_SIZES+")"+
+				" SELECT * FROM (SELECT N."+COL_NODE_PARENT_ID+", N."+COL_NODE_TYPE+
+					", :"+BIND_SIGN+" * COUNT(*) AS C_COUNT, :"+BIND_SIGN+" * COALESCE(SUM(F."+COL_FILES_CONTENT_SIZE+"), 0) AS C_SIZE"+
+					" FROM "+JOIN_NODE_REVISION_FILES+
+					" WHERE N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+") AND N."+COL_NODE_PARENT_ID+" IS NOT NULL"+
+					" GROUP BY N."+COL_NODE_PARENT_ID+", N."+COL_NODE_TYPE+") C"+
+				" ON DUPLICATE KEY UPDATE "+COL_NODE_CHILD_STATS_CHILD_COUNT+" = "+COL_NODE_CHILD_STATS_CHILD_COUNT+" + C.C_COUNT, "+
+					COL_NODE_CHILD_STATS_SUM_FILE_SIZES+" = "+COL_NODE_CHILD_STATS_SUM_FILE_SIZES+" + C.C_SIZE";
+	
+	/**
+	 * Removes the statistics of the parents of the given nodes (:bNodeIds) that no
+	 * longer have any children of a type.
+	 */
+	private static final String SQL_DELETE_EMPTY_CHILD_STATS =
+			"DELETE S FROM "+TABLE_NODE_CHILD_STATS+" S JOIN "+TABLE_NODE+" N"+
+				" ON (S."+COL_NODE_CHILD_STATS_PARENT_ID+" = N."+COL_NODE_PARENT_ID+")"+
+				" WHERE N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+") AND S."+COL_NODE_CHILD_STATS_CHILD_COUNT+" <= 0";
+	
+	private static final String SQL_SELECT_NEXT_PARENT_IDS =
+			"SELECT DISTINCT "+COL_NODE_PARENT_ID+" FROM "+TABLE_NODE+
+				" WHERE "+COL_NODE_PARENT_ID+" > ? ORDER BY "+COL_NODE_PARENT_ID+" LIMIT ?";
+	
+	private static final String SQL_DELETE_CHILD_STATS =
+			"DELETE FROM "+TABLE_NODE_CHILD_STATS+" WHERE "+COL_NODE_CHILD_STATS_PARENT_ID+" IN (:"+BIND_NODE_IDS+")";
+	
+	private static final String SQL_INSERT_CHILD_STATS_FROM_CHILDREN =
+			"INSERT INTO "+TABLE_NODE_CHILD_STATS+" ("+COL_NODE_CHILD_STATS_PARENT_ID+", "+COL_NODE_CHILD_STATS_NODE_TYPE+
+					", "+COL_NODE_CHILD_STATS_CHILD_COUNT+", "+COL_NODE_CHILD_STATS_SUM_FILE_SIZES+")"+
+				" SELECT N."+COL_NODE_PARENT_ID+", N."+COL_NODE_TYPE+", COUNT(*), COALESCE(SUM(F."+COL_FILES_CONTENT_SIZE+"), 0)"+
+					" FROM "+JOIN_NODE_REVISION_FILES+
+					" WHERE N."+COL_NODE_PARENT_ID+" IN (:"+BIND_NODE_IDS+")"+
+					" GROUP BY N."+COL_NODE_PARENT_ID+", N."+COL_NODE_TYPE;
+	
 	public static final String N_NAME = "N."+COL_NODE_NAME;
 	public static final String N_CREATED_ON = "N."+COL_NODE_CREATED_ON;
 	public static final String R_MODIFIED_ON = "R."+COL_NODE_MODIFIED_ON;
@@ -329,6 +527,10 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND N."
 			+ COL_NODE_CURRENT_REV + " = R." + COL_REVISION_NUMBER + " AND N." + COL_NODE_ID + "= ?";
 	
+	private static final String SQL_SELECT_CURRENT_NODES = SQL_SELECT_WITHOUT_ANNOTATIONS + " FROM " + TABLE_NODE
+			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND N."
+			+ COL_NODE_CURRENT_REV + " = R." + COL_REVISION_NUMBER + " AND N." + COL_NODE_ID + " IN (:" + BIND_NODE_IDS + ")";
+	
 	private static final String SQL_SELECT_NODE_VERSION = SQL_SELECT_WITHOUT_ANNOTATIONS + " FROM " + TABLE_NODE
 			+ " N, " + TABLE_REVISION + " R WHERE N." + COL_NODE_ID + "= R." + COL_REVISION_OWNER_NODE + " AND R."
 			+ COL_REVISION_NUMBER + " = ? AND N." + COL_NODE_ID + "= ?";
@@ -360,6 +562,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 
 	private static final String SELECT_ANNOTATIONS_ONLY_FROM_AND_WHERE_CLAUSE_PREFIX = " FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = :"+COL_NODE_ID +" AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + "=";
 	private static final String SELECT_USER_ANNOTATIONS_ONLY_PREFIX = "SELECT N."+COL_NODE_ID+", N."+COL_NODE_ETAG+", R."+COL_REVISION_USER_ANNOS_JSON+" FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" = ? AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + " = ";
+	private static final String SELECT_CURRENT_USER_ANNOTATIONS_FOR_IDS = "SELECT N."+COL_NODE_ID+", N."+COL_NODE_ETAG+", R."+COL_REVISION_USER_ANNOS_JSON+" FROM  "+TABLE_NODE+" N, "+TABLE_REVISION+" R WHERE N."+COL_NODE_ID+" IN (:"+BIND_NODE_IDS+") AND R."+COL_REVISION_OWNER_NODE+" = N."+COL_NODE_ID+" AND R."+COL_REVISION_NUMBER + " = N."+COL_NODE_CURRENT_REV;
 	private static final String CANNOT_FIND_A_NODE_WITH_ID = "Cannot find a node with id: ";
 	private static final String CANNOT_FIND_A_NODE_WITH_ID_AND_VERSION = "Cannot find a node with id %s and version %d";
 	private static final String GET_CURRENT_REV_NUMBER_SQL = "SELECT "+COL_NODE_CURRENT_REV+" FROM "+TABLE_NODE+" WHERE "+COL_NODE_ID+" = ?";
@@ -424,22 +627,6 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			+ " ORDER BY N." + COL_NODE_ID
 			+ " LIMIT " + NodeDAO.NODE_VERSION_LIMIT_BY_FILE_MD5;
 	
-	/**
-	 * A recursive sql call to get the full path of a given entity id (?). The limit
-	 * on the distance prevents an infinite loop for a circular path. To be used a
-	 * string template to set which columns should be selected. The ORDER BY clause
-	 * ensures the order is from root to leaf. Note: The results will include the
-	 * requested node as the last element.
-	 * 
-	 */
-	public static final String PATH_QUERY_TEMPLATE = "WITH RECURSIVE PATH (" + COL_NODE_ID + ", " + COL_NODE_NAME + ", "
-			+ COL_NODE_TYPE + ", " + COL_NODE_PARENT_ID + ", DISTANCE) AS " + "(SELECT " + COL_NODE_ID + ", "
-			+ COL_NODE_NAME + ", " + COL_NODE_TYPE + ", " + COL_NODE_PARENT_ID + ", 1 FROM " + TABLE_NODE
-			+ " AS N WHERE " + COL_NODE_ID + " = ?" + " UNION ALL" + " SELECT N." + COL_NODE_ID + ", N."
-			+ COL_NODE_NAME + ", N." + COL_NODE_TYPE + ", N." + COL_NODE_PARENT_ID + ", PATH.DISTANCE+ 1 FROM "
-			+ TABLE_NODE + " AS N JOIN PATH ON (N." + COL_NODE_ID + " = PATH." + COL_NODE_PARENT_ID + ")" + " WHERE N."
-			+ COL_NODE_ID + " IS NOT NULL AND DISTANCE < "+NodeConstants.MAX_PATH_DEPTH_PLUS_ONE+" )" + " SELECT %1s FROM PATH ORDER BY DISTANCE DESC";
-	
 	private static final String UPDATE_REVISION_FILE_HANDLE = "UPDATE " + TABLE_REVISION + " SET " + COL_REVISION_FILE_HANDLE_ID
 			+ " = ? WHERE " + COL_REVISION_OWNER_NODE + " = ? AND " + COL_REVISION_NUMBER + " = ?";
 
@@ -506,6 +693,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	@Autowired
 	private DBOBasicDao dboBasicDao;
 	
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+	
 	private final Long ROOT_NODE_ID = Long.parseLong(StackConfigurationSingleton.singleton().getRootFolderEntityId());
 	
 	private static final String BIND_ID_KEY = "bindId";
@@ -601,7 +791,9 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		} catch(IllegalArgumentException e){
 			checkExceptionDetails(dboNode.getName(), dboNode.getAlias(), KeyFactory.keyToString(dboNode.getParentId()), e);
 		}
-		dboBasicDao.createNew(dboRevision);		
+		dboBasicDao.createNew(dboRevision);
+		jdbcTemplate.update(SQL_INSERT_NODE_ANCESTORS, dboNode.getId(), dboNode.getId(), dboNode.getId(), dboNode.getParentId());
+		addChildStats(Collections.singletonList(dboNode.getId()));
 		return getNode("" + dboNode.getId());
 	}
 
@@ -631,6 +823,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		DBONode jdo = getNodeById(nodeId);
 		// Look up the current version
 		DBORevision rev  = getNodeRevisionById(jdo.getId(), jdo.getCurrentRevNumber());
+		Long oldParentId = jdo.getParentId();
 		
 		// Avoid recycling the revision numbers (See PLFM-3781) and uses the current max revision
 		Long newRevisionNumber = jdo.getMaxRevNumber() + 1;
@@ -653,9 +846,16 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		jdo.setCurrentRevNumber(newRev.getRevisionNumber());
 		jdo.setMaxRevNumber(newRev.getRevisionNumber());
 
+		// A new parent or file changes the child statistics
+		List<Long> changedChild = Objects.equals(oldParentId, jdo.getParentId())
+				&& Objects.equals(rev.getFileHandleId(), newRev.getFileHandleId()) ? Collections.emptyList()
+						: Collections.singletonList(nodeId);
+		removeChildStats(changedChild);
+
 		// Save the change to the node
 		dboBasicDao.update(jdo);
 		dboBasicDao.createNew(newRev);
+		addChildStats(changedChild);
 		return newRev.getRevisionNumber();
 	}
 
@@ -671,6 +871,15 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 	
+	@Override
+	public List<Node> getNodes(List<Long> ids) {
+		ValidateArgument.required(ids, "ids");
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return namedParameterJdbcTemplate.query(SQL_SELECT_CURRENT_NODES, Collections.singletonMap(BIND_NODE_IDS, ids), NODE_MAPPER);
+	}
+	
 	@Override
 	public Node getNodeForVersion(String id, Long versionNumber){
 		if(id == null) throw new IllegalArgumentException("Id cannot be null");
@@ -735,6 +944,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		if (ids.isEmpty()) {
 			return;
 		}
+		removeChildStats(ids);
 		jdbcTemplate.batchUpdate(SQL_DELETE_BY_ID, new BatchPreparedStatementSetter() {
 
 			@Override
@@ -754,6 +964,10 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	public void deleteVersion(String nodeId, Long versionNumber) {
 		// Get the version in question
 		Long id = KeyFactory.stringToKey(nodeId);
+		// The file of the current version counts towards the statistics of the parent, so the
+		// node is removed while the version is deleted and added back with its new current version.
+		List<Long> child = Collections.singletonList(id);
+		removeChildStats(child);
 		// Delete the revision.
 		boolean wasDeleted = dboBasicDao.deleteObjectByPrimaryKey(DBORevision.class, getRevisionParameters(id, versionNumber));
 		if (wasDeleted) {
@@ -768,6 +982,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			// Note: we do not change the maxRevNumber so that the old versions are not recycled (See PLFM-3781)
 			dboBasicDao.update(node);
 		}
+		addChildStats(child);
 	}
 	
 	
@@ -960,6 +1175,26 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		String newName = updatedNode.getName();
 		Long newParentId = NodeUtils.translateNodeId(updatedNode.getParentId());
 		String newAlias = NodeUtils.translateAlias(updatedNode.getAlias());
+		Long newFileHandleId = NodeUtils.translateFileHandleId(updatedNode.getFileHandleId());
+		List<Long[]> old = jdbcTemplate.query(SQL_SELECT_PARENT_ID_AND_FILE_HANDLE_ID, (ResultSet rs, int rowNum) -> {
+			Long parentId = rs.getLong(COL_NODE_PARENT_ID);
+			if (rs.wasNull()) {
+				parentId = null;
+			}
+			Long fileHandleId = rs.getLong(COL_REVISION_FILE_HANDLE_ID);
+			if (rs.wasNull()) {
+				fileHandleId = null;
+			}
+			return new Long[] { parentId, fileHandleId };
+		}, nodeId);
+		boolean isMove = !old.isEmpty() && !Objects.equals(old.get(0)[0], newParentId);
+		if (isMove && newParentId != null && isAncestor(nodeId, newParentId)) {
+			throw new IllegalArgumentException("Cannot move: " + updatedNode.getId() + " into its own sub-tree");
+		}
+		// A new parent or file changes the child statistics
+		boolean isNewFile = !old.isEmpty() && !Objects.equals(old.get(0)[1], newFileHandleId);
+		List<Long> changedChild = isMove || isNewFile ? Collections.singletonList(nodeId) : Collections.emptyList();
+		removeChildStats(changedChild);
 
 		// Update the node.
 		try {
@@ -969,12 +1204,14 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			checkExceptionDetails(updatedNode.getName(), updatedNode.getAlias(), updatedNode.getParentId(),
 					new IllegalArgumentException(e));
 		}
+		if (isMove) {
+			moveSubTreeAncestors(nodeId, newParentId);
+		}
 		// update the revision
 		long currentRevision = getCurrentRevisionNumber(updatedNode.getId());
 		Long newActivity = NodeUtils.translateActivityId(updatedNode.getActivityId());
 		String newComment = NodeUtils.translateVersionComment(updatedNode.getVersionComment());
 		String newLabel = NodeUtils.translateVersionLabel(updatedNode.getVersionLabel());
-		Long newFileHandleId = NodeUtils.translateFileHandleId(updatedNode.getFileHandleId());
 		byte[] newColumns = NodeUtils.createByteForIdList(updatedNode.getColumnModelIds());
 		byte[] newScope = NodeUtils.createByteForIdList(updatedNode.getScopeIds());
 		byte[] newReferences = NodeUtils.compressReference(updatedNode.getReference());
@@ -986,6 +1223,153 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		// Update the revision
 		this.jdbcTemplate.update(UPDATE_REVISION, newActivity, newComment, newLabel, newDescription, newFileHandleId, newColumns,
 				newScope, newReferences, items, searchEnabled, definingSQL, nodeId, currentRevision);
+		addChildStats(changedChild);
+	}
+	
+	/**
+	 * Is the given ancestor in the path of the given node?
+	 * 
+	 * @param ancestorId
+	 * @param nodeId
+	 * @return
+	 */
+	boolean isAncestor(Long ancestorId, Long nodeId) {
+		if (!isNodeAncestorComplete()) {
+			return getEntityPathIds(KeyFactory.keyToString(nodeId)).contains(ancestorId);
+		}
+		return jdbcTemplate.queryForObject(SQL_IS_ANCESTOR, Long.class, nodeId, ancestorId) > 0;
+	}
+	
+	/**
+	 * The node ancestors can only be read once every node has been filled in, and
+	 * not while a restore has left nodes behind that the backfill has yet to fix.
+	 * Until then the hierarchy is walked with PARENT_ID.
+	 * 
+	 * @return
+	 */
+	boolean isNodeAncestorComplete() {
+		return backfillStatusDao.isComplete(BackfillType.NODE_ANCESTOR);
+	}
+	
+	/**
+	 * Replace the ancestors above the given node for each node in its sub-tree with
+	 * the ancestors of the new parent.
+	 * 
+	 * @param nodeId
+	 * @param newParentId
+	 */
+	void moveSubTreeAncestors(Long nodeId, Long newParentId) {
+		jdbcTemplate.update(SQL_DELETE_SUB_TREE_ANCESTORS, nodeId);
+		if (newParentId != null) {
+			jdbcTemplate.update(SQL_INSERT_SUB_TREE_ANCESTORS, nodeId, newParentId);
+		}
+	}
+	
+	@Override
+	@WriteTransaction
+	public int backfillNodeAncestors(int limit) {
+		int orphaned = jdbcTemplate.update(SQL_DELETE_ORPHANED_ANCESTORS, limit);
+		List<Long[]> toFill = jdbcTemplate.query(SQL_SELECT_NODES_MISSING_ANCESTORS, (ResultSet rs, int rowNum) -> {
+			Long parentId = rs.getLong(COL_NODE_PARENT_ID);
+			if (rs.wasNull()) {
+				parentId = null;
+			}
+			return new Long[] { rs.getLong(COL_NODE_ID), parentId };
+		}, limit);
+		for (Long[] nodeAndParent : toFill) {
+			Long nodeId = nodeAndParent[0];
+			jdbcTemplate.update(SQL_INSERT_IGNORE_NODE_SELF, nodeId, nodeId);
+			// Links the node and any sub-tree already tracked below it to the ancestors of the parent.
+			moveSubTreeAncestors(nodeId, nodeAndParent[1]);
+		}
+		return orphaned + toFill.size();
+	}
+	
+	@WriteTransaction
+	@Override
+	public void resetNodeAncestors(List<Long> nodeIds) {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		Set<Long> toReset = new HashSet<>();
+		for (Long nodeId : nodeIds) {
+			// The ancestors of the node may be wrong, so the path is always walked with PARENT_ID.
+			toReset.addAll(jdbcTemplate.queryForList(String.format(PATH_QUERY_TEMPLATE, COL_NODE_ID), Long.class, nodeId));
+		}
+		if (toReset.isEmpty()) {
+			return;
+		}
+		namedParameterJdbcTemplate.update(SQL_DELETE_NODE_ANCESTORS, Collections.singletonMap("nodeIds", toReset));
+	}
+	
+	@Override
+	public List<Long> getSampleOfNodeIds(int limit) {
+		Long maxId = jdbcTemplate.queryForObject(SQL_SELECT_MAX_NODE_ID, Long.class);
+		if (maxId == null) {
+			return Collections.emptyList();
+		}
+		long startId = ThreadLocalRandom.current().nextLong(maxId + 1);
+		return jdbcTemplate.queryForList(SQL_SELECT_NODE_IDS_FROM, Long.class, startId, limit);
+	}
+	
+	/**
+	 * Add the given nodes to the child statistics of their parents. Changes that
+	 * move a node or change the file of its current version remove the node before
+	 * the change and add it back after.
+	 * 
+	 * @param nodeIds
+	 */
+	void addChildStats(List<Long> nodeIds) {
+		updateChildStats(nodeIds, 1);
+	}
+	
+	/**
+	 * Remove the given nodes from the child statistics of their parents. The
+	 * statistics of a parent that has not been recomputed since they were first
+	 * maintained can drop below zero, so the statistics of types without children
+	 * are removed rather than kept at zero or below.
+	 * 
+	 * @param nodeIds
+	 */
+	void removeChildStats(List<Long> nodeIds) {
+		if (nodeIds.isEmpty()) {
+			return;
+		}
+		updateChildStats(nodeIds, -1);
+		namedParameterJdbcTemplate.update(SQL_DELETE_EMPTY_CHILD_STATS, Collections.singletonMap(BIND_NODE_IDS, nodeIds));
+	}
+	
+	private void updateChildStats(List<Long> nodeIds, int sign) {
+		if (nodeIds.isEmpty()) {
+			return;
+		}
+		Map<String, Object> parameters = new HashMap<String, Object>(2);
+		parameters.put(BIND_NODE_IDS, nodeIds);
+		parameters.put(BIND_SIGN, sign);
+		namedParameterJdbcTemplate.update(SQL_ADD_CHILD_STATS, parameters);
+	}
+	
+	@Override
+	@WriteTransaction
+	public Long recomputeChildStats(long afterParentId, int limit) {
+		List<Long> parentIds = jdbcTemplate.queryForList(SQL_SELECT_NEXT_PARENT_IDS, Long.class, afterParentId, limit);
+		if (parentIds.isEmpty()) {
+			return null;
+		}
+		Map<String, Object> parameters = Collections.singletonMap(BIND_NODE_IDS, parentIds);
+		namedParameterJdbcTemplate.update(SQL_DELETE_CHILD_STATS, parameters);
+		namedParameterJdbcTemplate.update(SQL_INSERT_CHILD_STATS_FROM_CHILDREN, parameters);
+		return parentIds.get(parentIds.size() - 1);
+	}
+	
+	/**
+	 * The child statistics can only be read once the statistics of every parent
+	 * have been recomputed, and not while a restore has left parents behind that
+	 * the backfill has yet to recompute. Until then they are aggregated over the
+	 * children.
+	 * 
+	 * @return
+	 */
+	boolean isChildStatsComplete() {
+		return backfillStatusDao.isComplete(BackfillType.NODE_CHILD_STATS);
 	}
 	
 	@Override
@@ -998,7 +1382,12 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		final Long nodeIdLong = KeyFactory.stringToKey(nodeId);
 		final Long fileHandleIdLong = NodeUtils.translateFileHandleId(fileHandleId);
 		
-		return jdbcTemplate.update(UPDATE_REVISION_FILE_HANDLE, fileHandleIdLong, nodeIdLong, versionNumber) > 0;
+		// The new file changes the child statistics when the version is the current version
+		List<Long> child = Collections.singletonList(nodeIdLong);
+		removeChildStats(child);
+		boolean updated = jdbcTemplate.update(UPDATE_REVISION_FILE_HANDLE, fileHandleIdLong, nodeIdLong, versionNumber) > 0;
+		addChildStats(child);
+		return updated;
 	}
 
 	@WriteTransaction
@@ -1046,6 +1435,21 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 
+	@Override
+	public List<Annotations> getUserAnnotationsForCurrentVersions(List<Long> ids) {
+		ValidateArgument.required(ids, "ids");
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		List<Annotations> results = namedParameterJdbcTemplate.query(SELECT_CURRENT_USER_ANNOTATIONS_FOR_IDS,
+				Collections.singletonMap(BIND_NODE_IDS, ids), ANNOTATIONS_V2_ROW_MAPPER);
+		// Remove the eTags (See PLFM-1420)
+		for (Annotations userAnnotations : results) {
+			userAnnotations.setEtag(NodeConstants.ZERO_E_TAG);
+		}
+		return results;
+	}
+
 	@WriteTransaction
 	@Override
 	public void updateEntityPropertyAnnotations(String nodeId, org.sagebionetworks.repo.model.Annotations updatedAnnos) throws NotFoundException, DatastoreException {
@@ -1296,8 +1700,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	@Override
 	public List<Long> getEntityPathIds(String nodeId) {
-		String selectColumns = COL_NODE_ID;
-		String sql = String.format(PATH_QUERY_TEMPLATE, selectColumns);
+		String sql = isNodeAncestorComplete() ? SQL_SELECT_PATH_IDS : String.format(PATH_QUERY_TEMPLATE, COL_NODE_ID);
 		List<Long> path = jdbcTemplate.queryForList(sql, Long.class, KeyFactory.stringToKey(nodeId));
 		validatePath(nodeId, path);
 		return path;
@@ -1305,8 +1708,12 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	@Override
 	public List<NameIdType> getEntityPath(String nodeId) throws DatastoreException, NotFoundException {
-		String selectColumns = COL_NODE_ID+","+COL_NODE_NAME+","+COL_NODE_TYPE;
-		String sql = String.format(PATH_QUERY_TEMPLATE, selectColumns);
+		String sql;
+		if (isNodeAncestorComplete()) {
+			sql = String.format(SQL_SELECT_PATH_TEMPLATE, "N." + COL_NODE_ID + ", N." + COL_NODE_NAME + ", N." + COL_NODE_TYPE);
+		} else {
+			sql = String.format(PATH_QUERY_TEMPLATE, COL_NODE_ID + "," + COL_NODE_NAME + "," + COL_NODE_TYPE);
+		}
 		List<NameIdType> path = jdbcTemplate.query(sql, NAME_ID_TYPE_ROWMAPPER, KeyFactory.stringToKey(nodeId));
 		validatePath(nodeId, path);
 		return path;
@@ -1672,8 +2079,8 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	
 	/**
 	 * As part of PLFM-6061, the implementation of this method was changed from n number of SQL calls to a single
-	 * 'WITH RECURSIVE' call. The change eliminates sending intermediate results back and forth from the server and
-	 * database.
+	 * 'WITH RECURSIVE' call. Once the node ancestors are complete the containers are found with a single lookup on the
+	 * node ancestor table instead.
 	 */
 	@Override
 	public Set<Long> getAllContainerIds(Collection<Long> parentIds, int maxNumberIds) throws LimitExceededException {
@@ -1684,8 +2091,8 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		Map<String, Object> parameters = new HashMap<String, Object>(2);
 		parameters.put(PARAM_NAME_IDS, parentIds);
 		parameters.put(BIND_LIMIT, maxNumberIds+1);
-		List<Long> children = namedParameterJdbcTemplate.queryForList(SQL_GET_ALL_CONTAINER_IDS
-				, parameters, Long.class);
+		String sql = isNodeAncestorComplete() ? SQL_GET_ALL_CONTAINER_IDS_BY_ANCESTOR : SQL_GET_ALL_CONTAINER_IDS;
+		List<Long> children = namedParameterJdbcTemplate.queryForList(sql, parameters, Long.class);
 		Set<Long> finalSet = new HashSet<>(children);
 		if(finalSet.size() > maxNumberIds){
 			throw new LimitExceededException(MAXIMUM_NUMBER_OF_IDS_EXCEEDED);
@@ -1907,24 +2314,32 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 	@Override
 	public List<EntityHeader> getChildren(String parentId,
 			List<EntityType> includeTypes, Set<Long> childIdsToExclude,
-			SortBy sortBy, Direction sortDirection, long limit, long offset) {
+			EntityChildrenPageToken page) {
 		ValidateArgument.required(parentId, "parentId");
 		ValidateArgument.required(includeTypes, "includeTypes");
 		ValidateArgument.requirement(!includeTypes.isEmpty(), "Must have at least one type for includeTypes");
 		List<String> typeNames = getTypeNames(includeTypes);
 		ValidateArgument.requirement(!typeNames.isEmpty(), "Must have at least one valid type name for includeTypes");
-		ValidateArgument.required(sortDirection, "sortDirection");
+		ValidateArgument.required(page, "page");
 		Map<String, Object> parameters = new HashMap<String, Object>(1);
 		parameters.put(BIND_PARENT_ID , KeyFactory.stringToKey(parentId));
 		parameters.put(BIND_NODE_TYPES , typeNames);
 		parameters.put(BIND_NODE_IDS , childIdsToExclude);
-		parameters.put(BIND_LIMIT , limit);
-		parameters.put(BIND_OFFSET , offset);
+		parameters.put(BIND_LIMIT , page.getLimitForQuery());
+		parameters.put(BIND_OFFSET , page.getOffset());
+		String sortColumn = getFragmentSortColumn(page.getSortBy());
+		String afterLastChild = "";
+		if (page.getLastId() != null) {
+			parameters.put(BIND_LAST_ID, page.getLastId());
+			parameters.put(BIND_LAST_VALUE, page.getLastSortValue());
+			afterLastChild = getFragmentAfterLastChild(sortColumn, page.getSortDirection());
+		}
 		// build the SQL from the template
 		String sql = String.format(SQL_SELECT_CHIDREN_TEMPLATE,
 				getFragmentExcludeNodeIds(childIdsToExclude),
-				getFragmentSortColumn(sortBy),
-				sortDirection.name());
+				sortColumn,
+				page.getSortDirection().name(),
+				afterLastChild);
 		return namedParameterJdbcTemplate.query(sql,parameters,ENTITY_HEADER_ROWMAPPER);
 	}
 	
@@ -1949,22 +2364,28 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		parameters.put(BIND_PARENT_ID, KeyFactory.stringToKey(request.getParentId()));
 		parameters.put(BIND_NODE_TYPES, getTypeNames(request.getIncludeTypes()));
 		parameters.put(BIND_NODE_IDS, request.getChildIdsToExclude());
-		// build the SQL from the template
-		String sql = String.format(SQL_SELECT_CHIDREN_STATS, getFragmentExcludeNodeIds(request.getChildIdsToExclude()));
-		return namedParameterJdbcTemplate.queryForObject(sql, parameters, new RowMapper<ChildStatsResponse>() {
-
-			@Override
-			public ChildStatsResponse mapRow(ResultSet rs, int rowNum) throws SQLException {
-				ChildStatsResponse response = new ChildStatsResponse();
-				if (includeCount) {
-					response.withTotalChildCount(rs.getLong(1));
-				}
-				if (includeSumSizes) {
-					response.withSumFileSizesBytes(rs.getLong(2));
-				}
-				return response;
+		RowMapper<long[]> statsMapper = (ResultSet rs, int rowNum) -> new long[] { rs.getLong(1), rs.getLong(2) };
+		long[] stats;
+		if (isChildStatsComplete()) {
+			// the statistics of all children are maintained as children change
+			stats = namedParameterJdbcTemplate.queryForObject(SQL_SELECT_CHILD_STATS, parameters, statsMapper);
+			if (request.getChildIdsToExclude() != null && !request.getChildIdsToExclude().isEmpty()) {
+				long[] excluded = namedParameterJdbcTemplate.queryForObject(SQL_SELECT_EXCLUDED_CHIDREN_STATS, parameters, statsMapper);
+				stats[0] -= excluded[0];
+				stats[1] -= excluded[1];
 			}
-		});
+		} else {
+			String sql = String.format(SQL_SELECT_CHIDREN_STATS, getFragmentExcludeNodeIds(request.getChildIdsToExclude()));
+			stats = namedParameterJdbcTemplate.queryForObject(sql, parameters, statsMapper);
+		}
+		ChildStatsResponse response = new ChildStatsResponse();
+		if (includeCount) {
+			response.withTotalChildCount(stats[0]);
+		}
+		if (includeSumSizes) {
+			response.withSumFileSizesBytes(stats[1]);
+		}
+		return response;
 	}
 	
 	/**
@@ -2018,6 +2439,19 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 		}
 	}
 
+	/**
+	 * Get the fragment that starts a page after the last child of the previous
+	 * page, for a given sort column and direction.
+	 * 
+	 * @param sortColumn
+	 * @param sortDirection
+	 * @return
+	 */
+	public static String getFragmentAfterLastChild(String sortColumn, Direction sortDirection) {
+		ValidateArgument.required(sortDirection, "sortDirection");
+		return String.format(SQL_AFTER_LAST_CHILD_TEMPLATE, sortColumn, Direction.ASC == sortDirection ? ">" : "<");
+	}
+
 	@Override
 	public long getChildCount(String parentId) {
 		ValidateArgument.required(parentId, "parentId");
@@ -2196,6 +2630,7 @@ public class NodeDAOImpl implements NodeDAO, InitializingBean {
 			if (idsToDelete.isEmpty()) {
 				break;
 			}
+			removeChildStats(idsToDelete);
 			SqlParameterSource deleteParams = new MapSqlParameterSource("toDelete", idsToDelete);
 			namedParameterJdbcTemplate.update("DELETE FROM " + TABLE_NODE + " WHERE " + COL_NODE_ID + " IN(:toDelete)",
 					deleteParams);
@@ -71,6 +71,19 @@ public class TeamUtils {
 		}
 	}
 	
+	/**
+	 * Rewrite serialized team bytes with the current blob encoding.
+	 * @param bytes
+	 * @return
+	 */
+	public static byte[] reencode(byte[] bytes) {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(X_STREAM, bytes);
+		} catch (IOException e) {
+			throw new DatastoreException(e);
+		}
+	}
+	
 	public static Team deserialize(byte[] b) {		
 		try {
 			return (Team)JDOSecondaryPropertyUtils.decompressObject(X_STREAM, b);
@@ -55,6 +55,19 @@ public class UserProfileUtils {
 		}
 	}
 	
+	/**
+	 * Rewrite serialized user profile bytes with the current blob encoding.
+	 * @param bytes
+	 * @return
+	 */
+	public static byte[] reencode(byte[] bytes) {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(X_STREAM, bytes);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
 	public static UserProfile deserialize(byte[] b) {
 		try {
 			return (UserProfile) JDOSecondaryPropertyUtils.decompressObject(X_STREAM, b);
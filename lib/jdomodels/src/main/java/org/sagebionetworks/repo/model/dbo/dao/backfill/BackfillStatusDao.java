@@ -0,0 +1,51 @@
+package org.sagebionetworks.repo.model.dbo.dao.backfill;
+
+/**
+ * Data access layer for the status of the backfill of the tables derived from
+ * the node hierarchy. A backfill without a status is not complete.
+ *
+ */
+public interface BackfillStatusDao {
+
+	/**
+	 * @param type
+	 * @return True if the given backfill has been marked complete and has not
+	 *         been marked incomplete since.
+	 */
+	boolean isComplete(BackfillType type);
+
+	/**
+	 * Mark the given backfill as incomplete, for example when rows of its source
+	 * tables were changed without maintaining the derived table. This always
+	 * changes the etag of the status, so a backfill that started before this call
+	 * cannot mark it complete.
+	 * 
+	 * @param type
+	 */
+	void setIncomplete(BackfillType type);
+
+	/**
+	 * Start a run of the given backfill, creating an incomplete status if there
+	 * is none.
+	 * 
+	 * @param type
+	 * @return The current etag of the status, to be passed to
+	 *         {@link #setComplete(BackfillType, String)} when the run finds
+	 *         nothing left to fill in.
+	 */
+	String startBackfill(BackfillType type);
+
+	/**
+	 * Mark the given backfill as complete, only if the status was not changed
+	 * since the run started.
+	 * 
+	 * @param type
+	 * @param etag The etag returned by {@link #startBackfill(BackfillType)}.
+	 * @return True if the status was marked complete.
+	 */
+	boolean setComplete(BackfillType type, String etag);
+
+	// For testing
+	void truncateAll();
+
+}
@@ -0,0 +1,79 @@
+package org.sagebionetworks.repo.model.dbo.dao.backfill;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_CHANGED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_COMPLETE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_ETAG;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_BACKFILL_STATUS;
+
+import java.util.List;
+
+import org.sagebionetworks.repo.transactions.WriteTransaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class BackfillStatusDaoImpl implements BackfillStatusDao {
+
+	private static final String SQL_SELECT_COMPLETE = "SELECT " + COL_BACKFILL_STATUS_COMPLETE + " FROM "
+			+ TABLE_BACKFILL_STATUS + " WHERE " + COL_BACKFILL_STATUS_TYPE + " = ?";
+
+	private static final String SQL_SET_INCOMPLETE = "INSERT INTO " + TABLE_BACKFILL_STATUS + " ("
+			+ COL_BACKFILL_STATUS_TYPE + ", " + COL_BACKFILL_STATUS_ETAG + ", " + COL_BACKFILL_STATUS_COMPLETE + ", "
+			+ COL_BACKFILL_STATUS_CHANGED_ON + ") VALUES (?, UUID(), FALSE, NOW(3)) ON DUPLICATE KEY UPDATE "
+			+ COL_BACKFILL_STATUS_ETAG + " = UUID(), " + COL_BACKFILL_STATUS_COMPLETE + " = FALSE, "
+			+ COL_BACKFILL_STATUS_CHANGED_ON + " = NOW(3)";
+
+	private static final String SQL_INSERT_IGNORE = "INSERT IGNORE INTO " + TABLE_BACKFILL_STATUS + " ("
+			+ COL_BACKFILL_STATUS_TYPE + ", " + COL_BACKFILL_STATUS_ETAG + ", " + COL_BACKFILL_STATUS_COMPLETE + ", "
+			+ COL_BACKFILL_STATUS_CHANGED_ON + ") VALUES (?, UUID(), FALSE, NOW(3))";
+
+	private static final String SQL_SELECT_ETAG = "SELECT " + COL_BACKFILL_STATUS_ETAG + " FROM "
+			+ TABLE_BACKFILL_STATUS + " WHERE " + COL_BACKFILL_STATUS_TYPE + " = ?";
+
+	private static final String SQL_SET_COMPLETE = "UPDATE " + TABLE_BACKFILL_STATUS + " SET "
+			+ COL_BACKFILL_STATUS_ETAG + " = UUID(), " + COL_BACKFILL_STATUS_COMPLETE + " = TRUE, "
+			+ COL_BACKFILL_STATUS_CHANGED_ON + " = NOW(3) WHERE " + COL_BACKFILL_STATUS_TYPE + " = ? AND "
+			+ COL_BACKFILL_STATUS_ETAG + " = ?";
+
+	private static final String SQL_TRUNCATE = "TRUNCATE " + TABLE_BACKFILL_STATUS;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	public BackfillStatusDaoImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public boolean isComplete(BackfillType type) {
+		List<Boolean> complete = jdbcTemplate.queryForList(SQL_SELECT_COMPLETE, Boolean.class, type.name());
+		return !complete.isEmpty() && complete.get(0);
+	}
+
+	@Override
+	@WriteTransaction
+	public void setIncomplete(BackfillType type) {
+		jdbcTemplate.update(SQL_SET_INCOMPLETE, type.name());
+	}
+
+	@Override
+	@WriteTransaction
+	public String startBackfill(BackfillType type) {
+		jdbcTemplate.update(SQL_INSERT_IGNORE, type.name());
+		return jdbcTemplate.queryForObject(SQL_SELECT_ETAG, String.class, type.name());
+	}
+
+	@Override
+	@WriteTransaction
+	public boolean setComplete(BackfillType type, String etag) {
+		return jdbcTemplate.update(SQL_SET_COMPLETE, type.name(), etag) > 0;
+	}
+
+	@Override
+	public void truncateAll() {
+		jdbcTemplate.update(SQL_TRUNCATE);
+	}
+
+}
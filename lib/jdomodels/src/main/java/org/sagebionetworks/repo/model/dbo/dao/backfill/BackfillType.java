@@ -0,0 +1,21 @@
+package org.sagebionetworks.repo.model.dbo.dao.backfill;
+
+/**
+ * The tables derived from the node hierarchy that are filled in by a worker on
+ * each stack rather than migrated. Until the backfill of a type is complete its
+ * readers must fall back to the source tables.
+ *
+ */
+public enum BackfillType {
+
+	/**
+	 * The NODE_ANCESTOR closure of the node hierarchy.
+	 */
+	NODE_ANCESTOR,
+
+	/**
+	 * The NODE_CHILD_STATS count and file size sum of the children of each node.
+	 */
+	NODE_CHILD_STATS
+
+}
@@ -0,0 +1,128 @@
+package org.sagebionetworks.repo.model.dbo.dao.backfill;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_CHANGED_ON;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_COMPLETE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_ETAG;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_BACKFILL_STATUS_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_BACKFILL_STATUS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_BACKFILL_STATUS;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * Used to store whether the backfill of a table derived from the node
+ * hierarchy is complete on this stack. This table is not migrated.
+ */
+public class DBOBackfillStatus implements DatabaseObject<DBOBackfillStatus> {
+
+	private static final FieldColumn[] FIELDS = new FieldColumn[] {
+			new FieldColumn("backfillType", COL_BACKFILL_STATUS_TYPE, true),
+			new FieldColumn("etag", COL_BACKFILL_STATUS_ETAG).withIsEtag(true),
+			new FieldColumn("complete", COL_BACKFILL_STATUS_COMPLETE),
+			new FieldColumn("changedOn", COL_BACKFILL_STATUS_CHANGED_ON)
+	};
+
+	static final TableMapping<DBOBackfillStatus> TABLE_MAPPING = new TableMapping<DBOBackfillStatus>() {
+
+		@Override
+		public DBOBackfillStatus mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBOBackfillStatus status = new DBOBackfillStatus();
+			status.setBackfillType(rs.getString(COL_BACKFILL_STATUS_TYPE));
+			status.setEtag(rs.getString(COL_BACKFILL_STATUS_ETAG));
+			status.setComplete(rs.getBoolean(COL_BACKFILL_STATUS_COMPLETE));
+			status.setChangedOn(rs.getTimestamp(COL_BACKFILL_STATUS_CHANGED_ON).toInstant());
+			return status;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_BACKFILL_STATUS;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_BACKFILL_STATUS;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public Class<? extends DBOBackfillStatus> getDBOClass() {
+			return DBOBackfillStatus.class;
+		}
+	};
+
+	private String backfillType;
+	private String etag;
+	private Boolean complete;
+	private Instant changedOn;
+
+	public String getBackfillType() {
+		return backfillType;
+	}
+
+	public void setBackfillType(String backfillType) {
+		this.backfillType = backfillType;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public void setEtag(String etag) {
+		this.etag = etag;
+	}
+
+	public Boolean getComplete() {
+		return complete;
+	}
+
+	public void setComplete(Boolean complete) {
+		this.complete = complete;
+	}
+
+	public Instant getChangedOn() {
+		return changedOn;
+	}
+
+	public void setChangedOn(Instant changedOn) {
+		this.changedOn = changedOn;
+	}
+
+	@Override
+	public TableMapping<DBOBackfillStatus> getTableMapping() {
+		return TABLE_MAPPING;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(backfillType, changedOn, complete, etag);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		DBOBackfillStatus other = (DBOBackfillStatus) obj;
+		return Objects.equals(backfillType, other.backfillType) && Objects.equals(changedOn, other.changedOn)
+				&& Objects.equals(complete, other.complete) && Objects.equals(etag, other.etag);
+	}
+
+}
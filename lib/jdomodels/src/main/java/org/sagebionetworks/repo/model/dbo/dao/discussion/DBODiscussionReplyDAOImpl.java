@@ -13,10 +13,13 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSI
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSION_THREAD_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_DISCUSSION_THREAD_STATS_THREAD_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_FORUM_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_FORUM_PROJECT_ID;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DISCUSSION_REPLY;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DISCUSSION_THREAD;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_DISCUSSION_THREAD_STATS;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_FORUM;
 
 import java.sql.ResultSet;
@@ -160,6 +163,30 @@ public class DBODiscussionReplyDAOImpl implements DiscussionReplyDAO{
 			+COL_DISCUSSION_REPLY_ETAG+" = ?, "
 			+COL_DISCUSSION_REPLY_MODIFIED_ON+" =? "
 			+" WHERE "+COL_DISCUSSION_REPLY_ID+" = ?";
+
+	// The thread statistics are counted as replies are written, the reconciliation worker corrects any drift
+	private static final String SQL_INCREMENT_THREAD_REPLY_STATS = "INSERT INTO "
+			+TABLE_DISCUSSION_THREAD_STATS+" ("
+			+COL_DISCUSSION_THREAD_STATS_THREAD_ID+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+", "
+			+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+") VALUES (?, 0, 1, ?) ON DUPLICATE KEY UPDATE "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+" = COALESCE("+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+", 0) + 1, "
+			+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+" = GREATEST(COALESCE("+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+", ?), ?)";
+	private static final String SQL_UPDATE_THREAD_LAST_ACTIVITY = "UPDATE "
+			+TABLE_DISCUSSION_THREAD_STATS+" JOIN "+TABLE_DISCUSSION_REPLY
+			+" ON "+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_THREAD_ID+" = "+TABLE_DISCUSSION_REPLY+"."+COL_DISCUSSION_REPLY_THREAD_ID
+			+" SET "+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY
+			+" = GREATEST(COALESCE("+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+", ?), ?)"
+			+" WHERE "+TABLE_DISCUSSION_REPLY+"."+COL_DISCUSSION_REPLY_ID+" = ?";
+	// Only a reply that is not already deleted is removed from the count
+	private static final String SQL_DECREMENT_THREAD_REPLY_STATS = "UPDATE "
+			+TABLE_DISCUSSION_THREAD_STATS+" JOIN "+TABLE_DISCUSSION_REPLY
+			+" ON "+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_THREAD_ID+" = "+TABLE_DISCUSSION_REPLY+"."+COL_DISCUSSION_REPLY_THREAD_ID
+			+" SET "+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES
+			+" = GREATEST(COALESCE("+TABLE_DISCUSSION_THREAD_STATS+"."+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+", 0) - 1, 0)"
+			+" WHERE "+TABLE_DISCUSSION_REPLY+"."+COL_DISCUSSION_REPLY_ID+" = ?"
+			+" AND "+TABLE_DISCUSSION_REPLY+"."+COL_DISCUSSION_REPLY_IS_DELETED+" = FALSE";
 	public static final DiscussionFilter DEFAULT_FILTER = DiscussionFilter.NO_FILTER;
 
 	public static final String SQL_SELECT_PROJECT_ID = "SELECT "
@@ -180,6 +207,8 @@ public class DBODiscussionReplyDAOImpl implements DiscussionReplyDAO{
 		String etag = UUID.randomUUID().toString();
 		DBODiscussionReply dbo = DiscussionReplyUtils.createDBO(threadId, messageKey, userId, id, etag);
 		basicDao.createNew(dbo);
+		Timestamp modifiedOn = new Timestamp(dbo.getModifiedOn().getTime());
+		jdbcTemplate.update(SQL_INCREMENT_THREAD_REPLY_STATS, dbo.getThreadId(), modifiedOn, modifiedOn, modifiedOn);
 		return getReply(id, DEFAULT_FILTER);
 	}
 
@@ -259,6 +288,7 @@ public class DBODiscussionReplyDAOImpl implements DiscussionReplyDAO{
 	@WriteTransaction
 	@Override
 	public void markReplyAsDeleted(long replyId) {
+		jdbcTemplate.update(SQL_DECREMENT_THREAD_REPLY_STATS, replyId);
 		String etag = UUID.randomUUID().toString();
 		jdbcTemplate.update(SQL_MARK_REPLY_AS_DELETED, etag, replyId);
 	}
@@ -270,6 +300,7 @@ public class DBODiscussionReplyDAOImpl implements DiscussionReplyDAO{
 		String etag = UUID.randomUUID().toString();
 		Timestamp modifiedOn = new Timestamp(new Date().getTime());
 		jdbcTemplate.update(SQL_UPDATE_MESSAGE_KEY, newKey, etag, modifiedOn, replyId);
+		jdbcTemplate.update(SQL_UPDATE_THREAD_LAST_ACTIVITY, modifiedOn, modifiedOn, replyId);
 		return getReply(replyId, DEFAULT_FILTER);
 	}
 
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -273,6 +274,13 @@ public class DBODiscussionThreadDAOImpl implements DiscussionThreadDAO {
 			+" ORDER BY "+COL_DISCUSSION_THREAD_ID
 			+" LIMIT ? OFFSET ?";
 
+	// This query is used by the reconciliation worker to page through the threads by id.
+	public static final String SQL_SELECT_THREAD_ID_AFTER = "SELECT "+COL_DISCUSSION_THREAD_ID
+			+" FROM "+TABLE_DISCUSSION_THREAD
+			+" WHERE "+COL_DISCUSSION_THREAD_ID+" > ?"
+			+" ORDER BY "+COL_DISCUSSION_THREAD_ID
+			+" LIMIT ?";
+
 	public static final String SQL_SELECT_ALL_THREAD_ID_FOR_FORUM = "SELECT "+COL_DISCUSSION_THREAD_ID
 			+" FROM "+TABLE_DISCUSSION_THREAD
 			+" WHERE "+COL_DISCUSSION_THREAD_FORUM_ID+" = ?";
@@ -297,6 +305,38 @@ public class DBODiscussionThreadDAOImpl implements DiscussionThreadDAO {
 			+COL_DISCUSSION_THREAD_STATS_ACTIVE_AUTHORS+" = ?, "
 			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+" = ?, "
 			+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+" = ? ";
+
+	// Count a view as soon as it is recorded, the reconciliation worker corrects any drift
+	private static final String SQL_INCREMENT_THREAD_VIEW_STATS = "INSERT INTO "
+			+TABLE_DISCUSSION_THREAD_STATS+" ("
+			+COL_DISCUSSION_THREAD_STATS_THREAD_ID+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+") VALUES (?, 1, 0) ON DUPLICATE KEY UPDATE "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+" = COALESCE("+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+", 0) + 1";
+
+	private static final String SQL_UPDATE_THREAD_ACTIVE_AUTHORS = "UPDATE "+TABLE_DISCUSSION_THREAD_STATS
+			+" SET "+COL_DISCUSSION_THREAD_STATS_ACTIVE_AUTHORS+" = ?"
+			+" WHERE "+COL_DISCUSSION_THREAD_STATS_THREAD_ID+" = ?";
+
+	private static final String SQL_SELECT_THREAD_STATS = "SELECT * FROM "+TABLE_DISCUSSION_THREAD_STATS
+			+" WHERE "+COL_DISCUSSION_THREAD_STATS_THREAD_ID+" = ?";
+	private static final String SQL_INSERT_IGNORE_THREAD_STATS = "INSERT IGNORE INTO "
+			+TABLE_DISCUSSION_THREAD_STATS+" ("
+			+COL_DISCUSSION_THREAD_STATS_THREAD_ID+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+", "
+			+COL_DISCUSSION_THREAD_STATS_ACTIVE_AUTHORS+", "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+", "
+			+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+" ) VALUES (?, ?, ?, ?, ?)";
+	// The counted columns are compared with the null-safe equal, a concurrent count changes at least one of them
+	private static final String SQL_COMPARE_AND_SET_THREAD_STATS = "UPDATE "+TABLE_DISCUSSION_THREAD_STATS+" SET "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+" = ?, "
+			+COL_DISCUSSION_THREAD_STATS_ACTIVE_AUTHORS+" = ?, "
+			+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+" = ?, "
+			+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+" = ?"
+			+" WHERE "+COL_DISCUSSION_THREAD_STATS_THREAD_ID+" = ?"
+			+" AND "+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS+" <=> ?"
+			+" AND "+COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES+" <=> ?"
+			+" AND "+COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY+" <=> ?";
 	public static final DiscussionFilter DEFAULT_FILTER = DiscussionFilter.NO_FILTER;
 
 	@WriteTransaction
@@ -324,7 +364,11 @@ public class DBODiscussionThreadDAOImpl implements DiscussionThreadDAO {
 	@WriteTransaction
 	@Override
 	public void updateThreadView(long threadId, long userId) {
-		jdbcTemplate.update(SQL_UPDATE_THREAD_VIEW_TABLE, threadId, userId);
+		int inserted = jdbcTemplate.update(SQL_UPDATE_THREAD_VIEW_TABLE, threadId, userId);
+		if (inserted > 0) {
+			// only the first view of each user is counted
+			jdbcTemplate.update(SQL_INCREMENT_THREAD_VIEW_STATS, threadId);
+		}
 		String etag = UUID.randomUUID().toString();
 		jdbcTemplate.update(SQL_UPDATE_THREAD_ETAG, etag, threadId);
 	}
@@ -476,6 +520,11 @@ public class DBODiscussionThreadDAOImpl implements DiscussionThreadDAO {
 		}, limit, offset);
 	}
 
+	@Override
+	public List<Long> getThreadIdsAfter(long threadId, long limit) {
+		return jdbcTemplate.queryForList(SQL_SELECT_THREAD_ID_AFTER, Long.class, threadId, limit);
+	}
+
 	@Override
 	public String getProjectId(String threadId) {
 		List<String> queryResult = jdbcTemplate.query(SELECT_PROJECT_ID, new RowMapper<String>(){
@@ -654,6 +703,73 @@ public class DBODiscussionThreadDAOImpl implements DiscussionThreadDAO {
 		});
 	}
 
+	@Override
+	public void updateThreadActiveAuthors(final List<DiscussionThreadStat> stats) {
+		jdbcTemplate.batchUpdate(SQL_UPDATE_THREAD_ACTIVE_AUTHORS, new BatchPreparedStatementSetter(){
+
+			@Override
+			public void setValues(PreparedStatement ps, int i)
+					throws SQLException {
+				if (stats.get(i).getActiveAuthors() == null) {
+					ps.setNull(1, Types.VARCHAR);
+				} else {
+					ps.setString(1, DiscussionThreadUtils.toCsvString(stats.get(i).getActiveAuthors()));
+				}
+				ps.setLong(2, stats.get(i).getThreadId());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return stats.size();
+			}
+		});
+	}
+
+	@Override
+	public Optional<DiscussionThreadStat> getThreadStats(long threadId) {
+		List<DiscussionThreadStat> results = jdbcTemplate.query(SQL_SELECT_THREAD_STATS, (ResultSet rs, int rowNum) -> {
+			DiscussionThreadStat stat = new DiscussionThreadStat();
+			stat.setThreadId(rs.getLong(COL_DISCUSSION_THREAD_STATS_THREAD_ID));
+			stat.setNumberOfViews(rs.getLong(COL_DISCUSSION_THREAD_STATS_NUMBER_OF_VIEWS));
+			if (rs.wasNull()) {
+				stat.setNumberOfViews(null);
+			}
+			stat.setNumberOfReplies(rs.getLong(COL_DISCUSSION_THREAD_STATS_NUMBER_OF_REPLIES));
+			if (rs.wasNull()) {
+				stat.setNumberOfReplies(null);
+			}
+			Timestamp lastActivity = rs.getTimestamp(COL_DISCUSSION_THREAD_STATS_LAST_ACTIVITY);
+			if (lastActivity != null) {
+				stat.setLastActivity(lastActivity.getTime());
+			}
+			String activeAuthors = rs.getString(COL_DISCUSSION_THREAD_STATS_ACTIVE_AUTHORS);
+			if (activeAuthors != null) {
+				stat.setActiveAuthors(DiscussionThreadUtils.toList(activeAuthors));
+			}
+			return stat;
+		}, threadId);
+		return results.stream().findFirst();
+	}
+
+	@Override
+	public boolean compareAndSetThreadStats(DiscussionThreadStat expected, DiscussionThreadStat stat) {
+		ValidateArgument.required(stat, "stat");
+		ValidateArgument.required(stat.getThreadId(), "stat.threadId");
+		String activeAuthors = stat.getActiveAuthors() == null ? null
+				: DiscussionThreadUtils.toCsvString(stat.getActiveAuthors());
+		Timestamp lastActivity = stat.getLastActivity() == null ? null : new Timestamp(stat.getLastActivity());
+		if (expected == null) {
+			// A statistic counted in the meantime or a deleted thread is left alone
+			return jdbcTemplate.update(SQL_INSERT_IGNORE_THREAD_STATS, stat.getThreadId(), stat.getNumberOfViews(),
+					activeAuthors, stat.getNumberOfReplies(), lastActivity) > 0;
+		}
+		Timestamp expectedLastActivity = expected.getLastActivity() == null ? null
+				: new Timestamp(expected.getLastActivity());
+		return jdbcTemplate.update(SQL_COMPARE_AND_SET_THREAD_STATS, stat.getNumberOfViews(), activeAuthors,
+				stat.getNumberOfReplies(), lastActivity, stat.getThreadId(), expected.getNumberOfViews(),
+				expected.getNumberOfReplies(), expectedLastActivity) > 0;
+	}
+
 	@Override
 	public void markThreadAsNotDeleted(long threadId) {
 		String etag = UUID.randomUUID().toString();
@@ -10,7 +10,7 @@ import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
 public interface DiscussionReplyDAO {
 
 	/**
-	 * Create a new Reply
+	 * Create a new Reply, counting it in the statistic of its thread
 	 * 
 	 * @param threadId
 	 * @param messageKey
@@ -58,7 +58,8 @@ public interface DiscussionReplyDAO {
 	public long getReplyCount(long threadId, DiscussionFilter filter);
 
 	/**
-	 * Mark a given reply as deleted
+	 * Mark a given reply as deleted, removing it from the number of replies of
+	 * its thread
 	 * 
 	 * @param replyId
 	 */
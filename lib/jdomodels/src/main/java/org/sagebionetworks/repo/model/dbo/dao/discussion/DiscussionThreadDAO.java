@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model.dbo.dao.discussion;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.sagebionetworks.repo.model.discussion.DiscussionFilter;
@@ -83,7 +84,8 @@ public interface DiscussionThreadDAO {
 	public DiscussionThreadBundle updateTitle(long threadId, String title);
 
 	/**
-	 * insert ignore a record into THREAD_VIEW table
+	 * insert ignore a record into THREAD_VIEW table, counting the view in the
+	 * thread statistic the first time the user views the thread
 	 * 
 	 * @param threadId
 	 * @param userId
@@ -114,6 +116,17 @@ public interface DiscussionThreadDAO {
 	 */
 	public List<Long> getAllThreadId(Long limit, Long offset);
 
+	/**
+	 * Get the ids of the threads that follow the given thread id, in thread id
+	 * order. Unlike an offset, the page does not shift when threads are created
+	 * or deleted.
+	 * 
+	 * @param threadId The last id of the previous page, or -1 for the first page.
+	 * @param limit
+	 * @return
+	 */
+	public List<Long> getThreadIdsAfter(long threadId, long limit);
+
 	/**
 	 * Pin a thread
 	 * 
@@ -206,6 +219,35 @@ public interface DiscussionThreadDAO {
 	 */
 	public void updateThreadStats(List<DiscussionThreadStat> stats);
 
+	/**
+	 * Update only the active authors of the thread statistics that already exist,
+	 * the number of views and replies are counted when they are written
+	 * 
+	 * @param stats
+	 */
+	public void updateThreadActiveAuthors(List<DiscussionThreadStat> stats);
+
+	/**
+	 * Get the statistic of a thread as it is stored
+	 * 
+	 * @param threadId
+	 * @return Empty if the thread has no statistic yet
+	 */
+	public Optional<DiscussionThreadStat> getThreadStats(long threadId);
+
+	/**
+	 * Replace the statistic of a thread only if its number of views, number of
+	 * replies and last activity are still the expected ones, so a view or reply
+	 * counted while the statistic was computed is not overwritten.
+	 * 
+	 * @param expected The statistic read with {@link #getThreadStats(long)}
+	 *                 before the new statistic was computed, null if there was
+	 *                 none.
+	 * @param stat
+	 * @return True if the statistic was written.
+	 */
+	public boolean compareAndSetThreadStats(DiscussionThreadStat expected, DiscussionThreadStat stat);
+
 	/**
 	 * Mark a discussion thread as not deleted
 	 * 
@@ -24,8 +24,17 @@ import au.com.bytecode.opencsv.CSVReader;
 public class CSVToRowIterator implements Iterator<SparseRowDto> {
 
 	private final CSVReader reader;
-	private final Map<Long, Integer> columnIdToCsvColumnIndexMap;
 	private final List<ColumnModel> resultSchema;
+	/**
+	 * The ID of each column of the schema and the index of its value in the CSV,
+	 * or -1 when the CSV does not include the column. These are looked up once
+	 * rather than for each cell.
+	 */
+	private final String[] columnIds;
+	private final int[] csvColumnIndices;
+	private final int rowIdCsvIndex;
+	private final int rowVersionCsvIndex;
+	private final int rowEtagCsvIndex;
 
 	private String[] lastRow;
 	private int rowLineNumber;
@@ -63,7 +72,33 @@ public class CSVToRowIterator implements Iterator<SparseRowDto> {
 		lastRow = reader.readNext();
 		rowLineNumber++;
 
-		columnIdToCsvColumnIndexMap = TableModelUtils.createColumnIdToColumnIndexMapFromFirstRow(headers, resultSchema);
+		Map<Long, Integer> columnIdToCsvColumnIndexMap = TableModelUtils.createColumnIdToColumnIndexMapFromFirstRow(headers, resultSchema);
+		columnIds = new String[resultSchema.size()];
+		csvColumnIndices = new int[resultSchema.size()];
+		for (int i = 0; i < resultSchema.size(); i++) {
+			Long columnId = Long.parseLong(resultSchema.get(i).getId());
+			columnIds[i] = columnId.toString();
+			csvColumnIndices[i] = getCsvIndex(columnIdToCsvColumnIndexMap, columnId);
+		}
+		rowIdCsvIndex = getCsvIndex(columnIdToCsvColumnIndexMap, TableConstants.ROW_ID_ID);
+		rowVersionCsvIndex = getCsvIndex(columnIdToCsvColumnIndexMap, TableConstants.ROW_VERSION_ID);
+		rowEtagCsvIndex = getCsvIndex(columnIdToCsvColumnIndexMap, TableConstants.ROW_ETAG_ID);
+	}
+	
+	private static int getCsvIndex(Map<Long, Integer> columnIdToCsvColumnIndexMap, Long columnId) {
+		Integer csvColumnIndex = columnIdToCsvColumnIndexMap.get(columnId);
+		return csvColumnIndex == null ? -1 : csvColumnIndex;
+	}
+	
+	/**
+	 * The value at the given index of the last row, or null if the CSV does not
+	 * include the column or the row is too short.
+	 */
+	private String getCsvValue(int csvColumnIndex) {
+		if (csvColumnIndex < 0 || lastRow.length <= csvColumnIndex) {
+			return null;
+		}
+		return lastRow[csvColumnIndex];
 	}
 	
 	/**
@@ -141,49 +176,28 @@ public class CSVToRowIterator implements Iterator<SparseRowDto> {
 		SparseRowDto row = new SparseRowDto();
 		Map<String, String> values = new HashMap<>(resultSchema.size());
 		boolean anyValues = false; // no values at all in a row denotes a deletion
-		for (int i = 0; i < resultSchema.size(); i++) {
-			Long columnId = Long.parseLong(resultSchema.get(i).getId());
-			Integer csvColumnIndex = columnIdToCsvColumnIndexMap.get(columnId);
-			String value = null;
-			if (csvColumnIndex != null) {
-				if (lastRow.length > csvColumnIndex) {
-					anyValues = true;
-					value = lastRow[csvColumnIndex];
-					values.put(columnId.toString(), value);
-				}
+		for (int i = 0; i < columnIds.length; i++) {
+			int csvColumnIndex = csvColumnIndices[i];
+			if (csvColumnIndex >= 0 && lastRow.length > csvColumnIndex) {
+				anyValues = true;
+				values.put(columnIds[i], lastRow[csvColumnIndex]);
 			}
 		}
 		if (anyValues) {
 			row.setValues(values);
 		}
 
-		Integer csvColumnIndex = columnIdToCsvColumnIndexMap.get(TableConstants.ROW_ID_ID);
-		if (csvColumnIndex != null) {
-			if (lastRow.length > csvColumnIndex) {
-				String value = lastRow[csvColumnIndex];
-				if (!StringUtils.isEmpty(value)) {
-					row.setRowId(Long.parseLong(value));
-				}
-			}
+		String value = getCsvValue(rowIdCsvIndex);
+		if (!StringUtils.isEmpty(value)) {
+			row.setRowId(Long.parseLong(value));
 		}
-		csvColumnIndex = columnIdToCsvColumnIndexMap.get(TableConstants.ROW_VERSION_ID);
-		if (csvColumnIndex != null) {
-			if (lastRow.length > csvColumnIndex) {
-				String value = lastRow[csvColumnIndex];
-				if (!StringUtils.isEmpty(value)) {
-					row.setVersionNumber(Long.parseLong(value));
-				}
-			}
+		value = getCsvValue(rowVersionCsvIndex);
+		if (!StringUtils.isEmpty(value)) {
+			row.setVersionNumber(Long.parseLong(value));
 		}
-		
-		csvColumnIndex = columnIdToCsvColumnIndexMap.get(TableConstants.ROW_ETAG_ID);
-		if (csvColumnIndex != null) {
-			if (lastRow.length > csvColumnIndex) {
-				String value = lastRow[csvColumnIndex];
-				if (!StringUtils.isEmpty(value)) {
-					row.setEtag(value);
-				}
-			}
+		value = getCsvValue(rowEtagCsvIndex);
+		if (!StringUtils.isEmpty(value)) {
+			row.setEtag(value);
 		}
 
 		// Net the next row
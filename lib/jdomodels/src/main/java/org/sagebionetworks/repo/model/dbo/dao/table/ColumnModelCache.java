@@ -0,0 +1,304 @@
+package org.sagebionetworks.repo.model.dbo.dao.table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
+import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
+import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A bounded, in-memory cache of {@link ColumnModel}s keyed by ID and of the
+ * column IDs bound to each table.
+ * <p>
+ * A ColumnModel is never modified once created, so cached models never need to
+ * be invalidated. Since the cached models are shared, a copy of each model is
+ * returned to callers.
+ * <p>
+ * The schema bound to a table can change from any machine, so each cached
+ * binding includes the etag of the table's bound column owner at the time the
+ * binding was read. A cached binding is used when its etag matches the current
+ * etag of the owner. To avoid reading the etag on every lookup, a binding whose
+ * etag was checked within the last schemaRecheckMs is used without checking it
+ * again. Another machine can change the binding during that window, so a
+ * lookup can return a binding that is up to schemaRecheckMs old. Changes made
+ * on this machine remove the cached binding immediately.
+ * <p>
+ * Both caches evict the least recently used entries once they reach their
+ * maximum size.
+ *
+ */
+public class ColumnModelCache {
+
+	private final Map<String, ColumnModel> columnModels;
+	private final Map<IdAndVersion, SchemaBinding> schemas;
+	private final long schemaRecheckMs;
+	private final Clock clock;
+
+	private final AtomicLong columnModelHitCount;
+	private final AtomicLong columnModelMissCount;
+	private final AtomicLong schemaHitCount;
+	private final AtomicLong schemaMissCount;
+
+	/**
+	 *
+	 * @param maxColumnModels The maximum number of column models to hold. Zero
+	 *                        disables the column model cache.
+	 * @param maxSchemas      The maximum number of table schema bindings to hold.
+	 *                        Zero disables the schema cache.
+	 * @param schemaRecheckMs How long a binding is used after its etag was last
+	 *                        checked without checking it again. Zero checks the
+	 *                        etag on every lookup.
+	 * @param clock
+	 */
+	public ColumnModelCache(int maxColumnModels, int maxSchemas, long schemaRecheckMs, Clock clock) {
+		ValidateArgument.requirement(maxColumnModels >= 0, "maxColumnModels cannot be negative");
+		ValidateArgument.requirement(maxSchemas >= 0, "maxSchemas cannot be negative");
+		ValidateArgument.requirement(schemaRecheckMs >= 0, "schemaRecheckMs cannot be negative");
+		ValidateArgument.required(clock, "clock");
+		this.columnModels = createLeastRecentlyUsedMap(maxColumnModels);
+		this.schemas = createLeastRecentlyUsedMap(maxSchemas);
+		this.schemaRecheckMs = schemaRecheckMs;
+		this.clock = clock;
+		this.columnModelHitCount = new AtomicLong();
+		this.columnModelMissCount = new AtomicLong();
+		this.schemaHitCount = new AtomicLong();
+		this.schemaMissCount = new AtomicLong();
+	}
+
+	static <K, V> Map<K, V> createLeastRecentlyUsedMap(final int maxSize) {
+		// access order so the eldest entry is the least recently used.
+		return new LinkedHashMap<K, V>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Get a copy of the cached column model with the given ID.
+	 *
+	 * @param id
+	 * @return The column model or null if it is not in the cache.
+	 */
+	public ColumnModel getColumnModel(String id) {
+		ValidateArgument.required(id, "id");
+		ColumnModel model;
+		synchronized (columnModels) {
+			model = columnModels.get(id);
+		}
+		if (model == null) {
+			columnModelMissCount.incrementAndGet();
+			return null;
+		}
+		columnModelHitCount.incrementAndGet();
+		return copy(model);
+	}
+
+	/**
+	 * Add a copy of the given column model to the cache.
+	 *
+	 * @param model
+	 */
+	public void putColumnModel(ColumnModel model) {
+		ValidateArgument.required(model, "model");
+		ValidateArgument.required(model.getId(), "model.id");
+		ColumnModel copy = copy(model);
+		synchronized (columnModels) {
+			columnModels.put(copy.getId(), copy);
+		}
+	}
+
+	/**
+	 * Remove the column model with the given ID from the cache.
+	 *
+	 * @param id
+	 */
+	public void removeColumnModel(String id) {
+		synchronized (columnModels) {
+			columnModels.remove(id);
+		}
+	}
+
+	/**
+	 * Get the IDs of the columns bound to the given table if the etag of the cached
+	 * binding was checked within the last schemaRecheckMs.
+	 *
+	 * @param idAndVersion
+	 * @return The column IDs in order or null if the etag of the binding must be
+	 *         checked.
+	 */
+	public List<String> getRecentlyCheckedSchema(IdAndVersion idAndVersion) {
+		ValidateArgument.required(idAndVersion, "idAndVersion");
+		SchemaBinding binding;
+		synchronized (schemas) {
+			binding = schemas.get(idAndVersion);
+		}
+		if (binding == null || clock.currentTimeMillis() - binding.checkedOn >= schemaRecheckMs) {
+			return null;
+		}
+		schemaHitCount.incrementAndGet();
+		return binding.columnIds;
+	}
+
+	/**
+	 * Get the IDs of the columns bound to the given table if they are cached with
+	 * the given owner etag.
+	 *
+	 * @param idAndVersion
+	 * @param ownerEtag    The current etag of the table's bound column owner.
+	 * @return The column IDs in order or null if they are not cached for the given
+	 *         etag.
+	 */
+	public List<String> getSchema(IdAndVersion idAndVersion, String ownerEtag) {
+		ValidateArgument.required(idAndVersion, "idAndVersion");
+		ValidateArgument.required(ownerEtag, "ownerEtag");
+		SchemaBinding binding;
+		synchronized (schemas) {
+			binding = schemas.get(idAndVersion);
+		}
+		if (binding == null || !binding.ownerEtag.equals(ownerEtag)) {
+			schemaMissCount.incrementAndGet();
+			return null;
+		}
+		binding.checkedOn = clock.currentTimeMillis();
+		schemaHitCount.incrementAndGet();
+		return binding.columnIds;
+	}
+
+	/**
+	 * Cache the IDs of the columns bound to the given table. The owner etag must be
+	 * read before the column IDs.
+	 *
+	 * @param idAndVersion
+	 * @param ownerEtag
+	 * @param columnIds
+	 */
+	public void putSchema(IdAndVersion idAndVersion, String ownerEtag, List<String> columnIds) {
+		ValidateArgument.required(idAndVersion, "idAndVersion");
+		ValidateArgument.required(ownerEtag, "ownerEtag");
+		ValidateArgument.required(columnIds, "columnIds");
+		SchemaBinding binding = new SchemaBinding(ownerEtag, columnIds, clock.currentTimeMillis());
+		synchronized (schemas) {
+			schemas.put(idAndVersion, binding);
+		}
+	}
+
+	/**
+	 * Remove all cached schemas bound to any version of the given table.
+	 *
+	 * @param tableId
+	 */
+	public void removeSchemas(Long tableId) {
+		synchronized (schemas) {
+			schemas.keySet().removeIf(key -> key.getId().equals(tableId));
+		}
+	}
+
+	/**
+	 * Remove all entries from both caches.
+	 */
+	public void clear() {
+		synchronized (columnModels) {
+			columnModels.clear();
+		}
+		synchronized (schemas) {
+			schemas.clear();
+		}
+	}
+
+	/**
+	 * @return The number of column model lookups that were found in the cache.
+	 */
+	public long getColumnModelHitCount() {
+		return columnModelHitCount.get();
+	}
+
+	/**
+	 * @return The number of column model lookups that were not found in the cache.
+	 */
+	public long getColumnModelMissCount() {
+		return columnModelMissCount.get();
+	}
+
+	/**
+	 * @return The number of schema lookups that were found in the cache.
+	 */
+	public long getSchemaHitCount() {
+		return schemaHitCount.get();
+	}
+
+	/**
+	 * @return The number of schema lookups that were not found in the cache or were
+	 *         cached with an old etag.
+	 */
+	public long getSchemaMissCount() {
+		return schemaMissCount.get();
+	}
+
+	/**
+	 * @return The number of column models currently held.
+	 */
+	public int getColumnModelCount() {
+		synchronized (columnModels) {
+			return columnModels.size();
+		}
+	}
+
+	/**
+	 * @return The number of schemas currently held.
+	 */
+	public int getSchemaCount() {
+		synchronized (schemas) {
+			return schemas.size();
+		}
+	}
+
+	/**
+	 * Create a deep copy of the given column model.
+	 *
+	 * @param model
+	 * @return
+	 */
+	static ColumnModel copy(ColumnModel model) {
+		try {
+			JSONObjectAdapter adapter = new JSONObjectAdapterImpl();
+			model.writeToJSONObject(adapter);
+			ColumnModel copy = new ColumnModel();
+			copy.initializeFromJSONObject(adapter);
+			return copy;
+		} catch (JSONObjectAdapterException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The column IDs bound to a table along with the owner etag they were read
+	 * with and the last time that etag was checked.
+	 *
+	 */
+	static class SchemaBinding {
+
+		private final String ownerEtag;
+		private final List<String> columnIds;
+		private volatile long checkedOn;
+
+		SchemaBinding(String ownerEtag, List<String> columnIds, long checkedOn) {
+			this.ownerEtag = ownerEtag;
+			this.columnIds = Collections.unmodifiableList(new ArrayList<>(columnIds));
+			this.checkedOn = checkedOn;
+		}
+	}
+}
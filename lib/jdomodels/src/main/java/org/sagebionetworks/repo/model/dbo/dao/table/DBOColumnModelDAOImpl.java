@@ -16,9 +16,11 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_COLUMN
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
@@ -61,6 +63,7 @@ public class DBOColumnModelDAOImpl implements ColumnModelDAO {
 	private static final String INPUT = "input";
 	private static final String SELECT_COLUMN_NAME = "SELECT "+ COL_CM_ID+","+COL_CM_NAME+" FROM "+TABLE_COLUMN_MODEL+" WHERE "+COL_CM_ID+" IN (:"+INPUT+")";
 	private static final String SQL_SELECT_OWNER_ETAG_FOR_UPDATE = "SELECT "+COL_BOUND_OWNER_ETAG+" FROM "+TABLE_BOUND_COLUMN_OWNER+" WHERE "+COL_BOUND_OWNER_OBJECT_ID+" = ? FOR UPDATE";
+	private static final String SQL_SELECT_OWNER_ETAG = "SELECT "+COL_BOUND_OWNER_ETAG+" FROM "+TABLE_BOUND_COLUMN_OWNER+" WHERE "+COL_BOUND_OWNER_OBJECT_ID+" = ?";
 	
 	private static final String SQL_GET_COLUMN_MODELS_FOR_OBJECT = "SELECT CM.* FROM " + TABLE_BOUND_COLUMN_ORDINAL
 			+ " BO JOIN " + TABLE_COLUMN_MODEL + " CM ON (BO." + COL_BOUND_CM_ORD_COLUMN_ID + " = CM." + COL_CM_ID + ")"
@@ -92,6 +95,8 @@ public class DBOColumnModelDAOImpl implements ColumnModelDAO {
 	private NamedParameterJdbcTemplate namedJdbcTemplate;
 	@Autowired
 	private IdGenerator idGenerator;
+	@Autowired
+	private ColumnModelCache columnModelCache;
 	
 	private static RowMapper<DBOColumnModel> ROW_MAPPER = new DBOColumnModel().getTableMapping();
 
@@ -105,22 +110,57 @@ public class DBOColumnModelDAOImpl implements ColumnModelDAO {
 
 	@Override
 	public List<ColumnModel> getColumnModelsForObject(IdAndVersion idAndVersion) throws DatastoreException {
-		List<DBOColumnModel> dbos = jdbcTemplate.query(SQL_GET_COLUMN_MODELS_FOR_OBJECT, ROW_MAPPER,
-				idAndVersion.getId(), idAndVersion.getVersion().orElse(DBOBoundColumnOrdinal.DEFAULT_NULL_VERSION));
-		// Convert to DTOs
-		return ColumnModelUtils.createDTOFromDBO(dbos);
+		List<String> columnIds = getColumnModelIdsForObject(idAndVersion);
+		Map<String, ColumnModel> idToModel = new HashMap<>(columnIds.size());
+		for (ColumnModel model : getColumnModels(columnIds)) {
+			idToModel.put(model.getId(), model);
+		}
+		// The results must be in the order the columns are bound to the object.
+		List<ColumnModel> results = new LinkedList<>();
+		for (String columnId : columnIds) {
+			ColumnModel model = idToModel.get(columnId);
+			if (model != null) {
+				results.add(model);
+			}
+		}
+		return results;
 	}
 	
 	@Override
 	public List<String> getColumnModelIdsForObject(IdAndVersion idAndVersion) {
-		return jdbcTemplate.queryForList(SQL_GET_COLUMN_ID_FOR_OBJECT, String.class, idAndVersion.getId(),
+		ValidateArgument.required(idAndVersion, "idAndVersion");
+		List<String> recent = columnModelCache.getRecentlyCheckedSchema(idAndVersion);
+		if (recent != null) {
+			return new LinkedList<>(recent);
+		}
+		// The etag must be read before the column IDs so a binding is never cached with a newer etag.
+		Optional<String> ownerEtag = getOwnerEtag(idAndVersion.getId());
+		if (ownerEtag.isPresent()) {
+			List<String> cached = columnModelCache.getSchema(idAndVersion, ownerEtag.get());
+			if (cached != null) {
+				return new LinkedList<>(cached);
+			}
+		}
+		List<String> columnIds = jdbcTemplate.queryForList(SQL_GET_COLUMN_ID_FOR_OBJECT, String.class, idAndVersion.getId(),
 				idAndVersion.getVersion().orElse(DBOBoundColumnOrdinal.DEFAULT_NULL_VERSION));
+		ownerEtag.ifPresent(etag -> columnModelCache.putSchema(idAndVersion, etag, columnIds));
+		return columnIds;
+	}
+	
+	/**
+	 * Get the etag of the bound column owner of the given object.
+	 * 
+	 * @param objectId
+	 * @return Optional.empty() if columns have never been bound to the object.
+	 */
+	Optional<String> getOwnerEtag(Long objectId) {
+		List<String> etags = jdbcTemplate.queryForList(SQL_SELECT_OWNER_ETAG, String.class, objectId);
+		return etags.stream().findFirst();
 	}
 	
 	@Override
 	public long getColumnModelCountForObject(IdAndVersion idAndVersion) {
-		return jdbcTemplate.queryForObject(SQL_GET_COLUMN_COUNT_FOR_OBJECT, Long.class, idAndVersion.getId(),
-				idAndVersion.getVersion().orElse(DBOBoundColumnOrdinal.DEFAULT_NULL_VERSION));
+		return getColumnModelIdsForObject(idAndVersion).size();
 	}
 	
 	/**
@@ -162,30 +202,42 @@ public class DBOColumnModelDAOImpl implements ColumnModelDAO {
 
 	@Override
 	public ColumnModel getColumnModel(String id) throws DatastoreException, NotFoundException {
+		ValidateArgument.required(id, "id");
+		ColumnModel cached = columnModelCache.getColumnModel(id);
+		if (cached != null) {
+			return cached;
+		}
 		MapSqlParameterSource param = new MapSqlParameterSource();
 		param.addValue(DBOConstants.PARAM_EVALUATION_ID, id);
 		DBOColumnModel dbo = basicDao.getObjectByPrimaryKey(DBOColumnModel.class, param)
 				.orElseThrow(() -> new NotFoundException(String.format(COLUMN_MODEL_DOES_NOT_EXIST, id)));
-		return ColumnModelUtils.createDTOFromDBO(dbo);
+		ColumnModel model = ColumnModelUtils.createDTOFromDBO(dbo);
+		columnModelCache.putColumnModel(model);
+		return model;
 	}
 	
 	@WriteTransaction
 	@Override
 	public int deleteColumModel(String id) {
 		if(id == null) throw new IllegalArgumentException("id cannot be null");
+		columnModelCache.removeColumnModel(id);
 		return jdbcTemplate.update(SQL_DELETE_COLUMN_MODEL, id);
 	}
 
 	@WriteTransaction
 	@Override
 	public void deleteOwner(String objectId) {
-		basicDao.deleteObjectByPrimaryKey(DBOBoundColumnOwner.class, new SinglePrimaryKeySqlParameterSource(KeyFactory.stringToKey(objectId)));
+		Long id = KeyFactory.stringToKey(objectId);
+		columnModelCache.removeSchemas(id);
+		basicDao.deleteObjectByPrimaryKey(DBOBoundColumnOwner.class, new SinglePrimaryKeySqlParameterSource(id));
 	}
 
 	@WriteTransaction
 	@Override
 	public void bindColumnToObject(final List<ColumnModel> newColumns, final IdAndVersion idAndVersion) throws NotFoundException {
 		ValidateArgument.required(idAndVersion, "idAndVersion");	
+		// Any cached binding is also invalidated by the new owner etag.
+		columnModelCache.removeSchemas(idAndVersion.getId());
 		// Create or update the owner.
 		DBOBoundColumnOwner owner = new DBOBoundColumnOwner();
 		owner.setObjectId(idAndVersion.getId());
@@ -219,17 +271,44 @@ public class DBOColumnModelDAOImpl implements ColumnModelDAO {
 		if(ids.isEmpty()){
 			return new LinkedList<ColumnModel>();
 		}
-		MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
-		NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
-		List<DBOColumnModel> dbos = namedTemplate.query(SQL_SELECT_COLUMNS_FOR_IDS, parameters,ROW_MAPPER);
-		// Convert to DTOs
-		return ColumnModelUtils.createDTOFromDBO(dbos);
+		// Cached and loaded models are returned in the order of the given IDs.
+		Map<String, ColumnModel> idToModel = new LinkedHashMap<>(ids.size());
+		List<String> missingIds = new LinkedList<>();
+		for (String id : ids) {
+			if (idToModel.containsKey(id)) {
+				continue;
+			}
+			ColumnModel cached = columnModelCache.getColumnModel(id);
+			idToModel.put(id, cached);
+			if (cached == null) {
+				missingIds.add(id);
+			}
+		}
+		if (!missingIds.isEmpty()) {
+			MapSqlParameterSource parameters = new MapSqlParameterSource("ids", missingIds);
+			NamedParameterJdbcTemplate namedTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+			List<DBOColumnModel> dbos = namedTemplate.query(SQL_SELECT_COLUMNS_FOR_IDS, parameters,ROW_MAPPER);
+			// Convert to DTOs
+			for (ColumnModel model : ColumnModelUtils.createDTOFromDBO(dbos)) {
+				columnModelCache.putColumnModel(model);
+				idToModel.put(model.getId(), model);
+			}
+		}
+		List<ColumnModel> results = new LinkedList<>();
+		for (ColumnModel model : idToModel.values()) {
+			// IDs that do not exist are skipped.
+			if (model != null) {
+				results.add(model);
+			}
+		}
+		return results;
 	}
 
 	
 	@WriteTransaction
 	@Override
 	public boolean truncateAllColumnData() {
+		columnModelCache.clear();
 		int count = jdbcTemplate.update(SQL_TRUNCATE_BOUND_COLUMN_ORDINAL);
 		count += jdbcTemplate.update(SQL_TRUNCATE_COLUMN_MODEL);
 		return count >0;
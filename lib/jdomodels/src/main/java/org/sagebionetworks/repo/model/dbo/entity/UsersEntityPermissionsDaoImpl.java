@@ -14,6 +14,8 @@ import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.NodeConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
 import org.sagebionetworks.repo.model.dbo.DDLUtilsImpl;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.RowCallbackHandler;
@@ -27,9 +29,15 @@ public class UsersEntityPermissionsDaoImpl implements UsersEntityPermissionsDao
 	public static final String GET_ENTITY_PERMISSION_SQL = DDLUtilsImpl
 			.loadSQLFromClasspath("sql/GetEntityPermissions.sql");
 
+	public static final String GET_ENTITY_PERMISSION_BY_ANCESTOR_SQL = DDLUtilsImpl
+			.loadSQLFromClasspath("sql/GetEntityPermissionsByAncestor.sql");
+
 	@Autowired
 	private NamedParameterJdbcTemplate namedJdbcTemplate;
 
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+
 	@Override
 	public Map<Long, UserEntityPermissionsState> getEntityPermissionsAsMap(Set<Long> userGroups, List<Long> entityIds) {
 		ValidateArgument.required(userGroups, "userGroups");
@@ -49,7 +57,10 @@ public class UsersEntityPermissionsDaoImpl implements UsersEntityPermissionsDao
 		params.addValue("entityIds", entityIds);
 		params.addValue("depth", NodeConstants.MAX_PATH_DEPTH_PLUS_ONE);
 		params.addValue("publicId", BOOTSTRAP_PRINCIPAL.PUBLIC_GROUP.getPrincipalId());
-		namedJdbcTemplate.query(GET_ENTITY_PERMISSION_SQL, params, new RowCallbackHandler() {
+		// The hierarchy is walked with PARENT_ID until every node has its ancestors.
+		String sql = backfillStatusDao.isComplete(BackfillType.NODE_ANCESTOR) ? GET_ENTITY_PERMISSION_BY_ANCESTOR_SQL
+				: GET_ENTITY_PERMISSION_SQL;
+		namedJdbcTemplate.query(sql, params, new RowCallbackHandler() {
 
 			@Override
 			public void processRow(ResultSet rs) throws SQLException {
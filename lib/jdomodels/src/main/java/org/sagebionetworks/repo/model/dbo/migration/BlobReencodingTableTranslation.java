@@ -0,0 +1,42 @@
+package org.sagebionetworks.repo.model.dbo.migration;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+
+/**
+ * MigratableTableTranslation for a database object with a serialized blob.
+ * The blob of each restored object is rewritten with the current blob
+ * encoding, so blobs written with an older encoding are upgraded as they are
+ * migrated.
+ * 
+ * @param <D>
+ */
+public class BlobReencodingTableTranslation<D extends DatabaseObject<?>> extends BasicMigratableTableTranslation<D> {
+
+	private final Function<D, byte[]> getter;
+	private final BiConsumer<D, byte[]> setter;
+	private final UnaryOperator<byte[]> reencoder;
+
+	/**
+	 * 
+	 * @param getter    Reads the blob of an object.
+	 * @param setter    Writes the blob of an object.
+	 * @param reencoder Rewrites a blob with the current encoding.
+	 */
+	public BlobReencodingTableTranslation(Function<D, byte[]> getter, BiConsumer<D, byte[]> setter,
+			UnaryOperator<byte[]> reencoder) {
+		this.getter = getter;
+		this.setter = setter;
+		this.reencoder = reencoder;
+	}
+
+	@Override
+	public D createDatabaseObjectFromBackup(D backup) {
+		setter.accept(backup, reencoder.apply(getter.apply(backup)));
+		return backup;
+	}
+
+}
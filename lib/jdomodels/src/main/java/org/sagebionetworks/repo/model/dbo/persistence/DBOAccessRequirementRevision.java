@@ -17,7 +17,8 @@ import java.util.Objects;
 import org.sagebionetworks.repo.model.dbo.FieldColumn;
 import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
 import org.sagebionetworks.repo.model.dbo.TableMapping;
-import org.sagebionetworks.repo.model.dbo.migration.BasicMigratableTableTranslation;
+import org.sagebionetworks.repo.model.dbo.dao.AccessRequirementUtils;
+import org.sagebionetworks.repo.model.dbo.migration.BlobReencodingTableTranslation;
 import org.sagebionetworks.repo.model.dbo.migration.MigratableTableTranslation;
 import org.sagebionetworks.repo.model.migration.MigrationType;
 
@@ -74,7 +75,10 @@ public class DBOAccessRequirementRevision implements MigratableDatabaseObject<DB
 		}
 	};
 	
-	private static final MigratableTableTranslation<DBOAccessRequirementRevision, DBOAccessRequirementRevision> MIGRATION_TRANSLATOR = new BasicMigratableTableTranslation<>();
+	// Upgrade blobs written with an older encoding as they are restored.
+	private static final MigratableTableTranslation<DBOAccessRequirementRevision, DBOAccessRequirementRevision> MIGRATION_TRANSLATOR = new BlobReencodingTableTranslation<>(
+			DBOAccessRequirementRevision::getSerializedEntity, DBOAccessRequirementRevision::setSerializedEntity,
+			AccessRequirementUtils::reencodeSerializedField);
 	
 	public Long getOwnerId() {
 		return ownerId;
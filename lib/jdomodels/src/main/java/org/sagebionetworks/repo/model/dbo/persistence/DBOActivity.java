@@ -20,7 +20,8 @@ import org.sagebionetworks.repo.model.ObservableEntity;
 import org.sagebionetworks.repo.model.dbo.FieldColumn;
 import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
 import org.sagebionetworks.repo.model.dbo.TableMapping;
-import org.sagebionetworks.repo.model.dbo.migration.BasicMigratableTableTranslation;
+import org.sagebionetworks.repo.model.dbo.dao.ActivityUtils;
+import org.sagebionetworks.repo.model.dbo.migration.BlobReencodingTableTranslation;
 import org.sagebionetworks.repo.model.dbo.migration.MigratableTableTranslation;
 import org.sagebionetworks.repo.model.migration.MigrationType;
 
@@ -237,7 +238,9 @@ public class DBOActivity implements MigratableDatabaseObject<DBOActivity, DBOAct
 
 	@Override
 	public MigratableTableTranslation<DBOActivity, DBOActivity> getTranslator() {
-		return new BasicMigratableTableTranslation<DBOActivity>();
+		// Upgrade blobs written with an older encoding as they are restored.
+		return new BlobReencodingTableTranslation<>(DBOActivity::getSerializedObject, DBOActivity::setSerializedObject,
+				ActivityUtils::reencode);
 	}
 
 	@Override
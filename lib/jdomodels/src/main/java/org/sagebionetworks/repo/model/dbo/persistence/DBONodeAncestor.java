@@ -0,0 +1,126 @@
+package org.sagebionetworks.repo.model.dbo.persistence;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_ANCESTOR_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_DISTANCE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_ANCESTOR_NODE_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_FILE_NODE_ANCESTOR;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_ANCESTOR;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The closure of the node hierarchy. There is one row for each node and each of
+ * its ancestors (including the node itself at distance zero), so the path,
+ * benefactor or sub-tree of a node can be found without walking the hierarchy.
+ * This table is maintained by the NodeDAO and is not migrated: a restore of
+ * nodes marks it incomplete and it is rebuilt from PARENT_ID on each stack.
+ *
+ */
+public class DBONodeAncestor implements DatabaseObject<DBONodeAncestor> {
+
+	private static final FieldColumn[] FIELDS = new FieldColumn[] {
+		new FieldColumn("nodeId", COL_NODE_ANCESTOR_NODE_ID, true),
+		new FieldColumn("ancestorId", COL_NODE_ANCESTOR_ANCESTOR_ID, true),
+		new FieldColumn("distance", COL_NODE_ANCESTOR_DISTANCE)
+	};
+
+	private static final TableMapping<DBONodeAncestor> TABLE_MAPPER = new TableMapping<DBONodeAncestor>() {
+
+		@Override
+		public DBONodeAncestor mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBONodeAncestor dbo = new DBONodeAncestor();
+			dbo.setNodeId(rs.getLong(COL_NODE_ANCESTOR_NODE_ID));
+			dbo.setAncestorId(rs.getLong(COL_NODE_ANCESTOR_ANCESTOR_ID));
+			dbo.setDistance(rs.getInt(COL_NODE_ANCESTOR_DISTANCE));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_NODE_ANCESTOR;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_FILE_NODE_ANCESTOR;
+		}
+
+		@Override
+		public Class<? extends DBONodeAncestor> getDBOClass() {
+			return DBONodeAncestor.class;
+		}
+	};
+
+	private Long nodeId;
+	private Long ancestorId;
+	private Integer distance;
+
+	public DBONodeAncestor() {}
+
+	public Long getNodeId() {
+		return nodeId;
+	}
+
+	public void setNodeId(Long nodeId) {
+		this.nodeId = nodeId;
+	}
+
+	public Long getAncestorId() {
+		return ancestorId;
+	}
+
+	public void setAncestorId(Long ancestorId) {
+		this.ancestorId = ancestorId;
+	}
+
+	public Integer getDistance() {
+		return distance;
+	}
+
+	public void setDistance(Integer distance) {
+		this.distance = distance;
+	}
+
+	@Override
+	public TableMapping<DBONodeAncestor> getTableMapping() {
+		return TABLE_MAPPER;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(nodeId, ancestorId, distance);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		DBONodeAncestor other = (DBONodeAncestor) obj;
+		return Objects.equals(nodeId, other.nodeId) && Objects.equals(ancestorId, other.ancestorId)
+				&& Objects.equals(distance, other.distance);
+	}
+
+	@Override
+	public String toString() {
+		return "DBONodeAncestor [nodeId=" + nodeId + ", ancestorId=" + ancestorId + ", distance=" + distance + "]";
+	}
+
+}
@@ -0,0 +1,139 @@
+package org.sagebionetworks.repo.model.dbo.persistence;
+
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_CHILD_COUNT;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_NODE_TYPE;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_PARENT_ID;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.COL_NODE_CHILD_STATS_SUM_FILE_SIZES;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.DDL_FILE_NODE_CHILD_STATS;
+import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_NODE_CHILD_STATS;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.dbo.DatabaseObject;
+import org.sagebionetworks.repo.model.dbo.FieldColumn;
+import org.sagebionetworks.repo.model.dbo.TableMapping;
+
+/**
+ * The number of children of each type of a node and the total size of the files
+ * of their current versions, so a container does not need to aggregate all of
+ * its children to report them. This table is maintained by the NodeDAO and is
+ * not migrated: a restore of nodes marks it incomplete and it is recomputed from
+ * the children on each stack.
+ *
+ */
+public class DBONodeChildStats implements DatabaseObject<DBONodeChildStats> {
+
+	private static final FieldColumn[] FIELDS = new FieldColumn[] {
+		new FieldColumn("parentId", COL_NODE_CHILD_STATS_PARENT_ID, true),
+		new FieldColumn("nodeType", COL_NODE_CHILD_STATS_NODE_TYPE, true),
+		new FieldColumn("childCount", COL_NODE_CHILD_STATS_CHILD_COUNT),
+		new FieldColumn("sumFileSizes", COL_NODE_CHILD_STATS_SUM_FILE_SIZES)
+	};
+
+	private static final TableMapping<DBONodeChildStats> TABLE_MAPPER = new TableMapping<DBONodeChildStats>() {
+
+		@Override
+		public DBONodeChildStats mapRow(ResultSet rs, int rowNum) throws SQLException {
+			DBONodeChildStats dbo = new DBONodeChildStats();
+			dbo.setParentId(rs.getLong(COL_NODE_CHILD_STATS_PARENT_ID));
+			dbo.setNodeType(rs.getString(COL_NODE_CHILD_STATS_NODE_TYPE));
+			dbo.setChildCount(rs.getLong(COL_NODE_CHILD_STATS_CHILD_COUNT));
+			dbo.setSumFileSizes(rs.getLong(COL_NODE_CHILD_STATS_SUM_FILE_SIZES));
+			return dbo;
+		}
+
+		@Override
+		public String getTableName() {
+			return TABLE_NODE_CHILD_STATS;
+		}
+
+		@Override
+		public FieldColumn[] getFieldColumns() {
+			return FIELDS;
+		}
+
+		@Override
+		public String getDDLFileName() {
+			return DDL_FILE_NODE_CHILD_STATS;
+		}
+
+		@Override
+		public Class<? extends DBONodeChildStats> getDBOClass() {
+			return DBONodeChildStats.class;
+		}
+	};
+
+	private Long parentId;
+	private String nodeType;
+	private Long childCount;
+	private Long sumFileSizes;
+
+	public DBONodeChildStats() {}
+
+	public Long getParentId() {
+		return parentId;
+	}
+
+	public void setParentId(Long parentId) {
+		this.parentId = parentId;
+	}
+
+	public String getNodeType() {
+		return nodeType;
+	}
+
+	public void setNodeType(String nodeType) {
+		this.nodeType = nodeType;
+	}
+
+	public Long getChildCount() {
+		return childCount;
+	}
+
+	public void setChildCount(Long childCount) {
+		this.childCount = childCount;
+	}
+
+	public Long getSumFileSizes() {
+		return sumFileSizes;
+	}
+
+	public void setSumFileSizes(Long sumFileSizes) {
+		this.sumFileSizes = sumFileSizes;
+	}
+
+	@Override
+	public TableMapping<DBONodeChildStats> getTableMapping() {
+		return TABLE_MAPPER;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(parentId, nodeType, childCount, sumFileSizes);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		DBONodeChildStats other = (DBONodeChildStats) obj;
+		return Objects.equals(parentId, other.parentId) && Objects.equals(nodeType, other.nodeType)
+				&& Objects.equals(childCount, other.childCount) && Objects.equals(sumFileSizes, other.sumFileSizes);
+	}
+
+	@Override
+	public String toString() {
+		return "DBONodeChildStats [parentId=" + parentId + ", nodeType=" + nodeType + ", childCount=" + childCount
+				+ ", sumFileSizes=" + sumFileSizes + "]";
+	}
+
+}
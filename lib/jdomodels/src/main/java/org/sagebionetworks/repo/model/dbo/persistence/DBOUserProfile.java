@@ -21,7 +21,8 @@ import java.util.List;
 import org.sagebionetworks.repo.model.dbo.FieldColumn;
 import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
 import org.sagebionetworks.repo.model.dbo.TableMapping;
-import org.sagebionetworks.repo.model.dbo.migration.BasicMigratableTableTranslation;
+import org.sagebionetworks.repo.model.dbo.dao.UserProfileUtils;
+import org.sagebionetworks.repo.model.dbo.migration.BlobReencodingTableTranslation;
 import org.sagebionetworks.repo.model.dbo.migration.MigratableTableTranslation;
 import org.sagebionetworks.repo.model.migration.MigrationType;
 
@@ -249,7 +250,9 @@ public class DBOUserProfile implements MigratableDatabaseObject<DBOUserProfile,
 
 	@Override
 	public MigratableTableTranslation<DBOUserProfile, DBOUserProfile> getTranslator() {
-			return new BasicMigratableTableTranslation<DBOUserProfile>();
+		// Upgrade blobs written with an older encoding as they are restored.
+		return new BlobReencodingTableTranslation<>(DBOUserProfile::getProperties, DBOUserProfile::setProperties,
+				UserProfileUtils::reencode);
 	}
 
 
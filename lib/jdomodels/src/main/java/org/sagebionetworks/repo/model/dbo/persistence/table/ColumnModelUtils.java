@@ -62,6 +62,20 @@ public class ColumnModelUtils {
 		}
 	}
 	
+	/**
+	 * Rewrite the serialized bytes of a column model with the current blob
+	 * encoding.
+	 * @param bytes
+	 * @return
+	 */
+	public static byte[] reencodeBytes(byte[] bytes) {
+		try {
+			return JDOSecondaryPropertyUtils.reencodeObject(X_STREAM, bytes);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
 	/**
 	 * Translate from the DBO to the DTO.
 	 * @param dbo
@@ -15,7 +15,7 @@ import java.util.List;
 import org.sagebionetworks.repo.model.dbo.FieldColumn;
 import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
 import org.sagebionetworks.repo.model.dbo.TableMapping;
-import org.sagebionetworks.repo.model.dbo.migration.BasicMigratableTableTranslation;
+import org.sagebionetworks.repo.model.dbo.migration.BlobReencodingTableTranslation;
 import org.sagebionetworks.repo.model.dbo.migration.MigratableTableTranslation;
 import org.sagebionetworks.repo.model.migration.MigrationType;
 
@@ -116,7 +116,9 @@ public class DBOColumnModel implements MigratableDatabaseObject<DBOColumnModel,
 
 	@Override
 	public MigratableTableTranslation<DBOColumnModel, DBOColumnModel> getTranslator() {
-		return new BasicMigratableTableTranslation<DBOColumnModel>();
+		// Upgrade blobs written with an older encoding as they are restored.
+		return new BlobReencodingTableTranslation<>(DBOColumnModel::getBytes, DBOColumnModel::setBytes,
+				ColumnModelUtils::reencodeBytes);
 	}
 
 	@Override
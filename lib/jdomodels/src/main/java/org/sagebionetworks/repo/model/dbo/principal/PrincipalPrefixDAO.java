@@ -104,6 +104,25 @@ public interface PrincipalPrefixDAO {
 	 */
 	Long countTeamMembersForPrefix(String prefix, Long teamId);
 
+	/**
+	 * List a single page of all the tokens in the table, with the type of their
+	 * principal, ordered by token then principal ID.
+	 * 
+	 * @param after The last entry of the previous page, null for the first page.
+	 * @param limit
+	 * @return
+	 */
+	List<PrincipalPrefixEntry> listEntries(PrincipalPrefixEntry after, long limit);
+
+	/**
+	 * Get all the tokens of the given principals, with the type of each
+	 * principal, ordered by token then principal ID.
+	 * 
+	 * @param principalIds
+	 * @return
+	 */
+	List<PrincipalPrefixEntry> getEntries(Set<Long> principalIds);
+
 	/**
 	 * Delete all data in the table.
 	 */
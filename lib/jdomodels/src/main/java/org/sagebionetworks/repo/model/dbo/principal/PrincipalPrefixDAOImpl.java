@@ -12,12 +12,15 @@ import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_PRINCI
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_TEAM;
 import static org.sagebionetworks.repo.model.query.jdo.SqlConstants.TABLE_USER_GROUP;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import org.sagebionetworks.repo.transactions.WriteTransaction;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
@@ -29,6 +32,10 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 	private static final String SQL_PARAM_PATTERN = "pattern";
 	private static final String SQL_PARAM_LIMIT = "limit";
 	private static final String SQL_PARAM_OFFSET = "offset";
+	private static final String SQL_PARAM_TOKEN = "token";
+	private static final String SQL_PARAM_PRINCIPAL_ID = "principalId";
+	private static final String SQL_PARAM_PRINCIPAL_IDS = "principalIds";
+	private static final String IS_TEAM = "IS_TEAM";
 
 	private static final String SQL_LIST_TEAM_MEMBERS_FOR_PREFIX_CORE = "SELECT DISTINCT P."
 			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID
@@ -95,6 +102,35 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 					+ " LIKE ? LIMIT ? OFFSET ?";
 
 
+	private static final String SQL_SELECT_ENTRIES = "SELECT P." + COL_PRINCIPAL_PREFIX_TOKEN
+			+ ", P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID
+			+ ", U." + COL_USER_GROUP_IS_INDIVIDUAL
+			+ ", T." + COL_TEAM_ID + " IS NOT NULL AS " + IS_TEAM
+			+ " FROM " + TABLE_PRINCIPAL_PREFIX + " P JOIN " + TABLE_USER_GROUP + " U ON P."
+			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " = U." + COL_USER_GROUP_ID
+			+ " LEFT JOIN " + TABLE_TEAM + " T ON P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " = T." + COL_TEAM_ID;
+
+	private static final String SQL_ORDER_ENTRIES = " ORDER BY P." + COL_PRINCIPAL_PREFIX_TOKEN
+			+ ", P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID;
+
+	private static final String SQL_LIST_FIRST_ENTRIES = SQL_SELECT_ENTRIES + SQL_ORDER_ENTRIES
+			+ " LIMIT :" + SQL_PARAM_LIMIT;
+
+	// The primary key (TOKEN, PRINCIPAL_ID) is used to page through the table
+	private static final String SQL_LIST_ENTRIES_AFTER = SQL_SELECT_ENTRIES
+			+ " WHERE P." + COL_PRINCIPAL_PREFIX_TOKEN + " > :" + SQL_PARAM_TOKEN
+			+ " OR (P." + COL_PRINCIPAL_PREFIX_TOKEN + " = :" + SQL_PARAM_TOKEN
+			+ " AND P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " > :" + SQL_PARAM_PRINCIPAL_ID + ")"
+			+ SQL_ORDER_ENTRIES + " LIMIT :" + SQL_PARAM_LIMIT;
+
+	private static final String SQL_GET_ENTRIES = SQL_SELECT_ENTRIES
+			+ " WHERE P." + COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " IN (:" + SQL_PARAM_PRINCIPAL_IDS + ")"
+			+ SQL_ORDER_ENTRIES;
+
+	private static final RowMapper<PrincipalPrefixEntry> ENTRY_ROW_MAPPER = (rs, rowNum) -> new PrincipalPrefixEntry(
+			rs.getString(COL_PRINCIPAL_PREFIX_TOKEN), rs.getLong(COL_PRINCIPAL_PREFIX_PRINCIPAL_ID),
+			rs.getBoolean(COL_USER_GROUP_IS_INDIVIDUAL), rs.getBoolean(IS_TEAM));
+
 	private static final String SQL_CLEAR_PRINCIPAL = "DELETE FROM "
 			+ TABLE_PRINCIPAL_PREFIX + " WHERE "
 			+ COL_PRINCIPAL_PREFIX_PRINCIPAL_ID + " = ?";
@@ -295,6 +331,28 @@ public class PrincipalPrefixDAOImpl implements PrincipalPrefixDAO {
 		return jdbcTemplate.queryForObject(SQL_COUNT_TEAM_MEMBERS_FOR_PREFIX, Long.class, teamId, processed + WILDCARD);
 	}
 
+	@Override
+	public List<PrincipalPrefixEntry> listEntries(PrincipalPrefixEntry after, long limit) {
+		MapSqlParameterSource param = new MapSqlParameterSource();
+		param.addValue(SQL_PARAM_LIMIT, limit);
+		if (after == null) {
+			return namedJdbcTemplate.query(SQL_LIST_FIRST_ENTRIES, param, ENTRY_ROW_MAPPER);
+		}
+		param.addValue(SQL_PARAM_TOKEN, after.getToken());
+		param.addValue(SQL_PARAM_PRINCIPAL_ID, after.getPrincipalId());
+		return namedJdbcTemplate.query(SQL_LIST_ENTRIES_AFTER, param, ENTRY_ROW_MAPPER);
+	}
+
+	@Override
+	public List<PrincipalPrefixEntry> getEntries(Set<Long> principalIds) {
+		ValidateArgument.required(principalIds, "principalIds");
+		if (principalIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		MapSqlParameterSource param = new MapSqlParameterSource(SQL_PARAM_PRINCIPAL_IDS, principalIds);
+		return namedJdbcTemplate.query(SQL_GET_ENTRIES, param, ENTRY_ROW_MAPPER);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
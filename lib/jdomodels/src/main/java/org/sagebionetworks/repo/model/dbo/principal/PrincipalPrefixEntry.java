@@ -0,0 +1,74 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import java.util.Objects;
+
+/**
+ * A single token of the principal prefix table with the type of the principal
+ * it belongs to.
+ *
+ */
+public class PrincipalPrefixEntry {
+
+	private final String token;
+	private final long principalId;
+	private final boolean isIndividual;
+	private final boolean isTeam;
+
+	public PrincipalPrefixEntry(String token, long principalId, boolean isIndividual, boolean isTeam) {
+		this.token = token;
+		this.principalId = principalId;
+		this.isIndividual = isIndividual;
+		this.isTeam = isTeam;
+	}
+
+	/**
+	 * @return The pre-processed token, see
+	 *         {@link PrincipalPrefixDAOImpl#preProcessToken(String)}
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	public long getPrincipalId() {
+		return principalId;
+	}
+
+	/**
+	 * @return True if the principal is a user.
+	 */
+	public boolean isIndividual() {
+		return isIndividual;
+	}
+
+	/**
+	 * @return True if the principal is a team.
+	 */
+	public boolean isTeam() {
+		return isTeam;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(isIndividual, isTeam, principalId, token);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PrincipalPrefixEntry)) {
+			return false;
+		}
+		PrincipalPrefixEntry other = (PrincipalPrefixEntry) obj;
+		return isIndividual == other.isIndividual && isTeam == other.isTeam && principalId == other.principalId
+				&& Objects.equals(token, other.token);
+	}
+
+	@Override
+	public String toString() {
+		return "PrincipalPrefixEntry [token=" + token + ", principalId=" + principalId + ", isIndividual="
+				+ isIndividual + ", isTeam=" + isTeam + "]";
+	}
+
+}
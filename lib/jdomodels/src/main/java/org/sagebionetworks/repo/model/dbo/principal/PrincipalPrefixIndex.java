@@ -0,0 +1,633 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * An in-memory copy of the principal prefix table that answers the same prefix
+ * queries as the {@link PrincipalPrefixDAO} without going to the database.
+ * <p>
+ * The tokens are kept sorted by token then principal ID in compact parallel
+ * arrays, so the matches of a prefix are found with a binary search and read in
+ * order. The principals that changed since the arrays were built are kept in a
+ * small sorted overlay that is merged with the arrays while reading, and merged
+ * into new arrays once it grows past {@link #MAX_OVERLAY_PRINCIPALS}. Each
+ * change replaces the immutable state of the index, so readers never lock and
+ * always see a consistent index.
+ * <p>
+ * Like the database queries, the principals matching a prefix are ordered by
+ * their first matching token, so a page of a query is stable as long as the
+ * principals do not change.
+ *
+ */
+public class PrincipalPrefixIndex {
+
+	/**
+	 * The type of principals to include in the results of a query.
+	 */
+	public enum Type {
+		ALL, INDIVIDUALS, GROUPS, TEAMS;
+
+		boolean matches(byte flags) {
+			switch (this) {
+			case INDIVIDUALS:
+				return (flags & FLAG_INDIVIDUAL) != 0;
+			case GROUPS:
+				return (flags & FLAG_INDIVIDUAL) == 0;
+			case TEAMS:
+				return (flags & FLAG_TEAM) != 0;
+			default:
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * The number of changed principals kept in the overlay before it is merged
+	 * into the arrays.
+	 */
+	public static final int MAX_OVERLAY_PRINCIPALS = 10_000;
+
+	static final Comparator<PrincipalPrefixEntry> ENTRY_ORDER = Comparator.comparing(PrincipalPrefixEntry::getToken)
+			.thenComparingLong(PrincipalPrefixEntry::getPrincipalId);
+
+	private static final byte FLAG_INDIVIDUAL = 1;
+	private static final byte FLAG_TEAM = 2;
+
+	private volatile State state;
+
+	/**
+	 * An empty index.
+	 */
+	public PrincipalPrefixIndex() {
+		this(new Builder().pack());
+	}
+
+	private PrincipalPrefixIndex(Packed base) {
+		this.state = new State(base, Collections.emptyMap());
+	}
+
+	/**
+	 * @return The number of tokens in the index.
+	 */
+	public int getTokenCount() {
+		return state.getTokenCount();
+	}
+
+	/**
+	 * Replace all the tokens of the given principals.
+	 *
+	 * @param entriesByPrincipal The new tokens of each principal, an empty list
+	 *                           removes the principal from the index.
+	 */
+	public synchronized void replacePrincipals(Map<Long, List<PrincipalPrefixEntry>> entriesByPrincipal) {
+		ValidateArgument.required(entriesByPrincipal, "entriesByPrincipal");
+		State current = state;
+		Map<Long, List<PrincipalPrefixEntry>> changed = new HashMap<>(current.changedEntries);
+		for (Map.Entry<Long, List<PrincipalPrefixEntry>> principal : entriesByPrincipal.entrySet()) {
+			List<PrincipalPrefixEntry> entries = new ArrayList<>(principal.getValue());
+			for (PrincipalPrefixEntry entry : entries) {
+				ValidateArgument.requirement(principal.getKey() == entry.getPrincipalId(),
+						"The entries of a principal must belong to the principal");
+			}
+			entries.sort(ENTRY_ORDER);
+			changed.put(principal.getKey(), entries);
+		}
+		if (changed.size() > MAX_OVERLAY_PRINCIPALS) {
+			state = new State(current.merge(changed), Collections.emptyMap());
+		} else {
+			state = new State(current.base, changed);
+		}
+	}
+
+	/**
+	 * List a single page of the principals of the given type that match the
+	 * given prefix.
+	 *
+	 * @param prefix
+	 * @param type
+	 * @param limit
+	 * @param offset
+	 * @return The IDs of the principals ordered by their first matching token.
+	 */
+	public List<Long> listPrincipalsForPrefix(String prefix, Type type, long limit, long offset) {
+		ValidateArgument.required(type, "type");
+		State current = state;
+		String processed = PrincipalPrefixDAOImpl.preProcessToken(prefix);
+		List<Long> results = new ArrayList<>();
+		if (limit < 1) {
+			return results;
+		}
+		Set<Long> found = new HashSet<>();
+		current.scan(processed, (principalId, flags) -> {
+			if (!type.matches(flags) || !found.add(principalId)) {
+				return true;
+			}
+			if (found.size() > offset) {
+				results.add(principalId);
+			}
+			return results.size() < limit;
+		});
+		return results;
+	}
+
+	/**
+	 * List a single page of the given principals that match the given prefix,
+	 * for example the members of a team.
+	 *
+	 * @param prefix
+	 * @param principalIds
+	 * @param limit
+	 * @param offset
+	 * @return The IDs of the principals ordered by their first matching token.
+	 */
+	public List<Long> listPrincipalsForPrefix(String prefix, Set<Long> principalIds, long limit, long offset) {
+		ValidateArgument.required(principalIds, "principalIds");
+		State current = state;
+		String processed = PrincipalPrefixDAOImpl.preProcessToken(prefix);
+		List<Long> results = new ArrayList<>();
+		if (limit < 1 || principalIds.isEmpty()) {
+			return results;
+		}
+		long maxMatchCount = current.getMaxMatchCount(processed);
+		// the tokens read before the page is found, when the principals are spread evenly
+		double expectedScanCount = Math.min(maxMatchCount,
+				((double) offset + limit) * maxMatchCount / principalIds.size());
+		if (principalIds.size() < expectedScanCount) {
+			// cheaper to look up the tokens of each principal
+			List<PrincipalPrefixEntry> matches = new ArrayList<>();
+			current.findFirstMatches(processed, principalIds, matches);
+			matches.sort(ENTRY_ORDER);
+			for (long i = offset; i < matches.size() && results.size() < limit; i++) {
+				results.add(matches.get((int) i).getPrincipalId());
+			}
+			return results;
+		}
+		Set<Long> found = new HashSet<>();
+		current.scan(processed, (principalId, flags) -> {
+			if (!principalIds.contains(principalId) || !found.add(principalId)) {
+				return true;
+			}
+			if (found.size() > offset) {
+				results.add(principalId);
+			}
+			return results.size() < limit;
+		});
+		return results;
+	}
+
+	/**
+	 * Count the given principals that match the given prefix, for example the
+	 * members of a team.
+	 *
+	 * @param prefix
+	 * @param principalIds
+	 * @return
+	 */
+	public long countPrincipalsForPrefix(String prefix, Set<Long> principalIds) {
+		ValidateArgument.required(principalIds, "principalIds");
+		State current = state;
+		String processed = PrincipalPrefixDAOImpl.preProcessToken(prefix);
+		if (principalIds.size() <= current.getMaxMatchCount(processed)) {
+			return current.findFirstMatches(processed, principalIds, null);
+		}
+		Set<Long> found = new HashSet<>();
+		current.scan(processed, (principalId, flags) -> {
+			if (principalIds.contains(principalId)) {
+				found.add(principalId);
+			}
+			return true;
+		});
+		return found.size();
+	}
+
+	private static byte getFlags(PrincipalPrefixEntry entry) {
+		return (byte) ((entry.isIndividual() ? FLAG_INDIVIDUAL : 0) | (entry.isTeam() ? FLAG_TEAM : 0));
+	}
+
+	/**
+	 * Called for each entry matching a prefix in order.
+	 */
+	private interface EntryVisitor {
+
+		/**
+		 * @return False to stop the scan.
+		 */
+		boolean visit(long principalId, byte flags);
+	}
+
+	/**
+	 * The immutable state of the index: the packed arrays and the overlay of the
+	 * principals that changed since the arrays were built.
+	 */
+	private static final class State {
+
+		final Packed base;
+		final Map<Long, List<PrincipalPrefixEntry>> changedEntries;
+		// The sorted IDs of the changed principals, their entries in the base are hidden
+		final long[] changedPrincipalIds;
+		final NavigableSet<PrincipalPrefixEntry> overlay;
+		final int hiddenCount;
+
+		State(Packed base, Map<Long, List<PrincipalPrefixEntry>> changedEntries) {
+			this.base = base;
+			this.changedEntries = changedEntries;
+			this.changedPrincipalIds = new long[changedEntries.size()];
+			this.overlay = new TreeSet<>(ENTRY_ORDER);
+			int index = 0;
+			int hidden = 0;
+			for (Map.Entry<Long, List<PrincipalPrefixEntry>> principal : changedEntries.entrySet()) {
+				changedPrincipalIds[index++] = principal.getKey();
+				overlay.addAll(principal.getValue());
+				hidden += base.getEntryCount(principal.getKey());
+			}
+			Arrays.sort(changedPrincipalIds);
+			this.hiddenCount = hidden;
+		}
+
+		int getTokenCount() {
+			return base.size - hiddenCount + overlay.size();
+		}
+
+		boolean isChanged(long principalId) {
+			return changedPrincipalIds.length > 0 && Arrays.binarySearch(changedPrincipalIds, principalId) >= 0;
+		}
+
+		/**
+		 * @return An upper bound of the number of entries that match the prefix.
+		 */
+		long getMaxMatchCount(String prefix) {
+			byte[] prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+			return (long) base.upperBound(prefixBytes) - base.lowerBound(prefixBytes) + overlay.size();
+		}
+
+		/**
+		 * Visit the entries that match the prefix in order of token then principal
+		 * ID.
+		 */
+		void scan(String prefix, EntryVisitor visitor) {
+			byte[] prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+			int index = base.lowerBound(prefixBytes);
+			int end = base.upperBound(prefixBytes);
+			Iterator<PrincipalPrefixEntry> overlayIterator = overlay
+					.tailSet(new PrincipalPrefixEntry(prefix, Long.MIN_VALUE, false, false), true).iterator();
+			PrincipalPrefixEntry next = nextMatch(overlayIterator, prefix);
+			while (true) {
+				while (index < end && isChanged(base.principalIds[index])) {
+					index++;
+				}
+				if (index >= end && next == null) {
+					return;
+				}
+				if (next == null || (index < end && base.compare(index, next) < 0)) {
+					if (!visitor.visit(base.principalIds[index], base.flags[index])) {
+						return;
+					}
+					index++;
+				} else {
+					if (!visitor.visit(next.getPrincipalId(), getFlags(next))) {
+						return;
+					}
+					next = nextMatch(overlayIterator, prefix);
+				}
+			}
+		}
+
+		private static PrincipalPrefixEntry nextMatch(Iterator<PrincipalPrefixEntry> iterator, String prefix) {
+			if (iterator.hasNext()) {
+				PrincipalPrefixEntry entry = iterator.next();
+				if (entry.getToken().startsWith(prefix)) {
+					return entry;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Find the first entry matching the prefix of each of the given principals.
+		 *
+		 * @param matches When not null, the first matches are added to this list.
+		 * @return The number of principals with a match.
+		 */
+		int findFirstMatches(String prefix, Set<Long> principalIds, List<PrincipalPrefixEntry> matches) {
+			byte[] prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+			// looked up in order, so each search starts where the previous one ended
+			long[] sortedIds = new long[principalIds.size()];
+			int count = 0;
+			for (Long principalId : principalIds) {
+				sortedIds[count++] = principalId;
+			}
+			Arrays.sort(sortedIds);
+			int matchCount = 0;
+			int position = 0;
+			for (long principalId : sortedIds) {
+				List<PrincipalPrefixEntry> changed = changedEntries.isEmpty() ? null : changedEntries.get(principalId);
+				if (changed != null) {
+					for (PrincipalPrefixEntry entry : changed) {
+						if (entry.getToken().startsWith(prefix)) {
+							matchCount++;
+							if (matches != null) {
+								matches.add(entry);
+							}
+							break;
+						}
+					}
+				} else {
+					int principal = base.findPrincipal(principalId, position);
+					if (principal < 0) {
+						position = -(principal + 1);
+						continue;
+					}
+					position = principal;
+					int index = base.getFirstMatch(principal, prefixBytes);
+					if (index >= 0) {
+						matchCount++;
+						if (matches != null) {
+							matches.add(base.getEntry(index));
+						}
+					}
+				}
+			}
+			return matchCount;
+		}
+
+		/**
+		 * Merge the given changes into new packed arrays.
+		 */
+		Packed merge(Map<Long, List<PrincipalPrefixEntry>> changes) {
+			State changed = new State(base, changes);
+			Builder builder = new Builder();
+			Iterator<PrincipalPrefixEntry> overlayIterator = changed.overlay.iterator();
+			PrincipalPrefixEntry next = overlayIterator.hasNext() ? overlayIterator.next() : null;
+			for (int index = 0; index < base.size; index++) {
+				if (changed.isChanged(base.principalIds[index])) {
+					continue;
+				}
+				while (next != null && base.compare(index, next) > 0) {
+					builder.add(next);
+					next = overlayIterator.hasNext() ? overlayIterator.next() : null;
+				}
+				builder.add(base.getToken(index), base.principalIds[index], base.flags[index]);
+			}
+			while (next != null) {
+				builder.add(next);
+				next = overlayIterator.hasNext() ? overlayIterator.next() : null;
+			}
+			return builder.pack();
+		}
+	}
+
+	/**
+	 * Entries sorted by token then principal ID in parallel arrays, with the
+	 * tokens packed in a single array of ASCII characters.
+	 */
+	private static final class Packed {
+
+		final int size;
+		final byte[] chars;
+		// The start of each token in the chars, followed by the end of the last token
+		final int[] tokenStarts;
+		final long[] principalIds;
+		final byte[] flags;
+		// The sorted distinct principal IDs, with the indices of the entries of each principal
+		final long[] sortedPrincipalIds;
+		final int[] principalEntryStarts;
+		final int[] principalEntries;
+
+		Packed(int size, byte[] chars, int[] tokenStarts, long[] principalIds, byte[] flags) {
+			this.size = size;
+			this.chars = chars;
+			this.tokenStarts = tokenStarts;
+			this.principalIds = principalIds;
+			this.flags = flags;
+			long[] sorted = Arrays.copyOf(principalIds, size);
+			Arrays.sort(sorted);
+			int distinct = 0;
+			for (int i = 0; i < size; i++) {
+				if (i == 0 || sorted[i] != sorted[i - 1]) {
+					sorted[distinct++] = sorted[i];
+				}
+			}
+			this.sortedPrincipalIds = Arrays.copyOf(sorted, distinct);
+			int[] principalIndices = new int[size];
+			this.principalEntryStarts = new int[distinct + 1];
+			for (int i = 0; i < size; i++) {
+				principalIndices[i] = Arrays.binarySearch(sortedPrincipalIds, principalIds[i]);
+				principalEntryStarts[principalIndices[i] + 1]++;
+			}
+			for (int p = 0; p < distinct; p++) {
+				principalEntryStarts[p + 1] += principalEntryStarts[p];
+			}
+			int[] next = Arrays.copyOf(principalEntryStarts, distinct);
+			this.principalEntries = new int[size];
+			// the entries of each principal stay in order of token
+			for (int i = 0; i < size; i++) {
+				principalEntries[next[principalIndices[i]]++] = i;
+			}
+		}
+
+		String getToken(int index) {
+			return new String(chars, tokenStarts[index], tokenStarts[index + 1] - tokenStarts[index],
+					StandardCharsets.US_ASCII);
+		}
+
+		/**
+		 * @return Less than zero if the token at the index sorts before the tokens
+		 *         starting with the prefix, zero if it starts with the prefix, more
+		 *         than zero if it sorts after them.
+		 */
+		int compareToPrefix(int index, byte[] prefix) {
+			int start = tokenStarts[index];
+			int length = tokenStarts[index + 1] - start;
+			int common = Math.min(length, prefix.length);
+			for (int i = 0; i < common; i++) {
+				int compare = Byte.compare(chars[start + i], prefix[i]);
+				if (compare != 0) {
+					return compare;
+				}
+			}
+			return length < prefix.length ? -1 : 0;
+		}
+
+		/**
+		 * Compare the entry at the index to the given entry, by token then principal
+		 * ID.
+		 */
+		int compare(int index, PrincipalPrefixEntry entry) {
+			int start = tokenStarts[index];
+			int length = tokenStarts[index + 1] - start;
+			String token = entry.getToken();
+			int common = Math.min(length, token.length());
+			for (int i = 0; i < common; i++) {
+				int compare = Character.compare((char) chars[start + i], token.charAt(i));
+				if (compare != 0) {
+					return compare;
+				}
+			}
+			if (length != token.length()) {
+				return Integer.compare(length, token.length());
+			}
+			return Long.compare(principalIds[index], entry.getPrincipalId());
+		}
+
+		/**
+		 * @return The index of the first entry starting with the prefix, or of the
+		 *         first entry after them if there is none.
+		 */
+		int lowerBound(byte[] prefix) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (compareToPrefix(middle, prefix) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return The index of the first entry after the entries starting with the
+		 *         prefix.
+		 */
+		int upperBound(byte[] prefix) {
+			int low = 0;
+			int high = size;
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (compareToPrefix(middle, prefix) <= 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		int getEntryCount(long principalId) {
+			int principal = Arrays.binarySearch(sortedPrincipalIds, principalId);
+			return principal < 0 ? 0 : principalEntryStarts[principal + 1] - principalEntryStarts[principal];
+		}
+
+		/**
+		 * Find a principal at or after the given position of the sorted principal
+		 * IDs, searching close to the position first.
+		 *
+		 * @return Like {@link Arrays#binarySearch(long[], long)}.
+		 */
+		int findPrincipal(long principalId, int from) {
+			int bound = 1;
+			while (from + bound < sortedPrincipalIds.length && sortedPrincipalIds[from + bound] < principalId) {
+				bound <<= 1;
+			}
+			return Arrays.binarySearch(sortedPrincipalIds, from, Math.min(from + bound + 1, sortedPrincipalIds.length),
+					principalId);
+		}
+
+		/**
+		 * @return The index of the first entry of the principal at the given position
+		 *         of the sorted principal IDs that matches the prefix, -1 if none
+		 *         matches.
+		 */
+		int getFirstMatch(int principal, byte[] prefix) {
+			for (int i = principalEntryStarts[principal]; i < principalEntryStarts[principal + 1]; i++) {
+				int index = principalEntries[i];
+				if (compareToPrefix(index, prefix) == 0) {
+					return index;
+				}
+			}
+			return -1;
+		}
+
+		PrincipalPrefixEntry getEntry(int index) {
+			return new PrincipalPrefixEntry(getToken(index), principalIds[index], (flags[index] & FLAG_INDIVIDUAL) != 0,
+					(flags[index] & FLAG_TEAM) != 0);
+		}
+	}
+
+	/**
+	 * Builds an index from entries added in order of token then principal ID,
+	 * for example the pages of {@link PrincipalPrefixDAO#listEntries(PrincipalPrefixEntry, long)}.
+	 */
+	public static class Builder {
+
+		private byte[] chars = new byte[1024];
+		private int charCount = 0;
+		private int[] tokenStarts = new int[65];
+		private long[] principalIds = new long[64];
+		private byte[] flags = new byte[64];
+		private int size = 0;
+		private String lastToken = null;
+		private long lastPrincipalId;
+
+		/**
+		 * Add the next entry of the index.
+		 *
+		 * @param entry
+		 * @return
+		 * @throws IllegalArgumentException If the entry is not after the previous
+		 *                                  entry or its token is not pre-processed.
+		 */
+		public Builder add(PrincipalPrefixEntry entry) {
+			ValidateArgument.required(entry, "entry");
+			add(entry.getToken(), entry.getPrincipalId(), getFlags(entry));
+			return this;
+		}
+
+		private void add(String token, long principalId, byte entryFlags) {
+			ValidateArgument.required(token, "token");
+			if (lastToken != null) {
+				int compare = lastToken.compareTo(token);
+				if (compare > 0 || (compare == 0 && lastPrincipalId >= principalId)) {
+					throw new IllegalArgumentException("Entries must be added in order of token then principal ID: "
+							+ token + " " + principalId + " was added after " + lastToken + " " + lastPrincipalId);
+				}
+			}
+			if (size == principalIds.length) {
+				principalIds = Arrays.copyOf(principalIds, size * 2);
+				flags = Arrays.copyOf(flags, size * 2);
+				tokenStarts = Arrays.copyOf(tokenStarts, size * 2 + 1);
+			}
+			if (charCount + token.length() > chars.length) {
+				chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + token.length()));
+			}
+			for (int i = 0; i < token.length(); i++) {
+				char c = token.charAt(i);
+				if (c > 127) {
+					throw new IllegalArgumentException("The token is not pre-processed: " + token);
+				}
+				chars[charCount++] = (byte) c;
+			}
+			principalIds[size] = principalId;
+			flags[size] = entryFlags;
+			size++;
+			tokenStarts[size] = charCount;
+			lastToken = token;
+			lastPrincipalId = principalId;
+		}
+
+		private Packed pack() {
+			return new Packed(size, Arrays.copyOf(chars, charCount), Arrays.copyOf(tokenStarts, size + 1),
+					Arrays.copyOf(principalIds, size), Arrays.copyOf(flags, size));
+		}
+
+		public PrincipalPrefixIndex build() {
+			return new PrincipalPrefixIndex(pack());
+		}
+	}
+}
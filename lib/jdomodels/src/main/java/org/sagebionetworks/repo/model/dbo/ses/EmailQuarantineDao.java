@@ -1,6 +1,8 @@
 package org.sagebionetworks.repo.model.dbo.ses;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sagebionetworks.repo.model.ses.QuarantinedEmail;
 import org.sagebionetworks.repo.model.ses.QuarantinedEmailBatch;
@@ -53,6 +55,15 @@ public interface EmailQuarantineDao {
 	 * @return True if the email is currently quarantined and the quarantine is not expired
 	 */
 	boolean isQuarantined(String email);
+	
+	/**
+	 * Filters the given email addresses to the ones that are currently quarantined, if the email is in quarantine but the
+	 * quarantine is expired it is not included
+	 * 
+	 * @param emails The emails to lookup
+	 * @return The subset of the given emails that are currently quarantined and whose quarantine is not expired
+	 */
+	Set<String> getQuarantinedEmails(Collection<String> emails);
 
 	/**
 	 * Clear the quarantine
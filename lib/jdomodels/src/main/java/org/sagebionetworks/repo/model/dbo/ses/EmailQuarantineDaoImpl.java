@@ -16,7 +16,15 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.sagebionetworks.ids.IdGenerator;
 import org.sagebionetworks.ids.IdType;
@@ -30,10 +38,17 @@ import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.collect.Lists;
+
 @Repository
 public class EmailQuarantineDaoImpl implements EmailQuarantineDao {
+	
+	// The maximum number of emails looked up in a single query
+	private static final int MAX_EMAILS_PER_QUERY = 1000;
 
 	private static final RowMapper<DBOQuarantinedEmail> DBO_MAPPER = new DBOQuarantinedEmail().getTableMapping();
 	
@@ -76,12 +91,15 @@ public class EmailQuarantineDaoImpl implements EmailQuarantineDao {
 	// @formatter:on
 
 	private JdbcTemplate jdbcTemplate;
+	
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
 
 	private IdGenerator idGenerator;
 
 	@Autowired
 	public EmailQuarantineDaoImpl(JdbcTemplate jdbcTemplate, IdGenerator idGenerator) {
 		this.jdbcTemplate = jdbcTemplate;
+		this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
 		this.idGenerator = idGenerator;
 	}
 
@@ -176,6 +194,38 @@ public class EmailQuarantineDaoImpl implements EmailQuarantineDao {
 		return jdbcTemplate.queryForObject(sql, Long.class, email, Timestamp.from(Instant.now())) > 0;
 	}
 
+	@Override
+	public Set<String> getQuarantinedEmails(Collection<String> emails) {
+		ValidateArgument.required(emails, "The emails");
+		
+		if (emails.isEmpty()) {
+			return Collections.emptySet();
+		}
+		
+		// The emails are stored trimmed and lower case
+		Map<String, List<String>> normalizedToInput = new HashMap<>(emails.size());
+		
+		for (String email : emails) {
+			validateInputEmail(email);
+			normalizedToInput.computeIfAbsent(email.trim().toLowerCase(), (k) -> new ArrayList<>()).add(email);
+		}
+
+		String sql = "SELECT " + COL_QUARANTINED_EMAILS_EMAIL + " FROM " + TABLE_QUARANTINED_EMAILS + " WHERE " + COL_QUARANTINED_EMAILS_EMAIL + " IN (:emails) AND ("
+				+ COL_QUARANTINED_EMAILS_EXPIRES_ON + " IS NULL OR " + COL_QUARANTINED_EMAILS_EXPIRES_ON + " > :now)";
+		
+		Timestamp now = Timestamp.from(Instant.now());
+		Set<String> result = new HashSet<>();
+		
+		for (List<String> batch : Lists.partition(new ArrayList<>(normalizedToInput.keySet()), MAX_EMAILS_PER_QUERY)) {
+			MapSqlParameterSource params = new MapSqlParameterSource("emails", batch).addValue("now", now);
+			namedJdbcTemplate.queryForList(sql, params, String.class).forEach((quarantined) -> {
+				result.addAll(normalizedToInput.getOrDefault(quarantined.trim().toLowerCase(), Collections.emptyList()));
+			});
+		}
+		
+		return result;
+	}
+
 	@Override
 	public void clearAll() {
 		String sql = "DELETE FROM " + TABLE_QUARANTINED_EMAILS;
@@ -109,6 +109,9 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 	@Autowired
 	private FileHandleDao fileMetadataDao;	
 
+	@Autowired
+	private WikiMarkdownCache markdownCache;
+
 	/**
 	 * Used to detect if a wiki object already exists.
 	 */
@@ -521,13 +524,21 @@ public class V2DBOWikiPageDaoImpl implements V2WikiPageDao {
 	@Override
 	public String getMarkdown(WikiPageKey key, Long version) throws IOException, NotFoundException {
 		V2WikiPage wiki = get(key, version);
-		S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(wiki.getMarkdownFileHandleId());
+		String markdownFileHandleId = wiki.getMarkdownFileHandleId();
+		// The markdown of a file handle never changes so it can be served from the cache.
+		String markdown = markdownCache.get(markdownFileHandleId);
+		if (markdown != null) {
+			return markdown;
+		}
+		S3FileHandle markdownHandle = (S3FileHandle) fileMetadataDao.get(markdownFileHandleId);
 		S3Object s3Object = s3Client.getObject(markdownHandle.getBucketName(), markdownHandle.getKey());
 		String contentType = s3Object.getObjectMetadata().getContentType();
 		Charset charset = ContentTypeUtil.getCharsetFromContentTypeString(contentType);
 		try (InputStream in = s3Object.getObjectContent()) {
-			return FileUtils.readStreamAsString(in, charset, /*gunzip*/true);
+			markdown = FileUtils.readStreamAsString(in, charset, /*gunzip*/true);
 		}
+		markdownCache.put(markdownFileHandleId, markdown);
+		return markdown;
 	}
 	
 	@Override
@@ -0,0 +1,160 @@
+package org.sagebionetworks.repo.model.dbo.wikiV2;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A bounded, in-memory cache of wiki markdown keyed by the ID of the markdown
+ * file handle. A file handle is never modified once created, and each new
+ * version of a wiki page gets a new markdown file handle, so entries never need
+ * to be invalidated.
+ * <p>
+ * The cache is bounded by the approximate number of bytes of markdown it holds
+ * rather than by the number of entries. When the limit is exceeded the least
+ * recently used entries are evicted. A single markdown that is larger than a
+ * quarter of the cache is never cached so that one large page cannot flush all
+ * of the hot pages.
+ *
+ */
+public class WikiMarkdownCache {
+
+	/**
+	 * Java strings use two bytes per character.
+	 */
+	static final long BYTES_PER_CHAR = 2L;
+	static final long MAX_ENTRY_FRACTION = 4L;
+
+	private final long maxBytes;
+	private final long maxEntryBytes;
+	private final LinkedHashMap<String, String> markdownByFileHandleId;
+	private long currentBytes;
+
+	private final AtomicLong hitCount;
+	private final AtomicLong missCount;
+	private final AtomicLong evictionCount;
+
+	/**
+	 *
+	 * @param maxBytes The maximum number of bytes of markdown to hold. Zero
+	 *                 disables the cache.
+	 */
+	public WikiMarkdownCache(long maxBytes) {
+		ValidateArgument.requirement(maxBytes >= 0L, "maxBytes cannot be negative");
+		this.maxBytes = maxBytes;
+		this.maxEntryBytes = maxBytes / MAX_ENTRY_FRACTION;
+		// access order so iteration starts with the least recently used entry.
+		this.markdownByFileHandleId = new LinkedHashMap<>(16, 0.75f, true);
+		this.currentBytes = 0L;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+		this.evictionCount = new AtomicLong();
+	}
+
+	/**
+	 * Get the cached markdown for the given file handle.
+	 *
+	 * @param fileHandleId
+	 * @return The markdown or null if it is not in the cache.
+	 */
+	public String get(String fileHandleId) {
+		ValidateArgument.required(fileHandleId, "fileHandleId");
+		String markdown;
+		synchronized (this) {
+			markdown = markdownByFileHandleId.get(fileHandleId);
+		}
+		if (markdown == null) {
+			missCount.incrementAndGet();
+		} else {
+			hitCount.incrementAndGet();
+		}
+		return markdown;
+	}
+
+	/**
+	 * Add the markdown of the given file handle to the cache, evicting the least
+	 * recently used entries as needed.
+	 *
+	 * @param fileHandleId
+	 * @param markdown
+	 */
+	public void put(String fileHandleId, String markdown) {
+		ValidateArgument.required(fileHandleId, "fileHandleId");
+		ValidateArgument.required(markdown, "markdown");
+		long size = estimateSize(markdown);
+		if (size > maxEntryBytes) {
+			return;
+		}
+		synchronized (this) {
+			String previous = markdownByFileHandleId.put(fileHandleId, markdown);
+			if (previous != null) {
+				currentBytes -= estimateSize(previous);
+			}
+			currentBytes += size;
+			Iterator<Map.Entry<String, String>> it = markdownByFileHandleId.entrySet().iterator();
+			while (currentBytes > maxBytes && it.hasNext()) {
+				Map.Entry<String, String> eldest = it.next();
+				currentBytes -= estimateSize(eldest.getValue());
+				it.remove();
+				evictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	public synchronized void clear() {
+		markdownByFileHandleId.clear();
+		currentBytes = 0L;
+	}
+
+	/**
+	 * @return The approximate number of bytes of markdown currently held.
+	 */
+	public synchronized long getCurrentBytes() {
+		return currentBytes;
+	}
+
+	/**
+	 * @return The number of entries currently held.
+	 */
+	public synchronized int getSize() {
+		return markdownByFileHandleId.size();
+	}
+
+	/**
+	 * @return The number of lookups that found the markdown in the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return The number of lookups that did not find the markdown in the cache.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return The number of entries evicted to stay within the size limit.
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return The maximum number of bytes of markdown this cache will hold.
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	static long estimateSize(String markdown) {
+		return markdown.length() * BYTES_PER_CHAR;
+	}
+}
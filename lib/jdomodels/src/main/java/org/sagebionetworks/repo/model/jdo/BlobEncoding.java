@@ -0,0 +1,153 @@
+package org.sagebionetworks.repo.model.jdo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
+
+/**
+ * The encodings used to serialize objects into database blobs.
+ * <p>
+ * The encoding of a blob is identified by its first byte. Blobs written before
+ * the binary encoding existed are gzip streams which always start with
+ * {@link #GZIP_MAGIC}, so both encodings can be read from the same column
+ * without a migration.
+ *
+ */
+public enum BlobEncoding {
+
+	/**
+	 * The original encoding: XStream XML compressed with gzip.
+	 */
+	XML_GZIP {
+
+		@Override
+		byte[] encode(UnmodifiableXStream xStream, Object dto) throws IOException {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			GZIPOutputStream zipper = new GZIPOutputStream(out);
+			try (Writer zipWriter = new OutputStreamWriter(zipper, JDOSecondaryPropertyUtils.UTF8);) {
+				xStream.toXML(dto, zipWriter);
+			}
+			return out.toByteArray();
+		}
+
+		@Override
+		Object decode(UnmodifiableXStream xStream, byte[] bytes) throws IOException {
+			try (GZIPInputStream unZipper = new GZIPInputStream(new ByteArrayInputStream(bytes));) {
+				return xStream.fromXML(unZipper);
+			}
+		}
+	},
+
+	/**
+	 * XStream's binary token format, with the same aliases and allowed types as
+	 * the XML. Small objects are written as is since compressing them costs more
+	 * than it saves, larger objects are deflated.
+	 */
+	BINARY {
+
+		@Override
+		byte[] encode(UnmodifiableXStream xStream, Object dto) throws IOException {
+			ByteArrayOutputStream tokens = new ByteArrayOutputStream();
+			xStream.toBinary(dto, tokens);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(tokens.size(), DEFLATE_THRESHOLD_BYTES) + 1);
+			if (tokens.size() < DEFLATE_THRESHOLD_BYTES) {
+				out.write(BINARY_HEADER);
+				tokens.writeTo(out);
+				return out.toByteArray();
+			}
+			out.write(DEFLATED_BINARY_HEADER);
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater)) {
+				tokens.writeTo(deflaterOut);
+			} finally {
+				deflater.end();
+			}
+			return out.toByteArray();
+		}
+
+		@Override
+		Object decode(UnmodifiableXStream xStream, byte[] bytes) throws IOException {
+			InputStream tokens = new ByteArrayInputStream(bytes, 1, bytes.length - 1);
+			if (bytes[0] == BINARY_HEADER) {
+				return xStream.fromBinary(tokens);
+			}
+			Inflater inflater = new Inflater();
+			try (InflaterInputStream inflaterIn = new InflaterInputStream(tokens, inflater)) {
+				return xStream.fromBinary(inflaterIn);
+			} finally {
+				inflater.end();
+			}
+		}
+	};
+
+	/**
+	 * The first byte of every gzip stream.
+	 */
+	static final byte GZIP_MAGIC = (byte) 0x1f;
+	/**
+	 * The first byte of a blob holding uncompressed binary tokens.
+	 */
+	static final byte BINARY_HEADER = 1;
+	/**
+	 * The first byte of a blob holding deflated binary tokens.
+	 */
+	static final byte DEFLATED_BINARY_HEADER = 2;
+	/**
+	 * Binary tokens smaller than this are not compressed.
+	 */
+	static final int DEFLATE_THRESHOLD_BYTES = 1024;
+
+	/**
+	 * Serialize the given object.
+	 *
+	 * @param xStream An UnmodifiableXStream that has been set up to handle the
+	 *                object type
+	 * @param dto
+	 * @return
+	 * @throws IOException
+	 */
+	abstract byte[] encode(UnmodifiableXStream xStream, Object dto) throws IOException;
+
+	/**
+	 * Deserialize an object written with this encoding.
+	 *
+	 * @param xStream
+	 * @param bytes
+	 * @return
+	 * @throws IOException
+	 */
+	abstract Object decode(UnmodifiableXStream xStream, byte[] bytes) throws IOException;
+
+	/**
+	 * Determine the encoding of the given blob from its header byte.
+	 *
+	 * @param bytes
+	 * @return
+	 * @throws IOException If the header does not match any known encoding.
+	 */
+	public static BlobEncoding of(byte[] bytes) throws IOException {
+		if (bytes.length == 0) {
+			throw new IOException("Cannot decode an empty blob");
+		}
+		switch (bytes[0]) {
+		case GZIP_MAGIC:
+			return XML_GZIP;
+		case BINARY_HEADER:
+		case DEFLATED_BINARY_HEADER:
+			return BINARY;
+		default:
+			throw new IOException("Unknown blob encoding header: " + bytes[0]);
+		}
+	}
+}
@@ -1,21 +1,14 @@
 package org.sagebionetworks.repo.model.jdo;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
+import org.sagebionetworks.StackConfigurationSingleton;
 import org.sagebionetworks.repo.model.UnmodifiableXStream;
 
 /**
  * Helper utilities for converting between JDOAnnotations and Annotations (DTO).
- * 
+ *
  * @author jmhill
  *
  */
@@ -24,26 +17,44 @@ public class JDOSecondaryPropertyUtils {
 	public static final Charset UTF8 = Charset.forName("UTF-8");
 
 	/**
-	 * Compresses the dto into compressed XML bytes using the provided customXStream
+	 * The encoding used for new blobs is read from the stack configuration the
+	 * first time it is needed.
+	 */
+	private static class WriteEncodingHolder {
+		static final BlobEncoding WRITE_ENCODING = StackConfigurationSingleton.singleton()
+				.getDatabaseObjectBinaryBlobEncodingEnabled() ? BlobEncoding.BINARY : BlobEncoding.XML_GZIP;
+	}
+
+	/**
+	 * Serializes the dto into bytes using the provided customXStream and the
+	 * configured blob encoding.
 	 * @param customXStream a UnmodifiableXStream that has been set up to handle the object type
 	 * @param dto the object to be serialized and compressed
-	 * @return byte[] of compressed XML representing the dto object.
+	 * @return byte[] representing the dto object.
 	 * @throws IOException
 	 */
 	public static byte[] compressObject(UnmodifiableXStream customXStream, Object dto) throws IOException {
+		return compressObject(customXStream, dto, WriteEncodingHolder.WRITE_ENCODING);
+	}
+
+	/**
+	 * Serializes the dto into bytes using the provided customXStream and encoding.
+	 * @param customXStream a UnmodifiableXStream that has been set up to handle the object type
+	 * @param dto the object to be serialized and compressed
+	 * @param encoding
+	 * @return byte[] representing the dto object.
+	 * @throws IOException
+	 */
+	public static byte[] compressObject(UnmodifiableXStream customXStream, Object dto, BlobEncoding encoding) throws IOException {
 		if(dto == null) return null;
-		ByteArrayOutputStream out = new ByteArrayOutputStream();
-		GZIPOutputStream zipper = new GZIPOutputStream(out);
-		try(Writer zipWriter = new OutputStreamWriter(zipper, UTF8);){
-			customXStream.toXML(dto, zipWriter);
-		}
-		return out.toByteArray();
+		return encoding.encode(customXStream, dto);
 	}
 
 	/**
-	 * Decompress and deserialize compressed XML bytes into an object using the provided customXStream
+	 * Deserialize bytes into an object using the provided customXStream. The
+	 * bytes can be in any {@link BlobEncoding}.
 	 * @param customXStream a UnmodifiableXStream that has been set up to handle the object type
-	 * @param zippedBytes byte[] of compressed XML representing the dto object.
+	 * @param zippedBytes byte[] representing the dto object.
 	 * @return the object that the bytes represented
 	 * @throws IOException
 	 */
@@ -51,11 +62,33 @@ public class JDOSecondaryPropertyUtils {
 		if(zippedBytes == null){
 			return null;
 		}
+		return BlobEncoding.of(zippedBytes).decode(customXStream, zippedBytes);
+	}
+
+	/**
+	 * Rewrite the given bytes with the configured blob encoding. Used to upgrade
+	 * old blobs as they are restored during migration.
+	 * @param customXStream a UnmodifiableXStream that has been set up to handle the object type
+	 * @param bytes
+	 * @return The given bytes if they already use the configured encoding.
+	 * @throws IOException
+	 */
+	public static byte[] reencodeObject(UnmodifiableXStream customXStream, byte[] bytes) throws IOException {
+		return reencodeObject(customXStream, bytes, WriteEncodingHolder.WRITE_ENCODING);
+	}
 
-		ByteArrayInputStream in = new ByteArrayInputStream(zippedBytes);
-		GZIPInputStream unZipper = new GZIPInputStream(in);
-		try(Reader reader = new InputStreamReader(unZipper, UTF8);){
-			return customXStream.fromXML(unZipper);
+	/**
+	 * Rewrite the given bytes with the given blob encoding.
+	 * @param customXStream a UnmodifiableXStream that has been set up to handle the object type
+	 * @param bytes
+	 * @param encoding
+	 * @return The given bytes if they already use the given encoding.
+	 * @throws IOException
+	 */
+	public static byte[] reencodeObject(UnmodifiableXStream customXStream, byte[] bytes, BlobEncoding encoding) throws IOException {
+		if (bytes == null || BlobEncoding.of(bytes) == encoding) {
+			return bytes;
 		}
+		return compressObject(customXStream, decompressObject(customXStream, bytes), encoding);
 	}
 }
@@ -50,6 +50,21 @@ public class SqlConstants {
 	public static final String COL_REVISION_DEFINING_SQL	= "DEFINING_SQL";
 	public static final String DDL_FILE_REVISION			="schema/Revision-ddl.sql";
 	
+	// The node ancestor (closure) table
+	public static final String TABLE_NODE_ANCESTOR				= "NODE_ANCESTOR";
+	public static final String COL_NODE_ANCESTOR_NODE_ID		= "NODE_ID";
+	public static final String COL_NODE_ANCESTOR_ANCESTOR_ID	= "ANCESTOR_ID";
+	public static final String COL_NODE_ANCESTOR_DISTANCE		= "DISTANCE";
+	public static final String DDL_FILE_NODE_ANCESTOR			="schema/NodeAncestor-ddl.sql";
+	
+	// The number and total file size of the children of each node by type
+	public static final String TABLE_NODE_CHILD_STATS				= "NODE_CHILD_STATS";
+	public static final String COL_NODE_CHILD_STATS_PARENT_ID		= "PARENT_ID";
+	public static final String COL_NODE_CHILD_STATS_NODE_TYPE		= "NODE_TYPE";
+	public static final String COL_NODE_CHILD_STATS_CHILD_COUNT		= "CHILD_COUNT";
+	public static final String COL_NODE_CHILD_STATS_SUM_FILE_SIZES	= "SUM_FILE_SIZES";
+	public static final String DDL_FILE_NODE_CHILD_STATS			="schema/NodeChildStats-ddl.sql";
+	
 	public static final String TABLE_STACK_STATUS		= "STACK_STATUS";
 	
 	
@@ -1222,6 +1237,14 @@ public class SqlConstants {
 	public static final String COL_FILES_SCANNER_STATUS_SCANNED_ASSOCIATIONS_COUNT = 	"SCANNED_ASSOCIATIONS_COUNT";
 	public static final String COL_FILES_SCANNER_STATUS_RELINKED_FILES_COUNT =		 	"RELINKED_FILES_COUNT";
 	
+	// The status of the backfill of derived tables
+	public static final String DDL_BACKFILL_STATUS = 									"schema/BackfillStatus-ddl.sql";
+	public static final String TABLE_BACKFILL_STATUS = 									"BACKFILL_STATUS";
+	public static final String COL_BACKFILL_STATUS_TYPE = 								"BACKFILL_TYPE";
+	public static final String COL_BACKFILL_STATUS_ETAG = 								"ETAG";
+	public static final String COL_BACKFILL_STATUS_COMPLETE = 							"COMPLETE";
+	public static final String COL_BACKFILL_STATUS_CHANGED_ON = 						"CHANGED_ON";
+	
 	// The materialized view source tables
 	public static final String DDL_MV_ID = 												"schema/MaterializedViewId-ddl.sql";
 	public static final String TABLE_MV_ID = 											"MATERIALIZED_VIEW_ID";
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS `BACKFILL_STATUS` (
+  `BACKFILL_TYPE` VARCHAR(50) NOT NULL,
+  `ETAG` CHAR(36) NOT NULL,
+  `COMPLETE` BOOLEAN NOT NULL,
+  `CHANGED_ON` TIMESTAMP(3) NOT NULL,
+  PRIMARY KEY (`BACKFILL_TYPE`)
+)
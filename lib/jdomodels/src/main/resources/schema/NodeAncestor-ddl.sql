@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `NODE_ANCESTOR` (
+  `NODE_ID` BIGINT NOT NULL,
+  `ANCESTOR_ID` BIGINT NOT NULL,
+  `DISTANCE` INT NOT NULL,
+  PRIMARY KEY (`NODE_ID`, `ANCESTOR_ID`),
+  INDEX `NODE_ANCESTOR_ANCESTOR_DISTANCE` (`ANCESTOR_ID`, `DISTANCE`),
+  CONSTRAINT `NODE_ANCESTOR_NODE_ID_FK` FOREIGN KEY (`NODE_ID`) REFERENCES `NODE` (`ID`) ON DELETE CASCADE,
+  CONSTRAINT `NODE_ANCESTOR_ANCESTOR_ID_FK` FOREIGN KEY (`ANCESTOR_ID`) REFERENCES `NODE` (`ID`) ON DELETE CASCADE
+)
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS `NODE_CHILD_STATS` (
+  `PARENT_ID` BIGINT NOT NULL,
+  `NODE_TYPE` ENUM('project', 'folder', 'link','file','table','entityview','dockerrepo','submissionview', 'dataset', 'datasetcollection', 'materializedview') NOT NULL,
+  `CHILD_COUNT` BIGINT NOT NULL,
+  `SUM_FILE_SIZES` BIGINT NOT NULL,
+  PRIMARY KEY (`PARENT_ID`, `NODE_TYPE`),
+  CONSTRAINT `NODE_CHILD_STATS_PARENT_ID_FK` FOREIGN KEY (`PARENT_ID`) REFERENCES `NODE` (`ID`) ON DELETE CASCADE
+)
@@ -0,0 +1,5 @@
+SELECT DISTINCT A.NODE_ID FROM NODE_ANCESTOR A
+	JOIN NODE N ON (A.NODE_ID = N.ID AND N.NODE_TYPE IN ('project','folder'))
+	WHERE A.ANCESTOR_ID IN (:ids_param)
+	AND EXISTS (SELECT 1 FROM NODE J WHERE J.PARENT_ID = A.NODE_ID)
+LIMIT :bLimit
\ No newline at end of file
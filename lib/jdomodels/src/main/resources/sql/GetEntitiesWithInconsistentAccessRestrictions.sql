@@ -0,0 +1,32 @@
+/**
+ * Checks that the access restrictions found through the NODE_ANCESTOR table match the restrictions found by walking the
+ * hierarchy of each entity with PARENT_ID.
+ * The table REC walks the hierarchy of each entity in the batch, gathering the restrictions at each level.
+ * The table RE holds each distinct restriction found by the walk and the table FE holds each distinct restriction found
+ * with the NODE_ANCESTOR table, as GetEntityAccessRestrictionsByAncestor.sql finds them.
+ * Any entity with a restriction found by one but not the other is returned.
+ */
+WITH RECURSIVE
+	REC (ENTITY_ID, PARENT_ID, REQUIREMENT_ID, DISTANCE) AS (
+		SELECT N.ID, N.PARENT_ID, NAR.REQUIREMENT_ID, 1 FROM NODE N
+			LEFT JOIN NODE_ACCESS_REQUIREMENT NAR ON (N.ID = NAR.SUBJECT_ID AND NAR.SUBJECT_TYPE = 'ENTITY')
+				WHERE N.ID IN (:entityIds)
+		UNION ALL
+		SELECT REC.ENTITY_ID, N.PARENT_ID, NAR.REQUIREMENT_ID, REC.DISTANCE + 1 FROM NODE AS N
+			JOIN REC ON (N.ID = REC.PARENT_ID)
+			LEFT JOIN NODE_ACCESS_REQUIREMENT NAR ON (N.ID = NAR.SUBJECT_ID AND NAR.SUBJECT_TYPE = 'ENTITY')
+				WHERE N.ID IS NOT NULL AND DISTANCE < :depth
+	),
+	RE AS (
+		SELECT DISTINCT ENTITY_ID, REQUIREMENT_ID FROM REC WHERE REQUIREMENT_ID IS NOT NULL
+	),
+	FE AS (
+		SELECT DISTINCT NA.NODE_ID AS ENTITY_ID, NAR.REQUIREMENT_ID FROM NODE_ANCESTOR NA
+			JOIN NODE_ACCESS_REQUIREMENT NAR ON (NA.ANCESTOR_ID = NAR.SUBJECT_ID AND NAR.SUBJECT_TYPE = 'ENTITY')
+				WHERE NA.NODE_ID IN (:entityIds) AND NA.DISTANCE < :depth
+	)
+SELECT RE.ENTITY_ID FROM RE LEFT JOIN FE ON (RE.ENTITY_ID = FE.ENTITY_ID AND RE.REQUIREMENT_ID = FE.REQUIREMENT_ID)
+	WHERE FE.ENTITY_ID IS NULL
+UNION
+SELECT FE.ENTITY_ID FROM FE LEFT JOIN RE ON (FE.ENTITY_ID = RE.ENTITY_ID AND FE.REQUIREMENT_ID = RE.REQUIREMENT_ID)
+	WHERE RE.ENTITY_ID IS NULL
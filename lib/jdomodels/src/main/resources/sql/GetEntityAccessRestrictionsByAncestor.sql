@@ -0,0 +1,31 @@
+/**
+ * The first table EI, defines the entity information for a given batch of entity IDs.
+ * The second table EAR gathers all of the access restrictions for each entity based on the entity's hierarchy. The
+ * NODE_ANCESTOR table holds every ancestor of each entity, so the restrictions bound to the entity or any of its
+ * ancestors are found with a single join. Ancestors beyond the given depth are ignored.
+ * The third table APS gathers the access approval state for the user for each access restriction on each entity.
+ * Finally all of the information is gathered into a single row for each access restriction on each entity.
+ */
+WITH 
+	EI AS (
+		SELECT N.ID AS ENTITY_ID, N.PARENT_ID, N.NODE_TYPE, N.CREATED_BY FROM NODE N WHERE N.ID IN(:entityIds)
+	),
+	EAR AS (
+		SELECT DISTINCT NA.NODE_ID AS ENTITY_ID, NAR.REQUIREMENT_ID FROM NODE_ANCESTOR NA
+			JOIN NODE_ACCESS_REQUIREMENT NAR ON (NA.ANCESTOR_ID = NAR.SUBJECT_ID AND NAR.SUBJECT_TYPE = 'ENTITY')
+				WHERE NA.NODE_ID IN (:entityIds) AND NA.DISTANCE < :depth
+	), 
+	APS AS ( 
+		SELECT EAR.*, if(AA.STATE = 'APPROVED', TRUE, FALSE) AS APPROVED FROM EAR
+			LEFT JOIN ACCESS_APPROVAL AA
+				ON (EAR.REQUIREMENT_ID = AA.REQUIREMENT_ID AND AA.ACCESSOR_ID = :userId AND AA.STATE = 'APPROVED')
+	 )
+SELECT 
+	EI.ENTITY_ID,
+	EI.NODE_TYPE,
+	EI.CREATED_BY,
+	APS.REQUIREMENT_ID,
+	APS.APPROVED,
+	AR.CONCRETE_TYPE AS REQUIREMENT_TYPE
+		FROM EI LEFT JOIN APS ON (EI.ENTITY_ID = APS.ENTITY_ID)	
+	 			LEFT JOIN ACCESS_REQUIREMENT AR ON (APS.REQUIREMENT_ID = AR.ID)
@@ -0,0 +1,61 @@
+/*
+ * This is GetEntityPermissions.sql with the hierarchy read from the NODE_ANCESTOR table, and is only used once the
+ * NODE_ANCESTOR backfill is complete.
+ *
+ * For each entity, the BEN table will contain one row with the closest entity in its hierarchy (including itself) that
+ * has an ACL. The NODE_ANCESTOR table holds every ancestor of each entity with its distance, so the candidates are found
+ * with a single lookup and ranked by distance. The DISTANCE of the entity itself is zero where the recursive DEPTH
+ * starts at one, so the same ancestors are kept with DISTANCE <= :depth - 1.
+ * 
+ * The ACC table will contain one row for each distinct permission that the user has been granted to any of their principals
+ * on the ACL identified from the BEN table.
+ * 
+ * The PUB table will contain one row for each ACL that grants the READ permission to PUBLIC.  
+ *
+ * The final table pivots each row from the ACC table to a column by grouping on the entity id.
+ */
+WITH
+	BEN AS (
+		SELECT ENTITY_ID, BENEFACTOR_ID, ACL_ID FROM
+			(
+				SELECT NA.NODE_ID AS ENTITY_ID, NA.ANCESTOR_ID AS BENEFACTOR_ID, A.ID AS ACL_ID,
+					ROW_NUMBER() OVER (PARTITION BY NA.NODE_ID ORDER BY NA.DISTANCE) AS ACL_RANK
+					FROM NODE_ANCESTOR NA JOIN ACL A ON (NA.ANCESTOR_ID = A.OWNER_ID AND A.OWNER_TYPE = 'ENTITY')
+					WHERE NA.NODE_ID IN (:entityIds) AND NA.DISTANCE <= :depth - 1
+			) R
+		WHERE ACL_RANK = 1
+	),
+	ACC AS (
+		SELECT DISTINCT RA.OWNER_ID AS ACL_ID, RAT.STRING_ELE AS ACCESS_TYPE
+			FROM BEN JOIN ACL_RESOURCE_ACCESS RA ON (BEN.ACL_ID = RA.OWNER_ID)
+			JOIN ACL_RESOURCE_ACCESS_TYPE RAT ON (RA.ID = RAT.ID_OID)
+			WHERE RA.GROUP_ID IN (:usersGroups)
+	),
+	PUB AS (
+		SELECT DISTINCT RA.OWNER_ID AS ACL_ID, RAT.STRING_ELE AS ACCESS_TYPE
+			FROM BEN JOIN ACL_RESOURCE_ACCESS RA ON (BEN.ACL_ID = RA.OWNER_ID)
+			JOIN ACL_RESOURCE_ACCESS_TYPE RAT ON (RA.ID = RAT.ID_OID AND RAT.STRING_ELE = 'READ')
+			WHERE RA.GROUP_ID = :publicId
+	)
+SELECT 
+ BEN.ENTITY_ID,
+ MAX(N.NODE_TYPE) AS ENTITY_TYPE,
+ MAX(N.PARENT_ID) AS ENTITY_PARENT_ID,
+ MAX(N.CREATED_BY) AS ENTITY_CREATED_BY,
+ MAX(BEN.BENEFACTOR_ID) AS BENEFACTOR_ID,
+ MAX(DT.DATA_TYPE) AS DATA_TYPE,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'CHANGE_PERMISSIONS' THEN 1 END) AS CHANGE_PERMISSIONS_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'CHANGE_SETTINGS' THEN 1 END) AS CHANGE_SETTINGS_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'CREATE' THEN 1 END) AS CREATE_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'UPDATE' THEN 1 END) AS UPDATE_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'DELETE' THEN 1 END) AS DELETE_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'DOWNLOAD' THEN 1 END) AS DOWNLOAD_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'READ' THEN 1 END) AS READ_COUNT,
+ COUNT(CASE WHEN ACC.ACCESS_TYPE = 'MODERATE' THEN 1 END) AS MODERATE_COUNT,
+ COUNT(CASE WHEN PUB.ACCESS_TYPE = 'READ' THEN 1 END) AS PUBLIC_READ_COUNT
+ 	FROM BEN
+ 	JOIN NODE N ON (BEN.ENTITY_ID = N.ID)
+ 	LEFT JOIN ACC ON (BEN.ACL_ID = ACC.ACL_ID)
+ 	LEFT JOIN PUB ON (BEN.ACL_ID = PUB.ACL_ID)
+    LEFT JOIN DATA_TYPE DT ON (BEN.ENTITY_ID = DT.OBJECT_ID AND DT.OBJECT_TYPE = 'ENTITY')
+    GROUP BY BEN.ENTITY_ID
\ No newline at end of file
@@ -0,0 +1,170 @@
+package org.sagebionetworks.repo.model.ar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.model.AccessApprovalDAO;
+import org.sagebionetworks.repo.model.AccessRequirementDAO;
+import org.sagebionetworks.repo.model.EntityType;
+import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.TermsOfUseAccessRequirement;
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.repo.model.UserGroupDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.helper.DaoObjectHelper;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Not a test of timing. Prints the time to look up the access restrictions of a
+ * batch of files at the bottom of a deep hierarchy, with the restrictions found
+ * through the node ancestors and with the restrictions found by walking the
+ * hierarchy of each file, as they are found until the ancestors are complete.
+ * Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class AccessRestrictionStatusBenchmarkTest {
+
+	private static final int DEPTH = 40;
+	private static final int FILE_COUNT = 50;
+	private static final int RESTRICTION_EVERY = 10;
+	private static final int ITERATIONS = 50;
+
+	@Autowired
+	private UserGroupDAO userGroupDAO;
+
+	@Autowired
+	private AccessRestrictionStatusDao accessRestrictionStatusDao;
+
+	@Autowired
+	private AccessApprovalDAO accessApprovalDAO;
+
+	@Autowired
+	private AccessRequirementDAO accessRequirementDAO;
+
+	@Autowired
+	private NodeDAO nodeDao;
+
+	@Autowired
+	private DaoObjectHelper<Node> nodeDaoHelper;
+
+	@Autowired
+	private DaoObjectHelper<UserGroup> userGroupHelpler;
+
+	@Autowired
+	private DaoObjectHelper<TermsOfUseAccessRequirement> termsOfUseHelper;
+
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+
+	private Long userId;
+	private Node project;
+	private List<Long> fileIds;
+
+	@BeforeEach
+	public void before() {
+		accessApprovalDAO.clear();
+		accessRequirementDAO.truncateAll();
+		userId = Long.parseLong(userGroupHelpler.create(u -> {
+		}).getId());
+		project = nodeDaoHelper.create(n -> {
+			n.setName("benchmarkProject");
+			n.setCreatedByPrincipalId(userId);
+		});
+		Node parent = project;
+		for (int level = 1; level < DEPTH; level++) {
+			String parentId = parent.getId();
+			String name = "folder" + level;
+			parent = nodeDaoHelper.create(n -> {
+				n.setName(name);
+				n.setCreatedByPrincipalId(userId);
+				n.setParentId(parentId);
+				n.setNodeType(EntityType.folder);
+			});
+			if (level % RESTRICTION_EVERY == 0) {
+				String subjectId = parent.getId();
+				termsOfUseHelper.create(t -> {
+					t.setCreatedBy(userId.toString());
+					t.getSubjectIds().get(0).setId(subjectId);
+				});
+			}
+		}
+		fileIds = new ArrayList<>(FILE_COUNT);
+		for (int i = 0; i < FILE_COUNT; i++) {
+			String parentId = parent.getId();
+			String name = "file" + i;
+			Node file = nodeDaoHelper.create(n -> {
+				n.setName(name);
+				n.setCreatedByPrincipalId(userId);
+				n.setParentId(parentId);
+				n.setNodeType(EntityType.file);
+			});
+			fileIds.add(KeyFactory.stringToKey(file.getId()));
+		}
+	}
+
+	@AfterEach
+	public void after() {
+		if (project != null) {
+			nodeDao.delete(project.getId());
+		}
+		accessApprovalDAO.clear();
+		accessRequirementDAO.truncateAll();
+		if (userId != null) {
+			userGroupDAO.delete(userId.toString());
+		}
+		backfillStatusDao.truncateAll();
+	}
+
+	@Test
+	public void testGetEntityStatus() {
+		int expectedRestrictions = FILE_COUNT * ((DEPTH - 1) / RESTRICTION_EVERY);
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		long recursive = measure("recursive walk", expectedRestrictions, this::countRestrictions);
+		backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR,
+				backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR));
+		long ancestors = measure("node ancestors", expectedRestrictions, this::countRestrictions);
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", (double) recursive / ancestors));
+		assertEquals(Collections.emptyList(), accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(fileIds));
+	}
+
+	int countRestrictions() {
+		int count = 0;
+		for (UsersRestrictionStatus status : accessRestrictionStatusDao.getEntityStatus(fileIds, userId)) {
+			count += status.getAccessRestrictions().size();
+		}
+		return count;
+	}
+
+	/**
+	 * Run the given lookup repeatedly, print the average time per lookup and
+	 * return it in microseconds.
+	 */
+	long measure(String name, int expectedRestrictions, IntSupplier lookup) {
+		// warm up
+		assertEquals(expectedRestrictions, lookup.getAsInt());
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			assertEquals(expectedRestrictions, lookup.getAsInt());
+		}
+		long perLookup = (System.nanoTime() - start) / ITERATIONS / 1000L;
+		System.out.println(String.format("%-16s %2d levels %3d files %,10d us/lookup", name, DEPTH, FILE_COUNT,
+				perLookup));
+		return Math.max(1L, perLookup);
+	}
+}
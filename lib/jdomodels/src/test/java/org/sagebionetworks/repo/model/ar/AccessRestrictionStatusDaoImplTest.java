@@ -30,9 +30,12 @@ import org.sagebionetworks.repo.model.RestrictionLevel;
 import org.sagebionetworks.repo.model.TermsOfUseAccessRequirement;
 import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.repo.model.helper.DaoObjectHelper;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -73,6 +76,12 @@ public class AccessRestrictionStatusDaoImplTest {
 	@Autowired
 	private DaoObjectHelper<AccessApproval> accessApprovalHelper;
 
+	@Autowired
+	private JdbcTemplate migrationJdbcTemplate;
+
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+
 	Long userOneId;
 	Long userTwoId;
 	Long userThreeId;
@@ -131,6 +140,7 @@ public class AccessRestrictionStatusDaoImplTest {
 		if (teamTwoId != null) {
 			userGroupDAO.delete(teamTwoId.toString());
 		}
+		backfillStatusDao.truncateAll();
 	}
 
 	@Test
@@ -1058,6 +1068,136 @@ public class AccessRestrictionStatusDaoImplTest {
 		assertEquals(RestrictionLevel.RESTRICTED_BY_TERMS_OF_USE, result.getMostRestrictiveLevel());
 	}
 
+	@Test
+	public void testGeEntityStatusAfterMove() {
+		setupNodeHierarchy(userTwoId);
+		lockHelper.create(a -> {
+			a.setCreatedBy(userThreeId.toString());
+			a.getSubjectIds().get(0).setId(folder.getId());
+		});
+		ManagedACTAccessRequirement managedFolderTwo = managedHelper.create(a -> {
+			a.setCreatedBy(userThreeId.toString());
+			a.getSubjectIds().get(0).setId(folderTwo.getId());
+		});
+		// move the file from the first folder to the second.
+		Node toMove = nodeDao.getNode(file.getId());
+		toMove.setParentId(folderTwo.getId());
+		nodeDao.updateNode(toMove);
+
+		List<Long> subjectIds = KeyFactory.stringToKey(Arrays.asList(file.getId()));
+		// call under test
+		List<UsersRestrictionStatus> results = accessRestrictionStatusDao.getEntityStatus(subjectIds, userOneId);
+		validateBasicSubjectStatus(subjectIds, results, userOneId);
+
+		// the file only inherits the restriction of its new parent.
+		List<UsersRequirementStatus> expected = Arrays.asList(new UsersRequirementStatus()
+				.withRequirementId(managedFolderTwo.getId()).withRequirementType(AccessRequirementType.MANAGED_ATC)
+				.withIsUnmet(true));
+		assertEquals(expected, results.get(0).getAccessRestrictions());
+	}
+
+	@Test
+	public void testGetEntityStatusWithAncestorsIncomplete() {
+		setupNodeHierarchy(userTwoId);
+		TermsOfUseAccessRequirement projectToU = termsOfUseHelper.create(t -> {
+			t.setCreatedBy(userThreeId.toString());
+			t.getSubjectIds().get(0).setId(project.getId());
+		});
+		// simulate a file that was created before the ancestors were tracked
+		Long fileId = KeyFactory.stringToKey(file.getId());
+		migrationJdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE NODE_ID = ?", fileId);
+		List<Long> subjectIds = Arrays.asList(fileId);
+		List<UsersRequirementStatus> expected = Arrays.asList(new UsersRequirementStatus()
+				.withRequirementId(projectToU.getId()).withRequirementType(AccessRequirementType.TOU).withIsUnmet(true));
+
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		// call under test
+		List<UsersRestrictionStatus> results = accessRestrictionStatusDao.getEntityStatus(subjectIds, userOneId);
+		// the hierarchy is walked with PARENT_ID so the missing ancestors do not hide the restriction
+		assertEquals(expected, results.get(0).getAccessRestrictions());
+
+		backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR,
+				backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR));
+		// call under test
+		results = accessRestrictionStatusDao.getEntityStatus(subjectIds, userOneId);
+		assertEquals(Collections.emptyList(), results.get(0).getAccessRestrictions());
+	}
+
+	@Test
+	public void testGetEntityStatusWithAncestorsComplete() {
+		setupNodeHierarchy(userTwoId);
+		TermsOfUseAccessRequirement projectToU = termsOfUseHelper.create(t -> {
+			t.setCreatedBy(userThreeId.toString());
+			t.getSubjectIds().get(0).setId(project.getId());
+		});
+		List<Long> subjectIds = KeyFactory.stringToKey(Arrays.asList(file.getId(), fileTwo.getId()));
+		List<UsersRequirementStatus> expected = Arrays.asList(new UsersRequirementStatus()
+				.withRequirementId(projectToU.getId()).withRequirementType(AccessRequirementType.TOU).withIsUnmet(true));
+
+		backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR,
+				backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR));
+		// call under test
+		List<UsersRestrictionStatus> results = accessRestrictionStatusDao.getEntityStatus(subjectIds, userOneId);
+		assertEquals(expected, results.get(0).getAccessRestrictions());
+		assertEquals(expected, results.get(1).getAccessRestrictions());
+
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		// call under test
+		results = accessRestrictionStatusDao.getEntityStatus(subjectIds, userOneId);
+		assertEquals(expected, results.get(0).getAccessRestrictions());
+		assertEquals(expected, results.get(1).getAccessRestrictions());
+	}
+
+	@Test
+	public void testGetEntitiesWithInconsistentRestrictions() {
+		setupNodeHierarchy(userTwoId);
+		termsOfUseHelper.create(t -> {
+			t.setCreatedBy(userThreeId.toString());
+			t.getSubjectIds().get(0).setId(project.getId());
+		});
+		lockHelper.create(a -> {
+			a.setCreatedBy(userThreeId.toString());
+			a.getSubjectIds().get(0).setId(folder.getId());
+		});
+		List<Long> entityIds = KeyFactory
+				.stringToKey(Arrays.asList(project.getId(), folder.getId(), file.getId(), fileTwo.getId()));
+		// call under test
+		List<Long> results = accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(entityIds);
+		assertEquals(Collections.emptyList(), results);
+	}
+
+	@Test
+	public void testGetEntitiesWithInconsistentRestrictionsWithMissingAncestors() {
+		setupNodeHierarchy(userTwoId);
+		termsOfUseHelper.create(t -> {
+			t.setCreatedBy(userThreeId.toString());
+			t.getSubjectIds().get(0).setId(project.getId());
+		});
+		// simulate a file that was created before the ancestors were tracked
+		Long fileId = KeyFactory.stringToKey(file.getId());
+		migrationJdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE NODE_ID = ?", fileId);
+		List<Long> entityIds = KeyFactory.stringToKey(Arrays.asList(file.getId(), fileTwo.getId()));
+		// call under test
+		List<Long> results = accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(entityIds);
+		assertEquals(Arrays.asList(fileId), results);
+	}
+
+	@Test
+	public void testGetEntitiesWithInconsistentRestrictionsWithEmpty() {
+		// call under test
+		List<Long> results = accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(Collections.emptyList());
+		assertEquals(Collections.emptyList(), results);
+	}
+
+	@Test
+	public void testGetEntitiesWithInconsistentRestrictionsWithNull() {
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(null);
+		}).getMessage();
+		assertEquals("entityIds is required.", message);
+	}
+
 	/**
 	 * Basic validation of the SubjectStatus results against the input subject ids.
 	 * 
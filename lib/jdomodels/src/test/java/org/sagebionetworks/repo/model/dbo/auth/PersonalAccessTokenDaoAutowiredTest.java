@@ -166,6 +166,33 @@ public class PersonalAccessTokenDaoAutowiredTest {
 		assertTrue(updated.getLastUsed().after(tokenRecord.getLastUsed()));
 	}
 
+	@Test
+	void testUpdateLastUsedBatch() throws Exception {
+		Date now = new Date();
+		AccessTokenRecord one = createTokenRecord(userId, new Date(now.getTime() - ONE_HOUR_MILLIS));
+		AccessTokenRecord two = createTokenRecord(userId, now);
+		Date twoLastUsed = personalAccessTokenDao.getLastUsedDate(two.getId());
+
+		Map<String, Date> lastUsed = new HashMap<>();
+		lastUsed.put(one.getId(), new Date(now.getTime() - 1000L));
+		// older than the time already recorded
+		lastUsed.put(two.getId(), new Date(now.getTime() - ONE_HOUR_MILLIS));
+		// does not exist
+		lastUsed.put("-1", now);
+
+		// method under test
+		personalAccessTokenDao.updateLastUsed(lastUsed);
+
+		assertTrue(personalAccessTokenDao.getLastUsedDate(one.getId()).after(one.getLastUsed()));
+		assertEquals(twoLastUsed, personalAccessTokenDao.getLastUsedDate(two.getId()));
+	}
+
+	@Test
+	void testUpdateLastUsedBatchWithEmpty() {
+		// method under test
+		personalAccessTokenDao.updateLastUsed(Collections.emptyMap());
+	}
+
 	@Test
 	void testGetTokensPaginated() {
 		// Create two token records
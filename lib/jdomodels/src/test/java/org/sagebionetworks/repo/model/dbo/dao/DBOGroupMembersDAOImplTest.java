@@ -287,6 +287,20 @@ public class DBOGroupMembersDAOImplTest {
 		assertTrue(membersIds.contains(Long.parseLong(testUserTwo.getId())));
 	}
 
+	@Test
+	public void testGetMemberIdsWithLimit(){
+		// Add users to the test group
+		List<String> idsToAdd = new ArrayList<String>();
+		idsToAdd.add(testUserOne.getId());
+		idsToAdd.add(testUserTwo.getId());
+
+		groupMembersDAO.addMembers(testGroup.getId(), idsToAdd);
+		Long teamId = Long.parseLong(testGroup.getId());
+		// call under test
+		assertEquals(1, groupMembersDAO.getMemberIds(teamId, 1L).size());
+		assertEquals(groupMembersDAO.getMemberIds(teamId), groupMembersDAO.getMemberIds(teamId, 3L));
+	}
+
 	@Test (expected = IllegalArgumentException.class)
 	public void testGetAllIndividualWithNullPrincipalIds(){
 		groupMembersDAO.getIndividuals(null, 10L, 0L);
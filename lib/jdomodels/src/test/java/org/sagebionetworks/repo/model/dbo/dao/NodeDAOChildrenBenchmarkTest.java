@@ -0,0 +1,143 @@
+package org.sagebionetworks.repo.model.dbo.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.model.EntityHeader;
+import org.sagebionetworks.repo.model.EntityType;
+import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.UserGroup;
+import org.sagebionetworks.repo.model.UserGroupDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
+import org.sagebionetworks.repo.model.entity.SortBy;
+import org.sagebionetworks.repo.model.file.ChildStatsRequest;
+import org.sagebionetworks.repo.model.helper.DaoObjectHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Not a test of timing. Prints the time to read the last page of the children
+ * of a large folder with an offset token and with a token that starts after the
+ * last child of the previous page, and the time to compute the statistics of
+ * the children by aggregating over them, while the backfill of the statistics
+ * is incomplete, and from the maintained statistics. Only runs with the
+ * benchmark profile.
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class NodeDAOChildrenBenchmarkTest {
+
+	private static final int CHILD_COUNT = 20_000;
+	private static final long PAGE_SIZE = 50L;
+	private static final int ITERATIONS = 20;
+
+	@Autowired
+	private UserGroupDAO userGroupDAO;
+
+	@Autowired
+	private NodeDAO nodeDao;
+
+	@Autowired
+	private DaoObjectHelper<Node> nodeDaoHelper;
+
+	@Autowired
+	private DaoObjectHelper<UserGroup> userGroupHelpler;
+
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+
+	private Long userId;
+	private Node project;
+
+	@BeforeEach
+	public void before() {
+		userId = Long.parseLong(userGroupHelpler.create(u -> {
+		}).getId());
+		project = nodeDaoHelper.create(n -> {
+			n.setName("benchmarkProject");
+			n.setCreatedByPrincipalId(userId);
+		});
+		String parentId = project.getId();
+		for (int i = 0; i < CHILD_COUNT; i++) {
+			String name = String.format("file%06d", i);
+			nodeDaoHelper.create(n -> {
+				n.setName(name);
+				n.setCreatedByPrincipalId(userId);
+				n.setParentId(parentId);
+				n.setNodeType(EntityType.file);
+			});
+		}
+	}
+
+	@AfterEach
+	public void after() {
+		if (project != null) {
+			nodeDao.delete(project.getId());
+		}
+		if (userId != null) {
+			userGroupDAO.delete(userId.toString());
+		}
+		backfillStatusDao.truncateAll();
+	}
+
+	@Test
+	public void testGetChildren() {
+		List<EntityType> includeTypes = Collections.singletonList(EntityType.file);
+		EntityChildrenPageToken lastPageOffset = new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, PAGE_SIZE,
+				CHILD_COUNT - PAGE_SIZE);
+		// the token issued with the page before the last page
+		EntityChildrenPageToken previousPage = new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, PAGE_SIZE,
+				CHILD_COUNT - PAGE_SIZE * 2);
+		List<EntityHeader> previous = nodeDao.getChildren(project.getId(), includeTypes, null, previousPage);
+		EntityChildrenPageToken lastPageKeyset = EntityChildrenPageToken.fromToken(
+				previousPage.getNextPageTokenForCurrentResults(previous), SortBy.NAME, Direction.ASC);
+
+		long offset = measure("offset page", PAGE_SIZE,
+				() -> nodeDao.getChildren(project.getId(), includeTypes, null, lastPageOffset).size());
+		long keyset = measure("keyset page", PAGE_SIZE,
+				() -> nodeDao.getChildren(project.getId(), includeTypes, null, lastPageKeyset).size());
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", (double) offset / keyset));
+
+		ChildStatsRequest request = new ChildStatsRequest().withParentId(project.getId())
+				.withIncludeTypes(Arrays.asList(EntityType.file, EntityType.folder)).withIncludeTotalChildCount(true)
+				.withIncludeSumFileSizes(true);
+		backfillStatusDao.setIncomplete(BackfillType.NODE_CHILD_STATS);
+		long aggregate = measure("aggregate stats", CHILD_COUNT,
+				() -> nodeDao.getChildrenStats(request).getTotalChildCount());
+		backfillStatusDao.setComplete(BackfillType.NODE_CHILD_STATS, backfillStatusDao.startBackfill(BackfillType.NODE_CHILD_STATS));
+		long maintained = measure("maintained stats", CHILD_COUNT,
+				() -> nodeDao.getChildrenStats(request).getTotalChildCount());
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", (double) aggregate / maintained));
+	}
+
+	/**
+	 * Run the given query repeatedly, print the average time per query and return
+	 * it in microseconds.
+	 */
+	long measure(String name, long expected, LongSupplier query) {
+		// warm up
+		assertEquals(expected, query.getAsLong());
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			assertEquals(expected, query.getAsLong());
+		}
+		long perQuery = (System.nanoTime() - start) / ITERATIONS / 1000L;
+		System.out.println(String.format("%-16s %,7d children %,10d us/query", name, CHILD_COUNT, perQuery));
+		return Math.max(1L, perQuery);
+	}
+}
@@ -49,12 +49,15 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2Utils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValueType;
 import org.sagebionetworks.repo.model.dbo.DBOBasicDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.repo.model.dbo.file.FileHandleDao;
 import org.sagebionetworks.repo.model.dbo.migration.MigratableTableDAO;
 import org.sagebionetworks.repo.model.dbo.persistence.DBORevision;
 import org.sagebionetworks.repo.model.dbo.schema.DerivedAnnotationDao;
 import org.sagebionetworks.repo.model.dbo.schema.JsonSchemaTestHelper;
 import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.NameIdType;
 import org.sagebionetworks.repo.model.entity.SortBy;
 import org.sagebionetworks.repo.model.entity.query.SortDirection;
@@ -90,6 +93,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.UnexpectedRollbackException;
 
+import java.sql.ResultSet;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -164,6 +168,9 @@ public class NodeDAOImplTest {
 	@Autowired
 	private DBOBasicDao basicDao;
 	
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+	
 	@Autowired
 	private JsonSchemaTestHelper jsonSchemaTestHelper;
 	
@@ -205,6 +212,9 @@ public class NodeDAOImplTest {
 		
 		nodeDao.truncateAll();
 		derivedAnnotationsDao.clearAll();
+		// read the node ancestors and the child statistics unless a test says otherwise
+		backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR, backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR));
+		backfillStatusDao.setComplete(BackfillType.NODE_CHILD_STATS, backfillStatusDao.startBackfill(BackfillType.NODE_CHILD_STATS));
 		
 		creatorUserGroupId = BOOTSTRAP_PRINCIPAL.THE_ADMIN_USER.getPrincipalId();
 		altUserGroupId = BOOTSTRAP_PRINCIPAL.AUTHENTICATED_USERS_GROUP.getPrincipalId();
@@ -274,6 +284,7 @@ public class NodeDAOImplTest {
 		}
 		nodeDao.truncateAll();
 		derivedAnnotationsDao.clearAll();
+		backfillStatusDao.truncateAll();
 	}
 	
 	private Node privateCreateNew(String name) {
@@ -1733,12 +1744,12 @@ public class NodeDAOImplTest {
 	}
 	
 	/**
-	 * Maybe we should prevent users from creating such a loop.
+	 * A node cannot be moved into its own sub-tree, so a loop cannot be created.
 	 * 
 	 * @throws Exception
 	 */
 	@Test
-	public void testGetEntityPathIdsInfiniteLoop() throws Exception {
+	public void testUpdateNodeWithLoop() throws Exception {
 		Node parent = privateCreateNew("parent");
 		String parentId = nodeDao.createNew(parent);
 		assertNotNull(parentId);
@@ -1757,15 +1768,272 @@ public class NodeDAOImplTest {
 		String grandChildId = nodeDao.createNew(grandChild);
 		assertNotNull(grandChildId);
 		toDelete.add(grandChildId);
-		// setup an infinite loop
+		// attempt to setup an infinite loop
 		parent.setParentId(grandChildId);
-		nodeDao.updateNode(parent);
 		
-		String message = assertThrows(IllegalStateException.class, ()->{
+		String message = assertThrows(IllegalArgumentException.class, ()->{
 			// call under test
-			nodeDao.getEntityPathIds(grandChildId);
+			nodeDao.updateNode(parent);
 		}).getMessage();
-		assertEquals("Path depth limit of: "+NodeConstants.MAX_PATH_DEPTH+" exceeded for: "+grandChildId, message);
+		assertEquals("Cannot move: "+parent.getId()+" into its own sub-tree", message);
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(parentId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+	}
+	
+	@Test
+	public void testUpdateNodeWithMoveToSelf() throws Exception {
+		Node node = privateCreateNew("node");
+		String nodeId = nodeDao.createNew(node);
+		toDelete.add(nodeId);
+		Node toUpdate = nodeDao.getNode(nodeId);
+		toUpdate.setParentId(nodeId);
+		
+		String message = assertThrows(IllegalArgumentException.class, ()->{
+			// call under test
+			nodeDao.updateNode(toUpdate);
+		}).getMessage();
+		assertEquals("Cannot move: "+nodeId+" into its own sub-tree", message);
+	}
+	
+	@Test
+	public void testUpdateNodeWithMoveUpdatesSubTreePath() throws Exception {
+		Node node = privateCreateNew("projectOne");
+		node.setNodeType(EntityType.project);
+		String projectOneId = nodeDao.createNew(node);
+		toDelete.add(projectOneId);
+		node = privateCreateNew("projectTwo");
+		node.setNodeType(EntityType.project);
+		String projectTwoId = nodeDao.createNew(node);
+		toDelete.add(projectTwoId);
+		node = privateCreateNew("folder");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectTwoId);
+		String folderId = nodeDao.createNew(node);
+		toDelete.add(folderId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectOneId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		node = privateCreateNew("grandChild");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(childId);
+		String grandChildId = nodeDao.createNew(node);
+		toDelete.add(grandChildId);
+		
+		Node child = nodeDao.getNode(childId);
+		child.setParentId(folderId);
+		// call under test
+		nodeDao.updateNode(child);
+		
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectTwoId), KeyFactory.stringToKey(folderId),
+				KeyFactory.stringToKey(childId), KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+		assertEquals(new HashSet<>(Arrays.asList(KeyFactory.stringToKey(projectTwoId), KeyFactory.stringToKey(folderId),
+				KeyFactory.stringToKey(childId))), nodeDao.getAllContainerIds(projectTwoId, 10));
+		assertEquals(Collections.emptySet(), nodeDao.getAllContainerIds(projectOneId, 10));
+		
+		// move back to the root of the first project
+		child = nodeDao.getNode(childId);
+		child.setParentId(projectOneId);
+		// call under test
+		nodeDao.updateNode(child);
+		
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectOneId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+	}
+	
+	@Test
+	public void testBackfillNodeAncestors() throws Exception {
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		// simulate a child that was created before the ancestors were tracked
+		migrationJdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE NODE_ID = ?", KeyFactory.stringToKey(childId));
+		node = privateCreateNew("grandChild");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(childId);
+		String grandChildId = nodeDao.createNew(node);
+		toDelete.add(grandChildId);
+		
+		assertThrows(NotFoundException.class, ()->{
+			nodeDao.getEntityPathIds(childId);
+		});
+		
+		int count;
+		do {
+			// call under test
+			count = nodeDao.backfillNodeAncestors(100);
+		} while (count > 0);
+		
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId)),
+				nodeDao.getEntityPathIds(childId));
+	}
+	
+	@Test
+	public void testBackfillNodeAncestorsWithRestoredMove() throws Exception {
+		Node node = privateCreateNew("projectOne");
+		node.setNodeType(EntityType.project);
+		String projectOneId = nodeDao.createNew(node);
+		toDelete.add(projectOneId);
+		node = privateCreateNew("projectTwo");
+		node.setNodeType(EntityType.project);
+		String projectTwoId = nodeDao.createNew(node);
+		toDelete.add(projectTwoId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectOneId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		node = privateCreateNew("grandChild");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(childId);
+		String grandChildId = nodeDao.createNew(node);
+		toDelete.add(grandChildId);
+		// simulate a restore that moved the child without maintaining its ancestors
+		migrationJdbcTemplate.update("UPDATE " + TABLE_NODE + " SET " + COL_NODE_PARENT_ID + " = ? WHERE " + COL_NODE_ID + " = ?",
+				KeyFactory.stringToKey(projectTwoId), KeyFactory.stringToKey(childId));
+		
+		int count;
+		do {
+			// call under test
+			count = nodeDao.backfillNodeAncestors(100);
+		} while (count > 0);
+		
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectTwoId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+		assertEquals(Collections.emptySet(), nodeDao.getAllContainerIds(projectOneId, 10));
+	}
+	
+	@Test
+	public void testBackfillNodeAncestorsWithRestoredDelete() throws Exception {
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		// simulate a restore that deleted the child without the cascade to its ancestors
+		migratableTableDao.runWithKeyChecksIgnored(() -> {
+			migrationJdbcTemplate.update("DELETE FROM " + TABLE_NODE + " WHERE " + COL_NODE_ID + " = ?", KeyFactory.stringToKey(childId));
+			return null;
+		});
+		assertEquals(2L, migrationJdbcTemplate.queryForObject("SELECT COUNT(*) FROM NODE_ANCESTOR WHERE NODE_ID = ?", Long.class,
+				KeyFactory.stringToKey(childId)));
+		
+		// call under test
+		assertEquals(2, nodeDao.backfillNodeAncestors(100));
+		
+		assertEquals(0L, migrationJdbcTemplate.queryForObject("SELECT COUNT(*) FROM NODE_ANCESTOR WHERE NODE_ID = ?", Long.class,
+				KeyFactory.stringToKey(childId)));
+		assertEquals(0, nodeDao.backfillNodeAncestors(100));
+	}
+	
+	@Test
+	public void testResetNodeAncestors() throws Exception {
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		node = privateCreateNew("grandChild");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(childId);
+		String grandChildId = nodeDao.createNew(node);
+		toDelete.add(grandChildId);
+		// the grand child loses the link to the project
+		migrationJdbcTemplate.update("DELETE FROM NODE_ANCESTOR WHERE NODE_ID = ? AND ANCESTOR_ID = ?",
+				KeyFactory.stringToKey(grandChildId), KeyFactory.stringToKey(projectId));
+		
+		// call under test
+		nodeDao.resetNodeAncestors(Arrays.asList(KeyFactory.stringToKey(grandChildId)));
+		
+		assertEquals(0L, migrationJdbcTemplate.queryForObject("SELECT COUNT(*) FROM NODE_ANCESTOR WHERE NODE_ID IN (?, ?, ?)",
+				Long.class, KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId), KeyFactory.stringToKey(grandChildId)));
+		int count;
+		do {
+			count = nodeDao.backfillNodeAncestors(100);
+		} while (count > 0);
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+	}
+	
+	@Test
+	public void testResetNodeAncestorsWithEmpty() throws Exception {
+		// call under test
+		nodeDao.resetNodeAncestors(Collections.emptyList());
+	}
+	
+	@Test
+	public void testGetSampleOfNodeIds() throws Exception {
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		
+		// call under test
+		List<Long> sample = nodeDao.getSampleOfNodeIds(10);
+		
+		assertFalse(sample.isEmpty());
+		assertTrue(sample.size() <= 10);
+		List<Long> sorted = new ArrayList<>(sample);
+		Collections.sort(sorted);
+		assertEquals(sorted, sample);
+		for (Long nodeId : sample) {
+			assertTrue(nodeDao.doesNodeExist(nodeId));
+		}
+	}
+	
+	@Test
+	public void testGetEntityPathWithAncestorsIncomplete() throws Exception {
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		node = privateCreateNew("child");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectId);
+		String childId = nodeDao.createNew(node);
+		toDelete.add(childId);
+		node = privateCreateNew("grandChild");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(childId);
+		String grandChildId = nodeDao.createNew(node);
+		toDelete.add(grandChildId);
+		// simulate nodes that were created before the ancestors were tracked
+		migrationJdbcTemplate.update("DELETE FROM NODE_ANCESTOR");
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		
+		// call under test
+		assertEquals(Arrays.asList(KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId),
+				KeyFactory.stringToKey(grandChildId)), nodeDao.getEntityPathIds(grandChildId));
+		List<NameIdType> path = nodeDao.getEntityPath(grandChildId);
+		assertEquals(Arrays.asList(projectId, childId, grandChildId),
+				path.stream().map(NameIdType::getId).collect(Collectors.toList()));
+		assertEquals(new HashSet<>(Arrays.asList(KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(childId))),
+				nodeDao.getAllContainerIds(projectId, 10));
+		
+		// a move into its own sub-tree is still rejected
+		Node project = nodeDao.getNode(projectId);
+		project.setParentId(grandChildId);
+		String message = assertThrows(IllegalArgumentException.class, ()->{
+			nodeDao.updateNode(project);
+		}).getMessage();
+		assertEquals("Cannot move: "+projectId+" into its own sub-tree", message);
 	}
 	
 	@Test
@@ -1873,37 +2141,6 @@ public class NodeDAOImplTest {
 		});
 	}
 	
-	@Test
-	public void testGetEntityPathInfiniteLoop() throws Exception {
-		Node parent = privateCreateNew("parent");
-		String parentId = nodeDao.createNew(parent);
-		assertNotNull(parentId);
-		toDelete.add(parentId);
-		
-		//Now add an child
-		Node child = privateCreateNew("child");
-		child.setParentId(parentId);
-		String childId = nodeDao.createNew(child);
-		assertNotNull(childId);
-		toDelete.add(parentId);
-		
-		//Now add an child
-		Node grandChild = privateCreateNew("grandChild");
-		grandChild.setParentId(childId);
-		String grandChildId = nodeDao.createNew(grandChild);
-		assertNotNull(grandChildId);
-		toDelete.add(grandChildId);
-		// setup an infinite loop
-		parent.setParentId(grandChildId);
-		nodeDao.updateNode(parent);
-		
-		String message = assertThrows(IllegalStateException.class, ()->{
-			// call under test
-			nodeDao.getEntityPath(grandChildId);
-		}).getMessage();
-		assertEquals("Path depth limit of: "+NodeConstants.MAX_PATH_DEPTH+" exceeded for: "+grandChildId, message);
-	}
-	
 	
 	@Test 
 	public void testGetShallowEntityPath() throws Exception {
@@ -3442,13 +3679,24 @@ public class NodeDAOImplTest {
 	 * @return
 	 */
 	private S3FileHandle createTestFileHandle(String fileName, String createdById){
+		return createTestFileHandle(fileName, createdById, TEST_FILE_SIZE);
+	}
+	
+	/**
+	 * Create a test FileHandle of the given size
+	 * @param fileName
+	 * @param createdById
+	 * @param contentSize
+	 * @return
+	 */
+	private S3FileHandle createTestFileHandle(String fileName, String createdById, long contentSize){
 		S3FileHandle fileHandle = new S3FileHandle();
 		fileHandle.setBucketName("bucket");
 		fileHandle.setKey("key");
 		fileHandle.setCreatedBy(createdById);
 		fileHandle.setFileName(fileName);
 		fileHandle.setContentMd5(fileName);
-		fileHandle.setContentSize(TEST_FILE_SIZE);
+		fileHandle.setContentSize(contentSize);
 		fileHandle.setId(idGenerator.generateNewId(IdType.FILE_IDS).toString());
 		fileHandle.setEtag(UUID.randomUUID().toString());
 		fileHandle = (S3FileHandle) fileHandleDao.createFile(fileHandle);
@@ -3498,6 +3746,18 @@ public class NodeDAOImplTest {
 		assertEquals(NodeDAOImpl.R_MODIFIED_ON, result);
 	}
 
+	@Test
+	public void testGetFragmentAfterLastChildAsc(){
+		String result = NodeDAOImpl.getFragmentAfterLastChild(NodeDAOImpl.N_NAME, Direction.ASC);
+		assertEquals(" AND (N.NAME > :bLastValue OR (N.NAME = :bLastValue AND N.ID > :bLastId))", result);
+	}
+	
+	@Test
+	public void testGetFragmentAfterLastChildDesc(){
+		String result = NodeDAOImpl.getFragmentAfterLastChild(NodeDAOImpl.N_CREATED_ON, Direction.DESC);
+		assertEquals(" AND (N.CREATED_ON < :bLastValue OR (N.CREATED_ON = :bLastValue AND N.ID < :bLastId))", result);
+	}
+	
 	@Test
 	public void testGetFragmentSortColumnNull(){
 		SortBy sortBy = null;
@@ -3528,7 +3788,7 @@ public class NodeDAOImplTest {
 		Direction sortDirection = Direction.ASC;
 		long limit = 10L;
 		long offset = 0L;
-		List<EntityHeader> results = nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+		List<EntityHeader> results = nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		assertNotNull(results);
 		assertTrue(results.isEmpty());
 	}
@@ -3543,7 +3803,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3557,7 +3817,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3571,7 +3831,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3585,7 +3845,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3599,7 +3859,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3613,7 +3873,7 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		assertThrows(IllegalArgumentException.class, ()->{
-			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+			nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		});
 	}
 	
@@ -3637,7 +3897,7 @@ public class NodeDAOImplTest {
 		Direction sortDirection = Direction.ASC;
 		long limit = 10L;
 		long offset = 0L;
-		List<EntityHeader> results = nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, sortBy, sortDirection, limit, offset);
+		List<EntityHeader> results = nodeDao.getChildren(parentId, includeTypes, childIdsToExclude, new EntityChildrenPageToken(sortBy, sortDirection, limit, offset));
 		assertNotNull(results);
 		assertEquals(1, results.size());
 		EntityHeader header = results.get(0);
@@ -3737,14 +3997,14 @@ public class NodeDAOImplTest {
 		long limit = 10L;
 		long offset = 0L;
 		// sort in descending order
-		List<EntityHeader> descendingResults = nodeDao.getChildren(parentId, includeTypes, null, sortBy, Direction.DESC, limit, offset);
+		List<EntityHeader> descendingResults = nodeDao.getChildren(parentId, includeTypes, null, new EntityChildrenPageToken(sortBy, Direction.DESC, limit, offset));
 		assertNotNull(descendingResults);
 		assertEquals(3, descendingResults.size());
 		assertEquals(folder3.getCreatedOn(), descendingResults.get(0).getCreatedOn());
 		assertEquals(folder2.getCreatedOn(), descendingResults.get(1).getCreatedOn());
 		assertEquals(folder1.getCreatedOn(), descendingResults.get(2).getCreatedOn());
 		// sort in ascending order
-		List<EntityHeader> ascendingResults = nodeDao.getChildren(parentId, includeTypes, null, sortBy, Direction.ASC, limit, offset);
+		List<EntityHeader> ascendingResults = nodeDao.getChildren(parentId, includeTypes, null, new EntityChildrenPageToken(sortBy, Direction.ASC, limit, offset));
 		assertNotNull(ascendingResults);
 		assertEquals(3, ascendingResults.size());
 		assertEquals(folder1.getCreatedOn(), ascendingResults.get(0).getCreatedOn());
@@ -3932,6 +4192,180 @@ public class NodeDAOImplTest {
 		});
 	}
 	
+	@Test
+	public void testGetChildrenPageAfterLastChild() throws Exception {
+		Node project = privateCreateNew("project");
+		project.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(project);
+		toDelete.add(projectId);
+		for (int i = 0; i < 7; i++) {
+			Node folder = privateCreateNew("folder" + (i % 3) + "-" + i);
+			folder.setNodeType(EntityType.folder);
+			folder.setParentId(projectId);
+			// some children share a creation time
+			folder.setCreatedOn(new Date(1000L * (i / 2)));
+			toDelete.add(nodeDao.createNew(folder));
+		}
+		List<EntityType> includeTypes = Lists.newArrayList(EntityType.folder);
+		Set<Long> childIdsToExclude = Sets.newHashSet(111L);
+		for (SortBy sortBy : SortBy.values()) {
+			for (Direction direction : Direction.values()) {
+				List<EntityHeader> expected = nodeDao.getChildren(projectId, includeTypes, childIdsToExclude,
+						new EntityChildrenPageToken(sortBy, direction, 10L, 0L));
+				assertEquals(8, expected.size(), "The limit for the query is one more than the page size");
+				expected.remove(7);
+				
+				List<EntityHeader> paged = new ArrayList<>();
+				EntityChildrenPageToken page = new EntityChildrenPageToken(sortBy, direction, 2L, 0L);
+				String nextPageToken;
+				do {
+					// call under test
+					List<EntityHeader> results = nodeDao.getChildren(projectId, includeTypes, childIdsToExclude, page);
+					nextPageToken = page.getNextPageTokenForCurrentResults(results);
+					paged.addAll(results);
+					if (nextPageToken != null) {
+						page = EntityChildrenPageToken.fromToken(nextPageToken, sortBy, direction);
+						assertNotNull(page.getLastId());
+						assertEquals(0L, page.getOffset());
+					}
+				} while (nextPageToken != null);
+				assertEquals(expected, paged, sortBy + " " + direction);
+			}
+		}
+	}
+	
+	@Test
+	public void testChildStatsMaintainedWithChanges() throws Exception {
+		S3FileHandle largerFileHandle = createTestFileHandle("Larger", creatorUserGroupId.toString(), TEST_FILE_SIZE * 3);
+		Node node = privateCreateNew("project");
+		node.setNodeType(EntityType.project);
+		String projectId = nodeDao.createNew(node);
+		toDelete.add(projectId);
+		node = privateCreateNew("folder");
+		node.setNodeType(EntityType.folder);
+		node.setParentId(projectId);
+		String folderId = nodeDao.createNew(node);
+		toDelete.add(folderId);
+		node = privateCreateNew("file");
+		node.setNodeType(EntityType.file);
+		node.setParentId(projectId);
+		node.setFileHandleId(fileHandle.getId());
+		node.setVersionLabel("1");
+		String fileId = nodeDao.createNew(node);
+		toDelete.add(fileId);
+		assertChildStatsMatchChildren(projectId);
+		
+		// new version with a larger file
+		Node file = nodeDao.getNode(fileId);
+		file.setVersionLabel("2");
+		file.setFileHandleId(largerFileHandle.getId());
+		nodeDao.createNewVersion(file);
+		assertChildStatsMatchChildren(projectId);
+		assertEquals(new ChildStatsResponse().withTotalChildCount(1L).withSumFileSizesBytes(TEST_FILE_SIZE * 3),
+				nodeDao.getChildrenStats(new ChildStatsRequest().withParentId(projectId)
+						.withIncludeTypes(Lists.newArrayList(EntityType.file)).withIncludeTotalChildCount(true)
+						.withIncludeSumFileSizes(true)));
+		
+		// move into the folder
+		file = nodeDao.getNode(fileId);
+		file.setParentId(folderId);
+		nodeDao.updateNode(file);
+		assertChildStatsMatchChildren(projectId);
+		assertChildStatsMatchChildren(folderId);
+		
+		// the first version becomes the current version
+		nodeDao.deleteVersion(fileId, 2L);
+		assertChildStatsMatchChildren(folderId);
+		
+		// a new file for the current version
+		nodeDao.updateRevisionFileHandle(fileId, 1L, largerFileHandle.getId());
+		assertChildStatsMatchChildren(folderId);
+		
+		nodeDao.delete(fileId);
+		assertChildStatsMatchChildren(folderId);
+		assertChildStatsMatchChildren(projectId);
+	}
+	
+	@Test
+	public void testRecomputeChildStats() throws Exception {
+		List<Node> nodes = createHierarchy();
+		String projectId = nodes.get(0).getId();
+		String folderOneId = nodes.get(2).getId();
+		// simulate children that were created before the statistics were maintained
+		migrationJdbcTemplate.update("DELETE FROM NODE_CHILD_STATS WHERE PARENT_ID IN (?, ?)",
+				KeyFactory.stringToKey(projectId), KeyFactory.stringToKey(folderOneId));
+		ChildStatsRequest request = new ChildStatsRequest().withParentId(projectId)
+				.withIncludeTypes(Lists.newArrayList(EntityType.file, EntityType.folder))
+				.withIncludeTotalChildCount(true).withIncludeSumFileSizes(true);
+		assertEquals(new ChildStatsResponse().withTotalChildCount(0L).withSumFileSizesBytes(0L),
+				nodeDao.getChildrenStats(request));
+		
+		Long lastParentId = 0L;
+		do {
+			// call under test
+			lastParentId = nodeDao.recomputeChildStats(lastParentId, 2);
+		} while (lastParentId != null);
+		
+		assertEquals(new ChildStatsResponse().withTotalChildCount(3L).withSumFileSizesBytes(TEST_FILE_SIZE),
+				nodeDao.getChildrenStats(request));
+		assertChildStatsMatchChildren(projectId);
+		assertChildStatsMatchChildren(folderOneId);
+	}
+	
+	@Test
+	public void testGetChildrenStatsWithChildStatsIncomplete() throws Exception {
+		List<Node> nodes = createHierarchy();
+		String projectId = nodes.get(0).getId();
+		String folderOneId = nodes.get(2).getId();
+		// statistics that have yet to be recomputed
+		migrationJdbcTemplate.update("DELETE FROM NODE_CHILD_STATS WHERE PARENT_ID = ?", KeyFactory.stringToKey(projectId));
+		backfillStatusDao.setIncomplete(BackfillType.NODE_CHILD_STATS);
+		
+		// call under test
+		ChildStatsResponse results = nodeDao.getChildrenStats(new ChildStatsRequest().withParentId(projectId)
+				.withIncludeTypes(Lists.newArrayList(EntityType.file, EntityType.folder))
+				.withChildIdsToExclude(Sets.newHashSet(KeyFactory.stringToKey(folderOneId), 111L))
+				.withIncludeTotalChildCount(true).withIncludeSumFileSizes(true));
+		
+		// aggregated over the children
+		assertEquals(new ChildStatsResponse().withTotalChildCount(2L).withSumFileSizesBytes(TEST_FILE_SIZE), results);
+	}
+	
+	@Test
+	public void testRemoveChildStatsWithoutStats() throws Exception {
+		List<Node> nodes = createHierarchy();
+		String projectId = nodes.get(0).getId();
+		String fileZeroId = nodes.get(3).getId();
+		// a child created before the statistics were maintained
+		migrationJdbcTemplate.update("DELETE FROM NODE_CHILD_STATS WHERE PARENT_ID = ?", KeyFactory.stringToKey(projectId));
+		
+		// call under test
+		nodeDao.delete(fileZeroId);
+		
+		assertEquals(0L, migrationJdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM NODE_CHILD_STATS WHERE CHILD_COUNT <= 0", Long.class));
+	}
+	
+	/**
+	 * The maintained statistics of each type of child must match an aggregate of
+	 * the children.
+	 */
+	private void assertChildStatsMatchChildren(String parentId) {
+		for (EntityType type : EntityType.values()) {
+			ChildStatsResponse expected = migrationJdbcTemplate.queryForObject(
+					"SELECT COUNT(*), COALESCE(SUM(F.CONTENT_SIZE), 0) FROM NODE N JOIN NODE_REVISION R"
+							+ " ON (N.ID = R.OWNER_NODE_ID AND N.CURRENT_REV_NUM = R.NUMBER)"
+							+ " LEFT JOIN FILES F ON (R.FILE_HANDLE_ID = F.ID) WHERE N.PARENT_ID = ? AND N.NODE_TYPE = ?",
+					(ResultSet rs, int rowNum) -> new ChildStatsResponse().withTotalChildCount(rs.getLong(1))
+							.withSumFileSizesBytes(rs.getLong(2)),
+					KeyFactory.stringToKey(parentId), type.name());
+			ChildStatsResponse stats = nodeDao.getChildrenStats(new ChildStatsRequest().withParentId(parentId)
+					.withIncludeTypes(Lists.newArrayList(type)).withIncludeTotalChildCount(true)
+					.withIncludeSumFileSizes(true));
+			assertEquals(expected, stats, type.name());
+		}
+	}
+	
 	@Test
 	public void testGetChildCount(){
 		List<Node> nodes = createHierarchy();
@@ -4437,6 +4871,72 @@ public class NodeDAOImplTest {
 		assertEquals(newNodeVersionAnnotations.getAnnotations(), retrievedNewVersion.getAnnotations());
 	}
 
+	@Test
+	public void testGetUserAnnotationsForCurrentVersions(){
+		Node node = nodeDao.createNewNode(privateCreateNew("testGetUserAnnotationsForCurrentVersions"));
+		String nodeId = node.getId();
+		toDelete.add(nodeId);
+		Node nodeTwo = nodeDao.createNewNode(privateCreateNew("testGetUserAnnotationsForCurrentVersionsTwo"));
+		toDelete.add(nodeTwo.getId());
+
+		Annotations oldNodeVersionAnnotations = new Annotations();
+		oldNodeVersionAnnotations.setAnnotations(Collections.singletonMap("myKey",
+				AnnotationsV2TestUtils.createNewValue(AnnotationsValueType.STRING, "version1Value")));
+		nodeDao.updateUserAnnotations(nodeId, oldNodeVersionAnnotations);
+		node.setVersionComment("Comment "+2);
+		node.setVersionLabel("2");
+		nodeDao.createNewVersion(node);
+		Annotations newNodeVersionAnnotations = new Annotations();
+		newNodeVersionAnnotations.setAnnotations(Collections.singletonMap("myKey",
+				AnnotationsV2TestUtils.createNewValue(AnnotationsValueType.STRING, "version2Value")));
+		nodeDao.updateUserAnnotations(nodeId, newNodeVersionAnnotations);
+
+		// call under test
+		List<Annotations> results = nodeDao.getUserAnnotationsForCurrentVersions(Arrays.asList(
+				KeyFactory.stringToKey(nodeId), KeyFactory.stringToKey(nodeTwo.getId()), Long.MAX_VALUE));
+
+		Map<String, Annotations> byId = results.stream().collect(Collectors.toMap(Annotations::getId, a -> a));
+		// the missing node has no annotations.
+		assertEquals(2, byId.size());
+		assertEquals(newNodeVersionAnnotations.getAnnotations(), byId.get(nodeId).getAnnotations());
+		assertEquals(NodeConstants.ZERO_E_TAG, byId.get(nodeId).getEtag());
+		assertEquals(nodeDao.getUserAnnotationsForVersion(nodeTwo.getId(), nodeTwo.getVersionNumber()), byId.get(nodeTwo.getId()));
+	}
+
+	@Test
+	public void testGetUserAnnotationsForCurrentVersionsEmpty(){
+		// call under test
+		assertEquals(Collections.emptyList(), nodeDao.getUserAnnotationsForCurrentVersions(Collections.emptyList()));
+	}
+
+	@Test
+	public void testGetNodes(){
+		Node node = nodeDao.createNewNode(privateCreateNew("testGetNodes"));
+		toDelete.add(node.getId());
+		Node nodeTwo = nodeDao.createNewNode(privateCreateNew("testGetNodesTwo"));
+		toDelete.add(nodeTwo.getId());
+		nodeTwo.setVersionComment("Comment "+2);
+		nodeTwo.setVersionLabel("2");
+		Long newVersion = nodeDao.createNewVersion(nodeTwo);
+
+		// call under test
+		List<Node> results = nodeDao.getNodes(Arrays.asList(
+				KeyFactory.stringToKey(node.getId()), KeyFactory.stringToKey(nodeTwo.getId()), Long.MAX_VALUE));
+
+		Map<String, Node> byId = results.stream().collect(Collectors.toMap(Node::getId, n -> n));
+		// the missing node is not returned and each node is at its current version.
+		assertEquals(2, byId.size());
+		assertEquals(nodeDao.getNode(node.getId()), byId.get(node.getId()));
+		assertEquals(nodeDao.getNode(nodeTwo.getId()), byId.get(nodeTwo.getId()));
+		assertEquals(newVersion, byId.get(nodeTwo.getId()).getVersionNumber());
+	}
+
+	@Test
+	public void testGetNodesEmpty(){
+		// call under test
+		assertEquals(Collections.emptyList(), nodeDao.getNodes(Collections.emptyList()));
+	}
+
 	@Test
 	public void testEntityPropertiesRoundTrip(){
 
@@ -0,0 +1,75 @@
+package org.sagebionetworks.repo.model.dbo.dao.backfill;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration("classpath:jdomodels-test-context.xml")
+public class BackfillStatusDaoImplTest {
+
+	@Autowired
+	private BackfillStatusDao dao;
+
+	@BeforeEach
+	public void before() {
+		dao.truncateAll();
+	}
+
+	@AfterEach
+	public void after() {
+		dao.truncateAll();
+	}
+
+	@Test
+	public void testIsCompleteWithNoRow() {
+		// Call under test
+		assertFalse(dao.isComplete(BackfillType.NODE_ANCESTOR));
+	}
+
+	@Test
+	public void testStartBackfillAndSetComplete() {
+		String etag = dao.startBackfill(BackfillType.NODE_ANCESTOR);
+		// A second start keeps the etag
+		assertEquals(etag, dao.startBackfill(BackfillType.NODE_ANCESTOR));
+		assertFalse(dao.isComplete(BackfillType.NODE_ANCESTOR));
+
+		// Call under test
+		assertTrue(dao.setComplete(BackfillType.NODE_ANCESTOR, etag));
+
+		assertTrue(dao.isComplete(BackfillType.NODE_ANCESTOR));
+	}
+
+	@Test
+	public void testSetCompleteWithSetIncompleteAfterStart() {
+		String etag = dao.startBackfill(BackfillType.NODE_ANCESTOR);
+		dao.setIncomplete(BackfillType.NODE_ANCESTOR);
+
+		assertNotEquals(etag, dao.startBackfill(BackfillType.NODE_ANCESTOR));
+
+		// Call under test
+		assertFalse(dao.setComplete(BackfillType.NODE_ANCESTOR, etag));
+
+		assertFalse(dao.isComplete(BackfillType.NODE_ANCESTOR));
+	}
+
+	@Test
+	public void testSetIncompleteWithComplete() {
+		String etag = dao.startBackfill(BackfillType.NODE_ANCESTOR);
+		assertTrue(dao.setComplete(BackfillType.NODE_ANCESTOR, etag));
+
+		// Call under test
+		dao.setIncomplete(BackfillType.NODE_ANCESTOR);
+
+		assertFalse(dao.isComplete(BackfillType.NODE_ANCESTOR));
+	}
+}
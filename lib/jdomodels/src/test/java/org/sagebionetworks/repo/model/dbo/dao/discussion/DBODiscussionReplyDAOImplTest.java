@@ -32,6 +32,7 @@ import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.discussion.DiscussionFilter;
 import org.sagebionetworks.repo.model.discussion.DiscussionReplyBundle;
 import org.sagebionetworks.repo.model.discussion.DiscussionReplyOrder;
+import org.sagebionetworks.repo.model.discussion.DiscussionThreadBundle;
 import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
 import org.sagebionetworks.repo.model.discussion.Forum;
 import org.sagebionetworks.repo.model.jdo.NodeTestUtils;
@@ -326,6 +327,26 @@ public class DBODiscussionReplyDAOImplTest {
 		assertEquals(dto, returnedDto);
 	}
 
+	@Test
+	public void testThreadStatsCountedAsRepliesAreWritten() throws InterruptedException {
+		List<DiscussionReplyBundle> replies = createReplies(2, threadId);
+		DiscussionThreadBundle thread = threadDao.getThread(threadIdLong, DiscussionFilter.NO_FILTER);
+		assertEquals((Long) 2L, thread.getNumberOfReplies());
+		assertEquals(replies.get(1).getModifiedOn(), thread.getLastActivity());
+
+		Thread.sleep(1000);
+		DiscussionReplyBundle updated = replyDao.updateMessageKey(Long.parseLong(replies.get(0).getId()), UUID.randomUUID().toString());
+		thread = threadDao.getThread(threadIdLong, DiscussionFilter.NO_FILTER);
+		assertEquals(updated.getModifiedOn(), thread.getLastActivity());
+
+		// deleting a reply twice only counts once
+		replyDao.markReplyAsDeleted(Long.parseLong(replies.get(1).getId()));
+		replyDao.markReplyAsDeleted(Long.parseLong(replies.get(1).getId()));
+		thread = threadDao.getThread(threadIdLong, DiscussionFilter.NO_FILTER);
+		assertEquals((Long) 1L, thread.getNumberOfReplies());
+		assertEquals(replyDao.getThreadReplyStat(threadIdLong).getNumberOfReplies(), thread.getNumberOfReplies());
+	}
+
 	@Test
 	public void testGetThreadReplyStatsNoReplies() {
 		DiscussionThreadReplyStat stat = replyDao.getThreadReplyStat(threadIdLong);
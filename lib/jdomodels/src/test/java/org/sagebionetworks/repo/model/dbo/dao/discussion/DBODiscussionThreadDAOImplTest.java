@@ -508,6 +508,40 @@ public class DBODiscussionThreadDAOImplTest {
 		assertEquals(2L, threadDao.countThreadView(threadId2));
 	}
 
+	@Test
+	public void testUpdateThreadViewCountsFirstViewOfEachUser() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+
+		UserGroup user = new UserGroup();
+		user.setIsIndividual(true);
+		userId2 = userGroupDAO.create(user);
+
+		threadDao.updateThreadView(threadId, userId);
+		threadDao.updateThreadView(threadId, userId2);
+		threadDao.updateThreadView(threadId, userId2);
+
+		DiscussionThreadBundle thread = threadDao.getThread(threadId, DEFAULT_FILTER);
+		assertEquals((Long) 2L, thread.getNumberOfViews());
+		assertEquals((Long) 0L, thread.getNumberOfReplies());
+		assertEquals(threadDao.countThreadView(threadId), (long) thread.getNumberOfViews());
+	}
+
+	@Test
+	public void testUpdateThreadActiveAuthors() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		threadDao.updateThreadView(threadId, userId);
+		DiscussionThreadStat stat = new DiscussionThreadStat();
+		stat.setThreadId(threadId);
+		stat.setActiveAuthors(Arrays.asList(userId.toString(), "123456"));
+
+		threadDao.updateThreadActiveAuthors(Arrays.asList(stat));
+
+		DiscussionThreadBundle thread = threadDao.getThread(threadId, DEFAULT_FILTER);
+		assertEquals(new HashSet<String>(stat.getActiveAuthors()), new HashSet<String>(thread.getActiveAuthors()));
+		// the counted views are kept
+		assertEquals((Long) 1L, thread.getNumberOfViews());
+	}
+
 	@Test
 	public void testCountThreadViewForNonExistingThread() {
 		assertEquals(0L, threadDao.countThreadView(threadId));
@@ -531,6 +565,84 @@ public class DBODiscussionThreadDAOImplTest {
 		assertEquals(Arrays.asList(threadId, threadId2), threadDao.getAllThreadId(10L, 0L));
 	}
 
+	@Test
+	public void testGetThreadIdsAfter() {
+		assertTrue(threadDao.getThreadIdsAfter(-1L, 10L).isEmpty());
+
+		// create some threads
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		Long threadId2 = idGenerator.generateNewId(IdType.DISCUSSION_THREAD_ID);
+		threadDao.createThread(forumId, threadId2.toString(), "title", "messageKey2", userId);
+
+		assertEquals(Arrays.asList(threadId, threadId2), threadDao.getThreadIdsAfter(-1L, 10L));
+		assertEquals(Arrays.asList(threadId), threadDao.getThreadIdsAfter(-1L, 1L));
+		assertEquals(Arrays.asList(threadId2), threadDao.getThreadIdsAfter(threadId, 10L));
+		assertTrue(threadDao.getThreadIdsAfter(threadId2, 10L).isEmpty());
+	}
+
+	@Test
+	public void testGetThreadStats() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		assertFalse(threadDao.getThreadStats(threadId).isPresent());
+
+		threadDao.updateThreadView(threadId, userId);
+
+		DiscussionThreadStat stat = threadDao.getThreadStats(threadId).get();
+		assertEquals(threadId, stat.getThreadId());
+		assertEquals((Long) 1L, stat.getNumberOfViews());
+		assertEquals((Long) 0L, stat.getNumberOfReplies());
+		assertEquals(null, stat.getLastActivity());
+		assertEquals(null, stat.getActiveAuthors());
+	}
+
+	@Test
+	public void testCompareAndSetThreadStatsWithNoStats() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		DiscussionThreadStat stat = new DiscussionThreadStat();
+		stat.setThreadId(threadId);
+		stat.setNumberOfViews(2L);
+		stat.setNumberOfReplies(3L);
+		stat.setLastActivity(1600000000000L);
+		stat.setActiveAuthors(Arrays.asList(userId.toString()));
+
+		assertTrue(threadDao.compareAndSetThreadStats(null, stat));
+		assertEquals(stat, threadDao.getThreadStats(threadId).get());
+	}
+
+	@Test
+	public void testCompareAndSetThreadStatsWithCountedInTheMeantime() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		DiscussionThreadStat stat = new DiscussionThreadStat();
+		stat.setThreadId(threadId);
+		stat.setNumberOfViews(0L);
+		stat.setNumberOfReplies(0L);
+		// a view counted after the statistic was read
+		threadDao.updateThreadView(threadId, userId);
+
+		assertFalse(threadDao.compareAndSetThreadStats(null, stat));
+		assertEquals((Long) 1L, threadDao.getThreadStats(threadId).get().getNumberOfViews());
+	}
+
+	@Test
+	public void testCompareAndSetThreadStats() {
+		threadDao.createThread(forumId, threadId.toString(), "title", "messageKey", userId);
+		threadDao.updateThreadView(threadId, userId);
+		DiscussionThreadStat expected = threadDao.getThreadStats(threadId).get();
+		DiscussionThreadStat stat = new DiscussionThreadStat();
+		stat.setThreadId(threadId);
+		stat.setNumberOfViews(1L);
+		stat.setNumberOfReplies(0L);
+		stat.setLastActivity(1600000000000L);
+
+		assertTrue(threadDao.compareAndSetThreadStats(expected, stat));
+		assertEquals(stat, threadDao.getThreadStats(threadId).get());
+
+		// the statistic changed since expected was read
+		stat.setNumberOfViews(5L);
+		assertFalse(threadDao.compareAndSetThreadStats(expected, stat));
+		assertEquals((Long) 1L, threadDao.getThreadStats(threadId).get().getNumberOfViews());
+	}
+
 	@Test (expected = IllegalArgumentException.class)
 	public void testGetThreadCountForForumWithNullFilter() {
 		threadDao.getThreadCountForForum(forumIdLong, null);
@@ -0,0 +1,87 @@
+package org.sagebionetworks.repo.model.dbo.dao.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.sagebionetworks.repo.model.dao.table.ColumnModelDAO;
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Not a test of timing. Prints the time to read the schema of a table with
+ * every lookup missing the column model cache and with the cache warm. Only
+ * runs with the benchmark profile.
+ */
+@Tag("benchmark")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
+public class ColumnModelCacheBenchmarkTest {
+
+	private static final int COLUMN_COUNT = 100;
+	private static final int ITERATIONS = 1000;
+
+	@Autowired
+	ColumnModelDAO columnModelDao;
+	@Autowired
+	ColumnModelCache columnModelCache;
+
+	IdAndVersion idAndVersion;
+
+	@BeforeEach
+	public void before() {
+		List<ColumnModel> schema = new ArrayList<>(COLUMN_COUNT);
+		for (int i = 0; i < COLUMN_COUNT; i++) {
+			ColumnModel model = new ColumnModel();
+			model.setName("c" + i);
+			model.setColumnType(ColumnType.STRING);
+			model.setMaximumSize(50L);
+			schema.add(columnModelDao.createColumnModel(model));
+		}
+		idAndVersion = IdAndVersion.parse("syn123");
+		columnModelDao.bindColumnToObject(schema, idAndVersion);
+	}
+
+	@AfterEach
+	public void after() {
+		columnModelDao.truncateAllColumnData();
+	}
+
+	@Test
+	public void testCacheMissVersusHit() {
+		double miss = measure("cache miss", true);
+		double hit = measure("cache hit", false);
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", miss / hit));
+	}
+
+	/**
+	 * Read the schema repeatedly, print the average time per read and return it
+	 * in microseconds.
+	 */
+	double measure(String name, boolean clearCache) {
+		// warm up
+		assertEquals(COLUMN_COUNT, columnModelDao.getColumnModelsForObject(idAndVersion).size());
+		long nanos = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			if (clearCache) {
+				columnModelCache.clear();
+			}
+			long start = System.nanoTime();
+			assertEquals(COLUMN_COUNT, columnModelDao.getColumnModelsForObject(idAndVersion).size());
+			nanos += System.nanoTime() - start;
+		}
+		double perRead = nanos / 1000.0 / ITERATIONS;
+		System.out.println(String.format("%-16s %,10.1f us/read", name, perRead));
+		return perRead;
+	}
+}
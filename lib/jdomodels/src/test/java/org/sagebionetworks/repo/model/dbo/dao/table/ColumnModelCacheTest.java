@@ -0,0 +1,234 @@
+package org.sagebionetworks.repo.model.dbo.dao.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class ColumnModelCacheTest {
+
+	@Mock
+	Clock mockClock;
+
+	ColumnModelCache cache;
+	ColumnModel one;
+	IdAndVersion tableId;
+	IdAndVersion tableVersion;
+
+	@BeforeEach
+	public void before() {
+		cache = new ColumnModelCache(2, 2, 1000L, mockClock);
+		one = createColumn("1", "one");
+		tableId = IdAndVersion.parse("syn123");
+		tableVersion = IdAndVersion.parse("syn123.4");
+	}
+
+	ColumnModel createColumn(String id, String name) {
+		ColumnModel model = new ColumnModel();
+		model.setId(id);
+		model.setName(name);
+		model.setColumnType(ColumnType.STRING);
+		model.setMaximumSize(50L);
+		model.setEnumValues(new ArrayList<>(Arrays.asList("a", "b")));
+		return model;
+	}
+
+	@Test
+	public void testGetColumnModelMiss() {
+		// call under test
+		assertNull(cache.getColumnModel("1"));
+		assertEquals(0L, cache.getColumnModelHitCount());
+		assertEquals(1L, cache.getColumnModelMissCount());
+	}
+
+	@Test
+	public void testGetColumnModelHit() {
+		cache.putColumnModel(one);
+		// call under test
+		ColumnModel result = cache.getColumnModel("1");
+		assertEquals(one, result);
+		assertNotSame(one, result);
+		assertEquals(1L, cache.getColumnModelHitCount());
+		assertEquals(0L, cache.getColumnModelMissCount());
+	}
+
+	@Test
+	public void testColumnModelCopies() {
+		cache.putColumnModel(one);
+		// changes to the original or a returned copy must not change the cache.
+		one.getEnumValues().add("c");
+		cache.getColumnModel("1").setName("changed");
+		// call under test
+		ColumnModel result = cache.getColumnModel("1");
+		assertEquals("one", result.getName());
+		assertEquals(Arrays.asList("a", "b"), result.getEnumValues());
+	}
+
+	@Test
+	public void testColumnModelEviction() {
+		cache.putColumnModel(one);
+		cache.putColumnModel(createColumn("2", "two"));
+		// make one the most recently used.
+		cache.getColumnModel("1");
+		// call under test
+		cache.putColumnModel(createColumn("3", "three"));
+		assertEquals(2, cache.getColumnModelCount());
+		assertNull(cache.getColumnModel("2"));
+		assertEquals(one, cache.getColumnModel("1"));
+	}
+
+	@Test
+	public void testRemoveColumnModel() {
+		cache.putColumnModel(one);
+		// call under test
+		cache.removeColumnModel("1");
+		assertNull(cache.getColumnModel("1"));
+	}
+
+	@Test
+	public void testPutColumnModelWithNullId() {
+		one.setId(null);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cache.putColumnModel(one);
+		});
+	}
+
+	@Test
+	public void testDisabled() {
+		cache = new ColumnModelCache(0, 0, 1000L, mockClock);
+		cache.putColumnModel(one);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		assertNull(cache.getColumnModel("1"));
+		assertNull(cache.getSchema(tableId, "etag"));
+		assertEquals(0, cache.getColumnModelCount());
+		assertEquals(0, cache.getSchemaCount());
+	}
+
+	@Test
+	public void testNegativeSize() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ColumnModelCache(-1, 1, 1000L, mockClock);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ColumnModelCache(1, -1, 1000L, mockClock);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new ColumnModelCache(1, 1, -1L, mockClock);
+		});
+	}
+
+	@Test
+	public void testGetSchema() {
+		List<String> ids = new ArrayList<>(Arrays.asList("3", "1"));
+		cache.putSchema(tableId, "etag", ids);
+		// changes to the original list must not change the cache.
+		ids.add("2");
+		// call under test
+		assertEquals(Arrays.asList("3", "1"), cache.getSchema(tableId, "etag"));
+		assertNull(cache.getSchema(tableVersion, "etag"));
+		assertEquals(1L, cache.getSchemaHitCount());
+		assertEquals(1L, cache.getSchemaMissCount());
+	}
+
+	@Test
+	public void testGetSchemaWithNewEtag() {
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		assertNull(cache.getSchema(tableId, "newEtag"));
+		assertEquals(0L, cache.getSchemaHitCount());
+		assertEquals(1L, cache.getSchemaMissCount());
+	}
+
+	@Test
+	public void testGetSchemaUnmodifiable() {
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		assertThrows(UnsupportedOperationException.class, () -> {
+			cache.getSchema(tableId, "etag").add("2");
+		});
+	}
+
+	@Test
+	public void testGetRecentlyCheckedSchema() {
+		when(mockClock.currentTimeMillis()).thenReturn(5000L, 5999L);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		assertEquals(Arrays.asList("1"), cache.getRecentlyCheckedSchema(tableId));
+		assertNull(cache.getRecentlyCheckedSchema(tableVersion));
+		assertEquals(1L, cache.getSchemaHitCount());
+		assertEquals(0L, cache.getSchemaMissCount());
+	}
+
+	@Test
+	public void testGetRecentlyCheckedSchemaAfterWindow() {
+		when(mockClock.currentTimeMillis()).thenReturn(5000L, 6000L);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		assertNull(cache.getRecentlyCheckedSchema(tableId));
+	}
+
+	@Test
+	public void testGetSchemaRestartsWindow() {
+		when(mockClock.currentTimeMillis()).thenReturn(5000L, 6500L, 7000L);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// the etag is checked after the window.
+		assertEquals(Arrays.asList("1"), cache.getSchema(tableId, "etag"));
+		// call under test
+		assertEquals(Arrays.asList("1"), cache.getRecentlyCheckedSchema(tableId));
+	}
+
+	@Test
+	public void testGetRecentlyCheckedSchemaWithZeroWindow() {
+		cache = new ColumnModelCache(2, 2, 0L, mockClock);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		assertNull(cache.getRecentlyCheckedSchema(tableId));
+	}
+
+	@Test
+	public void testGetRecentlyCheckedSchemaAfterRemove() {
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		cache.removeSchemas(123L);
+		// call under test
+		assertNull(cache.getRecentlyCheckedSchema(tableId));
+	}
+
+	@Test
+	public void testRemoveSchemas() {
+		IdAndVersion otherTable = IdAndVersion.parse("syn456");
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		cache.putSchema(tableVersion, "etag", Arrays.asList("2"));
+		// call under test
+		cache.removeSchemas(123L);
+		assertEquals(0, cache.getSchemaCount());
+		cache.putSchema(otherTable, "etag", Arrays.asList("1"));
+		cache.removeSchemas(123L);
+		assertEquals(Arrays.asList("1"), cache.getSchema(otherTable, "etag"));
+	}
+
+	@Test
+	public void testClear() {
+		cache.putColumnModel(one);
+		cache.putSchema(tableId, "etag", Arrays.asList("1"));
+		// call under test
+		cache.clear();
+		assertEquals(0, cache.getColumnModelCount());
+		assertEquals(0, cache.getSchemaCount());
+	}
+}
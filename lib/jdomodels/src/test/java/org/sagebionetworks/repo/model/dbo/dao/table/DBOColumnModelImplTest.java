@@ -131,10 +131,17 @@ public class DBOColumnModelImplTest {
 		ids.add(three.getId());
 		ids.add(one.getId());
 		List<ColumnModel> list = columnModelDao.getColumnModels(ids);
-		assertNotNull(list);
-		assertEquals(2, list.size());
-		assertTrue(list.contains(one));
-		assertTrue(list.contains(three));
+		assertEquals(Lists.newArrayList(three, one), list);
+	}
+	
+	@Test
+	public void testGetListWithCachedAndDuplicate() throws DatastoreException, NotFoundException{
+		// one is cached and three is loaded from the database.
+		columnModelDao.getColumnModel(one.getId());
+		List<String> ids = Lists.newArrayList(three.getId(), one.getId(), three.getId());
+		// call under test
+		List<ColumnModel> list = columnModelDao.getColumnModels(ids);
+		assertEquals(Lists.newArrayList(three, one), list);
 	}
 	
 	@Test
@@ -256,6 +263,29 @@ public class DBOColumnModelImplTest {
 		assertEquals(vOneExpected, vOneResults);
 	}
 	
+	@Test
+	public void testGetColumnModelsForObjectAfterRebind() {
+		columnModelDao.bindColumnToObject(Lists.newArrayList(one, two), idAndVersion);
+		// the first read caches the schema.
+		assertEquals(Lists.newArrayList(one, two), columnModelDao.getColumnModelsForObject(idAndVersion));
+		assertEquals(Lists.newArrayList(one, two), columnModelDao.getColumnModelsForObject(idAndVersion));
+		assertEquals(2L, columnModelDao.getColumnModelCountForObject(idAndVersion));
+		// the new binding changes the owner etag.
+		columnModelDao.bindColumnToObject(Lists.newArrayList(three, two, one), idAndVersion);
+		// call under test
+		assertEquals(Lists.newArrayList(three, two, one), columnModelDao.getColumnModelsForObject(idAndVersion));
+		assertEquals(Lists.newArrayList(three.getId(), two.getId(), one.getId()), columnModelDao.getColumnModelIdsForObject(idAndVersion));
+		assertEquals(3L, columnModelDao.getColumnModelCountForObject(idAndVersion));
+	}
+	
+	@Test
+	public void testGetColumnModelReturnsCopy() {
+		ColumnModel fetched = columnModelDao.getColumnModel(one.getId());
+		fetched.setName("changed");
+		// call under test
+		assertEquals(one, columnModelDao.getColumnModel(one.getId()));
+	}
+	
 	@Test
 	public void testUnbindColumnsAndDeleteOwner() throws DatastoreException, NotFoundException {
 		// Now bind one column
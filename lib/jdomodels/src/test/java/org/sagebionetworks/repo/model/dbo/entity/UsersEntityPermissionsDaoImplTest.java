@@ -25,6 +25,8 @@ import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.UserGroup;
 import org.sagebionetworks.repo.model.UserGroupDAO;
 import org.sagebionetworks.repo.model.dbo.dao.DataTypeDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
 import org.sagebionetworks.repo.model.helper.AccessControlListObjectHelper;
 import org.sagebionetworks.repo.model.helper.DaoObjectHelper;
 import org.sagebionetworks.repo.model.jdo.KeyFactory;
@@ -59,6 +61,9 @@ public class UsersEntityPermissionsDaoImplTest {
 	@Autowired
 	private AccessControlListObjectHelper aclHelper;
 
+	@Autowired
+	private BackfillStatusDao backfillStatusDao;
+
 	@Autowired
 	UsersEntityPermissionsDao entityPermissionDao;
 
@@ -104,6 +109,7 @@ public class UsersEntityPermissionsDaoImplTest {
 	public void after() {
 		aclDao.truncateAll();
 		dataTypeDao.truncateAllData();
+		backfillStatusDao.truncateAll();
 		nodeDao.truncateAll();
 		if (userOneId != null) {
 			userGroupDAO.delete(userOneId.toString());
@@ -256,6 +262,32 @@ public class UsersEntityPermissionsDaoImplTest {
 		assertEquals(expected, results);
 	}
 
+	@Test
+	public void testGetEntityPermissionsWithAclOnFolderAndAncestorsComplete() {
+		setupNodeHierarchy(userOneId);
+		backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR,
+				backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR));
+		List<Long> entityIds = Arrays.asList(fileId, folderId, projectId);
+		aclHelper.create((a) -> {
+			a.setId(project.getId());
+			a.getResourceAccess().add(createResourceAccess(userOneId, ACCESS_TYPE.READ));
+		});
+		aclHelper.create((a) -> {
+			a.setId(folder.getId());
+			a.getResourceAccess().add(createResourceAccess(userOneId, ACCESS_TYPE.DOWNLOAD));
+		});
+		// call under test
+		List<UserEntityPermissionsState> results = entityPermissionDao.getEntityPermissions(userOneGroups, entityIds);
+		List<UserEntityPermissionsState> expected = Arrays.asList(
+				createExpectedState(file).withBenefactorId(folderId).withHasDownload(true).withDoesEntityExist(true),
+				createExpectedState(folder).withBenefactorId(folderId).withHasDownload(true).withDoesEntityExist(true),
+				createExpectedState(project).withBenefactorId(projectId).withHasRead(true).withDoesEntityExist(true));
+		assertEquals(expected, results);
+		// the same permissions are found by walking the hierarchy
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		assertEquals(expected, entityPermissionDao.getEntityPermissions(userOneGroups, entityIds));
+	}
+
 	@Test
 	public void testGetEntityPermissionsWithAclOnProject() {
 		setupNodeHierarchy(userOneId);
@@ -0,0 +1,71 @@
+package org.sagebionetworks.repo.model.dbo.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.Team;
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
+import org.sagebionetworks.repo.model.dbo.dao.TeamUtils;
+import org.sagebionetworks.repo.model.dbo.persistence.DBOTeam;
+import org.sagebionetworks.repo.model.jdo.BlobEncoding;
+import org.sagebionetworks.repo.model.jdo.JDOSecondaryPropertyUtils;
+
+public class BlobReencodingTableTranslationTest {
+
+	Team team;
+	DBOTeam dbo;
+
+	@BeforeEach
+	public void before() {
+		team = new Team();
+		team.setId("123");
+		team.setEtag("etag");
+		team.setName("Some team");
+		team.setDescription("Some description");
+		team.setCreatedOn(new Date(1000L));
+		team.setCanPublicJoin(false);
+		dbo = new DBOTeam();
+		TeamUtils.copyDtoToDbo(team, dbo);
+	}
+
+	@Test
+	public void testCreateDatabaseObjectFromBackupWithLegacyBlob() throws IOException {
+		byte[] current = dbo.getProperties();
+		UnmodifiableXStream xStream = UnmodifiableXStream.builder().allowTypes(Team.class).build();
+		dbo.setProperties(JDOSecondaryPropertyUtils.compressObject(xStream, team, BlobEncoding.XML_GZIP));
+		// call under test
+		DBOTeam restored = dbo.getTranslator().createDatabaseObjectFromBackup(dbo);
+		assertEquals(BlobEncoding.of(current), BlobEncoding.of(restored.getProperties()));
+		assertEquals(team, TeamUtils.copyDboToDto(restored));
+	}
+
+	@Test
+	public void testCreateDatabaseObjectFromBackupWithCurrentBlob() {
+		byte[] current = dbo.getProperties();
+		// call under test
+		DBOTeam restored = dbo.getTranslator().createDatabaseObjectFromBackup(dbo);
+		assertSame(current, restored.getProperties());
+	}
+
+	@Test
+	public void testCreateDatabaseObjectFromBackupWithNullBlob() {
+		dbo.setProperties(null);
+		// call under test
+		DBOTeam restored = dbo.getTranslator().createDatabaseObjectFromBackup(dbo);
+		assertNull(restored.getProperties());
+	}
+
+	@Test
+	public void testCreateBackupFromDatabaseObject() {
+		byte[] current = dbo.getProperties();
+		// call under test
+		DBOTeam backup = dbo.getTranslator().createBackupFromDatabaseObject(dbo);
+		assertSame(current, backup.getProperties());
+	}
+}
@@ -497,6 +497,16 @@ public class ColumnModelUtilsTest {
 		assertEquals(normalized, clone);
 	}
 	
+	@Test
+	public void testReencodeBytesThroughTranslator() {
+		DBOColumnModel dbo = ColumnModelUtils.createDBOFromDTO(original, StackConfigurationSingleton.singleton().getTableMaxEnumValues());
+		ColumnModel expected = ColumnModelUtils.createDTOFromDBO(dbo);
+		// call under test
+		DBOColumnModel restored = dbo.getTranslator().createDatabaseObjectFromBackup(dbo);
+		assertEquals(expected, ColumnModelUtils.createDTOFromDBO(restored));
+		assertNull(ColumnModelUtils.reencodeBytes(null));
+	}
+	
 	
 	@Test
 	public void testSchemaChangeToFromGzip() throws IOException{
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertNotNull;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -577,6 +578,92 @@ public class PrincipalPrefixDAOImplTest {
 		assertEquals(3, results.size());
 	}
 	
+	@Test
+	public void testListEntries() {
+		principalPrefixDao.addPrincipalAlias("b", principalOne);
+		principalPrefixDao.addPrincipalAlias("a", principalTwo);
+		principalPrefixDao.addPrincipalAlias("a", principalOne);
+		principalPrefixDao.addPrincipalAlias("c", teamAllId);
+		List<PrincipalPrefixEntry> expected = Arrays.asList(
+				new PrincipalPrefixEntry("a", principalOne, true, false),
+				new PrincipalPrefixEntry("a", principalTwo, true, false),
+				new PrincipalPrefixEntry("b", principalOne, true, false),
+				new PrincipalPrefixEntry("c", teamAllId, false, true));
+		// call under test
+		assertEquals(expected, principalPrefixDao.listEntries(null, 10L));
+		// pages start after the last entry of the previous page
+		assertEquals(expected.subList(0, 1), principalPrefixDao.listEntries(null, 1L));
+		assertEquals(expected.subList(1, 3), principalPrefixDao.listEntries(expected.get(0), 2L));
+		assertEquals(expected.subList(3, 4), principalPrefixDao.listEntries(expected.get(2), 2L));
+		assertEquals(Collections.emptyList(), principalPrefixDao.listEntries(expected.get(3), 2L));
+	}
+
+	@Test
+	public void testGetEntries() {
+		principalPrefixDao.addPrincipalAlias("b", principalOne);
+		principalPrefixDao.addPrincipalAlias("a", principalOne);
+		principalPrefixDao.addPrincipalAlias("a", principalTwo);
+		principalPrefixDao.addPrincipalAlias("rzNotATeam", nonTeamUserGroupId);
+		List<PrincipalPrefixEntry> expected = Arrays.asList(
+				new PrincipalPrefixEntry("a", principalOne, true, false),
+				new PrincipalPrefixEntry("b", principalOne, true, false),
+				new PrincipalPrefixEntry("rznotateam", nonTeamUserGroupId, false, false));
+		// call under test
+		assertEquals(expected, principalPrefixDao.getEntries(new HashSet<>(Arrays.asList(principalOne, nonTeamUserGroupId))));
+		assertEquals(Collections.emptyList(), principalPrefixDao.getEntries(Collections.emptySet()));
+	}
+
+	/**
+	 * The index built from the table must answer the same as the table.
+	 */
+	@Test
+	public void testIndexConsistentWithTable() {
+		addDefaultAlias();
+		// principals with more than one token
+		principalPrefixDao.addPrincipalName("Ruby", "Roman", romaneId);
+		principalPrefixDao.addPrincipalName("Rome", "Team", teamOddId);
+		PrincipalPrefixIndex index = buildIndex();
+		for (String prefix : new String[] { "", "#$%", "r", "Ro", "rom", "roman", "ru", "rub", "rubi", "rt", "rTeam", "rteamo", "x" }) {
+			assertEquals(principalPrefixDao.listPrincipalsForPrefix(prefix, 1000L, 0L),
+					index.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.ALL, 1000L, 0L));
+			assertEquals(principalPrefixDao.listPrincipalsForPrefix(prefix, true, 1000L, 0L),
+					index.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.INDIVIDUALS, 1000L, 0L));
+			assertEquals(principalPrefixDao.listPrincipalsForPrefix(prefix, false, 1000L, 0L),
+					index.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.GROUPS, 1000L, 0L));
+			assertEquals(principalPrefixDao.listTeamsForPrefix(prefix, 1000L, 0L),
+					index.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.TEAMS, 1000L, 0L));
+			for (long offset = 0; offset < 12; offset++) {
+				assertEquals(principalPrefixDao.listPrincipalsForPrefix(prefix, 2L, offset),
+						index.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.ALL, 2L, offset));
+			}
+			for (Long teamId : new Long[] { teamAllId, teamEvenId, teamOddId }) {
+				Set<Long> memberIds = groupMembersDAO.getMemberIds(teamId);
+				// the table does not order the members of a team by token
+				assertEquals(new HashSet<>(principalPrefixDao.listTeamMembersForPrefix(prefix, teamId, 1000L, 0L)),
+						new HashSet<>(index.listPrincipalsForPrefix(prefix, memberIds, 1000L, 0L)));
+				assertEquals(principalPrefixDao.countTeamMembersForPrefix(prefix, teamId),
+						Long.valueOf(index.countPrincipalsForPrefix(prefix, memberIds)));
+			}
+		}
+	}
+
+	/**
+	 * Build an index from the table using small pages.
+	 */
+	private PrincipalPrefixIndex buildIndex() {
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		PrincipalPrefixEntry last = null;
+		List<PrincipalPrefixEntry> page;
+		do {
+			page = principalPrefixDao.listEntries(last, 3L);
+			for (PrincipalPrefixEntry entry : page) {
+				builder.add(entry);
+				last = entry;
+			}
+		} while (!page.isEmpty());
+		return builder.build();
+	}
+
 	/**
 	 * Add default alias to all named principals.
 	 */
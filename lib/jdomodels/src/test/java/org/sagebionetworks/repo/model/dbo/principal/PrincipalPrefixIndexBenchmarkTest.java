@@ -0,0 +1,150 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntSupplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.Type;
+
+/**
+ * Not a test of timing. Prints the time to build a prefix index of a million
+ * principals with three tokens each, the heap it uses, and the time per
+ * typeahead page for prefixes of one to four characters, with and without
+ * principals waiting in the overlay, and for the members of small and large
+ * teams. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class PrincipalPrefixIndexBenchmarkTest {
+
+	private static final int PRINCIPAL_COUNT = 1_000_000;
+	private static final long WARM_UP_MS = 200;
+	private static final long MEASURE_MS = 1000;
+	private static final long PAGE_SIZE = 10L;
+	private static final String[] PREFIXES = { "j", "jo", "joh", "john" };
+
+	@Test
+	public void testQueries() {
+		Random random = new Random(123);
+		System.gc();
+		long heapBefore = usedHeap();
+		List<PrincipalPrefixEntry> entries = createEntries(random);
+		long start = System.nanoTime();
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		entries.forEach(builder::add);
+		PrincipalPrefixIndex index = builder.build();
+		long buildMs = (System.nanoTime() - start) / 1000_000L;
+		entries = null;
+		builder = null;
+		System.gc();
+		long heapAfter = usedHeap();
+		assertTrue(index.getTokenCount() > PRINCIPAL_COUNT * 2);
+		System.out.println(String.format("%,d principals %,d tokens built in %,d ms using about %,d KB of heap",
+				PRINCIPAL_COUNT, index.getTokenCount(), buildMs, (heapAfter - heapBefore) / 1024));
+
+		for (String prefix : PREFIXES) {
+			measure("prefix " + prefix, () -> index.listPrincipalsForPrefix(prefix, Type.ALL, PAGE_SIZE, 0L).size());
+			measure("users " + prefix, () -> index.listPrincipalsForPrefix(prefix, Type.INDIVIDUALS, PAGE_SIZE, 0L).size());
+			measure("page 10 " + prefix, () -> index.listPrincipalsForPrefix(prefix, Type.ALL, PAGE_SIZE, 100L).size());
+		}
+
+		// the changes of about a day wait in the overlay
+		Map<Long, List<PrincipalPrefixEntry>> changes = new HashMap<>();
+		while (changes.size() < PrincipalPrefixIndex.MAX_OVERLAY_PRINCIPALS) {
+			long principalId = random.nextInt(PRINCIPAL_COUNT);
+			changes.put(principalId, new ArrayList<>(createPrincipal(random, principalId)));
+		}
+		index.replacePrincipals(changes);
+		for (String prefix : PREFIXES) {
+			measure("overlay prefix " + prefix, () -> index.listPrincipalsForPrefix(prefix, Type.ALL, PAGE_SIZE, 0L).size());
+		}
+
+		for (int teamSize : new int[] { 100, 10_000, 200_000 }) {
+			Set<Long> members = new HashSet<>(teamSize);
+			while (members.size() < teamSize) {
+				members.add((long) random.nextInt(PRINCIPAL_COUNT));
+			}
+			for (String prefix : new String[] { "", "j", "john" }) {
+				measure(String.format("team %,d \"%s\"", teamSize, prefix),
+						() -> index.listPrincipalsForPrefix(prefix, members, PAGE_SIZE, 0L).size());
+			}
+			measure(String.format("team %,d count j", teamSize), () -> (int) index.countPrincipalsForPrefix("j", members));
+		}
+	}
+
+	/**
+	 * Run the given query repeatedly and print the average time per query.
+	 */
+	void measure(String name, IntSupplier query) {
+		runFor(WARM_UP_MS, query);
+		long start = System.nanoTime();
+		long[] counts = runFor(MEASURE_MS, query);
+		long elapsed = System.nanoTime() - start;
+		assertTrue(counts[0] > 0);
+		System.out.println(String.format("%-24s %,10d us/query %,6d results", name, elapsed / counts[0] / 1000L,
+				counts[1] / counts[0]));
+	}
+
+	/**
+	 * @return The number of queries run and the total number of results.
+	 */
+	private static long[] runFor(long millis, IntSupplier query) {
+		long end = System.nanoTime() + millis * 1000_000L;
+		long[] counts = new long[2];
+		do {
+			counts[1] += query.getAsInt();
+			counts[0]++;
+		} while (System.nanoTime() < end);
+		return counts;
+	}
+
+	/**
+	 * A user name and both orders of a first and last name for each principal,
+	 * sorted as they are read from the table.
+	 */
+	static List<PrincipalPrefixEntry> createEntries(Random random) {
+		TreeSet<PrincipalPrefixEntry> sorted = new TreeSet<>(PrincipalPrefixIndex.ENTRY_ORDER);
+		for (long principalId = 0; principalId < PRINCIPAL_COUNT; principalId++) {
+			sorted.addAll(createPrincipal(random, principalId));
+		}
+		return new ArrayList<>(sorted);
+	}
+
+	static Set<PrincipalPrefixEntry> createPrincipal(Random random, long principalId) {
+		boolean isTeam = principalId % 50 == 0;
+		String first = randomName(random);
+		String last = randomName(random);
+		Set<PrincipalPrefixEntry> entries = new HashSet<>();
+		entries.add(new PrincipalPrefixEntry(first + last + principalId, principalId, !isTeam, isTeam));
+		entries.add(new PrincipalPrefixEntry(first + last, principalId, !isTeam, isTeam));
+		entries.add(new PrincipalPrefixEntry(last + first, principalId, !isTeam, isTeam));
+		return entries;
+	}
+
+	/**
+	 * Names skewed towards common starts, like real names.
+	 */
+	private static String randomName(Random random) {
+		String[] starts = { "john", "jo", "ja", "ma", "mi", "sa", "an", "da", "ch", "el", "ro", "ke" };
+		StringBuilder name = new StringBuilder(starts[Math.min(starts.length - 1, (int) Math.abs(random.nextGaussian() * 4))]);
+		int length = 2 + random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			name.append((char) ('a' + random.nextInt(26)));
+		}
+		return name.toString();
+	}
+
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,271 @@
+package org.sagebionetworks.repo.model.dbo.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex.Type;
+
+public class PrincipalPrefixIndexTest {
+
+	private static final long USER_ONE = 1L;
+	private static final long USER_TWO = 2L;
+	private static final long USER_THREE = 3L;
+	private static final long GROUP = 4L;
+	private static final long TEAM = 5L;
+
+	private PrincipalPrefixIndex index;
+
+	@BeforeEach
+	public void before() {
+		index = new PrincipalPrefixIndex.Builder()
+				.add(user("batman", USER_ONE))
+				.add(user("batwoman", USER_TWO))
+				.add(user("brucewayne", USER_ONE))
+				.add(team("justiceleague", TEAM))
+				.add(group("publicgroup", GROUP))
+				.add(user("waynebruce", USER_ONE))
+				.add(user("waynekane", USER_THREE))
+				.build();
+	}
+
+	@Test
+	public void testListPrincipalsForPrefix() {
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO), index.listPrincipalsForPrefix("bat", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(USER_TWO), index.listPrincipalsForPrefix("batw", Type.ALL, 10L, 0L));
+		// each principal is listed once, at its first matching token
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO), index.listPrincipalsForPrefix("b", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(USER_ONE, USER_THREE), index.listPrincipalsForPrefix("wayne", Type.ALL, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("x", Type.ALL, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("batmanandrobin", Type.ALL, 10L, 0L));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixPreProcessed() {
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix(" Bruce-W", Type.ALL, 10L, 0L));
+		// no alpha-numerics matches everything
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO, TEAM, GROUP, USER_THREE),
+				index.listPrincipalsForPrefix("#$%", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO, TEAM, GROUP, USER_THREE),
+				index.listPrincipalsForPrefix(null, Type.ALL, 10L, 0L));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixType() {
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO, USER_THREE), index.listPrincipalsForPrefix("", Type.INDIVIDUALS, 10L, 0L));
+		assertEquals(Arrays.asList(TEAM, GROUP), index.listPrincipalsForPrefix("", Type.GROUPS, 10L, 0L));
+		assertEquals(Arrays.asList(TEAM), index.listPrincipalsForPrefix("", Type.TEAMS, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("p", Type.TEAMS, 10L, 0L));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixPaging() {
+		assertEquals(Arrays.asList(USER_ONE, USER_TWO), index.listPrincipalsForPrefix("", Type.ALL, 2L, 0L));
+		assertEquals(Arrays.asList(TEAM, GROUP), index.listPrincipalsForPrefix("", Type.ALL, 2L, 2L));
+		assertEquals(Arrays.asList(USER_THREE), index.listPrincipalsForPrefix("", Type.ALL, 2L, 4L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("", Type.ALL, 2L, 6L));
+		assertEquals(Arrays.asList(USER_THREE), index.listPrincipalsForPrefix("", Type.INDIVIDUALS, 2L, 2L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("", Type.ALL, 0L, 0L));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixWithPrincipalIds() {
+		Set<Long> members = new HashSet<>(Arrays.asList(USER_ONE, USER_THREE, 99L));
+		assertEquals(Arrays.asList(USER_ONE, USER_THREE), index.listPrincipalsForPrefix("", members, 10L, 0L));
+		assertEquals(Arrays.asList(USER_THREE), index.listPrincipalsForPrefix("", members, 10L, 1L));
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix("", members, 1L, 0L));
+		assertEquals(Arrays.asList(USER_ONE, USER_THREE), index.listPrincipalsForPrefix("wayne", members, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("bat", Collections.singleton(USER_THREE), 10L, 0L));
+		assertEquals(2L, index.countPrincipalsForPrefix("", members));
+		assertEquals(1L, index.countPrincipalsForPrefix("b", members));
+		assertEquals(0L, index.countPrincipalsForPrefix("x", members));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixWithManyPrincipalIds() {
+		// more principals than matching tokens are filtered while reading the tokens
+		Set<Long> members = new HashSet<>();
+		for (long id = 0; id < 100; id++) {
+			if (id != USER_TWO) {
+				members.add(id);
+			}
+		}
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix("bat", members, 10L, 0L));
+		assertEquals(Arrays.asList(USER_ONE, TEAM, GROUP, USER_THREE), index.listPrincipalsForPrefix("", members, 10L, 0L));
+		assertEquals(Arrays.asList(GROUP, USER_THREE), index.listPrincipalsForPrefix("", members, 10L, 2L));
+		assertEquals(1L, index.countPrincipalsForPrefix("bat", members));
+		assertEquals(4L, index.countPrincipalsForPrefix("", members));
+	}
+
+	@Test
+	public void testReplacePrincipals() {
+		Map<Long, List<PrincipalPrefixEntry>> changes = new HashMap<>();
+		changes.put(USER_ONE, Arrays.asList(user("robin", USER_ONE), user("dickgrayson", USER_ONE)));
+		changes.put(USER_THREE, Collections.emptyList());
+		changes.put(6L, Arrays.asList(user("batgirl", 6L)));
+		// call under test
+		index.replacePrincipals(changes);
+		assertEquals(Arrays.asList(6L, USER_TWO), index.listPrincipalsForPrefix("bat", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix("dick", Type.ALL, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("wayne", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(6L, USER_TWO, USER_ONE, TEAM, GROUP), index.listPrincipalsForPrefix("", Type.ALL, 10L, 0L));
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix("", Collections.singleton(USER_ONE), 10L, 0L));
+		assertEquals(0L, index.countPrincipalsForPrefix("", Collections.singleton(USER_THREE)));
+		assertEquals(6, index.getTokenCount());
+
+		// a principal can change again
+		index.replacePrincipals(Collections.singletonMap(USER_ONE, Arrays.asList(user("batman", USER_ONE))));
+		assertEquals(Arrays.asList(6L, USER_ONE, USER_TWO), index.listPrincipalsForPrefix("bat", Type.ALL, 10L, 0L));
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("robin", Type.ALL, 10L, 0L));
+		assertEquals(5, index.getTokenCount());
+	}
+
+	@Test
+	public void testReplacePrincipalsWithOtherPrincipal() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			index.replacePrincipals(Collections.singletonMap(USER_ONE, Arrays.asList(user("robin", USER_TWO))));
+		});
+	}
+
+	@Test
+	public void testBuilderOutOfOrder() {
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder().add(user("b", USER_TWO));
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add(user("a", USER_ONE));
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add(user("b", USER_ONE));
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			builder.add(user("b", USER_TWO));
+		});
+	}
+
+	@Test
+	public void testBuilderNotPreProcessed() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new PrincipalPrefixIndex.Builder().add(user("zürich", USER_ONE));
+		});
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		index = new PrincipalPrefixIndex();
+		assertEquals(Collections.emptyList(), index.listPrincipalsForPrefix("", Type.ALL, 10L, 0L));
+		assertEquals(0L, index.countPrincipalsForPrefix("", Collections.singleton(USER_ONE)));
+		index.replacePrincipals(Collections.singletonMap(USER_ONE, Arrays.asList(user("batman", USER_ONE))));
+		assertEquals(Arrays.asList(USER_ONE), index.listPrincipalsForPrefix("b", Type.ALL, 10L, 0L));
+		assertEquals(1, index.getTokenCount());
+	}
+
+	/**
+	 * Random changes, enough to merge the changes into the arrays more than once,
+	 * must give the same answers as a plain sorted set of the same tokens.
+	 */
+	@Test
+	public void testReplacePrincipalsRandom() {
+		Random random = new Random(42);
+		int principalCount = PrincipalPrefixIndex.MAX_OVERLAY_PRINCIPALS * 2;
+		Map<Long, List<PrincipalPrefixEntry>> expected = new HashMap<>();
+		TreeSet<PrincipalPrefixEntry> sorted = new TreeSet<>(PrincipalPrefixIndex.ENTRY_ORDER);
+		for (long id = 0; id < principalCount; id++) {
+			List<PrincipalPrefixEntry> entries = randomEntries(random, id);
+			expected.put(id, entries);
+			sorted.addAll(entries);
+		}
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		sorted.forEach(builder::add);
+		index = builder.build();
+		for (int round = 0; round < 15; round++) {
+			Map<Long, List<PrincipalPrefixEntry>> changes = new HashMap<>();
+			for (int i = 0; i < 1000; i++) {
+				long id = random.nextInt(principalCount + 100);
+				changes.put(id, randomEntries(random, id));
+			}
+			index.replacePrincipals(changes);
+			expected.putAll(changes);
+			for (String prefix : new String[] { "", "a", "b", "ab", "ba", "aab", "bbba" }) {
+				assertEquals(expectedPrincipals(expected, prefix, Type.ALL, null),
+						index.listPrincipalsForPrefix(prefix, Type.ALL, Long.MAX_VALUE, 0L));
+				assertEquals(expectedPrincipals(expected, prefix, Type.TEAMS, null),
+						index.listPrincipalsForPrefix(prefix, Type.TEAMS, Long.MAX_VALUE, 0L));
+				// few members are looked up by principal, many are filtered while reading the tokens
+				int memberCount = prefix.length() > 2 ? 5000 : 50;
+				Set<Long> members = new HashSet<>();
+				for (int i = 0; i < memberCount; i++) {
+					members.add((long) random.nextInt(principalCount));
+				}
+				List<Long> expectedMembers = expectedPrincipals(expected, prefix, Type.ALL, members);
+				assertEquals(expectedMembers, index.listPrincipalsForPrefix(prefix, members, Long.MAX_VALUE, 0L));
+				assertEquals(expectedMembers.size(), index.countPrincipalsForPrefix(prefix, members));
+			}
+		}
+		int tokenCount = 0;
+		for (List<PrincipalPrefixEntry> entries : expected.values()) {
+			tokenCount += entries.size();
+		}
+		assertEquals(tokenCount, index.getTokenCount());
+	}
+
+	private static List<PrincipalPrefixEntry> randomEntries(Random random, long id) {
+		boolean isTeam = id % 7 == 0;
+		List<PrincipalPrefixEntry> entries = new ArrayList<>();
+		int count = random.nextInt(4);
+		Set<String> tokens = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			StringBuilder token = new StringBuilder();
+			int length = 1 + random.nextInt(6);
+			for (int c = 0; c < length; c++) {
+				token.append(random.nextBoolean() ? 'a' : 'b');
+			}
+			if (tokens.add(token.toString())) {
+				entries.add(new PrincipalPrefixEntry(token.toString(), id, !isTeam, isTeam));
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * The principals matching the prefix, found by sorting all the tokens.
+	 */
+	private static List<Long> expectedPrincipals(Map<Long, List<PrincipalPrefixEntry>> entries, String prefix, Type type,
+			Set<Long> principalIds) {
+		TreeSet<PrincipalPrefixEntry> sorted = new TreeSet<>(PrincipalPrefixIndex.ENTRY_ORDER);
+		for (List<PrincipalPrefixEntry> principalEntries : entries.values()) {
+			for (PrincipalPrefixEntry entry : principalEntries) {
+				if (entry.getToken().startsWith(prefix) && (type != Type.TEAMS || entry.isTeam())
+						&& (principalIds == null || principalIds.contains(entry.getPrincipalId()))) {
+					sorted.add(entry);
+				}
+			}
+		}
+		Set<Long> principals = new LinkedHashSet<>();
+		sorted.forEach(entry -> principals.add(entry.getPrincipalId()));
+		return new ArrayList<>(principals);
+	}
+
+	private static PrincipalPrefixEntry user(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, true, false);
+	}
+
+	private static PrincipalPrefixEntry group(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, false, false);
+	}
+
+	private static PrincipalPrefixEntry team(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, false, true);
+	}
+}
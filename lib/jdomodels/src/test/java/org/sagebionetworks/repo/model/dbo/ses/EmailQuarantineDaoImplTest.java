@@ -5,6 +5,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,6 +22,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.google.common.collect.ImmutableSet;
+
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(locations = { "classpath:jdomodels-test-context.xml" })
 public class EmailQuarantineDaoImplTest {
@@ -384,6 +388,40 @@ public class EmailQuarantineDaoImplTest {
 		
 		assertFalse(dao.isQuarantined(testEmail));
 	}
+	
+	@Test
+	public void testGetQuarantinedEmails() throws Exception {
+		Long timeout = 50L;
+		
+		dao.addToQuarantine(new QuarantinedEmailBatch()
+				.add(getTestQuarantinedEmail())
+				.add(getTestQuarantinedEmail("other@test.com", EmailQuarantineReason.PERMANENT_BOUNCE)));
+		
+		dao.addToQuarantine(new QuarantinedEmailBatch()
+				.withExpirationTimeout(timeout)
+				.add(getTestQuarantinedEmail("expired@test.com", EmailQuarantineReason.TRANSIENT_BOUNCE)));
+		
+		Thread.sleep(timeout * 2);
+		
+		// Call under test
+		
+		assertEquals(ImmutableSet.of(testEmail, "Other@Test.com"), 
+				dao.getQuarantinedEmails(Arrays.asList(testEmail, "Other@Test.com", "expired@test.com", "notquarantined@test.com")));
+	}
+	
+	@Test
+	public void testGetQuarantinedEmailsWithEmpty() {
+		// Call under test
+		assertEquals(Collections.emptySet(), dao.getQuarantinedEmails(Collections.emptyList()));
+	}
+	
+	@Test
+	public void testGetQuarantinedEmailsWithBlank() {
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {			
+			// Call under test
+			dao.getQuarantinedEmails(Arrays.asList(testEmail, " "));
+		});
+	}
 
 	private QuarantinedEmail getTestQuarantinedEmail() {
 		return getTestQuarantinedEmail(testEmail, EmailQuarantineReason.PERMANENT_BOUNCE);
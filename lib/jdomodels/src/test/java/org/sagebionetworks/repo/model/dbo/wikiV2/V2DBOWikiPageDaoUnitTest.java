@@ -5,15 +5,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,6 +37,7 @@ import org.sagebionetworks.repo.model.dbo.DatabaseObject;
 import org.sagebionetworks.repo.model.dbo.TableMapping;
 import org.sagebionetworks.repo.model.dbo.file.FileHandleDao;
 import org.sagebionetworks.repo.model.file.FileHandle;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.repo.model.message.MessageToSend;
 import org.sagebionetworks.repo.model.message.TransactionalMessenger;
@@ -41,6 +47,9 @@ import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+
 @ExtendWith(MockitoExtension.class)
 public class V2DBOWikiPageDaoUnitTest {
 	
@@ -65,6 +74,9 @@ public class V2DBOWikiPageDaoUnitTest {
 	@Mock
 	private FileHandleDao fileMetadataDao;	
 	
+	@Mock
+	private WikiMarkdownCache markdownCache;
+	
 	@InjectMocks
 	private V2DBOWikiPageDaoImpl wikiPageDao;
 	
@@ -245,5 +257,75 @@ public class V2DBOWikiPageDaoUnitTest {
 		assertEquals(ChangeType.DELETE, messageToSendCaptor.getValue().getChangeType());
 		
 	}
+	
+	/**
+	 * Setup the queries needed to get the current version of the wiki.
+	 */
+	private WikiPageKey setupGetWiki() {
+		when(jdbcTemplate.queryForObject("SELECT ROOT_WIKI_ID FROM V2_WIKI_OWNERS WHERE OWNER_ID = ? AND OWNER_OBJECT_TYPE = ?", 
+				Long.class, OWNER_ID, "ENTITY")).thenReturn(WIKI_ID);
+		V2DBOWikiPage dbo = new V2DBOWikiPage();
+		dbo.setId(WIKI_ID);
+		dbo.setCreatedBy(USER_ID);
+		dbo.setModifiedBy(USER_ID);
+		dbo.setMarkdownVersion(MARKDOWN_VERSION);
+		when(jdbcTemplate.query(eq("SELECT * FROM V2_WIKI_PAGE WHERE ID = ? AND ROOT_ID = ?"), 
+				(TableMapping<V2DBOWikiPage>)any(TableMapping.class), eq(WIKI_ID), eq(WIKI_ID))).
+				thenReturn(Collections.singletonList(dbo));
+		V2DBOWikiMarkdown dboMarkdown = new V2DBOWikiMarkdown();
+		dboMarkdown.setWikiId(WIKI_ID);
+		dboMarkdown.setMarkdownVersion(MARKDOWN_VERSION);
+		dboMarkdown.setFileHandleId(FILE_HANDLE_ID);
+		dboMarkdown.setAttachmentIdList(new byte[] {});
+		dboMarkdown.setModifiedBy(USER_ID);
+		when(jdbcTemplate.query(eq("SELECT * FROM V2_WIKI_MARKDOWN WHERE WIKI_ID = ? AND MARKDOWN_VERSION = ?"),
+				(TableMapping<V2DBOWikiMarkdown>)any(TableMapping.class), eq(WIKI_ID), eq(MARKDOWN_VERSION))).
+				thenReturn(Collections.singletonList(dboMarkdown));
+		WikiPageKey pageKey = new WikiPageKey();
+		pageKey.setOwnerObjectId(OWNER_ID.toString());
+		pageKey.setOwnerObjectType(ObjectType.ENTITY);
+		pageKey.setWikiPageId(WIKI_ID.toString());
+		return pageKey;
+	}
+	
+	@Test
+	public void testGetMarkdownCached() throws Exception {
+		WikiPageKey pageKey = setupGetWiki();
+		when(markdownCache.get(FILE_HANDLE_ID.toString())).thenReturn("cached markdown");
+		
+		// method under test
+		String markdown = wikiPageDao.getMarkdown(pageKey, null);
+		
+		assertEquals("cached markdown", markdown);
+		verify(fileMetadataDao, never()).get(any());
+		verify(s3Client, never()).getObject(any(String.class), any(String.class));
+		verify(markdownCache, never()).put(any(), any());
+	}
+	
+	@Test
+	public void testGetMarkdownNotCached() throws Exception {
+		WikiPageKey pageKey = setupGetWiki();
+		when(markdownCache.get(FILE_HANDLE_ID.toString())).thenReturn(null);
+		S3FileHandle handle = new S3FileHandle();
+		handle.setBucketName("bucket");
+		handle.setKey("key");
+		when(fileMetadataDao.get(FILE_HANDLE_ID.toString())).thenReturn(handle);
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(zipped)) {
+			out.write("some markdown".getBytes(StandardCharsets.UTF_8));
+		}
+		S3Object s3Object = new S3Object();
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentType("text/plain; charset=utf-8");
+		s3Object.setObjectMetadata(metadata);
+		s3Object.setObjectContent(new ByteArrayInputStream(zipped.toByteArray()));
+		when(s3Client.getObject("bucket", "key")).thenReturn(s3Object);
+		
+		// method under test
+		String markdown = wikiPageDao.getMarkdown(pageKey, null);
+		
+		assertEquals("some markdown", markdown);
+		verify(markdownCache).put(FILE_HANDLE_ID.toString(), "some markdown");
+	}
 
 }
@@ -0,0 +1,118 @@
+package org.sagebionetworks.repo.model.dbo.wikiV2;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class WikiMarkdownCacheTest {
+
+	String markdownOne;
+	String markdownTwo;
+	String markdownThree;
+	long entryBytes;
+
+	@BeforeEach
+	public void before() {
+		markdownOne = "one markdown";
+		markdownTwo = "two markdown";
+		markdownThree = "333 markdown";
+		entryBytes = WikiMarkdownCache.estimateSize(markdownOne);
+	}
+
+	@Test
+	public void testPutAndGet() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes * 10);
+		// call under test
+		assertNull(cache.get("1"));
+		cache.put("1", markdownOne);
+		assertEquals(markdownOne, cache.get("1"));
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(entryBytes, cache.getCurrentBytes());
+		assertEquals(1, cache.getSize());
+	}
+
+	@Test
+	public void testPutReplace() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes * 10);
+		cache.put("1", markdownOne);
+		// call under test
+		cache.put("1", "a");
+		assertEquals("a", cache.get("1"));
+		assertEquals(WikiMarkdownCache.estimateSize("a"), cache.getCurrentBytes());
+	}
+
+	@Test
+	public void testEvictLeastRecentlyUsed() {
+		// room for exactly four entries.
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes * 4);
+		cache.put("1", markdownOne);
+		cache.put("2", markdownTwo);
+		cache.put("3", markdownThree);
+		cache.put("4", markdownOne);
+		// touch one so two becomes the least recently used.
+		cache.get("1");
+		// call under test
+		cache.put("5", markdownTwo);
+		assertNull(cache.get("2"));
+		assertEquals(markdownOne, cache.get("1"));
+		assertEquals(markdownThree, cache.get("3"));
+		assertEquals(markdownTwo, cache.get("5"));
+		assertEquals(1L, cache.getEvictionCount());
+		assertEquals(entryBytes * 4, cache.getCurrentBytes());
+	}
+
+	@Test
+	public void testPutTooLarge() {
+		// a single entry may only use a quarter of the cache.
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes * 4 - 1);
+		// call under test
+		cache.put("1", markdownOne);
+		assertNull(cache.get("1"));
+		assertEquals(0L, cache.getCurrentBytes());
+	}
+
+	@Test
+	public void testDisabled() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(0L);
+		// call under test
+		cache.put("1", markdownOne);
+		assertNull(cache.get("1"));
+	}
+
+	@Test
+	public void testClear() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes * 10);
+		cache.put("1", markdownOne);
+		// call under test
+		cache.clear();
+		assertNull(cache.get("1"));
+		assertEquals(0L, cache.getCurrentBytes());
+	}
+
+	@Test
+	public void testNegativeMax() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new WikiMarkdownCache(-1L);
+		});
+	}
+
+	@Test
+	public void testGetNullId() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cache.get(null);
+		});
+	}
+
+	@Test
+	public void testPutNullMarkdown() {
+		WikiMarkdownCache cache = new WikiMarkdownCache(entryBytes);
+		assertThrows(IllegalArgumentException.class, () -> {
+			cache.put("1", null);
+		});
+	}
+}
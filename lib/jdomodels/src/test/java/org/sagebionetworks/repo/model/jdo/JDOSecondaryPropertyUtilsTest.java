@@ -3,12 +3,15 @@ package org.sagebionetworks.repo.model.jdo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.util.Map;
 import java.util.Objects;
 
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.repo.model.Annotations;
 import org.sagebionetworks.repo.model.UnmodifiableXStream;
@@ -47,6 +50,94 @@ public class JDOSecondaryPropertyUtilsTest {
 		assertEquals(test, JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, bytes));
 	}
 
+	@Test
+	public void roundTripEachEncoding() throws IOException {
+		TestObject test = new TestObject(4,"5", 6L, new TestObject(1,"2", 3L, null));
+		for (BlobEncoding encoding : BlobEncoding.values()) {
+			byte[] bytes = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, test, encoding);
+			assertEquals(encoding, BlobEncoding.of(bytes));
+			// call under test
+			assertEquals(test, JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, bytes));
+		}
+	}
+
+	@Test
+	public void binaryHeaders() throws IOException {
+		TestObject small = new TestObject(1,"2", 3L, null);
+		byte[] bytes = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, small, BlobEncoding.BINARY);
+		assertEquals(BlobEncoding.BINARY_HEADER, bytes[0]);
+
+		TestObject large = createLargeObject();
+		bytes = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, large, BlobEncoding.BINARY);
+		assertEquals(BlobEncoding.DEFLATED_BINARY_HEADER, bytes[0]);
+		assertEquals(large, JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, bytes));
+	}
+
+	@Test
+	public void decompressObjectUnknownHeader() {
+		assertThrows(IOException.class, ()->{
+			JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, new byte[] {9, 1, 2});
+		});
+	}
+
+	@Test
+	public void decompressObjectEmpty() {
+		assertThrows(IOException.class, ()->{
+			JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, new byte[0]);
+		});
+	}
+
+	@Test
+	public void reencodeObject() throws IOException {
+		TestObject test = new TestObject(4,"5", 6L, null);
+		byte[] legacy = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, test, BlobEncoding.XML_GZIP);
+		// call under test
+		byte[] reencoded = JDOSecondaryPropertyUtils.reencodeObject(TEST_X_STREAM, legacy, BlobEncoding.BINARY);
+		assertEquals(BlobEncoding.BINARY, BlobEncoding.of(reencoded));
+		assertEquals(test, JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, reencoded));
+		// already in the target encoding
+		assertSame(reencoded, JDOSecondaryPropertyUtils.reencodeObject(TEST_X_STREAM, reencoded, BlobEncoding.BINARY));
+		assertNull(JDOSecondaryPropertyUtils.reencodeObject(TEST_X_STREAM, null, BlobEncoding.BINARY));
+	}
+
+	/**
+	 * Compares the size and speed of each encoding for a small and large object.
+	 * Only runs with the benchmark profile.
+	 */
+	@Tag("benchmark")
+	@Test
+	public void compareEncodings() throws IOException {
+		int iterations = 2000;
+		for (TestObject test : new TestObject[] { new TestObject(4, "a short value", 6L, null), createLargeObject() }) {
+			for (BlobEncoding encoding : BlobEncoding.values()) {
+				byte[] bytes = null;
+				long start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					bytes = JDOSecondaryPropertyUtils.compressObject(TEST_X_STREAM, test, encoding);
+				}
+				long encodeNanos = System.nanoTime() - start;
+				start = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					assertNotNull(JDOSecondaryPropertyUtils.decompressObject(TEST_X_STREAM, bytes));
+				}
+				long decodeNanos = System.nanoTime() - start;
+				System.out.println(String.format("%s bytes: %d encode: %d ns/op decode: %d ns/op", encoding, bytes.length,
+						encodeNanos / iterations, decodeNanos / iterations));
+			}
+		}
+	}
+
+	/**
+	 * A chain of objects large enough to be deflated by the binary encoding.
+	 */
+	static TestObject createLargeObject() {
+		TestObject large = null;
+		for (int i = 0; i < 50; i++) {
+			large = new TestObject(i, "value number " + i, i * 1000L, large);
+		}
+		return large;
+	}
+
 
 	static class TestObject{
 		int a;
@@ -1086,9 +1086,11 @@ public class SQLTranslatorUtils {
 	 * Create the SQL used to build a materialized view from a defining SQL query.
 	 * @param outputSQL The translated SQL
 	 * @param indexDescription
+	 * @param includeSourceRowIds True if the translated SQL selects the ROW_ID of
+	 *                            each source row after the benefactor columns.
 	 * @return
 	 */
-	public static String createMaterializedViewInsertSql(List<ColumnModel> schemaOfSelect, String outputSQL, IndexDescription indexDescription) {
+	public static String createMaterializedViewInsertSql(List<ColumnModel> schemaOfSelect, String outputSQL, IndexDescription indexDescription, boolean includeSourceRowIds) {
 		String tableName = SQLUtils.getTableNameForId(indexDescription.getIdAndVersion(), TableIndexType.INDEX);
 		StringJoiner joiner = new StringJoiner(",");
 		// start with the columns from the select
@@ -1099,6 +1101,12 @@ public class SQLTranslatorUtils {
 		for(BenefactorDescription benDesc: indexDescription.getBenefactors()) {
 			joiner.add(benDesc.getBenefactorColumnName());
 		}
+		// add the source row id columns as needed
+		if (includeSourceRowIds) {
+			for (String sourceRowIdColumnName : indexDescription.getSourceRowIdColumnNames()) {
+				joiner.add(sourceRowIdColumnName);
+			}
+		}
 		return String.format("INSERT INTO %s (%s) %s", tableName, joiner.toString(), outputSQL);
 	}
 }
@@ -27,6 +27,9 @@ import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ETAG;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ID;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_SEARCH_CONTENT;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_VERSION;
+import static org.sagebionetworks.repo.model.table.TableConstants.SOURCE_VERSIONS_COL_DEFINITION_HASH;
+import static org.sagebionetworks.repo.model.table.TableConstants.SOURCE_VERSIONS_COL_ROW_COUNT;
+import static org.sagebionetworks.repo.model.table.TableConstants.SOURCE_VERSIONS_COL_SOURCE_TABLE;
 import static org.sagebionetworks.repo.model.table.TableConstants.SQL_TABLE_VIEW_CRC_32_TEMPLATE;
 import static org.sagebionetworks.repo.model.table.TableConstants.STATUS_COL_SCHEMA_HASH;
 import static org.sagebionetworks.repo.model.table.TableConstants.STATUS_COL_SEARCH_ENABLED;
@@ -100,6 +103,9 @@ public class SQLUtils {
 	public static final String FILE_ID_BIND = "bFIds";
 	public static final String ROW_ID_BIND = "bRI";
 	public static final String ROW_VERSION_BIND = "bRV";
+	public static final String SOURCE_TABLE_BIND = "bST";
+	public static final String SCHEMA_HASH_BIND = "bSH";
+	public static final String DEFINITION_HASH_BIND = "bDH";
 	public static final String DEFAULT = "DEFAULT";
 	public static final String TABLE_PREFIX = "T";
 	public static final String COLUMN_PREFIX = "_C";
@@ -123,7 +129,19 @@ public class SQLUtils {
 		/**
 		 * Table tracking filehandles bound to a given table.
 		 */
-		FILE_IDS("F");
+		FILE_IDS("F"),
+		/**
+		 * Table tracking the distinct benefactors of a view. The table is a superset
+		 * of the benefactors currently in the view, so it can be used to limit the
+		 * benefactors that need to be checked when filtering a query.
+		 */
+		BENEFACTORS("B"),
+		/**
+		 * Table tracking the version of each source table last applied to a
+		 * materialized view, so the rows that changed since the view was built can be
+		 * found from the versions of the source rows.
+		 */
+		SOURCE_VERSIONS("R");
 
 		private final String tablePostFix;
 		private final Pattern tableNamePattern;
@@ -166,6 +184,17 @@ public class SQLUtils {
 		case FILE_IDS:
 			columnDefinitions.append(FILE_ID).append(" BIGINT NOT NULL PRIMARY KEY");
 			break;
+		case BENEFACTORS:
+			columnDefinitions.append(ROW_BENEFACTOR).append(" BIGINT NOT NULL PRIMARY KEY");
+			break;
+		case SOURCE_VERSIONS:
+			columnDefinitions.append(SOURCE_VERSIONS_COL_SOURCE_TABLE).append(" VARCHAR(50) NOT NULL PRIMARY KEY, ");
+			columnDefinitions.append(ROW_VERSION).append(" BIGINT NOT NULL, ");
+			columnDefinitions.append(ROW_ID).append(" BIGINT NOT NULL, ");
+			columnDefinitions.append(SOURCE_VERSIONS_COL_ROW_COUNT).append(" BIGINT NOT NULL, ");
+			columnDefinitions.append(STATUS_COL_SCHEMA_HASH).append(" CHAR(35) NOT NULL, ");
+			columnDefinitions.append(SOURCE_VERSIONS_COL_DEFINITION_HASH).append(" CHAR(32) NOT NULL");
+			break;
 		default:
 			throw new IllegalArgumentException("Cannot handle type " + type);
 		}
@@ -690,6 +719,134 @@ public class SQLUtils {
 	public static String createSQLGetDistinctValues(IdAndVersion tableId, String columnName){
 		return "SELECT DISTINCT "+columnName+" FROM "+getTableNameForId(tableId, TableIndexType.INDEX);
 	}
+	
+	/**
+	 * Select all of the benefactor IDs from a view's secondary benefactor table.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String createSQLGetViewBenefactors(IdAndVersion viewId){
+		return "SELECT "+ROW_BENEFACTOR+" FROM "+getTableNameForId(viewId, TableIndexType.BENEFACTORS);
+	}
+	
+	/**
+	 * Insert ignore the distinct benefactors currently in the view into the view's
+	 * secondary benefactor table.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String createSQLInsertIgnoreViewBenefactorsFromIndex(IdAndVersion viewId){
+		return "INSERT IGNORE INTO " + getTableNameForId(viewId, TableIndexType.BENEFACTORS) + " (" + ROW_BENEFACTOR
+				+ ") SELECT DISTINCT " + ROW_BENEFACTOR + " FROM " + getTableNameForId(viewId, TableIndexType.INDEX);
+	}
+	
+	/**
+	 * Delete the benefactors from a view's secondary benefactor table that are no
+	 * longer used by any row of the view.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String createSQLDeleteUnusedViewBenefactors(IdAndVersion viewId){
+		return "DELETE B FROM " + getTableNameForId(viewId, TableIndexType.BENEFACTORS) + " B WHERE NOT EXISTS (SELECT 1 FROM "
+				+ getTableNameForId(viewId, TableIndexType.INDEX) + " T WHERE T." + ROW_BENEFACTOR + " = B." + ROW_BENEFACTOR + ")";
+	}
+	
+	/**
+	 * Select the recorded hash of the definition of a materialized view.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String createSQLGetSourceVersionsDefinition(IdAndVersion viewId) {
+		return "SELECT " + SOURCE_VERSIONS_COL_DEFINITION_HASH + " FROM " + getTableNameForId(viewId, TableIndexType.SOURCE_VERSIONS)
+				+ " LIMIT 1";
+	}
+	
+	/**
+	 * Select the version, maximum row ID, row count and schema hash of a source
+	 * recorded for a materialized view.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String createSQLGetSourceVersion(IdAndVersion viewId) {
+		return "SELECT " + ROW_VERSION + ", " + ROW_ID + ", " + SOURCE_VERSIONS_COL_ROW_COUNT + ", " + STATUS_COL_SCHEMA_HASH
+				+ " FROM " + getTableNameForId(viewId, TableIndexType.SOURCE_VERSIONS) + " WHERE "
+				+ SOURCE_VERSIONS_COL_SOURCE_TABLE + " = :" + SOURCE_TABLE_BIND;
+	}
+	
+	/**
+	 * Record the current version, maximum row ID, row count and schema hash of a
+	 * source for a materialized view, along with the hash of the view's
+	 * definition.
+	 * 
+	 * @param viewId
+	 * @param sourceId
+	 * @return
+	 */
+	public static String createSQLRecordSourceVersion(IdAndVersion viewId, IdAndVersion sourceId) {
+		return "REPLACE INTO " + getTableNameForId(viewId, TableIndexType.SOURCE_VERSIONS) + " (" + SOURCE_VERSIONS_COL_SOURCE_TABLE
+				+ ", " + ROW_VERSION + ", " + ROW_ID + ", " + SOURCE_VERSIONS_COL_ROW_COUNT + ", " + STATUS_COL_SCHEMA_HASH + ", "
+				+ SOURCE_VERSIONS_COL_DEFINITION_HASH + ") SELECT :" + SOURCE_TABLE_BIND + ", :" + ROW_VERSION_BIND + ", COALESCE(MAX("
+				+ ROW_ID + "), -1), COUNT(" + ROW_ID + "), :" + SCHEMA_HASH_BIND + ", :" + DEFINITION_HASH_BIND + " FROM "
+				+ getTableNameForId(sourceId, TableIndexType.INDEX);
+	}
+	
+	/**
+	 * Select the IDs of the rows of a source table that were added or changed
+	 * after the given version, using the index on the version of the rows.
+	 * 
+	 * @param sourceId
+	 * @return
+	 */
+	public static String createSQLGetChangedSourceRowIds(IdAndVersion sourceId) {
+		return "SELECT " + ROW_ID + " FROM " + getTableNameForId(sourceId, TableIndexType.INDEX) + " WHERE " + ROW_VERSION
+				+ " > :" + ROW_VERSION_BIND + " LIMIT :" + P_LIMIT;
+	}
+	
+	/**
+	 * Select the IDs of the source rows that rows of a materialized view were built
+	 * from, that no longer exist in the source.
+	 * 
+	 * @param viewId
+	 * @param sourceId
+	 * @param sourceRowIdColumnName
+	 * @return
+	 */
+	public static String createSQLGetDeletedSourceRowIds(IdAndVersion viewId, IdAndVersion sourceId, String sourceRowIdColumnName) {
+		return "SELECT DISTINCT V." + sourceRowIdColumnName + " FROM " + getTableNameForId(viewId, TableIndexType.INDEX)
+				+ " V LEFT JOIN " + getTableNameForId(sourceId, TableIndexType.INDEX) + " S ON (S." + ROW_ID + " = V."
+				+ sourceRowIdColumnName + ") WHERE S." + ROW_ID + " IS NULL LIMIT :" + P_LIMIT;
+	}
+	
+	/**
+	 * Select the IDs of the rows of a materialized view that were built from the
+	 * source rows with the IDs bound to {@link #ROW_ID_BIND}.
+	 * 
+	 * @param viewId
+	 * @param sourceRowIdColumnName
+	 * @return
+	 */
+	public static String createSQLGetRowIdsForSourceRows(IdAndVersion viewId, String sourceRowIdColumnName) {
+		return "SELECT " + ROW_ID + " FROM " + getTableNameForId(viewId, TableIndexType.INDEX) + " WHERE "
+				+ sourceRowIdColumnName + " IN (:" + ROW_ID_BIND + ")";
+	}
+	
+	/**
+	 * Delete the rows of a materialized view that were built from the source rows
+	 * with the IDs bound to {@link #ROW_ID_BIND}.
+	 * 
+	 * @param viewId
+	 * @param sourceRowIdColumnName
+	 * @return
+	 */
+	public static String createSQLDeleteRowsForSourceRows(IdAndVersion viewId, String sourceRowIdColumnName) {
+		return "DELETE FROM " + getTableNameForId(viewId, TableIndexType.INDEX) + " WHERE " + sourceRowIdColumnName
+				+ " IN (:" + ROW_ID_BIND + ")";
+	}
 
 	/**
 	 * Create alter table SQL statements for the given set of column changes.
@@ -1440,6 +1597,27 @@ public class SQLUtils {
 		builder.append(", ").append(OBJECT_REPLICATION_ALIAS).append(".").append(OBJECT_REPLICATION_COL_OBJECT_VERSION);
 	}
 
+	/**
+	 * Generate the SQL to insert ignore the distinct benefactors of the objects
+	 * matching the given filter into the view's secondary benefactor table. This
+	 * uses the same filter as
+	 * {@link #createSelectInsertFromObjectReplication(Long, List, String)} so it
+	 * can be run before the rows are copied to the view.
+	 * 
+	 * @param viewId
+	 * @param filterSql
+	 * @return
+	 */
+	public static String createSQLInsertIgnoreViewBenefactorsFromObjectReplication(Long viewId, String filterSql) {
+		StringBuilder builder = new StringBuilder();
+		builder.append("INSERT IGNORE INTO ");
+		builder.append(getTableNameForId(IdAndVersion.newBuilder().setId(viewId).build(), TableIndexType.BENEFACTORS));
+		builder.append(" (").append(ROW_BENEFACTOR).append(") SELECT DISTINCT ");
+		builder.append(OBJECT_REPLICATION_ALIAS).append(".").append(OBJECT_REPLICATION_COL_BENEFACTOR_ID);
+		objectReplicationJoinAnnotationReplicationFilter(builder, filterSql);
+		return builder.toString();
+	}
+
 	private static void objectReplicationJoinAnnotationReplicationFilter(StringBuilder builder, String filterSql) {
 		builder.append(" FROM ");
 		builder.append(OBJECT_REPLICATION_TABLE);
@@ -2033,6 +2211,25 @@ public class SQLUtils {
 				+ ROW_BENEFACTOR + " = O." + OBJECT_REPLICATION_COL_BENEFACTOR_ID + " WHERE T." + ROW_BENEFACTOR
 				+ " <> O." + OBJECT_REPLICATION_COL_BENEFACTOR_ID, viewName);
 	}
+
+	/**
+	 * Generate the SQL to insert ignore the new benefactors that
+	 * {@link #generateSqlToRefreshViewBenefactors(IdAndVersion)} will apply to the
+	 * view into the view's secondary benefactor table.
+	 * 
+	 * @param viewId
+	 * @return
+	 */
+	public static String generateSqlToAddRefreshedViewBenefactors(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		String viewName = SQLUtils.getTableNameForId(viewId, TableIndexType.INDEX);
+		String benefactorTableName = SQLUtils.getTableNameForId(viewId, TableIndexType.BENEFACTORS);
+		return String.format("INSERT IGNORE INTO %1$s (" + ROW_BENEFACTOR + ") SELECT DISTINCT O."
+				+ OBJECT_REPLICATION_COL_BENEFACTOR_ID + " FROM %2$s T JOIN " + OBJECT_REPLICATION_TABLE + " O ON (T."
+				+ ROW_ID + " = O." + OBJECT_REPLICATION_COL_OBJECT_ID + " AND O." + OBJECT_REPLICATION_COL_OBJECT_TYPE
+				+ " = ?) WHERE T." + ROW_BENEFACTOR + " <> O." + OBJECT_REPLICATION_COL_BENEFACTOR_ID,
+				benefactorTableName, viewName);
+	}
 	
 	/**
 	 * Load a SQL string from the classpath.
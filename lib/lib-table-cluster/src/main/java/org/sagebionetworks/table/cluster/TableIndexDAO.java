@@ -24,6 +24,7 @@ import org.sagebionetworks.table.cluster.search.RowSearchContent;
 import org.sagebionetworks.table.cluster.search.TableRowData;
 import org.sagebionetworks.table.cluster.view.filter.ViewFilter;
 import org.sagebionetworks.table.model.Grouping;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.util.Callback;
 import org.sagebionetworks.util.csv.CSVWriterStream;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -228,6 +229,19 @@ public interface TableIndexDAO {
 	 */
 	Set<Long> getDistinctLongValues(IdAndVersion tableId, String columnIds);
 
+	/**
+	 * Get the distinct benefactor IDs for the given benefactor column of a table.
+	 * For a view's own benefactor column the IDs are read from the view's
+	 * secondary benefactor table, which is a superset of the benefactors currently
+	 * in the view. All other cases fall back to
+	 * {@link #getDistinctLongValues(IdAndVersion, String)}.
+	 * 
+	 * @param tableId
+	 * @param benefactorColumnName
+	 * @return
+	 */
+	Set<Long> getDistinctBenefactorIds(IdAndVersion tableId, String benefactorColumnName);
+
 	/**
 	 * Get list of Column ids for existing index tables a multi-value column in the
 	 * provided tableId 
@@ -575,6 +589,16 @@ public interface TableIndexDAO {
 	 */
 	void refreshViewBenefactors(IdAndVersion viewId, ReplicationType mainType);
 
+	/**
+	 * Remove the benefactors that are no longer used by any row of the given view
+	 * from the view's secondary benefactor table. The caller must hold the lock
+	 * that prevents concurrent changes to the view, since changes add their
+	 * benefactors before their rows.
+	 * 
+	 * @param viewId
+	 */
+	void deleteUnusedViewBenefactors(IdAndVersion viewId);
+
 	/**
 	 * Get a single page of IdAndChecksums from the replication table using the
 	 * provided filter.
@@ -663,5 +687,84 @@ public interface TableIndexDAO {
 	 * @param parameters
 	 */
 	void update(String string, Map<String, Object> parameters);
+	
+	/**
+	 * Get the hash of the definition of a materialized view that was recorded
+	 * along with the versions of its sources.
+	 * 
+	 * @param viewId
+	 * @return {@link Optional#empty()} if the versions of the sources of the view
+	 *         are not recorded.
+	 */
+	Optional<String> getMaterializedViewSourceVersionsDefinition(IdAndVersion viewId);
+	
+	/**
+	 * Replace the recorded versions of the sources of a materialized view with the
+	 * current version of each of the given source tables, and record the hash of
+	 * the view's definition.
+	 * 
+	 * @param viewId
+	 * @param definitionHash
+	 * @param sources
+	 */
+	void recordMaterializedViewSourceVersions(IdAndVersion viewId, String definitionHash, List<IndexDescription> sources);
+	
+	/**
+	 * Record the current version, maximum row ID, row count and schema of a
+	 * source table for the materialized view.
+	 * 
+	 * @param viewId
+	 * @param definitionHash
+	 * @param source
+	 */
+	void recordMaterializedViewSourceVersion(IdAndVersion viewId, String definitionHash, IndexDescription source);
+	
+	/**
+	 * Get the version of a source table that was recorded for the materialized
+	 * view.
+	 * 
+	 * @param viewId
+	 * @param source
+	 * @return {@link Optional#empty()} if the version of the source is not
+	 *         recorded.
+	 */
+	Optional<Long> getMaterializedViewSourceVersion(IdAndVersion viewId, IndexDescription source);
+	
+	/**
+	 * Get the rows of a source table that changed since its version was recorded
+	 * for the materialized view. The added and updated rows are found by their
+	 * version. Deleted rows are only looked for when the row count of the source
+	 * shows that rows were deleted, and only the deleted rows that rows of the view
+	 * were built from are returned.
+	 * 
+	 * @param viewId
+	 * @param source
+	 * @param limit  The maximum number of changed and deleted rows.
+	 * @return {@link Optional#empty()} if the version of the source is not
+	 *         recorded, the schema of the source changed or more than the limit of
+	 *         rows changed.
+	 */
+	Optional<SourceRowChanges> getMaterializedViewSourceRowChanges(IdAndVersion viewId, IndexDescription source, long limit);
+	
+	/**
+	 * Get the IDs of the rows of a materialized view that were built from the
+	 * given rows of a source.
+	 * 
+	 * @param viewId
+	 * @param source
+	 * @param sourceRowIds
+	 * @return
+	 */
+	Set<Long> getMaterializedViewRowIdsForSourceRows(IdAndVersion viewId, IndexDescription source, Set<Long> sourceRowIds);
+	
+	/**
+	 * Delete the rows of a materialized view that were built from the given rows
+	 * of a source.
+	 * 
+	 * @param viewId
+	 * @param source
+	 * @param sourceRowIds
+	 */
+	void deleteMaterializedViewRowsForSourceRows(IdAndVersion viewId, IndexDescription source, Set<Long> sourceRowIds);
 
 }
@@ -90,6 +90,8 @@ import org.sagebionetworks.repo.model.table.SubType;
 import org.sagebionetworks.repo.model.table.TableConstants;
 import org.sagebionetworks.table.cluster.SQLUtils.TableIndexType;
 import org.sagebionetworks.table.cluster.description.IndexDescription;
+import org.sagebionetworks.table.cluster.description.MaterializedViewIndexDescription;
+import org.sagebionetworks.table.cluster.description.ViewIndexDescription;
 import org.sagebionetworks.table.cluster.metadata.ObjectFieldModelResolver;
 import org.sagebionetworks.table.cluster.metadata.ObjectFieldModelResolverFactory;
 import org.sagebionetworks.table.cluster.metadata.ObjectFieldTypeMapper;
@@ -99,6 +101,7 @@ import org.sagebionetworks.table.cluster.search.TypedCellValue;
 import org.sagebionetworks.table.cluster.utils.TableModelUtils;
 import org.sagebionetworks.table.cluster.view.filter.ViewFilter;
 import org.sagebionetworks.table.model.Grouping;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.query.util.ColumnTypeListMappings;
 import org.sagebionetworks.util.Callback;
 import org.sagebionetworks.util.ValidateArgument;
@@ -219,6 +222,12 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 					+ " AND t1." + OBJECT_REPLICATION_COL_PROJECT_ID + " = t2." + OBJECT_REPLICATION_COL_OBJECT_ID
 					+ " ORDER BY t1.PROJECT_SIZE_BYTES DESC";
 	
+	private static final String SQL_COUNT_TABLES_WITH_NAME = "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+	/**
+	 * MySQL error code and SQL state of 'Table doesn't exist'.
+	 */
+	static final int MYSQL_ERROR_NO_SUCH_TABLE = 1146;
+	static final String SQL_STATE_NO_SUCH_TABLE = "42S02";
 	private static final String KEY_NAME = "Key_name";
 	private static final String COLUMN_NAME = "Column_name";
 	private static final String SHOW_INDEXES_FROM = "SHOW INDEXES FROM ";
@@ -307,7 +316,55 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		for(TableIndexType type: SQLUtils.SECONDARY_TYPES){
 			String dropStatusTableDML = SQLUtils.dropTableSQL(tableId, type);
 			template.update(dropStatusTableDML);
-		}	
+		}
+		// The benefactor table is only created for new views but is deleted with the other secondary tables.
+		template.update(SQLUtils.dropTableSQL(tableId, TableIndexType.BENEFACTORS));
+		// The source versions table is only created for materialized views that can be refreshed incrementally.
+		template.update(SQLUtils.dropTableSQL(tableId, TableIndexType.SOURCE_VERSIONS));
+	}
+	
+	/**
+	 * Does a table of the given type exist for the given table ID?
+	 * 
+	 * @param tableId
+	 * @param type
+	 * @return
+	 */
+	boolean doesTableExist(IdAndVersion tableId, TableIndexType type) {
+		String tableName = SQLUtils.getTableNameForId(tableId, type);
+		// An exact match since '_' is a wildcard for SHOW TABLES LIKE.
+		return template.queryForObject(SQL_COUNT_TABLES_WITH_NAME, Long.class, tableName) > 0L;
+	}
+	
+	/**
+	 * Run an update of a view's secondary benefactor table. Views built before the
+	 * benefactor table existed do not have one and the update is skipped for them.
+	 * Attempting the update avoids an extra round trip to check that the table
+	 * exists on every change to the view.
+	 * 
+	 * @param update
+	 */
+	void updateViewBenefactorsIfTableExists(Runnable update) {
+		try {
+			update.run();
+		} catch (BadSqlGrammarException e) {
+			// Only a missing table is expected, any other grammar error is a bug.
+			if (!isNoSuchTable(e)) {
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Was the given exception caused by a table that does not exist?
+	 * 
+	 * @param e
+	 * @return
+	 */
+	static boolean isNoSuchTable(BadSqlGrammarException e) {
+		SQLException cause = e.getSQLException();
+		return cause != null && (cause.getErrorCode() == MYSQL_ERROR_NO_SUCH_TABLE
+				|| SQL_STATE_NO_SUCH_TABLE.equals(cause.getSQLState()));
 	}
 	
 	/**
@@ -586,9 +643,28 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		return new HashSet<Long>(results);
 	}
 
+	@Override
+	public Set<Long> getDistinctBenefactorIds(IdAndVersion tableId, String benefactorColumnName) {
+		if (TableConstants.ROW_BENEFACTOR.equals(benefactorColumnName)) {
+			try {
+				List<Long> results = template.queryForList(SQLUtils.createSQLGetViewBenefactors(tableId), Long.class);
+				return new HashSet<Long>(results);
+			} catch (BadSqlGrammarException e) {
+				// Views built before the benefactor table existed do not have one.
+			}
+		}
+		return getDistinctLongValues(tableId, benefactorColumnName);
+	}
+
 	@Override
 	public void createTableIfDoesNotExist(IndexDescription description) {
+		// The benefactor table must start out as a superset of the view's benefactors, so it is only created with a new view.
+		boolean isNewView = description instanceof ViewIndexDescription
+				&& !doesTableExist(description.getIdAndVersion(), TableIndexType.INDEX);
 		template.update(description.getCreateOrUpdateIndexSql());
+		if (isNewView) {
+			template.update(SQLUtils.createTableSQL(description.getIdAndVersion(), TableIndexType.BENEFACTORS));
+		}
 	}
 
 	@Override
@@ -640,6 +716,8 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 	public void truncateTable(IdAndVersion tableId) {
 		String sql = SQLUtils.createTruncateSql(tableId);
 		template.update(sql);
+		updateViewBenefactorsIfTableExists(
+				() -> template.update("DELETE FROM " + SQLUtils.getTableNameForId(tableId, TableIndexType.BENEFACTORS)));
 	}
 
 	@Override
@@ -1155,6 +1233,10 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		
 		List<ColumnMetadata> metadata = translateSchema(currentSchema, fieldTypeMapper);
 		
+		// The benefactors are added before the rows so the benefactor table remains a superset of the view's benefactors.
+		updateViewBenefactorsIfTableExists(() -> namedTemplate
+				.update(SQLUtils.createSQLInsertIgnoreViewBenefactorsFromObjectReplication(viewId, filter.getFilterSql()), param));
+		
 		String sql = SQLUtils.createSelectInsertFromObjectReplication(viewId, metadata, filter.getFilterSql());
 		
 		namedTemplate.update(sql, param);
@@ -1423,8 +1505,18 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 	public void refreshViewBenefactors(IdAndVersion viewId, ReplicationType mainType) {
 		ValidateArgument.required(viewId, "viewId");
 		ValidateArgument.required(mainType, "mainType");
+		updateViewBenefactorsIfTableExists(
+				() -> template.update(SQLUtils.generateSqlToAddRefreshedViewBenefactors(viewId), mainType.name()));
 		String sql = SQLUtils.generateSqlToRefreshViewBenefactors(viewId);
 		template.update(sql, mainType.name());
+		// The refresh can leave benefactors that are no longer used by the view.
+		deleteUnusedViewBenefactors(viewId);
+	}
+	
+	@Override
+	public void deleteUnusedViewBenefactors(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		updateViewBenefactorsIfTableExists(() -> template.update(SQLUtils.createSQLDeleteUnusedViewBenefactors(viewId)));
 	}
 
 	@Override
@@ -1570,6 +1662,9 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		if (!batch.isEmpty()) {
 			writeTransactionTemplate.executeWithoutResult(txStatus -> template.batchUpdate(sql, batch));
 		}
+		
+		updateViewBenefactorsIfTableExists(
+				() -> template.update(SQLUtils.createSQLInsertIgnoreViewBenefactorsFromIndex(idAndVersion)));
 	}
 	
 	@Override
@@ -1612,4 +1707,143 @@ public class TableIndexDAOImpl implements TableIndexDAO {
 		namedTemplate.update(sql, parameters);
 	}
 	
+	/**
+	 * The key of the given source in a materialized view's source versions table.
+	 * 
+	 * @param source
+	 * @return
+	 */
+	static String getSourceVersionsKey(IndexDescription source) {
+		return SQLUtils.getTableNameForId(source.getIdAndVersion(), TableIndexType.INDEX);
+	}
+	
+	@Override
+	public Optional<String> getMaterializedViewSourceVersionsDefinition(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		try {
+			return template.queryForList(SQLUtils.createSQLGetSourceVersionsDefinition(viewId), String.class).stream().findFirst();
+		} catch (BadSqlGrammarException e) {
+			// This is thrown if the source versions table was not created yet
+			return Optional.empty();
+		}
+	}
+	
+	@Override
+	public void recordMaterializedViewSourceVersions(IdAndVersion viewId, String definitionHash, List<IndexDescription> sources) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(definitionHash, "definitionHash");
+		ValidateArgument.required(sources, "sources");
+		template.update(SQLUtils.createTableSQL(viewId, TableIndexType.SOURCE_VERSIONS));
+		writeTransactionTemplate.executeWithoutResult(txStatus -> {
+			template.update("DELETE FROM " + SQLUtils.getTableNameForId(viewId, TableIndexType.SOURCE_VERSIONS));
+			for (IndexDescription source : sources) {
+				recordMaterializedViewSourceVersion(viewId, definitionHash, source);
+			}
+		});
+	}
+	
+	@Override
+	public void recordMaterializedViewSourceVersion(IdAndVersion viewId, String definitionHash, IndexDescription source) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(definitionHash, "definitionHash");
+		ValidateArgument.required(source, "source");
+		MapSqlParameterSource params = new MapSqlParameterSource(SQLUtils.SOURCE_TABLE_BIND, getSourceVersionsKey(source));
+		params.addValue(SQLUtils.ROW_VERSION_BIND, getMaxCurrentCompleteVersionForTable(source.getIdAndVersion()));
+		params.addValue(SQLUtils.SCHEMA_HASH_BIND, getSourceSchemaHash(source));
+		params.addValue(SQLUtils.DEFINITION_HASH_BIND, definitionHash);
+		namedTemplate.update(SQLUtils.createSQLRecordSourceVersion(viewId, source.getIdAndVersion()), params);
+	}
+	
+	@Override
+	public Optional<Long> getMaterializedViewSourceVersion(IdAndVersion viewId, IndexDescription source) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(source, "source");
+		return getRecordedSourceVersion(viewId, source).map(recorded -> (Long) recorded.get(TableConstants.ROW_VERSION));
+	}
+	
+	@Override
+	public Optional<SourceRowChanges> getMaterializedViewSourceRowChanges(IdAndVersion viewId, IndexDescription source, long limit) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(source, "source");
+		Optional<Map<String, Object>> recorded = getRecordedSourceVersion(viewId, source);
+		if (!recorded.isPresent() || !getSourceSchemaHash(source).equals(recorded.get().get(TableConstants.STATUS_COL_SCHEMA_HASH))) {
+			return Optional.empty();
+		}
+		long recordedVersion = (Long) recorded.get().get(TableConstants.ROW_VERSION);
+		long recordedMaxRowId = (Long) recorded.get().get(TableConstants.ROW_ID);
+		long recordedRowCount = (Long) recorded.get().get(TableConstants.SOURCE_VERSIONS_COL_ROW_COUNT);
+		
+		// Asking for one more than the limit tells us if the limit is exceeded.
+		MapSqlParameterSource params = new MapSqlParameterSource(SQLUtils.ROW_VERSION_BIND, recordedVersion);
+		params.addValue(P_LIMIT, limit + 1);
+		Set<Long> changedRowIds = new LinkedHashSet<>(namedTemplate.queryForList(
+				SQLUtils.createSQLGetChangedSourceRowIds(source.getIdAndVersion()), params, Long.class));
+		if (changedRowIds.size() > limit) {
+			return Optional.empty();
+		}
+		
+		// Row IDs are issued in increasing order, so the changed rows above the recorded maximum were added.
+		long addedCount = changedRowIds.stream().filter(rowId -> rowId > recordedMaxRowId).count();
+		long deletedCount = recordedRowCount + addedCount - getRowCountForTable(source.getIdAndVersion());
+		Set<Long> deletedRowIds = Collections.emptySet();
+		if (deletedCount > 0) {
+			String sql = SQLUtils.createSQLGetDeletedSourceRowIds(viewId, source.getIdAndVersion(),
+					MaterializedViewIndexDescription.getSourceRowIdColumnName(source.getIdAndVersion()));
+			deletedRowIds = new LinkedHashSet<>(namedTemplate.queryForList(sql,
+					new MapSqlParameterSource(P_LIMIT, limit + 1 - changedRowIds.size()), Long.class));
+			if (changedRowIds.size() + deletedRowIds.size() > limit) {
+				return Optional.empty();
+			}
+		}
+		return Optional.of(new SourceRowChanges(source, changedRowIds, deletedRowIds));
+	}
+	
+	/**
+	 * The version, maximum row ID, row count and schema hash recorded for a source
+	 * of a materialized view.
+	 * 
+	 * @param viewId
+	 * @param source
+	 * @return
+	 */
+	Optional<Map<String, Object>> getRecordedSourceVersion(IdAndVersion viewId, IndexDescription source) {
+		try {
+			return namedTemplate.queryForList(SQLUtils.createSQLGetSourceVersion(viewId),
+					new MapSqlParameterSource(SQLUtils.SOURCE_TABLE_BIND, getSourceVersionsKey(source))).stream().findFirst();
+		} catch (BadSqlGrammarException e) {
+			// This is thrown if the source versions table was not created yet
+			return Optional.empty();
+		}
+	}
+	
+	String getSourceSchemaHash(IndexDescription source) {
+		return getCurrentSchemaMD5Hex(source.getIdAndVersion()).orElse(TableModelUtils.EMPTY_SCHEMA_MD5);
+	}
+	
+	@Override
+	public Set<Long> getMaterializedViewRowIdsForSourceRows(IdAndVersion viewId, IndexDescription source, Set<Long> sourceRowIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(source, "source");
+		ValidateArgument.required(sourceRowIds, "sourceRowIds");
+		if (sourceRowIds.isEmpty()) {
+			return Collections.emptySet();
+		}
+		String sql = SQLUtils.createSQLGetRowIdsForSourceRows(viewId,
+				MaterializedViewIndexDescription.getSourceRowIdColumnName(source.getIdAndVersion()));
+		return new LinkedHashSet<>(namedTemplate.queryForList(sql, new MapSqlParameterSource(SQLUtils.ROW_ID_BIND, sourceRowIds), Long.class));
+	}
+	
+	@Override
+	public void deleteMaterializedViewRowsForSourceRows(IdAndVersion viewId, IndexDescription source, Set<Long> sourceRowIds) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(source, "source");
+		ValidateArgument.required(sourceRowIds, "sourceRowIds");
+		if (sourceRowIds.isEmpty()) {
+			return;
+		}
+		String sql = SQLUtils.createSQLDeleteRowsForSourceRows(viewId,
+				MaterializedViewIndexDescription.getSourceRowIdColumnName(source.getIdAndVersion()));
+		namedTemplate.update(sql, new MapSqlParameterSource(SQLUtils.ROW_ID_BIND, sourceRowIds));
+	}
+	
 }
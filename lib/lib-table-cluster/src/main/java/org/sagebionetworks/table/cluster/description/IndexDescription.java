@@ -1,5 +1,6 @@
 package org.sagebionetworks.table.cluster.description;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.sagebionetworks.repo.model.dao.table.TableType;
@@ -52,6 +53,16 @@ public interface IndexDescription extends Comparable<IndexDescription> {
 	 */
 	List<IndexDescription> getDependencies();
 	
+	/**
+	 * The names of the columns that hold the ROW_ID of the source row of each row
+	 * of this index, one for each tracked dependency.
+	 * 
+	 * @return Will return an empty list if the source rows are not tracked.
+	 */
+	default List<String> getSourceRowIdColumnNames() {
+		return Collections.emptyList();
+	}
+	
 	/**
 	 * @return True if the row id should be included in the search index when search is enabled
 	 */
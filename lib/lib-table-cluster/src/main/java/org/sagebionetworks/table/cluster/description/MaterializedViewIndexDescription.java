@@ -25,6 +25,8 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 	private final IdAndVersion idAndVersion;
 	private final List<BenefactorDescription> benefactorDescriptions;
 	private final List<String> buildColumnsToAddToSelect;
+	private final List<String> sourceRowIdColumnsToAddToSelect;
+	private final List<String> sourceRowIdColumnNames;
 	private final List<IndexDescription> orderedDependencies;
 
 	/**
@@ -40,7 +42,10 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 		this.orderedDependencies = dependencies.stream().sorted().collect(Collectors.toList());
 		this.buildColumnsToAddToSelect = new ArrayList<>();
 		this.benefactorDescriptions = new ArrayList<>();
+		this.sourceRowIdColumnsToAddToSelect = new ArrayList<>();
+		this.sourceRowIdColumnNames = new ArrayList<>();
 		initializeBenefactors();
+		initializeSourceRowIds();
 	}
 
 	/**
@@ -61,6 +66,43 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 		}
 	}
 
+	/**
+	 * Initialize the columns that track the source row of each row of this view.
+	 * Only the current version of a table is tracked, since a snapshot never
+	 * changes and the changed rows of a view cannot be found from their version.
+	 */
+	void initializeSourceRowIds() {
+		for (IndexDescription dependency : this.orderedDependencies) {
+			if (isSourceRowTracked(dependency)) {
+				String dependencyTranslatedTableName = SQLUtils.getTableNameForId(dependency.getIdAndVersion(), TableIndexType.INDEX);
+				sourceRowIdColumnsToAddToSelect.add(dependencyTranslatedTableName + "." + ROW_ID);
+				sourceRowIdColumnNames.add(getSourceRowIdColumnName(dependency.getIdAndVersion()));
+			}
+		}
+	}
+
+	/**
+	 * Are the source rows of the given dependency tracked by a materialized view?
+	 * 
+	 * @param dependency
+	 * @return
+	 */
+	public static boolean isSourceRowTracked(IndexDescription dependency) {
+		return !dependency.getIdAndVersion().getVersion().isPresent()
+				&& TableType.table.equals(dependency.getTableType());
+	}
+
+	/**
+	 * The name of the column of a materialized view that holds the ROW_ID of the
+	 * source row from the given dependency.
+	 * 
+	 * @param dependencyId
+	 * @return
+	 */
+	public static String getSourceRowIdColumnName(IdAndVersion dependencyId) {
+		return ROW_ID + "_" + SQLUtils.getTableNameForId(dependencyId, TableIndexType.INDEX);
+	}
+
 	@Override
 	public IdAndVersion getIdAndVersion() {
 		return idAndVersion;
@@ -75,14 +117,18 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 		builder.append(ROW_ID).append(" BIGINT NOT NULL AUTO_INCREMENT, ");
 		builder.append(ROW_VERSION).append(" BIGINT NOT NULL DEFAULT 0, ");
 		builder.append(ROW_SEARCH_CONTENT).append(" MEDIUMTEXT NULL, ");
-		StringBuilder benefactorIndicies = new StringBuilder();
+		StringBuilder secondaryIndicies = new StringBuilder();
 		for (BenefactorDescription desc : benefactorDescriptions) {
 			builder.append(desc.getBenefactorColumnName()).append(" BIGINT NOT NULL, ");
-			benefactorIndicies.append(", KEY (").append(desc.getBenefactorColumnName()).append(")");
+			secondaryIndicies.append(", KEY (").append(desc.getBenefactorColumnName()).append(")");
+		}
+		for (String sourceRowIdColumnName : sourceRowIdColumnNames) {
+			builder.append(sourceRowIdColumnName).append(" BIGINT NULL, ");
+			secondaryIndicies.append(", KEY (").append(sourceRowIdColumnName).append(")");
 		}
 		builder.append("PRIMARY KEY (").append("ROW_ID").append("), ");
 		builder.append("FULLTEXT INDEX `" + ROW_SEARCH_CONTENT + "_INDEX` (" + ROW_SEARCH_CONTENT + ")");
-		builder.append(benefactorIndicies.toString());
+		builder.append(secondaryIndicies.toString());
 		builder.append(")");
 		return builder.toString();
 	}
@@ -92,6 +138,11 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 		return benefactorDescriptions;
 	}
 
+	@Override
+	public List<String> getSourceRowIdColumnNames() {
+		return sourceRowIdColumnNames;
+	}
+
 	@Override
 	public TableType getTableType() {
 		return TableType.materializedview;
@@ -102,10 +153,16 @@ public class MaterializedViewIndexDescription implements IndexDescription {
 		ValidateArgument.required(context, "SqlContext");
 		switch (context) {
 		case build:
-			if(isAggregate && !buildColumnsToAddToSelect.isEmpty()) {
-				throw new IllegalArgumentException(TableConstants.DEFINING_SQL_WITH_GROUP_BY_ERROR);
+			if(isAggregate) {
+				if (!buildColumnsToAddToSelect.isEmpty()) {
+					throw new IllegalArgumentException(TableConstants.DEFINING_SQL_WITH_GROUP_BY_ERROR);
+				}
+				// the rows of an aggregate cannot be traced back to their source rows.
+				return Collections.emptyList();
 			}
-			return buildColumnsToAddToSelect;
+			List<String> columns = new ArrayList<>(buildColumnsToAddToSelect);
+			columns.addAll(sourceRowIdColumnsToAddToSelect);
+			return columns;
 		case query:
 			if(isAggregate) {
 				return Collections.emptyList();
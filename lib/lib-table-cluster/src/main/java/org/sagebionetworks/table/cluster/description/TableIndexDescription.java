@@ -39,6 +39,7 @@ public class TableIndexDescription implements IndexDescription {
 		builder.append(ROW_VERSION).append(" BIGINT NOT NULL, ");
 		builder.append(ROW_SEARCH_CONTENT).append(" MEDIUMTEXT NULL, ");
 		builder.append("PRIMARY KEY (").append("ROW_ID").append("), ");
+		builder.append("KEY `IDX_ROW_VERSION` (").append(ROW_VERSION).append("), ");
 		builder.append("FULLTEXT INDEX `" + ROW_SEARCH_CONTENT + "_INDEX` (" + ROW_SEARCH_CONTENT + ")");
 		builder.append(")");
 		return builder.toString();
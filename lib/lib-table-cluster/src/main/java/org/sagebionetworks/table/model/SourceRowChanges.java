@@ -0,0 +1,78 @@
+package org.sagebionetworks.table.model;
+
+import java.util.Objects;
+import java.util.Set;
+
+import org.sagebionetworks.table.cluster.description.IndexDescription;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * The rows of a single source of a materialized view that changed since the
+ * view was last refreshed.
+ *
+ */
+public class SourceRowChanges {
+
+	private final IndexDescription source;
+	private final Set<Long> changedRowIds;
+	private final Set<Long> deletedRowIds;
+
+	/**
+	 *
+	 * @param source        The source table or view.
+	 * @param changedRowIds The IDs of the rows that were added or updated.
+	 * @param deletedRowIds The IDs of the rows that were deleted.
+	 */
+	public SourceRowChanges(IndexDescription source, Set<Long> changedRowIds, Set<Long> deletedRowIds) {
+		ValidateArgument.required(source, "source");
+		ValidateArgument.required(changedRowIds, "changedRowIds");
+		ValidateArgument.required(deletedRowIds, "deletedRowIds");
+		this.source = source;
+		this.changedRowIds = changedRowIds;
+		this.deletedRowIds = deletedRowIds;
+	}
+
+	public IndexDescription getSource() {
+		return source;
+	}
+
+	public Set<Long> getChangedRowIds() {
+		return changedRowIds;
+	}
+
+	public Set<Long> getDeletedRowIds() {
+		return deletedRowIds;
+	}
+
+	/**
+	 * @return The total number of changed and deleted rows.
+	 */
+	public int getChangeCount() {
+		return changedRowIds.size() + deletedRowIds.size();
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(changedRowIds, deletedRowIds, source);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SourceRowChanges)) {
+			return false;
+		}
+		SourceRowChanges other = (SourceRowChanges) obj;
+		return Objects.equals(changedRowIds, other.changedRowIds) && Objects.equals(deletedRowIds, other.deletedRowIds)
+				&& Objects.equals(source, other.source);
+	}
+
+	@Override
+	public String toString() {
+		return "SourceRowChanges [source=" + source + ", changedRowIds=" + changedRowIds + ", deletedRowIds="
+				+ deletedRowIds + "]";
+	}
+
+}
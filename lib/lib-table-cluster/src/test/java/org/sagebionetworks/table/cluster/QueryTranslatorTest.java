@@ -982,7 +982,7 @@ public class QueryTranslatorTest {
 		sql = "select * from syn1 join syn2 on (syn1.foo = syn2.foo) WHERE syn1.bar = 'some text' order by syn1.bar";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
-		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_ "
+		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_, _A0.ROW_ID, _A1.ROW_ID "
 				+ "FROM T1 _A0 JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ ) WHERE _A0._C333_ = :b0 ORDER BY _A0._C333_",
 				query.getOutputSQL());
 		assertEquals(ImmutableMap.of("b0", "some text"), query.getParameters());
@@ -1003,7 +1003,7 @@ public class QueryTranslatorTest {
 		sql = "select * from syn1 join syn2 on (syn1.foo = syn2.foo) WHERE syn1.bar = 'some text' order by syn1.bar";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
-		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_, IFNULL(_A1.ROW_BENEFACTOR,-1) " +
+		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_, IFNULL(_A1.ROW_BENEFACTOR,-1), _A0.ROW_ID, _A1.ROW_ID " +
 						"FROM T1 _A0 JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ ) WHERE _A0._C333_ = :b0 ORDER BY _A0._C333_",
 				query.getOutputSQL());
 		assertEquals(ImmutableMap.of("b0", "some text"), query.getParameters());
@@ -1042,7 +1042,7 @@ public class QueryTranslatorTest {
 		sql = "select * from syn1 a join syn2 b on (a.foo = b.foo) WHERE a.bar = 'some text' order by a.bar";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.indexDescription(indexDescription).sqlContext(SqlContext.build).build();
-		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_ "
+		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C4242_, _A0.ROW_ID, _A1.ROW_ID "
 				+ "FROM T1 _A0 JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ ) WHERE _A0._C333_ = :b0 ORDER BY _A0._C333_",
 				query.getOutputSQL());
 		assertEquals(ImmutableMap.of("b0", "some text"), query.getParameters());
@@ -1062,7 +1062,7 @@ public class QueryTranslatorTest {
 		sql = "select * from syn1 a join syn1 b on (a.foo = b.foo) WHERE a.bar = 'some text' order by b.bar";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
-		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C333_ "
+		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C333_, _A0.ROW_ID, _A0.ROW_ID "
 				+ "FROM T1 _A0 JOIN T1 _A1 ON ( _A0._C111_ = _A1._C111_ ) WHERE _A0._C333_ = :b0 ORDER BY _A1._C333_",
 				query.getOutputSQL());
 		assertEquals(ImmutableMap.of("b0", "some text"), query.getParameters());
@@ -1081,7 +1081,7 @@ public class QueryTranslatorTest {
 		sql = "select * from syn1 a join syn1 b on (a.foo = b.foo) WHERE a.bar = 'some text' order by b.bar";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
-		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C333_, IFNULL(_A0.ROW_BENEFACTOR,-1) " +
+		assertEquals("SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C333_, IFNULL(_A0.ROW_BENEFACTOR,-1), _A0.ROW_ID " +
 						"FROM T1 _A0 JOIN T1 _A1 ON ( _A0._C111_ = _A1._C111_ ) WHERE _A0._C333_ = :b0 ORDER BY _A1._C333_",
 				query.getOutputSQL());
 		assertEquals(ImmutableMap.of("b0", "some text"), query.getParameters());
@@ -1125,7 +1125,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
 		assertEquals(
-				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_ FROM T1 _A0 LEFT OUTER JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
+				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_, _A0.ROW_ID, _A0.ROW_ID FROM T1 _A0 LEFT OUTER JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
 				query.getOutputSQL());
 	}
 	
@@ -1146,7 +1146,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
 		assertEquals(
-				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_ FROM T1 _A0 RIGHT JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
+				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_, _A0.ROW_ID, _A1.ROW_ID FROM T1 _A0 RIGHT JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
 				query.getOutputSQL());
 	}
 	
@@ -1167,7 +1167,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.indexDescription(indexDescription).sqlContext(SqlContext.build).build();
 		assertEquals(
-				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_ FROM T1 _A0 RIGHT OUTER JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
+				"SELECT _A0._C111_, _A0._C333_, _A1._C111_, _A1._C222_, _A0.ROW_ID, _A1.ROW_ID FROM T1 _A0 RIGHT OUTER JOIN T2 _A1 ON ( _A0._C111_ = _A1._C111_ )",
 				query.getOutputSQL());
 	}
 	
@@ -1221,7 +1221,7 @@ public class QueryTranslatorTest {
 		sql = "select doubletype from syn1";
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
-		assertEquals("SELECT _C777_, IFNULL(ROW_BENEFACTOR,-1) FROM T1", query.getOutputSQL());
+		assertEquals("SELECT _C777_, IFNULL(ROW_BENEFACTOR,-1), ROW_ID FROM T1", query.getOutputSQL());
 	}
 	
 	@Test
@@ -1285,7 +1285,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
 		assertEquals(
-				"SELECT _A0._C888_, _A1._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1) FROM T1 _A0 JOIN T2 _A1 ON _A0._C888_ = _A1._C888_",
+				"SELECT _A0._C888_, _A1._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1), _A0.ROW_ID, _A1.ROW_ID FROM T1 _A0 JOIN T2 _A1 ON _A0._C888_ = _A1._C888_",
 				query.getOutputSQL());
 	}
 	
@@ -1311,7 +1311,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
 		assertEquals(
-				"SELECT _A0._C888_, _A1._C888_, _A2._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1) FROM T1 _A0 JOIN T2 _A1 ON ( _A0._C888_ = _A1._C888_ ) JOIN T1 _A2 ON ( _A1._C888_ = _A2._C888_ )",
+				"SELECT _A0._C888_, _A1._C888_, _A2._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1), _A0.ROW_ID, _A1.ROW_ID FROM T1 _A0 JOIN T2 _A1 ON ( _A0._C888_ = _A1._C888_ ) JOIN T1 _A2 ON ( _A1._C888_ = _A2._C888_ )",
 				query.getOutputSQL());
 	}
 	
@@ -1410,7 +1410,7 @@ public class QueryTranslatorTest {
 		QueryTranslator query = QueryTranslator.builder(sql, userId).schemaProvider(new TestSchemaProvider(schemaMap))
 				.sqlContext(SqlContext.build).indexDescription(indexDescription).build();
 		assertEquals(
-				"SELECT _A0._C888_, _A1._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1) FROM T1 _A0 " +
+				"SELECT _A0._C888_, _A1._C888_, IFNULL(_A0.ROW_BENEFACTOR,-1), _A0.ROW_ID, _A1.ROW_ID FROM T1 _A0 " +
 						"JOIN T2 _A1 ON ( _A0._C888_ = _A1._C888_ AND _A0._C888_ > :b0 )",
 				query.getOutputSQL());
 		Map<String, Object> expectedParams = new HashMap<>(4);
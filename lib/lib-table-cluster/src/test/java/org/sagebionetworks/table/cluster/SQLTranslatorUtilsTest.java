@@ -3245,8 +3245,9 @@ public class SQLTranslatorUtilsTest {
 		String outputSQL = "select _C111_,_C333_, ROW_BENEFACTOR from T111"; 
 		List<IndexDescription> dependencies = Arrays.asList(new ViewIndexDescription(viewId, TableType.entityview));
 		IndexDescription indexDescription = new MaterializedViewIndexDescription(materializedViewId, dependencies);
+		boolean includeSourceRowIds = true;
 		// call under test
-		String result = SQLTranslatorUtils.createMaterializedViewInsertSql(schemaOfSelect, outputSQL, indexDescription);
+		String result = SQLTranslatorUtils.createMaterializedViewInsertSql(schemaOfSelect, outputSQL, indexDescription, includeSourceRowIds);
 		assertEquals("INSERT INTO T123 (_C111_,_C333_,ROW_BENEFACTOR_T111) select _C111_,_C333_, ROW_BENEFACTOR from T111", result);
 	}
 	
@@ -3255,12 +3256,27 @@ public class SQLTranslatorUtilsTest {
 		IdAndVersion materializedViewId = IdAndVersion.parse("syn123");
 		IdAndVersion tableId = IdAndVersion.parse("syn111");
 		List<ColumnModel> schemaOfSelect = Arrays.asList(columnFoo, columnBar);
-		String outputSQL = "select _c1_, _c2_ from T111"; 
+		String outputSQL = "select _c1_, _c2_, ROW_ID from T111"; 
 		List<IndexDescription> dependencies = Arrays.asList(new TableIndexDescription(tableId));
 		IndexDescription indexDescription = new MaterializedViewIndexDescription(materializedViewId, dependencies);
+		boolean includeSourceRowIds = true;
 		// call under test
-		String result = SQLTranslatorUtils.createMaterializedViewInsertSql(schemaOfSelect, outputSQL, indexDescription);
-		assertEquals("INSERT INTO T123 (_C111_,_C333_) select _c1_, _c2_ from T111", result);
+		String result = SQLTranslatorUtils.createMaterializedViewInsertSql(schemaOfSelect, outputSQL, indexDescription, includeSourceRowIds);
+		assertEquals("INSERT INTO T123 (_C111_,_C333_,ROW_ID_T111) select _c1_, _c2_, ROW_ID from T111", result);
+	}
+	
+	@Test
+	public void testCreateMaterializedViewInsertSqlWithoutSourceRowIds() {
+		IdAndVersion materializedViewId = IdAndVersion.parse("syn123");
+		IdAndVersion tableId = IdAndVersion.parse("syn111");
+		List<ColumnModel> schemaOfSelect = Arrays.asList(columnFoo, columnBar);
+		String outputSQL = "select _c1_, count(*) from T111 group by _c1_"; 
+		List<IndexDescription> dependencies = Arrays.asList(new TableIndexDescription(tableId));
+		IndexDescription indexDescription = new MaterializedViewIndexDescription(materializedViewId, dependencies);
+		boolean includeSourceRowIds = false;
+		// call under test
+		String result = SQLTranslatorUtils.createMaterializedViewInsertSql(schemaOfSelect, outputSQL, indexDescription, includeSourceRowIds);
+		assertEquals("INSERT INTO T123 (_C111_,_C333_) select _c1_, count(*) from T111 group by _c1_", result);
 	}
 	
 }
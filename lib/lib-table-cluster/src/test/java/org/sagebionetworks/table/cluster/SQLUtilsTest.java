@@ -434,6 +434,86 @@ public class SQLUtilsTest {
 		assertEquals(expected, result);
 	}
 
+	@Test
+	public void testCreateTableSQLBenefactors(){
+		String expected = "CREATE TABLE IF NOT EXISTS `T999B` ( ROW_BENEFACTOR BIGINT NOT NULL PRIMARY KEY )";
+		String result = SQLUtils.createTableSQL(tableId, TableIndexType.BENEFACTORS);
+		assertEquals(expected, result);
+	}
+
+	@Test
+	public void testCreateSQLGetViewBenefactors(){
+		String expected = "SELECT ROW_BENEFACTOR FROM T999B";
+		String result = SQLUtils.createSQLGetViewBenefactors(tableId);
+		assertEquals(expected, result);
+	}
+	
+	@Test
+	public void testCreateTableSQLSourceVersions(){
+		String expected = "CREATE TABLE IF NOT EXISTS `T999R` ( SOURCE_TABLE VARCHAR(50) NOT NULL PRIMARY KEY, ROW_VERSION BIGINT NOT NULL,"
+				+ " ROW_ID BIGINT NOT NULL, ROW_COUNT BIGINT NOT NULL, SCHEMA_HASH CHAR(35) NOT NULL, DEFINITION_HASH CHAR(32) NOT NULL )";
+		String result = SQLUtils.createTableSQL(tableId, TableIndexType.SOURCE_VERSIONS);
+		assertEquals(expected, result);
+	}
+	
+	@Test
+	public void testCreateSQLGetSourceVersionsDefinition(){
+		String expected = "SELECT DEFINITION_HASH FROM T999R LIMIT 1";
+		assertEquals(expected, SQLUtils.createSQLGetSourceVersionsDefinition(tableId));
+	}
+	
+	@Test
+	public void testCreateSQLGetSourceVersion(){
+		String expected = "SELECT ROW_VERSION, ROW_ID, ROW_COUNT, SCHEMA_HASH FROM T999R WHERE SOURCE_TABLE = :bST";
+		assertEquals(expected, SQLUtils.createSQLGetSourceVersion(tableId));
+	}
+	
+	@Test
+	public void testCreateSQLRecordSourceVersion(){
+		String expected = "REPLACE INTO T999R (SOURCE_TABLE, ROW_VERSION, ROW_ID, ROW_COUNT, SCHEMA_HASH, DEFINITION_HASH)"
+				+ " SELECT :bST, :bRV, COALESCE(MAX(ROW_ID), -1), COUNT(ROW_ID), :bSH, :bDH FROM T123";
+		assertEquals(expected, SQLUtils.createSQLRecordSourceVersion(tableId, IdAndVersion.parse("syn123")));
+	}
+	
+	@Test
+	public void testCreateSQLGetChangedSourceRowIds(){
+		String expected = "SELECT ROW_ID FROM T123 WHERE ROW_VERSION > :bRV LIMIT :pLimit";
+		assertEquals(expected, SQLUtils.createSQLGetChangedSourceRowIds(IdAndVersion.parse("syn123")));
+	}
+	
+	@Test
+	public void testCreateSQLGetDeletedSourceRowIds(){
+		String expected = "SELECT DISTINCT V.ROW_ID_T123 FROM T999 V LEFT JOIN T123 S ON (S.ROW_ID = V.ROW_ID_T123)"
+				+ " WHERE S.ROW_ID IS NULL LIMIT :pLimit";
+		assertEquals(expected, SQLUtils.createSQLGetDeletedSourceRowIds(tableId, IdAndVersion.parse("syn123"), "ROW_ID_T123"));
+	}
+	
+	@Test
+	public void testCreateSQLGetRowIdsForSourceRows(){
+		String expected = "SELECT ROW_ID FROM T999 WHERE ROW_ID_T123 IN (:bRI)";
+		assertEquals(expected, SQLUtils.createSQLGetRowIdsForSourceRows(tableId, "ROW_ID_T123"));
+	}
+	
+	@Test
+	public void testCreateSQLDeleteRowsForSourceRows(){
+		String expected = "DELETE FROM T999 WHERE ROW_ID_T123 IN (:bRI)";
+		assertEquals(expected, SQLUtils.createSQLDeleteRowsForSourceRows(tableId, "ROW_ID_T123"));
+	}
+
+	@Test
+	public void testCreateSQLInsertIgnoreViewBenefactorsFromIndex(){
+		String expected = "INSERT IGNORE INTO T999B (ROW_BENEFACTOR) SELECT DISTINCT ROW_BENEFACTOR FROM T999";
+		String result = SQLUtils.createSQLInsertIgnoreViewBenefactorsFromIndex(tableId);
+		assertEquals(expected, result);
+	}
+
+	@Test
+	public void testCreateSQLDeleteUnusedViewBenefactors(){
+		String expected = "DELETE B FROM T999B B WHERE NOT EXISTS (SELECT 1 FROM T999 T WHERE T.ROW_BENEFACTOR = B.ROW_BENEFACTOR)";
+		String result = SQLUtils.createSQLDeleteUnusedViewBenefactors(tableId);
+		assertEquals(expected, result);
+	}
+
 	/**
 	 * A helper to create a list of ColumnModels from column model ids.
 	 *
@@ -2021,6 +2101,20 @@ public class SQLUtilsTest {
 				+ " GROUP BY R.OBJECT_ID, R.OBJECT_VERSION ORDER BY R.OBJECT_ID, R.OBJECT_VERSION", sql);
 	}
 
+	@Test
+	public void testCreateSQLInsertIgnoreViewBenefactorsFromObjectReplication(){
+		String filter = " the-filter";
+		String sql = SQLUtils.createSQLInsertIgnoreViewBenefactorsFromObjectReplication(viewId, filter);
+		assertEquals("INSERT IGNORE INTO T123B (ROW_BENEFACTOR)"
+				+ " SELECT DISTINCT R.BENEFACTOR_ID"
+				+ " FROM"
+				+ " OBJECT_REPLICATION R"
+				+ " LEFT JOIN ANNOTATION_REPLICATION A"
+				+ " ON(R.OBJECT_TYPE = A.OBJECT_TYPE AND R.OBJECT_ID = A.OBJECT_ID AND R.OBJECT_VERSION = A.OBJECT_VERSION)"
+				+ " WHERE"
+				+ " the-filter", sql);
+	}
+
 	@Test
 	public void testCreateSelectInsertFromObjectReplicationWithDouble(){
 		ColumnMetadata one = createMetadataForAnnotation(ColumnType.DOUBLE, 3);
@@ -2970,6 +3064,17 @@ public class SQLUtilsTest {
 				sql);
 	}
 	
+	@Test
+	public void testGenerateSqlToAddRefreshedViewBenefactors() {
+		// call under test
+		String sql = SQLUtils.generateSqlToAddRefreshedViewBenefactors(tableId);
+		assertEquals(
+				"INSERT IGNORE INTO T999B (ROW_BENEFACTOR) SELECT DISTINCT O.BENEFACTOR_ID FROM T999 T"
+				+ " JOIN OBJECT_REPLICATION O ON (T.ROW_ID = O.OBJECT_ID AND O.OBJECT_TYPE = ?)"
+				+ " WHERE T.ROW_BENEFACTOR <> O.BENEFACTOR_ID",
+				sql);
+	}
+	
 	@Test
 	public void testGenerateSqlToRefreshViewBenefactorsWithNull() {
 		assertThrows(IllegalArgumentException.class, ()->{
@@ -84,6 +84,7 @@ import org.sagebionetworks.table.cluster.view.filter.HierarchicaFilter;
 import org.sagebionetworks.table.cluster.view.filter.IdVersionPair;
 import org.sagebionetworks.table.cluster.view.filter.ViewFilter;
 import org.sagebionetworks.table.model.Grouping;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.model.SparseChangeSet;
 import org.sagebionetworks.table.query.ParseException;
 import org.sagebionetworks.table.query.util.ColumnTypeListMappings;
@@ -1336,7 +1337,7 @@ public class TableIndexDAOImplTest {
 		
 		cd = schema.get(1);
 		assertEquals(ROW_VERSION, cd.getColumnName());
-		assertFalse(cd.hasIndex());
+		assertTrue(cd.hasIndex(), "ROW_VERSION is indexed to find the rows changed since a version.");
 		
 		cd = schema.get(2);
 		assertEquals(ROW_SEARCH_CONTENT, cd.getColumnName());
@@ -4608,6 +4609,8 @@ public class TableIndexDAOImplTest {
 		assertNotNull(results);
 		assertEquals(Lists.newArrayList(file1.getId().toString(),file1.getBenefactorId().toString()), results.getRows().get(0).getValues());
 		assertEquals(Lists.newArrayList(file2.getId().toString(),file2.getBenefactorId().toString()), results.getRows().get(1).getValues());
+		assertEquals(Sets.newHashSet(file1.getBenefactorId(), file2.getBenefactorId()),
+				tableIndexDAO.getDistinctBenefactorIds(tableId, TableConstants.ROW_BENEFACTOR));
 		
 		// update the benefactors in the replication table
 		file1.setBenefactorId(new Long(3));
@@ -4623,6 +4626,35 @@ public class TableIndexDAOImplTest {
 		// file one should change while file two should remain the same.
 		assertEquals(Lists.newArrayList(file1.getId().toString(),file1.getBenefactorId().toString()), results.getRows().get(0).getValues());
 		assertEquals(Lists.newArrayList(file2.getId().toString(),file2.getBenefactorId().toString()), results.getRows().get(1).getValues());
+		// the benefactor that is no longer used by the view is removed from the benefactor table.
+		assertEquals(Sets.newHashSet(file1.getBenefactorId(), file2.getBenefactorId()),
+				tableIndexDAO.getDistinctBenefactorIds(tableId, TableConstants.ROW_BENEFACTOR));
+	}
+	
+	@Test
+	public void testGetDistinctBenefactorIdsWithoutBenefactorTable() throws ParseException{
+		tableId = IdAndVersion.parse("syn123");
+		indexDescription = new ViewIndexDescription(tableId, TableType.entityview);
+		tableIndexDAO.deleteObjectData(mainType, Lists.newArrayList(2L,3L));
+		tableIndexDAO.deleteTable(tableId);
+		
+		ObjectDataDTO file1 = createObjectDataDTO(2L, EntityType.file, 2);
+		file1.setParentId(333L);
+		ObjectDataDTO file2 = createObjectDataDTO(3L, EntityType.file, 3);
+		file2.setParentId(222L);
+		file2.setBenefactorId(4L);
+		tableIndexDAO.addObjectData(mainType, Lists.newArrayList(file1, file2));
+		List<ColumnModel> schema = createSchemaFromObjectDataDTO(file2);
+		ViewFilter filter = new HierarchicaFilter(mainType, subTypes, Sets.newHashSet(file1.getParentId(), file2.getParentId()));
+		createOrUpdateTable(schema, indexDescription);
+		// simulate a view that was built before benefactor tables existed.
+		tableIndexDAO.getConnection().update(SQLUtils.dropTableSQL(tableId, TableIndexType.BENEFACTORS));
+		
+		tableIndexDAO.copyObjectReplicationToView(tableId.getId(), filter, schema, fieldTypeMapper);
+		
+		// call under test
+		assertEquals(Sets.newHashSet(file1.getBenefactorId(), file2.getBenefactorId()),
+				tableIndexDAO.getDistinctBenefactorIds(tableId, TableConstants.ROW_BENEFACTOR));
 	}
 	
 	@Test
@@ -5077,6 +5109,56 @@ public class TableIndexDAOImplTest {
 		}).getMessage();
 		assertEquals("newSchema is required.",message);
 	}
+	
+	@Test
+	public void testMaterializedViewSourceVersions() {
+		List<ColumnModel> schema = Arrays.asList(TableModelTestUtils.createColumn(1L, "foo", ColumnType.STRING));
+		createOrUpdateTable(schema, indexDescription);
+		generateAndAppendRows(tableId, schema, 3);
+		tableIndexDAO.setMaxCurrentCompleteVersionForTable(tableId, 1L);
+		IdAndVersion viewId = IdAndVersion.parse("syn456");
+		tableIndexDAO.deleteTable(viewId);
+		try {
+			// The view rows built from each of the source rows.
+			tableIndexDAO.update("CREATE TABLE T456 (ROW_ID BIGINT NOT NULL, ROW_ID_T123 BIGINT NULL)", Collections.emptyMap());
+			tableIndexDAO.update("INSERT INTO T456 VALUES (1, 100), (2, 101), (3, 102)", Collections.emptyMap());
+			assertEquals(Optional.empty(), tableIndexDAO.getMaterializedViewSourceVersionsDefinition(viewId));
+			assertEquals(Optional.empty(), tableIndexDAO.getMaterializedViewSourceVersion(viewId, indexDescription));
+			
+			// call under test
+			tableIndexDAO.recordMaterializedViewSourceVersions(viewId, "hash", Arrays.asList(indexDescription));
+			
+			assertEquals(Optional.of("hash"), tableIndexDAO.getMaterializedViewSourceVersionsDefinition(viewId));
+			assertEquals(Optional.of(1L), tableIndexDAO.getMaterializedViewSourceVersion(viewId, indexDescription));
+			assertEquals(Optional.of(new SourceRowChanges(indexDescription, Collections.emptySet(), Collections.emptySet())),
+					tableIndexDAO.getMaterializedViewSourceRowChanges(viewId, indexDescription, 10L));
+			
+			// change one row, add one and delete another in version two.
+			tableIndexDAO.update("UPDATE T123 SET ROW_VERSION = 2 WHERE ROW_ID = 101", Collections.emptyMap());
+			tableIndexDAO.update("INSERT INTO T123 (ROW_ID, ROW_VERSION) VALUES (103, 2)", Collections.emptyMap());
+			tableIndexDAO.update("DELETE FROM T123 WHERE ROW_ID = 102", Collections.emptyMap());
+			tableIndexDAO.setMaxCurrentCompleteVersionForTable(tableId, 2L);
+			
+			assertEquals(Optional.of(new SourceRowChanges(indexDescription, ImmutableSet.of(101L, 103L), ImmutableSet.of(102L))),
+					tableIndexDAO.getMaterializedViewSourceRowChanges(viewId, indexDescription, 10L));
+			// more changes than the limit
+			assertEquals(Optional.empty(), tableIndexDAO.getMaterializedViewSourceRowChanges(viewId, indexDescription, 2L));
+			
+			// call under test
+			tableIndexDAO.recordMaterializedViewSourceVersion(viewId, "hash", indexDescription);
+			
+			assertEquals(Optional.of(2L), tableIndexDAO.getMaterializedViewSourceVersion(viewId, indexDescription));
+			assertEquals(Optional.of(new SourceRowChanges(indexDescription, Collections.emptySet(), Collections.emptySet())),
+					tableIndexDAO.getMaterializedViewSourceRowChanges(viewId, indexDescription, 10L));
+			
+			// a change to the schema of the source cannot be applied row by row.
+			tableIndexDAO.setCurrentSchemaMD5Hex(tableId, "newSchemaHash");
+			assertEquals(Optional.empty(), tableIndexDAO.getMaterializedViewSourceRowChanges(viewId, indexDescription, 10L));
+		} finally {
+			tableIndexDAO.deleteTable(viewId);
+		}
+		assertEquals(Optional.empty(), tableIndexDAO.getMaterializedViewSourceVersionsDefinition(viewId));
+	}
 
 	
 	/**
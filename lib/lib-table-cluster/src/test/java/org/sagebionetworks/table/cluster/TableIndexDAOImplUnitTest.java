@@ -2,11 +2,14 @@ package org.sagebionetworks.table.cluster;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -31,6 +34,7 @@ import org.sagebionetworks.table.cluster.metadata.ObjectFieldTypeMapper;
 import org.sagebionetworks.table.cluster.search.TableRowSearchProcessor;
 import org.sagebionetworks.table.cluster.view.filter.HierarchicaFilter;
 import org.sagebionetworks.table.cluster.view.filter.ViewFilter;
+import org.springframework.jdbc.BadSqlGrammarException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
@@ -313,6 +317,42 @@ public class TableIndexDAOImplUnitTest {
 		assertEquals(ColumnConstants.DEFAULT_STRING_SIZE, cm.getMaximumSize());
 	}
 	
+	@Test
+	public void testUpdateViewBenefactorsIfTableExistsWithNoSuchTable() {
+		BadSqlGrammarException noSuchTable = new BadSqlGrammarException("update", "DELETE FROM T123_BENEFACTORS",
+				new SQLException("Table 'T123_BENEFACTORS' doesn't exist", "42S02", 1146));
+		// call under test
+		assertDoesNotThrow(() -> spyDao.updateViewBenefactorsIfTableExists(() -> {
+			throw noSuchTable;
+		}));
+	}
+
+	@Test
+	public void testUpdateViewBenefactorsIfTableExistsWithOtherGrammarError() {
+		BadSqlGrammarException unknownColumn = new BadSqlGrammarException("update", "DELETE FROM T123_BENEFACTORS",
+				new SQLException("Unknown column 'FOO' in 'where clause'", "42S22", 1054));
+		BadSqlGrammarException result = assertThrows(BadSqlGrammarException.class, () -> {
+			// call under test
+			spyDao.updateViewBenefactorsIfTableExists(() -> {
+				throw unknownColumn;
+			});
+		});
+		assertEquals(unknownColumn, result);
+	}
+
+	@Test
+	public void testIsNoSuchTable() {
+		assertTrue(TableIndexDAOImpl.isNoSuchTable(new BadSqlGrammarException("update", "sql",
+				new SQLException("missing", "42S02", 1146))));
+		// either the error code or the SQL state is enough
+		assertTrue(TableIndexDAOImpl.isNoSuchTable(new BadSqlGrammarException("update", "sql",
+				new SQLException("missing", null, 1146))));
+		assertTrue(TableIndexDAOImpl.isNoSuchTable(new BadSqlGrammarException("update", "sql",
+				new SQLException("missing", "42S02", 0))));
+		assertFalse(TableIndexDAOImpl.isNoSuchTable(new BadSqlGrammarException("update", "sql",
+				new SQLException("syntax", "42000", 1064))));
+	}
+
 	/**
 	 * Helper to create a concatenated list of column types delimited with dot ('.')
 	 * @param types
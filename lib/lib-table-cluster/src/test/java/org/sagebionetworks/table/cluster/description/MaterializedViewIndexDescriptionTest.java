@@ -1,7 +1,9 @@
 package org.sagebionetworks.table.cluster.description;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ID;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_VERSION;
 
@@ -29,8 +31,10 @@ public class MaterializedViewIndexDescriptionTest {
 				+ "ROW_ID BIGINT NOT NULL AUTO_INCREMENT, "
 				+ "ROW_VERSION BIGINT NOT NULL DEFAULT 0, "
 				+ "ROW_SEARCH_CONTENT MEDIUMTEXT NULL, "
+				+ "ROW_ID_T999 BIGINT NULL, "
 				+ "PRIMARY KEY (ROW_ID), "
-				+ "FULLTEXT INDEX `ROW_SEARCH_CONTENT_INDEX` (ROW_SEARCH_CONTENT))", sql);
+				+ "FULLTEXT INDEX `ROW_SEARCH_CONTENT_INDEX` (ROW_SEARCH_CONTENT), "
+				+ "KEY (ROW_ID_T999))", sql);
 	}
 
 	@Test
@@ -148,7 +152,23 @@ public class MaterializedViewIndexDescriptionTest {
 		boolean isAggregate = false;
 		// call under test
 		List<String> result = mid.getColumnNamesToAddToSelect(SqlContext.build, includeEtag, isAggregate);
-		assertEquals(Arrays.asList("IFNULL( T888_3.ROW_BENEFACTOR , -1)", "IFNULL( T999.ROW_BENEFACTOR , -1)"), result);
+		// the snapshot is not tracked
+		assertEquals(Arrays.asList("IFNULL( T888_3.ROW_BENEFACTOR , -1)", "IFNULL( T999.ROW_BENEFACTOR , -1)",
+				"T999.ROW_ID"), result);
+	}
+	
+	@Test
+	public void testGetColumnNamesToAddToSelectWithBuildAndNonAggregateWithTableDependency() {
+		List<IndexDescription> dependencies = Arrays.asList(
+				new TableIndexDescription(IdAndVersion.parse("syn999")),
+				new TableIndexDescription(IdAndVersion.parse("syn888")));
+		IdAndVersion materializedViewId = IdAndVersion.parse("syn123");
+		MaterializedViewIndexDescription mid = new MaterializedViewIndexDescription(materializedViewId, dependencies);
+		boolean includeEtag = true;
+		boolean isAggregate = false;
+		// call under test
+		List<String> result = mid.getColumnNamesToAddToSelect(SqlContext.build, includeEtag, isAggregate);
+		assertEquals(Arrays.asList("T888.ROW_ID", "T999.ROW_ID"), result);
 	}
 	
 	@Test
@@ -194,6 +214,28 @@ public class MaterializedViewIndexDescriptionTest {
 		});
 	}
 	
+	@Test
+	public void testGetSourceRowIdColumnNames() {
+		List<IndexDescription> dependencies = Arrays.asList(
+				new ViewIndexDescription(IdAndVersion.parse("syn999"), TableType.entityview),
+				new ViewIndexDescription(IdAndVersion.parse("syn888.2"), TableType.entityview),
+				new TableIndexDescription(IdAndVersion.parse("syn777")),
+				new MaterializedViewIndexDescription(IdAndVersion.parse("syn666"), Collections.emptyList()));
+		MaterializedViewIndexDescription mid = new MaterializedViewIndexDescription(IdAndVersion.parse("syn123"),
+				dependencies);
+		// call under test
+		assertEquals(Arrays.asList("ROW_ID_T777"), mid.getSourceRowIdColumnNames());
+	}
+	
+	@Test
+	public void testIsSourceRowTracked() {
+		assertTrue(MaterializedViewIndexDescription.isSourceRowTracked(new TableIndexDescription(IdAndVersion.parse("syn1"))));
+		assertFalse(MaterializedViewIndexDescription.isSourceRowTracked(new ViewIndexDescription(IdAndVersion.parse("syn1"), TableType.dataset)));
+		assertFalse(MaterializedViewIndexDescription.isSourceRowTracked(new TableIndexDescription(IdAndVersion.parse("syn1.2"))));
+		assertFalse(MaterializedViewIndexDescription.isSourceRowTracked(
+				new MaterializedViewIndexDescription(IdAndVersion.parse("syn1"), Collections.emptyList())));
+	}
+	
 	@Test
 	public void testGetDependencies() {
 		List<IndexDescription> dependencies = Arrays.asList(
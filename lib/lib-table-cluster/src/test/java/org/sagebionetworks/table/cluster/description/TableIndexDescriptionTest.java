@@ -24,6 +24,7 @@ public class TableIndexDescriptionTest {
 				+ "ROW_VERSION BIGINT NOT NULL, "
 				+ "ROW_SEARCH_CONTENT MEDIUMTEXT NULL, "
 				+ "PRIMARY KEY (ROW_ID), "
+				+ "KEY `IDX_ROW_VERSION` (ROW_VERSION), "
 				+ "FULLTEXT INDEX `ROW_SEARCH_CONTENT_INDEX` (ROW_SEARCH_CONTENT))", sql);
 	}
 	
@@ -1,5 +1,7 @@
 package org.sagebionetworks.table.query.model;
 
+import java.util.Optional;
+
 /**
  * From &ltjoin type&gt in:
  * <a href="https://github.com/ronsavage/SQL/blob/master/sql-92.bnf">SQL-92</a>
@@ -32,6 +34,16 @@ public class JoinType extends LeafElement {
 	public JoinType(OuterJoinType outerJoinType) {
 		this(outerJoinType, false);
 	}
+	
+	/**
+	 * The type of the outer join. If this is an inner join, then Optional.empty()
+	 * will be returned.
+	 * 
+	 * @return
+	 */
+	public Optional<OuterJoinType> getOuterJoinType() {
+		return Optional.ofNullable(outerJoinType);
+	}
 
 	@Override
 	public void toSql(StringBuilder builder, ToSqlParameters parameters) {
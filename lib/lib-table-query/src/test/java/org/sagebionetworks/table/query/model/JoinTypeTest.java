@@ -2,6 +2,8 @@ package org.sagebionetworks.table.query.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Optional;
+
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.table.query.TableQueryParser;
 
@@ -11,6 +13,7 @@ class JoinTypeTest {
 	public void testInnerJoin() throws Exception {
 		JoinType joinType = new TableQueryParser("inner").joinType();
 		assertEquals("INNER",joinType.toSql());
+		assertEquals(Optional.empty(), joinType.getOuterJoinType());
 	}
 	
 	@Test
@@ -23,6 +26,7 @@ class JoinTypeTest {
 	public void testLeftJoinWithExplicitOuter() throws Exception {
 		JoinType joinType = new TableQueryParser("left outer").joinType();
 		assertEquals("LEFT OUTER",joinType.toSql());
+		assertEquals(Optional.of(OuterJoinType.LEFT), joinType.getOuterJoinType());
 	}
 	
 	@Test
@@ -0,0 +1,188 @@
+package org.sagebionetworks.upload.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * An OutputStream that uploads everything written to it directly to S3 as a
+ * multipart upload. Data is buffered in memory one part at a time, so the
+ * memory used is bounded by the part size regardless of the total size of the
+ * object, and no temporary file is needed.
+ * <p>
+ * The upload is completed when the stream is closed. If any write fails, or
+ * {@link #abort()} is called, the multipart upload is aborted and closing the
+ * stream will not create the object.
+ *
+ */
+public class S3MultipartOutputStream extends OutputStream {
+
+	/**
+	 * S3 requires all parts except the last to be at least 5 MB.
+	 */
+	public static final int MINIMUM_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+	private final SynapseS3Client s3Client;
+	private final String bucket;
+	private final String key;
+	private final ObjectMetadata metadata;
+	private final StorageClass storageClass;
+	private final byte[] buffer;
+	private final List<PartETag> partETags;
+
+	private int bufferPosition;
+	private String uploadId;
+	private boolean closed;
+	private boolean aborted;
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param bucket
+	 * @param key
+	 * @param metadata      Optional metadata for the resulting object.
+	 * @param partSizeBytes The size of each part (and of the in-memory buffer).
+	 *                      Must be at least {@link #MINIMUM_PART_SIZE_BYTES}.
+	 */
+	public S3MultipartOutputStream(SynapseS3Client s3Client, String bucket, String key, ObjectMetadata metadata,
+			int partSizeBytes) {
+		this(s3Client, bucket, key, metadata, null, partSizeBytes);
+	}
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param bucket
+	 * @param key
+	 * @param metadata      Optional metadata for the resulting object.
+	 * @param storageClass  Optional storage class of the resulting object.
+	 * @param partSizeBytes The size of each part (and of the in-memory buffer).
+	 *                      Must be at least {@link #MINIMUM_PART_SIZE_BYTES}.
+	 */
+	public S3MultipartOutputStream(SynapseS3Client s3Client, String bucket, String key, ObjectMetadata metadata,
+			StorageClass storageClass, int partSizeBytes) {
+		ValidateArgument.required(s3Client, "s3Client");
+		ValidateArgument.required(bucket, "bucket");
+		ValidateArgument.required(key, "key");
+		ValidateArgument.requirement(partSizeBytes >= MINIMUM_PART_SIZE_BYTES,
+				"The part size must be at least " + MINIMUM_PART_SIZE_BYTES + " bytes");
+		this.s3Client = s3Client;
+		this.bucket = bucket;
+		this.key = key;
+		this.metadata = metadata;
+		this.storageClass = storageClass;
+		this.buffer = new byte[partSizeBytes];
+		this.partETags = new ArrayList<>();
+		this.bufferPosition = 0;
+		this.closed = false;
+		this.aborted = false;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		validateOpen();
+		if (bufferPosition == buffer.length) {
+			uploadBuffer();
+		}
+		buffer[bufferPosition++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		validateOpen();
+		while (len > 0) {
+			if (bufferPosition == buffer.length) {
+				uploadBuffer();
+			}
+			int toCopy = Math.min(len, buffer.length - bufferPosition);
+			System.arraycopy(b, off, buffer, bufferPosition, toCopy);
+			bufferPosition += toCopy;
+			off += toCopy;
+			len -= toCopy;
+		}
+	}
+
+	/**
+	 * Complete the multipart upload with any remaining buffered data.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (aborted) {
+			return;
+		}
+		try {
+			// The last part is allowed to be smaller than the minimum, and an empty object still requires one part.
+			if (bufferPosition > 0 || partETags.isEmpty()) {
+				uploadBuffer();
+			}
+			s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+		} catch (RuntimeException e) {
+			abort();
+			throw e;
+		}
+	}
+
+	/**
+	 * Abort the multipart upload. Any parts that were already uploaded will be
+	 * discarded by S3, and closing this stream will no longer create the object.
+	 */
+	public void abort() {
+		if (aborted) {
+			return;
+		}
+		aborted = true;
+		closed = true;
+		if (uploadId != null) {
+			s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+		}
+	}
+
+	/**
+	 * Upload the current contents of the buffer as the next part.
+	 */
+	private void uploadBuffer() {
+		try {
+			if (uploadId == null) {
+				InitiateMultipartUploadRequest request = metadata == null ? new InitiateMultipartUploadRequest(bucket, key)
+						: new InitiateMultipartUploadRequest(bucket, key, metadata);
+				if (storageClass != null) {
+					request.setStorageClass(storageClass);
+				}
+				uploadId = s3Client.initiateMultipartUpload(request).getUploadId();
+			}
+			int partNumber = partETags.size() + 1;
+			UploadPartRequest request = new UploadPartRequest().withBucketName(bucket).withKey(key).withUploadId(uploadId)
+					.withPartNumber(partNumber).withInputStream(new ByteArrayInputStream(buffer, 0, bufferPosition))
+					.withPartSize(bufferPosition);
+			partETags.add(s3Client.uploadPart(request).getPartETag());
+			bufferPosition = 0;
+		} catch (RuntimeException e) {
+			abort();
+			throw e;
+		}
+	}
+
+	private void validateOpen() throws IOException {
+		if (closed) {
+			throw new IOException("The stream is closed");
+		}
+	}
+
+}
@@ -0,0 +1,192 @@
+package org.sagebionetworks.upload.multipart;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.aws.SynapseS3Client;
+
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+
+@ExtendWith(MockitoExtension.class)
+public class S3MultipartOutputStreamTest {
+
+	@Mock
+	SynapseS3Client mockS3Client;
+	@Captor
+	ArgumentCaptor<CompleteMultipartUploadRequest> completeCaptor;
+	@Captor
+	ArgumentCaptor<AbortMultipartUploadRequest> abortCaptor;
+	@Captor
+	ArgumentCaptor<InitiateMultipartUploadRequest> initiateCaptor;
+
+	String bucket;
+	String key;
+	String uploadId;
+	int partSize;
+	List<byte[]> uploadedParts;
+
+	@BeforeEach
+	public void before() {
+		bucket = "some-bucket";
+		key = "some/key";
+		uploadId = "upload-id";
+		partSize = S3MultipartOutputStream.MINIMUM_PART_SIZE_BYTES;
+		uploadedParts = new ArrayList<>();
+	}
+
+	void setupUpload() {
+		InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+		initResult.setUploadId(uploadId);
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initResult);
+		when(mockS3Client.uploadPart(any())).thenAnswer(invocation -> {
+			UploadPartRequest request = invocation.getArgument(0);
+			assertEquals(uploadId, request.getUploadId());
+			assertEquals(uploadedParts.size() + 1, request.getPartNumber());
+			byte[] part = IOUtils.toByteArray(request.getInputStream());
+			assertEquals(request.getPartSize(), part.length);
+			uploadedParts.add(part);
+			UploadPartResult result = new UploadPartResult();
+			result.setPartNumber(request.getPartNumber());
+			result.setETag("etag" + request.getPartNumber());
+			return result;
+		});
+	}
+
+	@Test
+	public void testWriteMultipleParts() throws IOException {
+		setupUpload();
+		byte[] data = new byte[partSize * 2 + 10];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		// call under test
+		out.write(data, 0, 7);
+		out.write(data[7]);
+		out.write(data, 8, data.length - 8);
+		out.close();
+
+		assertEquals(3, uploadedParts.size());
+		ByteArrayOutputStream combined = new ByteArrayOutputStream();
+		for (byte[] part : uploadedParts) {
+			combined.write(part);
+		}
+		assertArrayEquals(data, combined.toByteArray());
+		verify(mockS3Client).completeMultipartUpload(completeCaptor.capture());
+		assertEquals(uploadId, completeCaptor.getValue().getUploadId());
+		assertEquals(3, completeCaptor.getValue().getPartETags().size());
+		verify(mockS3Client, never()).abortMultipartUpload(any());
+	}
+
+	@Test
+	public void testCloseEmpty() throws IOException {
+		setupUpload();
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		// call under test
+		out.close();
+		// An empty object still requires a single part.
+		assertEquals(1, uploadedParts.size());
+		assertEquals(0, uploadedParts.get(0).length);
+		verify(mockS3Client).completeMultipartUpload(any());
+	}
+
+	@Test
+	public void testCloseTwice() throws IOException {
+		setupUpload();
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		out.write(1);
+		// call under test
+		out.close();
+		out.close();
+		verify(mockS3Client, times(1)).completeMultipartUpload(any());
+	}
+
+	@Test
+	public void testAbort() throws IOException {
+		setupUpload();
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		out.write(new byte[partSize + 1]);
+		// call under test
+		out.abort();
+		out.close();
+		verify(mockS3Client).abortMultipartUpload(abortCaptor.capture());
+		assertEquals(uploadId, abortCaptor.getValue().getUploadId());
+		verify(mockS3Client, never()).completeMultipartUpload(any());
+	}
+
+	@Test
+	public void testAbortBeforeAnyPart() throws IOException {
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		out.write(new byte[10]);
+		// call under test
+		out.abort();
+		// nothing was started so there is nothing to abort.
+		verify(mockS3Client, never()).initiateMultipartUpload(any());
+		verify(mockS3Client, never()).abortMultipartUpload(any());
+	}
+
+	@Test
+	public void testUploadPartFailure() throws IOException {
+		InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+		initResult.setUploadId(uploadId);
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initResult);
+		IllegalStateException failure = new IllegalStateException("failed");
+		when(mockS3Client.uploadPart(any())).thenThrow(failure);
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize);
+		// call under test
+		IllegalStateException result = assertThrows(IllegalStateException.class, () -> {
+			out.write(new byte[partSize + 1]);
+		});
+		assertEquals(failure, result);
+		verify(mockS3Client).abortMultipartUpload(any());
+		// the stream can no longer be written to
+		assertThrows(IOException.class, () -> {
+			out.write(1);
+		});
+	}
+
+	@Test
+	public void testStorageClass() throws IOException {
+		setupUpload();
+		S3MultipartOutputStream out = new S3MultipartOutputStream(mockS3Client, bucket, key, null,
+				StorageClass.IntelligentTiering, partSize);
+		out.write(1);
+		// call under test
+		out.close();
+		verify(mockS3Client).initiateMultipartUpload(initiateCaptor.capture());
+		assertEquals(StorageClass.IntelligentTiering.toString(), initiateCaptor.getValue().getStorageClass().toString());
+	}
+
+	@Test
+	public void testPartSizeTooSmall() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new S3MultipartOutputStream(mockS3Client, bucket, key, null, partSize - 1);
+		});
+	}
+
+}
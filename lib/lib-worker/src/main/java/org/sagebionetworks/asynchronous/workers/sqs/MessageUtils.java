@@ -10,6 +10,7 @@ import org.json.JSONObject;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.asynch.AsynchronousJobStatus;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeMessageBatchEncoding;
 import org.sagebionetworks.repo.model.message.ChangeMessages;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.repo.model.message.UnsentMessageRange;
@@ -20,6 +21,7 @@ import org.sagebionetworks.schema.adapter.org.json.JSONObjectAdapterImpl;
 import org.sagebionetworks.util.ValidateArgument;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
 
 /**
  * Helper methods for messages
@@ -99,14 +101,26 @@ public class MessageUtils {
 	/**
 	 * Extract a list of change messages from a message.
 	 * This will handle messages directly from a queue or forwarded from a topic.
-	 * The change messages can either be written as a signle or a batch.
+	 * The change messages can either be written as a signle or a batch, in either JSON
+	 * or the compact {@link ChangeMessageBatchEncoding}.
 	 * 
 	 * @param message
 	 * @return
 	 */
 	public static List<ChangeMessage> extractChangeMessageBatch(Message message){
+		ValidateArgument.required(message, "message");
 		try {
-			JSONObject object = extractMessageBodyAsJSONObject(message);
+			if (isCompactEncoding(message.getMessageAttributes().get(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE))) {
+				return ChangeMessageBatchEncoding.decode(message.getBody());
+			}
+			JSONObject object = new JSONObject(message.getBody());
+			if (object.has("TopicArn") && object.has("Message")) {
+				// Forwarded from a topic, the attributes of the topic message are in the envelope.
+				if (isCompactTopicMessage(object)) {
+					return ChangeMessageBatchEncoding.decode(object.getString("Message"));
+				}
+				object = new JSONObject(object.getString("Message"));
+			}
 			JSONObjectAdapterImpl adapter = new JSONObjectAdapterImpl(object);
 			if(object.has("list")){
 				return  new ChangeMessages(adapter).getList();
@@ -120,6 +134,29 @@ public class MessageUtils {
 		}
 	}
 	
+	private static boolean isCompactEncoding(MessageAttributeValue encoding) {
+		return encoding != null && ChangeMessageBatchEncoding.COMPACT_V1.equals(encoding.getStringValue());
+	}
+	
+	/**
+	 * Does the given topic envelope carry a message written with the compact change message encoding?
+	 * 
+	 * @param envelope
+	 * @return
+	 * @throws JSONException
+	 */
+	private static boolean isCompactTopicMessage(JSONObject envelope) throws JSONException {
+		if (!envelope.has("MessageAttributes")) {
+			return false;
+		}
+		JSONObject attributes = envelope.getJSONObject("MessageAttributes");
+		if (!attributes.has(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE)) {
+			return false;
+		}
+		String encoding = attributes.getJSONObject(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE).getString("Value");
+		return ChangeMessageBatchEncoding.COMPACT_V1.equals(encoding);
+	}
+	
 	/**
 	 * Extract a ChangeMessage from an Amazon Message
 	 * 
@@ -4,16 +4,21 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Test;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeMessageBatchEncoding;
 import org.sagebionetworks.repo.model.message.ChangeMessages;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 
 import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
 
 public class MessageUtilsTest {
 	
@@ -99,5 +104,52 @@ public class MessageUtilsTest {
 		assertEquals(two, result.get(1));
 	}
 	
+	@Test
+	public void testExtractChangeMessageBatchCompactQueueMessage() {
+		List<ChangeMessage> batch = createBatch();
+		Message awsMessage = new Message().withBody(ChangeMessageBatchEncoding.encode(batch))
+				.addMessageAttributesEntry(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE,
+						new MessageAttributeValue().withDataType("String").withStringValue(ChangeMessageBatchEncoding.COMPACT_V1));
+		
+		// Extract it
+		List<ChangeMessage> result = MessageUtils.extractChangeMessageBatch(awsMessage);
+		assertEquals(batch, result);
+	}
+	
+	@Test
+	public void testExtractChangeMessageBatchCompactTopicMessage() throws JSONException {
+		List<ChangeMessage> batch = createBatch();
+		JSONObject envelope = new JSONObject();
+		envelope.put("TopicArn", "topic:arn");
+		envelope.put("Type", "Notification");
+		envelope.put("Message", ChangeMessageBatchEncoding.encode(batch));
+		JSONObject encoding = new JSONObject();
+		encoding.put("Type", "String");
+		encoding.put("Value", ChangeMessageBatchEncoding.COMPACT_V1);
+		JSONObject attributes = new JSONObject();
+		attributes.put(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE, encoding);
+		envelope.put("MessageAttributes", attributes);
+		Message awsMessage = new Message().withBody(envelope.toString());
+		
+		// Extract it
+		List<ChangeMessage> result = MessageUtils.extractChangeMessageBatch(awsMessage);
+		assertEquals(batch, result);
+	}
+	
+	private List<ChangeMessage> createBatch() {
+		ChangeMessage one = new ChangeMessage();
+		one.setChangeType(ChangeType.DELETE);
+		one.setObjectType(ObjectType.ENTITY);
+		one.setObjectId("123");
+		one.setChangeNumber(1L);
+		one.setTimestamp(new Date(1000L));
+		ChangeMessage two = new ChangeMessage();
+		two.setChangeType(ChangeType.UPDATE);
+		two.setObjectType(ObjectType.WIKI);
+		two.setObjectId("456");
+		two.setChangeNumber(2L);
+		two.setTimestamp(new Date(2000L));
+		return Arrays.asList(one, two);
+	}
 
 }
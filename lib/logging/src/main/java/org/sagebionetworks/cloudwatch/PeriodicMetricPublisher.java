@@ -0,0 +1,124 @@
+package org.sagebionetworks.cloudwatch;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Base class of the publishers that send the statistics of an in-process
+ * component to cloud watch each time a timer fires. All metrics of a publisher
+ * share a name space, and counters are published as the change since the last
+ * time the timer fired.
+ *
+ */
+public abstract class PeriodicMetricPublisher {
+
+	@Autowired
+	private Consumer consumer;
+	@Autowired
+	private Clock clock;
+	@Autowired
+	private StackConfiguration stackConfig;
+
+	private final String nameSpacePrefix;
+	private final Map<String, Long> lastCounts;
+	private String nameSpace;
+
+	/**
+	 *
+	 * @param nameSpacePrefix The stack instance is appended to form the name space.
+	 */
+	protected PeriodicMetricPublisher(String nameSpacePrefix) {
+		if (nameSpacePrefix == null) {
+			throw new IllegalArgumentException("NamespacePrefix cannot be null");
+		}
+		this.nameSpacePrefix = nameSpacePrefix;
+		this.lastCounts = new HashMap<>();
+	}
+
+	/**
+	 * Call from a timer.
+	 */
+	public void onTimerFired() {
+		publishMetrics(new Date(clock.currentTimeMillis()));
+	}
+
+	/**
+	 * Publish the current metrics of the component.
+	 *
+	 * @param now The timestamp of every metric of this run.
+	 */
+	protected abstract void publishMetrics(Date now);
+
+	/**
+	 * Publish the change of a counter since the last time the timer fired.
+	 *
+	 * @param name
+	 * @param count The current value of the counter.
+	 * @param date
+	 */
+	protected void publishCountChange(String name, long count, Date date) {
+		long lastCount = lastCounts.getOrDefault(name, 0L);
+		lastCounts.put(name, count);
+		publishValue(name, count - lastCount, StandardUnit.Count, date);
+	}
+
+	/**
+	 * Publish the current value of a gauge.
+	 *
+	 * @param name
+	 * @param value
+	 * @param unit
+	 * @param date
+	 */
+	protected void publishValue(String name, double value, StandardUnit unit, Date date) {
+		ProfileData pd = createProfileData(name, unit, date);
+		pd.setValue(value);
+		publish(pd);
+	}
+
+	/**
+	 * Publish a single metric.
+	 *
+	 * @param profileData
+	 */
+	protected void publish(ProfileData profileData) {
+		consumer.addProfileData(profileData);
+	}
+
+	/**
+	 * Create a metric in the name space of this publisher.
+	 *
+	 * @param name
+	 * @param unit
+	 * @param date
+	 * @return
+	 */
+	protected ProfileData createProfileData(String name, StandardUnit unit, Date date) {
+		ProfileData pd = new ProfileData();
+		pd.setNamespace(getNamespace());
+		pd.setTimestamp(date);
+		pd.setName(name);
+		pd.setUnit(unit.name());
+		return pd;
+	}
+
+	/**
+	 * The metric name space.
+	 *
+	 * @return
+	 */
+	public String getNamespace() {
+		if (nameSpace == null) {
+			nameSpace = nameSpacePrefix + "-" + stackConfig.getStackInstance();
+		}
+		return nameSpace;
+	}
+
+}
@@ -1,16 +1,30 @@
 package org.sagebionetworks.kinesis;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
 
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 @Component
 public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 
+	/**
+	 * The maximum number of batches sent to firehose at the same time
+	 */
+	public static final int MAX_CONCURRENT_BATCHES = 4;
+
 	private AwsKinesisFirehoseBatchClient kinesisFirehoseBatchClient;
 	
 	private AwsKinesisLogRecordSerializer kinesisRecordSerializer;
@@ -18,11 +32,20 @@ public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 	private String stack;
 	
 	private String instance;
+	
+	private ExecutorService batchSender;
 
 	@Autowired
 	public AwsKinesisFirehoseLoggerImpl(AwsKinesisFirehoseBatchClient kinesisFirehoseBatchClient,  AwsKinesisLogRecordSerializer kinesisRecordSerializer) {
 		this.kinesisFirehoseBatchClient = kinesisFirehoseBatchClient;
 		this.kinesisRecordSerializer = kinesisRecordSerializer;
+		this.batchSender = Executors.newFixedThreadPool(MAX_CONCURRENT_BATCHES,
+				new ThreadFactoryBuilder().setNameFormat("firehose-sender-%d").setDaemon(true).build());
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		batchSender.shutdown();
 	}
 	
 	@Autowired
@@ -54,6 +77,8 @@ public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 
 		String streamName = kinesisStreamName(kinesisDataStreamSuffix);
 		
+		List<List<AwsKinesisRecord>> batches = new ArrayList<>();
+		
 		List<AwsKinesisRecord> batch = new LinkedList<>();
 		
 		int batchSize = 0;
@@ -62,7 +87,7 @@ public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 			AwsKinesisRecord next = recordIterator.next();
 			
 			if (batchSize + next.size() > AwsKinesisFirehoseConstants.REQUEST_SIZE_LIMIT || batch.size() == AwsKinesisFirehoseConstants.PUT_BATCH_MAX_RECORD_LIMIT) {
-				kinesisFirehoseBatchClient.sendBatch(streamName, batch);
+				batches.add(batch);
 				batch = new LinkedList<>();
 				batchSize = 0;
 			}
@@ -74,9 +99,53 @@ public class AwsKinesisFirehoseLoggerImpl implements AwsKinesisFirehoseLogger {
 		}
 		
 		if (!batch.isEmpty()) {
-			kinesisFirehoseBatchClient.sendBatch(streamName, batch);
+			batches.add(batch);
 		}
 		
+		sendBatches(streamName, batches);
+		
+	}
+	
+	/**
+	 * Send the given batches to the stream. A single batch is sent on the calling thread, while multiple
+	 * batches are sent in parallel. Waits for all the batches to be sent.
+	 * 
+	 * @param streamName
+	 * @param batches
+	 * @throws AwsKinesisDeliveryException If any of the batches could not be delivered
+	 */
+	private void sendBatches(String streamName, List<List<AwsKinesisRecord>> batches) {
+		if (batches.size() == 1) {
+			kinesisFirehoseBatchClient.sendBatch(streamName, batches.get(0));
+			return;
+		}
+		
+		List<Future<?>> futures = new ArrayList<>(batches.size());
+		
+		for (List<AwsKinesisRecord> toSend : batches) {
+			futures.add(batchSender.submit(() -> kinesisFirehoseBatchClient.sendBatch(streamName, toSend)));
+		}
+		
+		AwsKinesisDeliveryException failure = null;
+		
+		// Wait for every batch even after a failure so that no send is left running
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AwsKinesisDeliveryException("Interrupted while sending batches to " + streamName, e);
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause() instanceof AwsKinesisDeliveryException ? (AwsKinesisDeliveryException) e.getCause()
+							: new AwsKinesisDeliveryException(e.getCause());
+				}
+			}
+		}
+		
+		if (failure != null) {
+			throw failure;
+		}
 	}
 	
 	private String kinesisStreamName(String kinesisDataStreamSuffix) {
@@ -0,0 +1,106 @@
+package org.sagebionetworks.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with a fixed memory footprint that is safe to
+ * record from any number of threads.
+ * <p>
+ * Values (in nanoseconds) are counted in log-linear buckets, in the style of an
+ * HDR histogram: values below {@link #EXACT_LIMIT} are counted exactly, above
+ * that each power of two is split into {@link #SUB_BUCKET_COUNT} buckets, so a
+ * value read back from the histogram is within about 3% of the recorded value.
+ * Values above {@link #MAX_TRACKABLE_VALUE} (about 18 minutes) are counted in
+ * the last bucket.
+ * <p>
+ * Recording is a single atomic increment of a bucket and a {@link LongAdder}
+ * update, there is no allocation. The histogram is never reset, instead
+ * {@link #getSnapshot()} captures the current counts, and the difference
+ * between two snapshots gives the values recorded in between.
+ *
+ */
+public class LatencyHistogram {
+
+	static final int SUB_BUCKET_BITS = 5;
+	static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	static final long EXACT_LIMIT = SUB_BUCKET_COUNT * 2;
+	static final int MAX_VALUE_BITS = 40;
+	public static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+	static final int BUCKET_COUNT = getBucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+	private final AtomicLongArray counts;
+	private final LongAdder sum;
+
+	public LatencyHistogram() {
+		this.counts = new AtomicLongArray(BUCKET_COUNT);
+		this.sum = new LongAdder();
+	}
+
+	/**
+	 * Record a single latency.
+	 *
+	 * @param nanos Negative values are recorded as zero.
+	 */
+	public void record(long nanos) {
+		long value = Math.min(Math.max(nanos, 0L), MAX_TRACKABLE_VALUE);
+		counts.incrementAndGet(getBucketIndex(value));
+		sum.add(value);
+	}
+
+	/**
+	 * Capture the current counts of this histogram. Values recorded while the
+	 * snapshot is taken might only be partially included.
+	 *
+	 * @return
+	 */
+	public LatencySnapshot getSnapshot() {
+		long[] copy = new long[BUCKET_COUNT];
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			copy[i] = counts.get(i);
+		}
+		return new LatencySnapshot(copy, sum.sum());
+	}
+
+	/**
+	 * The index of the bucket that counts the given value.
+	 *
+	 * @param value A value between zero and {@link #MAX_TRACKABLE_VALUE}
+	 * @return
+	 */
+	static int getBucketIndex(long value) {
+		if (value < EXACT_LIMIT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * The smallest value counted by the given bucket.
+	 *
+	 * @param index
+	 * @return
+	 */
+	static long getBucketLowerBound(int index) {
+		if (index < EXACT_LIMIT) {
+			return index;
+		}
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		return ((long) (index - (shift << SUB_BUCKET_BITS))) << shift;
+	}
+
+	/**
+	 * The largest value counted by the given bucket.
+	 *
+	 * @param index
+	 * @return
+	 */
+	static long getBucketUpperBound(int index) {
+		if (index + 1 >= BUCKET_COUNT) {
+			return MAX_TRACKABLE_VALUE;
+		}
+		return getBucketLowerBound(index + 1) - 1;
+	}
+
+}
@@ -0,0 +1,118 @@
+package org.sagebionetworks.profiler;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.sagebionetworks.cloudwatch.MetricStats;
+import org.sagebionetworks.cloudwatch.PeriodicMetricPublisher;
+import org.sagebionetworks.cloudwatch.ProfileData;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the {@link LatencyMetrics} of this process to cloud watch. Each
+ * time the timer fires the latency recorded since the last time is published
+ * for the names with the most total time, as statistics plus the median and the
+ * 99th percentile.
+ *
+ */
+public class LatencyMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String NAME = "name";
+	public static final String LATENCY = "latency";
+	public static final String LATENCY_P50 = "latencyP50";
+	public static final String LATENCY_P99 = "latencyP99";
+
+	private static final double NANOS_PER_MS = 1000_000.0;
+
+	private final LatencyMetrics latencyMetrics;
+	private final int maxPublishedNames;
+	private Map<String, LatencySnapshot> lastSnapshots;
+
+	/**
+	 *
+	 * @param latencyMetrics    The metrics to publish.
+	 * @param nameSpacePrefix   Followed by "-Latency-" and the stack instance.
+	 * @param maxPublishedNames The maximum number of names published each time
+	 *                          the timer fires.
+	 */
+	public LatencyMetricPublisher(LatencyMetrics latencyMetrics, String nameSpacePrefix, int maxPublishedNames) {
+		super(nameSpacePrefix + "-Latency");
+		if (latencyMetrics == null) {
+			throw new IllegalArgumentException("LatencyMetrics cannot be null");
+		}
+		this.latencyMetrics = latencyMetrics;
+		this.maxPublishedNames = maxPublishedNames;
+		this.lastSnapshots = Collections.emptyMap();
+	}
+
+	@Override
+	protected void publishMetrics(Date now) {
+		Map<String, LatencySnapshot> current = latencyMetrics.getSnapshots();
+		Map<String, LatencySnapshot> intervals = new HashMap<>(current.size());
+		for (Entry<String, LatencySnapshot> entry : current.entrySet()) {
+			LatencySnapshot last = lastSnapshots.getOrDefault(entry.getKey(), LatencySnapshot.EMPTY);
+			LatencySnapshot interval = entry.getValue().minus(last);
+			if (interval.getCount() > 0) {
+				intervals.put(entry.getKey(), interval);
+			}
+		}
+		lastSnapshots = current;
+		intervals.entrySet().stream()
+				.sorted(Comparator.comparingLong((Entry<String, LatencySnapshot> e) -> e.getValue().getSum()).reversed())
+				.limit(maxPublishedNames).forEach(e -> {
+					publish(createStatsMetric(e.getKey(), e.getValue(), now));
+					publish(createMetric(LATENCY_P50, e.getKey(), e.getValue().getValueAtPercentile(50.0), now));
+					publish(createMetric(LATENCY_P99, e.getKey(), e.getValue().getValueAtPercentile(99.0), now));
+				});
+	}
+
+	/**
+	 * Create the statistics metric for the latency of a single name.
+	 *
+	 * @param name
+	 * @param interval
+	 * @param date
+	 * @return
+	 */
+	ProfileData createStatsMetric(String name, LatencySnapshot interval, Date date) {
+		MetricStats stats = new MetricStats();
+		stats.setMaximum(toMilliseconds(interval.getMax()));
+		stats.setMinimum(toMilliseconds(interval.getMin()));
+		stats.setSum(toMilliseconds(interval.getSum()));
+		stats.setCount(Double.valueOf(interval.getCount()));
+		ProfileData pd = createLatencyProfileData(LATENCY, name, date);
+		pd.setMetricStats(stats);
+		return pd;
+	}
+
+	/**
+	 * Create a single value latency metric.
+	 *
+	 * @param metricName
+	 * @param name
+	 * @param nanos
+	 * @param date
+	 * @return
+	 */
+	ProfileData createMetric(String metricName, String name, long nanos, Date date) {
+		ProfileData pd = createLatencyProfileData(metricName, name, date);
+		pd.setValue(toMilliseconds(nanos));
+		return pd;
+	}
+
+	private ProfileData createLatencyProfileData(String metricName, String name, Date date) {
+		ProfileData pd = createProfileData(metricName, StandardUnit.Milliseconds, date);
+		pd.setDimension(Collections.singletonMap(NAME, name));
+		return pd;
+	}
+
+	static Double toMilliseconds(long nanos) {
+		return nanos / NANOS_PER_MS;
+	}
+
+}
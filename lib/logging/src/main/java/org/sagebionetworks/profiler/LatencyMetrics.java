@@ -0,0 +1,106 @@
+package org.sagebionetworks.profiler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the {@link LatencyHistogram}s of a process, one per method or
+ * endpoint name. The number of names is bounded so the memory used by the
+ * registry is fixed: once the limit is reached the latency of any new name is
+ * recorded under {@link #OTHER_NAME}. Each histogram uses about 9 KB.
+ * <p>
+ * The profiler and the web-service interceptor only record latencies when the
+ * metrics are enabled, so a disabled registry allocates no histograms.
+ *
+ */
+public class LatencyMetrics {
+
+	public static final String OTHER_NAME = "other";
+
+	private final boolean enabled;
+	private final int maxNames;
+	private final ConcurrentHashMap<String, LatencyHistogram> histograms;
+	private final LatencyHistogram other;
+
+	/**
+	 * An enabled registry.
+	 * 
+	 * @param maxNames The maximum number of distinct names that get their own
+	 *                 histogram.
+	 */
+	public LatencyMetrics(int maxNames) {
+		this(true, maxNames);
+	}
+
+	/**
+	 * @param enabled  When false nothing is recorded.
+	 * @param maxNames The maximum number of distinct names that get their own
+	 *                 histogram.
+	 */
+	public LatencyMetrics(boolean enabled, int maxNames) {
+		if (maxNames < 1) {
+			throw new IllegalArgumentException("The maximum number of names must be at least one");
+		}
+		this.enabled = enabled;
+		this.maxNames = maxNames;
+		this.histograms = new ConcurrentHashMap<>();
+		this.other = new LatencyHistogram();
+	}
+
+	/**
+	 * @return Whether latencies should be recorded.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Get the histogram for the given name, creating it if needed. Callers on a
+	 * hot path should keep the returned histogram rather than looking it up for
+	 * each call.
+	 *
+	 * @param name
+	 * @return
+	 */
+	public LatencyHistogram getHistogram(String name) {
+		LatencyHistogram histogram = histograms.get(name);
+		if (histogram != null) {
+			return histogram;
+		}
+		if (histograms.size() >= maxNames) {
+			return other;
+		}
+		return histograms.computeIfAbsent(name, (key) -> new LatencyHistogram());
+	}
+
+	/**
+	 * Record a latency for the given name.
+	 *
+	 * @param name
+	 * @param nanos
+	 */
+	public void record(String name, long nanos) {
+		if (!enabled) {
+			return;
+		}
+		getHistogram(name).record(nanos);
+	}
+
+	/**
+	 * A snapshot of every histogram, keyed by name.
+	 *
+	 * @return
+	 */
+	public Map<String, LatencySnapshot> getSnapshots() {
+		Map<String, LatencySnapshot> snapshots = new HashMap<>(histograms.size() + 1);
+		histograms.forEach((name, histogram) -> snapshots.put(name, histogram.getSnapshot()));
+		LatencySnapshot otherSnapshot = other.getSnapshot();
+		if (otherSnapshot.getCount() > 0) {
+			snapshots.merge(OTHER_NAME, otherSnapshot, LatencySnapshot::merge);
+		}
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+}
@@ -0,0 +1,158 @@
+package org.sagebionetworks.profiler;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of the counts of a {@link LatencyHistogram}. Snapshots can
+ * be merged (to combine histograms) and subtracted (to get the values recorded
+ * during an interval).
+ *
+ */
+public class LatencySnapshot {
+
+	public static final LatencySnapshot EMPTY = new LatencySnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0L);
+
+	private final long[] counts;
+	private final long count;
+	private final long sum;
+
+	LatencySnapshot(long[] counts, long sum) {
+		this.counts = counts;
+		long total = 0L;
+		for (long bucket : counts) {
+			total += bucket;
+		}
+		this.count = total;
+		this.sum = sum;
+	}
+
+	/**
+	 * The number of recorded values.
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * The sum of all recorded values in nanoseconds.
+	 *
+	 * @return
+	 */
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * The smallest recorded value, to the resolution of the histogram. Zero if
+	 * nothing was recorded.
+	 *
+	 * @return
+	 */
+	public long getMin() {
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				return LatencyHistogram.getBucketLowerBound(i);
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * The largest recorded value, to the resolution of the histogram. Zero if
+	 * nothing was recorded.
+	 *
+	 * @return
+	 */
+	public long getMax() {
+		for (int i = counts.length - 1; i >= 0; i--) {
+			if (counts[i] > 0) {
+				return LatencyHistogram.getBucketUpperBound(i);
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * The value at the given percentile, to the resolution of the histogram. Zero
+	 * if nothing was recorded.
+	 *
+	 * @param percentile Between 0.0 and 100.0
+	 * @return
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0.0 || percentile > 100.0) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		if (count == 0L) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+		long seen = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return LatencyHistogram.getBucketUpperBound(i);
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Combine this snapshot with the given snapshot.
+	 *
+	 * @param other
+	 * @return A new snapshot with the values of both snapshots.
+	 */
+	public LatencySnapshot merge(LatencySnapshot other) {
+		long[] merged = new long[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			merged[i] = counts[i] + other.counts[i];
+		}
+		return new LatencySnapshot(merged, sum + other.sum);
+	}
+
+	/**
+	 * The values recorded since the given, earlier, snapshot of the same
+	 * histogram.
+	 *
+	 * @param earlier
+	 * @return
+	 */
+	public LatencySnapshot minus(LatencySnapshot earlier) {
+		long[] interval = new long[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			// A concurrent snapshot can be slightly ahead in one bucket.
+			interval[i] = Math.max(0L, counts[i] - earlier.counts[i]);
+		}
+		return new LatencySnapshot(interval, Math.max(0L, sum - earlier.sum));
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + Arrays.hashCode(counts);
+		result = prime * result + (int) (sum ^ (sum >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		LatencySnapshot other = (LatencySnapshot) obj;
+		return Arrays.equals(counts, other.counts) && sum == other.sum;
+	}
+
+	@Override
+	public String toString() {
+		return "LatencySnapshot [count=" + count + ", sum=" + sum + "]";
+	}
+
+}
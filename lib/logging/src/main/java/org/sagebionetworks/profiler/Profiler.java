@@ -1,44 +1,86 @@
 package org.sagebionetworks.profiler;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.springframework.beans.factory.annotation.Autowired;
 
 /**
- * This is a Profiler that logs the results.
+ * This is a Profiler that records the latency of bean method calls into the
+ * {@link LatencyMetrics} of the process. Nothing is recorded unless the metrics
+ * are enabled, and only the methods of classes with one of the configured name
+ * prefixes are recorded.
  * 
  * @author jmhill
  * 
  */
 @Aspect
 public class Profiler {
-	@Autowired
-	private ProfilerFrameStackManager frameStackManager;
+
+	private final LatencyMetrics latencyMetrics;
+	private final List<String> classPrefixes;
+	// Whether the methods of each target class are profiled
+	private final ClassValue<Boolean> profiledClasses = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return isProfiled(type.getName());
+		}
+	};
+	// The histograms of each target class by method name, so the name of a method
+	// is only built the first time it is called.
+	private final ClassValue<ConcurrentHashMap<String, LatencyHistogram>> classHistograms = new ClassValue<ConcurrentHashMap<String, LatencyHistogram>>() {
+		@Override
+		protected ConcurrentHashMap<String, LatencyHistogram> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * 
+	 * @param latencyMetrics
+	 * @param classPrefixes  The prefixes of the names of the classes whose methods
+	 *                       are profiled.
+	 */
+	public Profiler(LatencyMetrics latencyMetrics, List<String> classPrefixes) {
+		this.latencyMetrics = latencyMetrics;
+		this.classPrefixes = classPrefixes;
+	}
 
 	// execution(* org.sagebionetworks..*.*(..)) means profile any bean in the
 	// package org.sagebionetworks or any sub-packages
 	@Around("execution(* org.sagebionetworks..*.*(..)) && !within(org.sagebionetworks.profiler.*)")
 	public Object doBasicProfiling(ProceedingJoinPoint pjp) throws Throwable {
-		// Do nothing if logging is not on
-		if (!frameStackManager.shouldCaptureData()) {
-			// Just proceed if logging is off.
+		if (!latencyMetrics.isEnabled() || !profiledClasses.get(pjp.getTarget().getClass())) {
 			return pjp.proceed();
 		}
-
-		Signature signature = pjp.getSignature();
-		Class<?> declaring = pjp.getTarget().getClass();
-		String methodName = declaring.getName() + "." + signature.getName();
-
 		long startTime = System.nanoTime();
 		try {
-			frameStackManager.startProfiling(methodName);
 			return pjp.proceed();
 		} finally {
-			long endTime = System.nanoTime();
-			frameStackManager.endProfiling(methodName, (endTime - startTime) / 1000000);
+			long elapsed = System.nanoTime() - startTime;
+			getHistogram(pjp.getTarget().getClass(), pjp.getSignature().getName()).record(elapsed);
+		}
+	}
+
+	LatencyHistogram getHistogram(Class<?> declaring, String signatureName) {
+		ConcurrentHashMap<String, LatencyHistogram> byMethod = classHistograms.get(declaring);
+		LatencyHistogram histogram = byMethod.get(signatureName);
+		if (histogram == null) {
+			histogram = byMethod.computeIfAbsent(signatureName,
+					(name) -> latencyMetrics.getHistogram(declaring.getName() + "." + name));
+		}
+		return histogram;
+	}
+
+	boolean isProfiled(String className) {
+		for (String prefix : classPrefixes) {
+			if (className.startsWith(prefix)) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 }
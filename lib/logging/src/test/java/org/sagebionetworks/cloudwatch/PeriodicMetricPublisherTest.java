@@ -0,0 +1,86 @@
+package org.sagebionetworks.cloudwatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.util.Clock;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class PeriodicMetricPublisherTest {
+
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	Clock mockClock;
+	@Mock
+	StackConfiguration mockStackConfig;
+	@Captor
+	ArgumentCaptor<ProfileData> profileCaptor;
+	@InjectMocks
+	StubPublisher publisher;
+
+	static class StubPublisher extends PeriodicMetricPublisher {
+
+		long count;
+		long value;
+
+		public StubPublisher() {
+			super("Stub");
+		}
+
+		@Override
+		protected void publishMetrics(Date now) {
+			publishCountChange("count", count, now);
+			publishValue("value", value, StandardUnit.Bytes, now);
+		}
+	}
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1L, 2L);
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		publisher.count = 10L;
+		publisher.value = 100L;
+		// call under test
+		publisher.onTimerFired();
+		publisher.count = 25L;
+		publisher.value = 50L;
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(4)).addProfileData(profileCaptor.capture());
+		List<ProfileData> published = profileCaptor.getAllValues();
+		assertMetric(published.get(0), "count", 10L, StandardUnit.Count, 1L);
+		assertMetric(published.get(1), "value", 100L, StandardUnit.Bytes, 1L);
+		// the count is the change since the last run while the value is the current value.
+		assertMetric(published.get(2), "count", 15L, StandardUnit.Count, 2L);
+		assertMetric(published.get(3), "value", 50L, StandardUnit.Bytes, 2L);
+	}
+
+	void assertMetric(ProfileData data, String name, long value, StandardUnit unit, long timestamp) {
+		assertEquals("Stub-instance1", data.getNamespace());
+		assertEquals(name, data.getName());
+		assertEquals(new Double(value), data.getValue());
+		assertEquals(unit.name(), data.getUnit());
+		assertEquals(new Date(timestamp), data.getTimestamp());
+	}
+}
@@ -8,10 +8,12 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -183,12 +185,37 @@ class AwsKinesisFirehoseLoggerImplTest {
 
 		verify(mockKinesisFirehoseBatchClient, times(2)).sendBatch(eq("devtestmyKinesisStream"), batchCaptor.capture());
 
-		List<List<AwsKinesisRecord>> batches = batchCaptor.getAllValues();
+		// The batches are sent in parallel so they can arrive in any order
+		List<Integer> batchSizes = batchCaptor.getAllValues().stream().map(List::size).sorted().collect(Collectors.toList());
 
-		assertEquals(4, batches.get(0).size());
-		assertEquals(1, batches.get(1).size());
+		assertEquals(Lists.newArrayList(1, 4), batchSizes);
 
 		verifyNoMoreInteractions(mockKinesisFirehoseBatchClient);
 	}
 
+	@Test
+	public void testLogBatchWithMultipleBatchesAndFailure() {
+		List<AwsKinesisLogRecord> mockRecordList = Collections.nCopies(5, mockRecord1);
+
+		when(mockRecord1.withStack(stack)).thenReturn(mockRecord1);
+
+		byte[] mockRecordBytes = new byte[AwsKinesisFirehoseConstants.RECORD_SIZE_LIMIT - AwsKinesisFirehoseConstants.NEW_LINE_BYTES.length];
+
+		when(mockRecordSerializer.toBytes(any())).thenReturn(mockRecordBytes);
+
+		AwsKinesisDeliveryException failure = new AwsKinesisDeliveryException("failed");
+
+		doThrow(failure).when(mockKinesisFirehoseBatchClient).sendBatch(any(), any());
+
+		AwsKinesisDeliveryException result = assertThrows(AwsKinesisDeliveryException.class, () -> {
+			// method under test
+			kinesisFirehoseLogger.logBatch(kinesisStreamSuffix, mockRecordList);
+		});
+
+		assertEquals(failure, result);
+
+		// Both batches are still attempted
+		verify(mockKinesisFirehoseBatchClient, times(2)).sendBatch(eq("devtestmyKinesisStream"), any());
+	}
+
 }
\ No newline at end of file
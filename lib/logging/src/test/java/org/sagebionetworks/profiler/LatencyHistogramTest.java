@@ -0,0 +1,193 @@
+package org.sagebionetworks.profiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketBoundsAreContiguous() {
+		assertEquals(0L, LatencyHistogram.getBucketLowerBound(0));
+		for (int i = 1; i < LatencyHistogram.BUCKET_COUNT; i++) {
+			assertEquals(LatencyHistogram.getBucketUpperBound(i - 1) + 1, LatencyHistogram.getBucketLowerBound(i));
+		}
+		assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE,
+				LatencyHistogram.getBucketUpperBound(LatencyHistogram.BUCKET_COUNT - 1));
+	}
+
+	@Test
+	public void testGetBucketIndex() {
+		// exact below the limit
+		assertEquals(0, LatencyHistogram.getBucketIndex(0L));
+		assertEquals(63, LatencyHistogram.getBucketIndex(63L));
+		assertEquals(64, LatencyHistogram.getBucketIndex(64L));
+		assertEquals(64, LatencyHistogram.getBucketIndex(65L));
+		assertEquals(LatencyHistogram.BUCKET_COUNT - 1,
+				LatencyHistogram.getBucketIndex(LatencyHistogram.MAX_TRACKABLE_VALUE));
+		// each value falls within the bounds of its bucket.
+		for (long value = 1; value < LatencyHistogram.MAX_TRACKABLE_VALUE; value = value * 3 + 1) {
+			int index = LatencyHistogram.getBucketIndex(value);
+			assertTrue(LatencyHistogram.getBucketLowerBound(index) <= value);
+			assertTrue(LatencyHistogram.getBucketUpperBound(index) >= value);
+		}
+	}
+
+	@Test
+	public void testRecordAndSnapshot() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long i = 1; i <= 100; i++) {
+			histogram.record(i * 1000L);
+		}
+		// call under test
+		LatencySnapshot snapshot = histogram.getSnapshot();
+		assertEquals(100L, snapshot.getCount());
+		assertEquals(5050_000L, snapshot.getSum());
+		assertWithinResolution(1000L, snapshot.getMin());
+		assertWithinResolution(100_000L, snapshot.getMax());
+		assertWithinResolution(50_000L, snapshot.getValueAtPercentile(50.0));
+		assertWithinResolution(99_000L, snapshot.getValueAtPercentile(99.0));
+		assertWithinResolution(1000L, snapshot.getValueAtPercentile(0.0));
+	}
+
+	@Test
+	public void testRecordOutOfRange() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		// call under test
+		histogram.record(-5L);
+		histogram.record(Long.MAX_VALUE);
+		LatencySnapshot snapshot = histogram.getSnapshot();
+		assertEquals(2L, snapshot.getCount());
+		assertEquals(0L, snapshot.getMin());
+		assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, snapshot.getMax());
+		assertEquals(LatencyHistogram.MAX_TRACKABLE_VALUE, snapshot.getSum());
+	}
+
+	@Test
+	public void testEmptySnapshot() {
+		LatencySnapshot snapshot = new LatencyHistogram().getSnapshot();
+		assertEquals(LatencySnapshot.EMPTY, snapshot);
+		assertEquals(0L, snapshot.getCount());
+		assertEquals(0L, snapshot.getMin());
+		assertEquals(0L, snapshot.getMax());
+		assertEquals(0L, snapshot.getValueAtPercentile(99.0));
+	}
+
+	@Test
+	public void testGetValueAtPercentileOutOfRange() {
+		LatencySnapshot snapshot = new LatencyHistogram().getSnapshot();
+		assertThrows(IllegalArgumentException.class, () -> {
+			snapshot.getValueAtPercentile(100.1);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			snapshot.getValueAtPercentile(-1.0);
+		});
+	}
+
+	@Test
+	public void testMergeAndMinus() {
+		LatencyHistogram one = new LatencyHistogram();
+		LatencyHistogram two = new LatencyHistogram();
+		one.record(10L);
+		LatencySnapshot before = one.getSnapshot();
+		one.record(2000L);
+		two.record(500L);
+		// call under test
+		LatencySnapshot interval = one.getSnapshot().minus(before);
+		assertEquals(1L, interval.getCount());
+		assertEquals(2000L, interval.getSum());
+		assertWithinResolution(2000L, interval.getMin());
+		// call under test
+		LatencySnapshot merged = one.getSnapshot().merge(two.getSnapshot());
+		assertEquals(3L, merged.getCount());
+		assertEquals(2510L, merged.getSum());
+		assertEquals(10L, merged.getMin());
+		assertWithinResolution(2000L, merged.getMax());
+	}
+
+	@Test
+	public void testConcurrentRecord() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		int threadCount = 4;
+		int perThread = 10_000;
+		runConcurrently(histogram, threadCount, perThread);
+		LatencySnapshot snapshot = histogram.getSnapshot();
+		assertEquals((long) threadCount * perThread, snapshot.getCount());
+	}
+
+	/**
+	 * Not a test of timing, prints the cost of recording a single value, which
+	 * should be in the tens of nanoseconds. Only runs with the benchmark profile.
+	 */
+	@Tag("benchmark")
+	@Test
+	public void benchmarkRecord() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		int count = 5_000_000;
+		// warm up
+		recordLoop(histogram, count);
+		long start = System.nanoTime();
+		recordLoop(histogram, count);
+		long elapsed = System.nanoTime() - start;
+		System.out.println("LatencyHistogram.record() single thread: " + (elapsed / count) + " ns/op");
+
+		int threadCount = 4;
+		start = System.nanoTime();
+		runConcurrently(histogram, threadCount, count);
+		elapsed = System.nanoTime() - start;
+		System.out.println("LatencyHistogram.record() " + threadCount + " threads: " + (elapsed / count) + " ns/op");
+
+		Profiler profiler = new Profiler(new LatencyMetrics(10), Collections.singletonList("org.sagebionetworks."));
+		start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			long callStart = System.nanoTime();
+			profiler.getHistogram(LatencyHistogramTest.class, "benchmarkRecord").record(System.nanoTime() - callStart);
+		}
+		elapsed = System.nanoTime() - start;
+		System.out.println("Profiler lookup and record: " + (elapsed / count) + " ns/op");
+	}
+
+	private static void recordLoop(LatencyHistogram histogram, int count) {
+		for (int i = 0; i < count; i++) {
+			histogram.record(i & 0xFFFFF);
+		}
+	}
+
+	private static void runConcurrently(LatencyHistogram histogram, int threadCount, int perThread)
+			throws InterruptedException {
+		CountDownLatch startLatch = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>(threadCount);
+		for (int t = 0; t < threadCount; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					startLatch.await();
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				recordLoop(histogram, perThread);
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		startLatch.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	/**
+	 * Values read from the histogram are within 1/32 of the recorded value.
+	 */
+	private static void assertWithinResolution(long expected, long actual) {
+		long tolerance = expected / LatencyHistogram.SUB_BUCKET_COUNT + 1;
+		assertTrue(Math.abs(expected - actual) <= tolerance, "Expected: " + expected + " but was: " + actual);
+	}
+}
@@ -0,0 +1,92 @@
+package org.sagebionetworks.profiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.util.Clock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class LatencyMetricPublisherTest {
+
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	Clock mockClock;
+	@Mock
+	StackConfiguration mockStackConfig;
+	@Captor
+	ArgumentCaptor<ProfileData> profileCaptor;
+
+	LatencyMetrics latencyMetrics;
+	LatencyMetricPublisher publisher;
+
+	@BeforeEach
+	public void before() {
+		latencyMetrics = new LatencyMetrics(10);
+		publisher = new LatencyMetricPublisher(latencyMetrics, "Repository", 1);
+		ReflectionTestUtils.setField(publisher, "consumer", mockConsumer);
+		ReflectionTestUtils.setField(publisher, "clock", mockClock);
+		ReflectionTestUtils.setField(publisher, "stackConfig", mockStackConfig);
+		when(mockClock.currentTimeMillis()).thenReturn(1L, 2L);
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+		latencyMetrics.record("slow", 2000_000L);
+		latencyMetrics.record("fast", 1000L);
+		// call under test
+		publisher.onTimerFired();
+		// only the slowest name is published.
+		verify(mockConsumer, times(3)).addProfileData(profileCaptor.capture());
+		List<ProfileData> published = profileCaptor.getAllValues();
+		ProfileData stats = published.get(0);
+		assertEquals("Repository-Latency-instance1", stats.getNamespace());
+		assertEquals(LatencyMetricPublisher.LATENCY, stats.getName());
+		assertEquals(StandardUnit.Milliseconds.name(), stats.getUnit());
+		assertEquals(Collections.singletonMap(LatencyMetricPublisher.NAME, "slow"), stats.getDimension());
+		assertEquals(1.0, stats.getMetricStats().getCount());
+		assertEquals(2.0, stats.getMetricStats().getSum());
+		assertEquals(LatencyMetricPublisher.LATENCY_P50, published.get(1).getName());
+		assertEquals(2.0, published.get(1).getValue(), 2.0 / 32);
+		assertEquals(LatencyMetricPublisher.LATENCY_P99, published.get(2).getName());
+		assertEquals(Collections.singletonMap(LatencyMetricPublisher.NAME, "slow"), published.get(2).getDimension());
+
+		// the next interval only includes new values.
+		latencyMetrics.record("fast", 1000L);
+		// call under test
+		publisher.onTimerFired();
+		verify(mockConsumer, times(6)).addProfileData(profileCaptor.capture());
+		published = profileCaptor.getAllValues();
+		stats = published.get(published.size() - 3);
+		assertEquals(Collections.singletonMap(LatencyMetricPublisher.NAME, "fast"), stats.getDimension());
+		assertEquals(1.0, stats.getMetricStats().getCount());
+		assertEquals(0.001, stats.getMetricStats().getSum());
+	}
+
+	@Test
+	public void testOnTimerFiredWithNoCalls() {
+		// call under test
+		publisher.onTimerFired();
+		verifyZeroInteractions(mockConsumer);
+	}
+}
@@ -0,0 +1,66 @@
+package org.sagebionetworks.profiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyMetricsTest {
+
+	@Test
+	public void testGetHistogram() {
+		LatencyMetrics metrics = new LatencyMetrics(2);
+		// call under test
+		LatencyHistogram one = metrics.getHistogram("one");
+		assertSame(one, metrics.getHistogram("one"));
+		assertNotSame(one, metrics.getHistogram("two"));
+	}
+
+	@Test
+	public void testGetHistogramOverLimit() {
+		LatencyMetrics metrics = new LatencyMetrics(2);
+		metrics.record("one", 10L);
+		metrics.record("two", 20L);
+		// call under test
+		metrics.record("three", 30L);
+		metrics.record("four", 40L);
+		Map<String, LatencySnapshot> snapshots = metrics.getSnapshots();
+		assertEquals(3, snapshots.size());
+		assertEquals(10L, snapshots.get("one").getSum());
+		assertEquals(20L, snapshots.get("two").getSum());
+		assertFalse(snapshots.containsKey("three"));
+		assertEquals(2L, snapshots.get(LatencyMetrics.OTHER_NAME).getCount());
+		assertEquals(70L, snapshots.get(LatencyMetrics.OTHER_NAME).getSum());
+	}
+
+	@Test
+	public void testGetSnapshotsWithEmptyOther() {
+		LatencyMetrics metrics = new LatencyMetrics(2);
+		metrics.record("one", 10L);
+		// call under test
+		Map<String, LatencySnapshot> snapshots = metrics.getSnapshots();
+		assertEquals(1, snapshots.size());
+	}
+
+	@Test
+	public void testRecordWithDisabled() {
+		LatencyMetrics metrics = new LatencyMetrics(false, 2);
+		assertFalse(metrics.isEnabled());
+		// call under test
+		metrics.record("one", 10L);
+		assertTrue(metrics.getSnapshots().isEmpty());
+	}
+
+	@Test
+	public void testConstructorWithNoNames() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new LatencyMetrics(0);
+		});
+	}
+}
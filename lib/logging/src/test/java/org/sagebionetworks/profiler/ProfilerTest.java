@@ -1,14 +1,15 @@
 package org.sagebionetworks.profiler;
 
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.junit.Before;
@@ -16,7 +17,6 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ProfilerTest {
@@ -25,56 +25,96 @@ public class ProfilerTest {
 	ProceedingJoinPoint mockProceedingJoinPoint;
 
 	@Mock
-	ProfilerFrameStackManager mockProfilerFrameStackManager;
+	Signature mockSignature;
+
+	LatencyMetrics latencyMetrics;
+
+	Profiler profiler;
 
-	Profiler spyProfiler;
+	Object target;
+	String signatureName;
+	String expectedMethodName;
 
 	@Before
 	public void setUp(){
-		Profiler profiler = new Profiler();
-		ReflectionTestUtils.setField(profiler, "frameStackManager", mockProfilerFrameStackManager);
+		latencyMetrics = new LatencyMetrics(10);
+		profiler = new Profiler(latencyMetrics, Collections.singletonList("java.lang."));
+		target = new Object();
+		signatureName = "fakename";
+		expectedMethodName = target.getClass().getName() + "." + signatureName;
+	}
 
-		spyProfiler = spy(profiler);
+	void setupJoinPoint() {
+		when(mockSignature.getName()).thenReturn(signatureName);
+		when(mockProceedingJoinPoint.getTarget()).thenReturn(target);
+		when(mockProceedingJoinPoint.getSignature()).thenReturn(mockSignature);
 	}
 
 	@Test
-	public void testDoBasicProfiling_shouldNotCaptureData() throws Throwable{
-		doReturn(false).when(mockProfilerFrameStackManager).shouldCaptureData();
+	public void testDoBasicProfiling() throws Throwable{
+		setupJoinPoint();
+		Object result = new Object();
+		when(mockProceedingJoinPoint.proceed()).thenReturn(result);
+
+		assertSame(result, profiler.doBasicProfiling(mockProceedingJoinPoint));
+		assertSame(result, profiler.doBasicProfiling(mockProceedingJoinPoint));
 
-		spyProfiler.doBasicProfiling(mockProceedingJoinPoint);
+		assertEquals(2L, latencyMetrics.getSnapshots().get(expectedMethodName).getCount());
+		assertEquals(1, latencyMetrics.getSnapshots().size());
+	}
 
-		verify(mockProfilerFrameStackManager).shouldCaptureData();
+	@Test
+	public void testDoBasicProfilingWithException() throws Throwable{
+		setupJoinPoint();
+		IllegalStateException exception = new IllegalStateException("nope");
+		when(mockProceedingJoinPoint.proceed()).thenThrow(exception);
+
+		try {
+			profiler.doBasicProfiling(mockProceedingJoinPoint);
+			fail();
+		} catch (IllegalStateException e) {
+			assertSame(exception, e);
+		}
+		// failed calls are recorded too.
+		assertEquals(1L, latencyMetrics.getSnapshots().get(expectedMethodName).getCount());
 		verify(mockProceedingJoinPoint).proceed();
+	}
 
-		verifyNoMoreInteractions(mockProceedingJoinPoint);
-		verifyNoMoreInteractions(mockProfilerFrameStackManager);
+	@Test
+	public void testDoBasicProfilingWithDisabled() throws Throwable{
+		latencyMetrics = new LatencyMetrics(false, 10);
+		profiler = new Profiler(latencyMetrics, Collections.singletonList("java.lang."));
+		Object result = new Object();
+		when(mockProceedingJoinPoint.proceed()).thenReturn(result);
+
+		assertSame(result, profiler.doBasicProfiling(mockProceedingJoinPoint));
+
+		assertTrue(latencyMetrics.getSnapshots().isEmpty());
 	}
 
 	@Test
-	public void testDoBasicProfiling_shouldCaptureData() throws Throwable{
-		doReturn(true).when(mockProfilerFrameStackManager).shouldCaptureData();
-		Object target = new Object();
-		String signatureName = "fakename()";
-		Signature mockSignature = mock(Signature.class);
-		when(mockSignature.getName()).thenReturn(signatureName);
-		String expectedMethodName = target.getClass().getName() + "." + signatureName;
+	public void testDoBasicProfilingWithClassNotProfiled() throws Throwable{
+		profiler = new Profiler(latencyMetrics, Collections.singletonList("org.sagebionetworks.repo.manager."));
 		when(mockProceedingJoinPoint.getTarget()).thenReturn(target);
-		when(mockProceedingJoinPoint.getSignature()).thenReturn(mockSignature);
-
+		Object result = new Object();
+		when(mockProceedingJoinPoint.proceed()).thenReturn(result);
 
-		spyProfiler.doBasicProfiling(mockProceedingJoinPoint);
+		assertSame(result, profiler.doBasicProfiling(mockProceedingJoinPoint));
 
-		verify(mockProfilerFrameStackManager).shouldCaptureData();
-		verify(mockProceedingJoinPoint).getSignature();
-		verify(mockProceedingJoinPoint).getTarget();
-		verify(mockSignature).getName();
-		verify(mockProfilerFrameStackManager).startProfiling(expectedMethodName);
-		verify(mockProceedingJoinPoint).proceed();
-		verify(mockProfilerFrameStackManager).endProfiling(eq(expectedMethodName), anyLong());
+		assertTrue(latencyMetrics.getSnapshots().isEmpty());
+	}
 
+	@Test
+	public void testIsProfiled() {
+		assertTrue(profiler.isProfiled("java.lang.Object"));
+		assertFalse(profiler.isProfiled("java.util.List"));
+	}
 
-		verifyNoMoreInteractions(mockSignature);
-		verifyNoMoreInteractions(mockProceedingJoinPoint);
-		verifyNoMoreInteractions(mockProfilerFrameStackManager);
+	@Test
+	public void testGetHistogram() {
+		LatencyHistogram histogram = profiler.getHistogram(Object.class, signatureName);
+		// the same histogram is used for each call to the method.
+		assertSame(histogram, profiler.getHistogram(Object.class, signatureName));
+		assertSame(histogram, latencyMetrics.getHistogram(expectedMethodName));
 	}
 }
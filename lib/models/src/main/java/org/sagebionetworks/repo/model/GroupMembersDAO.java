@@ -81,6 +81,14 @@ public interface GroupMembersDAO {
 	 */
 	Set<Long> getMemberIds(Long teamId);
 
+	/**
+	 * Get the IDs of at most the given number of members of this team.
+	 * @param teamId
+	 * @param limit
+	 * @return
+	 */
+	Set<Long> getMemberIds(Long teamId, long limit);
+
 	/**
 	 * Get the IDs of all members in the giving team locking for update.
 	 * @param teamId
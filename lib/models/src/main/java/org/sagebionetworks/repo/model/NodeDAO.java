@@ -1,9 +1,8 @@
 package org.sagebionetworks.repo.model;
 
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
-import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.NameIdType;
-import org.sagebionetworks.repo.model.entity.SortBy;
 import org.sagebionetworks.repo.model.entity.query.SortDirection;
 import org.sagebionetworks.repo.model.file.ChildStatsRequest;
 import org.sagebionetworks.repo.model.file.ChildStatsResponse;
@@ -77,6 +76,14 @@ public interface NodeDAO {
 	 */
 	public Node getNode(String id);
 	
+	/**
+	 * Fetch the current version of each of the given nodes with a single query.
+	 * 
+	 * @param ids
+	 * @return The nodes that exist, in no particular order.
+	 */
+	List<Node> getNodes(List<Long> ids);
+	
 	/**
 	 * Get the node for a given version number.
 	 * @param id
@@ -165,6 +172,15 @@ public interface NodeDAO {
 	 */
 	Annotations getUserAnnotationsForVersion(String id, Long versionNumber);
 
+	/**
+	 * Get the user annotations of the current version of each of the given
+	 * entities with a single query.
+	 * 
+	 * @param ids
+	 * @return The annotations of the entities that exist, in no particular order.
+	 */
+	List<Annotations> getUserAnnotationsForCurrentVersions(List<Long> ids);
+
 	/**
 	 * Get Entity properties that could not be stored as a Node
 	 * @param id
@@ -537,15 +553,13 @@ public interface NodeDAO {
 	 * @param parentId
 	 * @param includeTypes
 	 * @param childIdsToExclude
-	 * @param sortBy
-	 * @param sortDirection
-	 * @param limit
-	 * @param offset
+	 * @param page The sort and position of the page, including one extra child
+	 *             to tell if there is a next page.
 	 * @return
 	 */
 	public List<EntityHeader> getChildren(String parentId,
 			List<EntityType> includeTypes, Set<Long> childIdsToExclude,
-			SortBy sortBy, Direction sortDirection, long limit, long offset);
+			EntityChildrenPageToken page);
 	
 	/**
 	 * Get the statistics about the given parentID and types.
@@ -699,4 +713,50 @@ public interface NodeDAO {
 	 */
 	FileSummary getFileSummary(List<EntityRef> entityRefs);
 
+	/**
+	 * Recompute the child statistics of up to the given number of parents with an
+	 * ID greater than the given ID from their children. The backfill calls this
+	 * starting from zero, passing the last returned ID, until it returns null. The
+	 * statistics are only read once a backfill run has recomputed every parent.
+	 * 
+	 * @param afterParentId
+	 * @param limit         The maximum number of parents to recompute.
+	 * @return The ID of the last parent that was recomputed, or null when there
+	 *         are no more parents.
+	 */
+	Long recomputeChildStats(long afterParentId, int limit);
+
+	/**
+	 * Fill in the ancestors of up to the given number of nodes that were created
+	 * before the ancestors of each node were tracked, relink nodes whose parent
+	 * was changed by a restore, and remove up to the given number of rows of
+	 * nodes that no longer exist. A node is only filled in once its parent has
+	 * been filled in, so this should be called until it returns zero. The
+	 * ancestors are only read once a backfill run has found nothing left to do.
+	 * 
+	 * @param limit The maximum number of nodes to fill in.
+	 * @return The number of nodes that were filled in or relinked plus the number
+	 *         of rows that were removed.
+	 */
+	int backfillNodeAncestors(int limit);
+
+	/**
+	 * Remove the ancestors of the given nodes and of every node above them, found
+	 * by walking PARENT_ID. The node ancestor backfill fills them in again and
+	 * relinks every node below them, so this should only be called once the
+	 * backfill has been marked incomplete.
+	 * 
+	 * @param nodeIds
+	 */
+	void resetNodeAncestors(List<Long> nodeIds);
+
+	/**
+	 * Get the IDs of up to the given number of consecutive nodes, starting from a
+	 * random node. Used to check a different sample of the nodes on each call.
+	 * 
+	 * @param limit
+	 * @return
+	 */
+	List<Long> getSampleOfNodeIds(int limit);
+
 }
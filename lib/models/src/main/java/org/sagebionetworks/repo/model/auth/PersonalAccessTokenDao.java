@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.model.auth;
 
 import java.util.Date;
+import java.util.Map;
 
 import org.sagebionetworks.repo.web.NotFoundException;
 
@@ -43,6 +44,14 @@ public interface PersonalAccessTokenDao {
 	 */
 	void updateLastUsed(String tokenId);
 
+	/**
+	 * Set the "last used" time of each of the given tokens, in a single batch. The
+	 * time of a token is only moved forward, so a batch that arrives late cannot
+	 * undo a more recent use.
+	 * @param lastUsedByTokenId the time each token was last used, by token ID
+	 */
+	void updateLastUsed(Map<String, Date> lastUsedByTokenId);
+
 	/**
 	 * Deletes a token record by its unique token ID. This effectively revokes the token.
 	 * @param tokenId
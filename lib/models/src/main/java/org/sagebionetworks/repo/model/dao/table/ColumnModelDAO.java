@@ -60,7 +60,8 @@ public interface ColumnModelDAO extends ColumnNameProvider {
 	/**
 	 * Get a a list of ColumnModel from a list of columnModel ID strings
 	 * @param ids
-	 * @return
+	 * @return The models in the order of the given IDs. Duplicate IDs are returned
+	 *         once and IDs that do not exist are skipped.
 	 * @throws DatastoreException
 	 * @throws NotFoundException
 	 */
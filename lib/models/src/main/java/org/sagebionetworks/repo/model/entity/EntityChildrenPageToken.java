@@ -0,0 +1,245 @@
+package org.sagebionetworks.repo.model.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import org.sagebionetworks.repo.model.EntityHeader;
+import org.sagebionetworks.repo.model.NextPageToken;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
+
+/**
+ * The position of a page of the children of an entity.
+ * <p>
+ * The token issued with a page holds the sort value and ID of the last child on
+ * that page, so the next page is read from the index starting right after that
+ * child instead of reading and skipping every child before it. Tokens in the
+ * limit and offset format of {@link NextPageToken} are still accepted, so
+ * clients that started paging with such a token can finish.
+ *
+ */
+public class EntityChildrenPageToken {
+
+	public static final String KEYSET_PREFIX = "k";
+	private static final String SEPARATOR = ":";
+
+	private final SortBy sortBy;
+	private final Direction sortDirection;
+	private final long limit;
+	private final long offset;
+	private final Long lastId;
+	private final Object lastSortValue;
+
+	/**
+	 * Create a token for the page at the given offset.
+	 *
+	 * @param sortBy
+	 * @param sortDirection
+	 * @param limit
+	 * @param offset
+	 */
+	public EntityChildrenPageToken(SortBy sortBy, Direction sortDirection, long limit, long offset) {
+		this(sortBy, sortDirection, limit, offset, null, null);
+	}
+
+	/**
+	 * Create a token for the page after the child with the given sort value and
+	 * ID.
+	 *
+	 * @param sortBy
+	 * @param sortDirection
+	 * @param limit
+	 * @param lastId        The ID of the last child of the previous page.
+	 * @param lastSortValue The name of the last child of the previous page when
+	 *                      sorting by name, otherwise its creation or modification
+	 *                      time in milliseconds.
+	 */
+	public EntityChildrenPageToken(SortBy sortBy, Direction sortDirection, long limit, Long lastId,
+			Object lastSortValue) {
+		this(sortBy, sortDirection, limit, NextPageToken.DEFAULT_OFFSET, lastId, lastSortValue);
+	}
+
+	private EntityChildrenPageToken(SortBy sortBy, Direction sortDirection, long limit, long offset, Long lastId,
+			Object lastSortValue) {
+		if (sortBy == null) {
+			throw new IllegalArgumentException("SortBy is required");
+		}
+		if (sortDirection == null) {
+			throw new IllegalArgumentException("SortDirection is required");
+		}
+		if (limit > NextPageToken.MAX_LIMIT) {
+			throw new IllegalArgumentException("Limit must not exceed: " + NextPageToken.MAX_LIMIT);
+		}
+		this.sortBy = sortBy;
+		this.sortDirection = sortDirection;
+		this.limit = limit;
+		this.offset = offset;
+		this.lastId = lastId;
+		this.lastSortValue = lastSortValue;
+	}
+
+	/**
+	 * Parse a token string that was issued for a request with the given sort.
+	 *
+	 * @param token         Null for the first page.
+	 * @param sortBy
+	 * @param sortDirection
+	 * @return
+	 * @throws IllegalArgumentException If the token cannot be parsed or was
+	 *                                  issued for a different sort.
+	 */
+	public static EntityChildrenPageToken fromToken(String token, SortBy sortBy, Direction sortDirection) {
+		if (token == null || !token.startsWith(KEYSET_PREFIX)) {
+			NextPageToken offsetToken = new NextPageToken(token);
+			return new EntityChildrenPageToken(sortBy, sortDirection, offsetToken.getLimitForQuery() - 1,
+					offsetToken.getOffset());
+		}
+		String[] split;
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token.substring(KEYSET_PREFIX.length())),
+					StandardCharsets.UTF_8);
+			// the name is last as it can contain the separator
+			split = decoded.split(SEPARATOR, 5);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown token format: " + token);
+		}
+		if (split.length != 5) {
+			throw new IllegalArgumentException("Unknown token format: " + token);
+		}
+		if (!sortBy.name().equals(split[1]) || !sortDirection.name().equals(split[2])) {
+			throw new IllegalArgumentException(
+					"The nextPageToken was issued for a different sortBy or sortDirection: " + token);
+		}
+		try {
+			long limit = Long.parseLong(split[0]);
+			Long lastId = Long.parseLong(split[3]);
+			Object lastSortValue = SortBy.NAME == sortBy ? split[4] : (Object) Long.parseLong(split[4]);
+			return new EntityChildrenPageToken(sortBy, sortDirection, limit, lastId, lastSortValue);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Unknown token format: " + token);
+		}
+	}
+
+	/**
+	 * The token string for this page.
+	 *
+	 * @return
+	 */
+	public String toToken() {
+		if (lastId == null) {
+			return new NextPageToken(limit, offset).toToken();
+		}
+		String key = limit + SEPARATOR + sortBy.name() + SEPARATOR + sortDirection.name() + SEPARATOR + lastId
+				+ SEPARATOR + lastSortValue;
+		return KEYSET_PREFIX
+				+ Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Check the given results to see if there is a next page. If so, remove the
+	 * last item in the list and return a token that starts after the last child
+	 * left on the page.
+	 *
+	 * @param results A page queried with {@link #getLimitForQuery()}.
+	 * @return
+	 */
+	public String getNextPageTokenForCurrentResults(List<EntityHeader> results) {
+		if (results.size() <= limit) {
+			return null;
+		}
+		results.remove((int) limit);
+		EntityHeader last = results.get(results.size() - 1);
+		return new EntityChildrenPageToken(sortBy, sortDirection, limit, KeyFactory.stringToKey(last.getId()),
+				getSortValue(last)).toToken();
+	}
+
+	private Object getSortValue(EntityHeader header) {
+		switch (sortBy) {
+		case NAME:
+			return header.getName();
+		case CREATED_ON:
+			return header.getCreatedOn().getTime();
+		case MODIFIED_ON:
+			return header.getModifiedOn().getTime();
+		default:
+			throw new IllegalArgumentException("Unknown SortBy: " + sortBy);
+		}
+	}
+
+	public SortBy getSortBy() {
+		return sortBy;
+	}
+
+	public Direction getSortDirection() {
+		return sortDirection;
+	}
+
+	/**
+	 * The limit that is used to query for a page of result. We used limit + 1 for
+	 * query to check if there is a next page.
+	 *
+	 * @return
+	 */
+	public long getLimitForQuery() {
+		return limit + 1;
+	}
+
+	/**
+	 * The number of children to skip, always zero for a page after a child.
+	 *
+	 * @return
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * The ID of the last child of the previous page, null for the first page and
+	 * pages of offset tokens.
+	 *
+	 * @return
+	 */
+	public Long getLastId() {
+		return lastId;
+	}
+
+	/**
+	 * The name of the last child of the previous page when sorting by name,
+	 * otherwise its creation or modification time in milliseconds.
+	 *
+	 * @return
+	 */
+	public Object getLastSortValue() {
+		return lastSortValue;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(lastId, lastSortValue, limit, offset, sortBy, sortDirection);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+		EntityChildrenPageToken other = (EntityChildrenPageToken) obj;
+		return Objects.equals(lastId, other.lastId) && Objects.equals(lastSortValue, other.lastSortValue)
+				&& limit == other.limit && offset == other.offset && sortBy == other.sortBy
+				&& sortDirection == other.sortDirection;
+	}
+
+	@Override
+	public String toString() {
+		return "EntityChildrenPageToken [sortBy=" + sortBy + ", sortDirection=" + sortDirection + ", limit=" + limit
+				+ ", offset=" + offset + ", lastId=" + lastId + ", lastSortValue=" + lastSortValue + "]";
+	}
+
+}
@@ -0,0 +1,251 @@
+package org.sagebionetworks.repo.model.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * A compact encoding for a batch of {@link ChangeMessage}s, used as an
+ * alternative to the JSON serialization of {@link ChangeMessages} for SQS and
+ * SNS message bodies.
+ * <p>
+ * Numeric IDs, change numbers, versions and user IDs are written as variable
+ * length integers. Timestamps are written as the difference from the first
+ * timestamp of the batch. Object and change types are written as an index into
+ * a table of the type names included at the start of the batch, so producers
+ * and consumers do not need to agree on enum ordinals. The resulting bytes are
+ * Base64 encoded since message bodies must be text.
+ * <p>
+ * A message that uses this encoding is identified by the
+ * {@link #ENCODING_ATTRIBUTE} message attribute having the value
+ * {@link #COMPACT_V1}. Messages without the attribute are JSON.
+ *
+ */
+public class ChangeMessageBatchEncoding {
+
+	/**
+	 * The name of the message attribute that identifies the encoding of the body.
+	 */
+	public static final String ENCODING_ATTRIBUTE = "changeMessageEncoding";
+	/**
+	 * The attribute value of a body written by {@link #encode(List)}.
+	 */
+	public static final String COMPACT_V1 = "compact-v1";
+
+	static final byte VERSION = 1;
+
+	static final int HAS_CHANGE_NUMBER = 1;
+	static final int HAS_CHANGE_TYPE = 1 << 1;
+	static final int HAS_OBJECT_TYPE = 1 << 2;
+	static final int HAS_OBJECT_VERSION = 1 << 3;
+	static final int HAS_USER_ID = 1 << 4;
+	static final int HAS_TIMESTAMP = 1 << 5;
+	static final int HAS_OBJECT_ID = 1 << 6;
+	static final int NUMERIC_OBJECT_ID = 1 << 7;
+
+	/**
+	 * Encode the given batch of change messages.
+	 *
+	 * @param batch
+	 * @return The Base64 encoded batch.
+	 */
+	public static String encode(List<ChangeMessage> batch) {
+		ValidateArgument.required(batch, "batch");
+		// Build the table of type names used by this batch.
+		Map<String, Integer> names = new LinkedHashMap<>();
+		Long baseTimestamp = null;
+		for (ChangeMessage message : batch) {
+			if (message.getChangeType() != null) {
+				names.putIfAbsent(message.getChangeType().name(), names.size());
+			}
+			if (message.getObjectType() != null) {
+				names.putIfAbsent(message.getObjectType().name(), names.size());
+			}
+			if (baseTimestamp == null && message.getTimestamp() != null) {
+				baseTimestamp = message.getTimestamp().getTime();
+			}
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			writeVarLong(out, names.size());
+			for (String name : names.keySet()) {
+				out.writeUTF(name);
+			}
+			writeVarLong(out, baseTimestamp == null ? 0L : baseTimestamp);
+			writeVarLong(out, batch.size());
+			for (ChangeMessage message : batch) {
+				writeMessage(out, message, names, baseTimestamp);
+			}
+		} catch (IOException e) {
+			// cannot occur when writing to memory.
+			throw new IllegalStateException(e);
+		}
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * Decode a batch written with {@link #encode(List)}.
+	 *
+	 * @param encoded
+	 * @return
+	 * @throws IllegalArgumentException If the given string is not a valid encoded
+	 *                                  batch.
+	 */
+	public static List<ChangeMessage> decode(String encoded) {
+		ValidateArgument.required(encoded, "encoded");
+		byte[] bytes;
+		try {
+			bytes = Base64.getDecoder().decode(encoded.trim());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("The change message batch is not Base64 encoded", e);
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+			byte version = in.readByte();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported change message batch version: " + version);
+			}
+			int nameCount = (int) readVarLong(in);
+			String[] names = new String[nameCount];
+			for (int i = 0; i < nameCount; i++) {
+				names[i] = in.readUTF();
+			}
+			long baseTimestamp = readVarLong(in);
+			int count = (int) readVarLong(in);
+			List<ChangeMessage> batch = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				batch.add(readMessage(in, names, baseTimestamp));
+			}
+			return batch;
+		} catch (IOException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Malformed change message batch", e);
+		}
+	}
+
+	private static void writeMessage(DataOutputStream out, ChangeMessage message, Map<String, Integer> names,
+			Long baseTimestamp) throws IOException {
+		String objectId = message.getObjectId();
+		boolean numericObjectId = objectId != null && isCanonicalLong(objectId);
+		int flags = 0;
+		flags |= message.getChangeNumber() != null ? HAS_CHANGE_NUMBER : 0;
+		flags |= message.getChangeType() != null ? HAS_CHANGE_TYPE : 0;
+		flags |= message.getObjectType() != null ? HAS_OBJECT_TYPE : 0;
+		flags |= message.getObjectVersion() != null ? HAS_OBJECT_VERSION : 0;
+		flags |= message.getUserId() != null ? HAS_USER_ID : 0;
+		flags |= message.getTimestamp() != null ? HAS_TIMESTAMP : 0;
+		flags |= objectId != null ? HAS_OBJECT_ID : 0;
+		flags |= numericObjectId ? NUMERIC_OBJECT_ID : 0;
+		out.writeByte(flags);
+		if (message.getChangeNumber() != null) {
+			writeSignedVarLong(out, message.getChangeNumber());
+		}
+		if (message.getChangeType() != null) {
+			writeVarLong(out, names.get(message.getChangeType().name()));
+		}
+		if (message.getObjectType() != null) {
+			writeVarLong(out, names.get(message.getObjectType().name()));
+		}
+		if (objectId != null) {
+			if (numericObjectId) {
+				writeSignedVarLong(out, Long.parseLong(objectId));
+			} else {
+				out.writeUTF(objectId);
+			}
+		}
+		if (message.getObjectVersion() != null) {
+			writeSignedVarLong(out, message.getObjectVersion());
+		}
+		if (message.getUserId() != null) {
+			writeSignedVarLong(out, message.getUserId());
+		}
+		if (message.getTimestamp() != null) {
+			writeSignedVarLong(out, message.getTimestamp().getTime() - baseTimestamp);
+		}
+	}
+
+	private static ChangeMessage readMessage(DataInputStream in, String[] names, long baseTimestamp) throws IOException {
+		int flags = in.readUnsignedByte();
+		ChangeMessage message = new ChangeMessage();
+		if ((flags & HAS_CHANGE_NUMBER) != 0) {
+			message.setChangeNumber(readSignedVarLong(in));
+		}
+		if ((flags & HAS_CHANGE_TYPE) != 0) {
+			message.setChangeType(ChangeType.valueOf(names[(int) readVarLong(in)]));
+		}
+		if ((flags & HAS_OBJECT_TYPE) != 0) {
+			message.setObjectType(ObjectType.valueOf(names[(int) readVarLong(in)]));
+		}
+		if ((flags & HAS_OBJECT_ID) != 0) {
+			if ((flags & NUMERIC_OBJECT_ID) != 0) {
+				message.setObjectId(Long.toString(readSignedVarLong(in)));
+			} else {
+				message.setObjectId(in.readUTF());
+			}
+		}
+		if ((flags & HAS_OBJECT_VERSION) != 0) {
+			message.setObjectVersion(readSignedVarLong(in));
+		}
+		if ((flags & HAS_USER_ID) != 0) {
+			message.setUserId(readSignedVarLong(in));
+		}
+		if ((flags & HAS_TIMESTAMP) != 0) {
+			message.setTimestamp(new Date(baseTimestamp + readSignedVarLong(in)));
+		}
+		return message;
+	}
+
+	/**
+	 * Only IDs that round trip exactly through a long are written as numbers.
+	 */
+	static boolean isCanonicalLong(String value) {
+		try {
+			return Long.toString(Long.parseLong(value)).equals(value);
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInputStream in) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	/**
+	 * Zig-zag encoding so small negative values stay small.
+	 */
+	static void writeSignedVarLong(DataOutputStream out, long value) throws IOException {
+		writeVarLong(out, (value << 1) ^ (value >> 63));
+	}
+
+	static long readSignedVarLong(DataInputStream in) throws IOException {
+		long raw = readVarLong(in);
+		return (raw >>> 1) ^ -(raw & 1);
+	}
+
+}
@@ -33,6 +33,13 @@ public class TableConstants {
 	public static final String STATUS_COL_SCHEMA_HASH = "SCHEMA_HASH";
 	public static final String STATUS_COL_SEARCH_ENABLED = "SEARCH_ENABLED";
 	
+	/**
+	 * Materialized view source versions table columns
+	 */
+	public static final String SOURCE_VERSIONS_COL_SOURCE_TABLE = "SOURCE_TABLE";
+	public static final String SOURCE_VERSIONS_COL_ROW_COUNT = "ROW_COUNT";
+	public static final String SOURCE_VERSIONS_COL_DEFINITION_HASH = "DEFINITION_HASH";
+	
 	public static final String ROW_ETAG = "ROW_ETAG";
 	public static final String ROW_BENEFACTOR = "ROW_BENEFACTOR";
 	public static final String ROW_SEARCH_CONTENT = "ROW_SEARCH_CONTENT";
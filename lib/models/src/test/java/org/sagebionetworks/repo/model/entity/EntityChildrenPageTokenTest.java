@@ -0,0 +1,134 @@
+package org.sagebionetworks.repo.model.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.EntityHeader;
+import org.sagebionetworks.repo.model.NextPageToken;
+
+public class EntityChildrenPageTokenTest {
+
+	@Test
+	public void testFromTokenNull() {
+		EntityChildrenPageToken token = EntityChildrenPageToken.fromToken(null, SortBy.NAME, Direction.ASC);
+		assertEquals(NextPageToken.DEFAULT_LIMIT + 1, token.getLimitForQuery());
+		assertEquals(0L, token.getOffset());
+		assertNull(token.getLastId());
+		assertNull(token.getLastSortValue());
+	}
+
+	@Test
+	public void testFromTokenWithOffsetToken() {
+		EntityChildrenPageToken token = EntityChildrenPageToken.fromToken("10a20", SortBy.CREATED_ON, Direction.DESC);
+		assertEquals(new EntityChildrenPageToken(SortBy.CREATED_ON, Direction.DESC, 10L, 20L), token);
+		assertEquals("10a20", token.toToken());
+	}
+
+	@Test
+	public void testFromTokenWithBadOffsetToken() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			EntityChildrenPageToken.fromToken("notatoken", SortBy.NAME, Direction.ASC);
+		});
+	}
+
+	@Test
+	public void testRoundTripName() {
+		// names can contain the separator and any unicode character
+		EntityChildrenPageToken token = new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, 10L, 123L, "a:b ü/c");
+		String tokenString = token.toToken();
+		assertTrue(tokenString.startsWith(EntityChildrenPageToken.KEYSET_PREFIX));
+		EntityChildrenPageToken clone = EntityChildrenPageToken.fromToken(tokenString, SortBy.NAME, Direction.ASC);
+		assertEquals(token, clone);
+		assertEquals(11L, clone.getLimitForQuery());
+		assertEquals(0L, clone.getOffset());
+		assertEquals(123L, clone.getLastId());
+		assertEquals("a:b ü/c", clone.getLastSortValue());
+	}
+
+	@Test
+	public void testRoundTripTime() {
+		EntityChildrenPageToken token = new EntityChildrenPageToken(SortBy.MODIFIED_ON, Direction.DESC, 50L, 123L,
+				1600000000000L);
+		EntityChildrenPageToken clone = EntityChildrenPageToken.fromToken(token.toToken(), SortBy.MODIFIED_ON,
+				Direction.DESC);
+		assertEquals(token, clone);
+		assertEquals(1600000000000L, clone.getLastSortValue());
+	}
+
+	@Test
+	public void testFromTokenWithDifferentSort() {
+		String tokenString = new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, 10L, 123L, "a").toToken();
+		assertThrows(IllegalArgumentException.class, () -> {
+			EntityChildrenPageToken.fromToken(tokenString, SortBy.CREATED_ON, Direction.ASC);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			EntityChildrenPageToken.fromToken(tokenString, SortBy.NAME, Direction.DESC);
+		});
+	}
+
+	@Test
+	public void testFromTokenWithBadKeysetToken() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			EntityChildrenPageToken.fromToken(EntityChildrenPageToken.KEYSET_PREFIX + "!!", SortBy.NAME, Direction.ASC);
+		});
+	}
+
+	@Test
+	public void testFromTokenOverMaxLimit() {
+		String tokenString = (NextPageToken.MAX_LIMIT + 1) + "a0";
+		assertThrows(IllegalArgumentException.class, () -> {
+			EntityChildrenPageToken.fromToken(tokenString, SortBy.NAME, Direction.ASC);
+		});
+	}
+
+	@Test
+	public void testGetNextPageTokenForCurrentResults() {
+		EntityChildrenPageToken token = new EntityChildrenPageToken(SortBy.CREATED_ON, Direction.ASC, 2L, 0L);
+		List<EntityHeader> results = new ArrayList<>();
+		results.add(createHeader("syn1", "one", 100L));
+		results.add(createHeader("syn2", "two", 200L));
+		results.add(createHeader("syn3", "three", 300L));
+		String next = token.getNextPageTokenForCurrentResults(results);
+		// the extra result is removed
+		assertEquals(2, results.size());
+		assertEquals(new EntityChildrenPageToken(SortBy.CREATED_ON, Direction.ASC, 2L, 2L, 200L),
+				EntityChildrenPageToken.fromToken(next, SortBy.CREATED_ON, Direction.ASC));
+	}
+
+	@Test
+	public void testGetNextPageTokenForCurrentResultsByName() {
+		EntityChildrenPageToken token = new EntityChildrenPageToken(SortBy.NAME, Direction.DESC, 1L, 0L);
+		List<EntityHeader> results = new ArrayList<>();
+		results.add(createHeader("syn2", "two", 200L));
+		results.add(createHeader("syn1", "one", 100L));
+		String next = token.getNextPageTokenForCurrentResults(results);
+		assertEquals(1, results.size());
+		assertEquals(new EntityChildrenPageToken(SortBy.NAME, Direction.DESC, 1L, 2L, "two"),
+				EntityChildrenPageToken.fromToken(next, SortBy.NAME, Direction.DESC));
+	}
+
+	@Test
+	public void testGetNextPageTokenForCurrentResultsLastPage() {
+		EntityChildrenPageToken token = new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, 2L, 0L);
+		List<EntityHeader> results = new ArrayList<>();
+		results.add(createHeader("syn1", "one", 100L));
+		assertNull(token.getNextPageTokenForCurrentResults(results));
+		assertEquals(1, results.size());
+	}
+
+	private static EntityHeader createHeader(String id, String name, long time) {
+		EntityHeader header = new EntityHeader();
+		header.setId(id);
+		header.setName(name);
+		header.setCreatedOn(new Date(time));
+		header.setModifiedOn(new Date(time + 1));
+		return header;
+	}
+}
@@ -0,0 +1,116 @@
+package org.sagebionetworks.repo.model.message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+
+public class ChangeMessageBatchEncodingTest {
+
+	@Test
+	public void testRoundTrip() {
+		ChangeMessage one = new ChangeMessage();
+		one.setChangeNumber(123456789L);
+		one.setChangeType(ChangeType.CREATE);
+		one.setObjectType(ObjectType.ENTITY);
+		one.setObjectId("987654");
+		one.setObjectVersion(3L);
+		one.setUserId(273950L);
+		one.setTimestamp(new Date(1600000000000L));
+		ChangeMessage two = new ChangeMessage();
+		two.setChangeNumber(123456790L);
+		two.setChangeType(ChangeType.DELETE);
+		two.setObjectType(ObjectType.WIKI);
+		two.setObjectId("syn123");
+		// earlier than the first message
+		two.setTimestamp(new Date(1599999999000L));
+		// only the required fields
+		ChangeMessage three = new ChangeMessage();
+		three.setObjectId("007");
+		List<ChangeMessage> batch = new ArrayList<>();
+		batch.add(one);
+		batch.add(two);
+		batch.add(three);
+		// call under test
+		List<ChangeMessage> result = ChangeMessageBatchEncoding.decode(ChangeMessageBatchEncoding.encode(batch));
+		assertEquals(batch, result);
+	}
+
+	@Test
+	public void testRoundTripEmpty() {
+		// call under test
+		List<ChangeMessage> result = ChangeMessageBatchEncoding.decode(ChangeMessageBatchEncoding.encode(Collections.emptyList()));
+		assertEquals(Collections.emptyList(), result);
+	}
+
+	@Test
+	public void testEncodedSize() throws Exception {
+		List<ChangeMessage> batch = new ArrayList<>();
+		long timestamp = 1600000000000L;
+		for (int i = 0; i < 500; i++) {
+			ChangeMessage message = new ChangeMessage();
+			message.setChangeNumber(100000000L + i);
+			message.setChangeType(ChangeType.UPDATE);
+			message.setObjectType(ObjectType.ENTITY);
+			message.setObjectId(Long.toString(20000000L + i * 7));
+			message.setObjectVersion(1L);
+			message.setUserId(3300000L);
+			message.setTimestamp(new Date(timestamp + i));
+			batch.add(message);
+		}
+		ChangeMessages messages = new ChangeMessages();
+		messages.setList(batch);
+		String json = EntityFactory.createJSONStringForEntity(messages);
+		// call under test
+		String compact = ChangeMessageBatchEncoding.encode(batch);
+		// The compact encoding should be a fraction of the size of the JSON.
+		assertTrue(compact.length() * 5 < json.length(), "compact: " + compact.length() + " json: " + json.length());
+		assertEquals(batch, ChangeMessageBatchEncoding.decode(compact));
+	}
+
+	@Test
+	public void testDecodeNotBase64() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			ChangeMessageBatchEncoding.decode("{not base 64}");
+		});
+	}
+
+	@Test
+	public void testDecodeTruncated() {
+		String encoded = ChangeMessageBatchEncoding.encode(Collections.singletonList(new ChangeMessage()));
+		byte[] bytes = Base64.getDecoder().decode(encoded);
+		byte[] truncated = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		assertThrows(IllegalArgumentException.class, () -> {
+			ChangeMessageBatchEncoding.decode(Base64.getEncoder().encodeToString(truncated));
+		});
+	}
+
+	@Test
+	public void testDecodeUnknownVersion() {
+		String encoded = Base64.getEncoder().encodeToString(new byte[] { 2, 0, 0, 0 });
+		assertThrows(IllegalArgumentException.class, () -> {
+			ChangeMessageBatchEncoding.decode(encoded);
+		});
+	}
+
+	@Test
+	public void testIsCanonicalLong() {
+		assertTrue(ChangeMessageBatchEncoding.isCanonicalLong("123"));
+		assertTrue(ChangeMessageBatchEncoding.isCanonicalLong("-5"));
+		assertFalse(ChangeMessageBatchEncoding.isCanonicalLong("007"));
+		assertFalse(ChangeMessageBatchEncoding.isCanonicalLong("+7"));
+		assertFalse(ChangeMessageBatchEncoding.isCanonicalLong("syn123"));
+		assertFalse(ChangeMessageBatchEncoding.isCanonicalLong(""));
+	}
+}
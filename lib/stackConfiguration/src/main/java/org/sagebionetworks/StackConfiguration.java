@@ -215,6 +215,24 @@ public interface StackConfiguration {
 	 */
 	public long getCallPerformanceTriggerTime();
 
+	/**
+	 * @return Whether the latency of bean method and web-service calls is recorded
+	 *         in histograms and published to CloudWatch.
+	 */
+	public boolean getLatencyProfilerEnabled();
+
+	/**
+	 * @return The maximum number of method and endpoint names that get their own
+	 *         latency histogram, which bounds the memory used by the profiler.
+	 */
+	public int getLatencyProfilerMaxNames();
+
+	/**
+	 * @return The prefixes of the names of the classes whose methods are
+	 *         profiled.
+	 */
+	public List<String> getLatencyProfilerClassPrefixes();
+
 	/**
 	 * The maximum number of threads to be used for backup/restore
 	 * 
@@ -388,6 +406,53 @@ public interface StackConfiguration {
 	 */
 	public Long getMigrationBackupBatchMax();
 
+	/**
+	 * Should new migration backup files be written in the compact binary format?
+	 * 
+	 * @return
+	 */
+	public boolean getMigrationBackupBinaryFormatEnabled();
+
+	/**
+	 * Should new serialized database object blobs be written with the compact
+	 * binary encoding rather than compressed XML?
+	 * 
+	 * @return
+	 */
+	public boolean getDatabaseObjectBinaryBlobEncodingEnabled();
+
+	/**
+	 * The maximum number of bytes of wiki markdown held in the in-memory markdown
+	 * cache. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getWikiMarkdownCacheMaxBytes();
+
+	/**
+	 * The maximum number of synapse events held in memory waiting to be sent to
+	 * kinesis.
+	 * 
+	 * @return
+	 */
+	public int getEventsQueueCapacity();
+
+	/**
+	 * What to do with new synapse events when the events queue is full, either
+	 * DROP_OLDEST or DROP_NEWEST.
+	 * 
+	 * @return
+	 */
+	public String getEventsQueueOverflowPolicy();
+
+	/**
+	 * Should batches of change messages be published to topics using the compact
+	 * encoding rather than JSON?
+	 * 
+	 * @return
+	 */
+	public boolean getChangeMessageCompactEncodingEnabled();
+
 	/**
 	 * This should match the Database max_allowed_packet value. See PLFM-1900
 	 * 
@@ -531,6 +596,87 @@ public interface StackConfiguration {
 	 */
 	public int getTableMaxBytesPerChangeSet();
 
+	/**
+	 * Can table queries run without the table's read lock when the table's status
+	 * is AVAILABLE and does not change while the query runs?
+	 * 
+	 * @return
+	 */
+	public boolean getTableQueryStatusFenceEnabled();
+
+	/**
+	 * The maximum number of column models held in the in-memory column model
+	 * cache. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public int getColumnModelCacheMaxColumnModels();
+
+	/**
+	 * The maximum number of table schemas (the column IDs bound to a table) held in
+	 * the in-memory column model cache. Zero disables the schema cache.
+	 * 
+	 * @return
+	 */
+	public int getColumnModelCacheMaxSchemas();
+
+	/**
+	 * How long, in milliseconds, a cached table schema is used after its etag was
+	 * last checked without checking it again. Zero checks the etag on every
+	 * lookup.
+	 * 
+	 * @return
+	 */
+	public long getColumnModelCacheSchemaRecheckMs();
+
+	/**
+	 * The maximum number of files fetched from S3 in parallel while a single bulk
+	 * download package is built.
+	 * 
+	 * @return
+	 */
+	public int getBulkFileDownloadMaxConcurrentFetches();
+
+	/**
+	 * The maximum number of bytes of prefetched file content held in memory while
+	 * a single bulk download package is built. Larger files are streamed directly
+	 * into the package.
+	 * 
+	 * @return
+	 */
+	public long getBulkFileDownloadMaxBufferedBytes();
+
+	/**
+	 * The maximum number of broadcast emails sent to SES in parallel.
+	 * 
+	 * @return
+	 */
+	public int getBroadcastEmailMaxConcurrentSends();
+
+	/**
+	 * The maximum number of broadcast emails sent to SES per second, shared by all
+	 * the broadcasts of this machine.
+	 * 
+	 * @return
+	 */
+	public double getBroadcastEmailMaxSendsPerSecond();
+
+	/**
+	 * The maximum number of verified access tokens held in the in-memory cache.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public int getAccessTokenCacheMaxTokens();
+
+	/**
+	 * The maximum time, in milliseconds, that a verified access token is held in
+	 * the in-memory cache before its signature is checked again.
+	 * 
+	 * @return
+	 */
+	public long getAccessTokenCacheMaxAgeMillis();
+
 	/**
 	 * Get the max bytes per HTTP request for a table.
 	 * 
@@ -378,6 +378,23 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Long.valueOf(configuration.getProperty("org.sagebionetworks.call.performance.trigger"));
 	}
 
+	@Override
+	public boolean getLatencyProfilerEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.latency.profiler.enabled"));
+	}
+
+	@Override
+	public int getLatencyProfilerMaxNames() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.latency.profiler.max.names"));
+	}
+
+	@Override
+	public List<String> getLatencyProfilerClassPrefixes() {
+		String s = configuration.getProperty("org.sagebionetworks.latency.profiler.class.prefixes");
+		s = s.replaceAll("\\s+", "");
+		return Arrays.asList(s.split(","));
+	}
+
 	/**
 	 * The maximum number of threads to be used for backup/restore
 	 * 
@@ -636,6 +653,65 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Long.parseLong(configuration.getProperty("org.sagebionetworks.repo.manager.migration.backup.batch.max"));
 	}
 
+	/**
+	 * Should new migration backup files be written in the compact binary format?
+	 * 
+	 * @return
+	 */
+	public boolean getMigrationBackupBinaryFormatEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.repo.manager.migration.backup.binary.format.enabled"));
+	}
+
+	/**
+	 * Should new serialized database object blobs be written with the compact
+	 * binary encoding rather than compressed XML?
+	 * 
+	 * @return
+	 */
+	public boolean getDatabaseObjectBinaryBlobEncodingEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.repo.model.jdo.blob.binary.encoding.enabled"));
+	}
+
+	/**
+	 * The maximum number of bytes of wiki markdown held in the in-memory markdown
+	 * cache. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public long getWikiMarkdownCacheMaxBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.wiki.markdown.cache.max.bytes"));
+	}
+
+	/**
+	 * The maximum number of synapse events held in memory waiting to be sent to
+	 * kinesis.
+	 * 
+	 * @return
+	 */
+	public int getEventsQueueCapacity() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.events.queue.capacity"));
+	}
+
+	/**
+	 * What to do with new synapse events when the events queue is full, either
+	 * DROP_OLDEST or DROP_NEWEST.
+	 * 
+	 * @return
+	 */
+	public String getEventsQueueOverflowPolicy() {
+		return configuration.getProperty("org.sagebionetworks.events.queue.overflow.policy");
+	}
+
+	/**
+	 * Should batches of change messages be published to topics using the compact
+	 * encoding rather than JSON?
+	 * 
+	 * @return
+	 */
+	public boolean getChangeMessageCompactEncodingEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.repo.manager.message.compact.encoding.enabled"));
+	}
+
 	/**
 	 * This should match the Database max_allowed_packet value. See PLFM-1900
 	 * 
@@ -830,6 +906,107 @@ public class StackConfigurationImpl implements StackConfiguration {
 		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.max.bytes.per.change.set"));
 	}
 
+	/**
+	 * Can table queries run without the table's read lock when the table's status
+	 * is AVAILABLE and does not change while the query runs?
+	 * 
+	 * @return
+	 */
+	public boolean getTableQueryStatusFenceEnabled() {
+		return Boolean.parseBoolean(configuration.getProperty("org.sagebionetworks.table.query.status.fence.enabled"));
+	}
+
+	/**
+	 * The maximum number of column models held in the in-memory column model
+	 * cache. Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public int getColumnModelCacheMaxColumnModels() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.column.model.cache.max.models"));
+	}
+
+	/**
+	 * The maximum number of table schemas (the column IDs bound to a table) held in
+	 * the in-memory column model cache. Zero disables the schema cache.
+	 * 
+	 * @return
+	 */
+	public int getColumnModelCacheMaxSchemas() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.table.column.model.cache.max.schemas"));
+	}
+
+	/**
+	 * How long, in milliseconds, a cached table schema is used after its etag was
+	 * last checked without checking it again. Zero checks the etag on every
+	 * lookup.
+	 * 
+	 * @return
+	 */
+	public long getColumnModelCacheSchemaRecheckMs() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.table.column.model.cache.schema.recheck.ms"));
+	}
+
+	/**
+	 * The maximum number of files fetched from S3 in parallel while a single bulk
+	 * download package is built.
+	 * 
+	 * @return
+	 */
+	public int getBulkFileDownloadMaxConcurrentFetches() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.bulk.download.max.concurrent.fetches"));
+	}
+
+	/**
+	 * The maximum number of bytes of prefetched file content held in memory while
+	 * a single bulk download package is built. Larger files are streamed directly
+	 * into the package.
+	 * 
+	 * @return
+	 */
+	public long getBulkFileDownloadMaxBufferedBytes() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.bulk.download.max.buffered.bytes"));
+	}
+
+	/**
+	 * The maximum number of broadcast emails sent to SES in parallel.
+	 * 
+	 * @return
+	 */
+	public int getBroadcastEmailMaxConcurrentSends() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.broadcast.email.max.concurrent.sends"));
+	}
+
+	/**
+	 * The maximum number of broadcast emails sent to SES per second, shared by all
+	 * the broadcasts of this machine.
+	 * 
+	 * @return
+	 */
+	public double getBroadcastEmailMaxSendsPerSecond() {
+		return Double.parseDouble(configuration.getProperty("org.sagebionetworks.broadcast.email.max.sends.per.second"));
+	}
+
+	/**
+	 * The maximum number of verified access tokens held in the in-memory cache.
+	 * Zero disables the cache.
+	 * 
+	 * @return
+	 */
+	public int getAccessTokenCacheMaxTokens() {
+		return Integer.parseInt(configuration.getProperty("org.sagebionetworks.oauth.access.token.cache.max.tokens"));
+	}
+
+	/**
+	 * The maximum time, in milliseconds, that a verified access token is held in
+	 * the in-memory cache before its signature is checked again.
+	 * 
+	 * @return
+	 */
+	public long getAccessTokenCacheMaxAgeMillis() {
+		return Long.parseLong(configuration.getProperty("org.sagebionetworks.oauth.access.token.cache.max.age.ms"));
+	}
+
 	/**
 	 * Get the max bytes per HTTP request for a table.
 	 * 
@@ -42,6 +42,7 @@ import org.sagebionetworks.repo.model.dbo.schema.DerivedAnnotationDao;
 import org.sagebionetworks.repo.model.dbo.schema.EntitySchemaValidationResultDao;
 import org.sagebionetworks.repo.model.entity.BindSchemaToEntityRequest;
 import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.EntityLookupRequest;
 import org.sagebionetworks.repo.model.entity.FileHandleUpdateRequest;
 import org.sagebionetworks.repo.model.entity.SortBy;
@@ -540,10 +541,10 @@ public class EntityManagerImpl implements EntityManager {
 		}
 		// Find the children of this entity that the caller cannot see.
 		Set<Long> childIdsToExclude = authorizedListChildren(user, request.getParentId());
-		NextPageToken nextPage = new NextPageToken(request.getNextPageToken());
+		EntityChildrenPageToken nextPage = EntityChildrenPageToken.fromToken(request.getNextPageToken(),
+				request.getSortBy(), request.getSortDirection());
 		List<EntityHeader> page = nodeManager.getChildren(request.getParentId(), request.getIncludeTypes(),
-				childIdsToExclude, request.getSortBy(), request.getSortDirection(), nextPage.getLimitForQuery(),
-				nextPage.getOffset());
+				childIdsToExclude, nextPage);
 		// Gather count and size sum if requested.
 		ChildStatsResponse stats = nodeManager
 				.getChildrenStats(new ChildStatsRequest().withParentId(request.getParentId())
@@ -15,9 +15,8 @@ import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.VersionInfo;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
-import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.FileHandleUpdateRequest;
-import org.sagebionetworks.repo.model.entity.SortBy;
 import org.sagebionetworks.repo.model.file.ChildStatsRequest;
 import org.sagebionetworks.repo.model.file.ChildStatsResponse;
 import org.sagebionetworks.repo.model.provenance.Activity;
@@ -353,14 +352,11 @@ public interface NodeManager {
 	 * @param parentId The id of the parent.
 	 * @param includeTypes The types of children to include in the results.
 	 * @param childIdsToExclude Child IDs to be excluded from the results.
-	 * @param sortBy Sort by. 
-	 * @param sortDirection Sort direction
-	 * @param limit
-	 * @param offset
+	 * @param page The sort and position of the page.
 	 * @return
 	 */
 	public List<EntityHeader> getChildren(String parentId,
-			List<EntityType> includeTypes, Set<Long> childIdsToExclude, SortBy sortBy, Direction sortDirection, long limit, long offset);
+			List<EntityType> includeTypes, Set<Long> childIdsToExclude, EntityChildrenPageToken page);
 	
 	/**
 	 * Get the statistics for the given parentId and types.
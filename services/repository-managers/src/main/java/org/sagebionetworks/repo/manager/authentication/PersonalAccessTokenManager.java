@@ -25,11 +25,18 @@ public interface PersonalAccessTokenManager {
 	boolean isTokenActive(String tokenId);
 
 	/**
-	 * Updates the "last used" time for a token to the current time.
+	 * Records that a token was used at the current time. The time is held in memory
+	 * and written to the database by the next call to {@link #flushLastUsedTimes()}.
 	 * @param tokenId
 	 */
 	void updateLastUsedTime(String tokenId);
 
+	/**
+	 * Write the "last used" times recorded since the last call to the database in
+	 * a single batch. Called from a timer.
+	 */
+	void flushLastUsedTimes();
+
 	/**
 	 * Retrieves a paginated list of personal access tokens.
 	 * @param userInfo
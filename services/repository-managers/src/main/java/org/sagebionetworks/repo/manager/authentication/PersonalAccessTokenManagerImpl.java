@@ -5,7 +5,11 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.sagebionetworks.repo.manager.oauth.ClaimsJsonUtil;
@@ -46,9 +50,6 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 
 	private static final long MAX_NUMBER_OF_TOKENS_PER_USER = 100L;
 
-	// the minimum period in which we update the 'last updated' time stamp for a token
-	private static final Long UPDATE_THRESHOLD_MILLIS = 60*1000L; // one minute
-
 	@Autowired
 	private PersonalAccessTokenDao personalAccessTokenDao;
 
@@ -58,6 +59,13 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 	@Autowired
 	private Clock clock;
 
+	/*
+	 * The time each token was last used on this machine since the last flush. The
+	 * timer flushes once per minute so each token is written at most once per
+	 * minute per machine.
+	 */
+	private final Map<String, Long> pendingLastUsed = new ConcurrentHashMap<>();
+
 	/**
 	 * Determine the state of the access token record using the last used date.
 	 * Method exposed for testing.
@@ -155,18 +163,35 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 		return determineActiveState(lastUsedDate).equals(AccessTokenState.ACTIVE);
 	}
 	
-	@WriteTransaction
 	@Override
 	public void updateLastUsedTime(String tokenId) {
-		Date lastUsedDate;
-		try {
-			lastUsedDate = personalAccessTokenDao.getLastUsedDate(tokenId);
-		} catch (NotFoundException e) {
-			lastUsedDate = null;
+		ValidateArgument.required(tokenId, "tokenId");
+		pendingLastUsed.merge(tokenId, clock.currentTimeMillis(), Math::max);
+	}
+
+	@Override
+	public void flushLastUsedTimes() {
+		if (pendingLastUsed.isEmpty()) {
+			return;
 		}
-		if (lastUsedDate==null || clock.currentTimeMillis()>=lastUsedDate.getTime()+UPDATE_THRESHOLD_MILLIS) {
-			personalAccessTokenDao.updateLastUsed(tokenId);
+		Map<String, Date> batch = new HashMap<>(pendingLastUsed.size());
+		for (String tokenId : pendingLastUsed.keySet()) {
+			// a use recorded after the removal is written by the next flush
+			Long lastUsed = pendingLastUsed.remove(tokenId);
+			if (lastUsed != null) {
+				batch.put(tokenId, new Date(lastUsed));
+			}
 		}
+		personalAccessTokenDao.updateLastUsed(batch);
+	}
+
+	/**
+	 * Write the last used times recorded since the last flush before the machine
+	 * shuts down, otherwise up to a minute of uses would be lost.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		flushLastUsedTimes();
 	}
 
 	@Override
@@ -199,6 +224,7 @@ public class PersonalAccessTokenManagerImpl implements PersonalAccessTokenManage
 		AccessTokenRecord record = personalAccessTokenDao.getTokenRecord(tokenId);
 		if (userInfo.getId().toString().equals(record.getUserId()) || userInfo.isAdmin()) {
 			personalAccessTokenDao.deleteToken(tokenId);
+			pendingLastUsed.remove(tokenId);
 		} else {
 			throw new UnauthorizedException("You do not have permission to revoke this token.");
 		}
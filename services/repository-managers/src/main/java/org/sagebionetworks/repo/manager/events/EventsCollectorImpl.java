@@ -2,12 +2,17 @@ package org.sagebionetworks.repo.manager.events;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.kinesis.AwsKinesisLogRecord;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
@@ -16,9 +21,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Collects {@link SynapseEvent}s in a bounded in-memory queue that is drained
+ * to kinesis by a background timer. When the queue is full events are dropped
+ * according to the configured {@link EventsQueueOverflowPolicy} rather than
+ * letting the queue grow without limit. The queue depth and the number of
+ * dropped events are published to cloud watch on each flush.
+ */
 @Service
 public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
+	public static final String METRIC_NAMESPACE_PREFIX = "Events-Queue-";
+	public static final String METRIC_QUEUE_DEPTH = "queueDepth";
+	public static final String METRIC_DROPPED_EVENTS = "droppedEvents";
+
 	@FunctionalInterface
 	private static interface Action {
 		void proceed();
@@ -30,47 +48,118 @@ public class EventsCollectorImpl implements EventsCollector, EventsQueue {
 
 	private TransactionSynchronizationProxy transactionSynchronization;
 
-	private ConcurrentLinkedQueue<SynapseEvent> queue = new ConcurrentLinkedQueue<SynapseEvent>();
+	private Consumer consumer;
+
+	private BlockingQueue<SynapseEvent> queue;
+
+	private EventsQueueOverflowPolicy overflowPolicy;
+
+	private String metricNamespace;
+
+	private AtomicLong droppedCount = new AtomicLong();
+
+	private long lastDroppedCount = 0L;
 
 	@Autowired
 	public EventsCollectorImpl(AwsKinesisFirehoseLogger firehoseLogger,
-			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization) {
+			EventLogRecordProviderFactory logRecordProviderFactory, TransactionSynchronizationProxy transactionSynchronization,
+			Consumer consumer, StackConfiguration stackConfiguration) {
 		this.firehoseLogger = firehoseLogger;
 		this.logRecordProviderFactory = logRecordProviderFactory;
 		this.transactionSynchronization = transactionSynchronization;
+		this.consumer = consumer;
+		this.queue = new ArrayBlockingQueue<>(stackConfiguration.getEventsQueueCapacity());
+		this.overflowPolicy = EventsQueueOverflowPolicy.valueOf(stackConfiguration.getEventsQueueOverflowPolicy());
+		this.metricNamespace = METRIC_NAMESPACE_PREFIX + stackConfiguration.getStackInstance();
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvent(final E event) {
 		ValidateArgument.required(event, "event");
 
-		afterCommit(() -> queue.add(event));
+		afterCommit(() -> enqueue(event));
 	}
 
 	@Override
 	public <E extends SynapseEvent> void collectEvents(List<E> events) {
 		ValidateArgument.required(events, "events");
 
-		afterCommit(() -> queue.addAll(events));
+		afterCommit(() -> events.forEach(this::enqueue));
 	}
 
 	@Override
 	public void flush() {
 
-		if (queue.isEmpty()) {
+		int queueDepth = queue.size();
+
+		publishMetrics(queueDepth);
+
+		if (queueDepth == 0) {
 			return;
 		}
 
-		List<SynapseEvent> eventsBatch = new LinkedList<>();
+		List<SynapseEvent> eventsBatch = new ArrayList<>(queueDepth);
 
-		for (SynapseEvent event = queue.poll(); event != null; event = queue.poll()) {
-			eventsBatch.add(event);
-		}
+		queue.drainTo(eventsBatch);
 
 		log(eventsBatch);
 
 	}
 
+	/**
+	 * @return The number of events waiting to be sent
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * @return The total number of events dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Add the given event to the queue, applying the overflow policy if the queue
+	 * is full. Never blocks the caller.
+	 * 
+	 * @param event
+	 */
+	private void enqueue(SynapseEvent event) {
+		if (queue.offer(event)) {
+			return;
+		}
+		if (EventsQueueOverflowPolicy.DROP_NEWEST == overflowPolicy) {
+			droppedCount.incrementAndGet();
+			return;
+		}
+		// Make room by discarding the oldest events, another thread might fill the slot first.
+		do {
+			if (queue.poll() != null) {
+				droppedCount.incrementAndGet();
+			}
+		} while (!queue.offer(event));
+	}
+
+	private void publishMetrics(int queueDepth) {
+		Date now = new Date();
+		long dropped = droppedCount.get();
+		consumer.addProfileData(createMetric(METRIC_QUEUE_DEPTH, queueDepth, now));
+		consumer.addProfileData(createMetric(METRIC_DROPPED_EVENTS, dropped - lastDroppedCount, now));
+		lastDroppedCount = dropped;
+	}
+
+	private ProfileData createMetric(String name, long value, Date timestamp) {
+		ProfileData data = new ProfileData();
+		data.setNamespace(metricNamespace);
+		data.setName(name);
+		data.setValue(Double.valueOf(value));
+		data.setUnit(StandardUnit.Count.name());
+		data.setTimestamp(timestamp);
+		return data;
+	}
+
 	private void afterCommit(Action action) {
 
 		if (transactionSynchronization.isActualTransactionActive()) {
@@ -0,0 +1,18 @@
+package org.sagebionetworks.repo.manager.events;
+
+/**
+ * Determines which {@link SynapseEvent}s are discarded when the events queue is
+ * full.
+ */
+public enum EventsQueueOverflowPolicy {
+
+	/**
+	 * Discard the oldest queued events to make room for the new ones.
+	 */
+	DROP_OLDEST,
+	/**
+	 * Discard the new events, keeping the events already queued.
+	 */
+	DROP_NEWEST
+
+}
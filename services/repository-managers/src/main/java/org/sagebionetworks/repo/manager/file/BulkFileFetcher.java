@@ -0,0 +1,213 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.util.ValidateArgument;
+
+/**
+ * Fetches the files of a bulk download package from S3 ahead of the zip
+ * writer. The files are expected to be opened in the order they were provided.
+ * While one file is written to the zip, up to maxConcurrentFetches of the
+ * following files are read from S3 into memory on the provided executor, as
+ * long as their combined size stays within maxBufferedBytes. Files that do not
+ * fit the budget, or that are requested before their fetch has started, are
+ * streamed directly from S3.
+ * <p>
+ * An instance is used by a single thread and must be closed to cancel any
+ * outstanding fetches.
+ *
+ */
+public class BulkFileFetcher implements Closeable {
+
+	private final SynapseS3Client s3Client;
+	private final ExecutorService executor;
+	private final int maxConcurrentFetches;
+	private final long maxBufferedBytes;
+	/**
+	 * The order of each file in the package.
+	 */
+	private final Map<String, Integer> fileIndex;
+	/**
+	 * Files that have not been fetched yet, in package order.
+	 */
+	private final LinkedList<S3FileHandle> pending;
+	/**
+	 * Fetches that have been started but not consumed, in package order.
+	 */
+	private final LinkedList<Prefetch> started;
+	private long bufferedBytes;
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param executor             The executor used to run the fetches. This
+	 *                             instance will shutdown the executor when
+	 *                             closed.
+	 * @param toFetch              The files of the package, in the order they will
+	 *                             be opened.
+	 * @param maxConcurrentFetches The maximum number of files that are fetched or
+	 *                             held in memory at one time.
+	 * @param maxBufferedBytes     The maximum combined size of the files that are
+	 *                             fetched or held in memory at one time.
+	 */
+	public BulkFileFetcher(SynapseS3Client s3Client, ExecutorService executor, List<S3FileHandle> toFetch,
+			int maxConcurrentFetches, long maxBufferedBytes) {
+		ValidateArgument.required(s3Client, "s3Client");
+		ValidateArgument.required(executor, "executor");
+		ValidateArgument.required(toFetch, "toFetch");
+		this.s3Client = s3Client;
+		this.executor = executor;
+		this.maxConcurrentFetches = maxConcurrentFetches;
+		this.maxBufferedBytes = maxBufferedBytes;
+		this.fileIndex = new HashMap<>(toFetch.size());
+		this.pending = new LinkedList<>();
+		for (S3FileHandle handle : toFetch) {
+			if (fileIndex.putIfAbsent(handle.getId(), fileIndex.size()) == null) {
+				pending.add(handle);
+			}
+		}
+		this.started = new LinkedList<>();
+		this.bufferedBytes = 0L;
+	}
+
+	/**
+	 * Start fetching the next files in the package that fit within the limits.
+	 */
+	public void startFetches() {
+		while (!pending.isEmpty() && started.size() < maxConcurrentFetches) {
+			S3FileHandle next = pending.peek();
+			Long size = next.getContentSize();
+			if (size == null || size > maxBufferedBytes) {
+				// This file will never fit so it will be streamed when opened.
+				pending.poll();
+				continue;
+			}
+			if (bufferedBytes + size > maxBufferedBytes) {
+				// Wait for buffered files to be consumed.
+				return;
+			}
+			pending.poll();
+			bufferedBytes += size;
+			started.add(new Prefetch(next, executor.submit(() -> fetch(next))));
+		}
+	}
+
+	/**
+	 * Open the content of the given file. Files of the package that come before
+	 * the given file and were not opened are discarded.
+	 *
+	 * @param handle
+	 * @return
+	 * @throws IOException
+	 */
+	public InputStream openFile(S3FileHandle handle) throws IOException {
+		ValidateArgument.required(handle, "handle");
+		Integer index = fileIndex.get(handle.getId());
+		ValidateArgument.requirement(index != null, "File: " + handle.getId() + " is not part of this package");
+		Prefetch prefetch = null;
+		Iterator<Prefetch> startedIt = started.iterator();
+		while (startedIt.hasNext()) {
+			Prefetch next = startedIt.next();
+			int nextIndex = fileIndex.get(next.handle.getId());
+			if (nextIndex > index) {
+				break;
+			}
+			startedIt.remove();
+			bufferedBytes -= next.handle.getContentSize();
+			if (nextIndex == index) {
+				prefetch = next;
+				break;
+			}
+			next.future.cancel(true);
+		}
+		Iterator<S3FileHandle> pendingIt = pending.iterator();
+		while (pendingIt.hasNext() && fileIndex.get(pendingIt.next().getId()) <= index) {
+			pendingIt.remove();
+		}
+		// Keep fetching while the caller writes this file.
+		startFetches();
+		if (prefetch == null) {
+			return s3Client.getObject(handle.getBucketName(), handle.getKey()).getObjectContent();
+		}
+		return new ByteArrayInputStream(getResult(prefetch.future));
+	}
+
+	/**
+	 * The number of bytes currently fetched or being fetched.
+	 *
+	 * @return
+	 */
+	long getBufferedBytes() {
+		return bufferedBytes;
+	}
+
+	/**
+	 * The number of fetches that have been started and not consumed.
+	 *
+	 * @return
+	 */
+	int getStartedCount() {
+		return started.size();
+	}
+
+	byte[] fetch(S3FileHandle handle) throws IOException {
+		try (InputStream in = s3Client.getObject(handle.getBucketName(), handle.getKey()).getObjectContent()) {
+			return IOUtils.toByteArray(in);
+		}
+	}
+
+	static byte[] getResult(Future<byte[]> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	public void close() {
+		for (Prefetch prefetch : started) {
+			prefetch.future.cancel(true);
+		}
+		started.clear();
+		pending.clear();
+		bufferedBytes = 0L;
+		executor.shutdownNow();
+	}
+
+	private static class Prefetch {
+
+		private final S3FileHandle handle;
+		private final Future<byte[]> future;
+
+		Prefetch(S3FileHandle handle, Future<byte[]> future) {
+			this.handle = handle;
+			this.future = future;
+		}
+	}
+
+}
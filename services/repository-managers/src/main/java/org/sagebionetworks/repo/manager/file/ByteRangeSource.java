@@ -0,0 +1,28 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A file that is read in byte ranges, so a reader only fetches the parts of a
+ * large file it needs and does not hold a connection open between reads.
+ *
+ */
+public interface ByteRangeSource {
+
+	/**
+	 * @return The size of the file in bytes.
+	 */
+	long getContentSize();
+
+	/**
+	 * Open a stream over a range of the file. The caller must close the stream.
+	 * 
+	 * @param start The position of the first byte to read.
+	 * @param end   The position of the last byte to read (inclusive).
+	 * @return
+	 * @throws IOException
+	 */
+	InputStream openRange(long start, long end) throws IOException;
+
+}
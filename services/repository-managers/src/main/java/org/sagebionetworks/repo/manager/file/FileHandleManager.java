@@ -173,6 +173,18 @@ public interface FileHandleManager {
 	 */
 	S3FileHandle uploadLocalFile(LocalFileUploadRequest request);
 
+	/**
+	 * Start an upload to the standard Synapse S3 bucket that is sent to S3 while
+	 * it is written, without a local file. The file handle is created when the
+	 * returned upload is completed. This is used by workers.
+	 * 
+	 * Note that NO permission check is performed on the user of the request.
+	 * 
+	 * @param request The file name is required, the file to upload is ignored.
+	 * @return
+	 */
+	StreamingFileUpload startStreamingUpload(LocalFileUploadRequest request);
+
 	/**
 	 * Get the list of upload destinations for this parent
 	 * 
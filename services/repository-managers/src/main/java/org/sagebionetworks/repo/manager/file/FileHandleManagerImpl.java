@@ -102,6 +102,7 @@ import org.sagebionetworks.repo.model.project.UploadDestinationListSetting;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.upload.multipart.MultipartUtils;
+import org.sagebionetworks.upload.multipart.S3MultipartOutputStream;
 import org.sagebionetworks.util.ContentDispositionUtils;
 import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.utils.ContentTypeUtil;
@@ -165,6 +166,12 @@ public class FileHandleManagerImpl implements FileHandleManager {
 	
 	private static final String GZIP_CONTENT_ENCODING = "gzip";
 
+	/**
+	 * The size of each part of a streaming upload, which is also the memory used
+	 * to buffer the upload.
+	 */
+	public static final int STREAMING_UPLOAD_PART_SIZE_BYTES = S3MultipartOutputStream.MINIMUM_PART_SIZE_BYTES;
+
 	@Autowired
 	private FileHandleDao fileHandleDao;
 
@@ -689,6 +696,34 @@ public class FileHandleManagerImpl implements FileHandleManager {
 		} 
 	}
 
+	@Override
+	public StreamingFileUpload startStreamingUpload(LocalFileUploadRequest request) {
+		ValidateArgument.required(request, "request");
+		ValidateArgument.required(request.getFileName(), "request.fileName");
+		ValidateArgument.required(request.getUserId(), "request.userId");
+		// This will return the default storage location if the input is null
+		StorageLocationSetting storageLocationSetting = storageLocationDAO.get(request.getStorageLocationId());
+		String bucket = MultipartUtils.getBucket(storageLocationSetting);
+		String key = MultipartUtils.createNewKey(request.getUserId(), request.getFileName(), storageLocationSetting);
+		S3FileHandle handle = new S3FileHandle();
+		handle.setBucketName(bucket);
+		handle.setKey(key);
+		handle.setContentType(request.getContentType());
+		handle.setCreatedBy(request.getUserId());
+		handle.setCreatedOn(new Date(System.currentTimeMillis()));
+		handle.setEtag(UUID.randomUUID().toString());
+		handle.setFileName(request.getFileName());
+		handle.setStorageLocationId(request.getStorageLocationId());
+		// The MD5 is not known until the upload is complete.
+		ObjectMetadata meta = TransferUtils.prepareObjectMetadata(handle);
+		S3MultipartOutputStream s3Out = new S3MultipartOutputStream(s3Client, bucket, key, meta,
+				MultipartUtils.getS3StorageClass(storageLocationSetting), STREAMING_UPLOAD_PART_SIZE_BYTES);
+		return new StreamingFileUpload(s3Out, handle, (toCreate) -> {
+			toCreate.setId(idGenerator.generateNewId(IdType.FILE_IDS).toString());
+			return (S3FileHandle) fileHandleDao.createFile(toCreate);
+		});
+	}
+
 	@Override
 	@Deprecated
 	public List<UploadDestination> getUploadDestinations(UserInfo userInfo, String parentId) throws DatastoreException,
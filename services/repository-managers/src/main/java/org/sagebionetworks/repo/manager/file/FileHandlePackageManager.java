@@ -1,63 +1,34 @@
 package org.sagebionetworks.repo.manager.file;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.zip.ZipOutputStream;
 
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.file.BulkFileDownloadRequest;
 import org.sagebionetworks.repo.model.file.BulkFileDownloadResponse;
-import org.sagebionetworks.repo.model.file.S3FileHandle;
 
 public interface FileHandlePackageManager {
 
 	/**
-	 * Create a temporary file on the local machine.
+	 * Create a ZipOutputStream that writes to the given stream.
 	 * 
-	 * @param prefix
-	 * @param suffix
+	 * @param out
 	 * @return
-	 * @throws IOException
-	 */
-	public File createTempFile(String prefix, String suffix) throws IOException;
-
-	/**
-	 * Create a ZipOutputStream using the given file.
-	 * 
-	 * @param outFile
-	 * @return
-	 * @throws IOException
-	 */
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException;
-
-	/**
-	 * Get the S3FileHandle for the given FileHandle.id.
-	 * 
-	 * @param fileHandleId
-	 * @return
-	 * @throws IllegalArgumentException If the requested FileHandle is not an
-	 *                                  S3FileHandle.
-	 */
-	S3FileHandle getS3FileHandle(String fileHandleId);
-
-	/**
-	 * Download the given FileHandle to the a local file.
-	 * 
-	 * @param fileHandle
-	 * @return
-	 * @throws IOException
 	 */
-	public File downloadToTempFile(S3FileHandle fileHandle) throws IOException;
+	public ZipOutputStream createZipOutputStream(OutputStream out);
 
 	/**
-	 * Add the given file to
+	 * Add the content of the given stream to the zip as a new entry. The given
+	 * stream is closed.
 	 * 
 	 * @param zipOut
 	 * @param toAdd
 	 * @param entryName
 	 * @throws IOException
 	 */
-	public void addFileToZip(ZipOutputStream zipOut, File toAdd, String entryName) throws IOException;
+	public void addFileToZip(ZipOutputStream zipOut, InputStream toAdd, String entryName) throws IOException;
 
 	/**
 	 * Packaged the requested files into a zip file and upload the file to S3 as a
@@ -1,21 +1,26 @@
 package org.sagebionetworks.repo.manager.file;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.repo.manager.AuthorizationManager;
 import org.sagebionetworks.repo.manager.events.EventsCollector;
@@ -37,7 +42,7 @@ import org.sagebionetworks.repo.web.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 @Service
 public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
@@ -50,82 +55,52 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 	public static final String FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT = "File exceeds the maximum size limit.";
 	public static final String RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE = "Result file has reached the maximum size.";
 	public static final String FILE_ALREADY_ADDED = "File already added.";
+	public static final String DEFAULT_ZIP_FILE_NAME_PREFIX = "Job";
+	public static final String DEFAULT_ZIP_FILE_NAME_SUFFIX = ".zip";
 
 	private FileHandleDao fileHandleDao;
 	private SynapseS3Client s3client;
 	private AuthorizationManager fileHandleAuthorizationManager;
 	private FileHandleManager fileHandleManager;
 	private EventsCollector statisticsCollector;
+	private StackConfiguration stackConfiguration;
 
 	@Autowired
 	public FileHandlePackageManagerImpl(FileHandleDao fileHandleDao, SynapseS3Client s3client,
 			AuthorizationManager fileHandleAuthorizationManager, FileHandleManager fileHandleManager,
-			EventsCollector statisticsCollector) {
+			EventsCollector statisticsCollector, StackConfiguration stackConfiguration) {
 		super();
 		this.fileHandleDao = fileHandleDao;
 		this.s3client = s3client;
 		this.fileHandleAuthorizationManager = fileHandleAuthorizationManager;
 		this.fileHandleManager = fileHandleManager;
 		this.statisticsCollector = statisticsCollector;
+		this.stackConfiguration = stackConfiguration;
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see
-	 * org.sagebionetworks.file.worker.BulkDownloadDao#createTempFile(java.lang.
-	 * String, java.lang.String)
-	 */
-	@Override
-	public File createTempFile(String prefix, String suffix) throws IOException {
-		return File.createTempFile(prefix, suffix);
-	}
-
-	@Override
-	public ZipOutputStream createZipOutputStream(File outFile) throws IOException {
-		return new ZipOutputStream(new FileOutputStream(outFile));
-	}
-
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see
-	 * org.sagebionetworks.file.worker.BulkDownloadDao#getS3FileHandle(java.lang.
-	 * String)
-	 */
 	@Override
-	public S3FileHandle getS3FileHandle(String fileHandleId) {
-		FileHandle handle = fileHandleDao.get(fileHandleId);
-		if (!(handle instanceof S3FileHandle)) {
-			throw new IllegalArgumentException(ONLY_S3_FILE_HANDLES_CAN_BE_DOWNLOADED);
-		}
-		return (S3FileHandle) handle;
+	public ZipOutputStream createZipOutputStream(OutputStream out) {
+		return new ZipOutputStream(out);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Create a fetcher for the files of a single package. Each package gets its
+	 * own thread pool so one large package cannot starve the others.
 	 * 
-	 * @see org.sagebionetworks.file.worker.BulkDownloadDao#downloadToTempFile(org.
-	 * sagebionetworks.repo.model.file.S3FileHandle)
+	 * @param toFetch
+	 * @return
 	 */
-	@Override
-	public File downloadToTempFile(S3FileHandle fileHandle) throws IOException {
-		File tempFile = File.createTempFile("FileHandle" + fileHandle.getId(), ".tmp");
-		// download this file to the local machine
-		s3client.getObject(new GetObjectRequest(fileHandle.getBucketName(), fileHandle.getKey()), tempFile);
-		return tempFile;
+	BulkFileFetcher createFileFetcher(List<S3FileHandle> toFetch) {
+		int maxConcurrentFetches = stackConfiguration.getBulkFileDownloadMaxConcurrentFetches();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentFetches),
+				new ThreadFactoryBuilder().setNameFormat("bulk-file-fetch-%d").setDaemon(true).build());
+		return new BulkFileFetcher(s3client, executor, toFetch, maxConcurrentFetches,
+				stackConfiguration.getBulkFileDownloadMaxBufferedBytes());
 	}
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see
-	 * org.sagebionetworks.file.worker.BulkDownloadDao#addFileToZip(java.util.zip.
-	 * ZipOutputStream, java.io.File, java.lang.String)
-	 */
 	@Override
-	public void addFileToZip(ZipOutputStream zipOut, File toAdd, String zipEntryName) throws IOException {
-		try (InputStream in = new FileInputStream(toAdd)) {
+	public void addFileToZip(ZipOutputStream zipOut, InputStream toAdd, String zipEntryName) throws IOException {
+		try (InputStream in = toAdd) {
 			ZipEntry entry = new ZipEntry(zipEntryName);
 			zipOut.putNextEntry(entry);
 			// Write the file the zip
@@ -143,22 +118,24 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 
 	@Override
 	public BulkFileDownloadResponse buildZip(UserInfo user, BulkFileDownloadRequest request, boolean skipFileSizeCheck) throws IOException {
+		String zipFileName = request.getZipFileName();
 		// fix for PLFM-6626
-		if (request.getZipFileName() != null) {
-			NameValidation.validateName(request.getZipFileName());
+		if (zipFileName != null) {
+			NameValidation.validateName(zipFileName);
+		} else {
+			zipFileName = createDefaultZipFileName();
 		}
-		// The generated zip will be written to this temp file.
-		File tempResultFile = createTempFile("Job", ".zip");
+		// The generated zip is uploaded to S3 while it is written.
+		StreamingFileUpload upload = fileHandleManager
+				.startStreamingUpload(new LocalFileUploadRequest().withFileName(zipFileName)
+						.withUserId(user.getId().toString()).withContentType(APPLICATION_ZIP));
 		try {
-			List<FileDownloadSummary> results = addFilesToZip(user, request, tempResultFile, skipFileSizeCheck);
+			List<FileDownloadSummary> results = addFilesToZip(user, request, upload.getOutputStream(), skipFileSizeCheck);
 			String resultFileHandleId = null;
 			// must have at least one file.
 			if (results.stream().filter(f-> FileDownloadStatus.SUCCESS.equals(f.getStatus())).findFirst().isPresent()) {
-				// upload the result file to S3
-				S3FileHandle resultHandle = fileHandleManager
-						.uploadLocalFile(new LocalFileUploadRequest().withFileName(request.getZipFileName())
-								.withUserId(user.getId().toString()).withFileToUpload(tempResultFile)
-								.withContentType(APPLICATION_ZIP));
+				// complete the upload of the result file to S3
+				S3FileHandle resultHandle = upload.complete();
 				resultFileHandleId = resultHandle.getId();
 			}
 
@@ -172,24 +149,39 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 			response.setResultZipFileHandleId(resultFileHandleId);
 			return response;
 		} finally {
-			tempResultFile.delete();
+			// Discards the upload if it was not completed.
+			upload.abort();
 		}
 	}
 
+	/**
+	 * The name of the zip when the request does not include one. The zip used to
+	 * be written to a temporary file that named the resulting file handle, so the
+	 * default keeps the same form.
+	 * 
+	 * @return
+	 */
+	static String createDefaultZipFileName() {
+		return DEFAULT_ZIP_FILE_NAME_PREFIX + Long.toUnsignedString(ThreadLocalRandom.current().nextLong())
+				+ DEFAULT_ZIP_FILE_NAME_SUFFIX;
+	}
+
 	/**
 	 * 
 	 * @param progressCallback
 	 * @param message
 	 * @param authResults
-	 * @param tempResultFile
-	 * @param zipOut
+	 * @param resultOut The stream the zip is written to.
 	 * @throws IOException
 	 */
-	List<FileDownloadSummary> addFilesToZip(UserInfo user, BulkFileDownloadRequest request, File tempResultFile, boolean skipFileSizeCheck) throws IOException {
-
-		try (ZipOutputStream zipOut = createZipOutputStream(tempResultFile)) {
-			List<FileHandleAssociationAuthorizationStatus> authResults = fileHandleAuthorizationManager
-					.canDownLoadFile(user, request.getRequestedFiles());
+	List<FileDownloadSummary> addFilesToZip(UserInfo user, BulkFileDownloadRequest request, OutputStream resultOut, boolean skipFileSizeCheck) throws IOException {
+		List<FileHandleAssociationAuthorizationStatus> authResults = fileHandleAuthorizationManager
+				.canDownLoadFile(user, request.getRequestedFiles());
+		Map<String, FileHandle> fileHandles = getFileHandles(authResults);
+		CountingOutputStream countingOut = new CountingOutputStream(resultOut);
+		try (ZipOutputStream zipOut = createZipOutputStream(countingOut);
+				BulkFileFetcher fetcher = createFileFetcher(getFilesToFetch(authResults, fileHandles, skipFileSizeCheck))) {
+			fetcher.startFetches();
 			ZipEntryNameProvider zipEntryNameProvider = createZipEntryNameProvider(request.getZipFileFormat());
 			Set<String> fileIdsInZip = new HashSet<>(authResults.size());
 			// This will be the final summary of results..
@@ -203,8 +195,8 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 				summary.setAssociateObjectType(fhas.getAssociation().getAssociateObjectType());
 				fileSummaries.add(summary);
 				try {
-					String zipEntryName = writeOneFileToZip(zipOut, tempResultFile.length(), fhas, fileIdsInZip,
-							zipEntryNameProvider, skipFileSizeCheck);
+					String zipEntryName = writeOneFileToZip(zipOut, countingOut.getByteCount(), fhas, fileIdsInZip,
+							fileHandles, fetcher, zipEntryNameProvider, skipFileSizeCheck);
 					// download this file from S3
 					fileIdsInZip.add(fileHandleId);
 					summary.setStatus(FileDownloadStatus.SUCCESS);
@@ -232,6 +224,46 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 
 	}
 
+	/**
+	 * Get all of the authorized file handles of a package with a single batch
+	 * lookup.
+	 * 
+	 * @param authResults
+	 * @return
+	 */
+	Map<String, FileHandle> getFileHandles(List<FileHandleAssociationAuthorizationStatus> authResults) {
+		Set<String> fileHandleIds = authResults.stream().filter(fhas -> fhas.getStatus().isAuthorized())
+				.map(fhas -> fhas.getAssociation().getFileHandleId()).collect(Collectors.toCollection(LinkedHashSet::new));
+		return fileHandleDao.getAllFileHandlesBatch(fileHandleIds);
+	}
+
+	/**
+	 * The files that are expected to be added to the zip, in the order they will
+	 * be added.
+	 * 
+	 * @param authResults
+	 * @param fileHandles
+	 * @param skipFileSizeCheck
+	 * @return
+	 */
+	static List<S3FileHandle> getFilesToFetch(List<FileHandleAssociationAuthorizationStatus> authResults,
+			Map<String, FileHandle> fileHandles, boolean skipFileSizeCheck) {
+		Set<String> added = new HashSet<>(authResults.size());
+		List<S3FileHandle> toFetch = new ArrayList<>(authResults.size());
+		for (FileHandleAssociationAuthorizationStatus fhas : authResults) {
+			FileHandle handle = fileHandles.get(fhas.getAssociation().getFileHandleId());
+			if (!fhas.getStatus().isAuthorized() || !(handle instanceof S3FileHandle) || !added.add(handle.getId())) {
+				continue;
+			}
+			if (!skipFileSizeCheck && handle.getContentSize() != null
+					&& handle.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
+				continue;
+			}
+			toFetch.add((S3FileHandle) handle);
+		}
+		return toFetch;
+	}
+
 	/**
 	 * Write a single file to the given zip stream.
 	 * 
@@ -239,11 +271,14 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 	 * @param zipFileSize
 	 * @param fhas
 	 * @param fileIdsInZip
+	 * @param fileHandles The file handles of the package.
+	 * @param fetcher Provides the content of each file.
 	 * @throws IOException
 	 * @return The zip entry name used for this file.
 	 */
 	String writeOneFileToZip(ZipOutputStream zipOut, long zipFileSize, FileHandleAssociationAuthorizationStatus fhas,
-			Set<String> fileIdsInZip, ZipEntryNameProvider zipEntryNameProvider, boolean skipFileSizeCheck) throws IOException {
+			Set<String> fileIdsInZip, Map<String, FileHandle> fileHandles, BulkFileFetcher fetcher,
+			ZipEntryNameProvider zipEntryNameProvider, boolean skipFileSizeCheck) throws IOException {
 		String fileHandleId = fhas.getAssociation().getFileHandleId();
 		// Is the user authorized to download this file?
 		if (!fhas.getStatus().isAuthorized()) {
@@ -258,23 +293,36 @@ public class FileHandlePackageManagerImpl implements FileHandlePackageManager {
 			throw new BulkFileException(RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE, FileDownloadCode.EXCEEDS_SIZE_LIMIT);
 		}
 		// Get this filehandle.
-		S3FileHandle s3Handle = getS3FileHandle(fileHandleId);
+		S3FileHandle s3Handle = getS3FileHandle(fileHandleId, fileHandles);
 		// Each file must be under the max.s
 		if (!skipFileSizeCheck && s3Handle.getContentSize() > FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES) {
 			throw new BulkFileException(FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT, FileDownloadCode.EXCEEDS_SIZE_LIMIT);
 		}
-		// This file will be downloaded to this temp.
-		File downloadTemp = downloadToTempFile(s3Handle);
-		try {
-			// The entry name is the path plus file name.
-			String zipEntryName = zipEntryNameProvider.createZipEntryName(s3Handle.getFileName(),
-					Long.parseLong(s3Handle.getId()));
-			// write the file to the zip.
-			addFileToZip(zipOut, downloadTemp, zipEntryName);
-			return zipEntryName;
-		} finally {
-			downloadTemp.delete();
+		// The entry name is the path plus file name.
+		String zipEntryName = zipEntryNameProvider.createZipEntryName(s3Handle.getFileName(),
+				Long.parseLong(s3Handle.getId()));
+		// write the file to the zip.
+		addFileToZip(zipOut, fetcher.openFile(s3Handle), zipEntryName);
+		return zipEntryName;
+	}
+
+	/**
+	 * Get the S3FileHandle for the given id from the file handles of the
+	 * package.
+	 * 
+	 * @param fileHandleId
+	 * @param fileHandles
+	 * @return
+	 */
+	static S3FileHandle getS3FileHandle(String fileHandleId, Map<String, FileHandle> fileHandles) {
+		FileHandle handle = fileHandles.get(fileHandleId);
+		if (handle == null) {
+			throw new NotFoundException(String.format("FileHandle: '%s' cannot be found", fileHandleId));
 		}
+		if (!(handle instanceof S3FileHandle)) {
+			throw new IllegalArgumentException(ONLY_S3_FILE_HANDLES_CAN_BE_DOWNLOADED);
+		}
+		return (S3FileHandle) handle;
 	}
 
 	void collectDownloadStatistics(Long userId, List<FileDownloadSummary> results) {
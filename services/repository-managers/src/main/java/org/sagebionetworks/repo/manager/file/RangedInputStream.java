@@ -0,0 +1,109 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads a {@link ByteRangeSource} from start to end as a sequence of ranges,
+ * each twice the size of the last up to a maximum. A reader that stops early
+ * only fetches a little more than it read, while a reader that reads the whole
+ * source needs few requests.
+ * <p>
+ * Each range is read into memory in full and closed before any of it is
+ * returned, so no connection is held open while the reader works through the
+ * range. A reader that is slow to consume the stream, or that blocks between
+ * reads, cannot cause the source to time out. At most one range of the maximum
+ * size is held in memory.
+ *
+ */
+public class RangedInputStream extends InputStream {
+
+	private final ByteRangeSource source;
+	private final long maxRangeBytes;
+	private long rangeBytes;
+	private long position;
+	private byte[] range;
+	private int rangePosition;
+	private boolean finished;
+
+	/**
+	 *
+	 * @param source
+	 * @param firstRangeBytes The size of the first range read.
+	 * @param maxRangeBytes   The maximum size of a range, which is also the most
+	 *                        memory used by this stream.
+	 */
+	public RangedInputStream(ByteRangeSource source, long firstRangeBytes, long maxRangeBytes) {
+		if (firstRangeBytes < 1 || maxRangeBytes < firstRangeBytes) {
+			throw new IllegalArgumentException("Range sizes must be at least one byte and the first range cannot exceed the maximum");
+		}
+		if (maxRangeBytes > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("The maximum range size cannot exceed: " + Integer.MAX_VALUE);
+		}
+		this.source = source;
+		this.rangeBytes = firstRangeBytes;
+		this.maxRangeBytes = maxRangeBytes;
+		this.position = 0;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] one = new byte[1];
+		int count = read(one, 0, 1);
+		return count < 0 ? -1 : one[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (range == null || rangePosition == range.length) {
+			if (!readNextRange()) {
+				return -1;
+			}
+		}
+		int count = Math.min(len, range.length - rangePosition);
+		System.arraycopy(range, rangePosition, b, off, count);
+		rangePosition += count;
+		position += count;
+		return count;
+	}
+
+	/**
+	 * Read the next range into memory and close it.
+	 *
+	 * @return False at the end of the source.
+	 * @throws IOException
+	 */
+	private boolean readNextRange() throws IOException {
+		if (finished || position >= source.getContentSize()) {
+			finished = true;
+			return false;
+		}
+		long end = Math.min(source.getContentSize(), position + rangeBytes) - 1;
+		try (InputStream in = source.openRange(position, end)) {
+			range = IOUtils.toByteArray(in);
+		}
+		rangePosition = 0;
+		rangeBytes = Math.min(rangeBytes * 2, maxRangeBytes);
+		// the source is shorter than its size
+		finished = range.length == 0;
+		return !finished;
+	}
+
+	/**
+	 * @return The number of bytes read so far.
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		range = null;
+		finished = true;
+	}
+}
@@ -0,0 +1,58 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.sagebionetworks.aws.SynapseS3Client;
+
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+
+/**
+ * A {@link ByteRangeSource} over an S3 object that fetches each range with a
+ * ranged GET.
+ *
+ */
+public class S3ByteRangeSource implements ByteRangeSource {
+
+	private final SynapseS3Client s3Client;
+	private final String bucketName;
+	private final String key;
+	private final long contentSize;
+
+	/**
+	 *
+	 * @param s3Client
+	 * @param bucketName
+	 * @param key
+	 * @param contentSize The size of the object in bytes.
+	 */
+	public S3ByteRangeSource(SynapseS3Client s3Client, String bucketName, String key, long contentSize) {
+		this.s3Client = s3Client;
+		this.bucketName = bucketName;
+		this.key = key;
+		this.contentSize = contentSize;
+	}
+
+	@Override
+	public long getContentSize() {
+		return contentSize;
+	}
+
+	@Override
+	public InputStream openRange(long start, long end) throws IOException {
+		final S3ObjectInputStream in = s3Client.getObject(new GetObjectRequest(bucketName, key).withRange(start, end))
+				.getObjectContent();
+		return new FilterInputStream(in) {
+
+			@Override
+			public void close() throws IOException {
+				// apparently, aborting (which also closes the stream) is an optimization for closing large streams that
+				// aren't fully read (see docs on the S3ObjectInputStream)
+				in.abort();
+			}
+		};
+	}
+
+}
@@ -0,0 +1,103 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.sagebionetworks.repo.manager.file.transfer.TransferUtils;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.upload.multipart.S3MultipartOutputStream;
+import org.sagebionetworks.util.ValidateArgument;
+
+import com.amazonaws.util.BinaryUtils;
+
+/**
+ * A file that is uploaded to S3 while it is being written. The data written to
+ * {@link #getOutputStream()} is sent to S3 in multipart chunks, so the size of
+ * the file is not limited by local disk or memory. The file handle is only
+ * created when the upload is completed with {@link #complete()}.
+ * <p>
+ * Closing the output stream does not complete the upload, so the stream can be
+ * wrapped by writers (such as a ZipOutputStream) that close the stream they
+ * wrap.
+ *
+ */
+public class StreamingFileUpload {
+
+	private final S3MultipartOutputStream s3Out;
+	private final MessageDigest md5Digest;
+	private final CountingOutputStream countingOut;
+	private final OutputStream callerOut;
+	private final S3FileHandle handle;
+	private final UnaryOperator<S3FileHandle> fileHandleCreator;
+	private boolean done;
+
+	/**
+	 *
+	 * @param s3Out             The multipart upload of the file.
+	 * @param handle            The file handle to create, the MD5 and size are
+	 *                          filled in on completion.
+	 * @param fileHandleCreator Called to create the file handle once the upload
+	 *                          is complete.
+	 */
+	StreamingFileUpload(S3MultipartOutputStream s3Out, S3FileHandle handle,
+			UnaryOperator<S3FileHandle> fileHandleCreator) {
+		ValidateArgument.required(s3Out, "s3Out");
+		ValidateArgument.required(handle, "handle");
+		ValidateArgument.required(fileHandleCreator, "fileHandleCreator");
+		this.s3Out = s3Out;
+		this.handle = handle;
+		this.fileHandleCreator = fileHandleCreator;
+		this.md5Digest = TransferUtils.createMD5Digest();
+		this.countingOut = new CountingOutputStream(new DigestOutputStream(s3Out, md5Digest));
+		this.callerOut = new CloseShieldOutputStream(countingOut);
+		this.done = false;
+	}
+
+	/**
+	 * The stream to write the contents of the file to.
+	 *
+	 * @return
+	 */
+	public OutputStream getOutputStream() {
+		return callerOut;
+	}
+
+	/**
+	 * Complete the upload and create the file handle for the uploaded file.
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	public S3FileHandle complete() throws IOException {
+		ValidateArgument.requirement(!done, "The upload has already been completed or aborted");
+		done = true;
+		try {
+			countingOut.flush();
+			s3Out.close();
+		} catch (IOException | RuntimeException e) {
+			s3Out.abort();
+			throw e;
+		}
+		handle.setContentMd5(BinaryUtils.toHex(md5Digest.digest()));
+		handle.setContentSize(countingOut.getByteCount());
+		return fileHandleCreator.apply(handle);
+	}
+
+	/**
+	 * Abort the upload, discarding anything already sent to S3. Has no effect if
+	 * the upload has already been completed or aborted.
+	 */
+	public void abort() {
+		if (done) {
+			return;
+		}
+		done = true;
+		s3Out.abort();
+	}
+
+}
@@ -8,15 +8,20 @@ import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.LongBinaryOperator;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.stream.ImageInputStream;
 
 import org.imgscalr.Scalr;
 import org.imgscalr.Scalr.Mode;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.StackConfigurationSingleton;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
 
 /**
  * Generates previews for image content types.
@@ -34,14 +39,50 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 	public static final String IMAGE_PNG = "image/png";
 
 	/**
-	 * The maximum image size is 1001 x 1001 pixels.
+	 * The maximum size of an image loaded at full resolution with
+	 * {@link #loadImageWithSizeCheck(InputStream, long)} is 1001 x 1001 pixels.
 	 */
 	public static final long MAX_IMAGE_SIZE = 1000 * 1000;
+	/**
+	 * The maximum width or height of an image that will be previewed. Subsampling
+	 * bounds the memory needed to decode larger images but not the time.
+	 */
+	public static final int MAX_SOURCE_DIMENSION_PIXELS = 20_000;
+	/**
+	 * The maximum width*height of a progressive JPEG or an interlaced PNG or GIF
+	 * that will be previewed. The reader cannot decode such a source a row at a
+	 * time, a progressive JPEG is buffered whole, so subsampling does not bound
+	 * the memory it needs.
+	 */
+	public static final long MAX_BUFFERED_SOURCE_PIXELS = 4000 * 3000;
+	/**
+	 * Images are subsampled while decoding to at most this multiple of the preview
+	 * size, leaving the final, smooth scaling to Scalr.
+	 */
+	public static final int SUBSAMPLING_HEADROOM = 2;
+	/**
+	 * The heap needed for each decoded pixel: up to 8 bytes for 16 bit RGBA plus
+	 * the 4 byte copy Scalr makes before scaling. Since it is better to error on
+	 * the high side, this is multiplied by a fudge factor.
+	 */
+	static final double MEMORY_BYTES_PER_DECODED_PIXEL = (8 + 4) * 1.2;
+	/**
+	 * The memory needed for each pixel of a source that is buffered whole: a 2
+	 * byte coefficient for each of up to 4 components of a progressive JPEG,
+	 * multiplied by the same fudge factor.
+	 */
+	static final double MEMORY_BYTES_PER_BUFFERED_PIXEL = (4 * 2) * 1.2;
+	/**
+	 * Allowance for the row buffers of the reader and the PNG writer: a band of 16
+	 * rows, the height of a JPEG MCU, of the widest source at 8 bytes per pixel,
+	 * plus 1 MB for the writer.
+	 */
+	static final long MEMORY_BYTES_FOR_BUFFERS = MAX_SOURCE_DIMENSION_PIXELS * 8L * 16 + 1024 * 1024;
 	/**
 	 * The supported content types for this generator, and the memory multipler that
-	 * should be used.
+	 * bounds the memory needed to decode a file of that type at full resolution.
 	 */
-	private static Map<String, Float> SUPPORTED_CONTENT_TYPES;
+	private static final Map<String, Float> SUPPORTED_CONTENT_TYPES;
 	static {
 		SUPPORTED_CONTENT_TYPES = new HashMap<String, Float>();
 		// Map the types to the memory requirements.
@@ -57,11 +98,13 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 
 	@Override
 	public PreviewOutputMetadata generatePreview(InputStream from, OutputStream to) throws IOException {
-		// Determine the size of the image
-		// First load the image
+		int maxWidthPixels = StackConfigurationSingleton.singleton().getMaximumPreviewWidthPixels();
+		int maxHeightPixels = StackConfigurationSingleton.singleton().getMaximumPreviewHeightPixels();
+		// Load the image, skipping rows and columns the preview does not need
 		BufferedImage image;
 		try {
-			image = loadImageWithSizeCheck(from, MAX_IMAGE_SIZE);
+			image = loadSubsampledImage(from, maxWidthPixels * SUBSAMPLING_HEADROOM,
+					maxHeightPixels * SUBSAMPLING_HEADROOM);
 		}catch (ArrayIndexOutOfBoundsException e){
 			throw new PreviewGenerationNotSupportedException("Improperly formatted image", e);
 		}
@@ -70,8 +113,6 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 			throw new PreviewGenerationNotSupportedException("The passed input stream was not an image");
 		}
 		// Let image scalar do the heavy lifting!
-		int maxWidthPixels = StackConfigurationSingleton.singleton().getMaximumPreviewWidthPixels();
-		int maxHeightPixels = StackConfigurationSingleton.singleton().getMaximumPreviewHeightPixels();
 		// only resize if original image is bigger than our preview max size
 		int height = image.getHeight();
 		int width = image.getWidth();
@@ -90,7 +131,7 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 
 	@Override
 	public boolean supportsContentType(String contentType, String extension) {
-		return SUPPORTED_CONTENT_TYPES.keySet().contains(contentType.toLowerCase());
+		return SUPPORTED_CONTENT_TYPES.containsKey(contentType.toLowerCase());
 	}
 
 	/**
@@ -110,11 +151,52 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 		}
 	}
 
+	/**
+	 * Images are subsampled while they are decoded and sources that are buffered
+	 * whole are limited to {@link #MAX_BUFFERED_SOURCE_PIXELS}, so the memory
+	 * needed for a large file is bounded by these limits rather than by its size.
+	 * A small file never needs more than it takes to decode it at full
+	 * resolution, so the estimate is the smaller of the two.
+	 */
 	@Override
 	public long calculateNeededMemoryBytesForPreview(String mimeType, long contentSize) {
+		StackConfiguration config = StackConfigurationSingleton.singleton();
 		double multiplier = SUPPORTED_CONTENT_TYPES.get(mimeType);
-		long memoryNeededBytes = (long) Math.ceil((((double) contentSize) * multiplier));
-		return memoryNeededBytes;
+		long fullResolutionBytes = (long) Math.ceil((((double) contentSize) * multiplier));
+		return Math.min(fullResolutionBytes,
+				calculateNeededMemoryBytes(config.getMaximumPreviewWidthPixels(), config.getMaximumPreviewHeightPixels()));
+	}
+
+	/**
+	 * The memory needed to generate a preview of any image with the given maximum
+	 * preview size, including the largest source that is buffered whole.
+	 * 
+	 * @param maxWidthPixels
+	 * @param maxHeightPixels
+	 * @return
+	 */
+	static long calculateNeededMemoryBytes(int maxWidthPixels, int maxHeightPixels) {
+		double decodedPixels = ((double) maxWidthPixels * SUBSAMPLING_HEADROOM)
+				* ((double) maxHeightPixels * SUBSAMPLING_HEADROOM);
+		return (long) Math.ceil(decodedPixels * MEMORY_BYTES_PER_DECODED_PIXEL)
+				+ (long) Math.ceil(MAX_BUFFERED_SOURCE_PIXELS * MEMORY_BYTES_PER_BUFFERED_PIXEL) + MEMORY_BYTES_FOR_BUFFERS;
+	}
+
+	/**
+	 * Calculate the source subsampling needed for an image of the given size to be
+	 * decoded within the given maximum size.
+	 * 
+	 * @param width     The width of the source image.
+	 * @param height    The height of the source image.
+	 * @param maxWidth  The maximum width of the decoded image.
+	 * @param maxHeight The maximum height of the decoded image.
+	 * @return The number of source columns and rows per decoded pixel, at least
+	 *         one.
+	 */
+	static int calculateSubsampling(long width, long height, long maxWidth, long maxHeight) {
+		long byWidth = (width + maxWidth - 1) / maxWidth;
+		long byHeight = (height + maxHeight - 1) / maxHeight;
+		return (int) Math.max(1L, Math.max(byWidth, byHeight));
 	}
 
 	/**
@@ -131,30 +213,133 @@ public class ImagePreviewGenerator implements PreviewGenerator {
 	 *                                  larger than the provided maxSize.
 	 */
 	public static BufferedImage loadImageWithSizeCheck(InputStream from, long maxSize) throws IOException {
+		return loadImage(from, (width, height) -> {
+			if (width * height > maxSize) {
+				throw new PreviewGenerationNotSupportedException(IMAGE_EXCEEDS_THE_MAXIMUM_SIZE);
+			}
+			return 1;
+		});
+	}
+
+	/**
+	 * Load an image from the given input stream, reading only every n-th column
+	 * and row of the source so the loaded image is no larger than the given
+	 * maximum size. The reader decodes a baseline source a row at a time, so the
+	 * memory needed is bounded by the maximum size rather than by the size of the
+	 * source. Progressive and interlaced sources are not, so they are limited to
+	 * {@link #MAX_BUFFERED_SOURCE_PIXELS}.
+	 * 
+	 * @param from
+	 * @param maxWidth  The maximum width of the loaded image.
+	 * @param maxHeight The maximum height of the loaded image.
+	 * @return BufferedImage
+	 * @throws PreviewGenerationNotSupportedException if the width or height of the
+	 *                                                source is larger than
+	 *                                                {@link #MAX_SOURCE_DIMENSION_PIXELS},
+	 *                                                or a progressive or
+	 *                                                interlaced source has more
+	 *                                                than
+	 *                                                {@link #MAX_BUFFERED_SOURCE_PIXELS}.
+	 */
+	public static BufferedImage loadSubsampledImage(InputStream from, int maxWidth, int maxHeight) throws IOException {
+		return loadImage(from, (width, height) -> {
+			if (width > MAX_SOURCE_DIMENSION_PIXELS || height > MAX_SOURCE_DIMENSION_PIXELS) {
+				throw new PreviewGenerationNotSupportedException(IMAGE_EXCEEDS_THE_MAXIMUM_SIZE);
+			}
+			return calculateSubsampling(width, height, maxWidth, maxHeight);
+		});
+	}
+
+	/**
+	 * Load the first image of the given input stream. Progressive and interlaced
+	 * sources larger than {@link #MAX_BUFFERED_SOURCE_PIXELS} are rejected.
+	 * 
+	 * @param from
+	 * @param subsampling Given the width and height of the source, checks the size
+	 *                    before anything else is read and returns the subsampling
+	 *                    to read with.
+	 * @return The image or null if the stream is not a supported image.
+	 * @throws IOException
+	 */
+	private static BufferedImage loadImage(InputStream from, LongBinaryOperator subsampling) throws IOException {
 		ImageInputStream stream = ImageIO.createImageInputStream(from);
-		Iterator<ImageReader> iter = ImageIO.getImageReaders(stream);
-		if (!iter.hasNext()) {
+		if (stream == null) {
 			return null;
 		}
-		ImageReader reader = iter.next();
-		ImageReadParam param = reader.getDefaultReadParam();
-		reader.setInput(stream, true, true);
-		long width = reader.getWidth(0);
-		long height = reader.getHeight(0);
-		long imageSize = width * height;
-		if (imageSize > maxSize) {
-			throw new PreviewGenerationNotSupportedException(IMAGE_EXCEEDS_THE_MAXIMUM_SIZE);
-		}
-		BufferedImage image;
 		try {
-			image = reader.read(0, param);
+			Iterator<ImageReader> iter = ImageIO.getImageReaders(stream);
+			if (!iter.hasNext()) {
+				return null;
+			}
+			ImageReader reader = iter.next();
+			try {
+				reader.setInput(stream, true, true);
+				long width = reader.getWidth(0);
+				long height = reader.getHeight(0);
+				int period = (int) subsampling.applyAsLong(width, height);
+				// The metadata is only read when the source is too large to be buffered
+				if (width * height > MAX_BUFFERED_SOURCE_PIXELS && isBufferedWhole(reader.getImageMetadata(0))) {
+					throw new PreviewGenerationNotSupportedException(IMAGE_EXCEEDS_THE_MAXIMUM_SIZE);
+				}
+				ImageReadParam param = reader.getDefaultReadParam();
+				if (period > 1) {
+					param.setSourceSubsampling(period, period, 0, 0);
+				}
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
 		} finally {
-			reader.dispose();
 			stream.close();
 		}
-		if (image == null) {
-			stream.close();
+	}
+
+	/**
+	 * Is the image with the given metadata a progressive JPEG or an interlaced PNG
+	 * or GIF?
+	 * 
+	 * @param metadata The native metadata of the image, null if the reader has
+	 *                 none.
+	 * @return
+	 */
+	static boolean isBufferedWhole(IIOMetadata metadata) {
+		if (metadata == null || metadata.getNativeMetadataFormatName() == null) {
+			return false;
+		}
+		return isBufferedWhole(metadata.getAsTree(metadata.getNativeMetadataFormatName()));
+	}
+
+	private static boolean isBufferedWhole(Node node) {
+		if (node instanceof Element) {
+			Element element = (Element) node;
+			switch (element.getNodeName()) {
+			case "sof":
+				// javax_imageio_jpeg_image_1.0, process 2 is progressive
+				if ("2".equals(element.getAttribute("process"))) {
+					return true;
+				}
+				break;
+			case "IHDR":
+				// javax_imageio_png_1.0
+				if ("adam7".equals(element.getAttribute("interlaceMethod"))) {
+					return true;
+				}
+				break;
+			case "ImageDescriptor":
+				// javax_imageio_gif_image_1.0
+				if ("TRUE".equals(element.getAttribute("interlaceFlag"))) {
+					return true;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (isBufferedWhole(child)) {
+				return true;
+			}
 		}
-		return image;
+		return false;
 	}
 }
@@ -4,6 +4,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
+
 /**
  * Abstraction for generating previews.
  * 
@@ -31,6 +33,21 @@ public interface PreviewGenerator {
 	 */
 	public PreviewOutputMetadata generatePreview(InputStream from, OutputStream to) throws IOException;
 	
+	/**
+	 * Generate a preview from the given source, reading only the ranges of the source this generator needs, and write
+	 * it out to the given output stream. By default the entire source is read.
+	 * 
+	 * @param source - The source data to generate a preview from.
+	 * @param to - The preview should be written to this stream.
+	 * @return Must return the content type of generated preview.
+	 * @throws IOException
+	 */
+	public default PreviewOutputMetadata generatePreview(ByteRangeSource source, OutputStream to) throws IOException {
+		try (InputStream from = source.openRange(0, source.getContentSize() - 1)) {
+			return generatePreview(from, to);
+		}
+	}
+	
 	
 	/**
 	 * The amount of memory needed to generate a Preview based on the size of the input file.
@@ -1,15 +1,15 @@
 package org.sagebionetworks.repo.manager.file.preview;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -18,6 +18,8 @@ import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.googlecloud.SynapseGoogleCloudStorageClient;
 import org.sagebionetworks.ids.IdGenerator;
 import org.sagebionetworks.ids.IdType;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
+import org.sagebionetworks.repo.manager.file.S3ByteRangeSource;
 import org.sagebionetworks.repo.manager.file.transfer.TransferUtils;
 import org.sagebionetworks.repo.model.StorageLocationDAO;
 import org.sagebionetworks.repo.model.dbo.file.FileHandleDao;
@@ -31,19 +33,16 @@ import org.sagebionetworks.repo.util.ResourceTracker.ExceedsMaximumResources;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.repo.web.TemporarilyUnavailableException;
 import org.sagebionetworks.upload.multipart.MultipartUtils;
-import org.sagebionetworks.util.FileProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
-import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PartETag;
-import com.amazonaws.services.s3.model.S3Object;
-import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.StorageClass;
 import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.google.cloud.ReadChannel;
 import com.google.cloud.storage.Blob;
 
 /**
@@ -68,9 +67,6 @@ public class PreviewManagerImpl implements  PreviewManager {
 	@Autowired
 	private SynapseGoogleCloudStorageClient googleCloudStorageClient;
 
-	@Autowired
-	private FileProvider tempFileProvider;
-
 	@Autowired
 	private IdGenerator idGenerator;
 	
@@ -94,12 +90,11 @@ public class PreviewManagerImpl implements  PreviewManager {
 
 	// For testing
 	PreviewManagerImpl(FileHandleDao fileMetadataDao,
-			SynapseS3Client s3Client, SynapseGoogleCloudStorageClient googleCloudStorageClient, FileProvider tempFileProvider, IdGenerator idGenerator, StorageLocationDAO storageLocationDao, 
+			SynapseS3Client s3Client, SynapseGoogleCloudStorageClient googleCloudStorageClient, IdGenerator idGenerator, StorageLocationDAO storageLocationDao, 
 			List<PreviewGenerator> generatorList, Long maxPreviewMemory) {
 		this.fileMetadataDao = fileMetadataDao;
 		this.s3Client = s3Client;
 		this.googleCloudStorageClient = googleCloudStorageClient;
-		this.tempFileProvider = tempFileProvider;
 		this.idGenerator = idGenerator;
 		this.generatorList = generatorList;
 		this.maxPreviewMemory = maxPreviewMemory;
@@ -194,27 +189,57 @@ public class PreviewManagerImpl implements  PreviewManager {
 		}
 	}
 
+	/**
+	 * A source that fetches each range of the given S3 object with a ranged GET.
+	 * 
+	 * @param metadata
+	 * @return
+	 */
+	ByteRangeSource createS3PreviewSource(final S3FileHandle metadata) {
+		return new S3ByteRangeSource(s3Client, metadata.getBucketName(), metadata.getKey(), metadata.getContentSize());
+	}
+
+	/**
+	 * A source that reads each range of the given Google Cloud object from a channel positioned at the start of the
+	 * range.
+	 * 
+	 * @param metadata
+	 * @return
+	 */
+	ByteRangeSource createGoogleCloudPreviewSource(final GoogleCloudFileHandle metadata) {
+		return new ByteRangeSource() {
+
+			@Override
+			public long getContentSize() {
+				return metadata.getContentSize();
+			}
+
+			@Override
+			public InputStream openRange(long start, long end) throws IOException {
+				Blob googleCloudObject = googleCloudStorageClient.getObject(metadata.getBucketName(), metadata.getKey());
+				ReadChannel reader = googleCloudObject.reader();
+				if (start > 0) {
+					reader.seek(start);
+				}
+				return new BoundedInputStream(Channels.newInputStream(reader), end - start + 1);
+			}
+		};
+	}
+
 	private S3FileHandle generatePreviewForS3(PreviewGenerator generator, S3FileHandle metadata) {
-		File tempUpload = null;
-		S3ObjectInputStream in = null;
-		OutputStream out = null;
 		try {
-			// The upload file will hold the newly created preview file.
-			tempUpload = tempFileProvider.createTempFile("PreviewManagerImpl_upload", ".tmp");
-			S3Object s3Object = s3Client.getObject(new GetObjectRequest(metadata.getBucketName(), metadata.getKey()));
-			in = s3Object.getObjectContent();
-			out = tempFileProvider.createFileOutputStream(tempUpload);
-			// Let the preview generator do all of the work.
-			PreviewOutputMetadata previewMetadata = generator.generatePreview(in, out);
-			// Close the file
-			out.close();
+			// Let the preview generator do all of the work, fetching only the ranges of the file it needs. Previews are
+			// small so they are held in memory rather than written to a temporary file.
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PreviewOutputMetadata previewMetadata = generator.generatePreview(createS3PreviewSource(metadata), out);
+			byte[] preview = out.toByteArray();
 			S3FileHandle pfm = new S3FileHandle();
 			pfm.setBucketName(metadata.getBucketName());
 			pfm.setContentType(previewMetadata.getContentType());
 			pfm.setCreatedBy(metadata.getCreatedBy());
 			pfm.setFileName("preview" + previewMetadata.getExtension());
 			pfm.setKey(metadata.getCreatedBy() + "/" + UUID.randomUUID().toString());
-			pfm.setContentSize(tempUpload.length());
+			pfm.setContentSize((long) preview.length);
 			pfm.setStorageLocationId(metadata.getStorageLocationId());
 			
 			StorageLocationSetting storageLocation = storageLocationDao.get(metadata.getStorageLocationId());
@@ -249,8 +274,7 @@ public class PreviewManagerImpl implements  PreviewManager {
                         .withKey(key)
                         .withUploadId(uploadId)
                         .withPartNumber(partNumber)
-                        .withFileOffset(filePosition)
-                        .withFile(tempUpload)
+                        .withInputStream(new ByteArrayInputStream(preview, (int) filePosition, (int) currentPartSize))
                         .withPartSize(currentPartSize);
                 
                 partETags.add(s3Client.uploadPart(uploadPartRequest).getPartETag());
@@ -273,47 +297,26 @@ public class PreviewManagerImpl implements  PreviewManager {
 			return (S3FileHandle) fileMetadataDao.get(pfm.getId());
 		} catch (IOException e) {
 			throw new RuntimeException("Error generating preview for file handle " + metadata.toString(), e);
-		}finally{
-			// apparently, aborting (which also closes the stream) is an optimization for closing large streams that
-			// aren't fully read (see docs on the S3ObjectInputStream)
-			if ( in != null ) {
-				in.abort();
-			}
-			// unconditionally close the streams if they exist
-			IOUtils.closeQuietly(out);
-			// unconditionally delete the temp files if they exist
-			if(tempUpload != null){
-				tempUpload.delete();
-			}
 		}
 	}
 
 	private GoogleCloudFileHandle generatePreviewForGoogleCloud(PreviewGenerator generator, GoogleCloudFileHandle metadata) {
-		File tempUpload = null;
-		InputStream in = null;
-		OutputStream out = null;
-
 		try {
-			// The upload file will hold the newly created preview file.
-			tempUpload = tempFileProvider.createTempFile("PreviewManagerImpl_upload", ".tmp");
-			Blob googleCloudObject = googleCloudStorageClient.getObject(metadata.getBucketName(), metadata.getKey());
-			in = Channels.newInputStream(googleCloudObject.reader());
-			out = tempFileProvider.createFileOutputStream(tempUpload);
 			// Let the preview generator do all of the work.
-			PreviewOutputMetadata previewMetadata = generator.generatePreview(in, out);
-			// Close the file
-			out.close();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PreviewOutputMetadata previewMetadata = generator.generatePreview(createGoogleCloudPreviewSource(metadata), out);
+			byte[] preview = out.toByteArray();
 			CloudProviderFileHandleInterface pfm = new GoogleCloudFileHandle();
 			pfm.setBucketName(metadata.getBucketName());
 			pfm.setContentType(previewMetadata.getContentType());
 			pfm.setCreatedBy(metadata.getCreatedBy());
 			pfm.setFileName("preview" + previewMetadata.getExtension());
 			pfm.setKey(metadata.getCreatedBy() + "/" + UUID.randomUUID().toString());
-			pfm.setContentSize(tempUpload.length());
+			pfm.setContentSize((long) preview.length);
 			pfm.setStorageLocationId(metadata.getStorageLocationId());
 
 			// Upload this to S3
-			googleCloudStorageClient.putObject(pfm.getBucketName(), pfm.getKey(), tempUpload);
+			googleCloudStorageClient.putObject(pfm.getBucketName(), pfm.getKey(), new ByteArrayInputStream(preview));
 
 			pfm.setId(idGenerator.generateNewId(IdType.FILE_IDS).toString());
 			pfm.setEtag(UUID.randomUUID().toString());
@@ -325,13 +328,6 @@ public class PreviewManagerImpl implements  PreviewManager {
 			return (GoogleCloudFileHandle) fileMetadataDao.get(pfm.getId());
 		} catch (IOException e) {
 			throw new RuntimeException("Error generating preview for file handle " + metadata.toString(), e);
-		}finally{
-			// unconditionally close the streams if they exist
-			IOUtils.closeQuietly(in, out);
-			// unconditionally delete the temp files if they exist
-			if(tempUpload != null){
-				tempUpload.delete();
-			}
 		}
 	}
 
@@ -9,6 +9,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
+import org.sagebionetworks.repo.manager.file.RangedInputStream;
+
 import com.google.common.collect.ImmutableSet;
 
 import au.com.bytecode.opencsv.CSVReader;
@@ -53,6 +56,12 @@ public class TabCsvPreviewGenerator implements PreviewGenerator {
 	public static final int MAX_CELL_CHARACTER_COUNT = 40;
 	public static final long MAX_PREVIEW_CHARACTERS = MAX_ROW_COUNT
 			* (MAX_COLUMN_COUNT * (MAX_CELL_CHARACTER_COUNT + 3) + 3);
+	/**
+	 * The source is fetched in ranges starting with this size, which holds the
+	 * previewed rows of most files.
+	 */
+	public static final long FIRST_RANGE_BYTES = 64 * 1024;
+	public static final long MAX_RANGE_BYTES = 8 * 1024 * 1024;
 
 	private final Character delimiter;
 	private final String extension;
@@ -86,6 +95,14 @@ public class TabCsvPreviewGenerator implements PreviewGenerator {
 		return new PreviewOutputMetadata(TEXT_CSV_SEPARATED_VALUES, ".csv");
 	}
 
+	@Override
+	public PreviewOutputMetadata generatePreview(ByteRangeSource source, OutputStream to) throws IOException {
+		// only the first rows are previewed, so only fetch the source as far as they are read
+		try (InputStream from = new RangedInputStream(source, FIRST_RANGE_BYTES, MAX_RANGE_BYTES)) {
+			return generatePreview(from, to);
+		}
+	}
+
 	/**
 	 * Generate a preview that does not exceed the maximum number of rows or
 	 * columns, and each cell values is under a maximum number of characters.
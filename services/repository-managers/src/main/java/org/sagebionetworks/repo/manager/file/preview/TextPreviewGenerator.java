@@ -11,6 +11,7 @@ import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
 
 import com.google.common.collect.ImmutableSet;
 
@@ -28,6 +29,20 @@ public class TextPreviewGenerator implements PreviewGenerator {
 	
 	public static final String TEXT_SLASH 	= "text/";
 	public static final int MAX_CHARACTER_COUNT = 1500;
+	/**
+	 * The most bytes needed for the characters read, since no character takes more than 3 bytes in UTF-8.
+	 */
+	public static final int MAX_BYTES_READ = (MAX_CHARACTER_COUNT + 10) * 3;
+
+	@Override
+	public PreviewOutputMetadata generatePreview(ByteRangeSource source, OutputStream to) throws IOException {
+		// only the first characters are previewed, so only fetch the first bytes
+		long end = Math.min(source.getContentSize(), MAX_BYTES_READ) - 1;
+		try (InputStream from = source.openRange(0, end)) {
+			return generatePreview(from, to);
+		}
+	}
+
 	@Override
 	public PreviewOutputMetadata generatePreview(InputStream from, OutputStream to) throws IOException {
 		// load the text
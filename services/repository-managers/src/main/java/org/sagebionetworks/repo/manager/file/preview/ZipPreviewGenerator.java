@@ -5,11 +5,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
 
 /**
  * Generates previews for zip content types.
@@ -21,24 +27,36 @@ public class ZipPreviewGenerator implements PreviewGenerator {
 	
 	public static final String APPLICATION_ZIP 	= "application/zip";
 	public static final String TEXT_CSV 	= "text/csv";
+
+	/*
+	 * The layout of the records at the end of a zip file that locate the central directory, see
+	 * https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT
+	 */
+	static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+	static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+	static final int MAX_COMMENT_SIZE = 0xFFFF;
+	static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	static final int ZIP64_LOCATOR_SIZE = 20;
+	static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+	static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE = 56;
+	static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+	static final int CENTRAL_FILE_HEADER_SIZE = 46;
+	static final int ENCRYPTED_FLAG = 0x1;
+	/**
+	 * The most bytes at the end of a zip file that can hold the end of central directory record and the zip64 locator.
+	 */
+	static final int MAX_TAIL_SIZE = ZIP64_LOCATOR_SIZE + END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE;
+
 	@Override
 	public PreviewOutputMetadata generatePreview(InputStream from, OutputStream to) throws IOException {
 		try {
 			ZipInputStream zip = new ZipInputStream(from);
 			ZipEntry zipEntry;
-			StringBuilder sb = new StringBuilder();
+			List<String> names = new ArrayList<>();
 			while ((zipEntry = zip.getNextEntry()) != null) {
-				String name = zipEntry.getName();
-				//ignore these special entries
-				if (name.startsWith("__MACOSX") || name.endsWith(".DS_Store")) {
-					continue;
-				}
-				sb.append(zipEntry.getName());
-				sb.append("\n");
+				names.add(zipEntry.getName());
 			}
-			IOUtils.write(sb.toString(), to, "UTF-8");
-
-			return new PreviewOutputMetadata(TEXT_CSV, ".csv");
+			return writePreview(names, to);
 		} catch (ZipException e){
 			//can't support encrypted zips
 			if (e.getMessage().contains("encrypted ZIP entry not supported")){
@@ -52,6 +70,138 @@ public class ZipPreviewGenerator implements PreviewGenerator {
 		}
 	}
 
+	/**
+	 * The names of the entries are listed in the central directory at the end of the file, so only the end of the file
+	 * and the central directory are fetched. If the central directory cannot be found the local headers of the entire
+	 * file are read instead.
+	 */
+	@Override
+	public PreviewOutputMetadata generatePreview(ByteRangeSource source, OutputStream to) throws IOException {
+		List<String> names;
+		try {
+			names = readCentralDirectoryNames(source);
+		} catch (EOFException e) {
+			throw new PreviewGenerationNotSupportedException("Improperly formatted zip file", e);
+		}
+		if (names == null) {
+			return PreviewGenerator.super.generatePreview(source, to);
+		}
+		return writePreview(names, to);
+	}
+
+	/**
+	 * Write the names of the entries, one per line, ignoring special entries.
+	 * 
+	 * @param names
+	 * @param to
+	 * @return
+	 * @throws IOException
+	 */
+	static PreviewOutputMetadata writePreview(List<String> names, OutputStream to) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		for (String name : names) {
+			//ignore these special entries
+			if (name.startsWith("__MACOSX") || name.endsWith(".DS_Store")) {
+				continue;
+			}
+			sb.append(name);
+			sb.append("\n");
+		}
+		IOUtils.write(sb.toString(), to, "UTF-8");
+		return new PreviewOutputMetadata(TEXT_CSV, ".csv");
+	}
+
+	/**
+	 * Read the names of the entries from the central directory of the given zip file.
+	 * 
+	 * @param source
+	 * @return The names in the order of the central directory, or null if the central directory could not be found.
+	 * @throws PreviewGenerationNotSupportedException If an entry is encrypted.
+	 * @throws IOException
+	 */
+	static List<String> readCentralDirectoryNames(ByteRangeSource source) throws IOException {
+		long contentSize = source.getContentSize();
+		if (contentSize < END_OF_CENTRAL_DIRECTORY_SIZE) {
+			return null;
+		}
+		int tailSize = (int) Math.min(contentSize, MAX_TAIL_SIZE);
+		ByteBuffer tail = readRange(source, contentSize - tailSize, tailSize);
+		// The end of central directory record is followed by a comment of unknown size so search back from the end.
+		int end = -1;
+		for (int i = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+					&& i + END_OF_CENTRAL_DIRECTORY_SIZE + (tail.getShort(i + 20) & 0xFFFF) <= tailSize) {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0) {
+			return null;
+		}
+		long entryCount = tail.getShort(end + 10) & 0xFFFF;
+		long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+		long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+		if (entryCount == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+			// The values are too large for the record so are in the zip64 record found by the locator.
+			int locator = end - ZIP64_LOCATOR_SIZE;
+			if (locator < 0 || tail.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+				return null;
+			}
+			long zip64Offset = tail.getLong(locator + 8);
+			if (zip64Offset < 0 || zip64Offset > contentSize - ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE) {
+				return null;
+			}
+			ByteBuffer zip64 = readRange(source, zip64Offset, ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+			if (zip64.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+				return null;
+			}
+			directorySize = zip64.getLong(40);
+			directoryOffset = zip64.getLong(48);
+		}
+		if (directorySize == 0) {
+			return new ArrayList<>();
+		}
+		if (directoryOffset < 0 || directorySize < 0 || directorySize > Integer.MAX_VALUE
+				|| directoryOffset > contentSize - directorySize) {
+			return null;
+		}
+		ByteBuffer directory = readRange(source, directoryOffset, (int) directorySize);
+		List<String> names = new ArrayList<>();
+		int position = 0;
+		while (position + CENTRAL_FILE_HEADER_SIZE <= directorySize) {
+			if (directory.getInt(position) != CENTRAL_FILE_HEADER_SIGNATURE) {
+				return null;
+			}
+			int flags = directory.getShort(position + 8) & 0xFFFF;
+			int nameLength = directory.getShort(position + 28) & 0xFFFF;
+			int extraLength = directory.getShort(position + 30) & 0xFFFF;
+			int commentLength = directory.getShort(position + 32) & 0xFFFF;
+			if (position + CENTRAL_FILE_HEADER_SIZE + nameLength > directorySize) {
+				return null;
+			}
+			if ((flags & ENCRYPTED_FLAG) != 0) {
+				throw new PreviewGenerationNotSupportedException("ZIP file is encrypted");
+			}
+			names.add(new String(directory.array(), position + CENTRAL_FILE_HEADER_SIZE, nameLength, StandardCharsets.UTF_8));
+			position += CENTRAL_FILE_HEADER_SIZE + nameLength + extraLength + commentLength;
+		}
+		return names;
+	}
+
+	/**
+	 * Read the given range of the source.
+	 * 
+	 * @return The bytes of the range in the little endian order of zip records.
+	 * @throws EOFException If the source ends before the range.
+	 */
+	static ByteBuffer readRange(ByteRangeSource source, long start, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		try (InputStream in = source.openRange(start, start + length - 1)) {
+			IOUtils.readFully(in, bytes);
+		}
+		return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
 	@Override
 	public boolean supportsContentType(String contentType, String extension) {
 		return APPLICATION_ZIP.equals(contentType);
@@ -0,0 +1,23 @@
+package org.sagebionetworks.repo.manager.message;
+
+import java.util.List;
+
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+
+/**
+ * Sends the emails of a broadcast to SES in parallel, without exceeding the
+ * sending rate of the stack.
+ *
+ */
+public interface BroadcastEmailSender {
+
+	/**
+	 * Send all of the given emails, waiting until each has been sent. A failure to
+	 * send one email does not stop the others from being sent; the first failure
+	 * is thrown once all of the sends are done.
+	 *
+	 * @param emailRequests
+	 */
+	void sendEmails(List<SendRawEmailRequest> emailRequests);
+
+}
@@ -0,0 +1,91 @@
+package org.sagebionetworks.repo.manager.message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.repo.manager.principal.SynapseEmailService;
+import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+@Service
+public class BroadcastEmailSenderImpl implements BroadcastEmailSender {
+
+	private static final Logger log = LogManager.getLogger(BroadcastEmailSenderImpl.class);
+
+	private final SynapseEmailService sesClient;
+	/**
+	 * Bounded pool used to send the emails concurrently.
+	 */
+	private final ExecutorService sendExecutor;
+	/**
+	 * Shared by all broadcasts so the machine as a whole stays under the SES
+	 * sending rate.
+	 */
+	private final RateLimiter rateLimiter;
+
+	@Autowired
+	public BroadcastEmailSenderImpl(SynapseEmailService sesClient, StackConfiguration stackConfiguration) {
+		this(sesClient, stackConfiguration.getBroadcastEmailMaxConcurrentSends(),
+				stackConfiguration.getBroadcastEmailMaxSendsPerSecond());
+	}
+
+	BroadcastEmailSenderImpl(SynapseEmailService sesClient, int maxConcurrentSends, double maxSendsPerSecond) {
+		ValidateArgument.required(sesClient, "sesClient");
+		ValidateArgument.requirement(maxSendsPerSecond > 0, "maxSendsPerSecond must be greater than zero");
+		this.sesClient = sesClient;
+		this.sendExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentSends),
+				new ThreadFactoryBuilder().setNameFormat("broadcast-email-%d").setDaemon(true).build());
+		this.rateLimiter = RateLimiter.create(maxSendsPerSecond);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sendExecutor.shutdownNow();
+	}
+
+	@Override
+	public void sendEmails(List<SendRawEmailRequest> emailRequests) {
+		ValidateArgument.required(emailRequests, "emailRequests");
+		List<Future<?>> sends = new ArrayList<>(emailRequests.size());
+		for (SendRawEmailRequest emailRequest : emailRequests) {
+			sends.add(sendExecutor.submit(() -> {
+				rateLimiter.acquire();
+				sesClient.sendRawEmail(emailRequest);
+			}));
+		}
+		RuntimeException firstFailure = null;
+		for (Future<?> send : sends) {
+			try {
+				send.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				sends.forEach(s -> s.cancel(true));
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				log.warn("Failed to send a broadcast email: {}", e.getCause().getMessage());
+				if (firstFailure == null) {
+					firstFailure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+							: new IllegalStateException(e.getCause());
+				}
+			}
+		}
+		if (firstFailure != null) {
+			throw firstFailure;
+		}
+	}
+
+}
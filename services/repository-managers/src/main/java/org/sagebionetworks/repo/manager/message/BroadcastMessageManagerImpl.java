@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.http.client.ClientProtocolException;
 import org.apache.logging.log4j.LogManager;
@@ -14,7 +15,6 @@ import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.markdown.MarkdownClientException;
 import org.sagebionetworks.repo.manager.AuthorizationManager;
 import org.sagebionetworks.repo.manager.UserManager;
-import org.sagebionetworks.repo.manager.principal.SynapseEmailService;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -61,7 +61,7 @@ public class BroadcastMessageManagerImpl implements BroadcastMessageManager {
 	private BroadcastMessageDao broadcastMessageDao;
 	
 	@Autowired
-	private SynapseEmailService sesClient;
+	private BroadcastEmailSender emailSender;
 	
 	@Autowired
 	private DBOChangeDAO changeDao;
@@ -123,22 +123,30 @@ public class BroadcastMessageManagerImpl implements BroadcastMessageManager {
 		valdiateTopic(topic);
 		// Get all of the email subscribers for this topic.
 		List<Subscriber> subscribers = subscriptionDAO.getAllEmailSubscribers(topic.getObjectId(), topic.getObjectType());
-		List<String> subscriberIds = new ArrayList<String>();
-		// The builder will prepare an email for each subscriber
+		List<String> subscriberIds = new ArrayList<String>(subscribers.size());
+		List<Subscriber> recipients = new ArrayList<Subscriber>(subscribers.size());
 		for(Subscriber subscriber: subscribers){
 			subscriberIds.add(subscriber.getSubscriberId());
 			// do not send an email to the user who created this change
 			if (subscriber.getSubscriberId().equals(changeMessage.getUserId().toString())) {
 				continue;
 			}
-			if (emailQuarantineDao.isQuarantined(subscriber.getNotificationEmail())) {
+			recipients.add(subscriber);
+		}
+		// Quarantined addresses are looked up with a single query for all recipients
+		Set<String> quarantinedEmails = emailQuarantineDao.getQuarantinedEmails(
+				recipients.stream().map(Subscriber::getNotificationEmail).collect(Collectors.toList()));
+		// The builder will prepare an email for each subscriber
+		List<SendRawEmailRequest> emailRequests = new ArrayList<SendRawEmailRequest>(recipients.size());
+		for(Subscriber subscriber: recipients){
+			if (quarantinedEmails.contains(subscriber.getNotificationEmail())) {
 				log.warn("Cannot send message to quarantined address: {}", subscriber.getNotificationEmail());
 				continue;
 			}
-			SendRawEmailRequest emailRequest = builder.buildEmailForSubscriber(subscriber);
-			log.debug("sending email to "+subscriber.getNotificationEmail());
-			sesClient.sendRawEmail(emailRequest);
+			emailRequests.add(builder.buildEmailForSubscriber(subscriber));
 		}
+		log.debug("sending "+emailRequests.size()+" emails to subscribers");
+		emailSender.sendEmails(emailRequests);
 
 		sendMessageToNonSubscribers(progressCallback, changeMessage, builder, subscriberIds, topic);
 	}
@@ -161,23 +169,28 @@ public class BroadcastMessageManagerImpl implements BroadcastMessageManager {
 		mentionedUserIds.removeAll(subscriberIds);
 		// create list of MentionedUser from their ids
 		List<UserNotificationInfo> mentionedUsers = userProfileDao.getUserNotificationInfo(mentionedUserIds);
-		// build and send email to each mentioned user
-		for(UserNotificationInfo userNotificationInfo: mentionedUsers){
-			// do not send an email to the user who created this change
-			if (userNotificationInfo.getUserId().equals(changeMessage.getUserId().toString())) {
-				continue;
-			}
-			if (emailQuarantineDao.isQuarantined(userNotificationInfo.getNotificationEmail())) {
+		// do not send an email to the user who created this change
+		List<UserNotificationInfo> recipients = mentionedUsers.stream()
+				.filter(u -> !u.getUserId().equals(changeMessage.getUserId().toString())).collect(Collectors.toList());
+		if (recipients.isEmpty()) {
+			return;
+		}
+		Set<String> quarantinedEmails = emailQuarantineDao.getQuarantinedEmails(
+				recipients.stream().map(UserNotificationInfo::getNotificationEmail).collect(Collectors.toList()));
+		// build an email for each mentioned user
+		List<SendRawEmailRequest> emailRequests = new ArrayList<SendRawEmailRequest>(recipients.size());
+		for(UserNotificationInfo userNotificationInfo: recipients){
+			if (quarantinedEmails.contains(userNotificationInfo.getNotificationEmail())) {
 				log.warn("Cannot send message to quarantined address: {}", userNotificationInfo.getNotificationEmail());
 				continue;
 			}
 			UserInfo userInfo = userManager.getUserInfo(Long.parseLong(userNotificationInfo.getUserId()));
 			if (authManager.canSubscribe(userInfo, topic.getObjectId(), topic.getObjectType()).isAuthorized()) {
-				SendRawEmailRequest emailRequest = builder.buildEmailForNonSubscriber(userNotificationInfo);
-				log.debug("sending email to "+userNotificationInfo.getNotificationEmail());
-				sesClient.sendRawEmail(emailRequest);
+				emailRequests.add(builder.buildEmailForNonSubscriber(userNotificationInfo));
 			}
 		}
+		log.debug("sending "+emailRequests.size()+" emails to mentioned users");
+		emailSender.sendEmails(emailRequests);
 	}
 	
 	/**
@@ -17,6 +17,7 @@ import org.sagebionetworks.repo.model.dao.subscription.Subscriber;
 import org.sagebionetworks.repo.model.subscription.SubscriptionObjectType;
 import org.sagebionetworks.repo.model.subscription.Topic;
 import org.sagebionetworks.util.ValidateArgument;
+import org.springframework.web.util.HtmlUtils;
 
 import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
 
@@ -26,6 +27,14 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 	public static final long MAX_USER_IDS_PER_MESSAGE = 1000L;
 	public static final String GREETING = "Hello %1$s,\n\n";
 	public static final String SUBSCRIBE_THREAD = "[Subscribe to the thread](https://www.synapse.org/#!Subscription:objectID=%1$s&objectType=THREAD)\n";
+	/*
+	 * The markdown of a broadcast is converted to HTML once, with these
+	 * placeholders in place of the recipient's fields, which are then substituted
+	 * into the HTML for each recipient. They are plain words so the markdown
+	 * conversion leaves them as they are.
+	 */
+	public static final String RECIPIENT_NAME_PLACEHOLDER = "SynapseRecipientNamePlaceholder";
+	public static final String SUBSCRIPTION_ID_PLACEHOLDER = "SynapseSubscriptionIdPlaceholder";
 	MarkdownDao markdownDao;
 	String actorUsername;
 	String actorUserId;
@@ -39,6 +48,10 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 	String unsubscribe;
 	Topic broadcastTopic;
 	UserManager userManager;
+	boolean canUseTemplate;
+	// The HTML bodies with placeholders, converted on first use.
+	String subscriberHtmlTemplate;
+	String nonSubscriberHtmlTemplate;
 
 	public DiscussionBroadcastMessageBuilder(String actorUsername, String actorUserId,
 			String threadTitle, String threadId, String projectId, String projectName,
@@ -70,6 +83,7 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 		this.unsubscribe = unsubscribe;
 		this.broadcastTopic = broadcastTopic;
 		this.userManager = userManager;
+		this.canUseTemplate = canUseTemplate(actorUsername + threadTitleTruncated + projectName + this.markdown);
 	}
 
 	@Override
@@ -79,11 +93,9 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 
 	@Override
 	public SendRawEmailRequest buildEmailForSubscriber(Subscriber subscriber) throws ClientProtocolException, JSONException, IOException, MarkdownClientException {
-		// build the email body
-		String body = buildRawBodyForSubscriber(subscriber);
 		return new SendRawEmailRequestBuilder()
 		.withSubject(subject)
-		.withBody(markdownDao.convertMarkdown(body, null), BodyType.HTML)
+		.withBody(buildHtmlBodyForSubscriber(subscriber), BodyType.HTML)
 		.withSenderDisplayName("noreply")
 		.withRecipientEmail(subscriber.getNotificationEmail())
 		.build();
@@ -91,15 +103,50 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 
 	@Override
 	public SendRawEmailRequest buildEmailForNonSubscriber(UserNotificationInfo user) throws ClientProtocolException, JSONException, IOException, MarkdownClientException {
-		// build the email body
-		String body = buildRawBodyForNonSubscriber(user);
 		return new SendRawEmailRequestBuilder()
 		.withSubject(subject)
-		.withBody(markdownDao.convertMarkdown(body, null), BodyType.HTML)
+		.withBody(buildHtmlBodyForNonSubscriber(user), BodyType.HTML)
 		.withSenderDisplayName("noreply")
 		.withRecipientEmail(user.getNotificationEmail())
 		.build();
 	}
+
+	/**
+	 * Build the HTML email body. The markdown is only converted for the first
+	 * subscriber.
+	 * 
+	 * @param subscriber
+	 * @return
+	 */
+	String buildHtmlBodyForSubscriber(Subscriber subscriber) throws ClientProtocolException, JSONException, IOException, MarkdownClientException {
+		if (!canUseTemplate) {
+			return markdownDao.convertMarkdown(buildRawBodyForSubscriber(subscriber), null);
+		}
+		if (subscriberHtmlTemplate == null) {
+			subscriberHtmlTemplate = markdownDao.convertMarkdown(buildRawBodyForSubscriber(RECIPIENT_NAME_PLACEHOLDER, SUBSCRIPTION_ID_PLACEHOLDER), null);
+		}
+		String recipientName = EmailUtils.getDisplayNameWithUsername(subscriber.getFirstName(), subscriber.getLastName(), subscriber.getUsername());
+		return subscriberHtmlTemplate.replace(RECIPIENT_NAME_PLACEHOLDER, HtmlUtils.htmlEscape(recipientName))
+				.replace(SUBSCRIPTION_ID_PLACEHOLDER, HtmlUtils.htmlEscape(subscriber.getSubscriptionId()));
+	}
+
+	/**
+	 * Build the HTML email body. The markdown is only converted for the first
+	 * user.
+	 * 
+	 * @param user
+	 * @return
+	 */
+	String buildHtmlBodyForNonSubscriber(UserNotificationInfo user) throws ClientProtocolException, JSONException, IOException, MarkdownClientException {
+		if (!canUseTemplate) {
+			return markdownDao.convertMarkdown(buildRawBodyForNonSubscriber(user), null);
+		}
+		if (nonSubscriberHtmlTemplate == null) {
+			nonSubscriberHtmlTemplate = markdownDao.convertMarkdown(buildRawBodyForNonSubscriber(RECIPIENT_NAME_PLACEHOLDER), null);
+		}
+		String recipientName = EmailUtils.getDisplayNameWithUsername(user.getFirstName(), user.getLastName(), user.getUsername());
+		return nonSubscriberHtmlTemplate.replace(RECIPIENT_NAME_PLACEHOLDER, HtmlUtils.htmlEscape(recipientName));
+	}
 	
 	/**
 	 * Build the email body.
@@ -107,8 +154,12 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 	 * @return
 	 */
 	public String buildRawBodyForSubscriber(Subscriber subscriber){
-		StringBuilder sb = new StringBuilder();
 		String recipientName = EmailUtils.getDisplayNameWithUsername(subscriber.getFirstName(), subscriber.getLastName(), subscriber.getUsername());
+		return buildRawBodyForSubscriber(recipientName, subscriber.getSubscriptionId());
+	}
+
+	String buildRawBodyForSubscriber(String recipientName, String subscriptionId){
+		StringBuilder sb = new StringBuilder();
 		sb.append(String.format(GREETING, recipientName));
 		sb.append(String.format(emailTemplate, actorUsername, actorUserId, threadTitleTruncated, projectId, threadId, projectName));
 		sb.append(markdown+"\n\n");
@@ -116,7 +167,7 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 		if (broadcastTopic.getObjectType() != SubscriptionObjectType.THREAD) {
 			sb.append(String.format(SUBSCRIBE_THREAD, threadId));
 		}
-		sb.append(String.format(unsubscribe, subscriber.getSubscriptionId()));
+		sb.append(String.format(unsubscribe, subscriptionId));
 		return sb.toString();
 	}
 
@@ -126,8 +177,12 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 	 * @return
 	 */
 	public String buildRawBodyForNonSubscriber(UserNotificationInfo user){
-		StringBuilder sb = new StringBuilder();
 		String recipientName = EmailUtils.getDisplayNameWithUsername(user.getFirstName(), user.getLastName(), user.getUsername());
+		return buildRawBodyForNonSubscriber(recipientName);
+	}
+
+	String buildRawBodyForNonSubscriber(String recipientName){
+		StringBuilder sb = new StringBuilder();
 		sb.append(String.format(GREETING, recipientName));
 		sb.append(String.format(emailTemplate, actorUsername, actorUserId, threadTitleTruncated, projectId, threadId, projectName));
 		sb.append(markdown+"\n\n");
@@ -135,6 +190,18 @@ public class DiscussionBroadcastMessageBuilder implements BroadcastMessageBuilde
 		return sb.toString();
 	}
 
+	/**
+	 * The HTML can only be converted once when none of the content written by
+	 * users contains a placeholder. Otherwise the placeholder in the content would
+	 * be replaced with the fields of each recipient.
+	 * 
+	 * @param userContent
+	 * @return
+	 */
+	static boolean canUseTemplate(String userContent) {
+		return !userContent.contains(RECIPIENT_NAME_PLACEHOLDER) && !userContent.contains(SUBSCRIPTION_ID_PLACEHOLDER);
+	}
+
 	/**
 	 * Truncate a string to the given max length if needed.
 	 * @param toTruncate
@@ -13,6 +13,7 @@ import org.apache.commons.logging.LogFactory;
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeMessageBatchEncoding;
 import org.sagebionetworks.repo.model.message.ChangeMessages;
 import org.sagebionetworks.repo.model.message.LocalStackMessage;
 import org.sagebionetworks.repo.model.message.Message;
@@ -28,6 +29,7 @@ import org.springframework.stereotype.Service;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.CreateTopicRequest;
 import com.amazonaws.services.sns.model.CreateTopicResult;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
 import com.amazonaws.services.sns.model.PublishRequest;
 import com.google.common.collect.Lists;
 
@@ -210,6 +212,13 @@ public class RepositoryMessagePublisherImpl implements RepositoryMessagePublishe
 		this.transactionalMessanger.registerMessagesSent(type, batch);
 		// Lookup the topic arn.
 		String topicArn = getTopicInfoLazy(type).getArn();
+		if (stackConfiguration.getChangeMessageCompactEncodingEnabled()) {
+			// The attribute tells the workers how to read the body.
+			awsSNSClient.publish(new PublishRequest(topicArn, ChangeMessageBatchEncoding.encode(batch))
+					.addMessageAttributesEntry(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE, new MessageAttributeValue()
+							.withDataType("String").withStringValue(ChangeMessageBatchEncoding.COMPACT_V1)));
+			return;
+		}
 		ChangeMessages messages = new ChangeMessages();
 		messages.setList(batch);
 		// publish the batch to to the topic
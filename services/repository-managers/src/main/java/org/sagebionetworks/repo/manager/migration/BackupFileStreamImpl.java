@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.PushbackInputStream;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.util.Iterator;
@@ -38,11 +39,28 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	private static final String UTF_8 = "UTF-8";
 	private static final String INPUT_CONTAINED_NO_DATA = "input contained no data";
 	private static final String DOT = ".";
-	private static final String FILE_NAME_TEMPLATE = "%1$s.%2$d.xml";
+	private static final String FILE_NAME_TEMPLATE = "%1$s.%2$d.%3$s";
+	public static final String XML_EXTENSION = "xml";
+	public static final String BINARY_EXTENSION = "bin";
 
 	@Autowired
 	MigrationTypeProvider typeProvider;
 
+	/**
+	 * When true, new sub-files are written with the binary row format. Files in
+	 * either format can always be read.
+	 */
+	private boolean binaryFormatEnabled;
+
+	/**
+	 * Injected.
+	 * 
+	 * @param binaryFormatEnabled
+	 */
+	public void setBinaryFormatEnabled(boolean binaryFormatEnabled) {
+		this.binaryFormatEnabled = binaryFormatEnabled;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.sagebionetworks.repo.manager.migration.BackupFileStream#readBackupFile(java.io.InputStream, org.sagebionetworks.repo.model.daemon.BackupAliasType)
@@ -133,8 +151,32 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	 * @return
 	 */
 	public static String createFileName(MigrationType type, int index) {
+		return createFileName(type, index, XML_EXTENSION);
+	}
+
+	/**
+	 * Create a FileName for zip entry with the given extension.
+	 * 
+	 * @param type
+	 * @param index
+	 * @param extension
+	 * @return
+	 */
+	public static String createFileName(MigrationType type, int index, String extension) {
 		ValidateArgument.required(type, "MigrationType");
-		return String.format(FILE_NAME_TEMPLATE, type.name(), index);
+		ValidateArgument.required(extension, "extension");
+		return String.format(FILE_NAME_TEMPLATE, type.name(), index, extension);
+	}
+
+	/**
+	 * Was the given zip entry written with the binary row format?
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public static boolean isBinaryFileName(String name) {
+		ValidateArgument.required(name, "Name");
+		return name.endsWith(DOT + BINARY_EXTENSION);
 	}
 
 	/*
@@ -198,15 +240,35 @@ public class BackupFileStreamImpl implements BackupFileStream {
 			BackupAliasType backupAliasType) throws IOException {
 		if(currentType != null && currentBatch != null && !currentBatch.isEmpty()) {
 			// Write the current batch as a sub-file to the zip
-			String fileName = createFileName(currentType, index);
+			String fileName = createFileName(currentType, index, binaryFormatEnabled ? BINARY_EXTENSION : XML_EXTENSION);
 			ZipEntry entry = new ZipEntry(fileName);
 			zos.putNextEntry(entry);
-			Writer zipWriter = new OutputStreamWriter(zos, UTF_8);
-
-			writeBatchToStream(currentBatch, currentType, backupAliasType, zipWriter);
+			if (binaryFormatEnabled) {
+				writeBatchToBinaryStream(currentBatch, currentType, backupAliasType, zos);
+			} else {
+				Writer zipWriter = new OutputStreamWriter(zos, UTF_8);
+				writeBatchToStream(currentBatch, currentType, backupAliasType, zipWriter);
+			}
 		}
 	}
 
+	/**
+	 * Write the given batch of object to the passed stream using the binary row
+	 * format.
+	 * 
+	 * @param currentBatch
+	 * @param currentType
+	 * @param backupAliasType
+	 * @param out
+	 * @throws IOException
+	 */
+	<D extends DatabaseObject<D>, B> void writeBatchToBinaryStream(List<MigratableDatabaseObject<?, ?>> currentBatch,
+			MigrationType currentType, BackupAliasType backupAliasType, OutputStream out) throws IOException {
+		List<B> backupObjects = translateToBackupObjects(currentBatch, currentType);
+		typeProvider.getXStream(backupAliasType).toBinary(backupObjects, out);
+		out.flush();
+	}
+
 	/**
 	 * Write the given batch of object to the passed writer
 	 * @param currentBatch
@@ -217,6 +279,20 @@ public class BackupFileStreamImpl implements BackupFileStream {
 	 */
 	<D extends DatabaseObject<D>, B> void writeBatchToStream(List<MigratableDatabaseObject<?, ?>> currentBatch,
 			MigrationType currentType, BackupAliasType backupAliasType, Writer writer) throws IOException {
+		List<B> backupObjects = translateToBackupObjects(currentBatch, currentType);
+		typeProvider.getXStream(backupAliasType).toXML(backupObjects, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Translate the given batch of database objects to their backup objects.
+	 * 
+	 * @param currentBatch
+	 * @param currentType
+	 * @return
+	 */
+	<D extends DatabaseObject<D>, B> List<B> translateToBackupObjects(List<MigratableDatabaseObject<?, ?>> currentBatch,
+			MigrationType currentType) {
 		MigratableDatabaseObject<D, B> mdo = typeProvider.getObjectForType(currentType);
 		MigratableTableTranslation<D,B> translator = mdo.getTranslator();
 		
@@ -226,9 +302,7 @@ public class BackupFileStreamImpl implements BackupFileStream {
 			B backupObject = translator.createBackupFromDatabaseObject((D) migrationOjbect);
 			backupObjects.add(backupObject);
 		}
-
-		typeProvider.getXStream(backupAliasType).toXML(backupObjects, writer);
-		writer.flush();
+		return backupObjects;
 	}
 
 	/**
@@ -283,7 +357,11 @@ public class BackupFileStreamImpl implements BackupFileStream {
 
 		List<B> backupObjects;
 		try {
-			backupObjects = (List<B>) typeProvider.getXStream(backupAliasType).fromXML(input);
+			if (isBinaryFileName(fileName)) {
+				backupObjects = readBinaryBackupObjects(input, backupAliasType);
+			} else {
+				backupObjects = (List<B>) typeProvider.getXStream(backupAliasType).fromXML(input);
+			}
 		} catch (StreamException e) {
 			if (!(e.getCause() instanceof EOFException && e.getCause().getMessage().contains(INPUT_CONTAINED_NO_DATA))) {
 				throw new RuntimeException(e);
@@ -300,4 +378,26 @@ public class BackupFileStreamImpl implements BackupFileStream {
 		return translated;
 	}
 
+	/**
+	 * Read the backup objects from a sub-file written with the binary row format.
+	 * 
+	 * @param input
+	 * @param backupAliasType
+	 * @return
+	 * @throws EmptyFileException if the given file contains no data.
+	 */
+	<B> List<B> readBinaryBackupObjects(InputStream input, BackupAliasType backupAliasType) throws EmptyFileException {
+		PushbackInputStream pushback = new PushbackInputStream(input);
+		try {
+			int first = pushback.read();
+			if (first < 0) {
+				throw new EmptyFileException();
+			}
+			pushback.unread(first);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return (List<B>) typeProvider.getXStream(backupAliasType).fromBinary(pushback);
+	}
+
 }
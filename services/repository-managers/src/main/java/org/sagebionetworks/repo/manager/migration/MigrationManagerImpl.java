@@ -1,10 +1,8 @@
 package org.sagebionetworks.repo.manager.migration;
 
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -21,8 +19,11 @@ import java.util.stream.Stream;
 import javax.annotation.PostConstruct;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.sagebionetworks.StackConfigurationSingleton;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.manager.file.RangedInputStream;
+import org.sagebionetworks.repo.manager.file.S3ByteRangeSource;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.StackStatusDao;
 import org.sagebionetworks.repo.model.UnauthorizedException;
@@ -57,7 +58,7 @@ import org.sagebionetworks.repo.model.status.StatusEnum;
 import org.sagebionetworks.repo.model.transactions.MigrationWriteTransaction;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapterException;
 import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
-import org.sagebionetworks.util.FileProvider;
+import org.sagebionetworks.upload.multipart.S3MultipartOutputStream;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -79,6 +80,16 @@ public class MigrationManagerImpl implements MigrationManager {
 	
 	public static final String BACKUP_KEY_TEMPLATE = "%1$s-%2$s-%3$s-%4$s.zip";
 	public static final String MANIFEST_KEY_TEMPLATE = "%1$s/manifest.json";
+	/**
+	 * Backups are streamed to S3 one part at a time so only a single part is held in memory.
+	 */
+	public static final int BACKUP_PART_SIZE_BYTES = S3MultipartOutputStream.MINIMUM_PART_SIZE_BYTES;
+	/**
+	 * Backups are restored from S3 in ranges that double from the first size to the maximum.
+	 * Only the range being restored is held in memory.
+	 */
+	public static final long RESTORE_FIRST_RANGE_BYTES = 1024 * 1024;
+	public static final long RESTORE_MAX_RANGE_BYTES = 8 * 1024 * 1024;
 	public static String backupBucket = StackConfigurationSingleton.singleton().getSharedS3BackupBucket();
 	public static String stack = StackConfigurationSingleton.singleton().getStack();
 	public static String instance = StackConfigurationSingleton.singleton().getStackInstance();
@@ -87,7 +98,6 @@ public class MigrationManagerImpl implements MigrationManager {
 	private StackStatusDao stackStatusDao;
 	private BackupFileStream backupFileStream;
 	private SynapseS3Client s3Client;
-	private FileProvider fileProvider;
 
 	/**
 	 * The list of migration listeners
@@ -100,12 +110,11 @@ public class MigrationManagerImpl implements MigrationManager {
 	static Set<MigrationType> PRINCIPAL_TYPES;
 	
 	@Autowired
-	public MigrationManagerImpl(MigratableTableDAO migratableTableDao, StackStatusDao stackStatusDao, BackupFileStream backupFileStream, SynapseS3Client s3Client, FileProvider fileProvider, List<? extends MigrationTypeListener> migrationListeners) {
+	public MigrationManagerImpl(MigratableTableDAO migratableTableDao, StackStatusDao stackStatusDao, BackupFileStream backupFileStream, SynapseS3Client s3Client, List<? extends MigrationTypeListener> migrationListeners) {
 		this.migratableTableDao = migratableTableDao;
 		this.stackStatusDao = stackStatusDao;
 		this.backupFileStream = backupFileStream;
 		this.s3Client = s3Client;
-		this.fileProvider = fileProvider;
 		this.migrationListeners = migrationListeners;
 	}
 	
@@ -465,7 +474,7 @@ public class MigrationManagerImpl implements MigrationManager {
 	}
 
 	/**
-	 * Stream the data to a temporary file and upload it to S3.
+	 * Stream the data directly to S3 as a multipart upload.
 	 * 
 	 * @param type
 	 * @param dataStream
@@ -474,27 +483,20 @@ public class MigrationManagerImpl implements MigrationManager {
 	 * @throws IOException 
 	 */
 	public BackupTypeResponse backupStreamToS3(MigrationType type, Iterable<MigratableDatabaseObject<?, ?>> dataStream, BackupAliasType aliasType, long batchSize, String key) throws IOException {
-		// Stream all of the data to a local temporary file.
-		File temp = fileProvider.createTempFile("MigrationBackup", ".zip");
-		OutputStream fos = null;
+		S3MultipartOutputStream out = new S3MultipartOutputStream(s3Client, backupBucket, key, null, BACKUP_PART_SIZE_BYTES);
 		try {
-			fos = fileProvider.createFileOutputStream(temp);
-			backupFileStream.writeBackupFile(fos, dataStream, aliasType, batchSize);
-			fos.flush();
-			fos.close();
-			// Upload the file to S3
-			s3Client.putObject(backupBucket, key, temp);
-			BackupTypeResponse response = new BackupTypeResponse();
-			response.setBackupFileKey(key);
-			return response;
-		}finally {
-			// Unconditionally close the stream
-			IOUtils.closeQuietly(fos);
-			// Delete the temporary file if it exists.
-			if(temp != null) {
-				temp.delete();
-			}
+			// The backup stream closes its output even on failure, which must not complete the upload.
+			backupFileStream.writeBackupFile(CloseShieldOutputStream.wrap(out), dataStream, aliasType, batchSize);
+			// Completes the upload.
+			out.close();
+		} catch (IOException | RuntimeException e) {
+			// Discard any parts that were already uploaded.
+			out.abort();
+			throw e;
 		}
+		BackupTypeResponse response = new BackupTypeResponse();
+		response.setBackupFileKey(key);
+		return response;
 	}
 	
 	
@@ -531,20 +533,16 @@ public class MigrationManagerImpl implements MigrationManager {
 		ValidateArgument.required(request.getBatchSize(), "requset.batchSize");
 		ValidateArgument.required(request.getBackupFileKey(), "request.backupFileKey");
 		validateUser(user);
-		// Stream all of the data to a local temporary file.
-		File temp = fileProvider.createTempFile("MigrationRestore", ".zip");
-		try {
-			// the client will write the file data to the temp file.
-			s3Client.getObject(new GetObjectRequest(backupBucket, request.getBackupFileKey()), temp);
-			try(InputStream fis = fileProvider.createFileInputStream(temp)){
-				// Stream over the resulting file.
-				return restoreStream(fis, getManifest(request));
-			}
-		}finally {
-			// Delete the temporary file if it exists.
-			if(temp != null) {
-				temp.delete();
-			}
+		BackupManifest manifest = getManifest(request);
+		/*
+		 * Read the backup from S3 in ranges rather than spooling it to a local file.
+		 * Each range is read into memory and closed before its rows are restored, so
+		 * no connection to S3 is held open for the length of the restore.
+		 */
+		long contentSize = s3Client.getObjectMetadata(backupBucket, request.getBackupFileKey()).getContentLength();
+		S3ByteRangeSource source = new S3ByteRangeSource(s3Client, backupBucket, request.getBackupFileKey(), contentSize);
+		try (InputStream in = new RangedInputStream(source, RESTORE_FIRST_RANGE_BYTES, RESTORE_MAX_RANGE_BYTES)) {
+			return restoreStream(in, manifest);
 		}
 	}
 	
@@ -0,0 +1,51 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import java.util.List;
+
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
+import org.sagebionetworks.repo.model.migration.MigrationType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * The tables derived from the node hierarchy are not migrated, and a restore of
+ * nodes does not maintain them. Each restored batch of nodes marks every
+ * backfill incomplete, so their readers fall back to the node table until the
+ * backfill workers have caught up with the restore.
+ *
+ */
+@Service
+public class NodeBackfillMigrationListener implements MigrationTypeListener<DBONode> {
+
+	private BackfillStatusDao backfillStatusDao;
+
+	@Autowired
+	public NodeBackfillMigrationListener(BackfillStatusDao backfillStatusDao) {
+		this.backfillStatusDao = backfillStatusDao;
+	}
+
+	@Override
+	public boolean supports(MigrationType type) {
+		return MigrationType.NODE.equals(type);
+	}
+
+	@Override
+	public void beforeCreateOrUpdate(List<DBONode> batch) {
+		markIncomplete();
+	}
+
+	@Override
+	public void afterCreateOrUpdate(List<DBONode> batch) {
+		// a backfill that ran while the batch was written cannot mark itself complete
+		markIncomplete();
+	}
+
+	private void markIncomplete() {
+		for (BackfillType type : BackfillType.values()) {
+			backfillStatusDao.setIncomplete(type);
+		}
+	}
+
+}
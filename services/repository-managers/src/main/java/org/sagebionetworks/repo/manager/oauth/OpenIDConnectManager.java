@@ -57,6 +57,16 @@ public interface OpenIDConnectManager {
 	 */
 	String validateAccessToken(String accessToken) throws UnauthorizedException;
 
+	/**
+	 * Validate the given OAuth access token, as {@link #validateAccessToken(String)}
+	 * does, and also return its verified claims so that they can be used for the
+	 * rest of the request without verifying the token again.
+	 * @param accessToken
+	 * @return the user ID and the verified claims of the access token
+	 * @throws UnauthorizedException if an associated refresh token is expired
+	 */
+	ValidatedAccessToken validateAccessTokenAndGetClaims(String accessToken) throws UnauthorizedException;
+
 	/**
 	 * Return true iff the specified user has already granted consent for the given client, socpe and claims
 	 * @param userInfo
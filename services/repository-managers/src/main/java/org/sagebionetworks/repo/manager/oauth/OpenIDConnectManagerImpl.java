@@ -103,6 +103,9 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 
 	@Autowired
 	private Clock clock;
+
+	@Autowired
+	private VerifiedAccessTokenCache verifiedTokenCache;
 	
 	/**
 	 * Injected.
@@ -288,10 +291,31 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 		return EncryptionUtils.decrypt(ppid, sectorIdentifierSecret);
 	}
 	
+	/**
+	 * Get the claims of the given token, only verifying its signature if it was
+	 * not verified recently.
+	 * 
+	 * @param jwtToken
+	 * @return
+	 */
+	Claims getVerifiedClaims(String jwtToken) {
+		Claims claims = verifiedTokenCache.get(jwtToken);
+		if (claims == null) {
+			// Parsing the JWT handles tokens that have expired
+			claims = oidcTokenHelper.parseJWT(jwtToken).getBody();
+			verifiedTokenCache.put(jwtToken, claims);
+		}
+		return claims;
+	}
+
 	@Override
 	public String validateAccessToken(String jwtToken) {
-		// Parsing the JWT handles tokens that have expired
-		Claims claims = oidcTokenHelper.parseJWT(jwtToken).getBody();
+		return validateAccessTokenAndGetClaims(jwtToken).getUserId();
+	}
+
+	@Override
+	public ValidatedAccessToken validateAccessTokenAndGetClaims(String jwtToken) {
+		Claims claims = getVerifiedClaims(jwtToken);
 
 		String userId = getUserIdFromPPID(claims.getSubject(), claims.getAudience());
 		TokenType tokenType = TokenType.valueOf(claims.get(OIDCClaimName.token_type.name(), String.class));
@@ -315,7 +339,7 @@ public class OpenIDConnectManagerImpl implements OpenIDConnectManager {
 				throw new OAuthUnauthenticatedException(OAuthErrorCode.invalid_token, "The provided token is an OIDC ID token and cannot be used to authenticate requests.");
 
 		}
-		return userId;
+		return new ValidatedAccessToken(userId, claims);
 	}
 	
 	void addClaimsToMap(final String userId, Map<OIDCClaimName, OIDCClaimsRequestDetails> claims, Map<OIDCClaimName,Object> result) {
@@ -0,0 +1,35 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Simple POJO to hold the user ID and the verified claims of a validated
+ * access token, so the claims can be used for the rest of the request without
+ * verifying the token again.
+ */
+public class ValidatedAccessToken {
+
+	private final String userId;
+	private final Claims claims;
+
+	public ValidatedAccessToken(String userId, Claims claims) {
+		this.userId = userId;
+		this.claims = claims;
+	}
+
+	/**
+	 * @return The ID of the Synapse user referred to by the access token
+	 */
+	public String getUserId() {
+		return userId;
+	}
+
+	/**
+	 * @return The verified claims of the access token. Shared, so must not be
+	 *         modified.
+	 */
+	public Claims getClaims() {
+		return claims;
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.sagebionetworks.util.Clock;
+import org.sagebionetworks.util.ValidateArgument;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * A bounded, in-memory cache of the claims of access tokens whose signature has
+ * already been verified.
+ * <p>
+ * A signed token can never change, so the claims of a token only need to be
+ * verified once. Each token is held until the earlier of its own expiration and
+ * the maximum age of the cache, so a token is never trusted past its
+ * expiration and a token signed with a key that is rotated out is only trusted
+ * for the maximum age. The cache only replaces the signature check: whether the
+ * token has been revoked is still checked on each use.
+ * <p>
+ * Tokens are keyed by their SHA-256 hash, so the tokens themselves are not held
+ * in memory. The least recently used tokens are evicted once the cache reaches
+ * its maximum size.
+ *
+ */
+public class VerifiedAccessTokenCache {
+
+	/**
+	 * Tokens that expire sooner than this are not cached. Tokens created for the
+	 * duration of a single request would only push out useful entries.
+	 */
+	public static final long MIN_REMAINING_LIFETIME_MS = 60 * 1000L;
+
+	private final Map<String, VerifiedToken> tokens;
+	private final long maxAgeMillis;
+	private final Clock clock;
+
+	private final AtomicLong hitCount;
+	private final AtomicLong missCount;
+
+	/**
+	 *
+	 * @param maxTokens    The maximum number of tokens to hold. Zero disables the
+	 *                     cache.
+	 * @param maxAgeMillis The maximum time a token is held.
+	 * @param clock
+	 */
+	public VerifiedAccessTokenCache(int maxTokens, long maxAgeMillis, Clock clock) {
+		ValidateArgument.requirement(maxTokens >= 0, "maxTokens cannot be negative");
+		ValidateArgument.requirement(maxAgeMillis >= 0, "maxAgeMillis cannot be negative");
+		ValidateArgument.required(clock, "clock");
+		this.tokens = new LinkedHashMap<String, VerifiedToken>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+				return size() > maxTokens;
+			}
+		};
+		this.maxAgeMillis = maxAgeMillis;
+		this.clock = clock;
+		this.hitCount = new AtomicLong();
+		this.missCount = new AtomicLong();
+	}
+
+	/**
+	 * Get the verified claims of the given token.
+	 *
+	 * @param token
+	 * @return The claims, which are shared and must not be modified, or null if
+	 *         the token is not in the cache or is no longer valid.
+	 */
+	public Claims get(String token) {
+		ValidateArgument.required(token, "token");
+		String key = DigestUtils.sha256Hex(token);
+		long now = clock.currentTimeMillis();
+		VerifiedToken verified;
+		synchronized (tokens) {
+			verified = tokens.get(key);
+			if (verified != null && now >= verified.expiresOn) {
+				tokens.remove(key);
+				verified = null;
+			}
+		}
+		if (verified == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return verified.claims;
+	}
+
+	/**
+	 * Add the claims of a token to the cache. Must only be called once the
+	 * signature of the token has been verified.
+	 *
+	 * @param token
+	 * @param claims
+	 */
+	public void put(String token, Claims claims) {
+		ValidateArgument.required(token, "token");
+		ValidateArgument.required(claims, "claims");
+		long now = clock.currentTimeMillis();
+		Date expiration = claims.getExpiration();
+		if (expiration != null && expiration.getTime() - now < MIN_REMAINING_LIFETIME_MS) {
+			return;
+		}
+		long expiresOn = now + maxAgeMillis;
+		if (expiration != null) {
+			expiresOn = Math.min(expiresOn, expiration.getTime());
+		}
+		VerifiedToken verified = new VerifiedToken(claims, expiresOn);
+		String key = DigestUtils.sha256Hex(token);
+		synchronized (tokens) {
+			tokens.put(key, verified);
+		}
+	}
+
+	/**
+	 * Remove all tokens from the cache.
+	 */
+	public void clear() {
+		synchronized (tokens) {
+			tokens.clear();
+		}
+	}
+
+	/**
+	 * @return The number of lookups that were found in the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return The number of lookups that were not found in the cache or had
+	 *         expired.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return The number of tokens currently held.
+	 */
+	public int getTokenCount() {
+		synchronized (tokens) {
+			return tokens.size();
+		}
+	}
+
+	/**
+	 * The verified claims of a token along with the time the claims stop being
+	 * trusted.
+	 *
+	 */
+	static class VerifiedToken {
+
+		private final Claims claims;
+		private final long expiresOn;
+
+		VerifiedToken(Claims claims, long expiresOn) {
+			this.claims = claims;
+			this.expiresOn = expiresOn;
+		}
+	}
+}
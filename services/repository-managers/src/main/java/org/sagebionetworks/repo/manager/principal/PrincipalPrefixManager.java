@@ -0,0 +1,93 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Looks up principals using a prefix of their names. The lookups are answered
+ * from an in-memory index of the principal prefix table that is kept current
+ * by a timer.
+ *
+ */
+public interface PrincipalPrefixManager {
+
+	/**
+	 * List a single page of users or teams that match a given prefix.
+	 *
+	 * @param prefix
+	 * @param limit
+	 * @param offset
+	 * @return List of principal IDs that match the query ordered alphabetically.
+	 */
+	List<Long> listPrincipalsForPrefix(String prefix, Long limit, Long offset);
+
+	/**
+	 * List a single page of users or user groups that match the given prefix.
+	 *
+	 * @param prefix
+	 * @param isIndividual True for users, false for user groups.
+	 * @param limit
+	 * @param offset
+	 * @return
+	 */
+	List<Long> listPrincipalsForPrefix(String prefix, boolean isIndividual, Long limit, Long offset);
+
+	/**
+	 * List a single page of teams that match the given prefix.
+	 *
+	 * @param prefix
+	 * @param limit
+	 * @param offset
+	 * @return
+	 */
+	List<Long> listTeamsForPrefix(String prefix, Long limit, Long offset);
+
+	/**
+	 * For a given team, list a single page of the members that match the given
+	 * prefix.
+	 *
+	 * @param prefix
+	 * @param teamId
+	 * @param limit
+	 * @param offset
+	 * @return
+	 */
+	List<Long> listTeamMembersForPrefix(String prefix, Long teamId, Long limit, Long offset);
+
+	/**
+	 * For a given team, list a single page of the members that match the given
+	 * prefix and have or do not have particular principal IDs. Exclusion has
+	 * precedence over inclusion.
+	 *
+	 * @param prefix
+	 * @param teamId
+	 * @param include When not null or empty, only these members are included.
+	 * @param exclude When not null or empty, these members are excluded.
+	 * @param limit
+	 * @param offset
+	 * @return
+	 */
+	List<Long> listCertainTeamMembersForPrefix(String prefix, Long teamId, Set<Long> include, Set<Long> exclude,
+			Long limit, Long offset);
+
+	/**
+	 * For a given team, count the members that match the given prefix.
+	 *
+	 * @param prefix
+	 * @param teamId
+	 * @return
+	 */
+	Long countTeamMembersForPrefix(String prefix, Long teamId);
+
+	/**
+	 * Rebuild the index from the principal prefix table.
+	 */
+	void rebuildIndex();
+
+	/**
+	 * Called from a timer to apply the principals that changed since the last
+	 * call to the index. The index is built on the first call and rebuilt
+	 * periodically.
+	 */
+	void refreshIndex();
+}
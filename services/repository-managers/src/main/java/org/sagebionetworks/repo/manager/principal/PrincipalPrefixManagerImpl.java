@@ -0,0 +1,219 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.repo.model.GroupMembersDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixEntry;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixIndex;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PrincipalPrefixManagerImpl implements PrincipalPrefixManager {
+
+	private static final Logger LOG = LogManager.getLogger(PrincipalPrefixManagerImpl.class);
+
+	static final long ENTRY_PAGE_SIZE = 10_000L;
+	static final long CHANGE_PAGE_SIZE = 1_000L;
+	/*
+	 * The prefix table is updated by a worker some time after a principal
+	 * changes, so changes are applied again on each refresh until they are older
+	 * than this.
+	 */
+	static final long SETTLE_MS = 60_000L;
+	/*
+	 * Principals that changed shortly before a rebuild may not be in the prefix
+	 * table yet, so the changes are applied again from this many changes before
+	 * the current change.
+	 */
+	static final long REBUILD_CHANGE_OVERLAP = 10_000L;
+	/*
+	 * A principal that reaches the prefix table after its change settled is only
+	 * picked up by a rebuild, so the index is rebuilt this often.
+	 */
+	static final long REBUILD_INTERVAL_MS = 60 * 60_000L;
+	/*
+	 * The members of larger teams are not loaded, the prefix table answers the
+	 * lookups of these teams.
+	 */
+	static final long MAX_TEAM_SIZE = 10_000L;
+
+	@Autowired
+	private PrincipalPrefixDAO principalPrefixDao;
+
+	@Autowired
+	private DBOChangeDAO changeDao;
+
+	@Autowired
+	private GroupMembersDAO groupMembersDao;
+
+	@Autowired
+	private Clock clock;
+
+	/*
+	 * Null until the index is built by the timer, the prefix table answers
+	 * lookups until then.
+	 */
+	private volatile PrincipalPrefixIndex index;
+	// The first principal change that might not be applied to the index yet
+	private long nextChangeNumber;
+	private long lastRebuildMs;
+
+	@Override
+	public List<Long> listPrincipalsForPrefix(String prefix, Long limit, Long offset) {
+		PrincipalPrefixIndex current = index;
+		if (current == null) {
+			return principalPrefixDao.listPrincipalsForPrefix(prefix, limit, offset);
+		}
+		return current.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.ALL, limit, offset);
+	}
+
+	@Override
+	public List<Long> listPrincipalsForPrefix(String prefix, boolean isIndividual, Long limit, Long offset) {
+		PrincipalPrefixIndex current = index;
+		if (current == null) {
+			return principalPrefixDao.listPrincipalsForPrefix(prefix, isIndividual, limit, offset);
+		}
+		PrincipalPrefixIndex.Type type = isIndividual ? PrincipalPrefixIndex.Type.INDIVIDUALS
+				: PrincipalPrefixIndex.Type.GROUPS;
+		return current.listPrincipalsForPrefix(prefix, type, limit, offset);
+	}
+
+	@Override
+	public List<Long> listTeamsForPrefix(String prefix, Long limit, Long offset) {
+		PrincipalPrefixIndex current = index;
+		if (current == null) {
+			return principalPrefixDao.listTeamsForPrefix(prefix, limit, offset);
+		}
+		return current.listPrincipalsForPrefix(prefix, PrincipalPrefixIndex.Type.TEAMS, limit, offset);
+	}
+
+	@Override
+	public List<Long> listTeamMembersForPrefix(String prefix, Long teamId, Long limit, Long offset) {
+		PrincipalPrefixIndex current = index;
+		Set<Long> memberIds = current == null ? null : getMemberIds(teamId, null, null);
+		if (memberIds == null) {
+			return principalPrefixDao.listTeamMembersForPrefix(prefix, teamId, limit, offset);
+		}
+		return current.listPrincipalsForPrefix(prefix, memberIds, limit, offset);
+	}
+
+	@Override
+	public List<Long> listCertainTeamMembersForPrefix(String prefix, Long teamId, Set<Long> include,
+			Set<Long> exclude, Long limit, Long offset) {
+		PrincipalPrefixIndex current = index;
+		Set<Long> memberIds = current == null ? null : getMemberIds(teamId, include, exclude);
+		if (memberIds == null) {
+			return principalPrefixDao.listCertainTeamMembersForPrefix(prefix, teamId, include, exclude, limit, offset);
+		}
+		return current.listPrincipalsForPrefix(prefix, memberIds, limit, offset);
+	}
+
+	@Override
+	public Long countTeamMembersForPrefix(String prefix, Long teamId) {
+		PrincipalPrefixIndex current = index;
+		Set<Long> memberIds = current == null ? null : getMemberIds(teamId, null, null);
+		if (memberIds == null) {
+			return principalPrefixDao.countTeamMembersForPrefix(prefix, teamId);
+		}
+		return current.countPrincipalsForPrefix(prefix, memberIds);
+	}
+
+	/**
+	 * The members of the team, filtered like
+	 * {@link PrincipalPrefixDAO#listCertainTeamMembersForPrefix(String, Long, Set, Set, Long, Long)}.
+	 * 
+	 * @return Null if the team has more than {@link #MAX_TEAM_SIZE} members.
+	 */
+	Set<Long> getMemberIds(Long teamId, Set<Long> include, Set<Long> exclude) {
+		Set<Long> memberIds = new HashSet<>(groupMembersDao.getMemberIds(teamId, MAX_TEAM_SIZE + 1));
+		if (memberIds.size() > MAX_TEAM_SIZE) {
+			return null;
+		}
+		if (exclude != null && !exclude.isEmpty()) {
+			memberIds.removeAll(exclude);
+		}
+		if (include != null && !include.isEmpty()) {
+			memberIds.retainAll(include);
+		}
+		return memberIds;
+	}
+
+	@Override
+	public synchronized void rebuildIndex() {
+		long start = clock.currentTimeMillis();
+		long startChangeNumber = Math.max(0L, changeDao.getCurrentChangeNumber() - REBUILD_CHANGE_OVERLAP);
+		PrincipalPrefixIndex.Builder builder = new PrincipalPrefixIndex.Builder();
+		PrincipalPrefixEntry last = null;
+		List<PrincipalPrefixEntry> page;
+		do {
+			page = principalPrefixDao.listEntries(last, ENTRY_PAGE_SIZE);
+			for (PrincipalPrefixEntry entry : page) {
+				builder.add(entry);
+			}
+			if (!page.isEmpty()) {
+				last = page.get(page.size() - 1);
+			}
+		} while (page.size() == ENTRY_PAGE_SIZE);
+		index = builder.build();
+		nextChangeNumber = startChangeNumber;
+		lastRebuildMs = start;
+		LOG.info("Built the principal prefix index with " + index.getTokenCount() + " tokens in "
+				+ (clock.currentTimeMillis() - start) + " ms");
+	}
+
+	@Override
+	public synchronized void refreshIndex() {
+		if (index == null || clock.currentTimeMillis() - lastRebuildMs >= REBUILD_INTERVAL_MS) {
+			rebuildIndex();
+		}
+		long settledBefore = clock.currentTimeMillis() - SETTLE_MS;
+		long changeNumber = nextChangeNumber;
+		Long firstUnsettled = null;
+		List<ChangeMessage> changes;
+		do {
+			changes = changeDao.listChanges(changeNumber, ObjectType.PRINCIPAL, CHANGE_PAGE_SIZE);
+			Set<Long> principalIds = new HashSet<>(changes.size());
+			for (ChangeMessage change : changes) {
+				principalIds.add(Long.parseLong(change.getObjectId()));
+				if (firstUnsettled == null && change.getTimestamp() != null
+						&& change.getTimestamp().getTime() > settledBefore) {
+					firstUnsettled = change.getChangeNumber();
+				}
+				changeNumber = change.getChangeNumber() + 1;
+			}
+			replacePrincipals(principalIds);
+		} while (changes.size() == CHANGE_PAGE_SIZE);
+		nextChangeNumber = firstUnsettled != null ? firstUnsettled : changeNumber;
+	}
+
+	/**
+	 * Reload the tokens of the given principals from the prefix table.
+	 */
+	void replacePrincipals(Set<Long> principalIds) {
+		if (principalIds.isEmpty()) {
+			return;
+		}
+		Map<Long, List<PrincipalPrefixEntry>> entriesByPrincipal = new HashMap<>(principalIds.size());
+		for (Long principalId : principalIds) {
+			// principals without tokens are removed from the index
+			entriesByPrincipal.put(principalId, new ArrayList<>());
+		}
+		for (PrincipalPrefixEntry entry : principalPrefixDao.getEntries(principalIds)) {
+			entriesByPrincipal.get(entry.getPrincipalId()).add(entry);
+		}
+		index.replacePrincipals(entriesByPrincipal);
+	}
+}
@@ -1,5 +1,12 @@
 package org.sagebionetworks.repo.manager.search;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sagebionetworks.repo.model.ObjectType;
@@ -13,8 +20,11 @@ import org.sagebionetworks.search.CloudSearchDocumentLogRecord;
 import org.sagebionetworks.search.CloudSearchLogger;
 import org.sagebionetworks.search.DocumentAction;
 import org.sagebionetworks.search.SearchDao;
+import org.sagebionetworks.util.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.collect.Iterators;
+
 public class ChangeMessageToSearchDocumentTranslator {
 	private static final Logger log = LogManager.getLogger(ChangeMessageToSearchDocumentTranslator.class.getName());
 
@@ -30,26 +40,76 @@ public class ChangeMessageToSearchDocumentTranslator {
 	@Autowired
 	CloudSearchLogger recordLogger;
 
-	Document generateSearchDocumentIfNecessary(ChangeMessage change) {
-		// start a log record for this message.
-		CloudSearchDocumentLogRecord record = recordLogger.startRecordForChangeMessage(change);
+	/**
+	 * Generate the documents for a batch of changes. The documents of all
+	 * entities that still exist are formulated together so that the lookups and
+	 * wiki downloads for the batch can be shared and overlapped.
+	 * 
+	 * @param changes
+	 * @return The documents to send, in the order of the changes. Documents are
+	 *         formulated as the iterator is consumed. Ignored changes, repeated
+	 *         updates of the same entity and entities deleted while the batch is
+	 *         formulated produce no document.
+	 */
+	Iterator<Document> generateSearchDocumentsIfNecessary(List<ChangeMessage> changes) {
+		// For each change in order, the entity ID and whether the entity still exists.
+		List<Pair<String, Boolean>> entityChanges = new ArrayList<>(changes.size());
+		Set<String> entityIdsToFormulate = new LinkedHashSet<>(changes.size());
+		for (ChangeMessage change : changes) {
+			// start a log record for this message.
+			CloudSearchDocumentLogRecord record = recordLogger.startRecordForChangeMessage(change);
+			String entityId = getEntityIdForChange(change, record);
+			if (entityId == null) {
+				// this change will be ignored.
+				continue;
+			}
+			boolean exists = searchDocumentDriver.doesEntityExistInRepository(entityId);
+			record.withAction(exists ? DocumentAction.CREATE_OR_UPDATE : DocumentAction.DELETE);
+			if (!exists) {
+				entityChanges.add(Pair.create(entityId, false));
+			} else if (entityIdsToFormulate.add(entityId)) {
+				// The first update of an entity in the batch produces the same document as any later update.
+				entityChanges.add(Pair.create(entityId, true));
+			}
+		}
+		if (entityIdsToFormulate.isEmpty()) {
+			return Iterators.transform(entityChanges.iterator(), change -> createDeleteDocument(change.getFirst()));
+		}
+		// One element per entity to formulate, in the same order as the updates in entityChanges.
+		Iterator<Document> formulated = searchDocumentDriver.formulateSearchDocuments(new ArrayList<>(entityIdsToFormulate));
+		Iterator<Document> documents = Iterators.transform(entityChanges.iterator(),
+				change -> change.getSecond() ? formulated.next() : createDeleteDocument(change.getFirst()));
+		// entities deleted while the batch was formulated have no document.
+		return Iterators.filter(documents, Objects::nonNull);
+	}
+
+	/**
+	 * Get the ID of the entity affected by the given change.
+	 * 
+	 * @param change
+	 * @param record
+	 * @return Null if the change does not affect an entity.
+	 */
+	String getEntityIdForChange(ChangeMessage change, CloudSearchDocumentLogRecord record) {
 		switch (change.getObjectType()) {
 		case ENTITY:
-			return entityChange(change.getObjectId(), record);
+			return change.getObjectId();
 		case WIKI:
-			return wikiChange(change.getObjectId(), record);
+			return getWikiOwnerEntityId(change.getObjectId(), record);
 		default:
 			throw new IllegalArgumentException("Unknown change type: " + change.getChangeType());
 		}
 	}
 
 	/**
-	 * Wiki changes are converted into entity changes.
+	 * Lookup the entity that owns the given wiki.
+	 * 
 	 * @param wikiId
 	 * @param record
-	 * @return
+	 * @return Null if the wiki does not exist or is not owned by an entity. The
+	 *         record will be marked as ignored in this case.
 	 */
-	Document wikiChange(String wikiId, CloudSearchDocumentLogRecord record) {
+	String getWikiOwnerEntityId(String wikiId, CloudSearchDocumentLogRecord record) {
 		// Lookup the owner of the page
 		try {
 			WikiPageKey key = wikiPageDao.lookupWikiKey(wikiId);
@@ -57,7 +117,7 @@ public class ChangeMessageToSearchDocumentTranslator {
 			// message.
 			if (ObjectType.ENTITY == key.getOwnerObjectType()) {
 				record.withWikiOwner(key.getOwnerObjectId());
-				return entityChange(key.getOwnerObjectId(), record);
+				return key.getOwnerObjectId();
 			}
 		} catch (NotFoundException e) {
 			// Nothing to do if the wiki does not exist
@@ -68,23 +128,6 @@ public class ChangeMessageToSearchDocumentTranslator {
 		return null;
 	}
 
-	/**
-	 * Create a change document for the given wiki.
-	 * 
-	 * @param entityId
-	 * @param record
-	 * @return
-	 */
-	Document entityChange(String entityId, CloudSearchDocumentLogRecord record) {
-		if(!searchDocumentDriver.doesEntityExistInRepository(entityId)) {
-			record.withAction(DocumentAction.DELETE);
-			return createDeleteDocument(entityId);
-		}else {
-			record.withAction(DocumentAction.CREATE_OR_UPDATE);
-			return searchDocumentDriver.formulateSearchDocument(entityId);
-		}
-	}
-
 	/**
 	 * Create a document to be deleted.
 	 * @param entityId
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.manager.search;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -35,6 +36,20 @@ public interface SearchDocumentDriver {
 	 * @throws IOException TODO
 	 */
 	public Document formulateSearchDocument(String nodeId) throws DatastoreException, NotFoundException;
+
+	/**
+	 * Create the search documents for a batch of nodes. Duplicate IDs are
+	 * ignored and lookups shared by the nodes are only made once. Documents are
+	 * created as the iterator is consumed, while the wiki markdown of the next
+	 * few nodes is downloaded concurrently, so only a few documents are held in
+	 * memory at a time.
+	 * 
+	 * @param nodeIds
+	 * @return One element per unique node ID, in the order of the given IDs. The
+	 *         element is null for a node that no longer exists.
+	 * @throws DatastoreException
+	 */
+	public Iterator<Document> formulateSearchDocuments(List<String> nodeIds) throws DatastoreException;
 	/**
 	 * Create a search document and return it.
 	 *
@@ -6,12 +6,23 @@ import static org.sagebionetworks.search.SearchConstants.FIELD_ORGAN;
 import static org.sagebionetworks.search.SearchConstants.FIELD_TISSUE;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -33,16 +44,19 @@ import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValue;
 import org.sagebionetworks.repo.model.dao.WikiPageKey;
 import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.entity.NameIdType;
+import org.sagebionetworks.repo.model.jdo.KeyFactory;
 import org.sagebionetworks.repo.model.search.Document;
 import org.sagebionetworks.repo.model.search.DocumentFields;
 import org.sagebionetworks.repo.model.search.DocumentTypeNames;
 import org.sagebionetworks.repo.model.v2.dao.V2WikiPageDao;
 import org.sagebionetworks.repo.model.v2.wiki.V2WikiHeader;
-import org.sagebionetworks.repo.model.v2.wiki.V2WikiPage;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.search.SearchUtil;
+import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * This class writes out search documents in batch.
  * 
@@ -60,6 +74,23 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	 */
 	public static final int FIELD_VALUE_SIZE_LIMIT = 100;
 
+	/**
+	 * The maximum number of wiki pages included in an entity's document.
+	 */
+	public static final long WIKI_PAGE_LIMIT = 100L;
+
+	/**
+	 * The maximum number of wiki markdown downloads that will run concurrently.
+	 */
+	public static final int MAX_CONCURRENT_MARKDOWN_DOWNLOADS = 5;
+
+	/**
+	 * The maximum number of nodes ahead of the current document whose wiki
+	 * markdown is downloaded while a batch is formulated. This bounds the
+	 * markdown held in memory to the pages of this many nodes.
+	 */
+	public static final int MAX_NODES_DOWNLOADED_AHEAD = 5;
+
 	private static Log log = LogFactory.getLog(SearchDocumentDriverImpl.class);
 
 	static final Map<String, List<String>> SEARCHABLE_NODE_ANNOTATIONS;
@@ -71,6 +102,11 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	@Autowired
 	V2WikiPageDao wikiPageDao;
 
+	/**
+	 * Bounded pool used to download wiki markdown from S3 concurrently.
+	 */
+	private final ExecutorService markdownExecutor;
+
 	static { // initialize SEARCHABLE_NODE_ANNOTATIONS
 		// NOTE: ORDER MATTERS. Earlier annotation key names will be preferred over later ones if both keys are present.
 		Map<String, List<String>> searchableNodeAnnotations = new HashMap<>();
@@ -87,6 +123,13 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 	 * Used by Spring
 	 */
 	public SearchDocumentDriverImpl() {
+		this.markdownExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_MARKDOWN_DOWNLOADS,
+				new ThreadFactoryBuilder().setNameFormat("search-markdown-%d").setDaemon(true).build());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		markdownExecutor.shutdownNow();
 	}
 
 	/**
@@ -268,43 +311,203 @@ public class SearchDocumentDriverImpl implements SearchDocumentDriver {
 		return formulateFromBackup(node);
 	}
 
+	@Override
+	public Iterator<Document> formulateSearchDocuments(List<String> nodeIds) throws DatastoreException {
+		ValidateArgument.required(nodeIds, "nodeIds");
+		// The same entity often appears more than once in a batch of changes.
+		List<String> uniqueIds = new ArrayList<>(new LinkedHashSet<>(nodeIds));
+		// Entities in a batch frequently share a benefactor so each ACL is only read once.
+		Map<String, AccessControlList> benefactorAcls = new HashMap<>();
+		// The page downloads of the nodes after the current one, in order.
+		Deque<List<Future<String>>> wikiPagesAhead = new ArrayDeque<>(MAX_NODES_DOWNLOADED_AHEAD);
+		return new Iterator<Document>() {
+
+			int nextIndex = 0;
+			// The nodes and annotations of the whole batch, loaded when the first document is formulated.
+			Map<Long, Node> nodes;
+			Map<Long, Annotations> annotations;
+
+			@Override
+			public boolean hasNext() {
+				return nextIndex < uniqueIds.size();
+			}
+
+			@Override
+			public Document next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				try {
+					if (nodes == null) {
+						loadBatch();
+					}
+					// Keep the downloads of the next few nodes running while this document is formulated.
+					while (wikiPagesAhead.size() < MAX_NODES_DOWNLOADED_AHEAD
+							&& nextIndex + wikiPagesAhead.size() < uniqueIds.size()) {
+						wikiPagesAhead.add(startWikiPageTextDownloads(uniqueIds.get(nextIndex + wikiPagesAhead.size())));
+					}
+					String nodeId = uniqueIds.get(nextIndex++);
+					Long key = KeyFactory.stringToKey(nodeId);
+					return formulateSearchDocument(nodeId, nodes.get(key), annotations.get(key), wikiPagesAhead.poll(),
+							benefactorAcls);
+				} catch (RuntimeException e) {
+					// The batch fails so the remaining downloads are not needed.
+					for (List<Future<String>> pages : wikiPagesAhead) {
+						cancel(pages);
+					}
+					wikiPagesAhead.clear();
+					throw e;
+				}
+			}
+
+			/**
+			 * Load the nodes and annotations of the whole batch with one query each.
+			 */
+			void loadBatch() {
+				List<Long> ids = KeyFactory.stringToKey(uniqueIds);
+				nodes = new HashMap<>(ids.size());
+				for (Node node : nodeDao.getNodes(ids)) {
+					nodes.put(KeyFactory.stringToKey(node.getId()), node);
+				}
+				annotations = new HashMap<>(ids.size());
+				for (Annotations annos : nodeDao.getUserAnnotationsForCurrentVersions(ids)) {
+					annotations.put(KeyFactory.stringToKey(annos.getId()), annos);
+				}
+			}
+		};
+	}
+
+	/**
+	 * Formulate the document of a single node of a batch.
+	 * 
+	 * @param nodeId
+	 * @param node           The node loaded for the batch, null if it does not
+	 *                       exist.
+	 * @param annos          The annotations loaded for the batch, null if the
+	 *                       node does not exist.
+	 * @param wikiPages      The page downloads started for this node.
+	 * @param benefactorAcls ACLs already loaded for the batch by benefactor ID.
+	 * @return Null if the node no longer exists.
+	 */
+	Document formulateSearchDocument(String nodeId, Node node, Annotations annos, List<Future<String>> wikiPages,
+			Map<String, AccessControlList> benefactorAcls) {
+		if (node == null || annos == null) {
+			// The node was deleted after the change was processed. Its delete message will remove the document.
+			log.info("Node not found while formulating a search document: " + nodeId);
+			cancel(wikiPages);
+			return null;
+		}
+		AccessControlList benefactorACL;
+		try {
+			String benefactorId = nodeDao.getBenefactor(nodeId);
+			benefactorACL = benefactorAcls.get(benefactorId);
+			if (benefactorACL == null) {
+				benefactorACL = aclDAO.get(benefactorId, ObjectType.ENTITY);
+				benefactorAcls.put(benefactorId, benefactorACL);
+			}
+		} catch (NotFoundException e) {
+			// The node was deleted while the batch was formulated.
+			log.info("Node not found while formulating a search document: " + nodeId + " Message: " + e.getMessage());
+			cancel(wikiPages);
+			return null;
+		}
+		String wikiPagesText = joinWikiPageText(wikiPages);
+		return formulateSearchDocument(node, annos, benefactorACL, wikiPagesText);
+	}
+
 	/**
 	 * Get all wiki text for an entity.
 	 * 
 	 * @param nodeId
 	 * @return
 	 * @throws DatastoreException
-	 * @throws IOException 
 	 */
 	public String getAllWikiPageText(String nodeId) throws DatastoreException {
-		// Lookup all wiki pages for this node
+		return joinWikiPageText(startWikiPageTextDownloads(nodeId));
+	}
+
+	/**
+	 * Lookup the wiki pages of the given entity and start downloading the
+	 * markdown of each page on the markdown pool.
+	 * 
+	 * @param nodeId
+	 * @return One future per page with the text of that page, or null if the
+	 *         entity has no wiki.
+	 */
+	List<Future<String>> startWikiPageTextDownloads(String nodeId) {
+		List<V2WikiHeader> wikiHeaders;
 		try {
-			long limit = 100L;
-			long offset = 0L;
-			List<V2WikiHeader> wikiHeaders = wikiPageDao.getHeaderTree(nodeId,
-					ObjectType.ENTITY, limit, offset);
-			if (wikiHeaders == null)
-				return null;
-			// For each header get the wikipage
-			StringBuilder builder = new StringBuilder();
-			for (V2WikiHeader header : wikiHeaders) {
-				WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(nodeId, ObjectType.ENTITY, header.getId());
-				V2WikiPage page = wikiPageDao.get(key, null);
-				// Append the title and markdown
-				if (page.getTitle() != null) {
+			wikiHeaders = wikiPageDao.getHeaderTree(nodeId, ObjectType.ENTITY, WIKI_PAGE_LIMIT, 0L);
+		} catch (NotFoundException e) {
+			// There is no WikiPage for this node.
+			return null;
+		}
+		if (wikiHeaders == null) {
+			return null;
+		}
+		List<Future<String>> pages = new ArrayList<>(wikiHeaders.size());
+		for (V2WikiHeader header : wikiHeaders) {
+			WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(nodeId, ObjectType.ENTITY, header.getId());
+			pages.add(markdownExecutor.submit(() -> {
+				StringBuilder builder = new StringBuilder();
+				// The header already includes the title of the current version of the page.
+				if (header.getTitle() != null) {
 					builder.append("\n");
-					builder.append(page.getTitle());
+					builder.append(header.getTitle());
 				}
-				String markdownString = wikiPageDao.getMarkdown(key, null);
 				builder.append("\n");
-				builder.append(markdownString);
+				builder.append(wikiPageDao.getMarkdown(key, null));
+				return builder.toString();
+			}));
+		}
+		return pages;
+	}
+
+	/**
+	 * Wait for the given page downloads and join their text in order.
+	 * 
+	 * @param pages
+	 * @return
+	 */
+	String joinWikiPageText(List<Future<String>> pages) {
+		if (pages == null) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder();
+		try {
+			for (Future<String> page : pages) {
+				builder.append(page.get());
 			}
 			return builder.toString();
-		} catch (IOException e){
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new RuntimeException(e);
-		} catch (NotFoundException e) {
-			// There is no WikiPage for this node.
-			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof NotFoundException) {
+				// A page was deleted while the text was gathered.
+				return null;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			cancel(pages);
+		}
+	}
+
+	/**
+	 * Cancel any of the given page downloads that are still running.
+	 * 
+	 * @param pages
+	 */
+	static void cancel(List<Future<String>> pages) {
+		if (pages == null) {
+			return;
+		}
+		for (Future<String> page : pages) {
+			page.cancel(true);
 		}
 	}
 
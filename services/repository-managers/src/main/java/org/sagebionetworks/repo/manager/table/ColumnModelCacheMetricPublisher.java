@@ -0,0 +1,43 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.util.Date;
+
+import org.sagebionetworks.cloudwatch.PeriodicMetricPublisher;
+import org.sagebionetworks.repo.model.dbo.dao.table.ColumnModelCache;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit, miss and size statistics of the {@link ColumnModelCache}
+ * to cloud watch. The hit and miss counts are published as the change since the
+ * last time the timer fired.
+ *
+ */
+public class ColumnModelCacheMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String COLUMN_MODEL_HITS = "columnModelHits";
+	public static final String COLUMN_MODEL_MISSES = "columnModelMisses";
+	public static final String SCHEMA_HITS = "schemaHits";
+	public static final String SCHEMA_MISSES = "schemaMisses";
+	public static final String CACHED_COLUMN_MODELS = "cachedColumnModels";
+	public static final String CACHED_SCHEMAS = "cachedSchemas";
+
+	@Autowired
+	ColumnModelCache columnModelCache;
+
+	public ColumnModelCacheMetricPublisher() {
+		super("Column-Model-Cache");
+	}
+
+	@Override
+	protected void publishMetrics(Date now) {
+		publishCountChange(COLUMN_MODEL_HITS, columnModelCache.getColumnModelHitCount(), now);
+		publishCountChange(COLUMN_MODEL_MISSES, columnModelCache.getColumnModelMissCount(), now);
+		publishCountChange(SCHEMA_HITS, columnModelCache.getSchemaHitCount(), now);
+		publishCountChange(SCHEMA_MISSES, columnModelCache.getSchemaMissCount(), now);
+		publishValue(CACHED_COLUMN_MODELS, columnModelCache.getColumnModelCount(), StandardUnit.Count, now);
+		publishValue(CACHED_SCHEMAS, columnModelCache.getSchemaCount(), StandardUnit.Count, now);
+	}
+
+}
@@ -2,12 +2,16 @@ package org.sagebionetworks.repo.manager.table;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.model.dao.table.TableType;
 import org.sagebionetworks.repo.model.dbo.dao.table.InvalidStatusTokenException;
 import org.sagebionetworks.repo.model.dbo.dao.table.MaterializedViewDao;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
@@ -17,12 +21,19 @@ import org.sagebionetworks.repo.model.table.TableStatus;
 import org.sagebionetworks.repo.model.table.TableUnavailableException;
 import org.sagebionetworks.repo.transactions.WriteTransaction;
 import org.sagebionetworks.table.cluster.QueryTranslator;
+import org.sagebionetworks.table.cluster.SQLUtils;
+import org.sagebionetworks.table.cluster.SQLUtils.TableIndexType;
 import org.sagebionetworks.table.cluster.description.IndexDescription;
+import org.sagebionetworks.table.cluster.description.MaterializedViewIndexDescription;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.query.ParseException;
 import org.sagebionetworks.table.query.TableQueryParser;
+import org.sagebionetworks.table.query.model.JoinType;
 import org.sagebionetworks.table.query.model.QuerySpecification;
 import org.sagebionetworks.table.query.model.SqlContext;
+import org.sagebionetworks.table.query.model.TableExpression;
 import org.sagebionetworks.table.query.model.TableNameCorrelation;
+import org.sagebionetworks.table.query.util.SqlElementUtils;
 import org.sagebionetworks.util.PaginationIterator;
 import org.sagebionetworks.util.ValidateArgument;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
@@ -39,6 +50,12 @@ public class MaterializedViewManagerImpl implements MaterializedViewManager {
 	
 	public static final String DEFAULT_ETAG = "DEFAULT";
 	
+	/**
+	 * The maximum number of changed source rows that will be applied to a view
+	 * incrementally. When more rows have changed the view is rebuilt.
+	 */
+	public static final long MAX_INCREMENTAL_CHANGES = 10_000;
+	
 	final private ColumnModelManager columModelManager;
 	final private TableManagerSupport tableManagerSupport;
 	final private TableIndexConnectionFactory connectionFactory;
@@ -222,6 +239,26 @@ public class MaterializedViewManagerImpl implements MaterializedViewManager {
 		final String token = tableManagerSupport.startTableProcessing(idAndVersion);
 		TableIndexManager indexManager = connectionFactory.connectToTableIndex(idAndVersion);
 		
+		Optional<QuerySpecification> incrementalModel = getIncrementalRefreshModel(definingSql);
+		Optional<String> definitionHash = incrementalModel.map(m -> getDefinitionHash(idAndVersion, definingSql));
+		List<IndexDescription> trackedSources = getTrackedSources(definingSql.getIndexDescription());
+		
+		if (definitionHash.isPresent()) {
+			Optional<List<SourceRowChanges>> changes = indexManager.getMaterializedViewSourceRowChanges(idAndVersion,
+					definitionHash.get(), trackedSources, MAX_INCREMENTAL_CHANGES);
+			if (changes.isPresent()) {
+				tableManagerSupport.attemptToUpdateTableProgress(idAndVersion, token, "Refreshing MaterializedView...", 0L, 1L);
+				Optional<QueryTranslator> changedRowsSql = createChangedRowsSql(incrementalModel.get(), changes.get())
+						.map(sql -> QueryTranslator.builder().sql(sql).schemaProvider(columModelManager).sqlContext(SqlContext.build)
+								.indexDescription(definingSql.getIndexDescription()).build());
+				List<ColumnModel> viewSchema = columModelManager.getTableSchema(idAndVersion);
+				indexManager.applyMaterializedViewSourceRowChanges(viewSchema, definingSql.getIndexDescription(), definitionHash.get(),
+						changes.get(), changedRowsSql);
+				tableManagerSupport.attemptToSetTableStatusToAvailable(idAndVersion, token, DEFAULT_ETAG);
+				return;
+			}
+		}
+		
 		List<ColumnModel> viewSchema = indexManager.resetTableIndex(definingSql.getIndexDescription());
 	
 		tableManagerSupport.attemptToUpdateTableProgress(idAndVersion, token, "Building MaterializedView...", 0L, 1L);
@@ -231,12 +268,104 @@ public class MaterializedViewManagerImpl implements MaterializedViewManager {
 		// Now build the secondary indicies
 		indexManager.buildTableIndexIndices(definingSql.getIndexDescription(), viewSchema);
 		
+		// Remember the version of each source so the next refresh can be incremental.
+		if (definitionHash.isPresent()) {
+			indexManager.recordMaterializedViewSourceVersions(idAndVersion, definitionHash.get(), trackedSources);
+		}
+		
 		// both the CRC and schema MD5 are used to determine if the view is up-to-date.
 		// The schema MD5 is already set when resetting the index, we use the CRC of the view as the "version" of the index
 		indexManager.setIndexVersion(idAndVersion, viewCRC);
 		// Attempt to set the table to complete.
 		tableManagerSupport.attemptToSetTableStatusToAvailable(idAndVersion, token, DEFAULT_ETAG);		
 	}
+	
+	/**
+	 * A view can be refreshed incrementally when each of its rows is built from
+	 * a single row of each source, so a change to a source row only affects the
+	 * view rows built from it. This is the case for queries that only select,
+	 * filter and inner join sources, each referenced once. Every source that is
+	 * not a snapshot must be a table, since the changed rows are found from the
+	 * version of each row. At least one source must be tracked, snapshots never
+	 * change.
+	 * 
+	 * @param definingSql
+	 * @return The parsed defining SQL if the view can be refreshed
+	 *         incrementally, else Optional.empty().
+	 */
+	static Optional<QuerySpecification> getIncrementalRefreshModel(QueryTranslator definingSql) {
+		if (!definingSql.includesRowIdAndVersion()) {
+			return Optional.empty();
+		}
+		List<IndexDescription> dependencies = definingSql.getIndexDescription().getDependencies();
+		if (dependencies.stream().anyMatch(d -> !d.getIdAndVersion().getVersion().isPresent() && !TableType.table.equals(d.getTableType()))
+				|| dependencies.stream().noneMatch(MaterializedViewIndexDescription::isSourceRowTracked)) {
+			return Optional.empty();
+		}
+		QuerySpecification model = getQuerySpecification(definingSql.getInputSql());
+		TableExpression tableExpression = model.getTableExpression();
+		if (model.getSetQuantifier() != null || tableExpression.getGroupByClause() != null
+				|| tableExpression.getPagination() != null) {
+			return Optional.empty();
+		}
+		for (JoinType joinType : model.createIterable(JoinType.class)) {
+			if (joinType.getOuterJoinType().isPresent()) {
+				return Optional.empty();
+			}
+		}
+		Set<String> tableNames = new HashSet<>();
+		for (TableNameCorrelation table : model.createIterable(TableNameCorrelation.class)) {
+			if (!tableNames.add(table.getTableName().toSql())) {
+				return Optional.empty();
+			}
+		}
+		return Optional.of(model);
+	}
+	
+	/**
+	 * The hash of everything that determines the content of the view. The source
+	 * versions recorded for a different hash cannot be used to refresh the view.
+	 * 
+	 * @param idAndVersion
+	 * @param definingSql
+	 * @return
+	 */
+	String getDefinitionHash(IdAndVersion idAndVersion, QueryTranslator definingSql) {
+		StringBuilder builder = new StringBuilder(definingSql.getOutputSQL());
+		builder.append(new TreeMap<>(definingSql.getParameters()));
+		builder.append(columModelManager.getColumnIdsForTable(idAndVersion));
+		builder.append(tableManagerSupport.isTableSearchEnabled(idAndVersion));
+		return DigestUtils.md5Hex(builder.toString());
+	}
+	
+	static List<IndexDescription> getTrackedSources(IndexDescription indexDescription) {
+		return indexDescription.getDependencies().stream().filter(MaterializedViewIndexDescription::isSourceRowTracked)
+				.collect(Collectors.toList());
+	}
+	
+	/**
+	 * Create the defining SQL limited to the changed source rows.
+	 * 
+	 * @param model   The parsed defining SQL.
+	 * @param changes
+	 * @return Optional.empty() if no source row was added or updated.
+	 */
+	static Optional<String> createChangedRowsSql(QuerySpecification model, List<SourceRowChanges> changes) {
+		String condition = changes.stream().filter(c -> !c.getChangedRowIds().isEmpty())
+				.map(c -> SQLUtils.getTableNameForId(c.getSource().getIdAndVersion(), TableIndexType.INDEX) + ".ROW_ID IN ("
+						+ c.getChangedRowIds().stream().sorted().map(id -> id.toString()).collect(Collectors.joining(",")) + ")")
+				.collect(Collectors.joining(" OR "));
+		if (condition.isEmpty()) {
+			return Optional.empty();
+		}
+		StringBuilder builder = new StringBuilder("SELECT ");
+		builder.append(model.getSelectList().toSql());
+		builder.append(" ");
+		builder.append(model.getTableExpression().getFromClause().toSql());
+		SqlElementUtils.appendCombinedWhereClauseToStringBuilder(builder, condition,
+				model.getTableExpression().getWhereClause());
+		return Optional.of(builder.toString());
+	}
 
 
 }
@@ -26,6 +26,13 @@ public class SinglePageRowHandler implements RowHandler {
 	public List<Row> getRows(){
 		return rows;
 	}
+	
+	/**
+	 * Discard all of the captured rows.
+	 */
+	public void clear() {
+		rows.clear();
+	}
 
 
 }
@@ -0,0 +1,179 @@
+package org.sagebionetworks.repo.manager.table;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.SparseRowDto;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.table.model.SparseChangeSet;
+
+/**
+ * Splits a stream of rows into change sets and builds the change sets in
+ * parallel.
+ * <p>
+ * A reader thread pulls the rows from the stream and cuts them into batches of
+ * at most the maximum bytes per change set, exactly as they were cut when the
+ * rows were read by the caller. For an upload, pulling the rows parses the CSV
+ * as it is streamed. Each batch is then validated and converted against the
+ * schema by a worker. The change sets are returned in the order of the rows, so
+ * the caller appends them one at a time as before. Only a bounded number of
+ * change sets are read ahead, which holds back the reader while the caller is
+ * appending.
+ * <p>
+ * The row indices in validation errors are unchanged because each change set is
+ * built from the same batch of rows. An error from the stream or from a worker
+ * is thrown by {@link #next()} after all the change sets before it were
+ * returned.
+ *
+ */
+public class SparseChangeSetPipeline implements Iterator<SparseChangeSet>, Closeable {
+
+	/**
+	 * Marks the end of the stream.
+	 */
+	private static final Future<SparseChangeSet> END = CompletableFuture.completedFuture(null);
+
+	private final String tableId;
+	private final List<ColumnModel> schema;
+	private final int maxBytesPerChangeSet;
+	private final boolean ignoreRowIdAndVersion;
+	private final ExecutorService workerExecutor;
+	private final BlockingQueue<Future<SparseChangeSet>> changeSets;
+	private final Future<?> reader;
+	private Future<SparseChangeSet> nextChangeSet;
+
+	/**
+	 * Start reading the given rows.
+	 *
+	 * @param readerExecutor        Runs the reader of this pipeline until the end
+	 *                              of the stream or until the pipeline is closed.
+	 * @param workerExecutor        Builds the change sets. The workers never block,
+	 *                              so they can be shared by concurrent pipelines.
+	 * @param maxChangeSetsAhead    The maximum number of change sets that are read
+	 *                              ahead of the caller.
+	 * @param tableId
+	 * @param schema
+	 * @param rowStream             The rows to read. Only the reader will use the
+	 *                              stream.
+	 * @param maxBytesPerChangeSet
+	 * @param ignoreRowIdAndVersion When true, the ID and version of each row are
+	 *                              cleared as the rows are appended to an empty
+	 *                              table (see PLFM-3155).
+	 */
+	public SparseChangeSetPipeline(ExecutorService readerExecutor, ExecutorService workerExecutor,
+			int maxChangeSetsAhead, String tableId, List<ColumnModel> schema, Iterator<SparseRowDto> rowStream,
+			int maxBytesPerChangeSet, boolean ignoreRowIdAndVersion) {
+		this.tableId = tableId;
+		this.schema = schema;
+		this.maxBytesPerChangeSet = maxBytesPerChangeSet;
+		this.ignoreRowIdAndVersion = ignoreRowIdAndVersion;
+		this.workerExecutor = workerExecutor;
+		this.changeSets = new ArrayBlockingQueue<>(maxChangeSetsAhead);
+		this.reader = readerExecutor.submit(() -> {
+			readRows(rowStream);
+			return null;
+		});
+	}
+
+	/**
+	 * Cut the rows into batches and hand each batch to a worker.
+	 *
+	 * @param rowStream
+	 * @throws InterruptedException When the pipeline was closed.
+	 */
+	private void readRows(Iterator<SparseRowDto> rowStream) throws InterruptedException {
+		try {
+			List<SparseRowDto> batch = new ArrayList<>();
+			int batchSizeBytes = 0;
+			while (rowStream.hasNext()) {
+				SparseRowDto row = rowStream.next();
+				if (ignoreRowIdAndVersion) {
+					row.setRowId(null);
+					row.setVersionNumber(null);
+				}
+				batch.add(row);
+				// batch using the actual size of the row.
+				batchSizeBytes += TableModelUtils.calculateActualRowSize(row);
+				if (batchSizeBytes >= maxBytesPerChangeSet) {
+					buildChangeSet(batch);
+					batch = new ArrayList<>();
+					batchSizeBytes = 0;
+				}
+			}
+			if (!batch.isEmpty()) {
+				buildChangeSet(batch);
+			}
+			changeSets.put(END);
+		} catch (InterruptedException e) {
+			throw e;
+		} catch (Throwable e) {
+			CompletableFuture<SparseChangeSet> failed = new CompletableFuture<>();
+			failed.completeExceptionally(e);
+			changeSets.put(failed);
+		}
+	}
+
+	private void buildChangeSet(List<SparseRowDto> batch) throws InterruptedException {
+		// The etag is set by the caller once the change set before it was appended.
+		changeSets.put(workerExecutor.submit(() -> new SparseChangeSet(tableId, schema, batch, null)));
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (nextChangeSet == null) {
+			try {
+				nextChangeSet = changeSets.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+		return nextChangeSet != END;
+	}
+
+	@Override
+	public SparseChangeSet next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Future<SparseChangeSet> current = nextChangeSet;
+		nextChangeSet = null;
+		try {
+			return current.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * Stop the reader and the workers when the caller stops before the end of the
+	 * stream.
+	 */
+	@Override
+	public void close() {
+		reader.cancel(true);
+		List<Future<SparseChangeSet>> remaining = new ArrayList<>();
+		changeSets.drainTo(remaining);
+		remaining.forEach(changeSet -> changeSet.cancel(true));
+	}
+}
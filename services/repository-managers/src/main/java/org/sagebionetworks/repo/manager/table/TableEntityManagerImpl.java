@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
 import org.sagebionetworks.StackConfiguration;
@@ -112,6 +113,12 @@ public class TableEntityManagerImpl implements TableEntityManager {
 	
 	public static final int READ_LOCK_TIMEOUT_SEC = 60;
 	
+	/**
+	 * The change sets of a stream that are read ahead of the change set being
+	 * appended. Each change set holds up to maxBytesPerChangeSet.
+	 */
+	static final int MAX_CHANGE_SETS_AHEAD = 4;
+	
 	@Autowired
 	private TableRowTruthDAO tableRowTruthDao;
 	@Autowired
@@ -148,6 +155,18 @@ public class TableEntityManagerImpl implements TableEntityManager {
 	 * Injected by spring
 	 */
 	int maxBytesPerChangeSet;
+	
+	/**
+	 * Injected by spring. Reads the rows of each stream ahead of the change set
+	 * being appended, one thread per stream. Streams beyond the size of the pool
+	 * wait for a reader.
+	 */
+	ExecutorService rowReaderExecutor;
+	
+	/**
+	 * Injected by spring. Validates the change sets of all streams.
+	 */
+	ExecutorService changeSetExecutor;
 
 	/**
 	 * Injected via spring
@@ -157,6 +176,22 @@ public class TableEntityManagerImpl implements TableEntityManager {
 		this.maxBytesPerChangeSet = maxBytesPerChangeSet;
 	}
 
+	/**
+	 * Injected via spring
+	 * @param rowReaderExecutor
+	 */
+	public void setRowReaderExecutor(ExecutorService rowReaderExecutor) {
+		this.rowReaderExecutor = rowReaderExecutor;
+	}
+
+	/**
+	 * Injected via spring
+	 * @param changeSetExecutor
+	 */
+	public void setChangeSetExecutor(ExecutorService changeSetExecutor) {
+		this.changeSetExecutor = changeSetExecutor;
+	}
+
 
 	@WriteTransaction
 	@Override
@@ -250,34 +285,18 @@ public class TableEntityManagerImpl implements TableEntityManager {
 		 */
 		boolean ignoreRowIdAndVersion = !tableRowTruthDao.hasAtLeastOneChangeOfType(tableId, TableChangeType.ROW);
 		
-		List<SparseRowDto> batch = new LinkedList<SparseRowDto>();
-		int batchSizeBytes = 0;
 		long rowCount = 0;
-		while(rowStream.hasNext()){
-			SparseRowDto row = rowStream.next();
-			if(ignoreRowIdAndVersion){
-				row.setRowId(null);
-				row.setVersionNumber(null);
-			}
-			batch.add(row);
-			rowCount++;
-			// batch using the actual size of the row.
-			batchSizeBytes += TableModelUtils.calculateActualRowSize(row);
-			if(batchSizeBytes >= maxBytesPerChangeSet){
+		// The rows are read and validated in parallel while each change set is appended in order.
+		try (SparseChangeSetPipeline changeSets = new SparseChangeSetPipeline(rowReaderExecutor, changeSetExecutor,
+				MAX_CHANGE_SETS_AHEAD, tableId, columns, rowStream, maxBytesPerChangeSet, ignoreRowIdAndVersion)) {
+			while (changeSets.hasNext()) {
 				// Send this batch and keep the etag.
-				SparseChangeSet delta = new SparseChangeSet(tableId, columns, batch, etag);
+				SparseChangeSet delta = changeSets.next();
+				delta.setEtag(etag);
 				etag = appendBatchOfRowsToTable(user, columns, delta, results, txContext);
-				// Clear the batch
-				batch.clear();
-				batchSizeBytes = 0;
+				rowCount += delta.getRowCount();
 			}
 		}
-		// Send the last batch is there are any rows
-		if(!batch.isEmpty()){
-			// Validate there aren't any illegal file handle replaces
-			SparseChangeSet delta = new SparseChangeSet(tableId, columns, batch, etag);
-			etag = appendBatchOfRowsToTable(user, columns, delta, results, txContext);
-		}
 		// Done
 		UploadToTableResult result = new UploadToTableResult();
 		result.setRowsProcessed(rowCount);
@@ -2,6 +2,7 @@ package org.sagebionetworks.repo.manager.table;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import org.sagebionetworks.common.util.progress.ProgressCallback;
@@ -18,6 +19,7 @@ import org.sagebionetworks.table.cluster.ColumnChangeDetails;
 import org.sagebionetworks.table.cluster.QueryTranslator;
 import org.sagebionetworks.table.cluster.description.IndexDescription;
 import org.sagebionetworks.table.cluster.view.filter.ViewFilter;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.model.SparseChangeSet;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 
@@ -250,6 +252,14 @@ public interface TableIndexManager {
 	 */
 	void refreshViewBenefactors(IdAndVersion viewId);
 
+	/**
+	 * Remove the benefactors that are no longer used by the given view from the
+	 * view's benefactor table. The caller must hold an exclusive lock on the view.
+	 * 
+	 * @param viewId
+	 */
+	void deleteUnusedViewBenefactors(IdAndVersion viewId);
+
 	/**
 	 * Update the object replication for the given object data.
 	 * 
@@ -301,6 +311,52 @@ public interface TableIndexManager {
 	 * @return
 	 */
 	Long populateMaterializedViewFromDefiningSql(List<ColumnModel> viewSchema, QueryTranslator definingSql);
+	
+	/**
+	 * Record the current version of each source table of a materialized view, so
+	 * the view can later be refreshed from the source rows that changed after that
+	 * version.
+	 * 
+	 * @param viewId
+	 * @param definitionHash The hash of the definition the view was built from.
+	 * @param sources
+	 */
+	void recordMaterializedViewSourceVersions(IdAndVersion viewId, String definitionHash, List<IndexDescription> sources);
+	
+	/**
+	 * Get the rows of each source of a materialized view that changed since the
+	 * version of the source was recorded. A source whose version did not change is
+	 * left out.
+	 * 
+	 * @param viewId
+	 * @param definitionHash The hash of the current definition of the view.
+	 * @param sources
+	 * @param maxChanges     The maximum number of changed rows across all of the
+	 *                       sources.
+	 * @return {@link Optional#empty()} if the view must be fully rebuilt: the
+	 *         source versions were not recorded, the definition of the view or the
+	 *         schema of a source changed, or there are more than the maximum number
+	 *         of changes.
+	 */
+	Optional<List<SourceRowChanges>> getMaterializedViewSourceRowChanges(IdAndVersion viewId, String definitionHash,
+			List<IndexDescription> sources, long maxChanges);
+	
+	/**
+	 * Apply the changed source rows to the index of a materialized view. The rows
+	 * of the view built from a changed or deleted source row are deleted, and the
+	 * view rows for the changed source rows are rebuilt with the given SQL. The
+	 * current version of each changed source is then recorded.
+	 * 
+	 * @param viewSchema
+	 * @param viewIndex
+	 * @param definitionHash The hash of the current definition of the view.
+	 * @param changes
+	 * @param changedRowsSql The defining SQL of the view limited to the changed
+	 *                       source rows. Empty if no source rows were added or
+	 *                       updated.
+	 */
+	void applyMaterializedViewSourceRowChanges(List<ColumnModel> viewSchema, IndexDescription viewIndex, String definitionHash,
+			List<SourceRowChanges> changes, Optional<QueryTranslator> changedRowsSql);
 
 	/**
 	 * Reset the state of the table index described by the given {@link IndexDescription}
@@ -58,6 +58,7 @@ import org.sagebionetworks.table.model.Grouping;
 import org.sagebionetworks.table.model.ListColumnRowChanges;
 import org.sagebionetworks.table.model.SchemaChange;
 import org.sagebionetworks.table.model.SearchChange;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.model.SparseChangeSet;
 import org.sagebionetworks.table.query.util.ColumnTypeListMappings;
 import org.sagebionetworks.util.PaginationIterator;
@@ -935,6 +936,12 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		tableIndexDao.refreshViewBenefactors(viewId, scopeType.getObjectType().getMainType());
 	}
 	
+	@Override
+	public void deleteUnusedViewBenefactors(IdAndVersion viewId) {
+		ValidateArgument.required(viewId, "viewId");
+		tableIndexDao.deleteUnusedViewBenefactors(viewId);
+	}
+	
 	@Override
 	public void updateObjectReplication(ReplicationType replicationType, Iterator<ObjectDataDTO> objectData) {
 		updateObjectReplication(replicationType, objectData, BATCH_SIZE);
@@ -1153,10 +1160,93 @@ public class TableIndexManagerImpl implements TableIndexManager {
 		IndexDescription indexDescription = definingSql.getIndexDescription();
 		
 		return tableIndexDao.executeInWriteTransaction((TransactionStatus status) -> {
-			String insertSql = SQLTranslatorUtils.createMaterializedViewInsertSql(viewSchema, definingSql.getOutputSQL(), indexDescription);
+			String insertSql = SQLTranslatorUtils.createMaterializedViewInsertSql(viewSchema, definingSql.getOutputSQL(),
+					indexDescription, definingSql.includesRowIdAndVersion());
 			tableIndexDao.update(insertSql, definingSql.getParameters());
 			return 1L;
 		});
 	}
 	
+	@Override
+	public void recordMaterializedViewSourceVersions(IdAndVersion viewId, String definitionHash, List<IndexDescription> sources) {
+		tableIndexDao.recordMaterializedViewSourceVersions(viewId, definitionHash, sources);
+	}
+	
+	@Override
+	public Optional<List<SourceRowChanges>> getMaterializedViewSourceRowChanges(IdAndVersion viewId, String definitionHash,
+			List<IndexDescription> sources, long maxChanges) {
+		ValidateArgument.required(viewId, "viewId");
+		ValidateArgument.required(definitionHash, "definitionHash");
+		ValidateArgument.required(sources, "sources");
+		Optional<String> recordedHash = tableIndexDao.getMaterializedViewSourceVersionsDefinition(viewId);
+		if (!recordedHash.isPresent() || !recordedHash.get().equals(definitionHash)) {
+			return Optional.empty();
+		}
+		List<SourceRowChanges> changes = new ArrayList<>(sources.size());
+		long remaining = maxChanges;
+		for (IndexDescription source : sources) {
+			Optional<Long> recordedVersion = tableIndexDao.getMaterializedViewSourceVersion(viewId, source);
+			if (!recordedVersion.isPresent()) {
+				return Optional.empty();
+			}
+			// Nothing changed in a source that is still at the recorded version.
+			if (recordedVersion.get().equals(tableIndexDao.getMaxCurrentCompleteVersionForTable(source.getIdAndVersion()))) {
+				continue;
+			}
+			Optional<SourceRowChanges> change = tableIndexDao.getMaterializedViewSourceRowChanges(viewId, source, remaining);
+			if (!change.isPresent()) {
+				return Optional.empty();
+			}
+			remaining -= change.get().getChangedRowIds().size() + change.get().getDeletedRowIds().size();
+			changes.add(change.get());
+		}
+		return Optional.of(changes);
+	}
+	
+	@Override
+	public void applyMaterializedViewSourceRowChanges(List<ColumnModel> viewSchema, IndexDescription viewIndex, String definitionHash,
+			List<SourceRowChanges> changes, Optional<QueryTranslator> changedRowsSql) {
+		ValidateArgument.required(viewSchema, "viewSchema");
+		ValidateArgument.required(viewIndex, "viewIndex");
+		ValidateArgument.required(definitionHash, "definitionHash");
+		ValidateArgument.required(changes, "changes");
+		ValidateArgument.required(changedRowsSql, "changedRowsSql");
+		IdAndVersion viewId = viewIndex.getIdAndVersion();
+		boolean isSearchEnabled = tableIndexDao.isSearchEnabled(viewId);
+		List<ColumnModel> searchSchema = getSchemaForSearchIndex(viewSchema);
+		
+		tableIndexDao.executeInWriteTransaction((TransactionStatus status) -> {
+			// Remove the view rows built from any changed source row. The list column rows cascade.
+			for (SourceRowChanges change : changes) {
+				Set<Long> toDelete = new HashSet<>(change.getChangedRowIds());
+				toDelete.addAll(change.getDeletedRowIds());
+				tableIndexDao.deleteMaterializedViewRowsForSourceRows(viewId, change.getSource(), toDelete);
+			}
+			
+			Set<Long> newRowIds = new HashSet<>();
+			if (changedRowsSql.isPresent()) {
+				QueryTranslator sql = changedRowsSql.get();
+				String insertSql = SQLTranslatorUtils.createMaterializedViewInsertSql(viewSchema, sql.getOutputSQL(),
+						viewIndex, sql.includesRowIdAndVersion());
+				tableIndexDao.update(insertSql, sql.getParameters());
+				for (SourceRowChanges change : changes) {
+					newRowIds.addAll(tableIndexDao.getMaterializedViewRowIdsForSourceRows(viewId, change.getSource(), change.getChangedRowIds()));
+				}
+			}
+			
+			for (SourceRowChanges change : changes) {
+				tableIndexDao.recordMaterializedViewSourceVersion(viewId, definitionHash, change.getSource());
+			}
+			
+			if (!newRowIds.isEmpty()) {
+				populateListColumnIndexTables(viewId, viewSchema, newRowIds);
+				if (isSearchEnabled && !searchSchema.isEmpty()) {
+					List<TableRowData> rowsData = tableIndexDao.getTableDataForRowIds(viewId, searchSchema, newRowIds);
+					updateSearchIndex(viewIndex, rowsData.iterator());
+				}
+			}
+			return null;
+		});
+	}
+	
 }
@@ -251,6 +251,29 @@ public interface TableManagerSupport extends SchemaProvider {
 	<R> R tryRunWithTableNonExclusiveLock(ProgressCallback callback, ProgressingCallable<R> runner,
 			IdAndVersion...tableIds) throws Exception;
 
+	/**
+	 * Attempt to run the passed Callable without a lock on the table, using the
+	 * table's status as a fence. The Callable is only run if the table's status is
+	 * AVAILABLE, and its result is only returned if the table's status is unchanged
+	 * after the Callable completes. Any change to a table's index either resets the
+	 * table's status or updates its changed on, so an unchanged status means the
+	 * index was not changed while the Callable was running.
+	 * <p>
+	 * The result of the Callable might be discarded, so it must not have any side
+	 * effects and must not return null.
+	 * 
+	 * @param callback
+	 * @param runner
+	 * @param tableId
+	 * @return The result of the Callable. Optional.empty() if the table's status
+	 *         was not AVAILABLE or changed while the Callable was running. For this
+	 *         case the caller should run with
+	 *         {@link #tryRunWithTableNonExclusiveLock(ProgressCallback, ProgressingCallable, IdAndVersion...)}.
+	 * @throws Exception
+	 */
+	<R> Optional<R> tryRunWithTableStatusFence(ProgressCallback callback, ProgressingCallable<R> runner,
+			IdAndVersion tableId) throws Exception;
+
 	/**
 	 * @see TableManagerSupport#tryRunWithTableExclusiveLock(ProgressCallback,
 	 *      IdAndVersion, int, ProgressingCallable)
@@ -8,6 +8,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -410,6 +411,65 @@ public class TableManagerSupportImpl implements TableManagerSupport {
 		return writeReadSemaphoreRunner.tryRunWithReadLock(callback, callable, keys.toArray(new String[keys.size()]));
 	}
 
+	@Override
+	public <R> Optional<R> tryRunWithTableStatusFence(ProgressCallback callback, ProgressingCallable<R> runner,
+			IdAndVersion tableId) throws Exception {
+		ValidateArgument.required(runner, "runner");
+		ValidateArgument.required(tableId, "tableId");
+		Optional<TableStatus> before = getAvailableTableStatus(tableId);
+		if (!before.isPresent()) {
+			return Optional.empty();
+		}
+		R result;
+		try {
+			result = runner.call(callback);
+		} catch (Exception e) {
+			if (isTableStatusUnchanged(tableId, before.get())) {
+				throw e;
+			}
+			// The table changed while the runner was running so the failure might be due to the change.
+			return Optional.empty();
+		}
+		if (!isTableStatusUnchanged(tableId, before.get())) {
+			return Optional.empty();
+		}
+		return Optional.of(result);
+	}
+
+	/**
+	 * Get the status of the given table if the table is AVAILABLE.
+	 * 
+	 * @param idAndVersion
+	 * @return
+	 */
+	Optional<TableStatus> getAvailableTableStatus(IdAndVersion idAndVersion) {
+		try {
+			TableStatus status = tableStatusDAO.getTableStatus(idAndVersion);
+			if (TableState.AVAILABLE.equals(status.getState())) {
+				return Optional.of(status);
+			}
+			return Optional.empty();
+		} catch (NotFoundException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Is the current status of the given table AVAILABLE and unchanged from the
+	 * passed status?
+	 * 
+	 * @param idAndVersion
+	 * @param before
+	 * @return
+	 */
+	boolean isTableStatusUnchanged(IdAndVersion idAndVersion, TableStatus before) {
+		return getAvailableTableStatus(idAndVersion).map(after -> 
+			Objects.equals(before.getResetToken(), after.getResetToken())
+				&& Objects.equals(before.getChangedOn(), after.getChangedOn())
+				&& Objects.equals(before.getLastTableChangeEtag(), after.getLastTableChangeEtag())
+		).orElse(false);
+	}
+
 	@Override
 	public void validateTableReadAccess(UserInfo userInfo, IndexDescription indexDescription)
 			throws UnauthorizedException, DatastoreException, NotFoundException {
@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -77,6 +78,15 @@ public class TableQueryManagerImpl implements TableQueryManager {
 		this.maxBytesPerRequest = maxBytesPerRequest;
 	}
 
+	/**
+	 * Injected via spring
+	 */
+	boolean statusFenceEnabled;
+
+	public void setStatusFenceEnabled(boolean statusFenceEnabled) {
+		this.statusFenceEnabled = statusFenceEnabled;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -238,7 +248,7 @@ public class TableQueryManagerImpl implements TableQueryManager {
 			LockUnavilableException, EmptyResultException {
 		// run with a read lock on the table and include the current etag.
 		IdAndVersion idAndVersion = IdAndVersion.parse(query.getMainQuery().getTranslator().getSingleTableId().orElseThrow(TableConstants.JOIN_NOT_SUPPORTED_IN_THIS_CONTEXT));
-		return tryRunWithTableReadLock(progressCallback, idAndVersion, (ProgressCallback callback) -> {
+		return tryRunWithTableReadLock(progressCallback, idAndVersion, rowHandler, (ProgressCallback callback) -> {
 					// We can only run this query if the table is available.
 					final TableStatus status = validateTableIsAvailable(idAndVersion.toString());
 					// run the query
@@ -266,8 +276,39 @@ public class TableQueryManagerImpl implements TableQueryManager {
 	 */
 	<R, T> R tryRunWithTableReadLock(ProgressCallback callback, IdAndVersion idAndversion, ProgressingCallable<R> runner)
 			throws TableUnavailableException, TableFailedException, EmptyResultException {
+		return tryRunWithTableReadLock(callback, idAndversion, null, runner);
+	}
+
+	/**
+	 * Run the passed runner while holding the table's read lock. When the status
+	 * fence is enabled and the rows are only captured in memory, the runner is
+	 * first run without the lock and is only run again with the lock if the
+	 * table's status changes while the runner is running.
+	 * 
+	 * @param callback
+	 * @param idAndversion
+	 * @param rowHandler   The handler used by the runner, if any.
+	 * @param runner
+	 * @return
+	 * @throws TableUnavailableException
+	 * @throws TableFailedException
+	 * @throws EmptyResultException
+	 */
+	<R, T> R tryRunWithTableReadLock(ProgressCallback callback, IdAndVersion idAndversion, RowHandler rowHandler,
+			ProgressingCallable<R> runner) throws TableUnavailableException, TableFailedException, EmptyResultException {
 
 		try {
+			// Rows streamed to any other handler cannot be taken back, so the fence is not used.
+			if (statusFenceEnabled && (rowHandler == null || rowHandler instanceof SinglePageRowHandler)) {
+				Optional<R> result = tableManagerSupport.tryRunWithTableStatusFence(callback, runner, idAndversion);
+				if (result.isPresent()) {
+					return result.get();
+				}
+				if (rowHandler != null) {
+					// discard any rows captured before the table changed.
+					((SinglePageRowHandler) rowHandler).clear();
+				}
+			}
 			return tableManagerSupport.tryRunWithTableNonExclusiveLock(callback, runner,
 					idAndversion);
 		} catch (RuntimeException | TableUnavailableException | EmptyResultException | TableFailedException e) {
@@ -692,7 +733,7 @@ public class TableQueryManagerImpl implements TableQueryManager {
 			// lookup the distinct benefactor IDs applied to the table.
 			Set<Long> tableBenefactors = null;
 			try {
-				tableBenefactors = indexDao.getDistinctLongValues(idAndVersion, dependencyDesc.getBenefactorColumnName());
+				tableBenefactors = indexDao.getDistinctBenefactorIds(idAndVersion, dependencyDesc.getBenefactorColumnName());
 			} catch (BadSqlGrammarException e) { // table has not been created yet
 				tableBenefactors = Collections.emptySet();
 			}
@@ -1,14 +1,17 @@
 package org.sagebionetworks.repo.manager.table;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.util.List;
 
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
+import org.sagebionetworks.repo.manager.file.RangedInputStream;
+import org.sagebionetworks.repo.manager.file.S3ByteRangeSource;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.dbo.dao.table.CSVToRowIterator;
 import org.sagebionetworks.repo.model.entity.IdAndVersion;
@@ -18,28 +21,29 @@ import org.sagebionetworks.repo.model.table.ColumnModel;
 import org.sagebionetworks.repo.model.table.TableUpdateResponse;
 import org.sagebionetworks.repo.model.table.UploadToTableRequest;
 import org.sagebionetworks.table.cluster.utils.CSVUtils;
-import org.sagebionetworks.util.FileProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import com.amazonaws.services.s3.model.GetObjectRequest;
-
 import au.com.bytecode.opencsv.CSVReader;
 
 public class TableUploadManagerImpl implements TableUploadManager {
 	
+	/**
+	 * The CSV is fetched in ranges that double from the first size to the maximum.
+	 * The range being parsed is held in memory.
+	 */
+	static final long FIRST_RANGE_BYTES = 1024 * 1024;
+	static final long MAX_RANGE_BYTES = 8 * 1024 * 1024;
+	
 	@Autowired
 	private TableManagerSupport tableManagerSupport;
 	@Autowired
 	private FileHandleManager fileHandleManager;
 	@Autowired
 	private SynapseS3Client s3Client;
-	@Autowired
-	private FileProvider fileProvider;
 
 	@Override
 	public TableUpdateResponse uploadCSV(ProgressCallback progressCallback, UserInfo user, UploadToTableRequest request, UploadRowProcessor rowProcessor) {
 		CSVReader reader = null;
-		File tempFile = null;
 		try{
 			// Get the filehandle
 			S3FileHandle fileHandle = (S3FileHandle) fileHandleManager.getRawFileHandle(user, request.getUploadFileHandleId());
@@ -52,12 +56,16 @@ public class TableUploadManagerImpl implements TableUploadManager {
 			IdAndVersion idAndVersion = IdAndVersion.parse(request.getTableId());
 			// Get the schema for the table
 			List<ColumnModel> tableSchema = tableManagerSupport.getTableSchema(idAndVersion);
-			// download the CSV to a temp file (see PLFM-4975).
-			tempFile = fileProvider.createTempFile("TableUploadManagerImpl", ".csv");
-			s3Client.getObject(new GetObjectRequest(fileHandle.getBucketName(), fileHandle.getKey()), tempFile);
+			/*
+			 * Stream the CSV from S3 as the rows are processed. Each range is a separate
+			 * request that is read into memory in full before it is parsed, so a slow
+			 * append never holds a connection open until it times out, which is why the
+			 * CSV used to be downloaded to a temp file first (see PLFM-4975).
+			 */
+			InputStream csvStream = new RangedInputStream(createS3Source(fileHandle), FIRST_RANGE_BYTES, MAX_RANGE_BYTES);
 			// Create a reader from the passed parameters
 			// Note: The CSVToRowIterator handles linesToSkip so we pass null linesToSkip for the reader.
-			reader = CSVUtils.createCSVReader(new InputStreamReader(fileProvider.createFileInputStream(tempFile), "UTF-8"), request.getCsvTableDescriptor(), null);
+			reader = CSVUtils.createCSVReader(new InputStreamReader(csvStream, "UTF-8"), request.getCsvTableDescriptor(), null);
 			
 			if(request.getColumnIds() != null && !request.getColumnIds().isEmpty()){
 				throw new IllegalArgumentException("Unsupported columnIds");
@@ -80,10 +88,17 @@ public class TableUploadManagerImpl implements TableUploadManager {
 					reader.close();
 				} catch (IOException e) {}
 			}
-			if(tempFile != null) {
-				tempFile.delete();
-			}
 		}
 	}
+	
+	/**
+	 * A source that fetches each range of the given CSV with a ranged GET.
+	 * 
+	 * @param fileHandle
+	 * @return
+	 */
+	ByteRangeSource createS3Source(final S3FileHandle fileHandle) {
+		return new S3ByteRangeSource(s3Client, fileHandle.getBucketName(), fileHandle.getKey(), fileHandle.getContentSize());
+	}
 
 }
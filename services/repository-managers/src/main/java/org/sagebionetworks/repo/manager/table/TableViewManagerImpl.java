@@ -419,6 +419,7 @@ public class TableViewManagerImpl implements TableViewManager {
 			Set<Long> rowsIdsWithChanges = null;
 			Set<Long> previousPageRowIdsWithChanges = Collections.emptySet();
 			IndexDescription indexDescription = tableManagerSupport.getIndexDescription(viewId);
+			boolean rowsChanged = false;
 			// Continue applying change to the view until none remain.
 			do {
 				Optional<TableState> optionalState = tableManagerSupport.getTableStatusState(viewId);
@@ -435,7 +436,7 @@ public class TableViewManagerImpl implements TableViewManager {
 					log.warn("Found " + intersectionWithPreviousPage.size()
 							+ " rows that were just updated but are still out-of-date for view:" + viewId.toString()
 							+ " View update will terminate.");
-					return;
+					break;
 				}
 				
 				if (!rowsIdsWithChanges.isEmpty()) {
@@ -443,8 +444,13 @@ public class TableViewManagerImpl implements TableViewManager {
 					indexManager.updateViewRowsInTransaction(indexDescription, scopeType, currentSchema, deltaFilter);
 					previousPageRowIdsWithChanges = rowsIdsWithChanges;
 					tableManagerSupport.updateChangedOnIfAvailable(viewId);
+					rowsChanged = true;
 				}
 			} while (rowsIdsWithChanges.size() >= pageSize);
+			if (rowsChanged) {
+				// The changes add benefactors but never remove them, so remove the ones the view no longer uses.
+				indexManager.deleteUnusedViewBenefactors(viewId);
+			}
 		} catch (Exception e) {
 			// failed.
 			log.error("Failed to apply changes to AVAILABLE view " + viewId, e);
@@ -33,6 +33,7 @@ import org.sagebionetworks.repo.manager.dataaccess.RestrictionInformationManager
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
 import org.sagebionetworks.repo.manager.file.FileHandleUrlRequest;
 import org.sagebionetworks.repo.manager.principal.PrincipalManager;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.AccessControlList;
 import org.sagebionetworks.repo.model.AccessControlListDAO;
@@ -66,7 +67,6 @@ import org.sagebionetworks.repo.model.UserProfile;
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
 import org.sagebionetworks.repo.model.dbo.DBOBasicDao;
 import org.sagebionetworks.repo.model.dbo.persistence.DBOUserGroup;
-import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.message.MessageToUser;
 import org.sagebionetworks.repo.model.principal.AliasType;
@@ -110,7 +110,7 @@ public class TeamManagerImpl implements TeamManager {
 	@Autowired
 	private PrincipalManager principalManager;
 	@Autowired
-	PrincipalPrefixDAO principalPrefixDAO;
+	PrincipalPrefixManager principalPrefixManager;
 	@Autowired
 	private DBOBasicDao basicDao;
 	@Autowired
@@ -404,15 +404,15 @@ public class TeamManagerImpl implements TeamManager {
 		switch (memberType) {
 			case ADMIN:
 				Set<Long> adminIds = teamDAO.getAdminTeamMemberIds(teamId).stream().map(Long::parseLong).collect(Collectors.toSet());
-				prefixMemberIds = principalPrefixDAO.listCertainTeamMembersForPrefix(fragment, Long.parseLong(teamId),  adminIds,null, limit, offset);
+				prefixMemberIds = principalPrefixManager.listCertainTeamMembersForPrefix(fragment, Long.parseLong(teamId),  adminIds,null, limit, offset);
 				break;
 			case MEMBER:
 				adminIds = teamDAO.getAdminTeamMemberIds(teamId).stream().map(Long::parseLong).collect(Collectors.toSet());
-				prefixMemberIds = principalPrefixDAO.listCertainTeamMembersForPrefix(fragment, Long.parseLong(teamId), null, adminIds, limit, offset);
+				prefixMemberIds = principalPrefixManager.listCertainTeamMembersForPrefix(fragment, Long.parseLong(teamId), null, adminIds, limit, offset);
 				break;
 			case ALL:
 				// Do not filter
-				prefixMemberIds = principalPrefixDAO.listTeamMembersForPrefix(fragment, Long.parseLong(teamId), limit, offset);
+				prefixMemberIds = principalPrefixManager.listTeamMembersForPrefix(fragment, Long.parseLong(teamId), limit, offset);
 				break;
 			default:
 				throw new IllegalArgumentException("memberType must be one of "
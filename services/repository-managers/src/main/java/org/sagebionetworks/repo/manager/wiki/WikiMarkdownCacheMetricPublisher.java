@@ -0,0 +1,39 @@
+package org.sagebionetworks.repo.manager.wiki;
+
+import java.util.Date;
+
+import org.sagebionetworks.cloudwatch.PeriodicMetricPublisher;
+import org.sagebionetworks.repo.model.dbo.wikiV2.WikiMarkdownCache;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Publishes the hit, miss and size statistics of the {@link WikiMarkdownCache}
+ * to cloud watch. The hit and miss counts are published as the change since the
+ * last time the timer fired.
+ *
+ */
+public class WikiMarkdownCacheMetricPublisher extends PeriodicMetricPublisher {
+
+	public static final String HITS = "hits";
+	public static final String MISSES = "misses";
+	public static final String EVICTIONS = "evictions";
+	public static final String CACHED_BYTES = "cachedBytes";
+
+	@Autowired
+	WikiMarkdownCache markdownCache;
+
+	public WikiMarkdownCacheMetricPublisher() {
+		super("Wiki-Markdown-Cache");
+	}
+
+	@Override
+	protected void publishMetrics(Date now) {
+		publishCountChange(HITS, markdownCache.getHitCount(), now);
+		publishCountChange(MISSES, markdownCache.getMissCount(), now);
+		publishCountChange(EVICTIONS, markdownCache.getEvictionCount(), now);
+		publishValue(CACHED_BYTES, markdownCache.getCurrentBytes(), StandardUnit.Bytes, now);
+	}
+
+}
@@ -2,10 +2,15 @@ package org.sagebionetworks.repo.web.controller;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +19,7 @@ import java.util.Set;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.sagebionetworks.repo.model.Entity;
 import org.sagebionetworks.repo.model.ErrorResponse;
 import org.sagebionetworks.repo.model.schema.CreateSchemaRequest;
@@ -47,6 +53,12 @@ public class JSONEntityHttpMessageConverter implements	HttpMessageConverter<JSON
 	private static final String VALIDATION_ERROR = "JSON Element in Entity is Unsupported: %s";
 	private static final String MISSING_ELEMENT_ERROR = "Missing element in child array of %s element on conversion";
 	
+	/**
+	 * Responses up to this size are buffered so the Content-Length header can be
+	 * set. Larger responses are streamed to the client as they are serialized.
+	 */
+	public static final int MAX_BUFFERED_RESPONSE_BYTES = 64 * 1024;
+	
 	/**
 	 * When set to true, this message converter will attempt to convert any object to JSON.
 	 */
@@ -104,11 +116,15 @@ public class JSONEntityHttpMessageConverter implements	HttpMessageConverter<JSON
 	
 	public static void validateJSONEntity(JSONEntity parsedEntity, String originalJsonString) 
 			throws JSONObjectAdapterException {
+		validateJSONEntity(parsedEntity, new JSONObjectAdapterImpl(originalJsonString));
+	}
+	
+	public static void validateJSONEntity(JSONEntity parsedEntity, JSONObjectAdapter originalObject) 
+			throws JSONObjectAdapterException {
 		// Validating: throws an IllegalArgumentException if the parsedEntity is missing
-		// an element from the originalJsonString
+		// an element from the originalObject
 		JSONObject parsedEntityJsonObject = EntityFactory.createJSONObjectForEntity(parsedEntity);
 		JSONObjectAdapter parsedObject = new JSONObjectAdapterImpl(parsedEntityJsonObject);
-		JSONObjectAdapter originalObject = new JSONObjectAdapterImpl(originalJsonString);
 		validateJSONEntityRecursive(parsedObject, originalObject);
 	}
 	
@@ -177,26 +193,25 @@ public class JSONEntityHttpMessageConverter implements	HttpMessageConverter<JSON
 			// HTTP 1.1 says that the default is ISO-8859-1
 			charsetForDeSerializingBody = HTTP_1_1_DEFAULT_CHARSET;
 		}
-		String jsonString = JSONEntityHttpMessageConverter.readToString(inputMessage.getBody(), charsetForDeSerializingBody);
+		// Parse the body as it is read rather than copying it into a string first.
+		JSONObject jsonObject = readToJSONObject(inputMessage.getBody(), charsetForDeSerializingBody);
 		try {
-			JSONEntity entity = EntityFactory.createEntityFromJSONString(jsonString, clazz);
+			JSONEntity entity = EntityFactory.createEntityFromJSONObject(jsonObject, clazz);
 			// validate the entity if its class is one which we should validate
 			if (classesToValidateConversion.contains(clazz)) {
-				validateJSONEntity(entity, jsonString);
+				validateJSONEntity(entity, new JSONObjectAdapterImpl(jsonObject));
 			}
 			return entity;
 		} catch (JSONObjectAdapterException e) {
 			// Try to convert entity type to a concrete type and try again. See PLFM-2079.
 			try {
-				JSONObject jsonObject = new JSONObject(jsonString);
 				if(jsonObject.has(ENTITY_TYPE)){
 					// get the entity type so we can replace it with concrete type
 					String type = jsonObject.getString(ENTITY_TYPE);
-				jsonObject.remove(ENTITY_TYPE);
+					jsonObject.remove(ENTITY_TYPE);
 					jsonObject.put(CONCRETE_TYPE, type);
-					jsonString = jsonObject.toString();
 					// try again
-					return EntityFactory.createEntityFromJSONString(jsonString, clazz);
+					return EntityFactory.createEntityFromJSONObject(jsonObject, clazz);
 				}else{
 					// Something else went wrong
 					throw new HttpMessageNotReadableException(e.getMessage(), e);
@@ -209,6 +224,31 @@ public class JSONEntityHttpMessageConverter implements	HttpMessageConverter<JSON
 		}
 	}
 
+	/**
+	 * Parse a JSON object directly from an input stream.
+	 * 
+	 * @param in
+	 * @param charSet
+	 * @return
+	 * @throws IOException
+	 */
+	public static JSONObject readToJSONObject(InputStream in, Charset charSet) throws IOException {
+		if(in == null) throw new IllegalArgumentException("No content to map to Object due to end of input");
+		try {
+			if(charSet == null){
+				charSet = Charset.forName(UTF_8);
+			}
+			return new JSONObject(new JSONTokener(new InputStreamReader(new BufferedInputStream(in), charSet)));
+		} catch (JSONException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new HttpMessageNotReadableException(e.getMessage(), e);
+		} finally {
+			in.close();
+		}
+	}
+
 	/**
 	 * Read a string from an input stream
 	 * 
@@ -303,22 +343,96 @@ public class JSONEntityHttpMessageConverter implements	HttpMessageConverter<JSON
 			}
 			HttpHeaders headers = outputMessage.getHeaders();
 			headers.setContentType(contentTypeForResponseHeader);
-			String jsonString;
-			if (contentTypeForResponseHeader.includes(MediaType.TEXT_PLAIN)) {
-				jsonString = convertEntityToPlainText(entity);
+			boolean plainTextError = contentTypeForResponseHeader.includes(MediaType.TEXT_PLAIN) && entity instanceof ErrorResponse;
+			// Any conversion error happens before the first byte of the response is written.
+			JSONObject json = plainTextError ? null : EntityFactory.createJSONObjectForEntity(entity);
+			// The JSON is written as it is serialized rather than building the full string first.
+			Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new ResponseBodyOutputStream(outputMessage, MAX_BUFFERED_RESPONSE_BYTES), charsetForSerializingBody));
+			if (plainTextError) {
+				writer.write(((ErrorResponse) entity).getReason());
 			} else {
-				jsonString = EntityFactory.createJSONStringForEntity(entity);
-			}
-			long length = JSONEntityHttpMessageConverter.writeToStream(jsonString, outputMessage.getBody(), charsetForSerializingBody);
-			if (headers.getContentLength() == -1) {
-				headers.setContentLength(length);
+				json.write(writer);
 			}
+			writer.close();
 		} catch (JSONObjectAdapterException e) {
 			throw new HttpMessageNotWritableException(e.getMessage(), e);
+		} catch (JSONException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new HttpMessageNotWritableException(e.getMessage(), e);
 		}
 
 	}
 	
+	/**
+	 * The body of a response. The body is held in memory until it exceeds the
+	 * given size, so small responses are sent with a Content-Length. Once the
+	 * limit is exceeded the headers are committed and everything else is written
+	 * directly to the response.
+	 */
+	static class ResponseBodyOutputStream extends OutputStream {
+		
+		private final HttpOutputMessage outputMessage;
+		private final int maxBufferedBytes;
+		private ByteArrayOutputStream buffer;
+		private OutputStream body;
+		
+		ResponseBodyOutputStream(HttpOutputMessage outputMessage, int maxBufferedBytes) {
+			this.outputMessage = outputMessage;
+			this.maxBufferedBytes = maxBufferedBytes;
+			this.buffer = new ByteArrayOutputStream(Math.min(maxBufferedBytes, 1024));
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (body == null && buffer.size() + len > maxBufferedBytes) {
+				// Too large to buffer so start streaming the response.
+				body = outputMessage.getBody();
+				buffer.writeTo(body);
+				buffer = null;
+			}
+			if (body == null) {
+				buffer.write(b, off, len);
+			} else {
+				body.write(b, off, len);
+			}
+		}
+		
+		/**
+		 * Has any part of the body been sent?
+		 * 
+		 * @return
+		 */
+		boolean isStreaming() {
+			return body != null;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			if (body == null) {
+				HttpHeaders headers = outputMessage.getHeaders();
+				if (headers.getContentLength() == -1) {
+					headers.setContentLength(buffer.size());
+				}
+				body = outputMessage.getBody();
+				buffer.writeTo(body);
+				buffer = null;
+			}
+			try {
+				body.flush();
+			} finally {
+				body.close();
+			}
+		}
+	}
+	
 	public static String convertEntityToPlainText(JSONEntity entity) throws JSONObjectAdapterException {
 		if (entity instanceof ErrorResponse) {
 			return ((ErrorResponse)entity).getReason();
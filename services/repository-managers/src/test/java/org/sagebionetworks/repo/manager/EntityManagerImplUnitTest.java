@@ -80,6 +80,7 @@ import org.sagebionetworks.repo.model.dbo.schema.DerivedAnnotationDao;
 import org.sagebionetworks.repo.model.dbo.schema.EntitySchemaValidationResultDao;
 import org.sagebionetworks.repo.model.entity.BindSchemaToEntityRequest;
 import org.sagebionetworks.repo.model.entity.Direction;
+import org.sagebionetworks.repo.model.entity.EntityChildrenPageToken;
 import org.sagebionetworks.repo.model.entity.EntityLookupRequest;
 import org.sagebionetworks.repo.model.entity.FileHandleUpdateRequest;
 import org.sagebionetworks.repo.model.entity.SortBy;
@@ -409,7 +410,7 @@ public class EntityManagerImplUnitTest {
 				.thenReturn(nonvisibleChildren);
 
 		when(mockNodeManager.getChildren(anyString(), anyListOf(EntityType.class), anySetOf(Long.class),
-				any(SortBy.class), any(Direction.class), anyLong(), anyLong())).thenReturn(childPage);
+				any(EntityChildrenPageToken.class))).thenReturn(childPage);
 
 		ChildStatsResponse statsReponse = new ChildStatsResponse().withSumFileSizesBytes(123L).withTotalChildCount(4L);
 		when(mockNodeManager.getChildrenStats(any(ChildStatsRequest.class))).thenReturn(statsReponse);
@@ -422,7 +423,7 @@ public class EntityManagerImplUnitTest {
 		verify(mockAuthorizationManger).hasAccess(mockUser, childRequest.getParentId(), ACCESS_TYPE.READ);
 		verify(mockEntityAclManager).getNonvisibleChildren(mockUser, childRequest.getParentId());
 		verify(mockNodeManager).getChildren(childRequest.getParentId(), childRequest.getIncludeTypes(),
-				nonvisibleChildren, DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, DEFAULT_LIMIT + 1, DEFAULT_OFFSET);
+				nonvisibleChildren, new EntityChildrenPageToken(DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, DEFAULT_LIMIT, DEFAULT_OFFSET));
 
 		verify(mockNodeManager).getChildrenStats(statsRequestCaptor.capture());
 		ChildStatsRequest statsRequest = statsRequestCaptor.getValue();
@@ -459,7 +460,7 @@ public class EntityManagerImplUnitTest {
 	public void testGetChildrenNullParentId() {
 
 		when(mockNodeManager.getChildren(anyString(), anyListOf(EntityType.class), anySetOf(Long.class),
-				any(SortBy.class), any(Direction.class), anyLong(), anyLong())).thenReturn(childPage);
+				any(EntityChildrenPageToken.class))).thenReturn(childPage);
 
 		ChildStatsResponse statsReponse = new ChildStatsResponse().withSumFileSizesBytes(123L).withTotalChildCount(4L);
 		when(mockNodeManager.getChildrenStats(any(ChildStatsRequest.class))).thenReturn(statsReponse);
@@ -473,8 +474,8 @@ public class EntityManagerImplUnitTest {
 		verify(mockAuthorizationManger, never()).hasAccess(any(UserInfo.class), anyString(), any(ACCESS_TYPE.class));
 		verify(mockEntityAclManager).getNonvisibleChildren(mockUser, EntityManagerImpl.ROOT_ID);
 		verify(mockNodeManager).getChildren(EntityManagerImpl.ROOT_ID, EntityManagerImpl.PROJECT_ONLY,
-				new HashSet<Long>(), SortBy.NAME, Direction.ASC, NextPageToken.DEFAULT_LIMIT + 1,
-				NextPageToken.DEFAULT_OFFSET);
+				new HashSet<Long>(), new EntityChildrenPageToken(SortBy.NAME, Direction.ASC, NextPageToken.DEFAULT_LIMIT,
+						NextPageToken.DEFAULT_OFFSET));
 	}
 
 	@Test
@@ -517,7 +518,7 @@ public class EntityManagerImplUnitTest {
 				.thenReturn(nonvisibleChildren);
 
 		when(mockNodeManager.getChildren(anyString(), anyListOf(EntityType.class), anySetOf(Long.class),
-				any(SortBy.class), any(Direction.class), anyLong(), anyLong())).thenReturn(childPage);
+				any(EntityChildrenPageToken.class))).thenReturn(childPage);
 
 		ChildStatsResponse statsReponse = new ChildStatsResponse().withSumFileSizesBytes(123L).withTotalChildCount(4L);
 		when(mockNodeManager.getChildrenStats(any(ChildStatsRequest.class))).thenReturn(statsReponse);
@@ -526,16 +527,62 @@ public class EntityManagerImplUnitTest {
 		long offset = 10L;
 		childPage.clear();
 		for (int i = 0; i < limit + 1; i++) {
-			childPage.add(new EntityHeader());
+			childPage.add(new EntityHeader().setId("syn" + i).setName("name" + i));
 		}
+		// tokens with an offset are still accepted
 		NextPageToken token = new NextPageToken(limit, offset);
 		childRequest.setNextPageToken(token.toToken());
 		// call under test
 		EntityChildrenResponse response = entityManager.getChildren(mockUser, childRequest);
 		assertNotNull(response);
 		verify(mockNodeManager).getChildren(childRequest.getParentId(), childRequest.getIncludeTypes(),
-				nonvisibleChildren, DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, limit + 1, offset);
-		assertEquals(new NextPageToken(limit, offset + limit).toToken(), response.getNextPageToken());
+				nonvisibleChildren, new EntityChildrenPageToken(DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, limit, offset));
+		assertEquals((int) limit, response.getPage().size());
+		// the next page starts after the last child of this page
+		assertEquals(new EntityChildrenPageToken(DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, limit, 9L, "name9").toToken(),
+				response.getNextPageToken());
+	}
+
+	@Test
+	public void testGetChildrenPageAfterLastChild() {
+
+		when(mockAuthorizationManger.hasAccess(mockUser, childRequest.getParentId(), ACCESS_TYPE.READ))
+				.thenReturn(AuthorizationStatus.authorized());
+		when(mockEntityAclManager.getNonvisibleChildren(mockUser, childRequest.getParentId()))
+				.thenReturn(nonvisibleChildren);
+
+		when(mockNodeManager.getChildren(anyString(), anyListOf(EntityType.class), anySetOf(Long.class),
+				any(EntityChildrenPageToken.class))).thenReturn(childPage);
+
+		ChildStatsResponse statsReponse = new ChildStatsResponse().withSumFileSizesBytes(123L).withTotalChildCount(4L);
+		when(mockNodeManager.getChildrenStats(any(ChildStatsRequest.class))).thenReturn(statsReponse);
+
+		EntityChildrenPageToken token = new EntityChildrenPageToken(DEFAULT_SORT_BY, DEFAULT_SORT_DIRECTION, 10L, 9L,
+				"name9");
+		childRequest.setNextPageToken(token.toToken());
+		// call under test
+		EntityChildrenResponse response = entityManager.getChildren(mockUser, childRequest);
+		assertNotNull(response);
+		verify(mockNodeManager).getChildren(childRequest.getParentId(), childRequest.getIncludeTypes(),
+				nonvisibleChildren, token);
+		assertNull(response.getNextPageToken());
+	}
+
+	@Test
+	public void testGetChildrenWithTokenForDifferentSort() {
+
+		when(mockAuthorizationManger.hasAccess(mockUser, childRequest.getParentId(), ACCESS_TYPE.READ))
+				.thenReturn(AuthorizationStatus.authorized());
+		when(mockEntityAclManager.getNonvisibleChildren(mockUser, childRequest.getParentId()))
+				.thenReturn(nonvisibleChildren);
+
+		childRequest.setNextPageToken(
+				new EntityChildrenPageToken(SortBy.CREATED_ON, DEFAULT_SORT_DIRECTION, 10L, 9L, 123L).toToken());
+
+		Assertions.assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			entityManager.getChildren(mockUser, childRequest);
+		});
 	}
 
 	@Test
@@ -166,13 +166,19 @@ public class PersonalAccessTokenManagerAutowiredTest {
 
 		AccessTokenRecord preUpdate = personalAccessTokenManager.getTokenRecord(userInfo, tokenId1);
 
-		Thread.sleep(100L);
+		Thread.sleep(1000L);
 		// method under test
 		personalAccessTokenManager.updateLastUsedTime(tokenId1);
 
 		AccessTokenRecord postUpdate = personalAccessTokenManager.getTokenRecord(userInfo, tokenId1);
-		// we update no more than once per minute
+		// the time is not written until the flush
 		assertTrue(postUpdate.getLastUsed().equals(preUpdate.getLastUsed()));
+
+		// method under test
+		personalAccessTokenManager.flushLastUsedTimes();
+
+		AccessTokenRecord postFlush = personalAccessTokenManager.getTokenRecord(userInfo, tokenId1);
+		assertTrue(postFlush.getLastUsed().after(preUpdate.getLastUsed()));
 	}
 
 }
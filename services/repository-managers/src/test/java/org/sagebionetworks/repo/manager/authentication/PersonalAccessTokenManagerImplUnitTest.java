@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -303,29 +304,48 @@ public class PersonalAccessTokenManagerImplUnitTest {
 	}
 
 	@Test
-	void testUpdateLastUsedTimeHappyCase() {
-		when(mockPersonalAccessTokenDao.getLastUsedDate(TOKEN_ID)).thenReturn(new Date(System.currentTimeMillis()));
-		when(mockClock.currentTimeMillis()).thenReturn(System.currentTimeMillis()+70000);
+	void testUpdateLastUsedTime() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L, 3000L, 2000L);
 		// method under test
 		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
-		verify(mockPersonalAccessTokenDao).updateLastUsed(TOKEN_ID);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
+		personalAccessTokenManager.updateLastUsedTime("888");
+		// nothing is written until the flush
+		verifyNoMoreInteractions(mockPersonalAccessTokenDao);
+
+		// method under test
+		personalAccessTokenManager.flushLastUsedTimes();
+
+		Map<String, Date> expected = new HashMap<>();
+		expected.put(TOKEN_ID, new Date(3000L));
+		expected.put("888", new Date(2000L));
+		verify(mockPersonalAccessTokenDao).updateLastUsed(expected);
 	}
 
 	@Test
-	void testUpdateLastUsedFirstTime() {
-		when(mockPersonalAccessTokenDao.getLastUsedDate(TOKEN_ID)).thenThrow(new NotFoundException(""));
+	void testFlushLastUsedTimesWithNothingPending() {
 		// method under test
-		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
-		verify(mockPersonalAccessTokenDao).updateLastUsed(TOKEN_ID);
+		personalAccessTokenManager.flushLastUsedTimes();
+		verify(mockPersonalAccessTokenDao, never()).updateLastUsed(any(Map.class));
 	}
 
 	@Test
-	void testUpdateLastUsedTimeTooFrequentChange() {
-		when(mockClock.currentTimeMillis()).thenReturn(System.currentTimeMillis());
-		when(mockPersonalAccessTokenDao.getLastUsedDate(TOKEN_ID)).thenReturn(new Date(System.currentTimeMillis()));
+	void testFlushLastUsedTimesOnlyOnce() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
 		// method under test
+		personalAccessTokenManager.flushLastUsedTimes();
+		personalAccessTokenManager.flushLastUsedTimes();
+		verify(mockPersonalAccessTokenDao).updateLastUsed(Collections.singletonMap(TOKEN_ID, new Date(1000L)));
+	}
+
+	@Test
+	void testShutdown() {
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
 		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
-		verify(mockPersonalAccessTokenDao, never()).updateLastUsed(TOKEN_ID);
+		// method under test
+		personalAccessTokenManager.shutdown();
+		verify(mockPersonalAccessTokenDao).updateLastUsed(Collections.singletonMap(TOKEN_ID, new Date(1000L)));
 	}
 	
 	@Test
@@ -412,6 +432,23 @@ public class PersonalAccessTokenManagerImplUnitTest {
 		verify(mockPersonalAccessTokenDao).deleteToken(TOKEN_ID);
 	}
 
+	@Test
+	void testRevokeTokenWithPendingLastUsed() {
+		AccessTokenRecord tokenRecord = new AccessTokenRecord();
+		tokenRecord.setId(TOKEN_ID);
+		tokenRecord.setUserId(USER_ID.toString());
+		when(mockPersonalAccessTokenDao.getTokenRecord(TOKEN_ID)).thenReturn(tokenRecord);
+		when(mockClock.currentTimeMillis()).thenReturn(1000L);
+		personalAccessTokenManager.updateLastUsedTime(TOKEN_ID);
+
+		// method under test
+		personalAccessTokenManager.revokeToken(userInfo, TOKEN_ID);
+		personalAccessTokenManager.flushLastUsedTimes();
+
+		verify(mockPersonalAccessTokenDao).deleteToken(TOKEN_ID);
+		verify(mockPersonalAccessTokenDao, never()).updateLastUsed(any(Map.class));
+	}
+
 	@Test
 	void testRevokeToken_admin() {
 		UserInfo adminUserInfo = new UserInfo(true);
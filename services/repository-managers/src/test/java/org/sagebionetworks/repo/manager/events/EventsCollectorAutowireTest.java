@@ -5,6 +5,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
@@ -13,9 +14,14 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
 import org.sagebionetworks.kinesis.AwsKinesisFirehoseLogger;
 import org.sagebionetworks.repo.model.message.TransactionSynchronizationProxy;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +46,15 @@ public class EventsCollectorAutowireTest {
 	@Mock
 	private AwsKinesisFirehoseLogger firehoseLogger;
 
+	@Mock
+	private Consumer mockConsumer;
+
+	@Mock
+	private StackConfiguration mockStackConfig;
+
+	@Captor
+	private ArgumentCaptor<ProfileData> profileCaptor;
+
 	private String streamName = "someStreamName";
 	private String otherStreamName = "anotherStreamName";
 
@@ -50,8 +65,15 @@ public class EventsCollectorAutowireTest {
 		MockitoAnnotations.initMocks(this);
 		// Spies on the transaction synchronization so that we can verify calls on it
 		transactionSynchronization = Mockito.spy(transactionSynchronization);
+		when(mockStackConfig.getEventsQueueCapacity()).thenReturn(10);
+		when(mockStackConfig.getEventsQueueOverflowPolicy()).thenReturn(EventsQueueOverflowPolicy.DROP_OLDEST.name());
+		when(mockStackConfig.getStackInstance()).thenReturn("test");
+		createCollector();
+	}
+
+	private void createCollector() {
 		// We mock the firehose logger
-		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization);
+		statsEventsCollector = new EventsCollectorImpl(firehoseLogger, logRecordProviderFactory, transactionSynchronization, mockConsumer, mockStackConfig);
 		// Replace the autowired collector with ours so that we do not use firehose
 		collectorClient.setEventsCollector(statsEventsCollector);
 	}
@@ -143,4 +165,69 @@ public class EventsCollectorAutowireTest {
 		verify(firehoseLogger, times(1)).logBatch(any(), any());
 
 	}
+
+	@Test
+	public void testCollectEventsOverflowDropOldest() {
+		when(mockStackConfig.getEventsQueueCapacity()).thenReturn(2);
+		createCollector();
+
+		EventStub event1 = new EventStub(streamName);
+		EventStub event2 = new EventStub(streamName);
+		EventStub event3 = new EventStub(streamName);
+
+		// Call under test
+		statsEventsCollector.collectEvents(ImmutableList.of(event1, event2, event3));
+
+		Assertions.assertEquals(2, statsEventsCollector.getQueueDepth());
+		Assertions.assertEquals(1L, statsEventsCollector.getDroppedCount());
+
+		statsEventsCollector.flush();
+
+		verify(firehoseLogger, times(1)).logBatch(eq(streamName), eq(ImmutableList.of(event2, event3)));
+	}
+
+	@Test
+	public void testCollectEventsOverflowDropNewest() {
+		when(mockStackConfig.getEventsQueueCapacity()).thenReturn(2);
+		when(mockStackConfig.getEventsQueueOverflowPolicy()).thenReturn(EventsQueueOverflowPolicy.DROP_NEWEST.name());
+		createCollector();
+
+		EventStub event1 = new EventStub(streamName);
+		EventStub event2 = new EventStub(streamName);
+		EventStub event3 = new EventStub(streamName);
+
+		// Call under test
+		statsEventsCollector.collectEvents(ImmutableList.of(event1, event2, event3));
+
+		Assertions.assertEquals(1L, statsEventsCollector.getDroppedCount());
+
+		statsEventsCollector.flush();
+
+		verify(firehoseLogger, times(1)).logBatch(eq(streamName), eq(ImmutableList.of(event1, event2)));
+	}
+
+	@Test
+	public void testFlushPublishesMetrics() {
+		when(mockStackConfig.getEventsQueueCapacity()).thenReturn(1);
+		createCollector();
+
+		statsEventsCollector.collectEvents(ImmutableList.of(new EventStub(streamName), new EventStub(streamName)));
+
+		// Call under test
+		statsEventsCollector.flush();
+		statsEventsCollector.flush();
+
+		verify(mockConsumer, times(4)).addProfileData(profileCaptor.capture());
+
+		List<ProfileData> metrics = profileCaptor.getAllValues();
+
+		Assertions.assertEquals("Events-Queue-test", metrics.get(0).getNamespace());
+		Assertions.assertEquals(EventsCollectorImpl.METRIC_QUEUE_DEPTH, metrics.get(0).getName());
+		Assertions.assertEquals(1.0, metrics.get(0).getValue());
+		Assertions.assertEquals(EventsCollectorImpl.METRIC_DROPPED_EVENTS, metrics.get(1).getName());
+		Assertions.assertEquals(1.0, metrics.get(1).getValue());
+		// The second flush only reports the events dropped since the first
+		Assertions.assertEquals(0.0, metrics.get(2).getValue());
+		Assertions.assertEquals(0.0, metrics.get(3).getValue());
+	}
 }
@@ -0,0 +1,220 @@
+package org.sagebionetworks.repo.manager.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.S3Object;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkFileFetcherTest {
+
+	@Mock
+	private SynapseS3Client mockS3Client;
+	@Mock
+	private ExecutorService mockExecutor;
+
+	private S3FileHandle one;
+	private S3FileHandle two;
+	private S3FileHandle three;
+	private List<S3FileHandle> files;
+
+	@BeforeEach
+	public void before() {
+		one = createFile("1", "one");
+		two = createFile("2", "two");
+		three = createFile("3", "three");
+		files = Arrays.asList(one, two, three);
+	}
+
+	/**
+	 * Each file contains its own name.
+	 */
+	static S3FileHandle createFile(String id, String fileName) {
+		return new S3FileHandle().setId(id).setBucketName("bucket").setKey("key/" + fileName)
+				.setFileName(fileName).setContentSize((long) fileName.length());
+	}
+
+	void setupS3() {
+		when(mockS3Client.getObject(any(String.class), any(String.class))).thenAnswer(invocation -> {
+			String key = invocation.getArgument(1);
+			S3Object object = new S3Object();
+			object.setObjectContent(new ByteArrayInputStream(key.substring(4).getBytes(StandardCharsets.UTF_8)));
+			return object;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	void setupExecutor() {
+		// Run each fetch as soon as it is submitted.
+		when(mockExecutor.submit(any(Callable.class))).thenAnswer(invocation -> {
+			FutureTask<byte[]> task = new FutureTask<>((Callable<byte[]>) invocation.getArgument(0));
+			task.run();
+			return task;
+		});
+	}
+
+	static String read(InputStream in) throws IOException {
+		try (InputStream toRead = in) {
+			return IOUtils.toString(toRead, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testOpenFileWithPrefetch() throws IOException {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, files, 2, 100L);
+		// call under test
+		fetcher.startFetches();
+		assertEquals(2, fetcher.getStartedCount());
+		assertEquals(6L, fetcher.getBufferedBytes());
+		// call under test
+		assertEquals("one", read(fetcher.openFile(one)));
+		// the next file is fetched once one is consumed.
+		assertEquals(2, fetcher.getStartedCount());
+		assertEquals(8L, fetcher.getBufferedBytes());
+		assertEquals("two", read(fetcher.openFile(two)));
+		assertEquals("three", read(fetcher.openFile(three)));
+		assertEquals(0, fetcher.getStartedCount());
+		assertEquals(0L, fetcher.getBufferedBytes());
+		// each file is read from S3 once.
+		verify(mockS3Client, times(3)).getObject(any(String.class), any(String.class));
+	}
+
+	@Test
+	public void testStartFetchesWithBufferLimit() throws IOException {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, files, 10, 6L);
+		// call under test
+		fetcher.startFetches();
+		// three would exceed the buffer.
+		assertEquals(2, fetcher.getStartedCount());
+		assertEquals(6L, fetcher.getBufferedBytes());
+		assertEquals("one", read(fetcher.openFile(one)));
+		// still does not fit.
+		assertEquals(1, fetcher.getStartedCount());
+		assertEquals("two", read(fetcher.openFile(two)));
+		assertEquals(1, fetcher.getStartedCount());
+		assertEquals(5L, fetcher.getBufferedBytes());
+		assertEquals("three", read(fetcher.openFile(three)));
+	}
+
+	@Test
+	public void testOpenFileLargerThanBuffer() throws IOException {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, Arrays.asList(three, one), 10, 4L);
+		// call under test
+		fetcher.startFetches();
+		// three never fits so it is skipped.
+		assertEquals(1, fetcher.getStartedCount());
+		verify(mockS3Client).getObject("bucket", "key/one");
+		// three is streamed directly.
+		assertEquals("three", read(fetcher.openFile(three)));
+		assertEquals("one", read(fetcher.openFile(one)));
+		verify(mockExecutor, times(1)).submit(any(Callable.class));
+	}
+
+	@Test
+	public void testOpenFileWithNullSize() throws IOException {
+		setupS3();
+		one.setContentSize(null);
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, Arrays.asList(one), 10, 100L);
+		// call under test
+		fetcher.startFetches();
+		assertEquals(0, fetcher.getStartedCount());
+		assertEquals("one", read(fetcher.openFile(one)));
+		verify(mockExecutor, never()).submit(any(Callable.class));
+	}
+
+	@Test
+	public void testOpenFileDiscardsSkippedFiles() throws IOException {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, files, 2, 100L);
+		fetcher.startFetches();
+		// call under test
+		assertEquals("three", read(fetcher.openFile(three)));
+		// one and two were discarded and three was streamed directly.
+		assertEquals(0, fetcher.getStartedCount());
+		assertEquals(0L, fetcher.getBufferedBytes());
+		verify(mockS3Client).getObject("bucket", "key/three");
+	}
+
+	@Test
+	public void testOpenFileWithDuplicates() throws IOException {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, Arrays.asList(one, one, two), 10,
+				100L);
+		fetcher.startFetches();
+		// each file is only fetched once.
+		assertEquals(2, fetcher.getStartedCount());
+		assertEquals("one", read(fetcher.openFile(one)));
+		assertEquals("two", read(fetcher.openFile(two)));
+	}
+
+	@Test
+	public void testOpenFileWithFetchFailure() throws IOException {
+		setupExecutor();
+		AmazonS3Exception exception = new AmazonS3Exception("no such key");
+		when(mockS3Client.getObject(any(String.class), any(String.class))).thenThrow(exception);
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, Arrays.asList(one), 10, 100L);
+		fetcher.startFetches();
+		AmazonS3Exception result = assertThrows(AmazonS3Exception.class, () -> {
+			// call under test
+			fetcher.openFile(one);
+		});
+		assertSame(exception, result);
+	}
+
+	@Test
+	public void testOpenFileNotInPackage() {
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, Arrays.asList(one), 10, 100L);
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			fetcher.openFile(two);
+		}).getMessage();
+		assertEquals("File: 2 is not part of this package", message);
+	}
+
+	@Test
+	public void testClose() {
+		setupS3();
+		setupExecutor();
+		BulkFileFetcher fetcher = new BulkFileFetcher(mockS3Client, mockExecutor, files, 2, 100L);
+		fetcher.startFetches();
+		// call under test
+		fetcher.close();
+		assertEquals(0, fetcher.getStartedCount());
+		assertEquals(0L, fetcher.getBufferedBytes());
+		verify(mockExecutor).shutdownNow();
+	}
+}
@@ -0,0 +1,63 @@
+package org.sagebionetworks.repo.manager.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link ByteRangeSource} over an array that counts the ranges read.
+ */
+public class ByteArrayRangeSource implements ByteRangeSource {
+
+	private final byte[] content;
+	private int rangeCount;
+	private int openRangeCount;
+	private long bytesRequested;
+
+	public ByteArrayRangeSource(byte[] content) {
+		this.content = content;
+	}
+
+	@Override
+	public long getContentSize() {
+		return content.length;
+	}
+
+	@Override
+	public InputStream openRange(long start, long end) {
+		if (start < 0 || end < start || end >= content.length) {
+			throw new IllegalArgumentException("Invalid range: " + start + "-" + end);
+		}
+		rangeCount++;
+		bytesRequested += end - start + 1;
+		openRangeCount++;
+		return new ByteArrayInputStream(content, (int) start, (int) (end - start + 1)) {
+
+			@Override
+			public void close() throws IOException {
+				openRangeCount--;
+			}
+		};
+	}
+
+	/**
+	 * @return The number of ranges opened.
+	 */
+	public int getRangeCount() {
+		return rangeCount;
+	}
+
+	/**
+	 * @return The number of ranges opened and not yet closed.
+	 */
+	public int getOpenRangeCount() {
+		return openRangeCount;
+	}
+
+	/**
+	 * @return The total size of the ranges opened.
+	 */
+	public long getBytesRequested() {
+		return bytesRequested;
+	}
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -45,6 +46,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -117,9 +119,12 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.services.cloudwatch.model.StandardUnit;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.StorageClass;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.amazonaws.services.s3.transfer.model.UploadResult;
@@ -2619,4 +2624,56 @@ public class FileHandleManagerImplTest {
 		}
 		
 	}
+
+	@Test
+	public void testStartStreamingUpload() throws IOException {
+		S3StorageLocationSetting storageLocationSetting = new S3StorageLocationSetting();
+
+		when(mockStorageLocationDao.get(any())).thenReturn(storageLocationSetting);
+		InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+		initiateResult.setUploadId("uploadId");
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+		UploadPartResult partResult = new UploadPartResult();
+		partResult.setPartNumber(1);
+		partResult.setETag("etag");
+		when(mockS3Client.uploadPart(any())).thenReturn(partResult);
+		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(987L);
+		when(mockFileHandleDao.createFile(any())).then(returnsFirstArg());
+
+		String fileBody = "Some data";
+		LocalFileUploadRequest request = new LocalFileUploadRequest().withContentType("application/zip")
+				.withFileName("result.zip").withUserId("123");
+
+		// Call under test
+		StreamingFileUpload upload = manager.startStreamingUpload(request);
+		IOUtils.write(fileBody, upload.getOutputStream(), StandardCharsets.UTF_8);
+		S3FileHandle result = upload.complete();
+
+		ArgumentCaptor<InitiateMultipartUploadRequest> initiateCaptor = ArgumentCaptor
+				.forClass(InitiateMultipartUploadRequest.class);
+		verify(mockS3Client).initiateMultipartUpload(initiateCaptor.capture());
+		verify(mockS3Client).completeMultipartUpload(any());
+		InitiateMultipartUploadRequest initiateRequest = initiateCaptor.getValue();
+		assertEquals(MultipartUtils.getBucket(storageLocationSetting), initiateRequest.getBucketName());
+		assertEquals(result.getKey(), initiateRequest.getKey());
+		assertEquals(StorageClass.IntelligentTiering.toString(), initiateRequest.getStorageClass());
+		assertEquals("987", result.getId());
+		assertEquals("result.zip", result.getFileName());
+		assertEquals("application/zip", result.getContentType());
+		assertEquals("123", result.getCreatedBy());
+		assertEquals(TransferUtils.createMD5(fileBody.getBytes(StandardCharsets.UTF_8)), result.getContentMd5());
+		assertEquals(Long.valueOf(fileBody.length()), result.getContentSize());
+		verify(mockFileHandleDao).createFile(result);
+	}
+
+	@Test
+	public void testStartStreamingUploadWithNoFileName() {
+		LocalFileUploadRequest request = new LocalFileUploadRequest().withContentType("application/zip")
+				.withUserId("123");
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// Call under test
+			manager.startStreamingUpload(request);
+		}).getMessage();
+		assertEquals("request.fileName is required.", message);
+	}
 }
@@ -8,10 +8,12 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -21,13 +23,18 @@ import static org.sagebionetworks.repo.manager.file.FileHandlePackageManagerImpl
 import static org.sagebionetworks.repo.model.file.FileHandleAssociateType.FileEntity;
 import static org.sagebionetworks.repo.model.file.FileHandleAssociateType.TableEntity;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -43,10 +50,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.ids.IdGenerator;
+import org.sagebionetworks.ids.IdType;
 import org.sagebionetworks.repo.manager.AuthorizationManager;
 import org.sagebionetworks.repo.manager.events.EventsCollector;
 import org.sagebionetworks.repo.manager.statistics.StatisticsFileEvent;
+import org.sagebionetworks.repo.model.StorageLocationDAO;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
 import org.sagebionetworks.repo.model.dbo.file.FileHandleDao;
@@ -57,14 +68,18 @@ import org.sagebionetworks.repo.model.file.FileConstants;
 import org.sagebionetworks.repo.model.file.FileDownloadCode;
 import org.sagebionetworks.repo.model.file.FileDownloadStatus;
 import org.sagebionetworks.repo.model.file.FileDownloadSummary;
+import org.sagebionetworks.repo.model.file.FileHandle;
 import org.sagebionetworks.repo.model.file.FileHandleAssociateType;
 import org.sagebionetworks.repo.model.file.FileHandleAssociation;
 import org.sagebionetworks.repo.model.file.S3FileHandle;
 import org.sagebionetworks.repo.model.file.ZipFileFormat;
 import org.sagebionetworks.repo.model.jdo.NameValidation;
 import org.sagebionetworks.repo.web.NotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 
 @ExtendWith(MockitoExtension.class)
@@ -79,13 +94,25 @@ public class FileHandlePackageManagerImplTest {
 	@Mock
 	private FileHandleManager mockFileHandleManager;
 	@Mock
-	private File mockTempFile;
+	private StreamingFileUpload mockUpload;
+	@Mock
+	private OutputStream mockOutputStream;
+	@Mock
+	private InputStream mockInputStream;
+	@Mock
+	private BulkFileFetcher mockFetcher;
 	@Mock
 	private ZipOutputStream mockZipOut;
 	@Mock
 	private ZipEntryNameProvider mockZipEntryNameProvider;
 	@Mock
 	private EventsCollector mockStatisticsCollector;
+	@Mock
+	private StackConfiguration mockStackConfig;
+	@Mock
+	private StorageLocationDAO mockStorageLocationDao;
+	@Mock
+	private IdGenerator mockIdGenerator;
 	@Captor
 	private ArgumentCaptor<Set<String>> filesInZipCaptor;
 	@Captor
@@ -103,6 +130,7 @@ public class FileHandlePackageManagerImplTest {
 	private List<FileHandleAssociationAuthorizationStatus> authResults;
 	private List<FileDownloadSummary> summaryResults;
 	private S3FileHandle resultFileHandle;
+	private Map<String, FileHandle> fileHandles;
 	private boolean fileSizesChecked;
 
 	@BeforeEach
@@ -125,6 +153,8 @@ public class FileHandlePackageManagerImplTest {
 		);
 		// @formatter:on
 		resultFileHandle = new S3FileHandle().setBucketName("prod.bucket").setKey("some-key").setId("3333").setContentSize(9999L);
+		fileHandles = new HashMap<>();
+		fileHandles.put("11", resultFileHandle);
 
 		request = new BulkFileDownloadRequest().setZipFileFormat(ZipFileFormat.Flat).setZipFileName("My.zip")
 				.setRequestedFiles(associations);
@@ -134,112 +164,129 @@ public class FileHandlePackageManagerImplTest {
 
 	@Test
 	public void testZipRoundTrip() throws IOException {
-		File one = null;
-		File two = null;
-		File zip = null;
-		FileOutputStream oneOut = null;
-		FileOutputStream twoOut = null;
-		ZipOutputStream zipOut = null;
-		ZipInputStream zipIn = null;
-		try {
-			String oneContents = "data for one";
-			String twoContents = "data for two";
-			// create one.
-			one = fileHandleSupportSpy.createTempFile("One", ".txt");
-			oneOut = new FileOutputStream(one);
-			IOUtils.write(oneContents, oneOut);
-			oneOut.close();
-			// create two
-			two = fileHandleSupportSpy.createTempFile("two", ".txt");
-			twoOut = new FileOutputStream(two);
-			IOUtils.write(twoContents, twoOut);
-			// The output zip
-			zip = fileHandleSupportSpy.createTempFile("Zip", ".zip");
-			zipOut = fileHandleSupportSpy.createZipOutputStream(zip);
-
+		String oneContents = "data for one";
+		String twoContents = "data for two";
+		ByteArrayOutputStream zip = new ByteArrayOutputStream();
+		// The output zip
+		try (ZipOutputStream zipOut = fileHandleSupportSpy.createZipOutputStream(zip)) {
 			// add the files to the zip.
-			String entryNameOne = "p1/One.txt";
-			fileHandleSupportSpy.addFileToZip(zipOut, one, entryNameOne);
-			String entryNameTwo = "p2/Two.txt";
-			fileHandleSupportSpy.addFileToZip(zipOut, two, entryNameTwo);
-			zipOut.close();
-
-			// unzip
-			zipIn = new ZipInputStream(new FileInputStream(zip));
+			fileHandleSupportSpy.addFileToZip(zipOut,
+					new ByteArrayInputStream(oneContents.getBytes(StandardCharsets.UTF_8)), "p1/One.txt");
+			fileHandleSupportSpy.addFileToZip(zipOut,
+					new ByteArrayInputStream(twoContents.getBytes(StandardCharsets.UTF_8)), "p2/Two.txt");
+		}
+
+		// unzip
+		try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
 			ZipEntry entry = zipIn.getNextEntry();
-			assertEquals(entryNameOne, entry.getName());
-			assertEquals(oneContents, IOUtils.toString(zipIn));
+			assertEquals("p1/One.txt", entry.getName());
+			assertEquals(oneContents, IOUtils.toString(zipIn, StandardCharsets.UTF_8));
 			zipIn.closeEntry();
 			entry = zipIn.getNextEntry();
-			assertEquals(entryNameTwo, entry.getName());
-			assertEquals(twoContents, IOUtils.toString(zipIn));
+			assertEquals("p2/Two.txt", entry.getName());
+			assertEquals(twoContents, IOUtils.toString(zipIn, StandardCharsets.UTF_8));
 			zipIn.closeEntry();
-
-		} finally {
-			IOUtils.closeQuietly(oneOut);
-			IOUtils.closeQuietly(twoOut);
-			IOUtils.closeQuietly(zipOut);
-			IOUtils.closeQuietly(zipIn);
-			if (one != null) {
-				one.delete();
-			}
-			if (two != null) {
-				two.delete();
-			}
-			if (zip != null) {
-				zip.delete();
-			}
 		}
 	}
 
 	@Test
-	public void testGetS3FileHandle() {
-		String fileHandleId = "123";
-		S3FileHandle s3Handle = new S3FileHandle();
-		s3Handle.setId(fileHandleId);
+	public void testAddFileToZipClosesInput() throws IOException {
+		InputStream in = spy(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+		// call under test
+		fileHandleSupportSpy.addFileToZip(mockZipOut, in, "one.txt");
+		verify(mockZipOut).putNextEntry(any(ZipEntry.class));
+		verify(mockZipOut).closeEntry();
+		verify(in).close();
+	}
 
-		when(mockFileHandleDao.get(fileHandleId)).thenReturn(s3Handle);
-		S3FileHandle result = fileHandleSupportSpy.getS3FileHandle(fileHandleId);
-		assertEquals(s3Handle, result);
+	@Test
+	public void testGetS3FileHandleFromMap() {
+		// call under test
+		S3FileHandle result = FileHandlePackageManagerImpl.getS3FileHandle("11", fileHandles);
+		assertEquals(resultFileHandle, result);
 	}
 
 	@Test
-	public void testGetS3FileHandleNotS3() {
-		String fileHandleId = "123";
-		ExternalFileHandle handle = new ExternalFileHandle();
-		handle.setId(fileHandleId);
-		when(mockFileHandleDao.get(fileHandleId)).thenReturn(handle);
-		assertThrows(IllegalArgumentException.class, () -> {
-			fileHandleSupportSpy.getS3FileHandle(fileHandleId);
-		});
+	public void testGetS3FileHandleFromMapWithMissing() {
+		String message = assertThrows(NotFoundException.class, () -> {
+			// call under test
+			FileHandlePackageManagerImpl.getS3FileHandle("22", fileHandles);
+		}).getMessage();
+		assertEquals("FileHandle: '22' cannot be found", message);
 	}
 
 	@Test
-	public void testDownloadToTempFile() throws IOException {
-		String fileHandleId = "123";
-		S3FileHandle s3Handle = new S3FileHandle();
-		s3Handle.setId(fileHandleId);
-		s3Handle.setKey("someKey");
-		s3Handle.setBucketName("someBucket");
+	public void testGetS3FileHandleFromMapNotS3() {
+		fileHandles.put("22", new ExternalFileHandle().setId("22"));
+		String message = assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			FileHandlePackageManagerImpl.getS3FileHandle("22", fileHandles);
+		}).getMessage();
+		assertEquals(FileHandlePackageManagerImpl.ONLY_S3_FILE_HANDLES_CAN_BE_DOWNLOADED, message);
+	}
 
-		File result = null;
-		try {
-			result = fileHandleSupportSpy.downloadToTempFile(s3Handle);
-			assertNotNull(result);
-			verify(mockS3client).getObject(any(GetObjectRequest.class), any(File.class));
-		} finally {
-			if (result != null) {
-				result.delete();
-			}
+	@Test
+	public void testGetFileHandles() {
+		authResults = Arrays.asList(
+				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(associations.get(1), AuthorizationStatus.accessDenied("no")),
+				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
+		when(mockFileHandleDao.getAllFileHandlesBatch(any())).thenReturn(fileHandles);
+		// call under test
+		Map<String, FileHandle> result = fileHandleSupportSpy.getFileHandles(authResults);
+		assertEquals(fileHandles, result);
+		// only authorized files are fetched and each only once.
+		verify(mockFileHandleDao).getAllFileHandlesBatch(Sets.newHashSet("11"));
+	}
+
+	@Test
+	public void testGetFilesToFetch() {
+		FileHandleAssociation three = new FileHandleAssociation().setAssociateObjectId("syn3")
+				.setAssociateObjectType(FileEntity).setFileHandleId("33");
+		FileHandleAssociation four = new FileHandleAssociation().setAssociateObjectId("syn4")
+				.setAssociateObjectType(FileEntity).setFileHandleId("44");
+		FileHandleAssociation five = new FileHandleAssociation().setAssociateObjectId("syn5")
+				.setAssociateObjectType(FileEntity).setFileHandleId("55");
+		S3FileHandle tooLarge = new S3FileHandle().setId("44")
+				.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES + 1);
+		S3FileHandle other = new S3FileHandle().setId("55").setContentSize(1L);
+		fileHandles = ImmutableMap.of("11", resultFileHandle, "22", new S3FileHandle().setId("22"), "33",
+				new ExternalFileHandle().setId("33"), "44", tooLarge, "55", other);
+		// @formatter:off
+		authResults = Arrays.asList(
+				new FileHandleAssociationAuthorizationStatus(five, AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(associations.get(1), AuthorizationStatus.accessDenied("no")),
+				new FileHandleAssociationAuthorizationStatus(three, AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(four, AuthorizationStatus.authorized()),
+				new FileHandleAssociationAuthorizationStatus(five, AuthorizationStatus.authorized())
+		);
+		// @formatter:on
+		// call under test
+		List<S3FileHandle> result = FileHandlePackageManagerImpl.getFilesToFetch(authResults, fileHandles, false);
+		assertEquals(Arrays.asList(other, resultFileHandle), result);
+		// call under test
+		result = FileHandlePackageManagerImpl.getFilesToFetch(authResults, fileHandles, true);
+		assertEquals(Arrays.asList(other, resultFileHandle, tooLarge), result);
+	}
+
+	@Test
+	public void testCreateFileFetcher() {
+		when(mockStackConfig.getBulkFileDownloadMaxConcurrentFetches()).thenReturn(2);
+		when(mockStackConfig.getBulkFileDownloadMaxBufferedBytes()).thenReturn(1024L);
+		// call under test
+		try (BulkFileFetcher fetcher = fileHandleSupportSpy.createFileFetcher(Arrays.asList(resultFileHandle))) {
+			assertNotNull(fetcher);
 		}
 	}
 
 	@Test
 	public void testBuildZip() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
+		when(mockFileHandleManager.startStreamingUpload(any())).thenReturn(mockUpload);
+		when(mockUpload.getOutputStream()).thenReturn(mockOutputStream);
 		doReturn(summaryResults).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
 		doNothing().when(fileHandleSupportSpy).collectDownloadStatistics(any(), any());
-		when(mockFileHandleManager.uploadLocalFile(any())).thenReturn(resultFileHandle);
+		when(mockUpload.complete()).thenReturn(resultFileHandle);
 
 		// call under test
 		BulkFileDownloadResponse response = fileHandleSupportSpy.buildZip(userInfo, request);
@@ -247,18 +294,19 @@ public class FileHandlePackageManagerImplTest {
 		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
 				.setFileSummary(summaryResults).setResultZipFileHandleId(resultFileHandle.getId());
 		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager).uploadLocalFile(new LocalFileUploadRequest()
+		verify(mockFileHandleManager).startStreamingUpload(new LocalFileUploadRequest()
 				.withFileName(request.getZipFileName()).withUserId(userInfo.getId().toString())
-				.withFileToUpload(mockTempFile).withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP));
+				.withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP));
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
+		verify(mockUpload).complete();
 		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
+		verify(mockUpload).abort();
 	}
 
 	@Test
 	public void testBuildZipWithNoSuccess() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
+		when(mockFileHandleManager.startStreamingUpload(any())).thenReturn(mockUpload);
+		when(mockUpload.getOutputStream()).thenReturn(mockOutputStream);
 		
 		summaryResults =  Arrays.asList(
 				new FileDownloadSummary().setFileHandleId("11").setStatus(FileDownloadStatus.FAILURE),
@@ -273,12 +321,11 @@ public class FileHandlePackageManagerImplTest {
 		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
 				.setFileSummary(summaryResults).setResultZipFileHandleId(null);
 		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		// the zip is empty so it should not get uploaded
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
+		// the zip is empty so the upload should be discarded
+		verify(mockUpload, never()).complete();
 		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
+		verify(mockUpload).abort();
 	}
 
 	@Test
@@ -290,38 +337,57 @@ public class FileHandlePackageManagerImplTest {
 		}).getMessage();
 		assertEquals(NameValidation.createInvalidMessage(request.getZipFileName()), message);
 
-		verify(fileHandleSupportSpy, never()).createTempFile(any(), any());
+		verify(mockFileHandleManager, never()).startStreamingUpload(any());
 		verify(fileHandleSupportSpy, never()).addFilesToZip(any(), any(), any(), anyBoolean());
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
 	}
 
 	@Test
 	public void testBuildZipWithNullName() throws IOException {
 		request.setZipFileName(null);
-
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
+		// The real streaming upload requires a file name.
+		FileHandleManagerImpl fileHandleManager = new FileHandleManagerImpl();
+		ReflectionTestUtils.setField(fileHandleManager, "s3Client", mockS3client);
+		ReflectionTestUtils.setField(fileHandleManager, "storageLocationDAO", mockStorageLocationDao);
+		ReflectionTestUtils.setField(fileHandleManager, "fileHandleDao", mockFileHandleDao);
+		ReflectionTestUtils.setField(fileHandleManager, "idGenerator", mockIdGenerator);
+		ReflectionTestUtils.setField(fileHandleSupportSpy, "fileHandleManager", fileHandleManager);
+
+		InitiateMultipartUploadResult initiateResult = new InitiateMultipartUploadResult();
+		initiateResult.setUploadId("uploadId");
+		when(mockS3client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+		UploadPartResult partResult = new UploadPartResult();
+		partResult.setPartNumber(1);
+		partResult.setETag("partEtag");
+		when(mockS3client.uploadPart(any())).thenReturn(partResult);
+		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(3333L);
+		when(mockFileHandleDao.createFile(any())).thenAnswer(invocation -> invocation.getArgument(0));
 		doReturn(summaryResults).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
 		doNothing().when(fileHandleSupportSpy).collectDownloadStatistics(any(), any());
-		when(mockFileHandleManager.uploadLocalFile(any())).thenReturn(resultFileHandle);
 
 		// call under test
 		BulkFileDownloadResponse response = fileHandleSupportSpy.buildZip(userInfo, request);
 
-		BulkFileDownloadResponse expected = new BulkFileDownloadResponse().setUserId(userInfo.getId().toString())
-				.setFileSummary(summaryResults).setResultZipFileHandleId(resultFileHandle.getId());
-		assertEquals(expected, response);
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager).uploadLocalFile(new LocalFileUploadRequest()
-				.withFileName(request.getZipFileName()).withUserId(userInfo.getId().toString())
-				.withFileToUpload(mockTempFile).withContentType(FileHandlePackageManagerImpl.APPLICATION_ZIP));
-		verify(fileHandleSupportSpy).collectDownloadStatistics(userInfo.getId(), summaryResults);
-		verify(mockTempFile).delete();
+		assertEquals("3333", response.getResultZipFileHandleId());
+		ArgumentCaptor<FileHandle> handleCaptor = ArgumentCaptor.forClass(FileHandle.class);
+		verify(mockFileHandleDao).createFile(handleCaptor.capture());
+		String fileName = handleCaptor.getValue().getFileName();
+		assertTrue(fileName.matches("Job\\d+\\.zip"), fileName);
+		verify(mockS3client).completeMultipartUpload(any());
 	}
 
 	@Test
-	public void testBuildZipWithExceptionDeleteFile() throws IOException {
-		doReturn(mockTempFile).when(fileHandleSupportSpy).createTempFile(any(), any());
+	public void testCreateDefaultZipFileName() {
+		String name = FileHandlePackageManagerImpl.createDefaultZipFileName();
+		assertTrue(name.startsWith(FileHandlePackageManagerImpl.DEFAULT_ZIP_FILE_NAME_PREFIX));
+		assertTrue(name.endsWith(FileHandlePackageManagerImpl.DEFAULT_ZIP_FILE_NAME_SUFFIX));
+		// must be usable as the name of a file handle.
+		NameValidation.validateName(name);
+	}
+
+	@Test
+	public void testBuildZipWithExceptionAbortUpload() throws IOException {
+		when(mockFileHandleManager.startStreamingUpload(any())).thenReturn(mockUpload);
+		when(mockUpload.getOutputStream()).thenReturn(mockOutputStream);
 		IllegalArgumentException exception = new IllegalArgumentException("not working");
 		doThrow(exception).when(fileHandleSupportSpy).addFilesToZip(any(), any(), any(), anyBoolean());
 		String message = assertThrows(IllegalArgumentException.class, () -> {
@@ -330,23 +396,31 @@ public class FileHandlePackageManagerImplTest {
 		}).getMessage();
 		assertEquals(exception.getMessage(), message);
 
-		verify(fileHandleSupportSpy).createTempFile("Job", ".zip");
-		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
-		verify(mockFileHandleManager, never()).uploadLocalFile(any());
-		// the temp file still must be deleted.
-		verify(mockTempFile).delete();
+		verify(fileHandleSupportSpy).addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
+		verify(mockUpload, never()).complete();
+		// the upload still must be discarded.
+		verify(mockUpload).abort();
 	}
 
 	@Test
 	public void testAddFilesToZip() throws IOException {
-		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
+		List<OutputStream> zipTarget = new ArrayList<>();
+		doAnswer(invocation -> {
+			zipTarget.add(invocation.getArgument(0));
+			return mockZipOut;
+		}).when(fileHandleSupportSpy).createZipOutputStream(any());
+		doReturn(mockFetcher).when(fileHandleSupportSpy).createFileFetcher(any());
+		when(mockFileHandleDao.getAllFileHandlesBatch(any())).thenReturn(fileHandles);
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
-		doReturn("one.txt", "two.txt").when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(),
-				any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L,125L);
+		doAnswer(invocation -> {
+			// the first file adds 25 bytes to the zip.
+			zipTarget.get(0).write(new byte[25]);
+			return "one.txt";
+		}).doReturn("two.txt").when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(),
+				any(), any(), anyBoolean());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
 		// @formatter:off
 		List<FileDownloadSummary> expected = Arrays.asList(
 				createSummary(associations.get(0)).setZipEntryName("one.txt").setStatus(FileDownloadStatus.SUCCESS),
@@ -355,93 +429,106 @@ public class FileHandlePackageManagerImplTest {
 		// @formatter:on
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(125L), eq(authResults.get(1)), filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).createZipOutputStream(any());
+		// only the authorized file is fetched.
+		verify(fileHandleSupportSpy).createFileFetcher(Arrays.asList(resultFileHandle));
+		verify(mockFetcher).startFetches();
+		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(0L), eq(authResults.get(0)), filesInZipCaptor.capture(), eq(fileHandles), eq(mockFetcher), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(1)), filesInZipCaptor.capture(), eq(fileHandles), eq(mockFetcher), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
 		assertEquals(Sets.newHashSet("11","22"),  filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
 		verify(mockZipOut).close();
+		verify(mockFetcher).close();
 	}
 	
 	@Test
 	public void testAddFilesToZipWithBulkFileException() throws IOException {
 		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
+		doReturn(mockFetcher).when(fileHandleSupportSpy).createFileFetcher(any());
+		when(mockFileHandleDao.getAllFileHandlesBatch(any())).thenReturn(fileHandles);
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
 
 		BulkFileException exception = new BulkFileException("not found", FileDownloadCode.NOT_FOUND);
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), any(), any(), anyBoolean());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.NOT_FOUND));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).createZipOutputStream(any());
+		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), eq(fileHandles), eq(mockFetcher), zipEntryNameProviderCaptor.capture(),
+				eq(fileSizesChecked));
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
 		verify(mockZipOut).close();
+		verify(mockFetcher).close();
 	}
 	
 	@Test
 	public void testAddFilesToZipWithNotFoundException() throws IOException {
 		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
+		doReturn(mockFetcher).when(fileHandleSupportSpy).createFileFetcher(any());
+		when(mockFileHandleDao.getAllFileHandlesBatch(any())).thenReturn(fileHandles);
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
 
 		NotFoundException exception = new NotFoundException("not found");
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), any(), any(), anyBoolean());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.NOT_FOUND));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).createZipOutputStream(any());
+		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), eq(fileHandles), eq(mockFetcher), zipEntryNameProviderCaptor.capture(),
+				eq(fileSizesChecked));
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
 		verify(mockZipOut).close();
+		verify(mockFetcher).close();
 	}
 	
 	@Test
 	public void testAddFilesToZipWithException() throws IOException {
 		doReturn(mockZipOut).when(fileHandleSupportSpy).createZipOutputStream(any());
+		doReturn(mockFetcher).when(fileHandleSupportSpy).createFileFetcher(any());
+		when(mockFileHandleDao.getAllFileHandlesBatch(any())).thenReturn(fileHandles);
 		authResults = Arrays.asList(
 				new FileHandleAssociationAuthorizationStatus(associations.get(0), AuthorizationStatus.authorized()));
 		when(mockFileHandleAuthorizationManager.canDownLoadFile(any(), any())).thenReturn(authResults);
 
 		RuntimeException exception = new RuntimeException("something else");
-		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), anyBoolean());
-		when(mockTempFile.length()).thenReturn(25L, 125L);
+		doThrow(exception).when(fileHandleSupportSpy).writeOneFileToZip(any(), anyLong(), any(), any(), any(), any(), any(), anyBoolean());
 
 		// call under test
-		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockTempFile, fileSizesChecked);
+		List<FileDownloadSummary> summary = fileHandleSupportSpy.addFilesToZip(userInfo, request, mockOutputStream, fileSizesChecked);
 
 		List<FileDownloadSummary> expected = Arrays
 				.asList(createSummary(associations.get(0)).setStatus(FileDownloadStatus.FAILURE)
 						.setFailureMessage(exception.getMessage()).setFailureCode(FileDownloadCode.UNKNOWN_ERROR));
 		assertEquals(expected, summary);
 
-		verify(fileHandleSupportSpy).createZipOutputStream(mockTempFile);
-		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(25L), eq(authResults.get(0)),
-				filesInZipCaptor.capture(), zipEntryNameProviderCaptor.capture(), eq(fileSizesChecked));
+		verify(fileHandleSupportSpy).createZipOutputStream(any());
+		verify(fileHandleSupportSpy).writeOneFileToZip(eq(mockZipOut), eq(0L), eq(authResults.get(0)),
+				filesInZipCaptor.capture(), eq(fileHandles), eq(mockFetcher), zipEntryNameProviderCaptor.capture(),
+				eq(fileSizesChecked));
 		assertEquals(Collections.emptySet(), filesInZipCaptor.getValue());
 		assertTrue(zipEntryNameProviderCaptor.getValue() instanceof FlatZipEntryNameProvider);
 		verify(mockZipOut).close();
+		verify(mockFetcher).close();
 	}
 	
 	public static FileDownloadSummary createSummary(FileHandleAssociation association) {
@@ -452,8 +539,7 @@ public class FileHandlePackageManagerImplTest {
 	
 	@Test
 	public void testWriteOneFileToZip() throws IOException {
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
+		when(mockFetcher.openFile(any())).thenReturn(mockInputStream);
 		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
@@ -463,14 +549,12 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		
 		assertEquals(entryName, filename);
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(mockFetcher).openFile(resultFileHandle);
+		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockInputStream, entryName);
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
@@ -482,16 +566,14 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		});
 		assertEquals(FileDownloadCode.UNAUTHORIZED, exception.getFailureCode());
 		assertEquals("nope", exception.getMessage());
 		
-		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
 		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
+		verifyNoMoreInteractions(mockFetcher);
 	}
 	
 	@Test
@@ -503,22 +585,19 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		});
 		assertEquals(FileDownloadCode.DUPLICATE, exception.getFailureCode());
 		assertEquals(FILE_ALREADY_ADDED, exception.getMessage());
 		
-		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
 		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
+		verifyNoMoreInteractions(mockFetcher);
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithZipAtMaxSize() throws IOException {
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
+		when(mockFetcher.openFile(any())).thenReturn(mockInputStream);
 		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
 		long zipFileSize = FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
@@ -528,21 +607,18 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		
 		assertEquals(entryName, filename);
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(mockFetcher).openFile(resultFileHandle);
+		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockInputStream, entryName);
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithZipOverMaxMaxSizeAndFileSizeChecked() throws IOException {
 		fileSizesChecked = true;
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
+		when(mockFetcher.openFile(any())).thenReturn(mockInputStream);
 		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
 		long zipFileSize = FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES + 1;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
@@ -552,14 +628,12 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		
 		assertEquals(entryName, filename);
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(mockFetcher).openFile(resultFileHandle);
+		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockInputStream, entryName);
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
@@ -571,23 +645,20 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		});
 		assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, exception.getFailureCode());
 		assertEquals(RESULT_FILE_HAS_REACHED_THE_MAXIMUM_SIZE, exception.getMessage());
 		
-		verify(fileHandleSupportSpy, never()).getS3FileHandle(any());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
 		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
+		verifyNoMoreInteractions(mockFetcher);
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithFileAtMaxSize() throws IOException {
 		resultFileHandle.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES);
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
+		when(mockFetcher.openFile(any())).thenReturn(mockInputStream);
 		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
@@ -597,20 +668,17 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		
 		assertEquals(entryName, filename);
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(mockFetcher).openFile(resultFileHandle);
+		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockInputStream, entryName);
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithFileOverMaxSize() throws IOException {
 		resultFileHandle.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES+1);
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
 				associations.get(0), AuthorizationStatus.authorized());
@@ -618,24 +686,37 @@ public class FileHandlePackageManagerImplTest {
 
 		BulkFileException exception = assertThrows(BulkFileException.class, ()->{
 			// call under test
-			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		});
 		assertEquals(FileDownloadCode.EXCEEDS_SIZE_LIMIT, exception.getFailureCode());
 		assertEquals(FILE_EXCEEDS_THE_MAXIMUM_SIZE_LIMIT, exception.getMessage());
 		
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy, never()).downloadToTempFile(any());
 		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
 		verify(mockZipEntryNameProvider, never()).createZipEntryName(any(), any());
-		verifyNoMoreInteractions(mockTempFile);
+		verifyNoMoreInteractions(mockFetcher);
+	}
+
+	@Test
+	public void testWriteOneFileToZipWithFileHandleNotFound() throws IOException {
+		long zipFileSize = 100L;
+		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
+				associations.get(1), AuthorizationStatus.authorized());
+		Set<String> fileIdsInZip = Collections.emptySet();
+
+		assertThrows(NotFoundException.class, ()->{
+			// call under test
+			fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
+		});
+
+		verify(fileHandleSupportSpy, never()).addFileToZip(any(), any(), any());
+		verifyNoMoreInteractions(mockFetcher);
 	}
 	
 	@Test
 	public void testWriteOneFileToZipWithFileOverMaxSizeAndFileSizeChecked() throws IOException {
 		fileSizesChecked = true;
 		resultFileHandle.setContentSize(FileConstants.BULK_FILE_DOWNLOAD_MAX_SIZE_BYTES+1);
-		doReturn(resultFileHandle).when(fileHandleSupportSpy).getS3FileHandle(any());
-		doReturn(mockTempFile).when(fileHandleSupportSpy).downloadToTempFile(any());
+		when(mockFetcher.openFile(any())).thenReturn(mockInputStream);
 		doNothing().when(fileHandleSupportSpy).addFileToZip(any(), any(), any());
 		long zipFileSize = 100L;
 		FileHandleAssociationAuthorizationStatus fhas = new FileHandleAssociationAuthorizationStatus(
@@ -645,14 +726,12 @@ public class FileHandlePackageManagerImplTest {
 		when(mockZipEntryNameProvider.createZipEntryName(any(), any())).thenReturn(entryName);
 
 		// call under test
-		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, mockZipEntryNameProvider, fileSizesChecked);
+		String filename = fileHandleSupportSpy.writeOneFileToZip(mockZipOut, zipFileSize, fhas, fileIdsInZip, fileHandles, mockFetcher, mockZipEntryNameProvider, fileSizesChecked);
 		
 		assertEquals(entryName, filename);
-		verify(fileHandleSupportSpy).getS3FileHandle(fhas.getAssociation().getFileHandleId());
-		verify(fileHandleSupportSpy).downloadToTempFile(resultFileHandle);
-		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockTempFile, entryName);
+		verify(mockFetcher).openFile(resultFileHandle);
+		verify(fileHandleSupportSpy).addFileToZip(mockZipOut, mockInputStream, entryName);
 		verify(mockZipEntryNameProvider).createZipEntryName(resultFileHandle.getFileName(), Long.parseLong(resultFileHandle.getId()));
-		verify(mockTempFile).delete();
 	}
 
 	@Test
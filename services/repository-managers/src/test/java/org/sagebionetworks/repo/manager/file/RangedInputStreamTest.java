@@ -0,0 +1,103 @@
+package org.sagebionetworks.repo.manager.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RangedInputStreamTest {
+
+	private byte[] content;
+	private ByteArrayRangeSource source;
+
+	@BeforeEach
+	public void before() {
+		content = new byte[10_000];
+		new Random(123).nextBytes(content);
+		source = new ByteArrayRangeSource(content);
+	}
+
+	@Test
+	public void testReadAll() throws IOException {
+		try (InputStream in = new RangedInputStream(source, 100, 1000)) {
+			// call under test
+			byte[] read = IOUtils.toByteArray(in);
+			assertArrayEquals(content, read);
+			assertEquals(-1, in.read());
+		}
+		// 100 + 200 + 400 + 800 and then ranges of 1000
+		assertEquals(13, source.getRangeCount());
+		assertEquals(content.length, source.getBytesRequested());
+	}
+
+	@Test
+	public void testReadStopEarly() throws IOException {
+		try (RangedInputStream in = new RangedInputStream(source, 100, 1000)) {
+			byte[] read = new byte[150];
+			// call under test
+			IOUtils.readFully(in, read);
+			assertEquals(150L, in.getPosition());
+			assertEquals(content[0] & 0xff, read[0] & 0xff);
+			assertEquals(content[149], read[149]);
+		}
+		// only the first two ranges are fetched
+		assertEquals(2, source.getRangeCount());
+		assertEquals(300L, source.getBytesRequested());
+	}
+
+	@Test
+	public void testRangeClosedBeforeRead() throws IOException {
+		try (InputStream in = new RangedInputStream(source, 100, 1000)) {
+			// call under test
+			assertEquals(content[0] & 0xff, in.read());
+			// the rest of the range is read from memory
+			assertEquals(0, source.getOpenRangeCount());
+			byte[] read = new byte[99];
+			IOUtils.readFully(in, read);
+			assertEquals(content[99], read[98]);
+			assertEquals(1, source.getRangeCount());
+		}
+		assertEquals(0, source.getOpenRangeCount());
+	}
+
+	@Test
+	public void testReadSingleBytes() throws IOException {
+		try (InputStream in = new RangedInputStream(source, 1, 1)) {
+			for (int i = 0; i < 10; i++) {
+				// call under test
+				assertEquals(content[i] & 0xff, in.read());
+			}
+		}
+		assertEquals(10, source.getRangeCount());
+	}
+
+	@Test
+	public void testReadEmpty() throws IOException {
+		source = new ByteArrayRangeSource(new byte[0]);
+		try (InputStream in = new RangedInputStream(source, 100, 1000)) {
+			// call under test
+			assertEquals(-1, in.read());
+		}
+		assertEquals(0, source.getRangeCount());
+	}
+
+	@Test
+	public void testInvalidRangeSizes() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			new RangedInputStream(source, 0, 1000);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new RangedInputStream(source, 1001, 1000);
+		});
+		assertThrows(IllegalArgumentException.class, () -> {
+			new RangedInputStream(source, 1000, Integer.MAX_VALUE + 1L);
+		});
+	}
+}
@@ -0,0 +1,99 @@
+package org.sagebionetworks.repo.manager.file;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.file.transfer.TransferUtils;
+import org.sagebionetworks.repo.model.file.S3FileHandle;
+import org.sagebionetworks.upload.multipart.S3MultipartOutputStream;
+
+@ExtendWith(MockitoExtension.class)
+public class StreamingFileUploadTest {
+
+	@Mock
+	private S3MultipartOutputStream mockS3Out;
+
+	private S3FileHandle handle;
+	private List<S3FileHandle> created;
+	private StreamingFileUpload upload;
+
+	@BeforeEach
+	public void before() {
+		handle = new S3FileHandle().setBucketName("bucket").setKey("key");
+		created = new ArrayList<>();
+		upload = new StreamingFileUpload(mockS3Out, handle, (toCreate) -> {
+			created.add(toCreate);
+			return toCreate.setId("123");
+		});
+	}
+
+	@Test
+	public void testComplete() throws IOException {
+		byte[] data = "some data".getBytes(StandardCharsets.UTF_8);
+		try (OutputStream out = upload.getOutputStream()) {
+			out.write(data);
+		}
+		// closing the stream must not complete the upload.
+		verify(mockS3Out, never()).close();
+		// call under test
+		S3FileHandle result = upload.complete();
+		assertEquals("123", result.getId());
+		assertEquals(TransferUtils.createMD5(data), result.getContentMd5());
+		assertEquals(Long.valueOf(data.length), result.getContentSize());
+		assertEquals(1, created.size());
+		verify(mockS3Out).write(data, 0, data.length);
+		verify(mockS3Out).close();
+		// abort after complete has no effect.
+		upload.abort();
+		verify(mockS3Out, never()).abort();
+	}
+
+	@Test
+	public void testCompleteWithFailure() throws IOException {
+		IOException exception = new IOException("nope");
+		doThrow(exception).when(mockS3Out).close();
+		IOException result = assertThrows(IOException.class, () -> {
+			// call under test
+			upload.complete();
+		});
+		assertSame(exception, result);
+		verify(mockS3Out).abort();
+		assertEquals(0, created.size());
+	}
+
+	@Test
+	public void testCompleteTwice() throws IOException {
+		upload.complete();
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			upload.complete();
+		});
+	}
+
+	@Test
+	public void testAbort() throws IOException {
+		// call under test
+		upload.abort();
+		upload.abort();
+		verify(mockS3Out).abort();
+		assertThrows(IllegalArgumentException.class, () -> {
+			upload.complete();
+		});
+		assertEquals(0, created.size());
+	}
+}
@@ -0,0 +1,119 @@
+package org.sagebionetworks.repo.manager.file.preview;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+import javax.imageio.ImageIO;
+
+import org.imgscalr.Scalr;
+import org.imgscalr.Scalr.Mode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.StackConfigurationSingleton;
+
+/**
+ * Not a test of timing. Prints the time per preview and the peak heap used to
+ * generate previews of large synthetic PNG and JPEG images, when the whole
+ * image is decoded before it is scaled and when it is subsampled while it is
+ * decoded. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class ImagePreviewGeneratorBenchmarkTest {
+
+	private static final int WIDTH = 4000;
+	private static final int HEIGHT = 3000;
+	private static final int ITERATIONS = 5;
+
+	private interface PreviewWriter {
+		void write(byte[] source, ByteArrayOutputStream out) throws IOException;
+	}
+
+	@Test
+	public void testGeneratePreview() throws IOException {
+		ImagePreviewGenerator generator = new ImagePreviewGenerator();
+		for (String formatName : new String[] { "png", "jpg" }) {
+			byte[] source = ImagePreviewGeneratorTest.createImage(WIDTH, HEIGHT, formatName);
+			measure(formatName, "full decode", source, ImagePreviewGeneratorBenchmarkTest::writeFullDecodePreview);
+			measure(formatName, "subsampled", source,
+					(in, out) -> generator.generatePreview(new ByteArrayInputStream(in), out));
+		}
+	}
+
+	/**
+	 * The preview as it was generated before images were subsampled.
+	 */
+	static void writeFullDecodePreview(byte[] source, ByteArrayOutputStream out) throws IOException {
+		int maxWidthPixels = StackConfigurationSingleton.singleton().getMaximumPreviewWidthPixels();
+		int maxHeightPixels = StackConfigurationSingleton.singleton().getMaximumPreviewHeightPixels();
+		BufferedImage image = ImagePreviewGenerator.loadImageWithSizeCheck(new ByteArrayInputStream(source), Long.MAX_VALUE);
+		if (image.getWidth() > maxWidthPixels) {
+			image = Scalr.resize(image, Mode.FIT_TO_WIDTH, maxWidthPixels);
+		}
+		if (image.getHeight() > maxHeightPixels) {
+			image = Scalr.resize(image, Mode.FIT_TO_HEIGHT, maxHeightPixels);
+		}
+		ImageIO.write(image, "png", out);
+	}
+
+	/**
+	 * Generate previews of the given source repeatedly and print the average time
+	 * per preview and the peak heap used by a single preview.
+	 */
+	void measure(String formatName, String name, byte[] source, PreviewWriter writer) throws IOException {
+		// warm up
+		writer.write(source, new ByteArrayOutputStream());
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writer.write(source, out);
+			assertTrue(out.size() > 0);
+		}
+		long perPreview = (System.nanoTime() - start) / ITERATIONS / 1000_000L;
+		System.gc();
+		long before = resetPeakHeapUsage();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writer.write(source, out);
+		long peak = peakHeapUsage() - before;
+		assertNotNull(ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+		System.out.println(String.format("%-4s %dx%d %-12s %,8d ms/preview %,8d KB peak heap", formatName, WIDTH, HEIGHT,
+				name, perPreview, peak / 1024));
+	}
+
+	/**
+	 * Reset the peak usage of the heap memory pools.
+	 *
+	 * @return The current heap usage.
+	 */
+	private static long resetPeakHeapUsage() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				used += pool.getUsage().getUsed();
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * @return The sum of the peak usage of the heap memory pools since they were
+	 *         last reset, an upper bound of the peak heap usage.
+	 */
+	private static long peakHeapUsage() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+}
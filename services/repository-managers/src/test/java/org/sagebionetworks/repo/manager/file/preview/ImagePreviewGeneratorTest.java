@@ -1,20 +1,32 @@
 package org.sagebionetworks.repo.manager.file.preview;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
 
 import org.junit.Test;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.StackConfigurationSingleton;
 
 public class ImagePreviewGeneratorTest {
 	
@@ -85,4 +97,209 @@ public class ImagePreviewGeneratorTest {
 			temp.delete();
 		}
 	}
+
+	@Test
+	public void testCalculateSubsampling() {
+		assertEquals(1, ImagePreviewGenerator.calculateSubsampling(1000, 1000, 2048, 1536));
+		assertEquals(1, ImagePreviewGenerator.calculateSubsampling(2048, 1536, 2048, 1536));
+		assertEquals(2, ImagePreviewGenerator.calculateSubsampling(2049, 1536, 2048, 1536));
+		assertEquals(2, ImagePreviewGenerator.calculateSubsampling(4096, 3072, 2048, 1536));
+		// the dimension that needs the most subsampling wins
+		assertEquals(7, ImagePreviewGenerator.calculateSubsampling(2000, 10000, 2048, 1536));
+		assertEquals(10, ImagePreviewGenerator.calculateSubsampling(20000, 10000, 2048, 1536));
+	}
+
+	@Test
+	public void testLoadSubsampledImageLargePng() throws IOException {
+		byte[] png = createImage(4000, 3000, "png");
+		// call under test
+		BufferedImage image = ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(png), 1024, 768);
+		assertNotNull(image);
+		// every 4th column and row
+		assertEquals(1000, image.getWidth());
+		assertEquals(750, image.getHeight());
+	}
+
+	@Test
+	public void testLoadSubsampledImageLargeJpeg() throws IOException {
+		byte[] jpeg = createImage(4000, 3000, "jpg");
+		// call under test
+		BufferedImage image = ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(jpeg), 2048, 1536);
+		assertNotNull(image);
+		// every 2nd column and row
+		assertEquals(2000, image.getWidth());
+		assertEquals(1500, image.getHeight());
+	}
+
+	@Test
+	public void testLoadSubsampledImageSmall() throws IOException {
+		try (InputStream in = ImagePreviewGeneratorTest.class.getClassLoader().getResourceAsStream(atMaxFileName);) {
+			assertNotNull("Failed to find a test file on the classpath: " + atMaxFileName, in);
+			// call under test
+			BufferedImage image = ImagePreviewGenerator.loadSubsampledImage(in, 2048, 1536);
+			assertNotNull(image);
+			assertEquals(1000, image.getWidth());
+			assertEquals(1000, image.getHeight());
+		}
+	}
+
+	@Test
+	public void testLoadSubsampledImageOverMaxDimension() throws IOException {
+		byte[] png = createImage(ImagePreviewGenerator.MAX_SOURCE_DIMENSION_PIXELS + 1, 1, "png");
+		try {
+			// call under test
+			ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(png), 2048, 1536);
+			fail();
+		} catch (PreviewGenerationNotSupportedException e) {
+			assertEquals(ImagePreviewGenerator.IMAGE_EXCEEDS_THE_MAXIMUM_SIZE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLoadSubsampledImageProgressiveJpeg() throws IOException {
+		byte[] jpeg = createProgressiveImage(4000, 3000, "jpg");
+		// call under test
+		BufferedImage image = ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(jpeg), 2048, 1536);
+		assertNotNull(image);
+		assertEquals(2000, image.getWidth());
+		assertEquals(1500, image.getHeight());
+	}
+
+	@Test
+	public void testLoadSubsampledImageProgressiveJpegOverMaxBuffered() throws IOException {
+		byte[] jpeg = createProgressiveImage(4001, 3000, "jpg");
+		try {
+			// call under test
+			ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(jpeg), 2048, 1536);
+			fail();
+		} catch (PreviewGenerationNotSupportedException e) {
+			assertEquals(ImagePreviewGenerator.IMAGE_EXCEEDS_THE_MAXIMUM_SIZE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLoadSubsampledImageInterlacedPngOverMaxBuffered() throws IOException {
+		byte[] png = createProgressiveImage(4001, 3000, "png");
+		try {
+			// call under test
+			ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(png), 2048, 1536);
+			fail();
+		} catch (PreviewGenerationNotSupportedException e) {
+			assertEquals(ImagePreviewGenerator.IMAGE_EXCEEDS_THE_MAXIMUM_SIZE, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testLoadSubsampledImageBaselineJpegOverMaxBuffered() throws IOException {
+		byte[] jpeg = createImage(4001, 3000, "jpg");
+		// call under test
+		BufferedImage image = ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream(jpeg), 2048, 1536);
+		assertNotNull(image);
+		// every 2nd column and row
+		assertEquals(2001, image.getWidth());
+		assertEquals(1500, image.getHeight());
+	}
+
+	@Test
+	public void testIsBufferedWholeWithNullMetadata() {
+		// call under test
+		assertFalse(ImagePreviewGenerator.isBufferedWhole(null));
+	}
+
+	@Test
+	public void testLoadSubsampledImageNotAnImage() throws IOException {
+		// call under test
+		assertEquals(null, ImagePreviewGenerator.loadSubsampledImage(new ByteArrayInputStream("not an image".getBytes()), 2048, 1536));
+	}
+
+	@Test
+	public void testGeneratePreviewLargeJpeg() throws IOException {
+		byte[] jpeg = createImage(4000, 3000, "jpg");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImagePreviewGenerator genertor = new ImagePreviewGenerator();
+		// call under test
+		PreviewOutputMetadata meta = genertor.generatePreview(new ByteArrayInputStream(jpeg), out);
+		assertEquals("image/png", meta.getContentType());
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+		assertNotNull(image);
+		StackConfiguration config = StackConfigurationSingleton.singleton();
+		assertTrue(image.getWidth() <= config.getMaximumPreviewWidthPixels());
+		assertTrue(image.getHeight() <= config.getMaximumPreviewHeightPixels());
+		// the preview fills the limiting dimension
+		assertTrue(image.getWidth() == config.getMaximumPreviewWidthPixels()
+				|| image.getHeight() == config.getMaximumPreviewHeightPixels());
+	}
+
+	@Test
+	public void testCalculateNeededMemoryBytesForPreview() {
+		ImagePreviewGenerator genertor = new ImagePreviewGenerator();
+		StackConfiguration config = StackConfigurationSingleton.singleton();
+		long expected = ImagePreviewGenerator.calculateNeededMemoryBytes(config.getMaximumPreviewWidthPixels(),
+				config.getMaximumPreviewHeightPixels());
+		// a large file is bounded by the preview size rather than the size of the file
+		assertEquals(expected, genertor.calculateNeededMemoryBytesForPreview(ImagePreviewGenerator.IMAGE_JPEG,
+				10L * 1024 * 1024 * 1024));
+		assertEquals(expected, genertor.calculateNeededMemoryBytesForPreview(ImagePreviewGenerator.IMAGE_PNG,
+				100L * 1024 * 1024));
+	}
+
+	@Test
+	public void testCalculateNeededMemoryBytesForPreviewSmallFile() {
+		ImagePreviewGenerator genertor = new ImagePreviewGenerator();
+		// a small file needs no more than it takes to decode it at full resolution
+		assertEquals((long) Math.ceil(1000.0 * (46.28f * 1.2f)),
+				genertor.calculateNeededMemoryBytesForPreview(ImagePreviewGenerator.IMAGE_PNG, 1000L));
+		assertEquals((long) Math.ceil(1000.0 * (23.38f * 1.2f)),
+				genertor.calculateNeededMemoryBytesForPreview(ImagePreviewGenerator.IMAGE_JPEG, 1000L));
+	}
+
+	@Test
+	public void testCalculateNeededMemoryBytes() {
+		// 2048 x 1536 decoded pixels
+		long expected = (long) Math.ceil(2048.0 * 1536.0 * ImagePreviewGenerator.MEMORY_BYTES_PER_DECODED_PIXEL)
+				+ (long) Math.ceil(ImagePreviewGenerator.MAX_BUFFERED_SOURCE_PIXELS
+						* ImagePreviewGenerator.MEMORY_BYTES_PER_BUFFERED_PIXEL)
+				+ ImagePreviewGenerator.MEMORY_BYTES_FOR_BUFFERS;
+		// call under test
+		assertEquals(expected, ImagePreviewGenerator.calculateNeededMemoryBytes(1024, 768));
+	}
+
+	/**
+	 * Create a synthetic image of the given size, encoded in the given format.
+	 */
+	static byte[] createImage(int width, int height, String formatName) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertTrue(ImageIO.write(createGradient(width, height), formatName, out));
+		return out.toByteArray();
+	}
+
+	/**
+	 * Create a synthetic image of the given size, encoded in the given format as a
+	 * progressive JPEG or an interlaced PNG or GIF.
+	 */
+	static byte[] createProgressiveImage(int width, int height, String formatName) throws IOException {
+		ImageWriter writer = ImageIO.getImageWritersByFormatName(formatName).next();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+			writer.setOutput(stream);
+			writer.write(null, new IIOImage(createGradient(width, height), null, null), param);
+		} finally {
+			writer.dispose();
+		}
+		return out.toByteArray();
+	}
+
+	private static BufferedImage createGradient(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		Graphics2D graphics = image.createGraphics();
+		try {
+			graphics.setPaint(new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE));
+			graphics.fillRect(0, 0, width, height);
+		} finally {
+			graphics.dispose();
+		}
+		return image;
+	}
 }
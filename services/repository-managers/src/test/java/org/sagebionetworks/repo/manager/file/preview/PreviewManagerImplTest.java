@@ -6,16 +6,14 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
 
@@ -26,10 +24,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.googlecloud.SynapseGoogleCloudStorageClient;
 import org.sagebionetworks.ids.IdGenerator;
 import org.sagebionetworks.ids.IdType;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
 import org.sagebionetworks.repo.model.StorageLocationDAO;
 import org.sagebionetworks.repo.model.dbo.dao.TestUtils;
 import org.sagebionetworks.repo.model.dbo.file.FileHandleDao;
@@ -40,7 +40,6 @@ import org.sagebionetworks.repo.model.project.S3StorageLocationSetting;
 import org.sagebionetworks.repo.util.ResourceTracker;
 import org.sagebionetworks.repo.util.ResourceTracker.ExceedsMaximumResources;
 import org.sagebionetworks.repo.web.TemporarilyUnavailableException;
-import org.sagebionetworks.util.FileProvider;
 
 import com.amazonaws.services.s3.model.CannedAccessControlList;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
@@ -65,20 +64,14 @@ public class PreviewManagerImplTest {
 	@Mock
 	private SynapseGoogleCloudStorageClient mockGoogleCloudClient;
 	@Mock
-	private FileProvider mockFileProvider;
-	@Mock
 	private PreviewGenerator mockPreviewGenerator;
 	@Mock
-	private File mockUploadFile;
-	@Mock
 	private S3Object mockS3Object;
 	@Mock
 	private Blob mockBlob;
 	@Mock
 	private ReadChannel mockGoogleCloudReadChannel;
 	@Mock
-	private FileOutputStream mockOutputStream;
-	@Mock
 	private S3ObjectInputStream mockS3ObjectInputStream;
 	@Mock
 	private IdGenerator mockIdGenerator;
@@ -104,7 +97,7 @@ public class PreviewManagerImplTest {
 		
 		List<PreviewGenerator> genList = Collections.singletonList(mockPreviewGenerator);
 		
-		previewManager = new PreviewManagerImpl(stubFileMetadataDao, mockS3Client, mockGoogleCloudClient, mockFileProvider, mockIdGenerator, mockStorageLocationDao, genList, maxPreviewSize);
+		previewManager = new PreviewManagerImpl(stubFileMetadataDao, mockS3Client, mockGoogleCloudClient, mockIdGenerator, mockStorageLocationDao, genList, maxPreviewSize);
 
 		// This is a test file metadata
 		testMetadata = TestUtils.createS3FileHandle("createdBy", null);
@@ -120,6 +113,20 @@ public class PreviewManagerImplTest {
 		testGoogleCloudMetadata = (GoogleCloudFileHandle) stubFileMetadataDao.createFile(testGoogleCloudMetadata);
 				
 	}
+
+	/**
+	 * A generator that reads the first bytes of the source and writes a preview of the given size.
+	 */
+	private Answer<PreviewOutputMetadata> writePreview(long previewSize) {
+		return invocation -> {
+			ByteRangeSource source = invocation.getArgument(0);
+			try (InputStream in = source.openRange(0, 4)) {
+				OutputStream out = invocation.getArgument(1);
+				out.write(new byte[(int) previewSize]);
+			}
+			return previewContentType;
+		};
+	}
 	
 	@Test
 	public void testMetadataNull() throws Exception {
@@ -176,14 +183,11 @@ public class PreviewManagerImplTest {
 		long size = maxPreviewSize;
 		testMetadata.setContentSize(size);
 		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(resultPreviewSize));
 		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(789L);
 		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(mockMultipartResult);
 		when(mockS3Client.uploadPart(any())).thenReturn(mockUploadPartResult);
@@ -224,14 +228,11 @@ public class PreviewManagerImplTest {
 	@Test
 	public void testStreamsClosed() throws Exception{
 		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(resultPreviewSize));
 		
 		// Simulate an S3 exception.  The streams must be closed even when there is an error
 		when(mockS3Client.initiateMultipartUpload(any())).thenThrow(new RuntimeException("Something went wrong!"));
@@ -241,31 +242,46 @@ public class PreviewManagerImplTest {
 		});
 		
 		// Validate the streams were closed
-		verify(mockOutputStream, atLeast(1)).close();
 		verify(mockS3ObjectInputStream, atLeast(1)).abort();
 	}
 
 	@Test
-	public void testTempFilesDeleted() throws Exception{
-		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
+	public void testS3PreviewSource() throws Exception {
+		testMetadata.setContentSize(1000L);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
-		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
-		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
 		
-		// Simulate an S3 exception.  The temp files must be deleted.
-		when(mockS3Client.initiateMultipartUpload(any())).thenThrow(new RuntimeException("Something went wrong!"));
+		ByteRangeSource source = previewManager.createS3PreviewSource(testMetadata);
+		assertEquals(1000L, source.getContentSize());
 		
-		assertThrows(RuntimeException.class, () -> {
-			previewManager.generatePreview(testMetadata);
-		});
+		// Call under test
+		source.openRange(100, 199).close();
+		
+		ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+		verify(mockS3Client).getObject(requestCaptor.capture());
+		assertEquals(testMetadata.getBucketName(), requestCaptor.getValue().getBucketName());
+		assertEquals(testMetadata.getKey(), requestCaptor.getValue().getKey());
+		// only the requested range is fetched
+		assertEquals(100L, requestCaptor.getValue().getRange()[0]);
+		assertEquals(199L, requestCaptor.getValue().getRange()[1]);
+		verify(mockS3ObjectInputStream).abort();
+	}
+
+	@Test
+	public void testGoogleCloudPreviewSource() throws Exception {
+		testGoogleCloudMetadata.setContentSize(1000L);
+		when(mockGoogleCloudClient.getObject(any(String.class), any(String.class))).thenReturn(mockBlob);
+		when(mockBlob.reader()).thenReturn(mockGoogleCloudReadChannel);
+		
+		ByteRangeSource source = previewManager.createGoogleCloudPreviewSource(testGoogleCloudMetadata);
+		assertEquals(1000L, source.getContentSize());
+		
+		// Call under test
+		source.openRange(100, 199).close();
 		
-		// Validate the temp files were deleted
-		verify(mockUploadFile, atLeast(1)).delete();
+		verify(mockGoogleCloudClient).getObject(testGoogleCloudMetadata.getBucketName(), testGoogleCloudMetadata.getKey());
+		verify(mockGoogleCloudReadChannel).seek(100L);
+		verify(mockGoogleCloudReadChannel).close();
 	}
 	
 	@Test
@@ -273,14 +289,11 @@ public class PreviewManagerImplTest {
 		
 		String uploadId = "uploadId";
 		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(resultPreviewSize));
 		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(789L);
 		when(mockMultipartResult.getUploadId()).thenReturn(uploadId);
 		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(mockMultipartResult);
@@ -311,9 +324,9 @@ public class PreviewManagerImplTest {
 		assertEquals(pfm.getBucketName(), partRequestCaptor.getValue().getBucketName());
 		assertEquals(pfm.getKey(), partRequestCaptor.getValue().getKey());
 		assertEquals(1, partRequestCaptor.getValue().getPartNumber());
-		assertEquals(0, partRequestCaptor.getValue().getFileOffset());
 		assertEquals(resultPreviewSize, partRequestCaptor.getValue().getPartSize());
-		assertEquals(mockUploadFile, partRequestCaptor.getValue().getFile());
+		// the preview is uploaded from memory
+		assertEquals(resultPreviewSize.intValue(), partRequestCaptor.getValue().getInputStream().available());
 		
 		ArgumentCaptor<CompleteMultipartUploadRequest> compRequestCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
 		
@@ -335,14 +348,11 @@ public class PreviewManagerImplTest {
 		String uploadId = "uploadId";
 		long contentLength = PreviewManagerImpl.MULTIPART_MAX_PART_SIZE * 2 - 1;
 		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(contentLength);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(contentLength));
 		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(789L);
 		when(mockMultipartResult.getUploadId()).thenReturn(uploadId);
 		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(mockMultipartResult);
@@ -377,9 +387,8 @@ public class PreviewManagerImplTest {
 		assertEquals(pfm.getBucketName(), part1.getBucketName());
 		assertEquals(pfm.getKey(), part1.getKey());
 		assertEquals(1, part1.getPartNumber());
-		assertEquals(0, part1.getFileOffset());
 		assertEquals(PreviewManagerImpl.MULTIPART_MAX_PART_SIZE, part1.getPartSize());
-		assertEquals(mockUploadFile, part1.getFile());
+		assertEquals(PreviewManagerImpl.MULTIPART_MAX_PART_SIZE, part1.getInputStream().available());
 		
 		UploadPartRequest part2 = partRequestCaptor.getAllValues().get(1);
 		
@@ -387,9 +396,8 @@ public class PreviewManagerImplTest {
 		assertEquals(pfm.getBucketName(), part2.getBucketName());
 		assertEquals(pfm.getKey(), part2.getKey());
 		assertEquals(2, part2.getPartNumber());
-		assertEquals(PreviewManagerImpl.MULTIPART_MAX_PART_SIZE, part2.getFileOffset());
 		assertEquals(PreviewManagerImpl.MULTIPART_MAX_PART_SIZE - 1, part2.getPartSize());
-		assertEquals(mockUploadFile, part2.getFile());
+		assertEquals(PreviewManagerImpl.MULTIPART_MAX_PART_SIZE - 1, part2.getInputStream().available());
 		
 		ArgumentCaptor<CompleteMultipartUploadRequest> compRequestCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
 		
@@ -410,14 +418,11 @@ public class PreviewManagerImplTest {
 		
 		testMetadata.setStorageLocationId(123L);
 		
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
 		when(mockS3Object.getObjectContent()).thenReturn(mockS3ObjectInputStream);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(mockS3ObjectInputStream, mockOutputStream)).thenReturn(previewContentType);
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(resultPreviewSize));
 		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(789L);
 		when(mockStorageLocationDao.get(any())).thenReturn(new S3StorageLocationSetting());
 		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(mockMultipartResult);
@@ -438,14 +443,11 @@ public class PreviewManagerImplTest {
 
 	@Test
 	public void testExpectedGoogleCloudPreview() throws Exception {
-		when(mockFileProvider.createTempFile(any(String.class), any(String.class))).thenReturn(mockUploadFile);
-		when(mockFileProvider.createFileOutputStream(mockUploadFile)).thenReturn(mockOutputStream);
 		when(mockGoogleCloudClient.getObject(any(String.class), any(String.class))).thenReturn(mockBlob);
 		when(mockBlob.reader()).thenReturn(mockGoogleCloudReadChannel);
 		when(mockPreviewGenerator.supportsContentType(testContentType, "txt")).thenReturn(true);
 		when(mockPreviewGenerator.calculateNeededMemoryBytesForPreview(any(), anyLong())).thenReturn(maxPreviewSize);
-		when(mockPreviewGenerator.generatePreview(any(InputStream.class), eq(mockOutputStream))).thenReturn(previewContentType);		
-		when(mockUploadFile.length()).thenReturn(resultPreviewSize);
+		when(mockPreviewGenerator.generatePreview(any(ByteRangeSource.class), any(OutputStream.class))).thenAnswer(writePreview(resultPreviewSize));
 		when(mockIdGenerator.generateNewId(IdType.FILE_IDS)).thenReturn(789L);
 		
 
@@ -17,6 +17,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.junit.Before;
 import org.junit.Test;
+import org.sagebionetworks.repo.manager.file.ByteArrayRangeSource;
 import org.sagebionetworks.repo.web.ServiceUnavailableException;
 
 import com.amazonaws.util.StringInputStream;
@@ -407,6 +408,38 @@ public class TabCsvTextPreviewTest {
 		assertEquals("&hellip;", lastRow[lastRow.length - 1]);
 	}
 
+	@Test
+	public void testGeneratePreviewFromSource() throws IOException {
+		int numberOfRows = 500;
+		int numberOfColumns = 100;
+		int numberOfChars = 100;
+		char separator = '\t';
+		String csvString = writeToCSV(createsRows(numberOfRows, numberOfColumns, numberOfChars), separator);
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		tabPreviewGenerator.generatePreview(new StringInputStream(csvString), expected);
+		ByteArrayRangeSource source = new ByteArrayRangeSource(csvString.getBytes("UTF-8"));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		// call under test
+		PreviewOutputMetadata meta = tabPreviewGenerator.generatePreview(source, output);
+		assertEquals("text/csv", meta.getContentType());
+		assertEquals(new String(expected.toByteArray(), "UTF-8"), new String(output.toByteArray(), "UTF-8"));
+		// only the ranges holding the previewed rows are read
+		assertEquals(3, source.getRangeCount());
+		assertEquals(TabCsvPreviewGenerator.FIRST_RANGE_BYTES * 7, source.getBytesRequested());
+	}
+
+	@Test
+	public void testGeneratePreviewFromSourceSmall() throws IOException {
+		String csvString = "a,b,c\n1,2,3\n";
+		ByteArrayRangeSource source = new ByteArrayRangeSource(csvString.getBytes("UTF-8"));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		// call under test
+		csvPreviewGenerator.generatePreview(source, output);
+		assertEquals("\"a\",\"b\",\"c\"\n\"1\",\"2\",\"3\"\n", new String(output.toByteArray(), "UTF-8"));
+		assertEquals(1, source.getRangeCount());
+		assertEquals(csvString.length(), source.getBytesRequested());
+	}
+
 	/**
 	 * Validate a preview for the example CSV is generated as expected.
 	 * 
@@ -11,6 +11,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.junit.Before;
 import org.junit.Test;
+import org.sagebionetworks.repo.manager.file.ByteArrayRangeSource;
 import org.sagebionetworks.repo.web.ServiceUnavailableException;
 
 public class TextPreviewTest {
@@ -33,6 +34,35 @@ public class TextPreviewTest {
 		assertTrue(output.indexOf("...") > -1);
 	}
 
+	@Test
+	public void testGeneratePreviewFromSource() throws IOException {
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			input.append(testInputString);
+		}
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		textPreviewGenerator.generatePreview(IOUtils.toInputStream(input.toString(), "UTF-8"), expected);
+		ByteArrayRangeSource source = new ByteArrayRangeSource(input.toString().getBytes("UTF-8"));
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		// call under test
+		PreviewOutputMetadata type = textPreviewGenerator.generatePreview(source, baos);
+		assertEquals(TextPreviewGenerator.TEXT_PLAIN, type.getContentType());
+		assertEquals(expected.toString("UTF-8"), baos.toString("UTF-8"));
+		// only the first bytes are read
+		assertEquals(1, source.getRangeCount());
+		assertEquals(TextPreviewGenerator.MAX_BYTES_READ, source.getBytesRequested());
+	}
+
+	@Test
+	public void testGeneratePreviewFromSourceSmall() throws IOException {
+		ByteArrayRangeSource source = new ByteArrayRangeSource("short".getBytes("UTF-8"));
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		// call under test
+		textPreviewGenerator.generatePreview(source, baos);
+		assertEquals("short", baos.toString("UTF-8"));
+		assertEquals(5L, source.getBytesRequested());
+	}
+
 	@Test
 	public void testContentType() throws IOException {
 		assertTrue(textPreviewGenerator.supportsContentType("text/xml", null));
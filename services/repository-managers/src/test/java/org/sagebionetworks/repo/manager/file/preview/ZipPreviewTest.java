@@ -1,6 +1,8 @@
 package org.sagebionetworks.repo.manager.file.preview;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -13,6 +15,7 @@ import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.junit.Before;
 import org.junit.Test;
+import org.sagebionetworks.repo.manager.file.ByteArrayRangeSource;
 import org.sagebionetworks.repo.web.ServiceUnavailableException;
 
 public class ZipPreviewTest {
@@ -55,4 +58,68 @@ public class ZipPreviewTest {
 		}
 	}
 
+	@Test
+	public void testGeneratePreviewFromSource() throws IOException {
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(zipped)) {
+			out.setComment("a comment after the central directory");
+			byte[] data = new byte[10_000];
+			for (int i = 0; i < 10; i++) {
+				out.putNextEntry(new ZipEntry("textFile" + i + ".txt"));
+				out.write(data);
+				out.closeEntry();
+			}
+			out.putNextEntry(new ZipEntry("__MACOSX/textFile0.txt"));
+			out.closeEntry();
+		}
+		ByteArrayRangeSource source = new ByteArrayRangeSource(zipped.toByteArray());
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		// call under test
+		PreviewOutputMetadata metadata = zipPreviewGenerator.generatePreview(source, baos);
+		assertEquals(ZipPreviewGenerator.TEXT_CSV, metadata.getContentType());
+		assertEquals(".csv", metadata.getExtension());
+		String expected = "textFile0.txt\ntextFile1.txt\ntextFile2.txt\ntextFile3.txt\ntextFile4.txt\ntextFile5.txt\ntextFile6.txt\ntextFile7.txt\ntextFile8.txt\ntextFile9.txt\n";
+		assertEquals(expected, baos.toString());
+		// only the end of the file and the central directory are read
+		assertEquals(2, source.getRangeCount());
+		assertTrue(source.getBytesRequested() < source.getContentSize());
+	}
+
+	@Test
+	public void testGeneratePreviewFromSourceWithEncryptedEntry() throws IOException {
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(zipped)) {
+			out.putNextEntry(new ZipEntry("secret.txt"));
+			out.write("secret".getBytes());
+			out.closeEntry();
+		}
+		byte[] bytes = zipped.toByteArray();
+		// set the encrypted flag of the entry in the central directory
+		for (int i = bytes.length - ZipPreviewGenerator.END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+			if (bytes[i] == 0x50 && bytes[i + 1] == 0x4b && bytes[i + 2] == 0x01 && bytes[i + 3] == 0x02) {
+				bytes[i + 8] |= ZipPreviewGenerator.ENCRYPTED_FLAG;
+				break;
+			}
+		}
+		try {
+			// call under test
+			zipPreviewGenerator.generatePreview(new ByteArrayRangeSource(bytes), new ByteArrayOutputStream());
+			fail();
+		} catch (PreviewGenerationNotSupportedException e) {
+			assertEquals("ZIP file is encrypted", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testGeneratePreviewFromSourceNotZip() throws IOException {
+		ByteArrayRangeSource source = new ByteArrayRangeSource("not a zip file, so there is no central directory".getBytes());
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		// call under test
+		PreviewOutputMetadata metadata = zipPreviewGenerator.generatePreview(source, baos);
+		assertEquals(ZipPreviewGenerator.TEXT_CSV, metadata.getContentType());
+		assertEquals("", baos.toString());
+		// the whole file was read looking for entries
+		assertEquals(2, source.getRangeCount());
+	}
+
 }
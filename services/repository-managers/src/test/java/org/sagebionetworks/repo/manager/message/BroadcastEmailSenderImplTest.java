@@ -0,0 +1,85 @@
+package org.sagebionetworks.repo.manager.message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.manager.principal.SynapseEmailService;
+
+import com.amazonaws.services.simpleemail.model.Destination;
+import com.amazonaws.services.simpleemail.model.SendRawEmailRequest;
+
+@ExtendWith(MockitoExtension.class)
+public class BroadcastEmailSenderImplTest {
+
+	@Mock
+	private SynapseEmailService mockSesClient;
+
+	private BroadcastEmailSenderImpl sender;
+
+	private SendRawEmailRequest one;
+	private SendRawEmailRequest two;
+	private SendRawEmailRequest three;
+
+	@BeforeEach
+	public void before() {
+		sender = new BroadcastEmailSenderImpl(mockSesClient, 2, 1000.0);
+		one = new SendRawEmailRequest().withDestinations(new Destination().withToAddresses("one@example.com"));
+		two = new SendRawEmailRequest().withDestinations(new Destination().withToAddresses("two@example.com"));
+		three = new SendRawEmailRequest().withDestinations(new Destination().withToAddresses("three@example.com"));
+	}
+
+	@AfterEach
+	public void after() {
+		sender.shutdown();
+	}
+
+	@Test
+	public void testSendEmails() {
+		// call under test
+		sender.sendEmails(Arrays.asList(one, two, three));
+		verify(mockSesClient).sendRawEmail(one);
+		verify(mockSesClient).sendRawEmail(two);
+		verify(mockSesClient).sendRawEmail(three);
+	}
+
+	@Test
+	public void testSendEmailsWithEmpty() {
+		// call under test
+		sender.sendEmails(Collections.emptyList());
+		verify(mockSesClient, never()).sendRawEmail(one);
+	}
+
+	@Test
+	public void testSendEmailsWithFailure() {
+		IllegalStateException failure = new IllegalStateException("nope");
+		doThrow(failure).when(mockSesClient).sendRawEmail(two);
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+			// call under test
+			sender.sendEmails(Arrays.asList(one, two, three));
+		});
+		assertEquals(failure, thrown);
+		// the other emails are still sent
+		verify(mockSesClient).sendRawEmail(one);
+		verify(mockSesClient).sendRawEmail(three);
+	}
+
+	@Test
+	public void testSendEmailsWithNull() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			sender.sendEmails(null);
+		});
+	}
+}
@@ -4,7 +4,6 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,7 +28,6 @@ import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.markdown.MarkdownClientException;
 import org.sagebionetworks.repo.manager.AuthorizationManager;
 import org.sagebionetworks.repo.manager.UserManager;
-import org.sagebionetworks.repo.manager.principal.SynapseEmailService;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -61,7 +59,7 @@ public class BroadcastMessageManagerImplTest {
 	@Mock
 	private DBOChangeDAO mockChangeDao;
 	@Mock
-	private SynapseEmailService mockSesClient;
+	private BroadcastEmailSender mockEmailSender;
 	@Mock
 	private TimeoutUtils mockTimeoutUtils;
 	@Mock
@@ -141,13 +139,14 @@ public class BroadcastMessageManagerImplTest {
 		// The message state should be sent.
 		verify(mockBroadcastMessageDao).setBroadcast(change.getChangeNumber());
 		// two messages should be sent
-		verify(mockSesClient, times(2)).sendRawEmail(any(SendRawEmailRequest.class));
+		verify(mockEmailSender).sendEmails(Arrays.asList(new SendRawEmailRequest(), new SendRawEmailRequest()));
 	}
 
 	@Test
 	public void testBroadcastThreadWithMentionedUsers() throws Exception {
 		when(mockSubscriptionDAO.getAllEmailSubscribers(topic.getObjectId(), topic.getObjectType())).thenReturn(subscribers);
 		when(mockBroadcastMessageBuilder.buildEmailForSubscriber(any(Subscriber.class))).thenReturn(new SendRawEmailRequest());
+		when(mockBroadcastMessageBuilder.buildEmailForNonSubscriber(any(UserNotificationInfo.class))).thenReturn(new SendRawEmailRequest());
 		
 		Set<String> userIds = new HashSet<String>();
 		userIds.addAll(Arrays.asList("111", "222", "2"));
@@ -181,7 +180,9 @@ public class BroadcastMessageManagerImplTest {
 		verify(mockUserManager, never()).getUserInfo(2L);
 		verify(mockAuthManager).canSubscribe(hasAccessUserInfo, topic.getObjectId(), topic.getObjectType());
 		verify(mockAuthManager).canSubscribe(accessDeniedUserInfo, topic.getObjectId(), topic.getObjectType());
-		verify(mockSesClient, times(2)).sendRawEmail(any(SendRawEmailRequest.class));
+		// the subscribers and the mentioned user with access
+		verify(mockEmailSender).sendEmails(Arrays.asList(new SendRawEmailRequest(), new SendRawEmailRequest()));
+		verify(mockEmailSender).sendEmails(Collections.singletonList(new SendRawEmailRequest()));
 	}
 	
 	@Test
@@ -190,15 +191,16 @@ public class BroadcastMessageManagerImplTest {
 		
 		subscribers.get(0).setNotificationEmail(quarantinedEmail);
 		
-		when(mockEmailQuarantineDao.isQuarantined(quarantinedEmail)).thenReturn(true);
+		when(mockEmailQuarantineDao.getQuarantinedEmails(any())).thenReturn(Collections.singleton(quarantinedEmail));
 		when(mockSubscriptionDAO.getAllEmailSubscribers(topic.getObjectId(), topic.getObjectType())).thenReturn(subscribers);
 		when(mockBroadcastMessageBuilder.buildEmailForSubscriber(any(Subscriber.class))).thenReturn(new SendRawEmailRequest());
 		// call under test
 		manager.broadcastMessage(mockUser, mockCallback, change);
 
-		verify(mockEmailQuarantineDao).isQuarantined(quarantinedEmail);
+		// All the recipients are checked with a single call
+		verify(mockEmailQuarantineDao).getQuarantinedEmails(Arrays.asList(quarantinedEmail, null));
 		// Only one message should be sent
-		verify(mockSesClient).sendRawEmail(any(SendRawEmailRequest.class));
+		verify(mockEmailSender).sendEmails(Collections.singletonList(new SendRawEmailRequest()));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -273,7 +275,7 @@ public class BroadcastMessageManagerImplTest {
 		verify(mockUserManager).getUserInfo(222L);
 		verify(mockAuthManager).canSubscribe(hasAccessUserInfo, topic.getObjectId(), topic.getObjectType());
 		verify(mockAuthManager).canSubscribe(accessDeniedUserInfo, topic.getObjectId(), topic.getObjectType());
-		verify(mockSesClient).sendRawEmail(any(SendRawEmailRequest.class));
+		verify(mockEmailSender).sendEmails(Collections.singletonList(new SendRawEmailRequest()));
 	}
 
 	@Test
@@ -308,7 +310,7 @@ public class BroadcastMessageManagerImplTest {
 		verify(mockUserManager).getUserInfo(222L);
 		verify(mockAuthManager).canSubscribe(hasAccessUserInfo1, topic.getObjectId(), topic.getObjectType());
 		verify(mockAuthManager).canSubscribe(hasAccessUserInfo2, topic.getObjectId(), topic.getObjectType());
-		verify(mockSesClient, times(2)).sendRawEmail(any(SendRawEmailRequest.class));
+		verify(mockEmailSender).sendEmails(Arrays.asList(new SendRawEmailRequest(), new SendRawEmailRequest()));
 	}
 	
 	@Test
@@ -316,7 +318,7 @@ public class BroadcastMessageManagerImplTest {
 		
 		String quarantinedEmail = "quarantined@example.com";
 
-		when(mockEmailQuarantineDao.isQuarantined(quarantinedEmail)).thenReturn(true);
+		when(mockEmailQuarantineDao.getQuarantinedEmails(any())).thenReturn(Collections.singleton(quarantinedEmail));
 		when(mockBroadcastMessageBuilder.buildEmailForNonSubscriber(any(UserNotificationInfo.class))).thenReturn(new SendRawEmailRequest());
 		
 		
@@ -338,11 +340,12 @@ public class BroadcastMessageManagerImplTest {
 		
 		verify(mockBroadcastMessageBuilder).getRelatedUsers();
 		verify(mockUserProfileDao).getUserNotificationInfo(userIds);
-		verify(mockEmailQuarantineDao).isQuarantined(quarantinedEmail);
+		verify(mockEmailQuarantineDao).getQuarantinedEmails(Arrays.asList(quarantinedEmail, null));
+		verify(mockUserManager, never()).getUserInfo(111L);
 		verify(mockUserManager).getUserInfo(222L);
 		
 		// Only one should have been sent
-		verify(mockSesClient).sendRawEmail(any(SendRawEmailRequest.class));
+		verify(mockEmailSender).sendEmails(Collections.singletonList(new SendRawEmailRequest()));
 	}
 
 	@Test
@@ -10,6 +10,7 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -177,6 +178,53 @@ public class DiscussionBroadcastMessageBuilderTest {
 		assertNotNull(request);
 	}
 
+	@Test
+	public void testBuildHtmlBodyForSubscriberConvertsMarkdownOnce() throws Exception{
+		// the conversion returns the markdown as is
+		when(mockMarkdownDao.convertMarkdown(anyString(), isNull())).thenAnswer(invocation -> invocation.getArgument(0));
+		Subscriber other = new Subscriber();
+		other.setFirstName("<b>other</b>");
+		other.setUsername("otherUsername");
+		other.setSubscriptionId("888");
+		// call under test
+		String first = builder.buildHtmlBodyForSubscriber(subscriber);
+		String second = builder.buildHtmlBodyForSubscriber(other);
+		assertTrue(first.contains("subscriberFirstName subscriberLastName (subscriberUsername)"));
+		assertTrue(first.contains("https://www.synapse.org/#!Subscription:subscriptionID=999"));
+		assertFalse(first.contains(DiscussionBroadcastMessageBuilder.RECIPIENT_NAME_PLACEHOLDER));
+		// names are escaped since they are substituted into the HTML
+		assertTrue(second.contains("&lt;b&gt;other&lt;/b&gt;"));
+		assertTrue(second.contains("https://www.synapse.org/#!Subscription:subscriptionID=888"));
+		assertFalse(second.contains(DiscussionBroadcastMessageBuilder.SUBSCRIPTION_ID_PLACEHOLDER));
+		verify(mockMarkdownDao, times(1)).convertMarkdown(anyString(), isNull());
+	}
+
+	@Test
+	public void testBuildHtmlBodyForNonSubscriberConvertsMarkdownOnce() throws Exception{
+		when(mockMarkdownDao.convertMarkdown(anyString(), isNull())).thenAnswer(invocation -> invocation.getArgument(0));
+		// call under test
+		String first = builder.buildHtmlBodyForNonSubscriber(user);
+		String second = builder.buildHtmlBodyForNonSubscriber(user);
+		assertTrue(first.contains("firstName lastName (username)"));
+		assertEquals(first, second);
+		verify(mockMarkdownDao, times(1)).convertMarkdown(anyString(), isNull());
+	}
+
+	@Test
+	public void testBuildHtmlBodyForSubscriberWithPlaceholderInMarkdown() throws Exception{
+		when(mockMarkdownDao.convertMarkdown(anyString(), isNull())).thenAnswer(invocation -> invocation.getArgument(0));
+		builder = new DiscussionBroadcastMessageBuilder(actorUsername, actorUserId,
+				threadTitle, threadId, projectId, projectName, DiscussionBroadcastMessageBuilder.SUBSCRIPTION_ID_PLACEHOLDER,
+				ThreadMessageBuilderFactory.THREAD_TEMPLATE, ThreadMessageBuilderFactory.THREAD_CREATED_TITLE,
+				ThreadMessageBuilderFactory.UNSUBSCRIBE_FORUM, mockMarkdownDao, topic, mockUserManager);
+		// call under test
+		String html = builder.buildHtmlBodyForSubscriber(subscriber);
+		builder.buildHtmlBodyForSubscriber(subscriber);
+		// the markdown is left as is and converted for each subscriber
+		assertTrue(html.contains(DiscussionBroadcastMessageBuilder.SUBSCRIPTION_ID_PLACEHOLDER));
+		verify(mockMarkdownDao, times(2)).convertMarkdown(anyString(), isNull());
+	}
+
 	@Test
 	public void testTruncateStringOver(){
 		String input = "123456789";
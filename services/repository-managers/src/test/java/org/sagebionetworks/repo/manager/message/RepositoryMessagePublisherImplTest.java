@@ -7,6 +7,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.Date;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +19,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.StackConfiguration;
 import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeMessageBatchEncoding;
+import org.sagebionetworks.repo.model.message.ChangeMessages;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.repo.model.message.LocalStackMessage;
 import org.sagebionetworks.repo.model.message.TransactionalMessenger;
@@ -27,6 +30,7 @@ import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.CreateTopicRequest;
 import com.amazonaws.services.sns.model.CreateTopicResult;
+import com.amazonaws.services.sns.model.MessageAttributeValue;
 import com.amazonaws.services.sns.model.PublishRequest;
 
 /**
@@ -158,4 +162,36 @@ public class RepositoryMessagePublisherImplTest {
 		
 	}
 	
+	@Test
+	public void testPublishBatchToTopicJSON() throws JSONObjectAdapterException {
+		when(mockConfig.getRepositoryChangeTopic(any())).thenReturn("topic");
+		when(mockAwsSNSClient.createTopic(any(CreateTopicRequest.class))).thenReturn(new CreateTopicResult().withTopicArn("topicArn"));
+		when(mockConfig.getChangeMessageCompactEncodingEnabled()).thenReturn(false);
+		ChangeMessages messages = new ChangeMessages();
+		messages.setList(Collections.singletonList(message));
+		String expectedJson = EntityFactory.createJSONStringForEntity(messages);
+		
+		// Call under test
+		messagePublisher.publishBatchToTopic(ObjectType.ENTITY, Collections.singletonList(message));
+		
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.ENTITY, Collections.singletonList(message));
+		verify(mockAwsSNSClient).publish(new PublishRequest("topicArn", expectedJson));
+	}
+	
+	@Test
+	public void testPublishBatchToTopicCompact() {
+		when(mockConfig.getRepositoryChangeTopic(any())).thenReturn("topic");
+		when(mockAwsSNSClient.createTopic(any(CreateTopicRequest.class))).thenReturn(new CreateTopicResult().withTopicArn("topicArn"));
+		when(mockConfig.getChangeMessageCompactEncodingEnabled()).thenReturn(true);
+		
+		// Call under test
+		messagePublisher.publishBatchToTopic(ObjectType.ENTITY, Collections.singletonList(message));
+		
+		verify(mockTransactionalMessanger).registerMessagesSent(ObjectType.ENTITY, Collections.singletonList(message));
+		PublishRequest expected = new PublishRequest("topicArn", ChangeMessageBatchEncoding.encode(Collections.singletonList(message)))
+				.addMessageAttributesEntry(ChangeMessageBatchEncoding.ENCODING_ATTRIBUTE,
+						new MessageAttributeValue().withDataType("String").withStringValue(ChangeMessageBatchEncoding.COMPACT_V1));
+		verify(mockAwsSNSClient).publish(expected);
+	}
+	
 }
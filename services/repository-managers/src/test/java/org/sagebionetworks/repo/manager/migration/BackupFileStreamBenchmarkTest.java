@@ -0,0 +1,113 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.UnmodifiableXStream;
+import org.sagebionetworks.repo.model.daemon.BackupAliasType;
+import org.sagebionetworks.repo.model.dbo.MigratableDatabaseObject;
+import org.sagebionetworks.repo.model.dbo.migration.MigrationTypeProvider;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
+import org.sagebionetworks.repo.model.migration.MigrationType;
+import org.sagebionetworks.repo.model.query.jdo.SqlConstants;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Not a test of timing. Prints the size of a backup of the same rows in the XML
+ * and binary row formats, and the rows per second written and read in each
+ * format. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class BackupFileStreamBenchmarkTest {
+
+	private static final int ROW_COUNT = 100_000;
+	private static final int ROWS_PER_FILE = 10_000;
+	private static final int ITERATIONS = 5;
+
+	private BackupFileStreamImpl backupFileStream;
+	private List<MigratableDatabaseObject<?, ?>> rows;
+
+	@BeforeEach
+	public void before() {
+		MigrationTypeProvider typeProvider = mock(MigrationTypeProvider.class);
+		when(typeProvider.getObjectForType(MigrationType.NODE)).thenReturn(new DBONode());
+		when(typeProvider.getXStream(BackupAliasType.TABLE_NAME))
+				.thenReturn(UnmodifiableXStream.builder().alias(SqlConstants.TABLE_NODE, DBONode.class).build());
+		backupFileStream = new BackupFileStreamImpl();
+		ReflectionTestUtils.setField(backupFileStream, "typeProvider", typeProvider);
+
+		rows = new ArrayList<>(ROW_COUNT);
+		for (long i = 0; i < ROW_COUNT; i++) {
+			DBONode node = new DBONode();
+			node.setId(i);
+			node.setParentId(i / 100);
+			node.setName("name" + i);
+			node.setType("file");
+			node.setCurrentRevNumber(1L);
+			node.setMaxRevNumber(1L);
+			node.setCreatedBy(123L);
+			node.setCreatedOn(1500000000000L + i);
+			node.seteTag("etag" + i);
+			rows.add(node);
+		}
+	}
+
+	@Test
+	public void testXmlVersusBinary() throws IOException {
+		double xml = measure("xml", false);
+		double binary = measure("binary", true);
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", binary / xml));
+	}
+
+	/**
+	 * Write and then read the rows repeatedly in the given format, print the size
+	 * of the backup and the rows per second, and return the rows per second of a
+	 * write followed by a read.
+	 */
+	double measure(String name, boolean binary) throws IOException {
+		backupFileStream.setBinaryFormatEnabled(binary);
+		// warm up
+		byte[] backup = write();
+		assertEquals(ROW_COUNT, read(backup));
+		long writeNanos = 0;
+		long readNanos = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			backup = write();
+			writeNanos += System.nanoTime() - start;
+			start = System.nanoTime();
+			assertEquals(ROW_COUNT, read(backup));
+			readNanos += System.nanoTime() - start;
+		}
+		double writeRowsPerSecond = ROW_COUNT * ITERATIONS / (writeNanos / 1e9);
+		double readRowsPerSecond = ROW_COUNT * ITERATIONS / (readNanos / 1e9);
+		System.out.println(String.format("%-16s %,12d bytes %,12.0f rows/s written %,12.0f rows/s read", name,
+				backup.length, writeRowsPerSecond, readRowsPerSecond));
+		return ROW_COUNT * ITERATIONS / ((writeNanos + readNanos) / 1e9);
+	}
+
+	private byte[] write() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		backupFileStream.writeBackupFile(out, rows, BackupAliasType.TABLE_NAME, ROWS_PER_FILE);
+		return out.toByteArray();
+	}
+
+	private int read(byte[] backup) {
+		int count = 0;
+		for (MigratableDatabaseObject<?, ?> row : backupFileStream.readBackupFile(new ByteArrayInputStream(backup),
+				BackupAliasType.TABLE_NAME)) {
+			count++;
+		}
+		return count;
+	}
+}
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.manager.migration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -405,6 +406,103 @@ public class BackupFileStreamImplTest {
 		assertEquals(rowsToWrite, allResults);
 	}
 	
+	@Test
+	public void testCreateFileNameBinary() {
+		// call under test
+		String name = BackupFileStreamImpl.createFileName(MigrationType.ACCESS_REQUIREMENT, 3, BackupFileStreamImpl.BINARY_EXTENSION);
+		assertEquals("ACCESS_REQUIREMENT.3.bin", name);
+		assertTrue(BackupFileStreamImpl.isBinaryFileName(name));
+		assertEquals(MigrationType.ACCESS_REQUIREMENT, BackupFileStreamImpl.getTypeFromFileName(name));
+		assertFalse(BackupFileStreamImpl.isBinaryFileName(BackupFileStreamImpl.createFileName(MigrationType.ACCESS_REQUIREMENT, 3)));
+	}
+	
+	@Test
+	public void testWriteBackupFileBinary() throws IOException {
+		backupFileStream.setBinaryFormatEnabled(true);
+		int maximumRowsPerFile = 100;
+		// call under test
+		backupFileStream.writeBackupFile(byteArrayOutputStream, rowsToWrite, backupAliasType, maximumRowsPerFile);
+		// Read the results
+		ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+		ZipEntry entry = zipIn.getNextEntry();
+		assertNotNull(entry);
+		assertEquals("NODE.0.bin", entry.getName());
+		entry = zipIn.getNextEntry();
+		assertNotNull(entry);
+		assertEquals("NODE_REVISION.1.bin", entry.getName());
+		// no more files
+		entry = zipIn.getNextEntry();
+		assertEquals(null, entry);
+	}
+	
+	@Test
+	public void testWriteThenReadBinary() throws IOException {
+		backupFileStream.setBinaryFormatEnabled(true);
+		for (BackupAliasType aliasType : BackupAliasType.values()) {
+			int maximumRowsPerFile = 1;
+			byteArrayOutputStream = new ByteArrayOutputStream();
+			// call under test
+			backupFileStream.writeBackupFile(byteArrayOutputStream, rowsToWrite, aliasType, maximumRowsPerFile);
+			ByteArrayInputStream input = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+			// call under test
+			Iterable<MigratableDatabaseObject<?, ?>> resultIterator = backupFileStream.readBackupFile(input, aliasType);
+			List<MigratableDatabaseObject<?, ?>> allResults = new LinkedList<>();
+			for (MigratableDatabaseObject<?, ?> row : resultIterator) {
+				allResults.add(row);
+			}
+			assertEquals(rowsToWrite, allResults);
+		}
+	}
+	
+	/**
+	 * A reader must be able to read files written in either format.
+	 */
+	@Test
+	public void testReadMixedFormats() throws IOException {
+		ZipOutputStream zos = new ZipOutputStream(byteArrayOutputStream);
+		backupFileStream.setBinaryFormatEnabled(false);
+		backupFileStream.writeBatchToZip(zos, Lists.newArrayList(dboNodeOne, dboNodeTwo), 0, MigrationType.NODE, backupAliasType);
+		backupFileStream.setBinaryFormatEnabled(true);
+		backupFileStream.writeBatchToZip(zos, Lists.newArrayList(dboRevisionOne, dboRevisionTwo), 1, MigrationType.NODE_REVISION, backupAliasType);
+		zos.close();
+		ByteArrayInputStream input = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+		// call under test
+		Iterable<MigratableDatabaseObject<?, ?>> resultIterator = backupFileStream.readBackupFile(input, backupAliasType);
+		List<MigratableDatabaseObject<?, ?>> allResults = new LinkedList<>();
+		for (MigratableDatabaseObject<?, ?> row : resultIterator) {
+			allResults.add(row);
+		}
+		assertEquals(rowsToWrite, allResults);
+	}
+	
+	@Test (expected=EmptyFileException.class)
+	public void testReadBinaryBackupObjectsEmpty() throws EmptyFileException {
+		// call under test
+		backupFileStream.readBinaryBackupObjects(new ByteArrayInputStream(new byte[0]), backupAliasType);
+	}
+	
+	/**
+	 * The binary format should be more compact than XML for the same rows.
+	 */
+	@Test
+	public void testBinarySmallerThanXml() throws IOException {
+		List<MigratableDatabaseObject<?, ?>> rows = new LinkedList<>();
+		for (long i = 0; i < 1000; i++) {
+			DBONode node = new DBONode();
+			node.setId(i);
+			node.setName("name" + i);
+			node.setCurrentRevNumber(1L);
+			rows.add(node);
+		}
+		ByteArrayOutputStream xmlOut = new ByteArrayOutputStream();
+		backupFileStream.setBinaryFormatEnabled(false);
+		backupFileStream.writeBackupFile(xmlOut, rows, backupAliasType, maximumRowsPerFile);
+		ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+		backupFileStream.setBinaryFormatEnabled(true);
+		backupFileStream.writeBackupFile(binaryOut, rows, backupAliasType, maximumRowsPerFile);
+		assertTrue(binaryOut.size() < xmlOut.size());
+	}
+	
 	@Test (expected=IllegalStateException.class)
 	public void testNextBeforeHasNext() throws IOException {
 		backupFileStream.writeBackupFile(byteArrayOutputStream, rowsToWrite, backupAliasType, maximumRowsPerFile);
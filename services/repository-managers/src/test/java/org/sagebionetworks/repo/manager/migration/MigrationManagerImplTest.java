@@ -10,7 +10,8 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -21,10 +22,9 @@ import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -45,6 +46,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.aws.SynapseS3Client;
+import org.sagebionetworks.repo.manager.file.RangedInputStream;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.StackStatusDao;
 import org.sagebionetworks.repo.model.UnauthorizedException;
@@ -76,12 +78,15 @@ import org.sagebionetworks.repo.model.migration.RestoreTypeResponse;
 import org.sagebionetworks.repo.model.migration.TypeData;
 import org.sagebionetworks.repo.model.status.StatusEnum;
 import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
-import org.sagebionetworks.util.FileProvider;
+import org.sagebionetworks.upload.multipart.S3MultipartOutputStream;
 
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.model.UploadPartResult;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
@@ -101,15 +106,9 @@ public class MigrationManagerImplTest {
 	@Mock
 	SynapseS3Client mockS3Client;
 	@Mock
-	FileProvider mockFileProvider;
-	@Mock
-	File mockFile;
-	@Mock
-	FileOutputStream mockOutputStream;
-	@Mock
 	InputStream mockInputStream;
 	@Mock
-	FileInputStream mockFileInputStream;
+	S3Object mockS3Object;
 	@Mock
 	UserInfo mockUser;
 	@Captor
@@ -118,6 +117,8 @@ public class MigrationManagerImplTest {
 	MigrationTypeListener<DatabaseObject<?>> mockMigrationListener;
 	@Captor
 	ArgumentCaptor<GetObjectRequest> getObjectRequestCaptor;
+	@Captor
+	ArgumentCaptor<InitiateMultipartUploadRequest> initiateRequestCaptor;
 	@InjectMocks
 	MigrationManagerImpl manager;
 	
@@ -144,6 +145,8 @@ public class MigrationManagerImplTest {
 	BackupManifest manifest;
 	TypeData nodeTypeData;
 	TypeData revisionTypeData;
+	InitiateMultipartUploadResult initiateResult;
+	UploadPartResult uploadPartResult;
 	
 	@BeforeEach
 	public void before() throws IOException{
@@ -192,6 +195,12 @@ public class MigrationManagerImplTest {
 		}
 		this.bootstrapPrincipalIds = Collections.unmodifiableList(ids);
 				
+		initiateResult = new InitiateMultipartUploadResult();
+		initiateResult.setUploadId("someUploadId");
+		uploadPartResult = new UploadPartResult();
+		uploadPartResult.setPartNumber(1);
+		uploadPartResult.setETag("etag");
+		
 		restoreTypeRequest = new RestoreTypeRequest();
 		restoreTypeRequest.setAliasType(backupAlias);
 		restoreTypeRequest.setBackupFileKey("backupFileKey");
@@ -322,8 +331,8 @@ public class MigrationManagerImplTest {
 	
 	@Test
 	public void testBackupStreamToS3() throws IOException {
-		when(mockFileProvider.createTempFile(any(), any())).thenReturn(mockFile);
-		when(mockFileProvider.createFileOutputStream(any())).thenReturn(mockOutputStream);
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+		when(mockS3Client.uploadPart(any())).thenReturn(uploadPartResult);
 		String backupKey = "backupkey";
 		List<MigratableDatabaseObject<?, ?>> stream = new LinkedList<>();
 		MigrationType type = MigrationType.NODE;
@@ -332,24 +341,29 @@ public class MigrationManagerImplTest {
 		// call under test
 		BackupTypeResponse response = manager.backupStreamToS3(type, stream, aliasType, batchSize, backupKey);
 		assertNotNull(response);
-		assertNotNull(response.getBackupFileKey());
-		verify(mockBackupFileStream).writeBackupFile(mockOutputStream, stream, aliasType, batchSize);
-		verify(mockS3Client).putObject(MigrationManagerImpl.backupBucket, response.getBackupFileKey(), mockFile);
-		// the stream must be flushed and closed.
-		verify(mockOutputStream).flush();
-		verify(mockOutputStream, times(2)).close();
-		// the temp file must be deleted
-		verify(mockFile).delete();
+		assertEquals(backupKey, response.getBackupFileKey());
+		verify(mockBackupFileStream).writeBackupFile(any(OutputStream.class), eq(stream), eq(aliasType), eq(batchSize));
+		verify(mockS3Client).initiateMultipartUpload(initiateRequestCaptor.capture());
+		assertEquals(MigrationManagerImpl.backupBucket, initiateRequestCaptor.getValue().getBucketName());
+		assertEquals(backupKey, initiateRequestCaptor.getValue().getKey());
+		// the upload must be completed and never aborted.
+		verify(mockS3Client).completeMultipartUpload(any());
+		verify(mockS3Client, never()).abortMultipartUpload(any());
+		verify(mockS3Client, never()).putObject(anyString(), anyString(), any(File.class));
 	}
 	
 	@Test
 	public void testBackupStreamToS3Exception() throws IOException {
-		when(mockFileProvider.createTempFile(anyString(), anyString())).thenReturn(mockFile);
-		when(mockFileProvider.createFileOutputStream(any(File.class))).thenReturn(mockOutputStream);
-		
-		// setup an failure
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+		when(mockS3Client.uploadPart(any())).thenReturn(uploadPartResult);
+		// setup a failure after some data has been written and the stream closed.
 		IOException toBeThrown = new IOException("some kind of IO error");
-		doThrow(toBeThrown).when(mockBackupFileStream).writeBackupFile(any(), any(), any(), anyLong());
+		doAnswer(invocation -> {
+			OutputStream out = invocation.getArgument(0);
+			out.write(new byte[S3MultipartOutputStream.MINIMUM_PART_SIZE_BYTES + 1]);
+			out.close();
+			throw toBeThrown;
+		}).when(mockBackupFileStream).writeBackupFile(any(), any(), any(), anyLong());
 		// call under test
 		List<MigratableDatabaseObject<?, ?>> stream = new LinkedList<>();
 		MigrationType type = MigrationType.NODE;
@@ -360,16 +374,16 @@ public class MigrationManagerImplTest {
 			manager.backupStreamToS3(type, stream, aliasType, batchSize, backupKey);
 		});
 		assertEquals(toBeThrown.getMessage(), e.getMessage());
-		// the stream must be closed
-		verify(mockOutputStream).close();
-		// the temp file must be deleted
-		verify(mockFile).delete();
+		// the partial upload must be aborted rather than completed.
+		verify(mockS3Client).uploadPart(any());
+		verify(mockS3Client, never()).completeMultipartUpload(any());
+		verify(mockS3Client).abortMultipartUpload(any());
 	}
 	
 	@Test
 	public void testBackupRangeRequest() throws IOException {
-		when(mockFileProvider.createTempFile(any(), any())).thenReturn(mockFile);
-		when(mockFileProvider.createFileOutputStream(any())).thenReturn(mockOutputStream);
+		when(mockS3Client.initiateMultipartUpload(any())).thenReturn(initiateResult);
+		when(mockS3Client.uploadPart(any())).thenReturn(uploadPartResult);
 		when(mockUser.isAdmin()).thenReturn(true);
 		when(mockDao.getObjectForType(any())).thenReturn(new DBONode());
 		when(mockDao.streamDatabaseObjects(MigrationType.NODE, rangeRequest.getMinimumId(), rangeRequest.getMaximumId(),
@@ -379,7 +393,7 @@ public class MigrationManagerImplTest {
 		
  		// call under test
 		manager.backupRequest(mockUser, rangeRequest);
-		verify(mockBackupFileStream).writeBackupFile(eq(mockOutputStream), iterableCator.capture(), eq(backupAlias), eq(batchSize));
+		verify(mockBackupFileStream).writeBackupFile(any(OutputStream.class), iterableCator.capture(), eq(backupAlias), eq(batchSize));
 		List<MigratableDatabaseObject<?, ?>> results = new LinkedList<>();
 		for(MigratableDatabaseObject<?, ?> object: iterableCator.getValue()) {
 			results.add(object);
@@ -742,13 +756,34 @@ public class MigrationManagerImplTest {
 		verify(objectStream).close();
 	}
 	
+	/**
+	 * Setup a backup file in S3 that is read in full by the backup file stream.
+	 */
+	S3ObjectInputStream setupBackupInS3() throws IOException {
+		byte[] backup = "backup file content".getBytes(StandardCharsets.UTF_8);
+		ObjectMetadata metadata = new ObjectMetadata();
+		metadata.setContentLength(backup.length);
+		when(mockS3Client.getObjectMetadata(MigrationManagerImpl.backupBucket, restoreTypeRequest.getBackupFileKey())).thenReturn(metadata);
+		S3ObjectInputStream content = Mockito.spy(new S3ObjectInputStream(new ByteArrayInputStream(backup), null));
+		doNothing().when(content).abort();
+		when(mockS3Object.getObjectContent()).thenReturn(content);
+		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
+		return content;
+	}
+	
 	@Test
 	public void testRestoreRequestNoRange() throws IOException {
 		when(mockS3Client.doesObjectExist(any(), any())).thenReturn(false);
-		when(mockFileProvider.createTempFile(any(), any())).thenReturn(mockFile);
-		when(mockFileProvider.createFileInputStream(any())).thenReturn(mockFileInputStream);
+		S3ObjectInputStream content = setupBackupInS3();
 		when(mockUser.isAdmin()).thenReturn(true);
-		when(mockBackupFileStream.readBackupFile(any(), any())).thenReturn(allObjects);
+		when(mockBackupFileStream.readBackupFile(any(), any())).thenAnswer(invocation -> {
+			InputStream in = invocation.getArgument(0);
+			assertEquals('b', in.read());
+			// the range is closed before the rows are read from it.
+			verify(content).abort();
+			assertEquals("ackup file content", IOUtils.toString(in, StandardCharsets.UTF_8));
+			return allObjects;
+		});
 		when(mockDao.getObjectForType(any())).thenReturn(new DBONode());
 		when(mockDao.isMigrationTypeRegistered(MigrationType.NODE)).thenReturn(true);
 		when(mockDao.isMigrationTypeRegistered(MigrationType.NODE_REVISION)).thenReturn(true);
@@ -760,16 +795,17 @@ public class MigrationManagerImplTest {
 		// call under test
 		RestoreTypeResponse response = manager.restoreRequest(mockUser, restoreTypeRequest);
 		assertNotNull(response);
-		// the file should be fetched from S3
-		verify(mockS3Client).getObject(getObjectRequestCaptor.capture(), eq(mockFile));
+		// the file should be read from S3 in ranges
+		verify(mockS3Client).getObject(getObjectRequestCaptor.capture());
 		GetObjectRequest gor = getObjectRequestCaptor.getValue();
 		assertNotNull(gor);
 		assertEquals(MigrationManagerImpl.backupBucket, gor.getBucketName());
 		assertEquals(restoreTypeRequest.getBackupFileKey(), gor.getKey());
+		assertEquals(0L, gor.getRange()[0]);
+		assertEquals(18L, gor.getRange()[1]);
+		verify(mockBackupFileStream).readBackupFile(any(RangedInputStream.class), eq(backupAlias));
 		// the bucket retention policy will delete the files.
 		verify(mockS3Client, never()).deleteObject(any(), any());
-		verify(mockFileInputStream).close();
-		verify(mockFile).delete();
 		
 		// delete by range should not occur when the range is missing.
 		verify(mockDao, never()).deleteByRange(any(TypeData.class), anyLong(), anyLong());
@@ -778,10 +814,12 @@ public class MigrationManagerImplTest {
 	
 	@Test
 	public void testRestoreRequestWithRange() throws IOException {
-		when(mockFileProvider.createTempFile(any(), any())).thenReturn(mockFile);
-		when(mockFileProvider.createFileInputStream(any())).thenReturn(mockFileInputStream);
+		S3ObjectInputStream content = setupBackupInS3();
 		when(mockUser.isAdmin()).thenReturn(true);
-		when(mockBackupFileStream.readBackupFile(any(), any())).thenReturn(allObjects);
+		when(mockBackupFileStream.readBackupFile(any(), any())).thenAnswer(invocation -> {
+			IOUtils.toByteArray((InputStream) invocation.getArgument(0));
+			return allObjects;
+		});
 		when(mockDao.getObjectForType(any())).thenReturn(new DBONode());
 		when(mockDao.isMigrationTypeRegistered(any())).thenReturn(true);
 		when(mockDao.getTypeData(MigrationType.NODE)).thenReturn(nodeTypeData);
@@ -794,14 +832,13 @@ public class MigrationManagerImplTest {
 		// call under test
 		RestoreTypeResponse response = manager.restoreRequest(mockUser, restoreTypeRequest);
 		assertNotNull(response);
-		// the file should be fetched from S3
-		verify(mockS3Client).getObject(getObjectRequestCaptor.capture(), eq(mockFile));
+		// the file should be read from S3 in ranges
+		verify(mockS3Client).getObject(getObjectRequestCaptor.capture());
 		GetObjectRequest gor = getObjectRequestCaptor.getValue();
 		assertNotNull(gor);
 		assertEquals(MigrationManagerImpl.backupBucket, gor.getBucketName());
 		assertEquals(restoreTypeRequest.getBackupFileKey(), gor.getKey());
-		verify(mockFileInputStream).close();
-		verify(mockFile).delete();
+		verify(content).abort();
 		
 		// should delete the primary
 		verify(mockDao).deleteByRange(nodeTypeData, min, max);
@@ -812,20 +849,25 @@ public class MigrationManagerImplTest {
 	
 	@Test
 	public void testRestoreRequestCleanup() throws IOException {
-		when(mockFileProvider.createTempFile(any(), any())).thenReturn(mockFile);
+		S3ObjectInputStream content = setupBackupInS3();
 		when(mockUser.isAdmin()).thenReturn(true);
+		when(mockDao.getObjectForType(any())).thenReturn(new DBONode());
+		when(mockDao.isMigrationTypeRegistered(any())).thenReturn(true);
 
-		// setup failure
-		AmazonServiceException exception = new AmazonServiceException("failed");
-		when(mockS3Client.getObject(any(), any(File.class))).thenThrow(exception);
-		String message = assertThrows(AmazonServiceException.class, ()->{
+		// setup failure after the first byte is read
+		IllegalStateException exception = new IllegalStateException("failed");
+		when(mockBackupFileStream.readBackupFile(any(), any())).thenAnswer(invocation -> {
+			((InputStream) invocation.getArgument(0)).read();
+			throw exception;
+		});
+		String message = assertThrows(IllegalStateException.class, ()->{
 			// call under test
 			manager.restoreRequest(mockUser, restoreTypeRequest);
 		}).getMessage();
 		// expected
 		assertEquals(message, exception.getMessage());
-		// temp should be deleted.
-		verify(mockFile).delete();
+		// the S3 stream must be closed.
+		verify(content).abort();
 	}
 	
 	
@@ -0,0 +1,58 @@
+package org.sagebionetworks.repo.manager.migration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.dbo.persistence.DBONode;
+import org.sagebionetworks.repo.model.migration.MigrationType;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeBackfillMigrationListenerTest {
+
+	@Mock
+	private BackfillStatusDao mockBackfillStatusDao;
+
+	@InjectMocks
+	private NodeBackfillMigrationListener listener;
+
+	private List<DBONode> batch = Collections.singletonList(new DBONode());
+
+	@Test
+	public void testSupports() {
+		assertTrue(listener.supports(MigrationType.NODE));
+		assertFalse(listener.supports(MigrationType.NODE_REVISION));
+		assertFalse(listener.supports(MigrationType.ACL));
+	}
+
+	@Test
+	public void testBeforeCreateOrUpdate() {
+		// call under test
+		listener.beforeCreateOrUpdate(batch);
+		for (BackfillType type : BackfillType.values()) {
+			verify(mockBackfillStatusDao).setIncomplete(type);
+		}
+	}
+
+	@Test
+	public void testAfterCreateOrUpdate() {
+		listener.beforeCreateOrUpdate(batch);
+		// call under test
+		listener.afterCreateOrUpdate(batch);
+		for (BackfillType type : BackfillType.values()) {
+			verify(mockBackfillStatusDao, times(2)).setIncomplete(type);
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.manager.KeyPairUtil;
+import org.sagebionetworks.repo.model.auth.JSONWebTokenHelper;
+import org.sagebionetworks.repo.model.oauth.JsonWebKeySet;
+import org.sagebionetworks.util.DefaultClock;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Not a test of timing. Prints the time per validation of an RSA signed access
+ * token when the signature is verified on every call and when the verified
+ * claims are taken from the {@link VerifiedAccessTokenCache}. Only runs with
+ * the benchmark profile.
+ */
+@Tag("benchmark")
+public class AccessTokenValidationBenchmarkTest {
+
+	private static final long WARM_UP_MS = 100;
+	private static final long MEASURE_MS = 200;
+
+	private JsonWebKeySet jsonWebKeySet;
+	private String token;
+	private VerifiedAccessTokenCache cache;
+
+	@BeforeEach
+	public void before() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance(KeyPairUtil.RSA);
+		generator.initialize(2048);
+		KeyPair keyPair = generator.generateKeyPair();
+		String pemEncodedPrivateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+		jsonWebKeySet = KeyPairUtil.getJSONWebKeySetForPEMEncodedRsaKeys(Collections.singletonList(pemEncodedPrivateKey));
+
+		Claims claims = Jwts.claims().setIssuer("https://repo-prod.prod.sagebase.org/auth/v1").setSubject("123")
+				.setExpiration(new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L));
+		token = Jwts.builder().setClaims(claims).setHeaderParam(Header.TYPE, Header.JWT_TYPE)
+				.setHeaderParam(JwsHeader.KEY_ID, jsonWebKeySet.getKeys().get(0).getKid())
+				.signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256).compact();
+		cache = new VerifiedAccessTokenCache(10_000, 5 * 60 * 1000L, new DefaultClock());
+	}
+
+	@Test
+	public void testValidateAccessToken() {
+		long uncached = measure("verify signature", () -> JSONWebTokenHelper.parseJWT(token, jsonWebKeySet).getBody());
+		long cached = measure("cached claims", () -> {
+			Claims claims = cache.get(token);
+			if (claims == null) {
+				claims = JSONWebTokenHelper.parseJWT(token, jsonWebKeySet).getBody();
+				cache.put(token, claims);
+			}
+			return claims;
+		});
+		System.out.println(String.format("%-18s %,10.1fx", "speed up", (double) uncached / cached));
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	/**
+	 * Run the given validation repeatedly, print the average time per validation
+	 * and return it in nanoseconds.
+	 */
+	long measure(String name, Supplier<Claims> toRun) {
+		runFor(WARM_UP_MS, toRun);
+		long start = System.nanoTime();
+		long count = runFor(MEASURE_MS, toRun);
+		long perOperation = (System.nanoTime() - start) / count;
+		System.out.println(String.format("%-18s %,12d ns/op", name, perOperation));
+		return Math.max(1L, perOperation);
+	}
+
+	private long runFor(long millis, Supplier<Claims> toRun) {
+		long end = System.nanoTime() + millis * 1000_000L;
+		long count = 0;
+		do {
+			assertEquals("123", toRun.get().getSubject());
+			count++;
+		} while (System.nanoTime() < end);
+		assertTrue(count > 0);
+		return count;
+	}
+}
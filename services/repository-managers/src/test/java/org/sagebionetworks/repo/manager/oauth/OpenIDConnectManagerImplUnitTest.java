@@ -160,6 +160,9 @@ public class OpenIDConnectManagerImplUnitTest {
 
 	@Mock
 	private Clock mockClock;
+
+	@Mock
+	private VerifiedAccessTokenCache mockVerifiedTokenCache;
 	
 	@InjectMocks
 	private EmailClaimProvider mockEmailClaimProvider;
@@ -1380,6 +1383,28 @@ public class OpenIDConnectManagerImplUnitTest {
 		verify(oidcTokenHelper).parseJWT(token);
 	}
 
+	@Test
+	public void testValidateAccessTokenAndGetClaims() {
+		String token = "access token";
+		when(oidcTokenHelper.parseJWT(token)).thenReturn(mockJWT);
+		Claims claims = ClaimsWithAuthTime.newClaims();
+		claims.put(OIDCClaimName.token_type.name(), TokenType.OIDC_ACCESS_TOKEN.name());
+		ClaimsJsonUtil.addAccessClaims(Collections.emptyList(), Collections.emptyMap(), claims);
+		when(mockJWT.getBody()).thenReturn(claims);
+		claims.setAudience(OAUTH_CLIENT_ID);
+		when(mockOauthClientDao.getSectorIdentifierSecretForClient(OAUTH_CLIENT_ID)).thenReturn(clientSpecificEncodingSecret);
+		when(mockOauthClientDao.isOauthClientVerified(OAUTH_CLIENT_ID)).thenReturn(true);
+		String ppid = openIDConnectManagerImpl.ppid(USER_ID, OAUTH_CLIENT_ID);
+		claims.setSubject(ppid);
+
+		// method under test
+		ValidatedAccessToken validated = openIDConnectManagerImpl.validateAccessTokenAndGetClaims(token);
+
+		assertEquals(USER_ID, validated.getUserId());
+		assertEquals(claims, validated.getClaims());
+		verify(oidcTokenHelper).parseJWT(token);
+	}
+
 	@Test
 	public void testValidateAccessToken_noRefreshTokenId() {
 		String token = "access token";
@@ -1463,6 +1488,57 @@ public class OpenIDConnectManagerImplUnitTest {
 		assertEquals(USER_ID, openIDConnectManagerImpl.validateAccessToken(token));
 
 		verify(oidcTokenHelper).parseJWT(token);
+		verify(mockVerifiedTokenCache).get(token);
+		verify(mockVerifiedTokenCache).put(token, claims);
+		verify(mockPersonalAccessTokenManager).updateLastUsedTime(tokenId);
+	}
+
+	@Test
+	public void testValidateAccessTokenWithCachedClaims() {
+		String token = "personal access token";
+		String tokenId = "9999";
+		Claims claims = ClaimsWithAuthTime.newClaims();
+		claims.setId(tokenId);
+		claims.put(OIDCClaimName.token_type.name(), TokenType.PERSONAL_ACCESS_TOKEN.name());
+		ClaimsJsonUtil.addAccessClaims(Collections.emptyList(), Collections.emptyMap(), claims);
+		claims.setAudience(OAUTH_CLIENT_ID);
+		when(mockVerifiedTokenCache.get(token)).thenReturn(claims);
+		when(mockPersonalAccessTokenManager.isTokenActive(tokenId)).thenReturn(true);
+		when(mockOauthClientDao.getSectorIdentifierSecretForClient(OAUTH_CLIENT_ID)).thenReturn(clientSpecificEncodingSecret);
+		when(mockOauthClientDao.isOauthClientVerified(OAUTH_CLIENT_ID)).thenReturn(true);
+		String ppid = openIDConnectManagerImpl.ppid(USER_ID, OAUTH_CLIENT_ID);
+		claims.setSubject(ppid);
+
+		// method under test
+		assertEquals(USER_ID, openIDConnectManagerImpl.validateAccessToken(token));
+
+		// the signature is not checked again
+		verify(oidcTokenHelper, never()).parseJWT(any());
+		verify(mockVerifiedTokenCache, never()).put(any(), any());
+		// but revocation is
+		verify(mockPersonalAccessTokenManager).isTokenActive(tokenId);
+	}
+
+	@Test
+	public void testValidateAccessTokenWithCachedClaimsRevoked() {
+		String token = "personal access token";
+		String tokenId = "9999";
+		Claims claims = ClaimsWithAuthTime.newClaims();
+		claims.setId(tokenId);
+		claims.put(OIDCClaimName.token_type.name(), TokenType.PERSONAL_ACCESS_TOKEN.name());
+		claims.setAudience(OAUTH_CLIENT_ID);
+		when(mockVerifiedTokenCache.get(token)).thenReturn(claims);
+		when(mockPersonalAccessTokenManager.isTokenActive(tokenId)).thenReturn(false);
+		when(mockOauthClientDao.getSectorIdentifierSecretForClient(OAUTH_CLIENT_ID)).thenReturn(clientSpecificEncodingSecret);
+		when(mockOauthClientDao.isOauthClientVerified(OAUTH_CLIENT_ID)).thenReturn(true);
+		String ppid = openIDConnectManagerImpl.ppid(USER_ID, OAUTH_CLIENT_ID);
+		claims.setSubject(ppid);
+
+		// method under test
+		assertThrows(ForbiddenException.class, () -> openIDConnectManagerImpl.validateAccessToken(token));
+
+		verify(oidcTokenHelper, never()).parseJWT(any());
+		verify(mockPersonalAccessTokenManager, never()).updateLastUsedTime(any());
 	}
 
 	@Test
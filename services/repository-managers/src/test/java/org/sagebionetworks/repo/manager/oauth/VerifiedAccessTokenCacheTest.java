@@ -0,0 +1,169 @@
+package org.sagebionetworks.repo.manager.oauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.util.Clock;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+@ExtendWith(MockitoExtension.class)
+public class VerifiedAccessTokenCacheTest {
+
+	private static final long NOW = 1_000_000_000L;
+	private static final long MAX_AGE_MS = 5 * 60 * 1000L;
+	private static final long ONE_DAY_MS = 24 * 60 * 60 * 1000L;
+
+	@Mock
+	private Clock mockClock;
+
+	private VerifiedAccessTokenCache cache;
+
+	private String token;
+	private Claims claims;
+
+	@BeforeEach
+	public void before() {
+		cache = new VerifiedAccessTokenCache(2, MAX_AGE_MS, mockClock);
+		token = "header.body.signature";
+		claims = Jwts.claims().setSubject("123").setExpiration(new Date(NOW + ONE_DAY_MS));
+	}
+
+	@Test
+	public void testPutAndGet() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		cache.put(token, claims);
+		// call under test
+		assertSame(claims, cache.get(token));
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(0L, cache.getMissCount());
+		assertEquals(1, cache.getTokenCount());
+	}
+
+	@Test
+	public void testGetWithMiss() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		// call under test
+		assertNull(cache.get(token));
+		assertEquals(0L, cache.getHitCount());
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	@Test
+	public void testGetPastMaxAge() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW, NOW + MAX_AGE_MS - 1, NOW + MAX_AGE_MS);
+		cache.put(token, claims);
+		assertSame(claims, cache.get(token));
+		// call under test
+		assertNull(cache.get(token));
+		assertEquals(0, cache.getTokenCount());
+		assertEquals(1L, cache.getMissCount());
+	}
+
+	@Test
+	public void testGetPastTokenExpiration() {
+		long expiration = NOW + 2 * VerifiedAccessTokenCache.MIN_REMAINING_LIFETIME_MS;
+		claims.setExpiration(new Date(expiration));
+		when(mockClock.currentTimeMillis()).thenReturn(NOW, expiration - 1, expiration);
+		cache.put(token, claims);
+		assertSame(claims, cache.get(token));
+		// call under test
+		assertNull(cache.get(token));
+	}
+
+	@Test
+	public void testPutWithShortLivedToken() {
+		claims.setExpiration(new Date(NOW + VerifiedAccessTokenCache.MIN_REMAINING_LIFETIME_MS - 1));
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		// call under test
+		cache.put(token, claims);
+		assertEquals(0, cache.getTokenCount());
+	}
+
+	@Test
+	public void testPutWithNoExpiration() {
+		claims.setExpiration(null);
+		when(mockClock.currentTimeMillis()).thenReturn(NOW, NOW + MAX_AGE_MS - 1, NOW + MAX_AGE_MS);
+		// call under test
+		cache.put(token, claims);
+		assertSame(claims, cache.get(token));
+		assertNull(cache.get(token));
+	}
+
+	@Test
+	public void testPutEvictsLeastRecentlyUsed() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		cache.put("one", claims);
+		cache.put("two", claims);
+		// touch one so that two is the eldest
+		assertSame(claims, cache.get("one"));
+		// call under test
+		cache.put("three", claims);
+		assertEquals(2, cache.getTokenCount());
+		assertSame(claims, cache.get("one"));
+		assertNull(cache.get("two"));
+		assertSame(claims, cache.get("three"));
+	}
+
+	@Test
+	public void testPutWithZeroMaxTokens() {
+		cache = new VerifiedAccessTokenCache(0, MAX_AGE_MS, mockClock);
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		// call under test
+		cache.put(token, claims);
+		assertNull(cache.get(token));
+		assertEquals(0, cache.getTokenCount());
+	}
+
+	@Test
+	public void testClear() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		cache.put(token, claims);
+		// call under test
+		cache.clear();
+		assertEquals(0, cache.getTokenCount());
+	}
+
+	@Test
+	public void testGetWithNullToken() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			cache.get(null);
+		});
+	}
+
+	@Test
+	public void testPutWithNullClaims() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			cache.put(token, null);
+		});
+	}
+
+	@Test
+	public void testConstructorWithNegativeMaxTokens() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			new VerifiedAccessTokenCache(-1, MAX_AGE_MS, mockClock);
+		});
+	}
+
+	@Test
+	public void testConstructorWithNullClock() {
+		assertThrows(IllegalArgumentException.class, () -> {
+			// call under test
+			new VerifiedAccessTokenCache(1, MAX_AGE_MS, null);
+		});
+	}
+}
@@ -0,0 +1,257 @@
+package org.sagebionetworks.repo.manager.principal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.repo.model.GroupMembersDAO;
+import org.sagebionetworks.repo.model.ObjectType;
+import org.sagebionetworks.repo.model.dbo.dao.DBOChangeDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
+import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixEntry;
+import org.sagebionetworks.repo.model.message.ChangeMessage;
+import org.sagebionetworks.repo.model.message.ChangeType;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class PrincipalPrefixManagerImplTest {
+
+	@Mock
+	private PrincipalPrefixDAO mockPrincipalPrefixDao;
+	@Mock
+	private DBOChangeDAO mockChangeDao;
+	@Mock
+	private GroupMembersDAO mockGroupMembersDao;
+	@Mock
+	private Clock mockClock;
+
+	@InjectMocks
+	private PrincipalPrefixManagerImpl manager;
+
+	private static final long NOW = 1_000_000_000L;
+	private static final Long TEAM_ID = 99L;
+
+	private List<Long> results;
+
+	@BeforeEach
+	public void before() {
+		results = Arrays.asList(1L, 2L);
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixWithoutIndex() {
+		when(mockPrincipalPrefixDao.listPrincipalsForPrefix("bat", 10L, 0L)).thenReturn(results);
+		// call under test
+		assertEquals(results, manager.listPrincipalsForPrefix("bat", 10L, 0L));
+	}
+
+	@Test
+	public void testListPrincipalsForPrefixByTypeWithoutIndex() {
+		when(mockPrincipalPrefixDao.listPrincipalsForPrefix("bat", true, 10L, 0L)).thenReturn(results);
+		// call under test
+		assertEquals(results, manager.listPrincipalsForPrefix("bat", true, 10L, 0L));
+	}
+
+	@Test
+	public void testListTeamsForPrefixWithoutIndex() {
+		when(mockPrincipalPrefixDao.listTeamsForPrefix("bat", 10L, 0L)).thenReturn(results);
+		// call under test
+		assertEquals(results, manager.listTeamsForPrefix("bat", 10L, 0L));
+	}
+
+	@Test
+	public void testTeamMembersWithoutIndex() {
+		when(mockPrincipalPrefixDao.listTeamMembersForPrefix("bat", TEAM_ID, 10L, 0L)).thenReturn(results);
+		when(mockPrincipalPrefixDao.listCertainTeamMembersForPrefix("bat", TEAM_ID, null, Collections.singleton(3L), 10L, 0L))
+				.thenReturn(results);
+		when(mockPrincipalPrefixDao.countTeamMembersForPrefix("bat", TEAM_ID)).thenReturn(2L);
+		// call under test
+		assertEquals(results, manager.listTeamMembersForPrefix("bat", TEAM_ID, 10L, 0L));
+		assertEquals(results, manager.listCertainTeamMembersForPrefix("bat", TEAM_ID, null, Collections.singleton(3L), 10L, 0L));
+		assertEquals(2L, manager.countTeamMembersForPrefix("bat", TEAM_ID));
+		verify(mockGroupMembersDao, never()).getMemberIds(anyLong());
+		verify(mockGroupMembersDao, never()).getMemberIds(anyLong(), anyLong());
+	}
+
+	@Test
+	public void testRebuildIndex() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		when(mockChangeDao.getCurrentChangeNumber()).thenReturn(5L);
+		List<PrincipalPrefixEntry> firstPage = new ArrayList<>();
+		for (long id = 0; id < PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE; id++) {
+			firstPage.add(user("a", id + 10));
+		}
+		PrincipalPrefixEntry last = firstPage.get(firstPage.size() - 1);
+		when(mockPrincipalPrefixDao.listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE)).thenReturn(firstPage);
+		when(mockPrincipalPrefixDao.listEntries(last, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE))
+				.thenReturn(Arrays.asList(group("batgroup", 3L), user("batman", 1L), team("batteam", 2L)));
+		// call under test
+		manager.rebuildIndex();
+
+		// the lookups are answered from the index
+		assertEquals(Arrays.asList(3L, 1L, 2L), manager.listPrincipalsForPrefix("bat", 10L, 0L));
+		assertEquals(Arrays.asList(3L, 2L), manager.listPrincipalsForPrefix("Bat", false, 10L, 0L));
+		assertEquals(Arrays.asList(1L), manager.listPrincipalsForPrefix("bat", true, 10L, 0L));
+		assertEquals(Arrays.asList(2L), manager.listTeamsForPrefix("bat", 10L, 0L));
+		assertEquals(Arrays.asList(10L, 11L), manager.listPrincipalsForPrefix("a", 2L, 0L));
+		verify(mockPrincipalPrefixDao, never()).listPrincipalsForPrefix(anyString(), anyLong(), anyLong());
+	}
+
+	@Test
+	public void testTeamMembersWithIndex() {
+		buildIndex(user("batman", 1L), user("batwoman", 2L), user("robin", 3L), user("superman", 4L));
+		when(mockGroupMembersDao.getMemberIds(TEAM_ID, PrincipalPrefixManagerImpl.MAX_TEAM_SIZE + 1))
+				.thenReturn(new HashSet<>(Arrays.asList(1L, 2L, 3L)));
+		// call under test
+		assertEquals(Arrays.asList(1L, 2L, 3L), manager.listTeamMembersForPrefix("", TEAM_ID, 10L, 0L));
+		assertEquals(Arrays.asList(2L), manager.listTeamMembersForPrefix("bat", TEAM_ID, 10L, 1L));
+		assertEquals(2L, manager.countTeamMembersForPrefix("bat", TEAM_ID));
+		// exclusion has precedence over inclusion
+		assertEquals(Arrays.asList(1L), manager.listCertainTeamMembersForPrefix("", TEAM_ID,
+				new HashSet<>(Arrays.asList(1L, 2L, 4L)), Collections.singleton(2L), 10L, 0L));
+		// empty filters are not applied
+		assertEquals(Arrays.asList(1L, 2L, 3L), manager.listCertainTeamMembersForPrefix("", TEAM_ID,
+				Collections.emptySet(), Collections.emptySet(), 10L, 0L));
+		verify(mockPrincipalPrefixDao, never()).listTeamMembersForPrefix(anyString(), anyLong(), anyLong(), anyLong());
+	}
+
+	@Test
+	public void testTeamMembersWithIndexLargeTeam() {
+		buildIndex(user("batman", 1L));
+		Set<Long> memberIds = new HashSet<>();
+		for (long id = 0; id <= PrincipalPrefixManagerImpl.MAX_TEAM_SIZE; id++) {
+			memberIds.add(id);
+		}
+		when(mockGroupMembersDao.getMemberIds(TEAM_ID, PrincipalPrefixManagerImpl.MAX_TEAM_SIZE + 1)).thenReturn(memberIds);
+		when(mockPrincipalPrefixDao.listTeamMembersForPrefix("bat", TEAM_ID, 10L, 0L)).thenReturn(results);
+		when(mockPrincipalPrefixDao.listCertainTeamMembersForPrefix("bat", TEAM_ID, null, Collections.singleton(3L), 10L, 0L))
+				.thenReturn(results);
+		when(mockPrincipalPrefixDao.countTeamMembersForPrefix("bat", TEAM_ID)).thenReturn(2L);
+		// call under test, the table answers the lookups of teams too large to load
+		assertEquals(results, manager.listTeamMembersForPrefix("bat", TEAM_ID, 10L, 0L));
+		assertEquals(results, manager.listCertainTeamMembersForPrefix("bat", TEAM_ID, null, Collections.singleton(3L), 10L, 0L));
+		assertEquals(2L, manager.countTeamMembersForPrefix("bat", TEAM_ID));
+		verify(mockGroupMembersDao, never()).getMemberIds(anyLong());
+	}
+
+	@Test
+	public void testRefreshIndex() {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		when(mockChangeDao.getCurrentChangeNumber()).thenReturn(PrincipalPrefixManagerImpl.REBUILD_CHANGE_OVERLAP + 100L);
+		when(mockPrincipalPrefixDao.listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE))
+				.thenReturn(Arrays.asList(user("batman", 1L), user("robin", 2L), user("superman", 3L)));
+		when(mockChangeDao.listChanges(100L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE))
+				.thenReturn(Arrays.asList(change(150L, 2L, NOW - PrincipalPrefixManagerImpl.SETTLE_MS - 1),
+						change(160L, 3L, NOW - 1000L), change(170L, 4L, NOW - PrincipalPrefixManagerImpl.SETTLE_MS - 1)));
+		// robin changed name, superman was removed and batgirl was added
+		when(mockPrincipalPrefixDao.getEntries(new HashSet<>(Arrays.asList(2L, 3L, 4L))))
+				.thenReturn(Arrays.asList(user("batgirl", 4L), user("nightwing", 2L)));
+		// call under test, the first call builds the index
+		manager.refreshIndex();
+
+		assertEquals(Arrays.asList(4L, 1L, 2L), manager.listPrincipalsForPrefix("", 10L, 0L));
+
+		// the changes are read again from the first change that may not be in the prefix table yet
+		when(mockChangeDao.listChanges(160L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE))
+				.thenReturn(Arrays.asList(change(160L, 3L, NOW - 1000L)));
+		when(mockPrincipalPrefixDao.getEntries(Collections.singleton(3L))).thenReturn(Arrays.asList(user("superboy", 3L)));
+		// call under test
+		manager.refreshIndex();
+
+		assertEquals(Arrays.asList(4L, 1L, 2L, 3L), manager.listPrincipalsForPrefix("", 10L, 0L));
+		verify(mockPrincipalPrefixDao).listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE);
+	}
+
+	@Test
+	public void testRefreshIndexRebuildsPeriodically() {
+		buildIndex(user("batman", 1L));
+		when(mockChangeDao.listChanges(0L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE))
+				.thenReturn(Collections.emptyList());
+		// call under test
+		manager.refreshIndex();
+		verify(mockPrincipalPrefixDao).listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE);
+
+		// robin reached the prefix table after the change settled
+		when(mockClock.currentTimeMillis()).thenReturn(NOW + PrincipalPrefixManagerImpl.REBUILD_INTERVAL_MS);
+		when(mockPrincipalPrefixDao.listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE))
+				.thenReturn(Arrays.asList(user("batman", 1L), user("robin", 2L)));
+		// call under test
+		manager.refreshIndex();
+
+		verify(mockPrincipalPrefixDao, times(2)).listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE);
+		assertEquals(Arrays.asList(2L), manager.listPrincipalsForPrefix("robin", 10L, 0L));
+	}
+
+	@Test
+	public void testRefreshIndexManyChanges() {
+		buildIndex(user("batman", 1L));
+		List<ChangeMessage> firstPage = new ArrayList<>();
+		for (long changeNumber = 0; changeNumber < PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE; changeNumber++) {
+			firstPage.add(change(changeNumber, 1L, 0L));
+		}
+		when(mockChangeDao.listChanges(0L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE)).thenReturn(firstPage);
+		when(mockChangeDao.listChanges(PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE, ObjectType.PRINCIPAL,
+				PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE)).thenReturn(Arrays.asList(change(2000L, 2L, 0L)));
+		when(mockPrincipalPrefixDao.getEntries(Collections.singleton(1L))).thenReturn(Arrays.asList(user("robin", 1L)));
+		when(mockPrincipalPrefixDao.getEntries(Collections.singleton(2L))).thenReturn(Collections.emptyList());
+		// call under test
+		manager.refreshIndex();
+
+		assertEquals(Arrays.asList(1L), manager.listPrincipalsForPrefix("robin", 10L, 0L));
+		// the next refresh starts after the last change
+		when(mockChangeDao.listChanges(2001L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE))
+				.thenReturn(Collections.emptyList());
+		manager.refreshIndex();
+		verify(mockChangeDao).listChanges(2001L, ObjectType.PRINCIPAL, PrincipalPrefixManagerImpl.CHANGE_PAGE_SIZE);
+	}
+
+	/**
+	 * Build the index with the given entries, with changes starting at zero.
+	 */
+	private void buildIndex(PrincipalPrefixEntry... entries) {
+		when(mockClock.currentTimeMillis()).thenReturn(NOW);
+		when(mockChangeDao.getCurrentChangeNumber()).thenReturn(0L);
+		when(mockPrincipalPrefixDao.listEntries(null, PrincipalPrefixManagerImpl.ENTRY_PAGE_SIZE)).thenReturn(Arrays.asList(entries));
+		manager.rebuildIndex();
+	}
+
+	private static ChangeMessage change(long changeNumber, long principalId, long timestamp) {
+		ChangeMessage change = new ChangeMessage();
+		change.setChangeNumber(changeNumber);
+		change.setChangeType(ChangeType.UPDATE);
+		change.setObjectType(ObjectType.PRINCIPAL);
+		change.setObjectId(Long.toString(principalId));
+		change.setTimestamp(new Date(timestamp));
+		return change;
+	}
+
+	private static PrincipalPrefixEntry user(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, true, false);
+	}
+
+	private static PrincipalPrefixEntry group(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, false, false);
+	}
+
+	private static PrincipalPrefixEntry team(String token, long id) {
+		return new PrincipalPrefixEntry(token, id, false, true);
+	}
+}
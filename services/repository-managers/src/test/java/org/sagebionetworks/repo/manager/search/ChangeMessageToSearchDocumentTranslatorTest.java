@@ -8,6 +8,9 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -28,6 +31,8 @@ import org.sagebionetworks.search.CloudSearchLogger;
 import org.sagebionetworks.search.DocumentAction;
 import org.sagebionetworks.search.SearchDao;
 
+import com.google.common.collect.Lists;
+
 @RunWith(MockitoJUnitRunner.class)
 public class ChangeMessageToSearchDocumentTranslatorTest{
 
@@ -74,8 +79,6 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 
 		docOne = new Document();
 		docOne.setId(synapseId);
-		when(mockSearchDocumentDriver.formulateSearchDocument(synapseId)).thenReturn(docOne);
-		
 		when(mockSearchDocumentDriver.doesEntityExistInRepository(synapseId)).thenReturn(true);
 		when(mockSearchDao.doesDocumentExistInSearchIndex(synapseId, etag)).thenReturn(false);
 		
@@ -86,78 +89,121 @@ public class ChangeMessageToSearchDocumentTranslatorTest{
 	}
 	
 	@Test
-	public void testEntityChange() {
+	public void testGetEntityIdForChangeEntity() {
 		// call under test
-		Document doc = translator.entityChange(synapseId, mocKRecord);
-		assertEquals(docOne, doc);
-		verify(mocKRecord).withAction(DocumentAction.CREATE_OR_UPDATE);
-		verify(mockSearchDocumentDriver).formulateSearchDocument(synapseId);
+		String entityId = translator.getEntityIdForChange(message, mocKRecord);
+		assertEquals(synapseId, entityId);
+		verify(mockWikiPageDao, never()).lookupWikiKey(anyString());
 	}
 	
 	@Test
-	public void testEntityChangeEntityDoesNotExist() {
-		// documents that do not exist do not have an etag.
-		when(mockSearchDocumentDriver.doesEntityExistInRepository(synapseId)).thenReturn(false);
-		// call under test
-		Document doc = translator.entityChange(synapseId, mocKRecord);
-		Document expectedDocument = new Document();
-		expectedDocument.setId(message.getObjectId());
-		expectedDocument.setType(DocumentTypeNames.delete);
-		assertEquals(expectedDocument, doc);
-		verify(mocKRecord).withAction(DocumentAction.DELETE);
-		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
-	}
-	
-	@Test
-	public void testWikiChange() {
-		//when a wiki is updated, the entity to which it is associated may still have the same etag
-		when(mockSearchDao.doesDocumentExistInSearchIndex(synapseId, etag)).thenReturn(true);
-
-		String wikiId = "987";
-		WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(synapseId, ObjectType.ENTITY, wikiId);
-		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenReturn(key);
-		
+	public void testGetEntityIdForChangeWiki() {
+		message.setObjectId(wikiId);
+		message.setObjectType(ObjectType.WIKI);
 		// call under test
-		Document doc = translator.wikiChange(wikiId, mocKRecord);
-		assertEquals(docOne, doc);
+		String entityId = translator.getEntityIdForChange(message, mocKRecord);
+		assertEquals(synapseId, entityId);
 		verify(mockWikiPageDao).lookupWikiKey(wikiId);
-		verify(mocKRecord).withAction(DocumentAction.CREATE_OR_UPDATE);
 		verify(mocKRecord).withWikiOwner(synapseId);
-		verify(mockSearchDocumentDriver).formulateSearchDocument(synapseId);
 	}
 
 	@Test
-	public void testWikiChangeWikiNotFound() {
+	public void testGetWikiOwnerEntityIdWikiNotFound() {
 		String wikiId = "987";
 		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenThrow(new NotFoundException(""));
 
 		// call under test
-		Document doc = translator.wikiChange(wikiId, mocKRecord);
-		assertNull(doc);
+		String entityId = translator.getWikiOwnerEntityId(wikiId, mocKRecord);
+		assertNull(entityId);
 		verify(mocKRecord).withAction(DocumentAction.IGNORE);
-		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
 	}
 	
 	@Test
-	public void testGenerateSearchDocumentIfNecessaryEntity() {
+	public void testGenerateSearchDocumentsIfNecessary() {
+		String deletedId = "445566";
+		when(mockSearchDocumentDriver.doesEntityExistInRepository(deletedId)).thenReturn(false);
+		ChangeMessage deleteMessage = new ChangeMessage();
+		deleteMessage.setChangeType(ChangeType.DELETE);
+		deleteMessage.setObjectId(deletedId);
+		deleteMessage.setObjectType(ObjectType.ENTITY);
+		
+		ChangeMessage wikiMessage = new ChangeMessage();
+		wikiMessage.setChangeType(ChangeType.UPDATE);
+		wikiMessage.setObjectId(wikiId);
+		wikiMessage.setObjectType(ObjectType.WIKI);
+		
+		String missingWikiId = "123";
+		when(mockWikiPageDao.lookupWikiKey(missingWikiId)).thenThrow(new NotFoundException(""));
+		ChangeMessage missingWikiMessage = new ChangeMessage();
+		missingWikiMessage.setChangeType(ChangeType.UPDATE);
+		missingWikiMessage.setObjectId(missingWikiId);
+		missingWikiMessage.setObjectType(ObjectType.WIKI);
+		
+		when(mockSearchDocumentDriver.formulateSearchDocuments(Arrays.asList(synapseId)))
+				.thenReturn(Arrays.asList(docOne).iterator());
+		
 		// call under test
-		Document doc = translator.generateSearchDocumentIfNecessary(message);
-		assertEquals(docOne, doc);
+		List<Document> docs = Lists.newArrayList(translator.generateSearchDocumentsIfNecessary(
+				Arrays.asList(message, deleteMessage, wikiMessage, missingWikiMessage)));
+		
+		Document expectedDelete = new Document();
+		expectedDelete.setId(deletedId);
+		expectedDelete.setType(DocumentTypeNames.delete);
+		// The documents are in the order of the changes, and the wiki change of the same entity is only sent once.
+		assertEquals(Arrays.asList(docOne, expectedDelete), docs);
+		// Every message gets a record.
 		verify(mockRecordLogger).startRecordForChangeMessage(message);
-		verify(mockWikiPageDao, never()).lockForUpdate(anyString());
+		verify(mockRecordLogger).startRecordForChangeMessage(deleteMessage);
+		verify(mockRecordLogger).startRecordForChangeMessage(wikiMessage);
+		verify(mockRecordLogger).startRecordForChangeMessage(missingWikiMessage);
+		verify(mocKRecord).withWikiOwner(synapseId);
+		verify(mocKRecord).withAction(DocumentAction.DELETE);
+		verify(mocKRecord).withAction(DocumentAction.IGNORE);
+		// All existing entities are formulated as a single batch.
+		verify(mockSearchDocumentDriver).formulateSearchDocuments(Arrays.asList(synapseId));
+		verify(mockSearchDocumentDriver, never()).formulateSearchDocument(anyString());
 	}
 	
 	@Test
-	public void testGenerateSearchDocumentIfNecessaryWiki() {
-		String wikiId = "987";
-		WikiPageKey key = WikiPageKeyHelper.createWikiPageKey(synapseId, ObjectType.ENTITY, wikiId);
-		when(mockWikiPageDao.lookupWikiKey(wikiId)).thenReturn(key);
-		message.setObjectId(wikiId);
-		message.setObjectType(ObjectType.WIKI);
+	public void testGenerateSearchDocumentsIfNecessaryDeleteFirst() {
+		String deletedId = "445566";
+		when(mockSearchDocumentDriver.doesEntityExistInRepository(deletedId)).thenReturn(false);
+		ChangeMessage deleteMessage = new ChangeMessage();
+		deleteMessage.setChangeType(ChangeType.DELETE);
+		deleteMessage.setObjectId(deletedId);
+		deleteMessage.setObjectType(ObjectType.ENTITY);
+		when(mockSearchDocumentDriver.formulateSearchDocuments(Arrays.asList(synapseId)))
+				.thenReturn(Arrays.asList(docOne).iterator());
+		
 		// call under test
-		Document doc = translator.generateSearchDocumentIfNecessary(message);
-		assertEquals(docOne, doc);
-		verify(mockRecordLogger).startRecordForChangeMessage(message);
-		verify(mockWikiPageDao).lookupWikiKey(wikiId);
+		List<Document> docs = Lists.newArrayList(translator.generateSearchDocumentsIfNecessary(
+				Arrays.asList(deleteMessage, message)));
+		
+		assertEquals(2, docs.size());
+		assertEquals(deletedId, docs.get(0).getId());
+		assertEquals(DocumentTypeNames.delete, docs.get(0).getType());
+		assertEquals(docOne, docs.get(1));
+	}
+	
+	@Test
+	public void testGenerateSearchDocumentsIfNecessaryEntityDeletedWhileFormulating() {
+		// the driver returns null for an entity that was deleted after its change was read.
+		when(mockSearchDocumentDriver.formulateSearchDocuments(Arrays.asList(synapseId)))
+				.thenReturn(Arrays.asList((Document) null).iterator());
+		
+		// call under test
+		List<Document> docs = Lists.newArrayList(translator.generateSearchDocumentsIfNecessary(Arrays.asList(message)));
+		
+		assertEquals(0, docs.size());
+	}
+	
+	@Test
+	public void testGenerateSearchDocumentsIfNecessaryAllDeleted() {
+		when(mockSearchDocumentDriver.doesEntityExistInRepository(synapseId)).thenReturn(false);
+		// call under test
+		List<Document> docs = Lists.newArrayList(translator.generateSearchDocumentsIfNecessary(Arrays.asList(message)));
+		assertEquals(1, docs.size());
+		assertEquals(DocumentTypeNames.delete, docs.get(0).getType());
+		verify(mockSearchDocumentDriver, never()).formulateSearchDocuments(any());
 	}
 }
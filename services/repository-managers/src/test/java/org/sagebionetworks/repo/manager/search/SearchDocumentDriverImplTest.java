@@ -8,16 +8,22 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.sagebionetworks.search.SearchConstants.FIELD_CONSORTIUM;
 import static org.sagebionetworks.search.SearchConstants.FIELD_DIAGNOSIS;
 import static org.sagebionetworks.search.SearchConstants.FIELD_ORGAN;
 import static org.sagebionetworks.search.SearchConstants.FIELD_TISSUE;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.Before;
@@ -27,13 +33,23 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.sagebionetworks.repo.model.AccessControlList;
+import org.sagebionetworks.repo.model.AccessControlListDAO;
 import org.sagebionetworks.repo.model.EntityType;
 import org.sagebionetworks.repo.model.Node;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ObjectType;
 import org.sagebionetworks.repo.model.annotation.v2.Annotations;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsV2TestUtils;
 import org.sagebionetworks.repo.model.annotation.v2.AnnotationsValueType;
 import org.sagebionetworks.repo.model.search.Document;
+import org.sagebionetworks.repo.model.dao.WikiPageKeyHelper;
 import org.sagebionetworks.repo.model.search.DocumentFields;
+import org.sagebionetworks.repo.model.v2.dao.V2WikiPageDao;
+import org.sagebionetworks.repo.model.v2.wiki.V2WikiHeader;
+import org.sagebionetworks.repo.web.NotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.google.common.collect.Lists;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SearchDocumentDriverImplTest {
@@ -49,6 +65,15 @@ public class SearchDocumentDriverImplTest {
 	@Mock
 	private AccessControlList mockAcl;
 
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private AccessControlListDAO mockAclDao;
+
+	@Mock
+	private V2WikiPageDao mockWikiPageDao;
+
 	private Node node;
 
 	private final String annoKey1 = "annoKey1";
@@ -192,4 +217,149 @@ public class SearchDocumentDriverImplTest {
 		assertEquals(sanitizedString, result.getFields().getDescription());
 	}
 
+	@Test
+	public void getAllWikiPageText() throws Exception {
+		injectDaos();
+		V2WikiHeader rootHeader = new V2WikiHeader();
+		rootHeader.setId("1");
+		rootHeader.setTitle("root");
+		V2WikiHeader childHeader = new V2WikiHeader();
+		childHeader.setId("2");
+		when(mockWikiPageDao.getHeaderTree(node.getId(), ObjectType.ENTITY, SearchDocumentDriverImpl.WIKI_PAGE_LIMIT, 0L))
+				.thenReturn(Arrays.asList(rootHeader, childHeader));
+		when(mockWikiPageDao.getMarkdown(WikiPageKeyHelper.createWikiPageKey(node.getId(), ObjectType.ENTITY, "1"), null)).thenReturn("one");
+		when(mockWikiPageDao.getMarkdown(WikiPageKeyHelper.createWikiPageKey(node.getId(), ObjectType.ENTITY, "2"), null)).thenReturn("two");
+
+		//method under test
+		String result = spySearchDocumentDriver.getAllWikiPageText(node.getId());
+
+		assertEquals("\nroot\none\ntwo", result);
+		// the title is taken from the header so the pages are not loaded.
+		verify(mockWikiPageDao, never()).get(any(), any());
+	}
+
+	@Test
+	public void getAllWikiPageText_noWiki(){
+		injectDaos();
+		when(mockWikiPageDao.getHeaderTree(anyString(), any(), any(), any())).thenThrow(new NotFoundException(""));
+
+		//method under test
+		assertNull(spySearchDocumentDriver.getAllWikiPageText(node.getId()));
+	}
+
+	@Test
+	public void getAllWikiPageText_pageDeleted() throws Exception {
+		injectDaos();
+		V2WikiHeader header = new V2WikiHeader();
+		header.setId("1");
+		when(mockWikiPageDao.getHeaderTree(node.getId(), ObjectType.ENTITY, SearchDocumentDriverImpl.WIKI_PAGE_LIMIT, 0L))
+				.thenReturn(Arrays.asList(header));
+		when(mockWikiPageDao.getMarkdown(any(), any())).thenThrow(new NotFoundException(""));
+
+		//method under test
+		assertNull(spySearchDocumentDriver.getAllWikiPageText(node.getId()));
+	}
+
+	@Test
+	public void formulateSearchDocuments(){
+		injectDaos();
+		doNothing().when(spySearchDocumentDriver).addAnnotationsToSearchDocument(any(), any());
+		Node nodeTwo = new Node();
+		nodeTwo.setId("syn456");
+		nodeTwo.setNodeType(EntityType.folder);
+		nodeTwo.setCreatedByPrincipalId(123L);
+		nodeTwo.setCreatedOn(new Date());
+		nodeTwo.setModifiedByPrincipalId(123L);
+		nodeTwo.setModifiedOn(new Date());
+		Annotations annotationsTwo = new Annotations();
+		annotationsV2.setId(node.getId());
+		annotationsTwo.setId(nodeTwo.getId());
+		// the batch is loaded in any order.
+		when(mockNodeDao.getNodes(Arrays.asList(123L, 456L))).thenReturn(Arrays.asList(nodeTwo, node));
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(Arrays.asList(123L, 456L)))
+				.thenReturn(Arrays.asList(annotationsTwo, annotationsV2));
+		// both nodes share a benefactor.
+		when(mockNodeDao.getBenefactor(anyString())).thenReturn("syn1");
+		when(mockAclDao.get("syn1", ObjectType.ENTITY)).thenReturn(mockAcl);
+		when(mockWikiPageDao.getHeaderTree(anyString(), any(), any(), any())).thenThrow(new NotFoundException(""));
+
+		//method under test
+		Iterator<Document> iterator = spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList(node.getId(), nodeTwo.getId(), node.getId()));
+		// nothing is loaded until the documents are consumed.
+		verify(mockNodeDao, never()).getNodes(any());
+		List<Document> results = Lists.newArrayList(iterator);
+
+		assertEquals(2, results.size());
+		assertEquals(node.getId(), results.get(0).getId());
+		assertEquals(nodeTwo.getId(), results.get(1).getId());
+		// the nodes and annotations of the batch are each loaded with a single call, without duplicates.
+		verify(mockNodeDao, times(1)).getNodes(any());
+		verify(mockNodeDao, times(1)).getUserAnnotationsForCurrentVersions(any());
+		verify(mockNodeDao, never()).getNode(anyString());
+		verify(mockNodeDao, never()).getUserAnnotationsForVersion(anyString(), any());
+		verify(spySearchDocumentDriver).formulateSearchDocument(node, annotationsV2, mockAcl, null);
+		verify(spySearchDocumentDriver).formulateSearchDocument(nodeTwo, annotationsTwo, mockAcl, null);
+		// the shared ACL is only loaded once.
+		verify(mockAclDao, times(1)).get("syn1", ObjectType.ENTITY);
+	}
+
+	@Test
+	public void formulateSearchDocuments_nodeDeleted(){
+		injectDaos();
+		when(mockNodeDao.getNodes(any())).thenReturn(Collections.emptyList());
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(any())).thenReturn(Collections.emptyList());
+		when(mockWikiPageDao.getHeaderTree(anyString(), any(), any(), any())).thenThrow(new NotFoundException(""));
+
+		//method under test
+		List<Document> results = Lists.newArrayList(spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList(node.getId())));
+
+		// the deleted node does not fail the batch.
+		assertEquals(1, results.size());
+		assertNull(results.get(0));
+		verify(mockNodeDao, never()).getBenefactor(anyString());
+	}
+
+	@Test
+	public void formulateSearchDocuments_benefactorDeleted(){
+		injectDaos();
+		annotationsV2.setId(node.getId());
+		when(mockNodeDao.getNodes(any())).thenReturn(Arrays.asList(node));
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(any())).thenReturn(Arrays.asList(annotationsV2));
+		when(mockNodeDao.getBenefactor(node.getId())).thenThrow(new NotFoundException(""));
+		when(mockWikiPageDao.getHeaderTree(anyString(), any(), any(), any())).thenThrow(new NotFoundException(""));
+
+		//method under test
+		List<Document> results = Lists.newArrayList(spySearchDocumentDriver.formulateSearchDocuments(Arrays.asList(node.getId())));
+
+		// a node deleted while the batch is formulated does not fail the batch.
+		assertEquals(1, results.size());
+		assertNull(results.get(0));
+	}
+
+	@Test
+	public void formulateSearchDocuments_downloadsAhead(){
+		injectDaos();
+		when(mockNodeDao.getNodes(any())).thenReturn(Collections.emptyList());
+		when(mockNodeDao.getUserAnnotationsForCurrentVersions(any())).thenReturn(Collections.emptyList());
+		when(mockWikiPageDao.getHeaderTree(anyString(), any(), any(), any())).thenThrow(new NotFoundException(""));
+		List<String> nodeIds = new ArrayList<>();
+		for (int i = 0; i < SearchDocumentDriverImpl.MAX_NODES_DOWNLOADED_AHEAD * 3; i++) {
+			nodeIds.add("syn" + i);
+		}
+		Iterator<Document> iterator = spySearchDocumentDriver.formulateSearchDocuments(nodeIds);
+
+		//method under test
+		iterator.next();
+
+		// only the wikis of the first few nodes are downloaded.
+		verify(mockWikiPageDao, times(SearchDocumentDriverImpl.MAX_NODES_DOWNLOADED_AHEAD)).getHeaderTree(anyString(), any(), any(), any());
+		verify(mockWikiPageDao, never()).getHeaderTree(eq("syn" + SearchDocumentDriverImpl.MAX_NODES_DOWNLOADED_AHEAD), any(), any(), any());
+	}
+
+	void injectDaos() {
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "nodeDao", mockNodeDao);
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "aclDAO", mockAclDao);
+		ReflectionTestUtils.setField(spySearchDocumentDriver, "wikiPageDao", mockWikiPageDao);
+	}
+
 }
@@ -0,0 +1,163 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.dao.table.CSVToRowIterator;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.SparseRowDto;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.table.model.SparseChangeSet;
+
+import au.com.bytecode.opencsv.CSVReader;
+
+/**
+ * Not a test of timing. Prints the throughput of turning a tall and a wide CSV
+ * into change sets on the request thread, as uploads did before, and with the
+ * {@link SparseChangeSetPipeline}. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class CSVUploadBenchmarkTest {
+
+	private static final ColumnType[] TYPES = new ColumnType[] { ColumnType.STRING, ColumnType.INTEGER,
+			ColumnType.DOUBLE, ColumnType.BOOLEAN, ColumnType.DATE };
+	private static final int MAX_BYTES_PER_CHANGE_SET = 5 * 1024 * 1024;
+	private static final int ITERATIONS = 3;
+
+	private ExecutorService readerExecutor;
+	private ExecutorService workerExecutor;
+
+	@BeforeEach
+	public void before() {
+		readerExecutor = Executors.newCachedThreadPool();
+		workerExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+	}
+
+	@AfterEach
+	public void after() {
+		readerExecutor.shutdownNow();
+		workerExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testTallCSV() throws IOException {
+		benchmark("tall", 5, 200_000);
+	}
+
+	@Test
+	public void testWideCSV() throws IOException {
+		benchmark("wide", 150, 5_000);
+	}
+
+	void benchmark(String name, int columnCount, int rowCount) throws IOException {
+		List<ColumnModel> schema = new ArrayList<>();
+		for (int i = 0; i < columnCount; i++) {
+			schema.add(TableModelTestUtils.createColumn((long) i + 1, "c" + i, TYPES[i % TYPES.length]));
+		}
+		String csv = createCSV(schema, rowCount);
+		long serial = measure(name + " serial", csv, rowCount, () -> {
+			Iterator<SparseRowDto> rows = createIterator(schema, csv);
+			long count = 0;
+			List<SparseRowDto> batch = new ArrayList<>();
+			int batchSizeBytes = 0;
+			while (rows.hasNext()) {
+				SparseRowDto row = rows.next();
+				batch.add(row);
+				batchSizeBytes += TableModelUtils.calculateActualRowSize(row);
+				if (batchSizeBytes >= MAX_BYTES_PER_CHANGE_SET) {
+					count += new SparseChangeSet("syn123", schema, batch, null).getRowCount();
+					batch = new ArrayList<>();
+					batchSizeBytes = 0;
+				}
+			}
+			if (!batch.isEmpty()) {
+				count += new SparseChangeSet("syn123", schema, batch, null).getRowCount();
+			}
+			return count;
+		});
+		long pipelined = measure(name + " pipeline", csv, rowCount, () -> {
+			long count = 0;
+			try (SparseChangeSetPipeline pipeline = new SparseChangeSetPipeline(readerExecutor, workerExecutor,
+					TableEntityManagerImpl.MAX_CHANGE_SETS_AHEAD, "syn123", schema, createIterator(schema, csv),
+					MAX_BYTES_PER_CHANGE_SET, false)) {
+				while (pipeline.hasNext()) {
+					count += pipeline.next().getRowCount();
+				}
+			}
+			return count;
+		});
+		System.out.println(String.format("%-16s %,10.1fx", "speed up", (double) serial / pipelined));
+	}
+
+	/**
+	 * Read the given CSV repeatedly, print the average throughput and return the
+	 * average time per read in microseconds.
+	 */
+	long measure(String name, String csv, long expected, LongSupplier read) {
+		// warm up
+		assertEquals(expected, read.getAsLong());
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			assertEquals(expected, read.getAsLong());
+		}
+		long perRead = Math.max(1L, (System.nanoTime() - start) / ITERATIONS / 1000L);
+		double seconds = perRead / 1_000_000.0;
+		System.out.println(String.format("%-16s %,10.0f rows/s %,8.1f MB/s", name, expected / seconds,
+				csv.length() / seconds / (1024 * 1024)));
+		return perRead;
+	}
+
+	private static Iterator<SparseRowDto> createIterator(List<ColumnModel> schema, String csv) {
+		try {
+			return new CSVToRowIterator(schema, new CSVReader(new StringReader(csv)), true, null);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String createCSV(List<ColumnModel> schema, int rowCount) throws IOException {
+		List<String[]> input = new ArrayList<>(rowCount + 1);
+		String[] header = new String[schema.size()];
+		for (int i = 0; i < schema.size(); i++) {
+			header[i] = schema.get(i).getName();
+		}
+		input.add(header);
+		for (int row = 0; row < rowCount; row++) {
+			String[] values = new String[schema.size()];
+			for (int i = 0; i < schema.size(); i++) {
+				values[i] = createValue(schema.get(i).getColumnType(), row, i);
+			}
+			input.add(values);
+		}
+		return TableModelTestUtils.createCSVString(input);
+	}
+
+	private static String createValue(ColumnType type, int row, int column) {
+		switch (type) {
+		case INTEGER:
+			return Integer.toString(row * 31 + column);
+		case DOUBLE:
+			return Double.toString(row / 7.0 + column);
+		case BOOLEAN:
+			return Boolean.toString((row + column) % 2 == 0);
+		case DATE:
+			return Long.toString(1500000000000L + row * 1000L);
+		default:
+			return "value, \"" + row + "\" of " + column;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.model.dbo.dao.table.ColumnModelCache;
+import org.sagebionetworks.util.Clock;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class ColumnModelCacheMetricPublisherTest {
+
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	Clock mockClock;
+	@Mock
+	StackConfiguration mockStackConfig;
+	@Mock
+	ColumnModelCache mockCache;
+	@Captor
+	ArgumentCaptor<ProfileData> profileCaptor;
+	@InjectMocks
+	ColumnModelCacheMetricPublisher publisher;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1L, 2L);
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockCache.getColumnModelHitCount()).thenReturn(10L, 25L);
+		when(mockCache.getColumnModelMissCount()).thenReturn(4L, 5L);
+		when(mockCache.getSchemaHitCount()).thenReturn(7L, 9L);
+		when(mockCache.getSchemaMissCount()).thenReturn(3L, 6L);
+		when(mockCache.getColumnModelCount()).thenReturn(100, 101);
+		when(mockCache.getSchemaCount()).thenReturn(20, 22);
+		// call under test
+		publisher.onTimerFired();
+		publisher.onTimerFired();
+		verify(mockConsumer, times(12)).addProfileData(profileCaptor.capture());
+		List<ProfileData> published = profileCaptor.getAllValues();
+		// first run
+		assertMetric(published.get(0), ColumnModelCacheMetricPublisher.COLUMN_MODEL_HITS, 10L);
+		assertMetric(published.get(1), ColumnModelCacheMetricPublisher.COLUMN_MODEL_MISSES, 4L);
+		assertMetric(published.get(2), ColumnModelCacheMetricPublisher.SCHEMA_HITS, 7L);
+		assertMetric(published.get(3), ColumnModelCacheMetricPublisher.SCHEMA_MISSES, 3L);
+		assertMetric(published.get(4), ColumnModelCacheMetricPublisher.CACHED_COLUMN_MODELS, 100L);
+		assertMetric(published.get(5), ColumnModelCacheMetricPublisher.CACHED_SCHEMAS, 20L);
+		// the second run only includes the change since the first.
+		assertMetric(published.get(6), ColumnModelCacheMetricPublisher.COLUMN_MODEL_HITS, 15L);
+		assertMetric(published.get(7), ColumnModelCacheMetricPublisher.COLUMN_MODEL_MISSES, 1L);
+		assertMetric(published.get(8), ColumnModelCacheMetricPublisher.SCHEMA_HITS, 2L);
+		assertMetric(published.get(9), ColumnModelCacheMetricPublisher.SCHEMA_MISSES, 3L);
+		assertMetric(published.get(10), ColumnModelCacheMetricPublisher.CACHED_COLUMN_MODELS, 101L);
+		assertMetric(published.get(11), ColumnModelCacheMetricPublisher.CACHED_SCHEMAS, 22L);
+	}
+
+	void assertMetric(ProfileData data, String name, long value) {
+		assertEquals("Column-Model-Cache-instance1", data.getNamespace());
+		assertEquals(name, data.getName());
+		assertEquals(new Double(value), data.getValue());
+		assertEquals(StandardUnit.Count.name(), data.getUnit());
+	}
+}
@@ -1,6 +1,7 @@
 package org.sagebionetworks.repo.manager.table;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -10,7 +11,9 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -21,10 +24,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -45,6 +50,7 @@ import org.sagebionetworks.table.cluster.description.IndexDescription;
 import org.sagebionetworks.table.cluster.description.MaterializedViewIndexDescription;
 import org.sagebionetworks.table.cluster.description.TableIndexDescription;
 import org.sagebionetworks.table.cluster.description.ViewIndexDescription;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.query.ParseException;
 import org.sagebionetworks.table.query.model.QuerySpecification;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
@@ -79,6 +85,9 @@ public class MaterializedViewManagerImplTest {
 
 	@Mock
 	private MaterializedView mockView;
+	
+	@Mock
+	private QueryTranslator mockQuery;
 
 	private IdAndVersion idAndVersion = IdAndVersion.parse("syn123.1");
 
@@ -834,4 +843,220 @@ public class MaterializedViewManagerImplTest {
 		verifyNoMoreInteractions(mockTableManagerSupport);
 		verifyNoMoreInteractions(mockTableIndexManager);
 	}
+	
+	@Test
+	public void testCreateOrRebuildViewHoldingWriteLockAndAllDependentReadLocksWithIncrementalRefresh() {
+		idAndVersion = IdAndVersion.parse("syn123");
+		IndexDescription index = setupIncrementalQuery("select * from syn456");
+		doReturn("hash").when(managerSpy).getDefinitionHash(any(), any());
+		
+		SourceRowChanges changes = new SourceRowChanges(index.getDependencies().get(0), Collections.emptySet(), ImmutableSet.of(3L));
+		
+		when(mockTableManagerSupport.isIndexWorkRequired(any())).thenReturn(true);
+		when(mockTableManagerSupport.startTableProcessing(any())).thenReturn("token");
+		when(mockConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
+		when(mockTableIndexManager.getMaterializedViewSourceRowChanges(any(), any(), any(), anyLong())).thenReturn(Optional.of(Arrays.asList(changes)));
+		when(mockColumnModelManager.getTableSchema(any())).thenReturn(syn123Schema);
+		
+		// Call under test
+		managerSpy.createOrRebuildViewHoldingWriteLockAndAllDependentReadLocks(idAndVersion, mockQuery);
+		
+		verify(mockTableIndexManager).getMaterializedViewSourceRowChanges(idAndVersion, "hash", index.getDependencies(),
+				MaterializedViewManagerImpl.MAX_INCREMENTAL_CHANGES);
+		verify(mockTableManagerSupport).attemptToUpdateTableProgress(idAndVersion, "token", "Refreshing MaterializedView...", 0L, 1L);
+		verify(mockColumnModelManager).getTableSchema(idAndVersion);
+		verify(mockTableIndexManager).applyMaterializedViewSourceRowChanges(syn123Schema, index, "hash", Arrays.asList(changes), Optional.empty());
+		verify(mockTableManagerSupport).attemptToSetTableStatusToAvailable(idAndVersion, "token", "DEFAULT");
+		verify(mockTableIndexManager, never()).resetTableIndex(any());
+		verify(mockTableIndexManager, never()).populateMaterializedViewFromDefiningSql(any(), any());
+		verify(mockTableIndexManager, never()).setIndexVersion(any(), any());
+	}
+	
+	@Test
+	public void testCreateOrRebuildViewHoldingWriteLockAndAllDependentReadLocksWithIncrementalRefreshAndChangedRows() {
+		idAndVersion = IdAndVersion.parse("syn123");
+		IndexDescription index = setupIncrementalQuery("select * from syn456");
+		doReturn("hash").when(managerSpy).getDefinitionHash(any(), any());
+		
+		SourceRowChanges changes = new SourceRowChanges(index.getDependencies().get(0), ImmutableSet.of(2L, 1L), Collections.emptySet());
+		
+		when(mockTableManagerSupport.isIndexWorkRequired(any())).thenReturn(true);
+		when(mockTableManagerSupport.startTableProcessing(any())).thenReturn("token");
+		when(mockConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
+		when(mockTableIndexManager.getMaterializedViewSourceRowChanges(any(), any(), any(), anyLong())).thenReturn(Optional.of(Arrays.asList(changes)));
+		when(mockColumnModelManager.getTableSchema(any())).thenReturn(syn123Schema);
+		
+		// Call under test
+		managerSpy.createOrRebuildViewHoldingWriteLockAndAllDependentReadLocks(idAndVersion, mockQuery);
+		
+		ArgumentCaptor<Optional<QueryTranslator>> captor = ArgumentCaptor.forClass(Optional.class);
+		verify(mockTableIndexManager).applyMaterializedViewSourceRowChanges(eq(syn123Schema), eq(index), eq("hash"), eq(Arrays.asList(changes)),
+				captor.capture());
+		assertEquals("SELECT * FROM syn456 WHERE T456.ROW_ID IN (1,2)", captor.getValue().get().getInputSql());
+		verify(mockTableManagerSupport).attemptToSetTableStatusToAvailable(idAndVersion, "token", "DEFAULT");
+		verify(mockTableIndexManager, never()).resetTableIndex(any());
+	}
+	
+	@Test
+	public void testCreateOrRebuildViewHoldingWriteLockAndAllDependentReadLocksWithIncrementalRefreshUnavailable() {
+		idAndVersion = IdAndVersion.parse("syn123");
+		IndexDescription index = setupIncrementalQuery("select * from syn456");
+		doReturn("hash").when(managerSpy).getDefinitionHash(any(), any());
+		
+		when(mockTableManagerSupport.isIndexWorkRequired(any())).thenReturn(true);
+		when(mockTableManagerSupport.startTableProcessing(any())).thenReturn("token");
+		when(mockConnectionFactory.connectToTableIndex(any())).thenReturn(mockTableIndexManager);
+		// too many changes or the definition changed.
+		when(mockTableIndexManager.getMaterializedViewSourceRowChanges(any(), any(), any(), anyLong())).thenReturn(Optional.empty());
+		when(mockTableIndexManager.resetTableIndex(any())).thenReturn(syn123Schema);
+		when(mockTableIndexManager.populateMaterializedViewFromDefiningSql(any(), any())).thenReturn(123L);
+		
+		// Call under test
+		managerSpy.createOrRebuildViewHoldingWriteLockAndAllDependentReadLocks(idAndVersion, mockQuery);
+		
+		verify(mockTableIndexManager).resetTableIndex(index);
+		verify(mockTableIndexManager).populateMaterializedViewFromDefiningSql(syn123Schema, mockQuery);
+		verify(mockTableIndexManager).buildTableIndexIndices(index, syn123Schema);
+		verify(mockTableIndexManager).recordMaterializedViewSourceVersions(idAndVersion, "hash", index.getDependencies());
+		verify(mockTableIndexManager).setIndexVersion(idAndVersion, 123L);
+		verify(mockTableIndexManager, never()).applyMaterializedViewSourceRowChanges(any(), any(), any(), any(), any());
+		verify(mockTableManagerSupport).attemptToSetTableStatusToAvailable(idAndVersion, "token", "DEFAULT");
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModel() {
+		setupIncrementalQuery("select * from syn456 a join syn789 b on (a.foo = b.foo) where a.bar > 1");
+		// call under test
+		Optional<QuerySpecification> result = MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery);
+		assertTrue(result.isPresent());
+		assertEquals("SELECT * FROM syn456 a JOIN syn789 b ON ( a.foo = b.foo ) WHERE a.bar > 1", result.get().toSql());
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithAggregate() {
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(false);
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithOuterJoin() {
+		setupIncrementalQuery("select * from syn456 a left join syn789 b on (a.foo = b.foo)");
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithSelfJoin() {
+		setupIncrementalQuery("select * from syn456 a join syn456 b on (a.foo = b.foo)");
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithDistinct() {
+		setupIncrementalQuery("select distinct foo from syn456");
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithPagination() {
+		setupIncrementalQuery("select * from syn456 limit 10");
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithMaterializedViewDependency() {
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockQuery.getIndexDescription()).thenReturn(new MaterializedViewIndexDescription(idAndVersion,
+				Arrays.asList(new TableIndexDescription(IdAndVersion.parse("syn456")),
+						new MaterializedViewIndexDescription(IdAndVersion.parse("syn789"), Collections.emptyList()))));
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithViewDependency() {
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockQuery.getIndexDescription()).thenReturn(new MaterializedViewIndexDescription(idAndVersion,
+				Arrays.asList(new TableIndexDescription(IdAndVersion.parse("syn456")),
+						new ViewIndexDescription(IdAndVersion.parse("syn789"), TableType.entityview))));
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithViewSnapshotDependency() {
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockQuery.getInputSql()).thenReturn("select * from syn456 a join syn789.2 b on (a.foo = b.foo)");
+		when(mockQuery.getIndexDescription()).thenReturn(new MaterializedViewIndexDescription(idAndVersion,
+				Arrays.asList(new TableIndexDescription(IdAndVersion.parse("syn456")),
+						new ViewIndexDescription(IdAndVersion.parse("syn789.2"), TableType.entityview))));
+		// call under test
+		assertTrue(MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery).isPresent());
+	}
+	
+	@Test
+	public void testGetIncrementalRefreshModelWithOnlySnapshots() {
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockQuery.getIndexDescription()).thenReturn(new MaterializedViewIndexDescription(idAndVersion,
+				Arrays.asList(new TableIndexDescription(IdAndVersion.parse("syn456.2")))));
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.getIncrementalRefreshModel(mockQuery));
+	}
+	
+	@Test
+	public void testCreateChangedRowsSql() {
+		QuerySpecification model = MaterializedViewManagerImpl.getQuerySpecification("select * from syn456 a join syn789 b on (a.foo = b.foo) where a.bar > 1");
+		List<SourceRowChanges> changes = Arrays.asList(
+				new SourceRowChanges(new TableIndexDescription(IdAndVersion.parse("syn456")), ImmutableSet.of(3L, 1L), ImmutableSet.of(4L)),
+				new SourceRowChanges(new TableIndexDescription(IdAndVersion.parse("syn789")), ImmutableSet.of(5L), Collections.emptySet()));
+		// call under test
+		Optional<String> result = MaterializedViewManagerImpl.createChangedRowsSql(model, changes);
+		assertEquals(Optional.of("SELECT * FROM syn456 a JOIN syn789 b ON ( a.foo = b.foo ) WHERE (a.bar > 1) AND (T456.ROW_ID IN (1,3) OR T789.ROW_ID IN (5))"), result);
+	}
+	
+	@Test
+	public void testCreateChangedRowsSqlWithOnlyDeletes() {
+		QuerySpecification model = MaterializedViewManagerImpl.getQuerySpecification("select * from syn456");
+		List<SourceRowChanges> changes = Arrays.asList(
+				new SourceRowChanges(new TableIndexDescription(IdAndVersion.parse("syn456")), Collections.emptySet(), ImmutableSet.of(4L)));
+		// call under test
+		assertEquals(Optional.empty(), MaterializedViewManagerImpl.createChangedRowsSql(model, changes));
+	}
+	
+	@Test
+	public void testGetDefinitionHash() {
+		idAndVersion = IdAndVersion.parse("syn123");
+		when(mockQuery.getOutputSQL()).thenReturn("SELECT _C1_ FROM T456");
+		when(mockQuery.getParameters()).thenReturn(Collections.singletonMap("b0", 1L));
+		when(mockColumnModelManager.getColumnIdsForTable(any())).thenReturn(Arrays.asList("1"), Arrays.asList("1"), Arrays.asList("1", "2"));
+		when(mockTableManagerSupport.isTableSearchEnabled(any())).thenReturn(false);
+		
+		// call under test
+		String first = manager.getDefinitionHash(idAndVersion, mockQuery);
+		String second = manager.getDefinitionHash(idAndVersion, mockQuery);
+		String withSchemaChange = manager.getDefinitionHash(idAndVersion, mockQuery);
+		
+		assertEquals(first, second);
+		assertNotEquals(first, withSchemaChange);
+		verify(mockColumnModelManager, times(3)).getColumnIdsForTable(idAndVersion);
+		verify(mockTableManagerSupport, times(3)).isTableSearchEnabled(idAndVersion);
+	}
+	
+	/**
+	 * Setup the mock query for a view of the given SQL over unversioned tables.
+	 */
+	private IndexDescription setupIncrementalQuery(String sql) {
+		QuerySpecification model = MaterializedViewManagerImpl.getQuerySpecification(sql);
+		List<IndexDescription> dependencies = MaterializedViewManagerImpl.getSourceTableIds(model).stream().sorted()
+				.map(id -> new TableIndexDescription(id)).collect(Collectors.toList());
+		IndexDescription index = new MaterializedViewIndexDescription(idAndVersion, dependencies);
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockQuery.getIndexDescription()).thenReturn(index);
+		when(mockQuery.getInputSql()).thenReturn(sql);
+		return index;
+	}
 }
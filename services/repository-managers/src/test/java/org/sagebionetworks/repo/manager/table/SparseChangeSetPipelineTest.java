@@ -0,0 +1,189 @@
+package org.sagebionetworks.repo.manager.table;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.SparseRowDto;
+import org.sagebionetworks.table.cluster.utils.TableModelUtils;
+import org.sagebionetworks.table.model.SparseChangeSet;
+import org.sagebionetworks.table.model.SparseRow;
+
+public class SparseChangeSetPipelineTest {
+
+	private ExecutorService readerExecutor;
+	private ExecutorService workerExecutor;
+	private String tableId;
+	private List<ColumnModel> schema;
+	private List<SparseRowDto> rows;
+	private int maxBytesPerChangeSet;
+
+	@BeforeEach
+	public void before() {
+		readerExecutor = Executors.newCachedThreadPool();
+		workerExecutor = Executors.newFixedThreadPool(3);
+		tableId = "syn123";
+		schema = Arrays.asList(TableModelTestUtils.createColumn(1L, "a", ColumnType.STRING),
+				TableModelTestUtils.createColumn(2L, "b", ColumnType.INTEGER));
+		rows = new ArrayList<>();
+		for (long i = 0; i < 7; i++) {
+			rows.add(TableModelTestUtils.createSparseRow(i, 5L, schema, "a" + i, "" + i));
+		}
+		// three rows per change set
+		maxBytesPerChangeSet = TableModelUtils.calculateActualRowSize(rows.get(0)) * 3;
+	}
+
+	@AfterEach
+	public void after() {
+		readerExecutor.shutdownNow();
+		workerExecutor.shutdownNow();
+	}
+
+	@Test
+	public void testChangeSetsInOrder() {
+		List<SparseChangeSet> changeSets = readAll(createPipeline(rows.iterator(), false));
+		assertEquals(3, changeSets.size());
+		assertEquals(3, changeSets.get(0).getRowCount());
+		assertEquals(3, changeSets.get(1).getRowCount());
+		assertEquals(1, changeSets.get(2).getRowCount());
+		List<Long> rowIds = new ArrayList<>();
+		for (SparseChangeSet changeSet : changeSets) {
+			assertEquals(tableId, changeSet.getTableId());
+			// the etag is set by the caller
+			assertNull(changeSet.getEtag());
+			for (SparseRow row : changeSet.rowIterator()) {
+				rowIds.add(row.getRowId());
+				assertEquals(5L, row.getVersionNumber());
+			}
+		}
+		assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L), rowIds);
+	}
+
+	@Test
+	public void testIgnoreRowIdAndVersion() {
+		List<SparseChangeSet> changeSets = readAll(createPipeline(rows.iterator(), true));
+		assertEquals(3, changeSets.size());
+		for (SparseChangeSet changeSet : changeSets) {
+			for (SparseRow row : changeSet.rowIterator()) {
+				assertNull(row.getRowId());
+				assertNull(row.getVersionNumber());
+			}
+		}
+	}
+
+	@Test
+	public void testEmptyStream() {
+		SparseChangeSetPipeline pipeline = createPipeline(Collections.emptyIterator(), false);
+		assertFalse(pipeline.hasNext());
+		assertFalse(pipeline.hasNext());
+		pipeline.close();
+	}
+
+	@Test
+	public void testInvalidValueInSecondChangeSet() {
+		rows.get(4).getValues().put("2", "notAnInteger");
+		try (SparseChangeSetPipeline pipeline = createPipeline(rows.iterator(), false)) {
+			assertTrue(pipeline.hasNext());
+			// the change set before the error is returned first
+			assertEquals(3, pipeline.next().getRowCount());
+			assertTrue(pipeline.hasNext());
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+				pipeline.next();
+			});
+			// the index of the row within its change set, as when the change set was built by the caller
+			assertTrue(e.getMessage().startsWith("Value at [1,1] was not a valid INTEGER"), e.getMessage());
+		}
+	}
+
+	@Test
+	public void testStreamError() {
+		IllegalStateException error = new IllegalStateException("Line number 5: bad line");
+		Iterator<SparseRowDto> iterator = rows.iterator();
+		Iterator<SparseRowDto> failing = new Iterator<SparseRowDto>() {
+			int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public SparseRowDto next() {
+				if (count++ == 4) {
+					throw error;
+				}
+				return iterator.next();
+			}
+		};
+		try (SparseChangeSetPipeline pipeline = createPipeline(failing, false)) {
+			assertEquals(3, pipeline.next().getRowCount());
+			IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+				pipeline.next();
+			});
+			assertEquals(error, thrown);
+		}
+	}
+
+	@Test
+	public void testCloseStopsReader() throws Exception {
+		AtomicLong rowsRead = new AtomicLong();
+		// a stream that never ends
+		Iterator<SparseRowDto> endless = new Iterator<SparseRowDto>() {
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public SparseRowDto next() {
+				long i = rowsRead.incrementAndGet();
+				return TableModelTestUtils.createSparseRow(i, 5L, schema, "a" + (i % 10), "" + (i % 10));
+			}
+		};
+		SparseChangeSetPipeline pipeline = createPipeline(endless, false);
+		assertEquals(3, pipeline.next().getRowCount());
+		// call under test
+		pipeline.close();
+		readerExecutor.shutdown();
+		assertTrue(readerExecutor.awaitTermination(10, TimeUnit.SECONDS));
+		long readAtClose = rowsRead.get();
+		Thread.sleep(50);
+		assertEquals(readAtClose, rowsRead.get());
+	}
+
+	private SparseChangeSetPipeline createPipeline(Iterator<SparseRowDto> rowStream, boolean ignoreRowIdAndVersion) {
+		return new SparseChangeSetPipeline(readerExecutor, workerExecutor, 2, tableId, schema, rowStream,
+				maxBytesPerChangeSet, ignoreRowIdAndVersion);
+	}
+
+	private static List<SparseChangeSet> readAll(SparseChangeSetPipeline pipeline) {
+		try {
+			List<SparseChangeSet> changeSets = new ArrayList<>();
+			while (pipeline.hasNext()) {
+				changeSets.add(pipeline.next());
+			}
+			return changeSets;
+		} finally {
+			pipeline.close();
+		}
+	}
+}
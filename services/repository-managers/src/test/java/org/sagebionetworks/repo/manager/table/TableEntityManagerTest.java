@@ -33,10 +33,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import org.apache.commons.collections4.IteratorUtils;
 import org.apache.commons.collections4.ListUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -216,11 +219,18 @@ public class TableEntityManagerTest {
 	IdRange range2;
 	IdRange range3;
 	
+	ExecutorService rowReaderExecutor;
+	ExecutorService changeSetExecutor;
+	
 	@BeforeEach
 	public void before() throws Exception {
 		maxBytesPerRequest = 10000000;
 		manager.setMaxBytesPerRequest(maxBytesPerRequest);
 		manager.setMaxBytesPerChangeSet(1000000000);
+		rowReaderExecutor = Executors.newFixedThreadPool(1);
+		changeSetExecutor = Executors.newFixedThreadPool(2);
+		manager.setRowReaderExecutor(rowReaderExecutor);
+		manager.setChangeSetExecutor(changeSetExecutor);
 		user = new UserInfo(false, 7L);
 		models = TableModelTestUtils.createOneOfEachType(true);
 		tableId = "syn123";
@@ -315,6 +325,12 @@ public class TableEntityManagerTest {
 		
 		managerSpy = Mockito.spy(manager);
 	}
+	
+	@AfterEach
+	public void after() {
+		rowReaderExecutor.shutdownNow();
+		changeSetExecutor.shutdownNow();
+	}
 
 	void setupQueryAsStream() {
 		doAnswer(new Answer<Boolean>() {
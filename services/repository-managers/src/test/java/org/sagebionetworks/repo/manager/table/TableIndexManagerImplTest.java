@@ -80,9 +80,11 @@ import org.sagebionetworks.repo.model.table.ViewTypeMask;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.table.cluster.ColumnChangeDetails;
 import org.sagebionetworks.table.cluster.DatabaseColumnInfo;
+import org.sagebionetworks.table.cluster.QueryTranslator;
 import org.sagebionetworks.table.cluster.SQLUtils;
 import org.sagebionetworks.table.cluster.TableIndexDAO;
 import org.sagebionetworks.table.cluster.description.IndexDescription;
+import org.sagebionetworks.table.cluster.description.MaterializedViewIndexDescription;
 import org.sagebionetworks.table.cluster.description.TableIndexDescription;
 import org.sagebionetworks.table.cluster.description.ViewIndexDescription;
 import org.sagebionetworks.table.cluster.metadata.ObjectFieldModelResolver;
@@ -99,6 +101,7 @@ import org.sagebionetworks.table.model.ChangeData;
 import org.sagebionetworks.table.model.Grouping;
 import org.sagebionetworks.table.model.SchemaChange;
 import org.sagebionetworks.table.model.SearchChange;
+import org.sagebionetworks.table.model.SourceRowChanges;
 import org.sagebionetworks.table.model.SparseChangeSet;
 import org.sagebionetworks.table.model.SparseRow;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
@@ -2370,6 +2373,14 @@ public class TableIndexManagerImplTest {
 		});
 	}
 
+	@Test
+	public void testDeleteUnusedViewBenefactors() {
+		IdAndVersion viewId = IdAndVersion.parse("syn123");
+		// call under test
+		manager.deleteUnusedViewBenefactors(viewId);
+		verify(mockIndexDao).deleteUnusedViewBenefactors(viewId);
+	}
+
 	@Test
 	public void testUpdateObjectReplication() {
 		ReplicationType type = ReplicationType.ENTITY;
@@ -3100,6 +3111,163 @@ public class TableIndexManagerImplTest {
 		verify(managerSpy, never()).updateSearchIndex(index);
 		
 	}
+	
+	@Test
+	public void testRecordMaterializedViewSourceVersions() {
+		List<IndexDescription> sources = Arrays.asList(new TableIndexDescription(IdAndVersion.parse("syn1")));
+		// call under test
+		manager.recordMaterializedViewSourceVersions(tableId, "hash", sources);
+		verify(mockIndexDao).recordMaterializedViewSourceVersions(tableId, "hash", sources);
+	}
+	
+	@Test
+	public void testGetMaterializedViewSourceRowChanges() {
+		IndexDescription one = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		IndexDescription two = new TableIndexDescription(IdAndVersion.parse("syn2"));
+		IndexDescription three = new TableIndexDescription(IdAndVersion.parse("syn3"));
+		when(mockIndexDao.getMaterializedViewSourceVersionsDefinition(any())).thenReturn(Optional.of("hash"));
+		when(mockIndexDao.getMaterializedViewSourceVersion(any(), any())).thenReturn(Optional.of(4L));
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(one.getIdAndVersion())).thenReturn(5L);
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(two.getIdAndVersion())).thenReturn(4L);
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(three.getIdAndVersion())).thenReturn(6L);
+		SourceRowChanges oneChanges = new SourceRowChanges(one, ImmutableSet.of(1L, 2L), ImmutableSet.of(4L));
+		SourceRowChanges threeChanges = new SourceRowChanges(three, ImmutableSet.of(3L), Collections.emptySet());
+		when(mockIndexDao.getMaterializedViewSourceRowChanges(any(), any(), anyLong())).thenReturn(Optional.of(oneChanges),
+				Optional.of(threeChanges));
+		
+		// call under test
+		Optional<List<SourceRowChanges>> result = manager.getMaterializedViewSourceRowChanges(tableId, "hash",
+				Arrays.asList(one, two, three), 10L);
+		
+		assertEquals(Optional.of(Arrays.asList(oneChanges, threeChanges)), result);
+		verify(mockIndexDao).getMaterializedViewSourceVersionsDefinition(tableId);
+		verify(mockIndexDao).getMaterializedViewSourceRowChanges(tableId, one, 10L);
+		// the second source is still at the recorded version.
+		verify(mockIndexDao, never()).getMaterializedViewSourceRowChanges(eq(tableId), eq(two), anyLong());
+		verify(mockIndexDao).getMaterializedViewSourceRowChanges(tableId, three, 7L);
+	}
+	
+	@Test
+	public void testGetMaterializedViewSourceRowChangesWithTooManyChanges() {
+		IndexDescription one = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		when(mockIndexDao.getMaterializedViewSourceVersionsDefinition(any())).thenReturn(Optional.of("hash"));
+		when(mockIndexDao.getMaterializedViewSourceVersion(any(), any())).thenReturn(Optional.of(4L));
+		when(mockIndexDao.getMaxCurrentCompleteVersionForTable(any())).thenReturn(5L);
+		when(mockIndexDao.getMaterializedViewSourceRowChanges(any(), any(), anyLong())).thenReturn(Optional.empty());
+		
+		// call under test
+		Optional<List<SourceRowChanges>> result = manager.getMaterializedViewSourceRowChanges(tableId, "hash", Arrays.asList(one), 2L);
+		
+		assertEquals(Optional.empty(), result);
+		verify(mockIndexDao).getMaterializedViewSourceRowChanges(tableId, one, 2L);
+	}
+	
+	@Test
+	public void testGetMaterializedViewSourceRowChangesWithNoRecordedVersion() {
+		IndexDescription one = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		when(mockIndexDao.getMaterializedViewSourceVersionsDefinition(any())).thenReturn(Optional.of("hash"));
+		when(mockIndexDao.getMaterializedViewSourceVersion(any(), any())).thenReturn(Optional.empty());
+		
+		// call under test
+		Optional<List<SourceRowChanges>> result = manager.getMaterializedViewSourceRowChanges(tableId, "hash", Arrays.asList(one), 10L);
+		
+		assertEquals(Optional.empty(), result);
+		verify(mockIndexDao, never()).getMaterializedViewSourceRowChanges(any(), any(), anyLong());
+	}
+	
+	@Test
+	public void testGetMaterializedViewSourceRowChangesWithDifferentDefinition() {
+		IndexDescription one = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		when(mockIndexDao.getMaterializedViewSourceVersionsDefinition(any())).thenReturn(Optional.of("oldHash"));
+		
+		// call under test
+		Optional<List<SourceRowChanges>> result = manager.getMaterializedViewSourceRowChanges(tableId, "hash", Arrays.asList(one), 10L);
+		
+		assertEquals(Optional.empty(), result);
+		verify(mockIndexDao, never()).getMaterializedViewSourceVersion(any(), any());
+		verify(mockIndexDao, never()).getMaterializedViewSourceRowChanges(any(), any(), anyLong());
+	}
+	
+	@Test
+	public void testGetMaterializedViewSourceRowChangesWithNoDefinition() {
+		IndexDescription one = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		when(mockIndexDao.getMaterializedViewSourceVersionsDefinition(any())).thenReturn(Optional.empty());
+		
+		// call under test
+		Optional<List<SourceRowChanges>> result = manager.getMaterializedViewSourceRowChanges(tableId, "hash", Arrays.asList(one), 10L);
+		
+		assertEquals(Optional.empty(), result);
+		verify(mockIndexDao, never()).getMaterializedViewSourceRowChanges(any(), any(), anyLong());
+	}
+	
+	@Test
+	public void testApplyMaterializedViewSourceRowChanges() {
+		setupExecuteInWriteTransaction();
+		IndexDescription source = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		IndexDescription viewIndex = new MaterializedViewIndexDescription(tableId, Arrays.asList(source));
+		SourceRowChanges changes = new SourceRowChanges(source, ImmutableSet.of(1L), ImmutableSet.of(2L));
+		QueryTranslator mockQuery = Mockito.mock(QueryTranslator.class);
+		when(mockQuery.getOutputSQL()).thenReturn("SELECT _C99_, _C101_, ROW_ID FROM T1 WHERE ROW_ID IN (:b0)");
+		when(mockQuery.getParameters()).thenReturn(Collections.singletonMap("b0", 1L));
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockIndexDao.isSearchEnabled(any())).thenReturn(false);
+		when(mockIndexDao.getMaterializedViewRowIdsForSourceRows(any(), any(), any())).thenReturn(ImmutableSet.of(5L));
+		doNothing().when(managerSpy).populateListColumnIndexTables(any(), any(), any());
+		
+		// call under test
+		managerSpy.applyMaterializedViewSourceRowChanges(schema, viewIndex, "hash", Arrays.asList(changes), Optional.of(mockQuery));
+		
+		verify(mockIndexDao).deleteMaterializedViewRowsForSourceRows(tableId, source, ImmutableSet.of(1L, 2L));
+		verify(mockIndexDao).update("INSERT INTO T123 (_C99_,_C101_,ROW_ID_T1) SELECT _C99_, _C101_, ROW_ID FROM T1 WHERE ROW_ID IN (:b0)",
+				Collections.singletonMap("b0", 1L));
+		verify(mockIndexDao).getMaterializedViewRowIdsForSourceRows(tableId, source, ImmutableSet.of(1L));
+		verify(mockIndexDao).recordMaterializedViewSourceVersion(tableId, "hash", source);
+		verify(managerSpy).populateListColumnIndexTables(tableId, schema, ImmutableSet.of(5L));
+		verify(mockIndexDao, never()).getTableDataForRowIds(any(), any(), any());
+	}
+	
+	@Test
+	public void testApplyMaterializedViewSourceRowChangesWithSearchEnabled() {
+		setupExecuteInWriteTransaction();
+		IndexDescription source = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		IndexDescription viewIndex = new MaterializedViewIndexDescription(tableId, Arrays.asList(source));
+		SourceRowChanges changes = new SourceRowChanges(source, ImmutableSet.of(1L), Collections.emptySet());
+		QueryTranslator mockQuery = Mockito.mock(QueryTranslator.class);
+		when(mockQuery.getOutputSQL()).thenReturn("SELECT _C99_, _C101_, ROW_ID FROM T1 WHERE ROW_ID IN (:b0)");
+		when(mockQuery.getParameters()).thenReturn(Collections.singletonMap("b0", 1L));
+		when(mockQuery.includesRowIdAndVersion()).thenReturn(true);
+		when(mockIndexDao.isSearchEnabled(any())).thenReturn(true);
+		when(mockIndexDao.getMaterializedViewRowIdsForSourceRows(any(), any(), any())).thenReturn(ImmutableSet.of(5L));
+		List<TableRowData> rowData = Collections.singletonList(new TableRowData(5L, Collections.emptyList()));
+		when(mockIndexDao.getTableDataForRowIds(any(), any(), any())).thenReturn(rowData);
+		doNothing().when(managerSpy).populateListColumnIndexTables(any(), any(), any());
+		doNothing().when(managerSpy).updateSearchIndex(any(), any());
+		List<ColumnModel> searchSchema = managerSpy.getSchemaForSearchIndex(schema);
+		
+		// call under test
+		managerSpy.applyMaterializedViewSourceRowChanges(schema, viewIndex, "hash", Arrays.asList(changes), Optional.of(mockQuery));
+		
+		verify(mockIndexDao).getTableDataForRowIds(tableId, searchSchema, ImmutableSet.of(5L));
+		verify(managerSpy).updateSearchIndex(eq(viewIndex), any());
+	}
+	
+	@Test
+	public void testApplyMaterializedViewSourceRowChangesWithOnlyDeletes() {
+		setupExecuteInWriteTransaction();
+		IndexDescription source = new TableIndexDescription(IdAndVersion.parse("syn1"));
+		IndexDescription viewIndex = new MaterializedViewIndexDescription(tableId, Arrays.asList(source));
+		SourceRowChanges changes = new SourceRowChanges(source, Collections.emptySet(), ImmutableSet.of(2L));
+		when(mockIndexDao.isSearchEnabled(any())).thenReturn(true);
+		
+		// call under test
+		managerSpy.applyMaterializedViewSourceRowChanges(schema, viewIndex, "hash", Arrays.asList(changes), Optional.empty());
+		
+		verify(mockIndexDao).deleteMaterializedViewRowsForSourceRows(tableId, source, ImmutableSet.of(2L));
+		verify(mockIndexDao).recordMaterializedViewSourceVersion(tableId, "hash", source);
+		verify(mockIndexDao, never()).update(any(), any());
+		verify(managerSpy, never()).populateListColumnIndexTables(any(), any(), any());
+		verify(mockIndexDao, never()).getTableDataForRowIds(any(), any(), any());
+	}
 		
 	@SuppressWarnings("unchecked")
 	public void setupExecuteInWriteTransaction() {
@@ -1079,6 +1079,96 @@ public class TableManagerSupportTest {
 		verify(mockWriteReadSemaphoreRunner).tryRunWithReadLock(mockCallback, mockCallable, "key1", "key2");
 	}
 	
+	/**
+	 * Helper to create a copy of the given status with a new changed on.
+	 */
+	TableStatus copyStatus(TableStatus toCopy, long changedOn) {
+		TableStatus copy = new TableStatus();
+		copy.setTableId(toCopy.getTableId());
+		copy.setState(toCopy.getState());
+		copy.setResetToken(toCopy.getResetToken());
+		copy.setLastTableChangeEtag(toCopy.getLastTableChangeEtag());
+		copy.setChangedOn(new Date(changedOn));
+		return copy;
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFence() throws Exception {
+		status.setState(TableState.AVAILABLE);
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status, copyStatus(status, 123));
+		when(mockCallable.call(mockCallback)).thenReturn("result");
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.of("result"), result);
+		verify(mockTableStatusDAO, times(2)).getTableStatus(idAndVersion);
+		verifyZeroInteractions(mockWriteReadSemaphoreRunner);
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceNotAvailable() throws Exception {
+		status.setState(TableState.PROCESSING);
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status);
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.empty(), result);
+		verify(mockCallable, never()).call(any());
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceNoStatus() throws Exception {
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenThrow(new NotFoundException("nope"));
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.empty(), result);
+		verify(mockCallable, never()).call(any());
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceChangedWhileRunning() throws Exception {
+		status.setState(TableState.AVAILABLE);
+		// a view update changes the changed on.
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status, copyStatus(status, 456));
+		when(mockCallable.call(mockCallback)).thenReturn("result");
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.empty(), result);
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceResetWhileRunning() throws Exception {
+		status.setState(TableState.AVAILABLE);
+		TableStatus processing = copyStatus(status, 123);
+		processing.setState(TableState.PROCESSING);
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status, processing);
+		when(mockCallable.call(mockCallback)).thenReturn("result");
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.empty(), result);
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceFailedWhileChanged() throws Exception {
+		status.setState(TableState.AVAILABLE);
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status, copyStatus(status, 456));
+		when(mockCallable.call(mockCallback)).thenThrow(new IllegalStateException("index dropped"));
+		// call under test
+		Optional<String> result = manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		assertEquals(Optional.empty(), result);
+	}
+	
+	@Test
+	public void testTryRunWithTableStatusFenceFailedWhileUnchanged() throws Exception {
+		status.setState(TableState.AVAILABLE);
+		when(mockTableStatusDAO.getTableStatus(idAndVersion)).thenReturn(status, copyStatus(status, 123));
+		IllegalStateException exception = new IllegalStateException("bad query");
+		when(mockCallable.call(mockCallback)).thenThrow(exception);
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, ()->{
+			// call under test
+			manager.tryRunWithTableStatusFence(mockCallback, mockCallable, idAndVersion);
+		});
+		assertEquals(exception, thrown);
+	}
+	
 	@Test
 	public void testStreamTableIndexToS3() throws IOException {
 		when(mockFileProvider.createTempFile(anyString(), anyString())).thenReturn(mockFile);
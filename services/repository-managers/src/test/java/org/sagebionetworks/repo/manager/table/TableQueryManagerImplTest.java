@@ -34,6 +34,7 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -447,6 +448,77 @@ public class TableQueryManagerImplTest {
 		verify(mockTableManagerSupport).getTableStatusOrCreateIfNotExists(idAndVersion);
 	}
 	
+	/**
+	 * Setup the status fence to run the caller and return the given result.
+	 */
+	void setupStatusFence(boolean unchanged) throws Exception {
+		when(mockTableManagerSupport.tryRunWithTableStatusFence(any(ProgressCallback.class),
+				any(ProgressingCallable.class), any(IdAndVersion.class))).thenAnswer(invocation -> {
+			ProgressingCallable<Object> callable = (ProgressingCallable<Object>) invocation.getArguments()[1];
+			Object result = callable.call(mockProgressCallback2);
+			return unchanged ? Optional.of(result) : Optional.empty();
+		});
+	}
+	
+	@Test
+	public void testQueryAsStreamWithStatusFence() throws Exception{
+		manager.setStatusFenceEnabled(true);
+		when(mockTableManagerSupport.getTableStatusOrCreateIfNotExists(idAndVersion)).thenReturn(status);
+		setupStatusFence(true);
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+		
+		SinglePageRowHandler rowHandler = new SinglePageRowHandler();
+		QueryTranslations query = new QueryTranslations(queriesBuilder.setStartingSql("select * from " + tableId).build(), queryOptions);
+		// call under test.
+		QueryResultBundle result = manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
+		assertNotNull(result);
+		assertEquals(status.getLastTableChangeEtag(), result.getQueryResult().getQueryResults().getEtag());
+		assertEquals(rows, rowHandler.getRows());
+		verify(mockTableManagerSupport).tryRunWithTableStatusFence(any(ProgressCallback.class), any(ProgressingCallable.class), eq(idAndVersion));
+		// no lock is needed when the status did not change.
+		verify(mockTableManagerSupport, never()).tryRunWithTableNonExclusiveLock(any(ProgressCallback.class), any(ProgressingCallable.class), any(IdAndVersion.class));
+	}
+	
+	@Test
+	public void testQueryAsStreamWithStatusFenceChanged() throws Exception{
+		manager.setStatusFenceEnabled(true);
+		when(mockTableManagerSupport.getTableStatusOrCreateIfNotExists(idAndVersion)).thenReturn(status);
+		setupStatusFence(false);
+		setupNonExclusiveLock();
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+		
+		SinglePageRowHandler rowHandler = new SinglePageRowHandler();
+		QueryTranslations query = new QueryTranslations(queriesBuilder.setStartingSql("select * from " + tableId).build(), queryOptions);
+		// call under test.
+		QueryResultBundle result = manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
+		assertNotNull(result);
+		// the rows from the first run must be discarded.
+		assertEquals(rows, rowHandler.getRows());
+		verify(mockTableManagerSupport).tryRunWithTableStatusFence(any(ProgressCallback.class), any(ProgressingCallable.class), eq(idAndVersion));
+		verify(mockTableManagerSupport).tryRunWithTableNonExclusiveLock(any(ProgressCallback.class), any(ProgressingCallable.class), any(IdAndVersion.class));
+	}
+	
+	@Test
+	public void testQueryAsStreamWithStatusFenceAndStreamingHandler() throws Exception{
+		manager.setStatusFenceEnabled(true);
+		when(mockTableManagerSupport.getTableStatusOrCreateIfNotExists(idAndVersion)).thenReturn(status);
+		setupNonExclusiveLock();
+		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
+		setupQueryCallback();
+		
+		List<Row> streamed = new ArrayList<>();
+		RowHandler rowHandler = streamed::add;
+		QueryTranslations query = new QueryTranslations(queriesBuilder.setStartingSql("select * from " + tableId).build(), queryOptions);
+		// call under test.
+		manager.queryAsStream(mockProgressCallbackVoid, user, query, rowHandler, queryOptions);
+		assertEquals(rows, streamed);
+		// streamed rows cannot be discarded so the lock must be used.
+		verify(mockTableManagerSupport, never()).tryRunWithTableStatusFence(any(ProgressCallback.class), any(ProgressingCallable.class), any(IdAndVersion.class));
+		verify(mockTableManagerSupport).tryRunWithTableNonExclusiveLock(any(ProgressCallback.class), any(ProgressingCallable.class), any(IdAndVersion.class));
+	}
+	
 	@Test
 	public void testQueryAsStreamNotFoundException() throws Exception{
 		when(mockTableManagerSupport.tryRunWithTableNonExclusiveLock(
@@ -545,7 +617,7 @@ public class TableQueryManagerImplTest {
 		IndexDescription indexDescription = new ViewIndexDescription(idAndVersion, TableType.entityview);
 		when(mockTableManagerSupport.getIndexDescription(any())).thenReturn(indexDescription);
 		
-		when(mockTableIndexDAO.getDistinctLongValues(any(), any())).thenReturn(benfactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(any(), any())).thenReturn(benfactors);
 		when(mockTableManagerSupport.getAccessibleBenefactors(any(), any(), any())).thenReturn(subSet);
 		
 		Query query = new Query();
@@ -561,7 +633,7 @@ public class TableQueryManagerImplTest {
 		// validate the benefactor filter is applied
 		assertEquals("SELECT COUNT(*) FROM T123 WHERE ROW_BENEFACTOR IN ( :b0, -:b1 )", results.getMainQuery().getTranslator().getOutputSQL());
 		verify(mockTableManagerSupport).getAccessibleBenefactors(user, ObjectType.ENTITY, benfactors);
-		verify(mockTableIndexDAO).getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR);
+		verify(mockTableIndexDAO).getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR);
 	}
 	
 	@Test
@@ -1309,7 +1381,7 @@ public class TableQueryManagerImplTest {
 		when(mockTableManagerSupport.getTableSchemaCount(any())).thenReturn((long)models.size());
 		when(mockTableManagerSupport.getTableSchema(idAndVersion)).thenReturn(models);
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
-		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
 		when(mockTableManagerSupport.getIndexDescription(any())).thenReturn(new TableIndexDescription(idAndVersion));
 		setupQueryCallback();
 		
@@ -1970,11 +2042,11 @@ public class TableQueryManagerImplTest {
 	@Test
 	public void testAddRowLevelFilterEmpty() throws Exception {
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
-		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
 		IndexDescription indexDescription = new ViewIndexDescription(idAndVersion, TableType.entityview);
 		QuerySpecification query = new TableQueryParser("select i0 from "+tableId).querySpecification();
 		//return empty benefactors
-		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(new HashSet<Long>());
+		when(mockTableIndexDAO.getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(new HashSet<Long>());
 		// call under test
 		QuerySpecification result = manager.addRowLevelFilter(user, query, indexDescription);
 		assertNotNull(result);
@@ -1994,11 +2066,11 @@ public class TableQueryManagerImplTest {
 	@Test
 	public void getAddRowLevelFilterTableDoesNotExist() throws Exception {
 		when(mockTableConnectionFactory.getConnection(idAndVersion)).thenReturn(mockTableIndexDAO);
-		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenReturn(benfactors);
 		
 		QuerySpecification query = new TableQueryParser("select i0 from "+tableId).querySpecification();
 		//return empty benefactors
-		when(mockTableIndexDAO.getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenThrow(BadSqlGrammarException.class);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR)).thenThrow(BadSqlGrammarException.class);
 		IndexDescription indexDescription = new ViewIndexDescription(idAndVersion, TableType.entityview);
 		
 		// call under test
@@ -2012,7 +2084,7 @@ public class TableQueryManagerImplTest {
 	@Test
 	public void testAddRowLevelFilter() throws Exception {
 		when(mockTableConnectionFactory.getConnection(any())).thenReturn(mockTableIndexDAO);
-		when(mockTableIndexDAO.getDistinctLongValues(any(), any())).thenReturn(benfactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(any(), any())).thenReturn(benfactors);
 		when(mockTableManagerSupport.getAccessibleBenefactors(any(), any(), any())).thenReturn(subSet);
 		IndexDescription indexDescription = new ViewIndexDescription(idAndVersion, TableType.entityview);
 		
@@ -2021,7 +2093,7 @@ public class TableQueryManagerImplTest {
 		QuerySpecification result = manager.addRowLevelFilter(user, query, indexDescription);
 		assertNotNull(result);
 		assertEquals("SELECT i0 FROM syn123 WHERE ROW_BENEFACTOR IN ( 444, -1 )", result.toSql());
-		verify(mockTableIndexDAO).getDistinctLongValues(idAndVersion, TableConstants.ROW_BENEFACTOR);
+		verify(mockTableIndexDAO).getDistinctBenefactorIds(idAndVersion, TableConstants.ROW_BENEFACTOR);
 		verify(mockTableManagerSupport).getAccessibleBenefactors(user, ObjectType.ENTITY, benfactors);
 	}
 	
@@ -2030,7 +2102,7 @@ public class TableQueryManagerImplTest {
 		when(mockTableConnectionFactory.getConnection(any())).thenReturn(mockTableIndexDAO);
 		Set<Long> oneBenefactors = Sets.newHashSet(333L, 444L);
 		Set<Long> twoBenefactors = Sets.newHashSet(111L, 222L);
-		when(mockTableIndexDAO.getDistinctLongValues(any(), any())).thenReturn(oneBenefactors, twoBenefactors);
+		when(mockTableIndexDAO.getDistinctBenefactorIds(any(), any())).thenReturn(oneBenefactors, twoBenefactors);
 		when(mockTableManagerSupport.getAccessibleBenefactors(any(), any(), any())).thenReturn(
 				Sets.newHashSet(444L),
 				Sets.newHashSet(111L));
@@ -2046,9 +2118,9 @@ public class TableQueryManagerImplTest {
 		QuerySpecification result = manager.addRowLevelFilter(user, query, indexDescription);
 		assertNotNull(result);
 		assertEquals("SELECT * FROM syn123 WHERE ( ROW_BENEFACTOR_T1 IN ( 444, -1 ) ) AND ROW_BENEFACTOR_T2 IN ( -1, 111 )", result.toSql());
-		verify(mockTableIndexDAO).getDistinctLongValues(idAndVersion, "ROW_BENEFACTOR_T1");
-		verify(mockTableIndexDAO).getDistinctLongValues(idAndVersion, "ROW_BENEFACTOR_T2");
-		verify(mockTableIndexDAO, times(2)).getDistinctLongValues(any(), any());
+		verify(mockTableIndexDAO).getDistinctBenefactorIds(idAndVersion, "ROW_BENEFACTOR_T1");
+		verify(mockTableIndexDAO).getDistinctBenefactorIds(idAndVersion, "ROW_BENEFACTOR_T2");
+		verify(mockTableIndexDAO, times(2)).getDistinctBenefactorIds(any(), any());
 		
 		verify(mockTableManagerSupport).getAccessibleBenefactors(user, ObjectType.ENTITY, oneBenefactors);
 		verify(mockTableManagerSupport).getAccessibleBenefactors(user, ObjectType.ENTITY, twoBenefactors);
@@ -2064,7 +2136,7 @@ public class TableQueryManagerImplTest {
 		QuerySpecification result = manager.addRowLevelFilter(user, query, indexDescription);
 		assertNotNull(result);
 		assertEquals("SELECT i0 FROM syn123", result.toSql());
-		verify(mockTableIndexDAO, never()).getDistinctLongValues(any(), any());
+		verify(mockTableIndexDAO, never()).getDistinctBenefactorIds(any(), any());
 		verify(mockTableManagerSupport, never()).getAccessibleBenefactors(any(), any(), any());
 	}
 	
@@ -9,13 +9,16 @@ import static org.mockito.ArgumentMatchers.anyListOf;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_ID;
 import static org.sagebionetworks.repo.model.table.TableConstants.ROW_VERSION;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -24,6 +27,7 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
@@ -32,6 +36,7 @@ import org.mockito.stubbing.Answer;
 import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
+import org.sagebionetworks.repo.manager.file.ByteRangeSource;
 import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
@@ -45,9 +50,11 @@ import org.sagebionetworks.repo.model.table.TableUpdateResponse;
 import org.sagebionetworks.repo.model.table.UploadToTableRequest;
 import org.sagebionetworks.repo.model.table.UploadToTableResult;
 import org.sagebionetworks.repo.web.NotFoundException;
-import org.sagebionetworks.util.FileProvider;
 
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.util.StringInputStream;
 
 /**
@@ -70,9 +77,7 @@ public class TableUploadManagerTest {
 	@Mock
 	UploadRowProcessor rowProcessor;
 	@Mock
-	FileProvider mockFileProvider;
-	@Mock
-	File mockFile;
+	S3Object mockS3Object;
 	
 	@InjectMocks
 	TableUploadManagerImpl manager;
@@ -83,6 +88,7 @@ public class TableUploadManagerTest {
 	List<ColumnModel> tableSchema;
 	ObjectMetadata fileMetadata;
 	String csvString;
+	InputStream csvStream;
 	List<SparseRowDto> rowsRead;
 	
 	@Before
@@ -114,10 +120,11 @@ public class TableUploadManagerTest {
 		input.add(new String[] { "CCC", null, "false" });
 		input.add(new String[] { "FFF", "4", "true" });
 		csvString = TableModelTestUtils.createCSVString(input);
-		StringInputStream csvStream = new StringInputStream(csvString);
+		csvStream = new StringInputStream(csvString);
 		
-		when(mockFileProvider.createTempFile(anyString(), anyString())).thenReturn(mockFile);
-		when(mockFileProvider.createFileInputStream(any(File.class))).thenReturn(csvStream);
+		// each range of the file continues the same stream
+		when(mockS3Client.getObject(any(GetObjectRequest.class))).thenReturn(mockS3Object);
+		when(mockS3Object.getObjectContent()).thenAnswer(invocation -> new S3ObjectInputStream(csvStream, null));
 
 		when(mockFileHandleManger.getRawFileHandle(user, uploadRequest.getUploadFileHandleId())).thenReturn(fileHandle);
 		when(mockS3Client.getObjectMetadata(fileHandle.getBucketName(), fileHandle.getKey())).thenReturn(fileMetadata);
@@ -150,7 +157,14 @@ public class TableUploadManagerTest {
 		assertEquals(new Long(2), uploadResult.getRowsProcessed());
 		assertEquals(2, rowsRead.size());
 		verify(rowProcessor).processRows(eq(user), eq(uploadRequest.getTableId()), eq(tableSchema), any(Iterator.class), eq(uploadRequest.getUpdateEtag()), eq(mockProgressCallback));
-		verify(mockFile).delete();
+		// the file is streamed in ranges starting with the first
+		ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+		verify(mockS3Client, atLeastOnce()).getObject(requestCaptor.capture());
+		GetObjectRequest first = requestCaptor.getAllValues().get(0);
+		assertEquals(fileHandle.getBucketName(), first.getBucketName());
+		assertEquals(fileHandle.getKey(), first.getKey());
+		assertEquals(0L, first.getRange()[0]);
+		assertEquals(TableUploadManagerImpl.FIRST_RANGE_BYTES - 1, first.getRange()[1]);
 	}
 	
 	@Test
@@ -167,7 +181,10 @@ public class TableUploadManagerTest {
 	}
 	
 	@Test
-	public void testTempDeletedOnFailure() throws DatastoreException, NotFoundException, IOException {
+	public void testStreamClosedOnFailure() throws DatastoreException, NotFoundException, IOException {
+		S3ObjectInputStream content = spy(new S3ObjectInputStream(csvStream, null));
+		doNothing().when(content).abort();
+		when(mockS3Object.getObjectContent()).thenReturn(content);
 		// setup a failure
 		IllegalArgumentException wentWrong = new IllegalArgumentException("Something went wrong");
 		when(rowProcessor.processRows(eq(user), eq(uploadRequest.getTableId()), anyListOf(ColumnModel.class), any(Iterator.class), anyString(), eq(mockProgressCallback))).thenThrow(wentWrong);
@@ -178,8 +195,24 @@ public class TableUploadManagerTest {
 		} catch (IllegalArgumentException e) {
 			// expected
 		}
-		// the temp file should still be deleted.
-		verify(mockFile).delete();
+		// each range of the file is closed as soon as it is read into memory, before the rows are processed.
+		verify(content, atLeastOnce()).abort();
+	}
+	
+	@Test
+	public void testS3Source() throws Exception {
+		fileHandle.setContentSize(1000L);
+		ByteRangeSource source = manager.createS3Source(fileHandle);
+		assertEquals(1000L, source.getContentSize());
+		// call under test
+		source.openRange(100, 199).close();
+		
+		ArgumentCaptor<GetObjectRequest> requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+		verify(mockS3Client).getObject(requestCaptor.capture());
+		assertEquals(fileHandle.getBucketName(), requestCaptor.getValue().getBucketName());
+		assertEquals(fileHandle.getKey(), requestCaptor.getValue().getKey());
+		assertEquals(100L, requestCaptor.getValue().getRange()[0]);
+		assertEquals(199L, requestCaptor.getValue().getRange()[1]);
 	}
 	
 	@Test (expected=IllegalArgumentException.class)
@@ -211,10 +244,7 @@ public class TableUploadManagerTest {
 		input.add(new String[] { "1", "10", "a" });
 		input.add(new String[] { "2", "10", "b" });
 		csvString = TableModelTestUtils.createCSVString(input);
-		StringInputStream csvStream = new StringInputStream(csvString);
-		
-		when(mockFileProvider.createTempFile(anyString(), anyString())).thenReturn(mockFile);
-		when(mockFileProvider.createFileInputStream(any(File.class))).thenReturn(csvStream);
+		csvStream = new StringInputStream(csvString);
 		
 		CsvTableDescriptor descriptor = new CsvTableDescriptor();
 		descriptor.setIsFirstLineHeader(false);
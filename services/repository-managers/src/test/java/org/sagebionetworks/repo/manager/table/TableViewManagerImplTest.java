@@ -1271,6 +1271,7 @@ public class TableViewManagerImplTest {
 		verify(mockIndexManager, never()).updateViewRowsInTransaction(any(), any(), any(), any());
 		verifyNoMoreInteractions(mockTableManagerSupport);
 		verify(mockIndexManager, times(1)).getOutOfDateRowsForView(idAndVersion, filter, pageSize);
+		verify(mockIndexManager, never()).deleteUnusedViewBenefactors(any());
 	}
 	
 	@Test
@@ -1298,6 +1299,7 @@ public class TableViewManagerImplTest {
 				any(Exception.class));
 		verify(mockTableManagerSupport).updateChangedOnIfAvailable(idAndVersion);
 		verify(mockIndexManager, times(2)).getOutOfDateRowsForView(idAndVersion, filter, pageSize);
+		verify(mockIndexManager).deleteUnusedViewBenefactors(idAndVersion);
 	}
 	
 	@Test
@@ -0,0 +1,190 @@
+package org.sagebionetworks.repo.manager.table.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.dao.table.TableType;
+import org.sagebionetworks.repo.model.dbo.dao.table.TableModelTestUtils;
+import org.sagebionetworks.repo.model.entity.IdAndVersion;
+import org.sagebionetworks.repo.model.table.ColumnModel;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.FacetColumnValuesRequest;
+import org.sagebionetworks.repo.model.table.FacetType;
+import org.sagebionetworks.table.cluster.QueryTranslator;
+import org.sagebionetworks.table.cluster.SchemaProvider;
+import org.sagebionetworks.table.cluster.description.IndexDescription;
+import org.sagebionetworks.table.cluster.description.TableIndexDescription;
+import org.sagebionetworks.table.cluster.description.ViewIndexDescription;
+import org.sagebionetworks.table.query.TableQueryParser;
+
+/**
+ * Not a test of timing. Prints the time and allocation per operation of
+ * parsing a user query, translating it, and building its facet and count
+ * queries, for a few realistic query shapes against synthetic schemas. Use the
+ * printed numbers to compare before and after a change to the parser or the
+ * translator. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class QueryTranslationBenchmarkTest {
+
+	private static final long WARM_UP_MS = 2000;
+	private static final int ITERATIONS = 5;
+	private static final long ITERATION_MS = 1000;
+
+	private IdAndVersion tableId;
+	private Long userId;
+	private int sink;
+
+	@BeforeEach
+	public void before() {
+		tableId = IdAndVersion.parse("syn123");
+		userId = 789L;
+		sink = 0;
+	}
+
+	/**
+	 * A synthetic schema alternating string and integer columns named c0, c1...
+	 * The first ten columns are facets.
+	 */
+	static List<ColumnModel> createSchema(int columnCount) {
+		List<ColumnModel> schema = new ArrayList<>(columnCount);
+		for (int i = 0; i < columnCount; i++) {
+			boolean isString = i % 2 == 0;
+			ColumnModel cm = TableModelTestUtils.createColumn((long) i + 1, "c" + i,
+					isString ? ColumnType.STRING : ColumnType.INTEGER);
+			if (i < 10) {
+				cm.setFacetType(isString ? FacetType.enumeration : FacetType.range);
+			}
+			schema.add(cm);
+		}
+		return schema;
+	}
+
+	/**
+	 * A boolean filter nested to the given depth with 2^depth leaf predicates.
+	 */
+	static String createNestedFilter(int depth) {
+		if (depth == 0) {
+			return "c" + (depth * 2) + " = 'v'";
+		}
+		String inner = createNestedFilter(depth - 1);
+		return "((" + inner + " OR c" + (depth * 2 + 1) + " > " + depth + ") AND (c" + (depth * 2) + " LIKE 'p%' OR "
+				+ inner + "))";
+	}
+
+	@Test
+	public void benchmarkWideSelect() throws Exception {
+		List<ColumnModel> schema = createSchema(200);
+		String columns = IntStream.range(0, 100).mapToObj(i -> "c" + i).collect(Collectors.joining(", "));
+		benchmarkShape("wide select", "select " + columns + " from syn123 where c0 = 'a'", schema,
+				new TableIndexDescription(tableId));
+	}
+
+	@Test
+	public void benchmarkManyColumnView() throws Exception {
+		List<ColumnModel> schema = createSchema(500);
+		benchmarkShape("many column view", "select * from syn123 where ROW_BENEFACTOR IN (11,22,33)", schema,
+				new ViewIndexDescription(tableId, TableType.entityview));
+	}
+
+	@Test
+	public void benchmarkLargeInList() throws Exception {
+		List<ColumnModel> schema = createSchema(20);
+		String values = IntStream.range(0, 1000).mapToObj(Integer::toString).collect(Collectors.joining(", "));
+		benchmarkShape("large in list", "select c0, c1, c2 from syn123 where c1 in (" + values + ")", schema,
+				new TableIndexDescription(tableId));
+	}
+
+	@Test
+	public void benchmarkNestedBooleanFilter() throws Exception {
+		List<ColumnModel> schema = createSchema(20);
+		benchmarkShape("nested boolean filter", "select c0, c1 from syn123 where " + createNestedFilter(6), schema,
+				new TableIndexDescription(tableId));
+	}
+
+	void benchmarkShape(String shape, String sql, List<ColumnModel> schema, IndexDescription indexDescription)
+			throws Exception {
+		SchemaProvider schemaProvider = (IdAndVersion id) -> schema;
+		QueryContext context = QueryContext.builder().setStartingSql(sql).setSchemaProvider(schemaProvider)
+				.setIndexDescription(indexDescription).setUserId(userId).setMaxRowsPerCall(100L)
+				.setSelectedFacets(List.of(new FacetColumnValuesRequest().setColumnName("c0").setFacetValues(Set.of("a"))))
+				.build();
+
+		measure(shape, "parse", () -> new TableQueryParser(sql).querySpecification(), model -> model.toSql().length());
+		measure(shape, "translate", () -> QueryTranslator.builder(sql, schemaProvider, userId)
+				.indexDescription(indexDescription).build(), translator -> translator.getOutputSQL().length());
+		measure(shape, "facets", () -> new FacetQueries(context),
+				facets -> facets.getFacetInformationQueries().size());
+		measure(shape, "count", () -> new CountQuery(context),
+				count -> count.getCountQuery().map(query -> query.getSql().length()).orElse(0));
+		assertTrue(sink != 0);
+	}
+
+	/**
+	 * Run the given operation repeatedly in several measured iterations and print
+	 * the median, minimum and maximum time per operation of the iterations, and
+	 * the bytes allocated per operation over all of them.
+	 */
+	<T> void measure(String shape, String operation, Callable<T> toRun, ToIntFunction<T> consume) throws Exception {
+		runFor(WARM_UP_MS, toRun, consume);
+		long[] nanosPerOp = new long[ITERATIONS];
+		long totalCount = 0;
+		long startBytes = getAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			long count = runFor(ITERATION_MS, toRun, consume);
+			nanosPerOp[i] = (System.nanoTime() - start) / count;
+			totalCount += count;
+		}
+		long allocated = getAllocatedBytes() - startBytes;
+		assertTrue(totalCount > 0);
+		Arrays.sort(nanosPerOp);
+		System.out.println(String.format("%-22s %-10s median %,12d ns/op (min %,d max %,d) %,12d bytes/op", shape,
+				operation, nanosPerOp[ITERATIONS / 2], nanosPerOp[0], nanosPerOp[ITERATIONS - 1],
+				startBytes < 0 ? -1 : allocated / totalCount));
+	}
+
+	private <T> long runFor(long millis, Callable<T> toRun, ToIntFunction<T> consume) throws Exception {
+		long end = System.nanoTime() + millis * 1000_000L;
+		long count = 0;
+		do {
+			// consume the result so the work cannot be optimized away.
+			sink += consume.applyAsInt(toRun.call());
+			count++;
+		} while (System.nanoTime() < end);
+		return count;
+	}
+
+	/**
+	 * The bytes allocated by this thread so far, or -1 if the JVM cannot track
+	 * allocation.
+	 */
+	private static long getAllocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1L;
+	}
+
+	@Test
+	public void testCreateNestedFilter() {
+		assertEquals("((c0 = 'v' OR c3 > 1) AND (c2 LIKE 'p%' OR c0 = 'v'))", createNestedFilter(1));
+	}
+}
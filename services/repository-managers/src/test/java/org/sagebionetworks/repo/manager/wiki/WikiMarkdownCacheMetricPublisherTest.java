@@ -0,0 +1,77 @@
+package org.sagebionetworks.repo.manager.wiki;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.cloudwatch.Consumer;
+import org.sagebionetworks.cloudwatch.ProfileData;
+import org.sagebionetworks.repo.model.dbo.wikiV2.WikiMarkdownCache;
+import org.sagebionetworks.util.Clock;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+
+@ExtendWith(MockitoExtension.class)
+public class WikiMarkdownCacheMetricPublisherTest {
+
+	@Mock
+	Consumer mockConsumer;
+	@Mock
+	Clock mockClock;
+	@Mock
+	StackConfiguration mockStackConfig;
+	@Mock
+	WikiMarkdownCache mockCache;
+	@Captor
+	ArgumentCaptor<ProfileData> profileCaptor;
+	@InjectMocks
+	WikiMarkdownCacheMetricPublisher publisher;
+
+	@BeforeEach
+	public void before() {
+		when(mockStackConfig.getStackInstance()).thenReturn("instance1");
+		when(mockClock.currentTimeMillis()).thenReturn(1L, 2L);
+	}
+
+	@Test
+	public void testOnTimerFired() {
+		when(mockCache.getHitCount()).thenReturn(10L, 25L);
+		when(mockCache.getMissCount()).thenReturn(4L, 5L);
+		when(mockCache.getEvictionCount()).thenReturn(0L, 2L);
+		when(mockCache.getCurrentBytes()).thenReturn(100L, 200L);
+		// call under test
+		publisher.onTimerFired();
+		publisher.onTimerFired();
+		verify(mockConsumer, times(8)).addProfileData(profileCaptor.capture());
+		List<ProfileData> published = profileCaptor.getAllValues();
+		// first run
+		assertMetric(published.get(0), WikiMarkdownCacheMetricPublisher.HITS, 10L, StandardUnit.Count);
+		assertMetric(published.get(1), WikiMarkdownCacheMetricPublisher.MISSES, 4L, StandardUnit.Count);
+		assertMetric(published.get(2), WikiMarkdownCacheMetricPublisher.EVICTIONS, 0L, StandardUnit.Count);
+		assertMetric(published.get(3), WikiMarkdownCacheMetricPublisher.CACHED_BYTES, 100L, StandardUnit.Bytes);
+		// the second run only includes the change since the first.
+		assertMetric(published.get(4), WikiMarkdownCacheMetricPublisher.HITS, 15L, StandardUnit.Count);
+		assertMetric(published.get(5), WikiMarkdownCacheMetricPublisher.MISSES, 1L, StandardUnit.Count);
+		assertMetric(published.get(6), WikiMarkdownCacheMetricPublisher.EVICTIONS, 2L, StandardUnit.Count);
+		assertMetric(published.get(7), WikiMarkdownCacheMetricPublisher.CACHED_BYTES, 200L, StandardUnit.Bytes);
+	}
+
+	void assertMetric(ProfileData data, String name, long value, StandardUnit unit) {
+		assertEquals("Wiki-Markdown-Cache-instance1", data.getNamespace());
+		assertEquals(name, data.getName());
+		assertEquals(new Double(value), data.getValue());
+		assertEquals(unit.name(), data.getUnit());
+	}
+}
@@ -0,0 +1,83 @@
+package org.sagebionetworks.repo.web.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.repo.model.table.QueryResultBundle;
+import org.sagebionetworks.schema.adapter.org.json.EntityFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+/**
+ * Not a test of timing. Prints the time to write a large query result by
+ * building the full JSON string and by writing it as it is serialized. Only
+ * runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class JSONEntityHttpMessageConverterBenchmarkTest {
+
+	private static final int WARM_UP_ITERATIONS = 5;
+	private static final int ITERATIONS = 20;
+
+	private interface BodyWriter {
+		void write(QueryResultBundle bundle, ByteArrayOutputStream out) throws Exception;
+	}
+
+	@Test
+	public void testWriteLargeQueryResultBundle() throws Exception {
+		JSONEntityHttpMessageConverter converter = new JSONEntityHttpMessageConverter(Collections.emptySet());
+		QueryResultBundle bundle = JSONEntityHttpMessageConverterTest.createQueryResultBundle(20_000, 10);
+		byte[] expected = EntityFactory.createJSONStringForEntity(bundle).getBytes(StandardCharsets.UTF_8);
+		measure("string", bundle, expected, (in, out) -> {
+			out.write(EntityFactory.createJSONStringForEntity(in).getBytes(StandardCharsets.UTF_8));
+		});
+		measure("streamed", bundle, expected, (in, out) -> {
+			converter.write(in, MediaType.APPLICATION_JSON, createOutputMessage(out));
+		});
+	}
+
+	/**
+	 * Write the given bundle repeatedly and print the median, minimum and maximum
+	 * time per write.
+	 */
+	void measure(String name, QueryResultBundle bundle, byte[] expected, BodyWriter writer) throws Exception {
+		for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+			writer.write(bundle, new ByteArrayOutputStream(expected.length));
+		}
+		long[] times = new long[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(expected.length);
+			long start = System.nanoTime();
+			writer.write(bundle, out);
+			times[i] = System.nanoTime() - start;
+			assertArrayEquals(expected, out.toByteArray());
+		}
+		Arrays.sort(times);
+		System.out.println(String.format("QueryResultBundle of %d bytes, %s: median %.1f ms, min %.1f ms, max %.1f ms",
+				expected.length, name, times[ITERATIONS / 2] / 1e6, times[0] / 1e6, times[ITERATIONS - 1] / 1e6));
+	}
+
+	static HttpOutputMessage createOutputMessage(OutputStream body) {
+		HttpHeaders headers = new HttpHeaders();
+		return new HttpOutputMessage() {
+
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+
+			@Override
+			public OutputStream getBody() {
+				return body;
+			}
+		};
+	}
+}
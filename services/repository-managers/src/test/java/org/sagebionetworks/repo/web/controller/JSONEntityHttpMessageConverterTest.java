@@ -1,5 +1,6 @@
 package org.sagebionetworks.repo.web.controller;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -11,6 +12,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -21,6 +23,7 @@ import java.util.Set;
 import java.util.Arrays;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Before;
@@ -33,6 +36,12 @@ import org.sagebionetworks.repo.model.Project;
 import org.sagebionetworks.repo.model.schema.CreateSchemaRequest;
 import org.sagebionetworks.repo.model.schema.JsonSchema;
 import org.sagebionetworks.repo.model.schema.Type;
+import org.sagebionetworks.repo.model.table.ColumnType;
+import org.sagebionetworks.repo.model.table.QueryResult;
+import org.sagebionetworks.repo.model.table.QueryResultBundle;
+import org.sagebionetworks.repo.model.table.Row;
+import org.sagebionetworks.repo.model.table.RowSet;
+import org.sagebionetworks.repo.model.table.SelectColumn;
 import org.sagebionetworks.schema.adapter.JSONArrayAdapter;
 import org.sagebionetworks.schema.adapter.JSONEntity;
 import org.sagebionetworks.schema.adapter.JSONObjectAdapter;
@@ -44,6 +53,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
 import com.amazonaws.util.StringInputStream;
@@ -556,4 +566,146 @@ public class JSONEntityHttpMessageConverterTest {
 		// call under test
 		JSONEntityHttpMessageConverter.validateJSONEntityRecursive(parsedAdapter, originalAdapter);
 	}
+	
+	@Test
+	public void testWriteMatchesJSONString() throws Exception {
+		project.setDescription("Non-ASCII: \u00e9\u4e2d \"quoted\"");
+		// call under test
+		converter.write(project, MediaType.APPLICATION_JSON, mockOutMessage);
+		assertEquals(EntityFactory.createJSONStringForEntity(project), new String(outStream.toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testWriteSmallResponseSetsContentLength() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		Mockito.when(mockOutMessage.getHeaders()).thenReturn(headers);
+		// call under test
+		converter.write(project, MediaType.APPLICATION_JSON, mockOutMessage);
+		assertEquals(outStream.size(), headers.getContentLength());
+	}
+	
+	@Test
+	public void testWriteLargeResponseIsStreamed() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		Mockito.when(mockOutMessage.getHeaders()).thenReturn(headers);
+		project.setDescription(StringUtils.repeat("a", JSONEntityHttpMessageConverter.MAX_BUFFERED_RESPONSE_BYTES));
+		// call under test
+		converter.write(project, MediaType.APPLICATION_JSON, mockOutMessage);
+		// the length is not known when the headers are sent.
+		assertEquals(-1L, headers.getContentLength());
+		assertEquals(EntityFactory.createJSONStringForEntity(project), new String(outStream.toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testWriteMultiByteResponseSetsContentLength() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		Mockito.when(mockOutMessage.getHeaders()).thenReturn(headers);
+		project.setDescription(StringUtils.repeat("\u00e9\u4e2d", 1000));
+		// call under test
+		converter.write(project, MediaType.APPLICATION_JSON, mockOutMessage);
+		// the length is in bytes, not characters.
+		assertEquals(outStream.size(), headers.getContentLength());
+		assertEquals(EntityFactory.createJSONStringForEntity(project), new String(outStream.toByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testResponseBodyOutputStream() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		Mockito.when(mockOutMessage.getHeaders()).thenReturn(headers);
+		JSONEntityHttpMessageConverter.ResponseBodyOutputStream out = new JSONEntityHttpMessageConverter.ResponseBodyOutputStream(mockOutMessage, 4);
+		out.write(new byte[] {1, 2, 3});
+		assertFalse(out.isStreaming());
+		Mockito.verify(mockOutMessage, Mockito.never()).getBody();
+		out.write(4);
+		assertFalse(out.isStreaming());
+		// call under test
+		out.write(5);
+		assertTrue(out.isStreaming());
+		out.close();
+		assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, outStream.toByteArray());
+		assertEquals(-1L, headers.getContentLength());
+	}
+	
+	@Test
+	public void testWriteWithConversionErrorWritesNothing() throws Exception {
+		JSONEntity broken = Mockito.mock(JSONEntity.class);
+		Mockito.when(broken.writeToJSONObject(Mockito.any())).thenThrow(new JSONObjectAdapterException("broken"));
+		assertThrows(HttpMessageNotWritableException.class, () -> {
+			// call under test
+			converter.write(broken, MediaType.APPLICATION_JSON, mockOutMessage);
+		});
+		Mockito.verify(mockOutMessage, Mockito.never()).getBody();
+	}
+	
+	@Test
+	public void testReadWithMultiByteCharacters() throws Exception {
+		// Long enough that characters span the boundaries of any read buffer.
+		project.setDescription(StringUtils.repeat("\u00e9\u4e2d", 5000));
+		Mockito.when(mockInMessage.getBody()).thenReturn(new ByteArrayInputStream(EntityFactory.createJSONStringForEntity(project).getBytes(StandardCharsets.UTF_8)));
+		Mockito.when(mockHeaders.getContentType()).thenReturn(new MediaType("application", "json", StandardCharsets.UTF_8));
+		// call under test
+		JSONEntity results = converter.read(Project.class, mockInMessage);
+		assertEquals(project, results);
+	}
+	
+	@Test
+	public void testReadWithInvalidJSON() throws Exception {
+		Mockito.when(mockInMessage.getBody()).thenReturn(new StringInputStream("{\"name\":"));
+		assertThrows(HttpMessageNotReadableException.class, () -> {
+			// call under test
+			converter.read(Project.class, mockInMessage);
+		});
+	}
+	
+	/**
+	 * A large query result written as it is serialized must match the full JSON
+	 * string.
+	 */
+	@Test
+	public void testWriteLargeQueryResultBundle() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		Mockito.when(mockOutMessage.getHeaders()).thenReturn(headers);
+		QueryResultBundle bundle = createQueryResultBundle(20_000, 10);
+		byte[] expected = EntityFactory.createJSONStringForEntity(bundle).getBytes(StandardCharsets.UTF_8);
+		// call under test
+		converter.write(bundle, MediaType.APPLICATION_JSON, mockOutMessage);
+		assertArrayEquals(expected, outStream.toByteArray());
+		// streamed, so the length is not known when the headers are sent.
+		assertEquals(-1L, headers.getContentLength());
+		assertEquals(bundle, EntityFactory.createEntityFromJSONString(new String(outStream.toByteArray(), StandardCharsets.UTF_8), QueryResultBundle.class));
+	}
+	
+	static QueryResultBundle createQueryResultBundle(int rowCount, int columnCount) {
+		List<SelectColumn> headers = new ArrayList<>(columnCount);
+		for (int c = 0; c < columnCount; c++) {
+			SelectColumn header = new SelectColumn();
+			header.setId("" + c);
+			header.setName("column" + c);
+			header.setColumnType(ColumnType.STRING);
+			headers.add(header);
+		}
+		List<Row> rows = new ArrayList<>(rowCount);
+		for (int r = 0; r < rowCount; r++) {
+			Row row = new Row();
+			row.setRowId((long) r);
+			row.setVersionNumber(1L);
+			List<String> values = new ArrayList<>(columnCount);
+			for (int c = 0; c < columnCount; c++) {
+				values.add("value-" + r + "-" + c);
+			}
+			row.setValues(values);
+			rows.add(row);
+		}
+		RowSet rowSet = new RowSet();
+		rowSet.setEtag("etag");
+		rowSet.setHeaders(headers);
+		rowSet.setRows(rows);
+		QueryResult result = new QueryResult();
+		result.setQueryResults(rowSet);
+		QueryResultBundle bundle = new QueryResultBundle();
+		bundle.setQueryResult(result);
+		bundle.setQueryCount((long) rowCount);
+		bundle.setSelectColumns(headers);
+		return bundle;
+	}
 }
@@ -24,6 +24,7 @@ import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.oauth.OAuthClientNotVerifiedException;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
 import org.sagebionetworks.repo.manager.oauth.OpenIDConnectManager;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessToken;
 import org.sagebionetworks.repo.model.AuthenticationMethod;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
@@ -31,6 +32,7 @@ import org.sagebionetworks.repo.model.UnauthenticatedException;
 import org.sagebionetworks.repo.web.ForbiddenException;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.repo.web.OAuthException;
+import org.sagebionetworks.repo.web.RequestContext;
 import org.sagebionetworks.securitytools.HMACUtils;
 import org.sagebionetworks.util.ThreadLocalProvider;
 import org.sagebionetworks.util.ValidateArgument;
@@ -38,6 +40,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+
 /**
  * This filter authenticates incoming requests:
  * (1) Checks for session token.  If present, validates the token and determines the user's identification;
@@ -85,6 +89,8 @@ public class AuthenticationFilter implements Filter {
 		}
 
 		Long userId = null;
+		Claims accessTokenClaims = null;
+		String oauthClientId = null;
 
 		if (isSigned(req)) {
 			String failureReason = "Invalid HMAC signature";
@@ -104,9 +110,13 @@ public class AuthenticationFilter implements Filter {
 			if (!isTokenEmptyOrNull(accessToken)) {
 				try {
 					// validate token and get userid parameter
-					userId = Long.parseLong(oidcManager.validateAccessToken(accessToken));
+					ValidatedAccessToken validatedToken = oidcManager.validateAccessTokenAndGetClaims(accessToken);
+					userId = Long.parseLong(validatedToken.getUserId());
+					accessTokenClaims = validatedToken.getClaims();
 					if (authenticationMethod == null) { // accessToken came in as sessionToken
 						authenticationMethod = AuthenticationMethod.BEARERTOKEN;
+						// The access log only records the client of a token passed in the Authorization header
+						oauthClientId = accessTokenClaims.getAudience();
 					}
 				} catch (IllegalArgumentException | ForbiddenException | OAuthClientNotVerifiedException e) {
 					String failureReason = "Invalid access token";
@@ -132,6 +142,12 @@ public class AuthenticationFilter implements Filter {
 
 		// Put the userId on thread local, so this thread always knows who is calling
 		currentUserIdThreadLocal.set(userId);
+
+		// Share what was learned while authenticating with the rest of the request, so the token is only verified once
+		RequestContext context = RequestContext.getOrCreate(req);
+		context.setUserId(userId);
+		context.setAccessTokenClaims(accessTokenClaims);
+		context.setOauthClientId(oauthClientId);
 		
 		// Pass the request along, including the user Id and access token
 		try {
@@ -1,8 +1,5 @@
 package org.sagebionetworks.repo.web;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 import javax.servlet.http.HttpServletRequest;
@@ -32,12 +29,6 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 
 	public static final String SESSION_ID = "sessionId";
 
-	/**
-	 * This map keeps track of the current record for each thread.
-	 */
-	Map<Long, AccessRecord> threadToRecordMap = Collections
-			.synchronizedMap(new HashMap<Long, AccessRecord>());
-
 	@Autowired
 	AccessRecorder accessRecorder;
 	
@@ -50,12 +41,16 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	@Autowired
 	private OIDCTokenHelper oidcTokenHelper;
 
-	String getOAuthClientId(HttpServletRequest request) {
+	String getOAuthClientId(HttpServletRequest request, RequestContext context) {
 		/*
-		 * There are two different places the client ID might be:
+		 * There are three different places the client ID might be:
+		 *  - in the request context, if the authentication filter already verified the access token in the Authorization header
 		 *  - in the access token, if the OAuth client is acting on behalf of a user
 		 *  - injected into the verified client ID header, if the client used basic auth
 		 */
+		if (context.getOauthClientId() != null) {
+			return context.getOauthClientId();
+		}
 		String accessToken = HttpAuthUtil.getBearerTokenFromStandardAuthorizationHeader(request);
 		if (accessToken != null) {
 			return oidcTokenHelper.parseJWT(accessToken).getBody().getAudience();
@@ -95,15 +90,16 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 		data.setInstance(KeyGeneratorUtil.getInstancePrefix(stackConfiguration.getStackInstanceNumber()));
 		data.setVmId(VirtualMachineIdProvider.getVMID());
 		data.setQueryString(request.getQueryString());
-		data.setOauthClientId(getOAuthClientId(request));
+		RequestContext context = RequestContext.getOrCreate(request);
+		data.setOauthClientId(getOAuthClientId(request, context));
 		if (HttpAuthUtil.usesBasicAuthentication(request)) {
 			data.setBasicAuthUsername(HttpAuthUtil.getBasicAuthenticationCredentials(request).get().getUserName());
 		}
 		data.setAuthenticationMethod(request.getHeader(AuthorizationConstants.SYNAPSE_AUTHENTICATION_METHOD_HEADER_NAME));
 		// push the session id to the logging thread context
 		ThreadContext.put(SESSION_ID, data.getSessionId());
-		// Bind this record to this thread.
-		threadToRecordMap.put(Thread.currentThread().getId(), data);
+		// Bind this record to this request.
+		context.setAccessRecord(data);
 		return true;
 	}
 
@@ -121,13 +117,14 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 	public void afterCompletion(HttpServletRequest request,
 			HttpServletResponse response, Object handler, Exception exception)
 			throws Exception {
-		// Get the record for this thread
-		AccessRecord data = threadToRecordMap.remove(Thread.currentThread()
-				.getId());
+		// Get the record for this request
+		RequestContext context = RequestContext.get(request);
+		AccessRecord data = context == null ? null : context.getAccessRecord();
 		if (data == null)
 			throw new IllegalStateException(
-					"Failed to get the access record for this thread: "
-							+ Thread.currentThread().getId());
+					"Failed to get the access record for this request: "
+							+ request.getRequestURI());
+		context.setAccessRecord(null);
 		// Calculate the elapse time
 		data.setElapseMS(clock.currentTimeMillis() - data.getTimestamp());
 		// If there is an exception then it failed.
@@ -142,16 +139,17 @@ public class AccessInterceptor implements HandlerInterceptor, AccessIdListener{
 
 	@Override
 	public void setReturnObjectId(String returneObjectId) {
-		// Set this value on the current thread's access
-		getCurrentThreadAccessRecord().setReturnObjectId(returneObjectId);
+		// Set this value on the current request's access
+		getCurrentRequestAccessRecord().setReturnObjectId(returneObjectId);
 	}
 	
 	/**
-	 * Get the current AccessRecord for this thread.
+	 * Get the current AccessRecord for the request handled by this thread.
 	 * @return
 	 */
-	private AccessRecord getCurrentThreadAccessRecord(){
-		AccessRecord ar = threadToRecordMap.get(Thread.currentThread().getId());
+	private AccessRecord getCurrentRequestAccessRecord(){
+		RequestContext context = RequestContext.current();
+		AccessRecord ar = context == null ? null : context.getAccessRecord();
 		if(ar == null) 	throw new IllegalStateException(
 				"Failed to get the access record for this thread: "
 						+ Thread.currentThread().getId());
@@ -26,7 +26,9 @@ public class HttpRequestIdentifierUtils {
 	public static HttpRequestIdentifier getRequestIdentifier(ServletRequest request){
 		HttpServletRequest httpRequest = (HttpServletRequest) request;
 
-		Long userId = Long.parseLong(httpRequest.getParameter(AuthorizationConstants.USER_ID_PARAM));
+		RequestContext context = RequestContext.get(httpRequest);
+		Long userId = context != null && context.getUserId() != null ? context.getUserId()
+				: Long.parseLong(httpRequest.getParameter(AuthorizationConstants.USER_ID_PARAM));
 		String sessionId = getSessionId(httpRequest);
 		String ipAddress = IpAddressUtil.getIpAddress(httpRequest);
 		String requestPath = httpRequest.getRequestURI();
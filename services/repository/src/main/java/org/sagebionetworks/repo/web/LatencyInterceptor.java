@@ -0,0 +1,64 @@
+package org.sagebionetworks.repo.web;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.sagebionetworks.profiler.LatencyMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This intercepter records the latency of each web-service call in the
+ * {@link LatencyMetrics}, by HTTP method and URL pattern of the controller
+ * method.
+ *
+ */
+public class LatencyInterceptor implements HandlerInterceptor {
+
+	public static final String START_NANOS = LatencyInterceptor.class.getName() + ".startNanos";
+	public static final String UNKNOWN_PATTERN = "unknown";
+
+	@Autowired
+	LatencyMetrics latencyMetrics;
+
+	/**
+	 * This is called before a controller runs.
+	 */
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (!latencyMetrics.isEnabled()) {
+			return true;
+		}
+		request.setAttribute(START_NANOS, System.nanoTime());
+		return true;
+	}
+
+	/**
+	 * Called after the response has been sent, including when the controller
+	 * failed.
+	 */
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		Object start = request.getAttribute(START_NANOS);
+		if (!(start instanceof Long)) {
+			return;
+		}
+		long elapsed = System.nanoTime() - (Long) start;
+		latencyMetrics.record(getEndpointName(request), elapsed);
+	}
+
+	/**
+	 * The name of an endpoint is the HTTP method and the pattern of the URL, so
+	 * all calls to the same controller method are recorded together.
+	 *
+	 * @param request
+	 * @return
+	 */
+	static String getEndpointName(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		return request.getMethod() + " " + (pattern != null ? pattern : UNKNOWN_PATTERN);
+	}
+
+}
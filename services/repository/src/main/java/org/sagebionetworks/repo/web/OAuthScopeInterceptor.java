@@ -104,7 +104,11 @@ public class OAuthScopeInterceptor implements HandlerInterceptor {
 		List<OAuthScope> requestScopes = Collections.EMPTY_LIST;
 		String synapseAuthorizationHeader = request.getHeader(SYNAPSE_AUTHORIZATION_HEADER_NAME);
 		String accessToken = HttpAuthUtil.getBearerTokenFromAuthorizationHeader(synapseAuthorizationHeader);
-		if (accessToken!=null) {
+		RequestContext context = RequestContext.get(request);
+		if (context != null && context.getAccessTokenClaims() != null) {
+			// the authentication filter already verified the access token
+			requestScopes = ClaimsJsonUtil.getScopeFromClaims(context.getAccessTokenClaims());
+		} else if (accessToken!=null) {
 			try {
 				Jwt<JwsHeader, Claims> jwt = oidcTokenHelper.parseJWT(accessToken);
 				requestScopes = ClaimsJsonUtil.getScopeFromClaims(jwt.getBody());
@@ -0,0 +1,123 @@
+package org.sagebionetworks.repo.web;
+
+import javax.servlet.ServletRequest;
+
+import org.sagebionetworks.repo.model.audit.AccessRecord;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * State about the caller of a single web-service request, built once by the
+ * filter chain and attached to the servlet request so that later filters,
+ * interceptors and aspects can read it without authenticating the request
+ * again.
+ * <p>
+ * A context belongs to a single request, which is handled by a single thread
+ * at a time, so it needs no synchronization.
+ *
+ */
+public class RequestContext {
+
+	public static final String ATTRIBUTE_NAME = RequestContext.class.getName();
+
+	private Long userId;
+	private Claims accessTokenClaims;
+	private String oauthClientId;
+	private AccessRecord accessRecord;
+
+	/**
+	 * Get the context attached to the given request.
+	 *
+	 * @param request
+	 * @return The context or null if none has been attached to the request.
+	 */
+	public static RequestContext get(ServletRequest request) {
+		Object context = request.getAttribute(ATTRIBUTE_NAME);
+		return context instanceof RequestContext ? (RequestContext) context : null;
+	}
+
+	/**
+	 * Get the context attached to the given request, attaching a new, empty context
+	 * if there is none.
+	 *
+	 * @param request
+	 * @return
+	 */
+	public static RequestContext getOrCreate(ServletRequest request) {
+		RequestContext context = get(request);
+		if (context == null) {
+			context = new RequestContext();
+			request.setAttribute(ATTRIBUTE_NAME, context);
+		}
+		return context;
+	}
+
+	/**
+	 * Get the context of the request currently being handled by the dispatcher
+	 * on this thread, for callers that have no access to the servlet request.
+	 *
+	 * @return The context or null if this thread is not handling a request or no
+	 *         context has been attached to the request.
+	 */
+	public static RequestContext current() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes == null) {
+			return null;
+		}
+		Object context = attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+		return context instanceof RequestContext ? (RequestContext) context : null;
+	}
+
+	/**
+	 * @return The ID of the authenticated user, or null if the request has not
+	 *         been authenticated.
+	 */
+	public Long getUserId() {
+		return userId;
+	}
+
+	public void setUserId(Long userId) {
+		this.userId = userId;
+	}
+
+	/**
+	 * @return The verified claims of the access token used to authenticate the
+	 *         request, or null if the request was not authenticated with an
+	 *         access token presented by the caller. Shared, so must not be
+	 *         modified.
+	 */
+	public Claims getAccessTokenClaims() {
+		return accessTokenClaims;
+	}
+
+	public void setAccessTokenClaims(Claims accessTokenClaims) {
+		this.accessTokenClaims = accessTokenClaims;
+	}
+
+	/**
+	 * @return The ID of the OAuth client making the request on behalf of the
+	 *         user, or null if not known. Only set for an access token passed
+	 *         in the Authorization header.
+	 */
+	public String getOauthClientId() {
+		return oauthClientId;
+	}
+
+	public void setOauthClientId(String oauthClientId) {
+		this.oauthClientId = oauthClientId;
+	}
+
+	/**
+	 * @return The audit record of the request, or null if it has not been started.
+	 */
+	public AccessRecord getAccessRecord() {
+		return accessRecord;
+	}
+
+	public void setAccessRecord(AccessRecord accessRecord) {
+		this.accessRecord = accessRecord;
+	}
+
+}
@@ -7,6 +7,7 @@ import org.sagebionetworks.repo.manager.NotificationManager;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.UserProfileManager;
 import org.sagebionetworks.repo.manager.UserProfileManagerUtils;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.manager.team.TeamManager;
 import org.sagebionetworks.repo.manager.token.TokenGenerator;
 import org.sagebionetworks.repo.model.AccessControlList;
@@ -25,7 +26,6 @@ import org.sagebionetworks.repo.model.TeamSortOrder;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.UserProfile;
-import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
 import org.sagebionetworks.repo.web.NotFoundException;
 import org.sagebionetworks.util.ValidateArgument;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,7 +45,7 @@ public class TeamServiceImpl implements TeamService {
 	@Autowired
 	private UserManager userManager;
 	@Autowired
-	PrincipalPrefixDAO principalPrefixDAO;
+	PrincipalPrefixManager principalPrefixManager;
 	@Autowired
 	private NotificationManager notificationManager;
 	@Autowired
@@ -106,7 +106,7 @@ public class TeamServiceImpl implements TeamService {
 		if (fragment==null || fragment.trim().length()==0) {
 			return teamManager.list(limit, offset);
 		}
-		List<Long> teamIds = principalPrefixDAO.listTeamsForPrefix(fragment, limit, offset);
+		List<Long> teamIds = principalPrefixManager.listTeamsForPrefix(fragment, limit, offset);
 		List<Team> teams = teamManager.list(teamIds).getList();
 		return PaginatedResults.createWithLimitAndOffset(teams, limit, offset);
 	}
@@ -151,7 +151,7 @@ public class TeamServiceImpl implements TeamService {
 		}
 		Long teamIdLong = Long.parseLong(teamId);
 		Count result = new Count();
-		result.setCount(principalPrefixDAO.countTeamMembersForPrefix(fragment, teamIdLong));
+		result.setCount(principalPrefixManager.countTeamMembersForPrefix(fragment, teamIdLong));
 		return result;
 	}
 
@@ -14,6 +14,7 @@ import org.sagebionetworks.repo.manager.UserProfileManager;
 import org.sagebionetworks.repo.manager.UserProfileManagerUtils;
 import org.sagebionetworks.repo.manager.dataaccess.DataAccessAuthorizationManager;
 import org.sagebionetworks.repo.manager.entity.EntityAuthorizationManager;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.manager.token.TokenGenerator;
 import org.sagebionetworks.repo.manager.verification.VerificationHelper;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
@@ -34,7 +35,6 @@ import org.sagebionetworks.repo.model.UserGroupHeader;
 import org.sagebionetworks.repo.model.UserGroupHeaderResponsePage;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.UserProfile;
-import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
 import org.sagebionetworks.repo.model.entity.query.SortDirection;
 import org.sagebionetworks.repo.model.favorite.SortBy;
 import org.sagebionetworks.repo.model.message.NotificationSettingsSignedToken;
@@ -71,7 +71,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 	
 	private EntityManager entityManager;
 	
-	private PrincipalPrefixDAO principalPrefixDAO;
+	private PrincipalPrefixManager principalPrefixManager;
 	
 	private TokenGenerator tokenGenerator;
 	
@@ -79,7 +79,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 	
 	@Autowired
 	public UserProfileServiceImpl(UserProfileManager userProfileManager, PrincipalAliasDAO principalAliasDAO, UserManager userManager,
-			EntityAuthorizationManager entityAuthorizationManager, EntityManager entityManager, PrincipalPrefixDAO principalPrefixDAO,
+			EntityAuthorizationManager entityAuthorizationManager, EntityManager entityManager, PrincipalPrefixManager principalPrefixManager,
 			TokenGenerator tokenGenerator, DataAccessAuthorizationManager dataAcccessAuthManager) {
 		super();
 		this.userProfileManager = userProfileManager;
@@ -87,7 +87,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 		this.userManager = userManager;
 		this.entityAuthorizationManager = entityAuthorizationManager;
 		this.entityManager = entityManager;
-		this.principalPrefixDAO = principalPrefixDAO;
+		this.principalPrefixManager = principalPrefixManager;
 		this.tokenGenerator = tokenGenerator;
 		this.dataAcccessAuthManager = dataAcccessAuthManager;
 	}
@@ -200,7 +200,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 		switch(filter){
 		case ALL:
 			// not filtered by type.
-			return principalPrefixDAO.listPrincipalsForPrefix(prefix, limit, offset);
+			return principalPrefixManager.listPrincipalsForPrefix(prefix, limit, offset);
 		case USERS_ONLY:
 			isIndividual = true;
 			break;
@@ -211,7 +211,7 @@ public class UserProfileServiceImpl implements UserProfileService {
 			throw new IllegalArgumentException("Unknown type: "+filter);
 		}
 		// filter by type
-		return principalPrefixDAO.listPrincipalsForPrefix(prefix, isIndividual, limit, offset);
+		return principalPrefixManager.listPrincipalsForPrefix(prefix, isIndividual, limit, offset);
 	}
 	
 	@Override
@@ -18,6 +18,7 @@ import org.sagebionetworks.auth.services.AuthenticationService;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
 import org.sagebionetworks.repo.manager.oauth.OpenIDConnectManager;
+import org.sagebionetworks.repo.manager.oauth.ValidatedAccessToken;
 import org.sagebionetworks.repo.model.AuthenticationMethod;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
@@ -25,6 +26,7 @@ import org.sagebionetworks.repo.model.UnauthenticatedException;
 import org.sagebionetworks.repo.model.principal.PrincipalAlias;
 import org.sagebionetworks.repo.web.OAuthErrorCode;
 import org.sagebionetworks.repo.web.OAuthUnauthenticatedException;
+import org.sagebionetworks.repo.web.RequestContext;
 import org.sagebionetworks.securitytools.HMACUtils;
 import org.springframework.mock.web.MockFilterChain;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -82,6 +84,9 @@ public class AuthenticationFilterTest {
 	@Captor
 	private ArgumentCaptor<HttpServletRequest> requestCaptor;
 
+	@Captor
+	private ArgumentCaptor<RequestContext> contextCaptor;
+
 	@Mock
 	private AuthenticationService mockAuthService;
 	
@@ -99,6 +104,8 @@ public class AuthenticationFilterTest {
 	private static final String BEARER_TOKEN_HEADER;
 	private static final List<String> HEADER_NAMES = Collections.singletonList("Authorization");
 	private PrincipalAlias pa;
+	private Claims accessTokenClaims;
+	private ValidatedAccessToken validatedToken;
 	
 	static {
 		Claims claims = new DefaultClaims();
@@ -113,6 +120,9 @@ public class AuthenticationFilterTest {
 	public void setupFilter() throws Exception {
 		pa = new PrincipalAlias();
 		pa.setPrincipalId(userId);
+		accessTokenClaims = new DefaultClaims();
+		accessTokenClaims.setAudience("9999");
+		validatedToken = new ValidatedAccessToken(""+userId, accessTokenClaims);
 
 		filter.init(new FilterConfig() {
 			public String getFilterName() { 
@@ -214,6 +224,11 @@ public class AuthenticationFilterTest {
 		String passedAlongUsername = modRequest.getParameter(AuthorizationConstants.USER_ID_PARAM);
 		assertEquals(userId.toString(), passedAlongUsername);
 		assertEquals(AuthenticationMethod.APIKEY.name(), modRequest.getHeader(AuthorizationConstants.SYNAPSE_AUTHENTICATION_METHOD_HEADER_NAME));
+		RequestContext context = RequestContext.get(modRequest);
+		assertEquals(userId, context.getUserId());
+		// signed requests are not recorded with a client
+		assertNull(context.getOauthClientId());
+		assertNull(context.getAccessTokenClaims());
 	}
 	
 	@Test
@@ -261,36 +276,49 @@ public class AuthenticationFilterTest {
 		when(mockHttpRequest.getHeader(AuthorizationConstants.AUTHORIZATION_HEADER_NAME)).thenReturn(BEARER_TOKEN_HEADER);
 		when(mockHttpRequest.getHeaderNames()).thenReturn(Collections.enumeration(HEADER_NAMES));
 		when(mockHttpRequest.getHeaders("Authorization")).thenReturn(Collections.enumeration(Collections.singletonList(BEARER_TOKEN_HEADER)));
-		when(mockOidcManager.validateAccessToken(anyString())).thenReturn(""+userId);
+		when(mockOidcManager.validateAccessTokenAndGetClaims(anyString())).thenReturn(validatedToken);
 
 		// by default the mocked oidcTokenHelper.validateJWT(bearerToken) won't throw any exception, so the token is deemed valid
 
 		// method under test
 		filter.doFilter(mockHttpRequest, mockHttpResponse, mockFilterChain);
 		
-		verify(mockOidcManager).validateAccessToken(BEARER_TOKEN);
+		verify(mockOidcManager).validateAccessTokenAndGetClaims(BEARER_TOKEN);
 		verify(mockFilterChain).doFilter(requestCaptor.capture(), (ServletResponse)any());
 		
 		assertEquals(""+userId, requestCaptor.getValue().getParameter(AuthorizationConstants.USER_ID_PARAM));
 		assertEquals("Bearer "+BEARER_TOKEN, requestCaptor.getValue().getHeader(AuthorizationConstants.SYNAPSE_AUTHORIZATION_HEADER_NAME));
 		assertEquals(AuthenticationMethod.BEARERTOKEN.name(), requestCaptor.getValue().getHeader(AuthorizationConstants.SYNAPSE_AUTHENTICATION_METHOD_HEADER_NAME));
+
+		// the verified claims are shared with the rest of the request
+		verify(mockHttpRequest).setAttribute(eq(RequestContext.ATTRIBUTE_NAME), contextCaptor.capture());
+		RequestContext context = contextCaptor.getValue();
+		assertEquals(userId, context.getUserId());
+		assertEquals(accessTokenClaims, context.getAccessTokenClaims());
+		assertEquals("9999", context.getOauthClientId());
 	}
 
 	@Test
 	public void testFilter_AccessTokenPassedAsSessionToken() throws Exception {
 		when(mockHttpRequest.getHeader(AuthorizationConstants.SESSION_TOKEN_PARAM)).thenReturn(BEARER_TOKEN);
 		when(mockHttpRequest.getHeaderNames()).thenReturn(Collections.enumeration(Collections.singletonList("sessionToken")));
-		when(mockOidcManager.validateAccessToken(anyString())).thenReturn(""+userId);
+		when(mockOidcManager.validateAccessTokenAndGetClaims(anyString())).thenReturn(validatedToken);
 
 		// method under test
 		filter.doFilter(mockHttpRequest, mockHttpResponse, mockFilterChain);
 		
-		verify(mockOidcManager).validateAccessToken(BEARER_TOKEN);
+		verify(mockOidcManager).validateAccessTokenAndGetClaims(BEARER_TOKEN);
 		verify(mockFilterChain).doFilter(requestCaptor.capture(), (ServletResponse)any());
 		
 		assertEquals(""+userId, requestCaptor.getValue().getParameter(AuthorizationConstants.USER_ID_PARAM));
 		assertEquals("Bearer "+BEARER_TOKEN, requestCaptor.getValue().getHeader(AuthorizationConstants.SYNAPSE_AUTHORIZATION_HEADER_NAME));
 		assertEquals(AuthenticationMethod.SESSIONTOKEN.name(), requestCaptor.getValue().getHeader(AuthorizationConstants.SYNAPSE_AUTHENTICATION_METHOD_HEADER_NAME));
+
+		// the claims are shared, but a token passed as a session token is not recorded with its client
+		verify(mockHttpRequest).setAttribute(eq(RequestContext.ATTRIBUTE_NAME), contextCaptor.capture());
+		RequestContext context = contextCaptor.getValue();
+		assertEquals(accessTokenClaims, context.getAccessTokenClaims());
+		assertNull(context.getOauthClientId());
 	}
 
 	@Test
@@ -306,7 +334,7 @@ public class AuthenticationFilterTest {
 		when(mockHttpRequest.getHeader(AuthorizationConstants.AUTHORIZATION_HEADER_NAME)).thenReturn(BEARER_TOKEN_HEADER);
 		when(mockHttpRequest.getHeaderNames()).thenReturn(Collections.enumeration(HEADER_NAMES));
 		when(mockHttpRequest.getHeaders("Authorization")).thenReturn(Collections.enumeration(Collections.singletonList(BEARER_TOKEN_HEADER)));
-		when(mockOidcManager.validateAccessToken(anyString())).thenReturn(""+userId);
+		when(mockOidcManager.validateAccessTokenAndGetClaims(anyString())).thenReturn(validatedToken);
 
 		// method under test
 		filter.doFilter(mockHttpRequest, mockHttpResponse, mockFilterChain);
@@ -331,12 +359,12 @@ public class AuthenticationFilterTest {
 
 		OAuthErrorCode code = OAuthErrorCode.invalid_token;
 		String description = "The token is invalid.";
-		doThrow(new OAuthUnauthenticatedException(code, description)).when(mockOidcManager).validateAccessToken(BEARER_TOKEN);
+		doThrow(new OAuthUnauthenticatedException(code, description)).when(mockOidcManager).validateAccessTokenAndGetClaims(BEARER_TOKEN);
 
 		// method under test
 		filter.doFilter(mockHttpRequest, mockHttpResponse, mockFilterChain);
 		
-		verify(mockOidcManager).validateAccessToken(BEARER_TOKEN);
+		verify(mockOidcManager).validateAccessTokenAndGetClaims(BEARER_TOKEN);
 		verify(mockFilterChain, never()).doFilter((ServletRequest)any(), (ServletResponse)any());
 		verify(mockHttpResponse).setStatus(401);
 		verify(mockHttpResponse).setContentType("application/json");
@@ -357,7 +385,7 @@ public class AuthenticationFilterTest {
 		filter.doFilter(mockHttpRequest, mockHttpResponse, mockFilterChain);
 		
 		verify(mockFilterChain).doFilter(requestCaptor.capture(), (ServletResponse)any());
-		verify(mockOidcManager, never()).validateAccessToken(BEARER_TOKEN);
+		verify(mockOidcManager, never()).validateAccessTokenAndGetClaims(BEARER_TOKEN);
 		
 		assertEquals("273950", requestCaptor.getValue().getParameter(AuthorizationConstants.USER_ID_PARAM));
 		assertNull(requestCaptor.getValue().getHeader(AuthorizationConstants.SYNAPSE_AUTHORIZATION_HEADER_NAME));
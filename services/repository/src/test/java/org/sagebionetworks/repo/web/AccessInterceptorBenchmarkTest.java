@@ -0,0 +1,162 @@
+package org.sagebionetworks.repo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.StackConfiguration;
+import org.sagebionetworks.repo.manager.KeyPairUtil;
+import org.sagebionetworks.repo.manager.oauth.OIDCTokenHelper;
+import org.sagebionetworks.repo.model.auth.JSONWebTokenHelper;
+import org.sagebionetworks.repo.model.audit.AccessRecord;
+import org.sagebionetworks.repo.model.audit.AccessRecorder;
+import org.sagebionetworks.repo.model.oauth.JsonWebKeySet;
+import org.sagebionetworks.util.DefaultClock;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Not a test of timing. Prints the time per request of the
+ * {@link AccessInterceptor} from a few concurrent threads, when the OAuth
+ * client ID comes from the {@link RequestContext} built by the authentication
+ * filter and when the interceptor has to verify the RSA signed access token
+ * again. Only runs with the benchmark profile.
+ */
+@Tag("benchmark")
+public class AccessInterceptorBenchmarkTest {
+
+	private static final long WARM_UP_MS = 100;
+	private static final long MEASURE_MS = 300;
+	private static final String OAUTH_CLIENT_ID = "9999";
+
+	private AccessInterceptor interceptor;
+	private String accessToken;
+	private AtomicLong savedCount;
+	private ExecutorService executor;
+
+	@BeforeEach
+	public void before() throws Exception {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance(KeyPairUtil.RSA);
+		generator.initialize(2048);
+		KeyPair keyPair = generator.generateKeyPair();
+		String pemEncodedPrivateKey = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+		JsonWebKeySet jsonWebKeySet = KeyPairUtil.getJSONWebKeySetForPEMEncodedRsaKeys(Collections.singletonList(pemEncodedPrivateKey));
+		Claims claims = Jwts.claims().setSubject("123").setAudience(OAUTH_CLIENT_ID)
+				.setExpiration(new Date(System.currentTimeMillis() + 24 * 60 * 60 * 1000L));
+		accessToken = Jwts.builder().setClaims(claims).setHeaderParam(Header.TYPE, Header.JWT_TYPE)
+				.setHeaderParam(JwsHeader.KEY_ID, jsonWebKeySet.getKeys().get(0).getKid())
+				.signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256).compact();
+
+		// stub only mocks do not record invocations, so they can be shared by threads without contention
+		OIDCTokenHelper oidcTokenHelper = mock(OIDCTokenHelper.class, withSettings().stubOnly());
+		when(oidcTokenHelper.parseJWT(anyString())).thenAnswer(
+				invocation -> JSONWebTokenHelper.parseJWT(invocation.getArgument(0), jsonWebKeySet));
+		StackConfiguration stackConfiguration = mock(StackConfiguration.class, withSettings().stubOnly());
+		when(stackConfiguration.getStack()).thenReturn("dev");
+		when(stackConfiguration.getStackInstanceNumber()).thenReturn(1);
+		savedCount = new AtomicLong();
+
+		interceptor = new AccessInterceptor();
+		interceptor.accessRecorder = new AccessRecorder() {
+
+			@Override
+			public void save(AccessRecord record) {
+				savedCount.incrementAndGet();
+			}
+
+			@Override
+			public String timerFired() {
+				return null;
+			}
+		};
+		interceptor.clock = new DefaultClock();
+		interceptor.stackConfiguration = stackConfiguration;
+		ReflectionTestUtils.setField(interceptor, "oidcTokenHelper", oidcTokenHelper);
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@AfterEach
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testInterceptor() throws Exception {
+		for (int threads : new int[] { 1, 8 }) {
+			measure("token verified again", threads, false);
+			measure("request context", threads, true);
+		}
+		assertTrue(savedCount.get() > 0);
+	}
+
+	/**
+	 * Run requests through the interceptor from the given number of threads and
+	 * print the average time per request.
+	 */
+	void measure(String name, int threads, boolean useRequestContext) throws Exception {
+		runFor(WARM_UP_MS, threads, useRequestContext);
+		long start = System.nanoTime();
+		long count = runFor(MEASURE_MS, threads, useRequestContext);
+		long elapsed = System.nanoTime() - start;
+		assertTrue(count > 0);
+		System.out.println(String.format("%-22s %2d threads %,12d ns/request", name, threads, elapsed * threads / count));
+	}
+
+	private long runFor(long millis, int threads, boolean useRequestContext) throws Exception {
+		long end = System.nanoTime() + millis * 1000_000L;
+		List<Future<Long>> futures = new ArrayList<>(threads);
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(() -> {
+				long count = 0;
+				do {
+					runRequest(useRequestContext);
+					count++;
+				} while (System.nanoTime() < end);
+				return count;
+			}));
+		}
+		long total = 0;
+		for (Future<Long> future : futures) {
+			total += future.get();
+		}
+		return total;
+	}
+
+	private void runRequest(boolean useRequestContext) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/repo/v1/entity/syn123");
+		request.addHeader("Authorization", "Bearer " + accessToken);
+		if (useRequestContext) {
+			RequestContext.getOrCreate(request).setOauthClientId(OAUTH_CLIENT_ID);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		interceptor.preHandle(request, response, null);
+		assertEquals(OAUTH_CLIENT_ID, RequestContext.get(request).getAccessRecord().getOauthClientId());
+		interceptor.afterCompletion(request, response, null, null);
+	}
+}
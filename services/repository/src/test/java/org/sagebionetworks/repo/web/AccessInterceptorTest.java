@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,6 +16,7 @@ import java.util.Base64;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +35,8 @@ import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.audit.AccessRecord;
 import org.sagebionetworks.repo.model.audit.AccessRecorder;
 import org.sagebionetworks.util.TestClock;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwsHeader;
@@ -80,6 +84,8 @@ public class AccessInterceptorTest {
 	int instanceNumber;
 	String stack;
 
+	RequestContext context;
+
 	private static final String BEARER_TOKEN_HEADER = "Bearer some-token";
 	private static final String OAUTH_CLIENT_ID = "9999";
 	private static final String OAUTH_CLIENT_ID_BASIC = "2222";
@@ -109,6 +115,15 @@ public class AccessInterceptorTest {
 		stack = "dev";
 		when(mockConfiguration.getStack()).thenReturn(stack);
 		when(mockClock.currentTimeMillis()).thenReturn(100L, 200L);
+		// the context is attached to the request and bound to the thread as the dispatcher would
+		context = new RequestContext();
+		when(mockRequest.getAttribute(RequestContext.ATTRIBUTE_NAME)).thenReturn(context);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(mockRequest));
+	}
+
+	@AfterEach
+	public void after() {
+		RequestContextHolder.resetRequestAttributes();
 	}
 	
 	
@@ -147,6 +162,8 @@ public class AccessInterceptorTest {
 		assertNull(result.getBasicAuthUsername());
 		assertEquals(AuthenticationMethod.SESSIONTOKEN.name(), result.getAuthenticationMethod());
 		verify(mockRequest).getHeader(AuthorizationConstants.SYNAPSE_AUTHENTICATION_METHOD_HEADER_NAME);
+		// the record is released with the request
+		assertNull(context.getAccessRecord());
 	}
 	
 	@Test
@@ -224,6 +241,26 @@ public class AccessInterceptorTest {
 		assertEquals("BEARERTOKEN", result.getAuthenticationMethod());
 	}
 
+	@Test
+	public void testGetOAuthClientIdFromRequestContext() throws Exception {
+		// The authentication filter already verified the access token
+		when(mockRequest.getHeader("authenticationMethod")).thenReturn("BEARERTOKEN");
+		context.setOauthClientId(OAUTH_CLIENT_ID);
+
+		// Start
+		interceptor.preHandle(mockRequest, mockResponse, mockHandler);
+		interceptor.setReturnObjectId("returnId");
+		// finish the call
+		interceptor.afterCompletion(mockRequest, mockResponse, mockHandler, null);
+		verify(mockRecorder).save(recordCaptor.capture());
+		AccessRecord result = recordCaptor.getValue();
+
+		assertEquals(OAUTH_CLIENT_ID, result.getOauthClientId());
+		assertEquals("returnId", result.getReturnObjectId());
+		// the token is not parsed again
+		verify(mockOidcTokenHelper, never()).parseJWT(any());
+	}
+
 	@Test
 	public void testGetOAuthClientIdFromBasicAuthCredsAndHeader() throws Exception {
 		// Put the client ID in the basic auth header.
@@ -54,6 +54,19 @@ public class HttpRequestIdentifierUtilsTest {
 		request.setRemoteAddr(ipAddress);
 
 
+		HttpRequestIdentifier expected = new HttpRequestIdentifier(userId,sessionId,ipAddress,requestPath);
+		assertEquals(expected, HttpRequestIdentifierUtils.getRequestIdentifier(request));
+	}
+
+	@Test
+	public void testGetRequestIdentifierWithRequestContext(){
+		// the user ID from the authentication filter is used over the parameter
+		RequestContext.getOrCreate(request).setUserId(userId);
+		request.setCookies(sessionIdCookie);
+		request.setRequestURI(requestPath);
+		request.setRemoteAddr(ipAddress);
+
+
 		HttpRequestIdentifier expected = new HttpRequestIdentifier(userId,sessionId,ipAddress,requestPath);
 		assertEquals(expected, HttpRequestIdentifierUtils.getRequestIdentifier(request));
 	}
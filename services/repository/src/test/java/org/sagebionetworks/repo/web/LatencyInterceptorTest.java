@@ -0,0 +1,69 @@
+package org.sagebionetworks.repo.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sagebionetworks.profiler.LatencyMetrics;
+import org.sagebionetworks.profiler.LatencySnapshot;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class LatencyInterceptorTest {
+
+	private LatencyMetrics latencyMetrics;
+	private LatencyInterceptor interceptor;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+
+	@BeforeEach
+	public void before() {
+		latencyMetrics = new LatencyMetrics(10);
+		interceptor = new LatencyInterceptor();
+		interceptor.latencyMetrics = latencyMetrics;
+		request = new MockHttpServletRequest("GET", "/repo/v1/entity/syn123");
+		response = new MockHttpServletResponse();
+	}
+
+	@Test
+	public void testRecordLatency() {
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/entity/{id}");
+		// call under test
+		assertTrue(interceptor.preHandle(request, response, null));
+		interceptor.afterCompletion(request, response, null, new IllegalArgumentException());
+		Map<String, LatencySnapshot> snapshots = latencyMetrics.getSnapshots();
+		assertEquals(1, snapshots.size());
+		assertEquals(1L, snapshots.get("GET /entity/{id}").getCount());
+	}
+
+	@Test
+	public void testRecordLatencyWithoutPattern() {
+		interceptor.preHandle(request, response, null);
+		// call under test
+		interceptor.afterCompletion(request, response, null, null);
+		assertEquals(1L, latencyMetrics.getSnapshots().get("GET " + LatencyInterceptor.UNKNOWN_PATTERN).getCount());
+	}
+
+	@Test
+	public void testRecordLatencyWithDisabled() {
+		latencyMetrics = new LatencyMetrics(false, 10);
+		interceptor.latencyMetrics = latencyMetrics;
+		// call under test
+		assertTrue(interceptor.preHandle(request, response, null));
+		interceptor.afterCompletion(request, response, null, null);
+		assertNull(request.getAttribute(LatencyInterceptor.START_NANOS));
+		assertTrue(latencyMetrics.getSnapshots().isEmpty());
+	}
+
+	@Test
+	public void testAfterCompletionWithoutPreHandle() {
+		// call under test
+		interceptor.afterCompletion(request, response, null, null);
+		assertTrue(latencyMetrics.getSnapshots().isEmpty());
+	}
+}
@@ -229,6 +229,24 @@ class OAuthScopeInterceptorTest {
 		verify(mockOidcTokenHelper).parseJWT(ACCESS_TOKEN);
 	}
 
+	@Test
+	void testPrehandleWithRequestContext() throws Exception {
+		mockRequiredScopeAnnotation();
+		mockRequestIdParam();
+		mockRequest(USER_ID, ACCESS_TOKEN);// NOT anonymous
+		RequestContext context = new RequestContext();
+		context.setAccessTokenClaims(createClaimsForScope(OAuthScope.values()));
+		when(mockRequest.getAttribute(RequestContext.ATTRIBUTE_NAME)).thenReturn(context);
+		
+		// method under test
+		boolean result = oauthScopeInterceptor.preHandle(mockRequest, mockResponse, mockHandler);
+		
+		assertTrue(result);
+		
+		// the claims verified by the authentication filter are used
+		verify(mockOidcTokenHelper, never()).parseJWT(anyString());
+	}
+
 	@Test
 	void testPrehandleNoScopeAnnotation() throws Exception {
 		mockRequest("123", null);// NOT anonymous
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.sagebionetworks.reflection.model.PaginatedResults;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.model.AuthorizationConstants;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
 import org.sagebionetworks.repo.model.DatastoreException;
@@ -46,6 +47,8 @@ public class UserProfileControllerAutowiredTest extends AbstractAutowiredControl
 	private EntityService entityService;
 	@Autowired
 	private PrincipalPrefixDAO principalPrefixDao;
+	@Autowired
+	private PrincipalPrefixManager principalPrefixManager;
 
 	private Long adminUserId;
 	String oldLocation;
@@ -116,6 +119,7 @@ public class UserProfileControllerAutowiredTest extends AbstractAutowiredControl
 	@Test
 	public void testGetUserGroupHeadersNoFilter() throws Exception {
 		principalPrefixDao.addPrincipalAlias("AUTHENTICATED_USERS", AuthorizationConstants.BOOTSTRAP_PRINCIPAL.AUTHENTICATED_USERS_GROUP.getPrincipalId());
+		principalPrefixManager.rebuildIndex();
 		String prefix = "";
 		int limit = 15;
 		int offset = 0;
@@ -139,6 +143,7 @@ public class UserProfileControllerAutowiredTest extends AbstractAutowiredControl
 	@Test
 	public void testGeUserGroupHeadersWithFilter() throws Exception {
 		principalPrefixDao.addPrincipalAlias("AUTHENTICATED_USERS", AuthorizationConstants.BOOTSTRAP_PRINCIPAL.AUTHENTICATED_USERS_GROUP.getPrincipalId());
+		principalPrefixManager.rebuildIndex();
 		String prefix = "auth";
 		int limit = 10;
 		int offset = 0;
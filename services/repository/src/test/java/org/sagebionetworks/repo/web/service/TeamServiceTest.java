@@ -13,6 +13,7 @@ import org.sagebionetworks.repo.manager.MessageToUserAndBody;
 import org.sagebionetworks.repo.manager.NotificationManager;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.UserProfileManager;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.manager.team.TeamManager;
 import org.sagebionetworks.repo.manager.token.TokenGenerator;
 import org.sagebionetworks.repo.model.JoinTeamSignedToken;
@@ -24,7 +25,6 @@ import org.sagebionetworks.repo.model.TeamMemberTypeFilterOptions;
 import org.sagebionetworks.repo.model.UserGroupHeader;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.UserProfile;
-import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
 import org.sagebionetworks.repo.model.message.MessageToUser;
 
 import java.util.ArrayList;
@@ -49,7 +49,7 @@ public class TeamServiceTest {
 	@Mock
 	private TeamManager mockTeamManager;
 	@Mock
-	private PrincipalPrefixDAO mockPrincipalPrefixDAO;
+	private PrincipalPrefixManager mockPrincipalPrefixManager;
 	@Mock
 	private NotificationManager mockNotificationManager;
 	@Mock
@@ -79,9 +79,9 @@ public class TeamServiceTest {
 		List<Long> listWithTeam = Arrays.asList(99L);
 		List<Long> emptyList = new LinkedList<>();
 
-		when(mockPrincipalPrefixDAO.listTeamsForPrefix("foo", 1L, 0L)).thenReturn(listWithTeam);
-		when(mockPrincipalPrefixDAO.listTeamsForPrefix("ba", 1L, 0L)).thenReturn(listWithTeam);
-		when(mockPrincipalPrefixDAO.listTeamsForPrefix("bas", 1L, 0L)).thenReturn(emptyList);
+		when(mockPrincipalPrefixManager.listTeamsForPrefix("foo", 1L, 0L)).thenReturn(listWithTeam);
+		when(mockPrincipalPrefixManager.listTeamsForPrefix("ba", 1L, 0L)).thenReturn(listWithTeam);
+		when(mockPrincipalPrefixManager.listTeamsForPrefix("bas", 1L, 0L)).thenReturn(emptyList);
 
 		List<Team> expected = new ArrayList<Team>(); expected.add(team);
 		ListWrapper<Team> wrapped = new ListWrapper<Team>();
@@ -108,11 +108,11 @@ public class TeamServiceTest {
 
 		Long teamId = 101L;
 		when(mockTeamManager.listMembersForPrefix("Smith", teamId.toString(), TeamMemberTypeFilterOptions.ALL,1L, 0L)).thenReturn(tms1paginated);
-		when(mockPrincipalPrefixDAO.countTeamMembersForPrefix("Smith", teamId)).thenReturn(1L);
+		when(mockPrincipalPrefixManager.countTeamMembersForPrefix("Smith", teamId)).thenReturn(1L);
 		when(mockTeamManager.listMembersForPrefix("john", teamId.toString(), TeamMemberTypeFilterOptions.ALL,1L, 0L)).thenReturn(tms1paginated);
-		when(mockPrincipalPrefixDAO.countTeamMembersForPrefix("john", teamId)).thenReturn(1L);
+		when(mockPrincipalPrefixManager.countTeamMembersForPrefix("john", teamId)).thenReturn(1L);
 		when(mockTeamManager.listMembersForPrefix("bas", teamId.toString(), TeamMemberTypeFilterOptions.ALL,1L, 0L)).thenReturn(tms2paginated);
-		when(mockPrincipalPrefixDAO.countTeamMembersForPrefix("bas", teamId)).thenReturn(0L);
+		when(mockPrincipalPrefixManager.countTeamMembersForPrefix("bas", teamId)).thenReturn(0L);
 		
 		// test last name match
 		PaginatedResults<TeamMember> pr = teamService.getMembers("101", "Smith", TeamMemberTypeFilterOptions.ALL, 1, 0);
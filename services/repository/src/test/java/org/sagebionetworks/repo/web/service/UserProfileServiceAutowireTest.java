@@ -20,6 +20,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.sagebionetworks.repo.manager.UserManager;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.model.DatastoreException;
 import org.sagebionetworks.repo.model.UnauthorizedException;
 import org.sagebionetworks.repo.model.UserGroupHeader;
@@ -43,6 +44,8 @@ public class UserProfileServiceAutowireTest extends AbstractAutowiredControllerT
 	private UserProfileService userProfileService;
 	@Autowired
 	private PrincipalPrefixDAO principalPrefixDAO;
+	@Autowired
+	private PrincipalPrefixManager principalPrefixManager;
 	
 	private List<Long> principalsToDelete;
 
@@ -98,6 +101,8 @@ public class UserProfileServiceAutowireTest extends AbstractAutowiredControllerT
 		// Add some groups
 		principalPrefixDAO.addPrincipalAlias(AUTHENTICATED_USERS_GROUP.name(), AUTHENTICATED_USERS_GROUP.getPrincipalId());
 		principalPrefixDAO.addPrincipalAlias(PUBLIC_GROUP.name(), PUBLIC_GROUP.getPrincipalId());
+		// the lookups are answered from the index
+		principalPrefixManager.rebuildIndex();
 	}
 	
 	@AfterEach
@@ -35,6 +35,7 @@ import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.UserProfileManager;
 import org.sagebionetworks.repo.manager.dataaccess.DataAccessAuthorizationManager;
 import org.sagebionetworks.repo.manager.entity.EntityAuthorizationManager;
+import org.sagebionetworks.repo.manager.principal.PrincipalPrefixManager;
 import org.sagebionetworks.repo.manager.token.TokenGenerator;
 import org.sagebionetworks.repo.model.ACCESS_TYPE;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
@@ -53,7 +54,6 @@ import org.sagebionetworks.repo.model.UserGroupHeaderResponsePage;
 import org.sagebionetworks.repo.model.UserInfo;
 import org.sagebionetworks.repo.model.UserProfile;
 import org.sagebionetworks.repo.model.auth.AuthorizationStatus;
-import org.sagebionetworks.repo.model.dbo.principal.PrincipalPrefixDAO;
 import org.sagebionetworks.repo.model.entity.query.SortDirection;
 import org.sagebionetworks.repo.model.message.NotificationSettingsSignedToken;
 import org.sagebionetworks.repo.model.message.Settings;
@@ -103,7 +103,7 @@ public class UserProfileServiceTest {
 	@Mock
 	private PrincipalAliasDAO mockPrincipalAliasDAO;
 	@Mock
-	private PrincipalPrefixDAO mockPrincipalPrefixDAO;
+	private PrincipalPrefixManager mockPrincipalPrefixManager;
 	@Mock
 	private TokenGenerator mockTokenGenerator;
 	
@@ -493,12 +493,12 @@ public class UserProfileServiceTest {
 		long offset = 1L;
 		long limit = 10L;
 		List<Long> expectedResutls = Lists.newArrayList(111L,222L);
-		when(mockPrincipalPrefixDAO.listPrincipalsForPrefix(prefix, limit, offset)).thenReturn(expectedResutls);
+		when(mockPrincipalPrefixManager.listPrincipalsForPrefix(prefix, limit, offset)).thenReturn(expectedResutls);
 		// call under test
 		List<Long> results = userProfileService.listPrincipalsForPrefix(prefix, filter, offset, limit);
 		assertEquals(expectedResutls, results);
 		// the filtered call should not be made.
-		verify(mockPrincipalPrefixDAO, never()).listPrincipalsForPrefix(anyString(), anyBoolean(), anyLong(), anyLong());
+		verify(mockPrincipalPrefixManager, never()).listPrincipalsForPrefix(anyString(), anyBoolean(), anyLong(), anyLong());
 	}
 	
 	@Test
@@ -509,12 +509,12 @@ public class UserProfileServiceTest {
 		long limit = 10L;
 		List<Long> expectedResutls = Lists.newArrayList(111L,222L);
 		boolean isIndividual = true;
-		when(mockPrincipalPrefixDAO.listPrincipalsForPrefix(prefix, isIndividual, limit, offset)).thenReturn(expectedResutls);
+		when(mockPrincipalPrefixManager.listPrincipalsForPrefix(prefix, isIndividual, limit, offset)).thenReturn(expectedResutls);
 		// call under test
 		List<Long> results = userProfileService.listPrincipalsForPrefix(prefix, filter, offset, limit);
 		assertEquals(expectedResutls, results);
 		// the non-filtered should not be called
-		verify(mockPrincipalPrefixDAO, never()).listPrincipalsForPrefix(anyString(), anyLong(), anyLong());
+		verify(mockPrincipalPrefixManager, never()).listPrincipalsForPrefix(anyString(), anyLong(), anyLong());
 	}
 
 	@Test
@@ -525,12 +525,12 @@ public class UserProfileServiceTest {
 		long limit = 10L;
 		List<Long> expectedResutls = Lists.newArrayList(111L,222L);
 		boolean isIndividual = false;
-		when(mockPrincipalPrefixDAO.listPrincipalsForPrefix(prefix, isIndividual, limit, offset)).thenReturn(expectedResutls);
+		when(mockPrincipalPrefixManager.listPrincipalsForPrefix(prefix, isIndividual, limit, offset)).thenReturn(expectedResutls);
 		// call under test
 		List<Long> results = userProfileService.listPrincipalsForPrefix(prefix, filter, offset, limit);
 		assertEquals(expectedResutls, results);
 		// the non-filtered should not be called
-		verify(mockPrincipalPrefixDAO, never()).listPrincipalsForPrefix(anyString(), anyLong(), anyLong());
+		verify(mockPrincipalPrefixManager, never()).listPrincipalsForPrefix(anyString(), anyLong(), anyLong());
 	}
 
 	@Test
@@ -624,9 +624,9 @@ public class UserProfileServiceTest {
 		assertEquals(new Long(3), page.getTotalNumberOfResults());
 
 		// null filter should run the non-filtered query.
-		verify(mockPrincipalPrefixDAO).listPrincipalsForPrefix(prefix, new Long(limit), new Long(offset));
+		verify(mockPrincipalPrefixManager).listPrincipalsForPrefix(prefix, new Long(limit), new Long(offset));
 		// filtered version should not be called
-		verify(mockPrincipalPrefixDAO, never()).listPrincipalsForPrefix(anyString(), anyBoolean(), anyLong(), anyLong());
+		verify(mockPrincipalPrefixManager, never()).listPrincipalsForPrefix(anyString(), anyBoolean(), anyLong(), anyLong());
 	}
 	
 	@Test
@@ -649,9 +649,9 @@ public class UserProfileServiceTest {
 		assertEquals(new Long(3), page.getTotalNumberOfResults());
 
 		// filter should be applied
-		verify(mockPrincipalPrefixDAO, never()).listPrincipalsForPrefix(anyString(), anyLong() , anyLong());
+		verify(mockPrincipalPrefixManager, never()).listPrincipalsForPrefix(anyString(), anyLong() , anyLong());
 		boolean isIndividual = false;
-		verify(mockPrincipalPrefixDAO).listPrincipalsForPrefix(prefix, isIndividual, new Long(limit), new Long(offset));
+		verify(mockPrincipalPrefixManager).listPrincipalsForPrefix(prefix, isIndividual, new Long(limit), new Long(offset));
 	}
 	
 
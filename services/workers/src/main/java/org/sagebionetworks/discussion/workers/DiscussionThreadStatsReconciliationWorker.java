@@ -0,0 +1,83 @@
+package org.sagebionetworks.discussion.workers;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionReplyDAO;
+import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionThreadDAO;
+import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
+import org.sagebionetworks.repo.model.discussion.DiscussionThreadStat;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * The statistics of the threads are counted as views and replies are written,
+ * which can drift from the views and replies, for example when a reply is
+ * deleted the last activity of its thread is not recomputed. Each run of this
+ * worker recomputes the statistics of the next page of threads from scratch, so
+ * all the threads are reconciled periodically. A statistic is only replaced if
+ * no view or reply was counted while it was recomputed, otherwise the thread is
+ * reconciled in the next pass.
+ *
+ */
+public class DiscussionThreadStatsReconciliationWorker implements ProgressingRunner {
+
+	private static final Logger LOG = LogManager.getLogger(DiscussionThreadStatsReconciliationWorker.class);
+
+	public static final long BATCH_SIZE = 100L;
+
+	@Autowired
+	private DiscussionThreadDAO threadDao;
+	@Autowired
+	private DiscussionReplyDAO replyDao;
+
+	// The last thread id of the previous page, the pass starts over after the last page
+	private long lastThreadId = -1L;
+	// The number of threads reconciled in the current pass
+	private long reconciledCount = 0L;
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		List<Long> threadIds = threadDao.getThreadIdsAfter(lastThreadId, BATCH_SIZE);
+		for (Long threadId : threadIds) {
+			if (reconcile(threadId)) {
+				reconciledCount++;
+			}
+		}
+		if (threadIds.size() < BATCH_SIZE) {
+			LOG.info("Reconciled the statistics of {} threads.", reconciledCount);
+			lastThreadId = -1L;
+			reconciledCount = 0L;
+		} else {
+			lastThreadId = threadIds.get(threadIds.size() - 1);
+		}
+	}
+
+	/**
+	 * Recompute the statistic of the given thread.
+	 * 
+	 * @param threadId
+	 * @return True if the statistic was replaced, false if a view or reply was
+	 *         counted in the meantime or the thread no longer exist.
+	 */
+	boolean reconcile(long threadId) {
+		// Read before the views and replies are counted
+		DiscussionThreadStat expected = threadDao.getThreadStats(threadId).orElse(null);
+		DiscussionThreadStat stat = new DiscussionThreadStat();
+		stat.setThreadId(threadId);
+		stat.setActiveAuthors(replyDao.getActiveAuthors(threadId));
+
+		DiscussionThreadReplyStat replyStat = replyDao.getThreadReplyStat(threadId);
+		stat.setLastActivity(replyStat.getLastActivity());
+		stat.setNumberOfReplies(replyStat.getNumberOfReplies());
+
+		stat.setNumberOfViews(threadDao.countThreadView(threadId));
+		return threadDao.compareAndSetThreadStats(expected, stat);
+	}
+
+	long getLastThreadId() {
+		return lastThreadId;
+	}
+}
@@ -1,48 +1,57 @@
 package org.sagebionetworks.discussion.workers;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
-import org.sagebionetworks.asynchronous.workers.changes.ChangeMessageDrivenRunner;
+import org.sagebionetworks.asynchronous.workers.changes.BatchChangeMessageDrivenRunner;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionReplyDAO;
 import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionThreadDAO;
-import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
 import org.sagebionetworks.repo.model.discussion.DiscussionThreadStat;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
 import org.sagebionetworks.workers.util.aws.message.RecoverableMessageException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
 
-public class DiscussionThreadStatsWorker implements ChangeMessageDrivenRunner{
+/**
+ * The number of views and replies of a thread are counted when they are
+ * written, this worker keeps the active authors of the threads up to date. A
+ * busy thread receives a burst of messages, so the messages of a batch are
+ * coalesced and the authors of each thread are computed once per batch.
+ *
+ */
+public class DiscussionThreadStatsWorker implements BatchChangeMessageDrivenRunner {
 	@Autowired
 	private DiscussionThreadDAO threadDao;
 	@Autowired
 	private DiscussionReplyDAO replyDao;
 
 	@Override
-	public void run(ProgressCallback progressCallback, ChangeMessage message)
+	public void run(ProgressCallback progressCallback, List<ChangeMessage> messages)
 			throws RecoverableMessageException {
-		if (message.getChangeType() != ChangeType.UPDATE) {
-			// only process update events
+		// sorted by thread id to prevent deadlock
+		SortedSet<Long> threadIds = new TreeSet<>();
+		for (ChangeMessage message : messages) {
+			if (message.getChangeType() != ChangeType.UPDATE) {
+				// only process update events
+				continue;
+			}
+			threadIds.add(Long.parseLong(message.getObjectId()));
+		}
+		if (threadIds.isEmpty()) {
 			return;
 		}
-		long threadId = Long.parseLong(message.getObjectId());
-
-		DiscussionThreadStat stat = new DiscussionThreadStat();
-		stat.setThreadId(threadId);
-		stat.setActiveAuthors(replyDao.getActiveAuthors(threadId));
-
-		DiscussionThreadReplyStat replyStat = replyDao.getThreadReplyStat(threadId);
-		stat.setLastActivity(replyStat.getLastActivity());
-		stat.setNumberOfReplies(replyStat.getNumberOfReplies());
-
-		stat.setNumberOfViews(threadDao.countThreadView(threadId));
-		try {
-			threadDao.updateThreadStats(Arrays.asList(stat));
-		} catch (DataIntegrityViolationException e) {
-			// the thread no longer exist, do nothing
+		List<DiscussionThreadStat> stats = new ArrayList<>(threadIds.size());
+		for (Long threadId : threadIds) {
+			DiscussionThreadStat stat = new DiscussionThreadStat();
+			stat.setThreadId(threadId);
+			stat.setActiveAuthors(replyDao.getActiveAuthors(threadId));
+			stats.add(stat);
 		}
+		// a thread that no longer exist has no statistic to update
+		threadDao.updateThreadActiveAuthors(stats);
 	}
 
 }
@@ -0,0 +1,82 @@
+package org.sagebionetworks.worker.entity;
+
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.repo.manager.stack.StackStatusManager;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.status.StatusEnum;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Fills the NODE_ANCESTOR closure table in batches until a pass over the nodes
+ * finds nothing to fix, and then marks the {@link BackfillType#NODE_ANCESTOR}
+ * backfill complete. Until then the ancestors of a node are read recursively
+ * from PARENT_ID. A restore marks the backfill incomplete, so this worker picks
+ * the table up again after each migration.
+ *
+ */
+public class NodeAncestorBackfillWorker implements ProgressingRunner {
+
+	public static final int BATCH_SIZE = 1000;
+	// Stays well below the timeout of the semaphore lock
+	public static final long MAX_RUN_TIME_MS = 60_000;
+
+	private NodeDAO nodeDao;
+
+	private BackfillStatusDao backfillStatusDao;
+
+	private StackStatusManager stackStatusManager;
+
+	private Clock clock;
+
+	private Logger logger;
+
+	@Autowired
+	public NodeAncestorBackfillWorker(NodeDAO nodeDao, BackfillStatusDao backfillStatusDao, StackStatusManager stackStatusManager, Clock clock) {
+		this.nodeDao = nodeDao;
+		this.backfillStatusDao = backfillStatusDao;
+		this.stackStatusManager = stackStatusManager;
+		this.clock = clock;
+	}
+
+	@Autowired
+	public void configureLogger(LoggerProvider loggerProvider) {
+		logger = loggerProvider.getLogger(NodeAncestorBackfillWorker.class.getName());
+	}
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		if (backfillStatusDao.isComplete(BackfillType.NODE_ANCESTOR)) {
+			return;
+		}
+		// A restore that starts after this point changes the etag, so this run cannot mark it complete
+		String etag = backfillStatusDao.startBackfill(BackfillType.NODE_ANCESTOR);
+
+		long startTime = clock.currentTimeMillis();
+		long fixedCount = 0;
+		int count;
+
+		do {
+			if (!StatusEnum.READ_WRITE.equals(stackStatusManager.getCurrentStatus().getStatus())) {
+				return;
+			}
+			count = nodeDao.backfillNodeAncestors(BATCH_SIZE);
+			fixedCount += count;
+		} while (count > 0 && clock.currentTimeMillis() - startTime < MAX_RUN_TIME_MS);
+
+		if (count > 0) {
+			logger.info("Backfilled the ancestors of {} nodes (Time: {} ms).", fixedCount, clock.currentTimeMillis() - startTime);
+			return;
+		}
+
+		if (backfillStatusDao.setComplete(BackfillType.NODE_ANCESTOR, etag)) {
+			logger.info("Backfilled the ancestors of {} nodes, the node ancestors are complete.", fixedCount);
+		}
+	}
+
+}
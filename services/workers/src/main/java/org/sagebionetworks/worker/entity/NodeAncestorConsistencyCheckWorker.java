@@ -0,0 +1,65 @@
+package org.sagebionetworks.worker.entity;
+
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ar.AccessRestrictionStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Once the {@link BackfillType#NODE_ANCESTOR} backfill is complete, compares
+ * the access restrictions of a sample of the entities found through the node
+ * ancestors with the restrictions found by walking PARENT_ID. Any difference
+ * means the ancestors cannot be trusted: the backfill is marked incomplete, so
+ * the hierarchy is walked with PARENT_ID again, and the ancestors of the
+ * inconsistent entities are reset for the backfill to fill in again.
+ *
+ */
+public class NodeAncestorConsistencyCheckWorker implements ProgressingRunner {
+
+	public static final int SAMPLE_SIZE = 1000;
+
+	private NodeDAO nodeDao;
+
+	private AccessRestrictionStatusDao accessRestrictionStatusDao;
+
+	private BackfillStatusDao backfillStatusDao;
+
+	private Logger logger;
+
+	@Autowired
+	public NodeAncestorConsistencyCheckWorker(NodeDAO nodeDao, AccessRestrictionStatusDao accessRestrictionStatusDao,
+			BackfillStatusDao backfillStatusDao) {
+		this.nodeDao = nodeDao;
+		this.accessRestrictionStatusDao = accessRestrictionStatusDao;
+		this.backfillStatusDao = backfillStatusDao;
+	}
+
+	@Autowired
+	public void configureLogger(LoggerProvider loggerProvider) {
+		logger = loggerProvider.getLogger(NodeAncestorConsistencyCheckWorker.class.getName());
+	}
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		if (!backfillStatusDao.isComplete(BackfillType.NODE_ANCESTOR)) {
+			return;
+		}
+		List<Long> sample = nodeDao.getSampleOfNodeIds(SAMPLE_SIZE);
+		List<Long> inconsistent = accessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(sample);
+		if (inconsistent.isEmpty()) {
+			return;
+		}
+		logger.error("The node ancestors of {} entities do not match their hierarchy, restarting the backfill: {}",
+				inconsistent.size(), inconsistent);
+		backfillStatusDao.setIncomplete(BackfillType.NODE_ANCESTOR);
+		nodeDao.resetNodeAncestors(inconsistent);
+	}
+
+}
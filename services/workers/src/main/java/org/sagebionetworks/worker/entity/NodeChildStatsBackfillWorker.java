@@ -0,0 +1,95 @@
+package org.sagebionetworks.worker.entity;
+
+import org.apache.logging.log4j.Logger;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.common.util.progress.ProgressingRunner;
+import org.sagebionetworks.repo.manager.stack.StackStatusManager;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.status.StatusEnum;
+import org.sagebionetworks.util.Clock;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Recomputes the NODE_CHILD_STATS of every parent in batches, in order of the
+ * parent ID, and then marks the {@link BackfillType#NODE_CHILD_STATS} backfill
+ * complete. Until then the child statistics are aggregated over the children. A
+ * run that is out of time picks up after the last parent of the previous run,
+ * unless a restore has started the backfill over since.
+ *
+ */
+public class NodeChildStatsBackfillWorker implements ProgressingRunner {
+
+	public static final int BATCH_SIZE = 1000;
+	// Stays well below the timeout of the semaphore lock
+	public static final long MAX_RUN_TIME_MS = 60_000;
+	public static final long FIRST_PARENT_ID = 0L;
+
+	private NodeDAO nodeDao;
+
+	private BackfillStatusDao backfillStatusDao;
+
+	private StackStatusManager stackStatusManager;
+
+	private Clock clock;
+
+	private Logger logger;
+
+	// The backfill this worker is part way through and the last parent it recomputed
+	private String backfillEtag;
+
+	private long lastParentId;
+
+	@Autowired
+	public NodeChildStatsBackfillWorker(NodeDAO nodeDao, BackfillStatusDao backfillStatusDao, StackStatusManager stackStatusManager, Clock clock) {
+		this.nodeDao = nodeDao;
+		this.backfillStatusDao = backfillStatusDao;
+		this.stackStatusManager = stackStatusManager;
+		this.clock = clock;
+	}
+
+	@Autowired
+	public void configureLogger(LoggerProvider loggerProvider) {
+		logger = loggerProvider.getLogger(NodeChildStatsBackfillWorker.class.getName());
+	}
+
+	@Override
+	public void run(ProgressCallback progressCallback) throws Exception {
+		if (backfillStatusDao.isComplete(BackfillType.NODE_CHILD_STATS)) {
+			return;
+		}
+		// A restore that starts after this point changes the etag, so this run cannot mark it complete
+		String etag = backfillStatusDao.startBackfill(BackfillType.NODE_CHILD_STATS);
+		if (!etag.equals(backfillEtag)) {
+			backfillEtag = etag;
+			lastParentId = FIRST_PARENT_ID;
+		}
+
+		long startTime = clock.currentTimeMillis();
+		Long lastId;
+
+		do {
+			if (!StatusEnum.READ_WRITE.equals(stackStatusManager.getCurrentStatus().getStatus())) {
+				return;
+			}
+			lastId = nodeDao.recomputeChildStats(lastParentId, BATCH_SIZE);
+			if (lastId != null) {
+				lastParentId = lastId;
+			}
+		} while (lastId != null && clock.currentTimeMillis() - startTime < MAX_RUN_TIME_MS);
+
+		if (lastId != null) {
+			logger.info("Recomputed the child statistics of the parents up to {} (Time: {} ms).", lastParentId, clock.currentTimeMillis() - startTime);
+			return;
+		}
+
+		if (backfillStatusDao.setComplete(BackfillType.NODE_CHILD_STATS, etag)) {
+			logger.info("Recomputed the child statistics of every parent, the child statistics are complete.");
+		}
+		// The next backfill starts over
+		backfillEtag = null;
+	}
+
+}
@@ -0,0 +1,132 @@
+package org.sagebionetworks.discussion.workers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionReplyDAO;
+import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionThreadDAO;
+import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
+import org.sagebionetworks.repo.model.discussion.DiscussionThreadStat;
+
+@ExtendWith(MockitoExtension.class)
+public class DiscussionThreadStatsReconciliationWorkerUnitTest {
+
+	@Mock
+	private DiscussionThreadDAO mockThreadDao;
+	@Mock
+	private DiscussionReplyDAO mockReplyDao;
+	@Mock
+	private ProgressCallback mockCallback;
+	@InjectMocks
+	private DiscussionThreadStatsReconciliationWorker worker;
+	@Captor
+	private ArgumentCaptor<DiscussionThreadStat> statCaptor;
+
+	@Test
+	public void testRunWithNoThreads() throws Exception {
+		when(mockThreadDao.getThreadIdsAfter(-1L, DiscussionThreadStatsReconciliationWorker.BATCH_SIZE))
+				.thenReturn(Collections.emptyList());
+		worker.run(mockCallback);
+		assertEquals(-1L, worker.getLastThreadId());
+		verifyZeroInteractions(mockReplyDao);
+	}
+
+	@Test
+	public void testRun() throws Exception {
+		Long threadId = 1L;
+		DiscussionThreadReplyStat replyStat = new DiscussionThreadReplyStat();
+		Long lastActivity = System.currentTimeMillis();
+		replyStat.setLastActivity(lastActivity);
+		replyStat.setNumberOfReplies(2L);
+		when(mockThreadDao.getThreadIdsAfter(-1L, DiscussionThreadStatsReconciliationWorker.BATCH_SIZE))
+				.thenReturn(Arrays.asList(threadId));
+		when(mockThreadDao.getThreadStats(threadId)).thenReturn(Optional.empty());
+		when(mockReplyDao.getThreadReplyStat(threadId)).thenReturn(replyStat);
+		when(mockThreadDao.countThreadView(threadId)).thenReturn(3L);
+		when(mockReplyDao.getActiveAuthors(threadId)).thenReturn(null);
+		when(mockThreadDao.compareAndSetThreadStats(any(), any())).thenReturn(true);
+		worker.run(mockCallback);
+		verify(mockThreadDao).compareAndSetThreadStats(isNull(), statCaptor.capture());
+		DiscussionThreadStat stat = statCaptor.getValue();
+		assertEquals(threadId, stat.getThreadId());
+		assertEquals((Long)2L, stat.getNumberOfReplies());
+		assertEquals(lastActivity, stat.getLastActivity());
+		assertEquals((Long)3L, stat.getNumberOfViews());
+		assertNull(stat.getActiveAuthors());
+		// the last page starts the pass over
+		assertEquals(-1L, worker.getLastThreadId());
+	}
+
+	@Test
+	public void testRunWithFullPage() throws Exception {
+		List<Long> threadIds = new ArrayList<>();
+		for (long i = 0; i < DiscussionThreadStatsReconciliationWorker.BATCH_SIZE; i++) {
+			threadIds.add(i * 2);
+		}
+		long lastThreadId = threadIds.get(threadIds.size() - 1);
+		when(mockThreadDao.getThreadIdsAfter(-1L, DiscussionThreadStatsReconciliationWorker.BATCH_SIZE)).thenReturn(threadIds);
+		when(mockThreadDao.getThreadStats(anyLong())).thenReturn(Optional.empty());
+		when(mockReplyDao.getThreadReplyStat(anyLong())).thenReturn(new DiscussionThreadReplyStat());
+		worker.run(mockCallback);
+		// the next page starts after the last thread of this page
+		assertEquals(lastThreadId, worker.getLastThreadId());
+
+		when(mockThreadDao.getThreadIdsAfter(lastThreadId, DiscussionThreadStatsReconciliationWorker.BATCH_SIZE))
+				.thenReturn(Collections.emptyList());
+		worker.run(mockCallback);
+		assertEquals(-1L, worker.getLastThreadId());
+	}
+
+	@Test
+	public void testReconcile() {
+		Long threadId = 1L;
+		DiscussionThreadStat expected = new DiscussionThreadStat();
+		expected.setThreadId(threadId);
+		expected.setNumberOfViews(1L);
+		when(mockThreadDao.getThreadStats(threadId)).thenReturn(Optional.of(expected));
+		when(mockReplyDao.getThreadReplyStat(threadId)).thenReturn(new DiscussionThreadReplyStat());
+		when(mockThreadDao.countThreadView(threadId)).thenReturn(2L);
+		when(mockThreadDao.compareAndSetThreadStats(any(), any())).thenReturn(true);
+		// call under test
+		assertTrue(worker.reconcile(threadId));
+		verify(mockThreadDao).compareAndSetThreadStats(same(expected), statCaptor.capture());
+		assertEquals((Long) 2L, statCaptor.getValue().getNumberOfViews());
+	}
+
+	@Test
+	public void testReconcileWithConcurrentCount() {
+		Long threadId = 1L;
+		DiscussionThreadStat expected = new DiscussionThreadStat();
+		expected.setThreadId(threadId);
+		when(mockThreadDao.getThreadStats(threadId)).thenReturn(Optional.of(expected));
+		when(mockReplyDao.getThreadReplyStat(threadId)).thenReturn(new DiscussionThreadReplyStat());
+		// a view or reply was counted in the meantime
+		when(mockThreadDao.compareAndSetThreadStats(any(), any())).thenReturn(false);
+		// call under test
+		assertFalse(worker.reconcile(threadId));
+		verify(mockThreadDao).compareAndSetThreadStats(same(expected), any());
+	}
+}
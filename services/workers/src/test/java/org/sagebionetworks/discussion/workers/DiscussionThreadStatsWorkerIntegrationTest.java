@@ -78,7 +78,9 @@ public class DiscussionThreadStatsWorkerIntegrationTest {
 		TimeUtils.waitFor(TIME_OUT, 1000, () -> {
 			DiscussionThreadBundle bundle = threadManager.getThread(adminUserInfo, threadId);
 			
-			return Pair.create(bundle.getNumberOfReplies() == 1, null);
+			// the reply is counted when it is written, the worker updates the active authors
+			return Pair.create(bundle.getNumberOfReplies() == 1 && bundle.getActiveAuthors() != null
+					&& bundle.getActiveAuthors().contains(adminUserInfo.getId().toString()), null);
 		});
 	}
 
@@ -1,24 +1,26 @@
 package org.sagebionetworks.discussion.workers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.sagebionetworks.common.util.progress.ProgressCallback;
 import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionReplyDAO;
 import org.sagebionetworks.repo.model.dbo.dao.discussion.DiscussionThreadDAO;
-import org.sagebionetworks.repo.model.discussion.DiscussionThreadReplyStat;
 import org.sagebionetworks.repo.model.discussion.DiscussionThreadStat;
 import org.sagebionetworks.repo.model.message.ChangeMessage;
 import org.sagebionetworks.repo.model.message.ChangeType;
@@ -32,16 +34,22 @@ public class DiscussionThreadStatsWorkerUnitTest {
 	@Mock
 	private DiscussionReplyDAO mockReplyDao;
 	@Mock
-	private ChangeMessage mockMessage;
-	@Mock
 	private ProgressCallback mockCallback;
 	@InjectMocks
 	private DiscussionThreadStatsWorker worker;
+	@Captor
+	private ArgumentCaptor<List<DiscussionThreadStat>> statsCaptor;
+
+	private static ChangeMessage createMessage(Long threadId, ChangeType changeType) {
+		ChangeMessage message = new ChangeMessage();
+		message.setObjectId(threadId.toString());
+		message.setChangeType(changeType);
+		return message;
+	}
 
 	@Test
 	public void testNotUpdateMessage() throws RecoverableMessageException {
-		when(mockMessage.getChangeType()).thenReturn(ChangeType.CREATE);
-		worker.run(mockCallback, mockMessage);
+		worker.run(mockCallback, Collections.singletonList(createMessage(1L, ChangeType.CREATE)));
 		verifyZeroInteractions(mockReplyDao);
 		verifyZeroInteractions(mockThreadDao);
 	}
@@ -49,26 +57,38 @@ public class DiscussionThreadStatsWorkerUnitTest {
 	@Test
 	public void testUpdateMessage() throws RecoverableMessageException {
 		Long threadId = 1L;
-		DiscussionThreadReplyStat replyStat = new DiscussionThreadReplyStat();
-		Long lastActivity = System.currentTimeMillis();
-		replyStat.setLastActivity(lastActivity);
-		replyStat.setNumberOfReplies(2L);
-		when(mockMessage.getObjectId()).thenReturn(threadId.toString());
-		when(mockMessage.getChangeType()).thenReturn(ChangeType.UPDATE);
-		when(mockReplyDao.getThreadReplyStat(threadId)).thenReturn(replyStat);
-		when(mockThreadDao.countThreadView(threadId)).thenReturn(3L);
-		when(mockReplyDao.getActiveAuthors(threadId)).thenReturn(null);
-		worker.run(mockCallback, mockMessage);
-		ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
-		verify(mockThreadDao).updateThreadStats(captor.capture());
-		List value = captor.getValue();
-		assertNotNull(value);
-		assertEquals(1, value.size());
-		DiscussionThreadStat stat = (DiscussionThreadStat) value.get(0);
+		List<String> activeAuthors = Arrays.asList("123", "456");
+		when(mockReplyDao.getActiveAuthors(threadId)).thenReturn(activeAuthors);
+		worker.run(mockCallback, Collections.singletonList(createMessage(threadId, ChangeType.UPDATE)));
+		verify(mockThreadDao).updateThreadActiveAuthors(statsCaptor.capture());
+		List<DiscussionThreadStat> stats = statsCaptor.getValue();
+		assertEquals(1, stats.size());
+		DiscussionThreadStat stat = stats.get(0);
 		assertEquals(threadId, stat.getThreadId());
-		assertEquals((Long)2L, stat.getNumberOfReplies());
-		assertEquals(lastActivity, stat.getLastActivity());
-		assertEquals((Long)3L, stat.getNumberOfViews());
-		assertNull(stat.getActiveAuthors());
+		assertEquals(activeAuthors, stat.getActiveAuthors());
+		// the views and replies are counted when they are written
+		verify(mockThreadDao, never()).countThreadView(threadId);
+		verify(mockReplyDao, never()).getThreadReplyStat(threadId);
+	}
+
+	@Test
+	public void testUpdateMessagesCoalesced() throws RecoverableMessageException {
+		List<ChangeMessage> messages = Arrays.asList(createMessage(2L, ChangeType.UPDATE),
+				createMessage(1L, ChangeType.UPDATE), createMessage(2L, ChangeType.UPDATE),
+				createMessage(3L, ChangeType.DELETE), createMessage(2L, ChangeType.UPDATE));
+		when(mockReplyDao.getActiveAuthors(1L)).thenReturn(Arrays.asList("123"));
+		when(mockReplyDao.getActiveAuthors(2L)).thenReturn(Arrays.asList("456"));
+		worker.run(mockCallback, messages);
+		verify(mockReplyDao).getActiveAuthors(1L);
+		verify(mockReplyDao).getActiveAuthors(2L);
+		verifyNoMoreInteractions(mockReplyDao);
+		verify(mockThreadDao).updateThreadActiveAuthors(statsCaptor.capture());
+		List<DiscussionThreadStat> stats = statsCaptor.getValue();
+		// ordered by thread id
+		assertEquals(2, stats.size());
+		assertEquals((Long) 1L, stats.get(0).getThreadId());
+		assertEquals(Arrays.asList("123"), stats.get(0).getActiveAuthors());
+		assertEquals((Long) 2L, stats.get(1).getThreadId());
+		assertEquals(Arrays.asList("456"), stats.get(1).getActiveAuthors());
 	}
 }
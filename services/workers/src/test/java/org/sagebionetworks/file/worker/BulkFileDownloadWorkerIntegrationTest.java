@@ -21,11 +21,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.sagebionetworks.AsynchronousJobWorkerHelper;
+import org.sagebionetworks.aws.SynapseS3Client;
 import org.sagebionetworks.repo.manager.EntityManager;
 import org.sagebionetworks.repo.manager.UserManager;
 import org.sagebionetworks.repo.manager.file.CommandLineCacheZipEntryNameProvider;
 import org.sagebionetworks.repo.manager.file.FileHandleManager;
-import org.sagebionetworks.repo.manager.file.FileHandlePackageManager;
 import org.sagebionetworks.repo.model.AuthorizationConstants.BOOTSTRAP_PRINCIPAL;
 import org.sagebionetworks.repo.model.Project;
 import org.sagebionetworks.repo.model.UserInfo;
@@ -42,6 +42,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.google.common.collect.Lists;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -55,9 +56,9 @@ public class BulkFileDownloadWorkerIntegrationTest {
 	@Autowired
 	UserManager userManager;
 	@Autowired
-	FileHandlePackageManager bulkDownloadManager;
-	@Autowired
 	EntityManager entityManager;
+	@Autowired
+	SynapseS3Client s3Client;
 	
 	@Autowired
 	AsynchronousJobWorkerHelper asynchronousJobWorkerHelper;
@@ -165,7 +166,7 @@ public class BulkFileDownloadWorkerIntegrationTest {
 			assertNotNull(response.getResultZipFileHandleId());
 		}, MAX_WAIT_MS).getResponse().getResultZipFileHandleId();
 		
-		resulFileHandle = bulkDownloadManager.getS3FileHandle(zipFileHandleId);
+		resulFileHandle = (S3FileHandle) fileUploadManager.getRawFileHandle(adminUserInfo, zipFileHandleId);
 		fileHandlesToDelete.add(resulFileHandle.getId());
 		// Is the zip as expected?
 		validateZipContents(fileOneContents, fileTwoContents);
@@ -182,7 +183,8 @@ public class BulkFileDownloadWorkerIntegrationTest {
 	private void validateZipContents(String fileOneContents,
 			String fileTwoContents) throws FileNotFoundException,
 			IOException {
-		File tempZip = bulkDownloadManager.downloadToTempFile(resulFileHandle);
+		File tempZip = File.createTempFile("FileHandle" + resulFileHandle.getId(), ".tmp");
+		s3Client.getObject(new GetObjectRequest(resulFileHandle.getBucketName(), resulFileHandle.getKey()), tempZip);
 		ZipInputStream zipIn = null;
 		try{
 			zipIn = new ZipInputStream(new FileInputStream(tempZip));
@@ -0,0 +1,145 @@
+package org.sagebionetworks.worker.entity;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.manager.stack.StackStatusManager;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.status.StackStatus;
+import org.sagebionetworks.repo.model.status.StatusEnum;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeAncestorBackfillWorkerUnitTest {
+
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private BackfillStatusDao mockBackfillStatusDao;
+
+	@Mock
+	private StackStatusManager mockStackStatusManager;
+
+	@Mock
+	private Clock mockClock;
+
+	@Mock
+	private LoggerProvider mockLoggerProvider;
+
+	@Mock
+	private Logger mockLogger;
+
+	@Mock
+	private ProgressCallback mockCallback;
+
+	@Mock
+	private StackStatus mockStackStatus;
+
+	private NodeAncestorBackfillWorker worker;
+
+	private String etag;
+
+	@BeforeEach
+	public void before() {
+		when(mockLoggerProvider.getLogger(any())).thenReturn(mockLogger);
+		worker = new NodeAncestorBackfillWorker(mockNodeDao, mockBackfillStatusDao, mockStackStatusManager, mockClock);
+		worker.configureLogger(mockLoggerProvider);
+		etag = "etag";
+	}
+
+	@Test
+	public void testRunWithComplete() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(true);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).isComplete(BackfillType.NODE_ANCESTOR);
+		verifyNoMoreInteractions(mockBackfillStatusDao);
+		verify(mockNodeDao, never()).backfillNodeAncestors(anyInt());
+	}
+
+	@Test
+	public void testRunWithNothingLeft() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.backfillNodeAncestors(anyInt())).thenReturn(5, 3, 0);
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(true);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).startBackfill(BackfillType.NODE_ANCESTOR);
+		verify(mockNodeDao, times(3)).backfillNodeAncestors(NodeAncestorBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_ANCESTOR, etag);
+		verify(mockLogger).info("Backfilled the ancestors of {} nodes, the node ancestors are complete.", 8L);
+	}
+
+	@Test
+	public void testRunWithOutOfTime() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L, 1L, NodeAncestorBackfillWorker.MAX_RUN_TIME_MS);
+		when(mockNodeDao.backfillNodeAncestors(anyInt())).thenReturn(5);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockNodeDao, times(2)).backfillNodeAncestors(NodeAncestorBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao, never()).setComplete(any(), any());
+	}
+
+	@Test
+	public void testRunWithReadOnly() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_ONLY);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockNodeDao, never()).backfillNodeAncestors(anyInt());
+		verify(mockBackfillStatusDao, never()).setComplete(any(), any());
+	}
+
+	@Test
+	public void testRunWithRestoreDuringRun() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.backfillNodeAncestors(anyInt())).thenReturn(0);
+		// The etag was changed by a restore
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(false);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_ANCESTOR, etag);
+		verify(mockLogger, never()).info(any(String.class), any(Object.class));
+	}
+}
@@ -0,0 +1,104 @@
+package org.sagebionetworks.worker.entity;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.ar.AccessRestrictionStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeAncestorConsistencyCheckWorkerUnitTest {
+
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private AccessRestrictionStatusDao mockAccessRestrictionStatusDao;
+
+	@Mock
+	private BackfillStatusDao mockBackfillStatusDao;
+
+	@Mock
+	private LoggerProvider mockLoggerProvider;
+
+	@Mock
+	private Logger mockLogger;
+
+	@Mock
+	private ProgressCallback mockCallback;
+
+	private NodeAncestorConsistencyCheckWorker worker;
+
+	private List<Long> sample;
+
+	@BeforeEach
+	public void before() {
+		when(mockLoggerProvider.getLogger(any())).thenReturn(mockLogger);
+		worker = new NodeAncestorConsistencyCheckWorker(mockNodeDao, mockAccessRestrictionStatusDao, mockBackfillStatusDao);
+		worker.configureLogger(mockLoggerProvider);
+		sample = Arrays.asList(1L, 2L, 3L);
+	}
+
+	@Test
+	public void testRunWithIncomplete() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).isComplete(BackfillType.NODE_ANCESTOR);
+		verify(mockNodeDao, never()).getSampleOfNodeIds(anyInt());
+		verify(mockAccessRestrictionStatusDao, never()).getEntitiesWithInconsistentRestrictions(any());
+	}
+
+	@Test
+	public void testRunWithConsistent() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(true);
+		when(mockNodeDao.getSampleOfNodeIds(anyInt())).thenReturn(sample);
+		when(mockAccessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(any())).thenReturn(Collections.emptyList());
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockNodeDao).getSampleOfNodeIds(NodeAncestorConsistencyCheckWorker.SAMPLE_SIZE);
+		verify(mockAccessRestrictionStatusDao).getEntitiesWithInconsistentRestrictions(sample);
+		verify(mockBackfillStatusDao).isComplete(BackfillType.NODE_ANCESTOR);
+		verifyNoMoreInteractions(mockBackfillStatusDao);
+		verify(mockNodeDao, never()).resetNodeAncestors(any());
+		verify(mockLogger, never()).error(anyString(), any(Object.class), any(Object.class));
+	}
+
+	@Test
+	public void testRunWithInconsistent() throws Exception {
+		List<Long> inconsistent = Arrays.asList(2L);
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(true);
+		when(mockNodeDao.getSampleOfNodeIds(anyInt())).thenReturn(sample);
+		when(mockAccessRestrictionStatusDao.getEntitiesWithInconsistentRestrictions(any())).thenReturn(inconsistent);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockLogger).error(anyString(), any(Object.class), any(Object.class));
+		verify(mockBackfillStatusDao).setIncomplete(BackfillType.NODE_ANCESTOR);
+		verify(mockNodeDao).resetNodeAncestors(inconsistent);
+	}
+}
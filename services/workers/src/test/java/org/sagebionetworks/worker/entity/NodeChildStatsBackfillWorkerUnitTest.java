@@ -0,0 +1,181 @@
+package org.sagebionetworks.worker.entity;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.sagebionetworks.LoggerProvider;
+import org.sagebionetworks.common.util.progress.ProgressCallback;
+import org.sagebionetworks.repo.manager.stack.StackStatusManager;
+import org.sagebionetworks.repo.model.NodeDAO;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillStatusDao;
+import org.sagebionetworks.repo.model.dbo.dao.backfill.BackfillType;
+import org.sagebionetworks.repo.model.status.StackStatus;
+import org.sagebionetworks.repo.model.status.StatusEnum;
+import org.sagebionetworks.util.Clock;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeChildStatsBackfillWorkerUnitTest {
+
+	@Mock
+	private NodeDAO mockNodeDao;
+
+	@Mock
+	private BackfillStatusDao mockBackfillStatusDao;
+
+	@Mock
+	private StackStatusManager mockStackStatusManager;
+
+	@Mock
+	private Clock mockClock;
+
+	@Mock
+	private LoggerProvider mockLoggerProvider;
+
+	@Mock
+	private Logger mockLogger;
+
+	@Mock
+	private ProgressCallback mockCallback;
+
+	@Mock
+	private StackStatus mockStackStatus;
+
+	private NodeChildStatsBackfillWorker worker;
+
+	private String etag;
+
+	@BeforeEach
+	public void before() {
+		when(mockLoggerProvider.getLogger(any())).thenReturn(mockLogger);
+		worker = new NodeChildStatsBackfillWorker(mockNodeDao, mockBackfillStatusDao, mockStackStatusManager, mockClock);
+		worker.configureLogger(mockLoggerProvider);
+		etag = "etag";
+	}
+
+	@Test
+	public void testRunWithComplete() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(true);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).isComplete(BackfillType.NODE_CHILD_STATS);
+		verifyNoMoreInteractions(mockBackfillStatusDao);
+		verify(mockNodeDao, never()).recomputeChildStats(anyLong(), anyInt());
+	}
+
+	@Test
+	public void testRunWithNothingLeft() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(5L, 9L, null);
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(true);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).startBackfill(BackfillType.NODE_CHILD_STATS);
+		verify(mockNodeDao).recomputeChildStats(NodeChildStatsBackfillWorker.FIRST_PARENT_ID, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockNodeDao).recomputeChildStats(5L, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockNodeDao).recomputeChildStats(9L, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_CHILD_STATS, etag);
+		verify(mockLogger).info("Recomputed the child statistics of every parent, the child statistics are complete.");
+	}
+
+	@Test
+	public void testRunWithOutOfTime() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L, 1L, NodeChildStatsBackfillWorker.MAX_RUN_TIME_MS);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(5L, 9L);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockNodeDao).recomputeChildStats(NodeChildStatsBackfillWorker.FIRST_PARENT_ID, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockNodeDao).recomputeChildStats(5L, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao, never()).setComplete(any(), any());
+
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(null);
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(true);
+
+		// The next run picks up after the last parent
+		worker.run(mockCallback);
+
+		verify(mockNodeDao).recomputeChildStats(9L, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_CHILD_STATS, etag);
+	}
+
+	@Test
+	public void testRunWithOutOfTimeAndRestore() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag, "restored");
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L, NodeChildStatsBackfillWorker.MAX_RUN_TIME_MS);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(5L);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(null);
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(true);
+
+		// A restore started the backfill over, so the next run starts from the first parent
+		worker.run(mockCallback);
+
+		verify(mockNodeDao, never()).recomputeChildStats(5L, NodeChildStatsBackfillWorker.BATCH_SIZE);
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_CHILD_STATS, "restored");
+	}
+
+	@Test
+	public void testRunWithReadOnly() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_ONLY);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockNodeDao, never()).recomputeChildStats(anyLong(), anyInt());
+		verify(mockBackfillStatusDao, never()).setComplete(any(), any());
+	}
+
+	@Test
+	public void testRunWithRestoreDuringRun() throws Exception {
+		when(mockBackfillStatusDao.isComplete(any())).thenReturn(false);
+		when(mockBackfillStatusDao.startBackfill(any())).thenReturn(etag);
+		when(mockStackStatusManager.getCurrentStatus()).thenReturn(mockStackStatus);
+		when(mockStackStatus.getStatus()).thenReturn(StatusEnum.READ_WRITE);
+		when(mockClock.currentTimeMillis()).thenReturn(0L);
+		when(mockNodeDao.recomputeChildStats(anyLong(), anyInt())).thenReturn(null);
+		// The etag was changed by a restore
+		when(mockBackfillStatusDao.setComplete(any(), any())).thenReturn(false);
+
+		// Call under test
+		worker.run(mockCallback);
+
+		verify(mockBackfillStatusDao).setComplete(BackfillType.NODE_CHILD_STATS, etag);
+		verify(mockLogger, never()).info(any(String.class));
+	}
+}